@@ -2,8 +2,9 @@ package org.nmox.studio.apiclient.search;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 import org.netbeans.spi.quicksearch.SearchProvider;
 import org.netbeans.spi.quicksearch.SearchRequest;
 import org.netbeans.spi.quicksearch.SearchResponse;
@@ -12,6 +13,7 @@ import org.nmox.studio.apiclient.model.ApiModel.Collection;
 import org.nmox.studio.apiclient.model.ApiModel.Request;
 import org.nmox.studio.apiclient.model.ApiModel.Workspace;
 import org.nmox.studio.apiclient.ui.ApiClientTopComponent;
+import org.nmox.studio.core.search.SearchIndex;
 import org.nmox.studio.core.search.SearchTerms;
 
 /**
@@ -20,24 +22,69 @@ import org.nmox.studio.core.search.SearchTerms;
  * Studio with that request selected — faster than hunting the collections
  * tree when you know what you're after. The workspace is read from the aimed
  * project's {@code .nmoxapi.json}, exactly where API Studio persists it.
+ * Each request's words are tokenized into a {@link SearchIndex} the first
+ * time they are seen and kept while they stay the same. The file is
+ * re-read only when its (mtime, size) moved, and the index re-synced
+ * only when the workspace it was read into changed, so a keystroke
+ * against an unchanged workspace is a stat and a read-locked query.
  */
 public class ApiRequestSearchProvider implements SearchProvider {
 
+    private static final int LIMIT = 50;
+
+    /** A saved request as the index keys it: where it lives and what it says. */
+    private record Key(String collection, String name, String method, String url) {
+    }
+
+    private static final SearchIndex<Key> INDEX = new SearchIndex<>();
+
+    /** The workspace the index holds, with its requests by key. */
+    private record Indexed(Workspace ws, Map<Key, Request> requests) {
+    }
+
+    /** The last workspace read from disk, with the file stamp it was read at. */
+    private record Loaded(File file, long mtime, long size, Workspace ws) {
+    }
+
+    private static volatile Indexed indexed = new Indexed(null, Map.of());
+    private static volatile Loaded loaded;
+
     @Override
     public void evaluate(SearchRequest request, SearchResponse response) {
         String text = request.getText();
         if (text == null || text.isBlank()) {
             return; // nothing typed: don't even read the workspace file
         }
-        Workspace ws;
-        try {
-            ws = WorkspaceIO.load(projectDir());
-        } catch (Exception ex) {
+        Workspace ws = workspace(projectDir());
+        if (ws == null) {
             return;
         }
         evaluate(text, ws, (action, label) -> response.addResult(action, label));
     }
 
+    /**
+     * The aimed workspace, read from disk only when its file's (mtime,
+     * size) moved since the last read; null when it cannot be read. The
+     * instance handed back is never mutated, which is what lets the
+     * index use it as its sync stamp.
+     */
+    private static Workspace workspace(File dir) {
+        File file = new File(dir, WorkspaceIO.FILENAME);
+        long mtime = file.lastModified();
+        long size = file.length();
+        Loaded last = loaded;
+        if (last != null && last.file().equals(file) && last.mtime() == mtime && last.size() == size) {
+            return last.ws();
+        }
+        try {
+            Workspace ws = WorkspaceIO.load(dir);
+            loaded = new Loaded(file, mtime, size, ws);
+            return ws;
+        } catch (Exception ex) {
+            return null;
+        }
+    }
+
     /**
      * The search behavior, seamed off the platform types: the quicksearch
      * SPI's {@code SearchRequest}/{@code SearchResponse} are constructible
@@ -50,20 +97,40 @@ public class ApiRequestSearchProvider implements SearchProvider {
         if (needle.isBlank() || ws == null) {
             return;
         }
-        for (Collection c : ws.collections) {
-            for (Request r : c.requests) {
-                if (!matches(r, needle)) {
-                    continue;
-                }
-                String collectionName = c.name;
-                String requestName = r.name;
-                if (!addResult.test(() -> open(collectionName, requestName), label(r))) {
-                    return;
-                }
+        Map<Key, Request> requests = index(ws);
+        for (Key k : INDEX.search(needle, LIMIT)) {
+            Request r = requests.get(k);
+            if (r == null) {
+                continue; // another thread re-synced to another workspace meanwhile
+            }
+            if (!addResult.test(() -> open(k.collection(), k.name()), label(r))) {
+                return;
             }
         }
     }
 
+    /**
+     * Brings {@link #INDEX} in line with {@code ws} — a no-op while it
+     * already holds that very workspace; the requests by key.
+     */
+    private static Map<Key, Request> index(Workspace ws) {
+        INDEX.sync(ws, () -> {
+            Map<Key, Request> requests = new HashMap<>();
+            List<Key> keys = new ArrayList<>();
+            for (Collection c : ws.collections) {
+                for (Request r : c.requests) {
+                    Key k = new Key(c.name, r.name, r.method, r.url);
+                    if (requests.putIfAbsent(k, r) == null) {
+                        keys.add(k);
+                    }
+                }
+            }
+            indexed = new Indexed(ws, requests);
+            return keys;
+        }, k -> new String[]{k.name(), k.method(), k.url()});
+        return indexed.requests();
+    }
+
     private static void open(String collectionName, String requestName) {
         javax.swing.SwingUtilities.invokeLater(() -> {
             org.openide.windows.TopComponent tc = org.openide.windows.WindowManager
@@ -101,15 +168,14 @@ public class ApiRequestSearchProvider implements SearchProvider {
         if (ws == null || needle == null) {
             return hits;
         }
-        String lower = needle;
-        if (lower.isBlank()) {
+        if (needle.isBlank()) {
             return hits;
         }
-        for (Collection c : ws.collections) {
-            for (Request r : c.requests) {
-                if (matches(r, lower)) {
-                    hits.add(r);
-                }
+        Map<Key, Request> requests = index(ws);
+        for (Key k : INDEX.matches(needle)) {
+            Request r = requests.get(k);
+            if (r != null) {
+                hits.add(r);
             }
         }
         return hits;
@@ -126,8 +126,14 @@ class SpawnSiteTrustLedgerTest {
             "GATED-BY-CALLER: every debug action requestTrusts before any spawn (v1.37.0)",
             "PrettierFormatter.java",
             "GATED: project-local .bin/prettier only when isTrusted; else the global tool (v1.102.0)",
+            "PrettierDaemon.java",
+            "GATED-BY-CALLER: serves only a project-local binary PrettierFormatter.resolveBinary "
+            + "returned, which it does only when isTrusted",
             "SassCompiler.java",
             "GATED: resolveBinary checks isTrusted before the project-local .bin/sass (v1.230.0)",
+            "SassHost.java",
+            "GATED-BY-CALLER: hosts only what SassCompiler.hostBinary returned, which checks "
+            + "isTrusted before any project-local sass or sass-embedded binary",
             "DockerClient.java",
             "BLESSED: our own fixed docker verbs; project Dockerfiles build in a container, not the host",
             "CommandExecutor.java",
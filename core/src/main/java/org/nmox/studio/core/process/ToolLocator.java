@@ -3,12 +3,16 @@ package org.nmox.studio.core.process;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Finds developer tools when the IDE was launched from Finder or the
@@ -25,8 +29,44 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public final class ToolLocator {
 
-    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
-    private static volatile String augmentedPath;
+    /** How stale the directory index may get before a lookup rechecks it. */
+    static final long REVALIDATE_MS = 1_000;
+
+    /**
+     * One search dir as last listed: the names in it — keyed by
+     * {@link #key}, valued as listed — and the mtime they were read at.
+     * A directory's mtime moves whenever an entry is added or removed —
+     * exactly an install or uninstall.
+     */
+    private record Listing(String dir, long modified, Map<String, String> names) {
+    }
+
+    /**
+     * Whether names compare case-blind, as Windows filesystems do:
+     * {@code Git.EXE} answers for {@code git}. Settable by tests only.
+     */
+    static volatile boolean caseBlind = org.openide.util.BaseUtilities.isWindows();
+
+    /**
+     * The whole search path at one moment: its listings, the PATH string
+     * built from them, and the answers resolved against them. Replaced
+     * wholesale — never mutated except for the memo — so readers need no
+     * lock.
+     */
+    private record Index(List<Listing> listings, String path,
+            Map<String, String> resolved, long checkedAt) {
+    }
+
+    /** Lookup counters since start (or the last {@link #reset}). */
+    public record Stats(long lookups, long memoHits, long listings, long rebuilds) {
+    }
+
+    private static volatile Index index;
+    private static volatile boolean stale = true;
+    private static final AtomicLong LOOKUPS = new AtomicLong();
+    private static final AtomicLong MEMO_HITS = new AtomicLong();
+    private static final AtomicLong LISTINGS = new AtomicLong();
+    private static final AtomicLong REBUILDS = new AtomicLong();
 
     private ToolLocator() {
     }
@@ -35,29 +75,60 @@ public final class ToolLocator {
      * Resolves a command to an absolute path if it can be found in the
      * augmented search path; otherwise returns the name unchanged and
      * lets the OS try (and report) it.
+     *
+     * <p>Answered from a directory index — one name listing per search
+     * dir — so a lookup is a few set probes, not a stat per directory.
+     * The index rechecks its directories' mtimes at most once every
+     * {@value #REVALIDATE_MS} ms and re-lists only those that moved, so
+     * a tool installed (or removed) mid-session is seen without a
+     * restart; {@link #refresh} forces the recheck at once.
      */
     public static String resolve(String command) {
         if (command.contains(File.separator)) {
             return command; // already a path
         }
-        return CACHE.computeIfAbsent(command, name -> {
-            for (String dir : searchDirs()) {
-                File candidate = new File(dir, name);
-                if (candidate.isFile() && candidate.canExecute()) {
-                    return candidate.getAbsolutePath();
-                }
-                // Windows: PATHEXT resolution, the common two suffice here
-                File exe = new File(dir, name + ".exe");
-                if (exe.isFile()) {
-                    return exe.getAbsolutePath();
-                }
-                File cmd = new File(dir, name + ".cmd");
-                if (cmd.isFile()) {
-                    return cmd.getAbsolutePath();
-                }
-            }
-            return name;
-        });
+        LOOKUPS.incrementAndGet();
+        Index current = current();
+        String hit = current.resolved().get(command);
+        if (hit != null) {
+            MEMO_HITS.incrementAndGet();
+            return hit;
+        }
+        String found = lookup(current, command);
+        current.resolved().put(command, found);
+        return found;
+    }
+
+    /**
+     * Resolves many names against ONE consistent index — the Environment
+     * Doctor's checklist, the language-server catalog. Each value is what
+     * {@link #resolve} would answer; iteration follows {@code commands}.
+     */
+    public static Map<String, String> resolveAll(Collection<String> commands) {
+        Map<String, String> out = new LinkedHashMap<>();
+        for (String command : commands) {
+            out.put(command, resolve(command));
+        }
+        return out;
+    }
+
+    /** True when the bare name {@code command} resolves on the augmented path. */
+    public static boolean isResolvable(String command) {
+        return !command.contains(File.separator) && !resolve(command).equals(command);
+    }
+
+    /**
+     * Makes the next lookup recheck every search dir instead of trusting
+     * the index for up to {@value #REVALIDATE_MS} ms — for flows that
+     * just installed something and ask again straight away.
+     */
+    public static void refresh() {
+        stale = true;
+    }
+
+    /** Lookup counters, for the health surfaces and tests. */
+    public static Stats stats() {
+        return new Stats(LOOKUPS.get(), MEMO_HITS.get(), LISTINGS.get(), REBUILDS.get());
     }
 
     /** A command list with its executable resolved. */
@@ -70,14 +141,110 @@ public final class ToolLocator {
         return resolved;
     }
 
-    /** PATH including every toolchain dir that exists on this machine. */
+    /**
+     * PATH including every toolchain dir that exists on this machine —
+     * rebuilt with the index, so a version manager that gains its first
+     * install mid-session joins the PATH too.
+     */
     public static String augmentedPath() {
-        String cached = augmentedPath;
-        if (cached == null) {
-            cached = String.join(File.pathSeparator, searchDirs());
-            augmentedPath = cached;
+        return current().path();
+    }
+
+    /** The first search dir holding {@code name} as an executable, .exe or .cmd. */
+    private static String lookup(Index current, String name) {
+        for (Listing listing : current.listings()) {
+            Map<String, String> names = listing.names();
+            String plain = names.get(key(name));
+            if (plain != null) {
+                File candidate = new File(listing.dir(), plain);
+                if (candidate.isFile() && candidate.canExecute()) {
+                    return candidate.getAbsolutePath();
+                }
+            }
+            // Windows: PATHEXT resolution, the common two suffice here
+            String exe = names.get(key(name + ".exe"));
+            if (exe != null && new File(listing.dir(), exe).isFile()) {
+                return new File(listing.dir(), exe).getAbsolutePath();
+            }
+            String cmd = names.get(key(name + ".cmd"));
+            if (cmd != null && new File(listing.dir(), cmd).isFile()) {
+                return new File(listing.dir(), cmd).getAbsolutePath();
+            }
+        }
+        return name;
+    }
+
+    /** A name as the listings key it: lower-cased where the filesystem is case-blind. */
+    private static String key(String name) {
+        return caseBlind ? name.toLowerCase(java.util.Locale.ROOT) : name;
+    }
+
+    /** A directory's entries keyed by {@link #key}; the first spelling listed wins. */
+    private static Map<String, String> keyed(String[] names) {
+        if (names == null) {
+            return Map.of();
         }
-        return cached;
+        Map<String, String> keyed = new HashMap<>(names.length * 2);
+        for (String n : names) {
+            keyed.putIfAbsent(key(n), n);
+        }
+        return keyed;
+    }
+
+    /** The index, revalidated first if it is older than the recheck window. */
+    private static Index current() {
+        Index current = index;
+        if (current != null && !stale
+                && System.currentTimeMillis() - current.checkedAt() < REVALIDATE_MS) {
+            return current;
+        }
+        synchronized (ToolLocator.class) {
+            current = index;
+            long now = System.currentTimeMillis();
+            if (current != null && !stale && now - current.checkedAt() < REVALIDATE_MS) {
+                return current;
+            }
+            stale = false;
+            index = revalidate(current, now);
+            return index;
+        }
+    }
+
+    /**
+     * Rechecks the search dirs against {@code previous}: unchanged dirs keep
+     * their listing AND the previous answers stay valid; any moved, added
+     * or vanished dir re-lists and starts a fresh memo.
+     */
+    private static Index revalidate(Index previous, long now) {
+        Map<String, Listing> known = new HashMap<>();
+        if (previous != null) {
+            for (Listing listing : previous.listings()) {
+                known.put(listing.dir(), listing);
+            }
+        }
+        List<String> dirs = searchDirs();
+        List<Listing> listings = new ArrayList<>(dirs.size());
+        boolean changed = previous == null || previous.listings().size() != dirs.size();
+        for (int i = 0; i < dirs.size(); i++) {
+            String dir = dirs.get(i);
+            long modified = new File(dir).lastModified();
+            Listing old = known.get(dir);
+            if (old != null && old.modified() == modified) {
+                listings.add(old);
+                changed |= !previous.listings().get(i).dir().equals(dir);
+                continue;
+            }
+            String[] names = new File(dir).list();
+            LISTINGS.incrementAndGet();
+            listings.add(new Listing(dir, modified, keyed(names)));
+            changed = true;
+        }
+        if (!changed) {
+            return new Index(previous.listings(), previous.path(), previous.resolved(), now);
+        }
+        REBUILDS.incrementAndGet();
+        return new Index(List.copyOf(listings), String.join(File.pathSeparator, dirs),
+                new ConcurrentHashMap<>(), now);
     }
 
     private static List<String> searchDirs() {
@@ -151,9 +318,15 @@ public final class ToolLocator {
         }
     }
 
-    /** Test hook: forget cached lookups (the filesystem changed). */
+    /** Test hook: forget the index and the counters (the filesystem changed). */
     static void reset() {
-        CACHE.clear();
-        augmentedPath = null;
+        synchronized (ToolLocator.class) {
+            index = null;
+            stale = true;
+        }
+        LOOKUPS.set(0);
+        MEMO_HITS.set(0);
+        LISTINGS.set(0);
+        REBUILDS.set(0);
     }
 }
@@ -0,0 +1,504 @@
+package org.nmox.studio.core.search;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link SearchTerms}' matching rule, answered from haystacks that were
+ * tokenized once instead of on every keystroke.
+ *
+ * <p><b>Why this exists.</b> Every Quick Search provider used to walk
+ * its whole source per keystroke and hand each item's text to
+ * {@link SearchTerms#matches}, which splits it into words again — the
+ * device catalog alone is a few hundred entries of title, description
+ * and vocabulary, re-tokenized for every character typed. Here an item's
+ * words go into a prefix trie when the item is {@link #put}, and a query
+ * walks one trie path per term.
+ *
+ * <p><b>Same answers, by construction.</b> {@code SearchTerms} accepts a
+ * term when some word starts with the term's singular (its three word
+ * tests reduce to that one), or — for a term of
+ * {@link SearchTerms#MIN_LOOSE_TERM} characters or any CJK — when the
+ * raw text contains it. The first is a walk of the word trie to the
+ * singular, then every word below it. The second is a walk of a second
+ * trie holding each letter-and-digit run's suffixes, cut at
+ * {@link #LOOSE_DEPTH} characters: a term is inside a run exactly when
+ * it starts one of the run's suffixes, and a term longer than the cut is
+ * confirmed against the item's raw text. {@link #matches} is
+ * {@code SearchTerms.matches} over the whole source, in source order;
+ * the index's test checks the two agree.
+ *
+ * <p><b>Ranking and budget.</b> {@link #search} orders hits by how well
+ * each term landed — a whole word beats a word prefix beats a mid-word
+ * fragment, and a hit in an item's first haystack (its name) beats one
+ * in the rest — then by source order. It stops collecting when its time
+ * budget runs out and ranks what it has, so a huge source can cost a
+ * keystroke at most the budget.
+ *
+ * <p>Incremental and thread-safe: {@link #put}, {@link #remove} and
+ * {@link #sync} take a write lock, queries a read lock, so any number of
+ * Quick Search threads can query while a provider updates. A provider
+ * that cannot hear its source change hands
+ * {@link #sync(Object, Supplier, Function)} a cheap stamp of it instead:
+ * while the stamp is unchanged the call costs one {@code equals} — no
+ * listing, no hashing, no write lock — so a keystroke only ever takes
+ * the read lock. Items are keys: they need stable
+ * {@code equals}/{@code hashCode}, and an item's haystacks are read
+ * once, at {@code put}.
+ *
+ * @param <T> what a hit hands back
+ */
+public final class SearchIndex<T> {
+
+    /**
+     * How deep run suffixes go into the loose trie. Mid-word queries are
+     * pasted fragments, and any fragment this long is already rare; a
+     * longer one walks this far and is confirmed against the raw text.
+     */
+    static final int LOOSE_DEPTH = 16;
+
+    /**
+     * What one Quick Search keystroke may spend in one provider: well
+     * under a frame, so a dozen providers still answer before the next
+     * key lands.
+     */
+    public static final Duration KEYSTROKE_BUDGET = Duration.ofMillis(10);
+
+    /** Term placement, best first; the score a term contributes. */
+    private static final int WHOLE_WORD = 3;
+    private static final int WORD_PREFIX = 2;
+    private static final int MID_WORD = 1;
+    /** Extra for a term that landed in the item's first haystack. */
+    private static final int PRIMARY_FIELD = 1;
+    /** Survivors few enough to check one by one rather than walk a trie for. */
+    private static final int FEW = 32;
+
+    /** One trie node; {@code ends} maps the items whose text ends a key here to their first field. */
+    private static final class Node {
+
+        final Map<Character, Node> children = new HashMap<>(4);
+        final Map<Entry<?>, Integer> ends = new HashMap<>(2);
+    }
+
+    /** An indexed item and everything its removal needs to find again. */
+    private static final class Entry<T> {
+
+        final T item;
+        long seq;
+        final String raw;
+        final Map<String, Integer> words;
+        final Map<String, Integer> suffixes;
+
+        Entry(T item, long seq, String raw, Map<String, Integer> words, Map<String, Integer> suffixes) {
+            this.item = item;
+            this.seq = seq;
+            this.raw = raw;
+            this.words = words;
+            this.suffixes = suffixes;
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node wordRoot = new Node();
+    private final Node looseRoot = new Node();
+    private final Map<T, Entry<T>> entries = new HashMap<>();
+    private long nextSeq;
+    /** What the last stamped sync was taken under; null once anything else changed the index. */
+    private volatile Object syncedStamp;
+
+    /**
+     * Indexes {@code item} under its haystacks (nulls skipped, the first
+     * one being its name), replacing what it was indexed under before. A
+     * replaced item keeps its place in source order.
+     */
+    public void put(T item, String... haystacks) {
+        lock.writeLock().lock();
+        try {
+            Entry<T> old = entries.get(item);
+            long seq = old != null ? old.seq : nextSeq++;
+            if (old != null) {
+                unlink(old);
+            }
+            link(entry(item, seq, haystacks));
+            syncedStamp = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Drops {@code item}; false when it was not indexed. */
+    public boolean remove(T item) {
+        lock.writeLock().lock();
+        try {
+            Entry<T> old = entries.remove(item);
+            if (old != null) {
+                unlink(old);
+                syncedStamp = null;
+            }
+            return old != null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Makes the index hold exactly {@code items}, in that order: new
+     * items are tokenized, vanished ones dropped, and items already
+     * present are only re-ordered — their text is not read again. The
+     * provider's refresh for a source that is cheap to list and dear to
+     * tokenize.
+     */
+    public void sync(Collection<? extends T> items, Function<? super T, String[]> haystacks) {
+        lock.writeLock().lock();
+        try {
+            syncLocked(items, haystacks);
+            syncedStamp = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * {@link #sync(Collection, Function)} to what {@code items} supplies,
+     * skipped while {@code stamp} equals the stamp of the last such
+     * sync. The stamp is whatever changes when the source does — a
+     * version counter, a file's (mtime, size), the source's own cached
+     * list — and is compared before any lock is taken; {@code items} is
+     * only asked (under the write lock, so the freshest answer wins a
+     * race) when it moved. A null stamp always syncs. True when it
+     * synced.
+     */
+    public boolean sync(Object stamp, Supplier<? extends Collection<? extends T>> items,
+            Function<? super T, String[]> haystacks) {
+        if (stamp != null && stamp.equals(syncedStamp)) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            if (stamp != null && stamp.equals(syncedStamp)) {
+                return false;
+            }
+            syncLocked(items.get(), haystacks);
+            syncedStamp = stamp;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void syncLocked(Collection<? extends T> items, Function<? super T, String[]> haystacks) {
+        Set<T> keep = new HashSet<>(items);
+        for (Entry<T> e : new ArrayList<>(entries.values())) {
+            if (!keep.contains(e.item)) {
+                entries.remove(e.item);
+                unlink(e);
+            }
+        }
+        long seq = 0;
+        for (T item : items) {
+            Entry<T> e = entries.get(item);
+            if (e == null) {
+                link(entry(item, seq, haystacks.apply(item)));
+            } else {
+                e.seq = seq;
+            }
+            seq++;
+        }
+        nextSeq = seq;
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            entries.clear();
+            wordRoot.children.clear();
+            looseRoot.children.clear();
+            nextSeq = 0;
+            syncedStamp = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Every item {@link SearchTerms#matches} would accept, in source
+     * order — the drop-in for a loop over the source. A blank query
+     * matches nothing.
+     */
+    public List<T> matches(String query) {
+        lock.readLock().lock();
+        try {
+            Map<Entry<?>, Integer> hits = collect(query, Long.MAX_VALUE);
+            List<Entry<T>> found = entriesOf(hits);
+            found.sort((a, b) -> Long.compare(a.seq, b.seq));
+            List<T> out = new ArrayList<>(found.size());
+            for (Entry<T> e : found) {
+                out.add(e.item);
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** {@link #search(String, int, Duration)} within {@link #KEYSTROKE_BUDGET}. */
+    public List<T> search(String query, int limit) {
+        return search(query, limit, KEYSTROKE_BUDGET);
+    }
+
+    /**
+     * The best {@code limit} items for {@code query}, best first. When
+     * {@code budget} runs out mid-collection the ranking covers what was
+     * collected so far — a keystroke never waits longer than it allows.
+     */
+    public List<T> search(String query, int limit, Duration budget) {
+        long deadline = System.nanoTime() + budget.toNanos();
+        lock.readLock().lock();
+        try {
+            Map<Entry<?>, Integer> hits = collect(query, deadline);
+            List<Entry<T>> found = entriesOf(hits);
+            found.sort((a, b) -> {
+                int byScore = Integer.compare(hits.get(b), hits.get(a));
+                return byScore != 0 ? byScore : Long.compare(a.seq, b.seq);
+            });
+            List<T> out = new ArrayList<>(Math.min(limit, found.size()));
+            for (Entry<T> e : found) {
+                if (out.size() >= limit) {
+                    break;
+                }
+                out.add(e.item);
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Entry<T>> entriesOf(Map<Entry<?>, Integer> hits) {
+        List<Entry<T>> found = new ArrayList<>(hits.size());
+        for (Entry<?> e : hits.keySet()) {
+            found.add((Entry<T>) e);
+        }
+        return found;
+    }
+
+    /**
+     * Every item all terms land in, with its score: the first term's
+     * hits, narrowed by each later term. Stops early at the deadline.
+     * Called under the read lock.
+     */
+    private Map<Entry<?>, Integer> collect(String query, long deadline) {
+        Map<Entry<?>, Integer> acc = null;
+        for (String term : SearchTerms.terms(query)) {
+            if (acc == null) {
+                acc = termHits(term, deadline);
+                continue;
+            }
+            // once the survivors are few — or the budget is spent — it is
+            // cheaper (and still exact) to check each against its own words
+            // than to walk the tries again
+            boolean perItem = acc.size() <= FEW || System.nanoTime() > deadline;
+            Map<Entry<?>, Integer> hits = perItem ? null : termHits(term, deadline);
+            Map<Entry<?>, Integer> narrowed = new HashMap<>();
+            for (Map.Entry<Entry<?>, Integer> a : acc.entrySet()) {
+                int score = perItem ? score(a.getKey(), term) : hits.getOrDefault(a.getKey(), 0);
+                if (score > 0) {
+                    narrowed.put(a.getKey(), a.getValue() + score);
+                }
+            }
+            acc = narrowed;
+            if (acc.isEmpty()) {
+                break;
+            }
+        }
+        return acc == null ? new HashMap<>() : acc;
+    }
+
+    /** One term against one item's own words and runs: its score, or 0 for a miss. */
+    private static int score(Entry<?> e, String term) {
+        String stem = SearchTerms.singular(term);
+        int best = 0;
+        for (Map.Entry<String, Integer> w : e.words.entrySet()) {
+            if (w.getKey().startsWith(stem)) {
+                best = Math.max(best, placement(w.getKey(), stem, term) + bonus(w.getValue()));
+            }
+        }
+        if (best > 0 || !loose(term)) {
+            return best;
+        }
+        boolean confirm = term.length() > LOOSE_DEPTH;
+        String head = confirm ? term.substring(0, LOOSE_DEPTH) : term;
+        for (Map.Entry<String, Integer> sfx : e.suffixes.entrySet()) {
+            if (sfx.getKey().startsWith(head) && (!confirm || e.raw.contains(term))) {
+                best = Math.max(best, MID_WORD + bonus(sfx.getValue()));
+            }
+        }
+        return best;
+    }
+
+    private static int placement(String word, String stem, String term) {
+        return word.equals(term) || word.equals(stem) || SearchTerms.singular(word).equals(stem)
+                ? WHOLE_WORD : WORD_PREFIX;
+    }
+
+    private static int bonus(int field) {
+        return field == 0 ? PRIMARY_FIELD : 0;
+    }
+
+    /** Whether a term may land mid-word — {@code SearchTerms}' own gate. */
+    private static boolean loose(String term) {
+        return term.length() >= SearchTerms.MIN_LOOSE_TERM || SearchTerms.hasCjk(term);
+    }
+
+    /** One term's hits across the whole index, with their scores. */
+    private Map<Entry<?>, Integer> termHits(String term, long deadline) {
+        Map<Entry<?>, Integer> hits = new HashMap<>();
+        String stem = SearchTerms.singular(term);
+        Node at = walk(wordRoot, stem);
+        if (at != null) {
+            gatherWords(at, stem, term, new StringBuilder(stem), hits, deadline);
+        }
+        if (loose(term)) {
+            boolean confirm = term.length() > LOOSE_DEPTH;
+            Node at2 = walk(looseRoot, confirm ? term.substring(0, LOOSE_DEPTH) : term);
+            if (at2 != null) {
+                gatherLoose(at2, term, confirm, hits, deadline);
+            }
+        }
+        return hits;
+    }
+
+    private static Node walk(Node from, String key) {
+        Node n = from;
+        for (int i = 0; i < key.length() && n != null; i++) {
+            n = n.children.get(key.charAt(i));
+        }
+        return n;
+    }
+
+    /** Every word under {@code node}; {@code word} is the path so far. */
+    private static void gatherWords(Node node, String stem, String term, StringBuilder word,
+            Map<Entry<?>, Integer> hits, long deadline) {
+        if (System.nanoTime() > deadline) {
+            return;
+        }
+        if (!node.ends.isEmpty()) {
+            int placement = placement(word.toString(), stem, term);
+            for (Map.Entry<Entry<?>, Integer> e : node.ends.entrySet()) {
+                hits.merge(e.getKey(), placement + bonus(e.getValue()), Math::max);
+            }
+        }
+        for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+            word.append(child.getKey());
+            gatherWords(child.getValue(), stem, term, word, hits, deadline);
+            word.setLength(word.length() - 1);
+        }
+    }
+
+    /** Every item with a run suffix under {@code node}, confirmed when the term outran the trie. */
+    private static void gatherLoose(Node node, String term, boolean confirm,
+            Map<Entry<?>, Integer> hits, long deadline) {
+        if (System.nanoTime() > deadline) {
+            return;
+        }
+        for (Map.Entry<Entry<?>, Integer> e : node.ends.entrySet()) {
+            Entry<?> entry = e.getKey();
+            if (!hits.containsKey(entry) && (!confirm || entry.raw.contains(term))) {
+                hits.put(entry, MID_WORD + bonus(e.getValue()));
+            }
+        }
+        for (Node child : node.children.values()) {
+            gatherLoose(child, term, confirm, hits, deadline);
+        }
+    }
+
+    /** Tokenizes an item once: words by first field, run suffixes by first field, raw text. */
+    private Entry<T> entry(T item, long seq, String[] haystacks) {
+        Map<String, Integer> words = new LinkedHashMap<>();
+        Map<String, Integer> suffixes = new LinkedHashMap<>();
+        StringBuilder raw = new StringBuilder();
+        int field = 0;
+        for (String h : haystacks) {
+            if (h == null || h.isEmpty()) {
+                field++;
+                continue;
+            }
+            for (String w : SearchTerms.words(h)) {
+                words.putIfAbsent(w, field);
+            }
+            String lower = h.toLowerCase(Locale.ROOT);
+            raw.append(lower).append('\n');
+            int start = -1;
+            for (int i = 0; i <= lower.length(); i++) {
+                boolean inRun = i < lower.length() && Character.isLetterOrDigit(lower.charAt(i));
+                if (inRun && start < 0) {
+                    start = i;
+                } else if (!inRun && start >= 0) {
+                    for (int s = start; s < i; s++) {
+                        suffixes.putIfAbsent(lower.substring(s, Math.min(i, s + LOOSE_DEPTH)), field);
+                    }
+                    start = -1;
+                }
+            }
+            field++;
+        }
+        return new Entry<>(item, seq, raw.toString(), words, suffixes);
+    }
+
+    private void link(Entry<T> e) {
+        entries.put(e.item, e);
+        e.words.forEach((key, field) -> insert(wordRoot, key).ends.put(e, field));
+        e.suffixes.forEach((key, field) -> insert(looseRoot, key).ends.put(e, field));
+    }
+
+    private void unlink(Entry<T> e) {
+        for (String key : e.words.keySet()) {
+            prune(wordRoot, key, 0, e);
+        }
+        for (String key : e.suffixes.keySet()) {
+            prune(looseRoot, key, 0, e);
+        }
+    }
+
+    private static Node insert(Node root, String key) {
+        Node n = root;
+        for (int i = 0; i < key.length(); i++) {
+            n = n.children.computeIfAbsent(key.charAt(i), c -> new Node());
+        }
+        return n;
+    }
+
+    /** Drops {@code e} where {@code key} ends, and every node left empty on the way back up. */
+    private static boolean prune(Node node, String key, int depth, Entry<?> e) {
+        if (depth == key.length()) {
+            node.ends.remove(e);
+        } else {
+            Node child = node.children.get(key.charAt(depth));
+            if (child != null && prune(child, key, depth + 1, e)) {
+                node.children.remove(key.charAt(depth));
+            }
+        }
+        return node.ends.isEmpty() && node.children.isEmpty();
+    }
+}
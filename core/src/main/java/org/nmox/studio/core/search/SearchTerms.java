@@ -36,6 +36,11 @@ import java.util.Locale;
  * <p>Pure and dependency-free on purpose: every consumer is a UI class
  * that is hard to test, so the logic they share lives somewhere a plain
  * unit test can reach it.
+ *
+ * <p>This class re-tokenizes its haystacks on every call, which is fine
+ * for one comparison and wasteful for a whole catalog per keystroke. A
+ * source searched as you type keeps a {@link SearchIndex} instead: the
+ * same rule, answered from haystacks tokenized once.
  */
 public final class SearchTerms {
 
@@ -50,7 +55,7 @@ public final class SearchTerms {
      * anywhere. Three characters is the line: it keeps "sql" finding
      * "PostgreSQL" while "ai" still cannot find "TAIL".
      */
-    private static final int MIN_LOOSE_TERM = 3;
+    static final int MIN_LOOSE_TERM = 3;
 
     private SearchTerms() {
     }
@@ -113,7 +118,7 @@ public final class SearchTerms {
     }
 
     /** True when the term carries any CJK ideograph. */
-    private static boolean hasCjk(String term) {
+    static boolean hasCjk(String term) {
         for (int i = 0; i < term.length(); ) {
             int cp = term.codePointAt(i);
             if (Character.isIdeographic(cp)) {
@@ -149,7 +154,7 @@ public final class SearchTerms {
      * Guarded on length so short words survive ("is" stays "is"), and
      * on a double s so "css" and "class" are left alone.
      */
-    private static String singular(String word) {
+    static String singular(String word) {
         if (word.length() >= 4 && word.endsWith("s") && !word.endsWith("ss")) {
             return word.substring(0, word.length() - 1);
         }
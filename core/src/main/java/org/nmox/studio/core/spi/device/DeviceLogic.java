@@ -40,6 +40,23 @@ public interface DeviceLogic {
     default void onData(String portId, String text) {
     }
 
+    /**
+     * A chunk of DATA lines arrived on an IN port in one delivery — what
+     * a chatty build's output becomes when the emitting device batches
+     * it. {@code seq} numbers the emitting port's batches from 1, so
+     * consecutive calls are consecutive chunks. The default unrolls to
+     * {@link #onData} line by line, in order: implement this only to take
+     * the chunk whole (one screen append, one parse pass).
+     *
+     * @param lines the chunk, in emission order; unmodifiable
+     * @since 1.95
+     */
+    default void onDataBatch(String portId, java.util.List<String> lines, long seq) {
+        for (String line : lines) {
+            onData(portId, line);
+        }
+    }
+
     /** A GATE level changed on an IN port. */
     default void onGate(String portId, boolean high) {
     }
@@ -9,10 +9,10 @@ import java.nio.file.Files;
  * The git facts a status chip can learn WITHOUT spawning a process:
  * repository membership and the current branch are plain file reads
  * (.git discovery, HEAD parsing), so they are safe on any aim event —
- * the v1.38.0 boot law stays intact because nothing here forks. The one
- * fact that genuinely needs the git binary (the dirty count) is kept as
- * a pure parser over output someone ELSE obtained; the caller owns the
- * decision of when a process is allowed to run.
+ * the v1.38.0 boot law stays intact because nothing here forks. The
+ * dirty count is {@link GitStatus}'s job; when that engine declines, the
+ * git binary's porcelain output is parsed here by {@link #changeCount},
+ * and the caller owns the decision of when a process is allowed to run.
  *
  * <p>Every reader returns null on unreadable or unrecognized state:
  * a chip built on these facts hides rather than lies.
@@ -92,7 +92,7 @@ public final class GitFacts {
      * leave a one-line {@code gitdir: <path>} file behind; follow it
      * (relative paths resolve against the pointer file's directory).
      */
-    private static File resolveGitDir(File dotGit) {
+    static File resolveGitDir(File dotGit) {
         if (dotGit.isDirectory()) {
             return dotGit;
         }
@@ -0,0 +1,208 @@
+package org.nmox.studio.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * gitignore(5) matching for {@link GitStatus}'s untracked walk: one
+ * immutable stack of rules, lowest precedence first (core.excludesFile,
+ * info/exclude, then each .gitignore from the root down), so asking is
+ * a scan from the top of the stack and the first hit decides — exactly
+ * git's "last matching pattern wins", deeper files beating shallower
+ * ones. Descending into a directory pushes its .gitignore with
+ * {@link #with}; siblings keep sharing their parent's stack.
+ *
+ * <p>Covered: comments, trailing-space trimming, {@code \} escapes,
+ * {@code !} negation, trailing-slash directory-only rules, anchoring
+ * (a slash anywhere but the end pins a rule to its file's directory),
+ * {@code * ? [..]} and the three {@code **} forms. "A file under an
+ * excluded directory cannot be re-included" is the caller's to honour
+ * — it simply never walks into an excluded directory.
+ */
+final class GitIgnore {
+
+    static final GitIgnore EMPTY = new GitIgnore(List.of());
+
+    /** One compiled line of an ignore file, relative to {@code base} ("" or "dir/"). */
+    record Rule(Pattern regex, String base, boolean negate, boolean dirOnly, boolean basename) {
+
+        boolean matches(String rel, boolean dir) {
+            if ((dirOnly && !dir) || !rel.startsWith(base)) {
+                return false;
+            }
+            String sub = rel.substring(base.length());
+            if (basename) {
+                sub = sub.substring(sub.lastIndexOf('/') + 1);
+            }
+            return regex.matcher(sub).matches();
+        }
+    }
+
+    private final List<Rule> rules;
+
+    private GitIgnore(List<Rule> rules) {
+        this.rules = rules;
+    }
+
+    /** This stack with {@code more} on top (higher precedence); shares nothing mutable. */
+    GitIgnore with(List<Rule> more) {
+        if (more.isEmpty()) {
+            return this;
+        }
+        List<Rule> all = new ArrayList<>(rules.size() + more.size());
+        all.addAll(rules);
+        all.addAll(more);
+        return new GitIgnore(all);
+    }
+
+    /** Whether {@code rel} (root-relative, '/'-separated, no trailing slash) is excluded. */
+    boolean ignored(String rel, boolean dir) {
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            Rule r = rules.get(i);
+            if (r.matches(rel, dir)) {
+                return !r.negate();
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The rules of one ignore file whose directory is {@code base}
+     * ("" for the root and the repo-wide files, else "dir/sub/").
+     */
+    static List<Rule> parse(String text, String base) {
+        List<Rule> out = new ArrayList<>();
+        for (String raw : text.split("\r?\n")) {
+            Rule r = compile(raw, base);
+            if (r != null) {
+                out.add(r);
+            }
+        }
+        return out;
+    }
+
+    /** One pattern line, or null for blanks, comments and lines that compile to nothing. */
+    static Rule compile(String line, String base) {
+        String p = trimTrailingSpaces(line);
+        if (p.isEmpty() || p.startsWith("#")) {
+            return null;
+        }
+        boolean negate = false;
+        if (p.startsWith("!")) {
+            negate = true;
+            p = p.substring(1);
+        } else if (p.startsWith("\\!") || p.startsWith("\\#")) {
+            p = p.substring(1);
+        }
+        boolean dirOnly = false;
+        if (p.endsWith("/")) {
+            dirOnly = true;
+            p = p.substring(0, p.length() - 1);
+        }
+        if (p.isEmpty()) {
+            return null;
+        }
+        boolean basename = p.indexOf('/') < 0;
+        if (p.startsWith("/")) {
+            p = p.substring(1);
+        }
+        return new Rule(Pattern.compile(toRegex(p)), base, negate, dirOnly, basename);
+    }
+
+    private static String trimTrailingSpaces(String line) {
+        int end = line.length();
+        while (end > 0 && line.charAt(end - 1) == ' ' && !(end > 1 && line.charAt(end - 2) == '\\')) {
+            end--;
+        }
+        return line.substring(0, end);
+    }
+
+    /** wildmatch(3)-flavoured glob → regex: {@code *} and {@code ?} stop at '/', {@code **} does not. */
+    static String toRegex(String glob) {
+        StringBuilder re = new StringBuilder();
+        int n = glob.length();
+        for (int i = 0; i < n; i++) {
+            char c = glob.charAt(i);
+            switch (c) {
+                case '*' -> {
+                    boolean atSegmentStart = i == 0 || glob.charAt(i - 1) == '/';
+                    if (i + 1 < n && glob.charAt(i + 1) == '*' && atSegmentStart
+                            && (i + 2 == n || glob.charAt(i + 2) == '/')) {
+                        if (i + 2 == n) {
+                            re.append(".*"); // trailing "/**": everything inside
+                        } else {
+                            re.append("(?:.*/)?"); // "**/": zero or more directories
+                            i++;
+                        }
+                        i++;
+                    } else {
+                        while (i + 1 < n && glob.charAt(i + 1) == '*') {
+                            i++; // "a**b" is two plain stars
+                        }
+                        re.append("[^/]*");
+                    }
+                }
+                case '?' -> re.append("[^/]");
+                case '[' -> {
+                    int close = classEnd(glob, i);
+                    if (close < 0) {
+                        re.append("\\[");
+                    } else {
+                        re.append(charClass(glob.substring(i + 1, close)));
+                        i = close;
+                    }
+                }
+                case '\\' -> {
+                    if (i + 1 < n) {
+                        re.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                    }
+                }
+                default -> re.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return re.toString();
+    }
+
+    private static int classEnd(String glob, int open) {
+        int i = open + 1;
+        if (i < glob.length() && (glob.charAt(i) == '!' || glob.charAt(i) == '^')) {
+            i++;
+        }
+        if (i < glob.length() && glob.charAt(i) == ']') {
+            i++; // a leading ']' is a member, not the end
+        }
+        for (; i < glob.length(); i++) {
+            if (glob.charAt(i) == '\\') {
+                i++;
+            } else if (glob.charAt(i) == ']') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String charClass(String body) {
+        StringBuilder re = new StringBuilder("[");
+        int i = 0;
+        if (!body.isEmpty() && (body.charAt(0) == '!' || body.charAt(0) == '^')) {
+            re.append('^');
+            i = 1;
+        }
+        for (; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c == '\\' && i + 1 < body.length()) {
+                c = body.charAt(++i);
+            }
+            if (c == '-' && i > 0 && i + 1 < body.length()) {
+                re.append('-');
+            } else if (Character.isLetterOrDigit(c)) {
+                re.append(c);
+            } else {
+                re.append('\\').append(c);
+            }
+        }
+        // a class never matches the separator
+        return re.append("&&[^/]]").toString();
+    }
+}
@@ -0,0 +1,501 @@
+package org.nmox.studio.core.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Read-only access to a repository's object database — just enough to
+ * walk HEAD's tree for {@link GitStatus}: loose objects (zlib files
+ * under objects/xx/), packs through their v2 .idx (OFS and REF deltas
+ * resolved), alternates, and refs (loose or packed-refs). SHA-1
+ * repositories only; every reader answers null on anything it does not
+ * understand, and the caller falls back to the git binary.
+ */
+final class GitObjects {
+
+    static final int OID_BYTES = 20;
+
+    private static final int OBJ_COMMIT = 1;
+    private static final int OBJ_TREE = 2;
+    private static final int OBJ_BLOB = 3;
+    private static final int OBJ_OFS_DELTA = 6;
+    private static final int OBJ_REF_DELTA = 7;
+    /** Longest delta chain followed before giving up (git's default depth is 50). */
+    private static final int MAX_DELTA_DEPTH = 64;
+    /** Largest object inflated — trees and commits are small; anything past this is not ours to read. */
+    private static final int MAX_OBJECT_BYTES = 64 * 1024 * 1024;
+
+    /** One object: its type and inflated body (no header). */
+    record RawObject(int type, byte[] data) {
+    }
+
+    /** One pack: its .pack file and the sorted object names / offsets of its .idx. */
+    private record Pack(File pack, byte[] names, long[] offsets) {
+
+        int count() {
+            return offsets.length;
+        }
+    }
+
+    private final File gitDir;
+    private final File commonDir;
+    private final List<File> objectDirs = new ArrayList<>();
+    private List<Pack> packs;
+
+    /**
+     * @param gitDir    the repository's git dir (HEAD lives here)
+     * @param commonDir where objects and shared refs live — the git dir
+     *                  itself, or the main one for a linked worktree
+     */
+    GitObjects(File gitDir, File commonDir) {
+        this.gitDir = gitDir;
+        this.commonDir = commonDir;
+        File objects = new File(commonDir, "objects");
+        objectDirs.add(objects);
+        File alternates = new File(objects, "info/alternates");
+        if (alternates.isFile()) {
+            try {
+                for (String line : Files.readAllLines(alternates.toPath(), StandardCharsets.UTF_8)) {
+                    String path = line.trim();
+                    if (!path.isEmpty() && !path.startsWith("#")) {
+                        File alt = new File(path);
+                        objectDirs.add(alt.isAbsolute() ? alt : new File(objects, path));
+                    }
+                }
+            } catch (IOException e) {
+                // no alternates: objects only found there read as missing
+            }
+        }
+    }
+
+    /**
+     * The commit HEAD names, as lowercase hex; "" for an unborn branch
+     * (a fresh repo before its first commit), null when unreadable.
+     */
+    String headCommit() {
+        String head = firstLine(new File(gitDir, "HEAD"));
+        if (head == null) {
+            return null;
+        }
+        if (head.startsWith("ref: ")) {
+            String ref = head.substring(5).trim();
+            String loose = firstLine(new File(commonDir, ref));
+            if (loose != null) {
+                return isHex(loose) ? loose : null;
+            }
+            String packed = packedRef(ref);
+            return packed == null ? "" : packed;
+        }
+        return isHex(head) ? head : null;
+    }
+
+    private String packedRef(String ref) {
+        File packedRefs = new File(commonDir, "packed-refs");
+        if (!packedRefs.isFile()) {
+            return null;
+        }
+        try {
+            for (String line : Files.readAllLines(packedRefs.toPath(), StandardCharsets.UTF_8)) {
+                if (line.length() > 41 && line.charAt(40) == ' ' && line.substring(41).equals(ref)) {
+                    String oid = line.substring(0, 40);
+                    return isHex(oid) ? oid : null;
+                }
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return null;
+    }
+
+    /** The root tree a commit points at, or null. */
+    String treeOf(String commit) {
+        RawObject o = read(commit);
+        if (o == null || o.type() != OBJ_COMMIT) {
+            return null;
+        }
+        String text = new String(o.data(), 0, Math.min(o.data().length, 100), StandardCharsets.US_ASCII);
+        if (!text.startsWith("tree ") || text.length() < 45) {
+            return null;
+        }
+        String tree = text.substring(5, 45);
+        return isHex(tree) ? tree : null;
+    }
+
+    /**
+     * Every blob and gitlink under {@code tree}, flattened to
+     * {@code path → "<octal mode> <hex oid>"} in git's path spelling.
+     * Null when any tree on the way cannot be read.
+     */
+    Map<String, String> flatten(String tree) {
+        Map<String, String> out = new HashMap<>();
+        return flatten(tree, "", out) ? out : null;
+    }
+
+    private boolean flatten(String tree, String prefix, Map<String, String> out) {
+        RawObject o = read(tree);
+        if (o == null || o.type() != OBJ_TREE) {
+            return false;
+        }
+        byte[] d = o.data();
+        int i = 0;
+        while (i < d.length) {
+            int sp = i;
+            while (sp < d.length && d[sp] != ' ') {
+                sp++;
+            }
+            int nul = sp;
+            while (nul < d.length && d[nul] != 0) {
+                nul++;
+            }
+            if (nul + 1 + OID_BYTES > d.length) {
+                return false;
+            }
+            String mode = new String(d, i, sp - i, StandardCharsets.US_ASCII);
+            String name = new String(d, sp + 1, nul - sp - 1, StandardCharsets.UTF_8);
+            String oid = HexFormat.of().formatHex(d, nul + 1, nul + 1 + OID_BYTES);
+            String path = prefix + name;
+            if (mode.equals("40000")) {
+                if (!flatten(oid, path + "/", out)) {
+                    return false;
+                }
+            } else {
+                out.put(path, mode + " " + oid);
+            }
+            i = nul + 1 + OID_BYTES;
+        }
+        return true;
+    }
+
+    /** An object by hex name, from loose storage or any pack; null when absent or unreadable. */
+    RawObject read(String oid) {
+        return read(oid, 0);
+    }
+
+    private RawObject read(String oid, int depth) {
+        if (depth > MAX_DELTA_DEPTH || !isHex(oid)) {
+            return null;
+        }
+        for (File dir : objectDirs) {
+            File loose = new File(dir, oid.substring(0, 2) + "/" + oid.substring(2));
+            if (loose.isFile()) {
+                return readLoose(loose);
+            }
+        }
+        byte[] want = HexFormat.of().parseHex(oid);
+        for (Pack p : packs()) {
+            long offset = find(p, want);
+            if (offset >= 0) {
+                return readPacked(p, offset, depth);
+            }
+        }
+        return null;
+    }
+
+    private static RawObject readLoose(File file) {
+        try {
+            byte[] raw = inflate(Files.readAllBytes(file.toPath()), 0, -1);
+            if (raw == null) {
+                return null;
+            }
+            int sp = 0;
+            while (sp < raw.length && raw[sp] != ' ') {
+                sp++;
+            }
+            int nul = sp;
+            while (nul < raw.length && raw[nul] != 0) {
+                nul++;
+            }
+            if (nul >= raw.length) {
+                return null;
+            }
+            int type = switch (new String(raw, 0, sp, StandardCharsets.US_ASCII)) {
+                case "commit" -> OBJ_COMMIT;
+                case "tree" -> OBJ_TREE;
+                case "blob" -> OBJ_BLOB;
+                default -> -1;
+            };
+            if (type < 0) {
+                return null;
+            }
+            byte[] body = new byte[raw.length - nul - 1];
+            System.arraycopy(raw, nul + 1, body, 0, body.length);
+            return new RawObject(type, body);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private RawObject readPacked(Pack p, long offset, int depth) {
+        try (RandomAccessFile in = new RandomAccessFile(p.pack(), "r")) {
+            in.seek(offset);
+            int c = in.readUnsignedByte();
+            int type = (c >> 4) & 7;
+            long size = c & 15;
+            int shift = 4;
+            while ((c & 0x80) != 0) {
+                c = in.readUnsignedByte();
+                size |= (long) (c & 0x7f) << shift;
+                shift += 7;
+            }
+            if (size > MAX_OBJECT_BYTES) {
+                return null;
+            }
+            RawObject base = null;
+            if (type == OBJ_OFS_DELTA) {
+                c = in.readUnsignedByte();
+                long back = c & 0x7f;
+                while ((c & 0x80) != 0) {
+                    c = in.readUnsignedByte();
+                    back = ((back + 1) << 7) | (c & 0x7f);
+                }
+                long dataAt = in.getFilePointer();
+                base = readPacked(p, offset - back, depth + 1);
+                in.seek(dataAt);
+            } else if (type == OBJ_REF_DELTA) {
+                byte[] baseOid = new byte[OID_BYTES];
+                in.readFully(baseOid);
+                long dataAt = in.getFilePointer();
+                base = read(HexFormat.of().formatHex(baseOid), depth + 1);
+                in.seek(dataAt);
+            } else if (type < OBJ_COMMIT || type > 4) {
+                return null;
+            }
+            byte[] data = inflateFrom(in, (int) size);
+            if (data == null) {
+                return null;
+            }
+            if (type == OBJ_OFS_DELTA || type == OBJ_REF_DELTA) {
+                if (base == null) {
+                    return null;
+                }
+                byte[] applied = applyDelta(base.data(), data);
+                return applied == null ? null : new RawObject(base.type(), applied);
+            }
+            return new RawObject(type, data);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /** Inflates exactly {@code size} bytes from the stream position, reading compressed input in chunks. */
+    private static byte[] inflateFrom(RandomAccessFile in, int size) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            byte[] out = new byte[size];
+            byte[] buf = new byte[8192];
+            int produced = 0;
+            while (produced < size || size == 0) {
+                if (inflater.needsInput()) {
+                    int n = in.read(buf);
+                    if (n <= 0) {
+                        return null;
+                    }
+                    inflater.setInput(buf, 0, n);
+                }
+                int got = inflater.inflate(out, produced, size - produced);
+                produced += got;
+                if (inflater.finished()) {
+                    break;
+                }
+                if (got == 0 && inflater.needsDictionary()) {
+                    return null;
+                }
+            }
+            return produced == size ? out : null;
+        } catch (DataFormatException e) {
+            return null;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] in, int from, int expected) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(in, from, in.length - from);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(expected > 0 ? expected : in.length * 3);
+            byte[] buf = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buf);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    return null;
+                }
+                out.write(buf, 0, n);
+                if (out.size() > MAX_OBJECT_BYTES) {
+                    return null;
+                }
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            return null;
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /** git's delta format: source size, target size, then copy/insert instructions. */
+    static byte[] applyDelta(byte[] base, byte[] delta) {
+        int[] at = {0};
+        long srcSize = varint(delta, at);
+        long dstSize = varint(delta, at);
+        if (srcSize != base.length || dstSize > MAX_OBJECT_BYTES) {
+            return null;
+        }
+        byte[] out = new byte[(int) dstSize];
+        int o = 0;
+        int i = at[0];
+        while (i < delta.length) {
+            int op = delta[i++] & 0xff;
+            if ((op & 0x80) != 0) {
+                long off = 0;
+                long len = 0;
+                for (int b = 0; b < 4; b++) {
+                    if ((op & (1 << b)) != 0) {
+                        off |= (long) (delta[i++] & 0xff) << (8 * b);
+                    }
+                }
+                for (int b = 0; b < 3; b++) {
+                    if ((op & (0x10 << b)) != 0) {
+                        len |= (long) (delta[i++] & 0xff) << (8 * b);
+                    }
+                }
+                if (len == 0) {
+                    len = 0x10000;
+                }
+                if (off + len > base.length || o + len > out.length) {
+                    return null;
+                }
+                System.arraycopy(base, (int) off, out, o, (int) len);
+                o += (int) len;
+            } else if (op != 0) {
+                if (i + op > delta.length || o + op > out.length) {
+                    return null;
+                }
+                System.arraycopy(delta, i, out, o, op);
+                i += op;
+                o += op;
+            } else {
+                return null; // reserved opcode
+            }
+        }
+        return o == out.length ? out : null;
+    }
+
+    private static long varint(byte[] d, int[] at) {
+        long v = 0;
+        int shift = 0;
+        int c;
+        do {
+            c = d[at[0]++] & 0xff;
+            v |= (long) (c & 0x7f) << shift;
+            shift += 7;
+        } while ((c & 0x80) != 0);
+        return v;
+    }
+
+    private List<Pack> packs() {
+        if (packs == null) {
+            packs = new ArrayList<>();
+            for (File dir : objectDirs) {
+                File[] idx = new File(dir, "pack").listFiles((d, n) -> n.endsWith(".idx"));
+                if (idx == null) {
+                    continue;
+                }
+                for (File f : idx) {
+                    Pack p = loadIndex(f);
+                    if (p != null) {
+                        packs.add(p);
+                    }
+                }
+            }
+        }
+        return packs;
+    }
+
+    /** A version-2 pack index: magic, fanout, names, CRCs, 31-bit offsets, 64-bit offsets. */
+    private static Pack loadIndex(File idx) {
+        File pack = new File(idx.getParentFile(), idx.getName().replaceFirst("\\.idx$", ".pack"));
+        try {
+            byte[] d = Files.readAllBytes(idx.toPath());
+            if (d.length < 8 + 256 * 4 || (d[0] & 0xff) != 0xff || d[1] != 't' || d[2] != 'O'
+                    || d[3] != 'c' || readInt(d, 4) != 2 || !pack.isFile()) {
+                return null;
+            }
+            int n = readInt(d, 8 + 255 * 4);
+            int names = 8 + 256 * 4;
+            int crcs = names + n * OID_BYTES;
+            int offs = crcs + n * 4;
+            int large = offs + n * 4;
+            byte[] sorted = new byte[n * OID_BYTES];
+            System.arraycopy(d, names, sorted, 0, sorted.length);
+            long[] offsets = new long[n];
+            for (int k = 0; k < n; k++) {
+                int v = readInt(d, offs + k * 4);
+                offsets[k] = (v & 0x80000000) == 0 ? v
+                        : readLong(d, large + (v & 0x7fffffff) * 8);
+            }
+            return new Pack(pack, sorted, offsets);
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static long find(Pack p, byte[] want) {
+        int lo = 0;
+        int hi = p.count() - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = java.util.Arrays.compareUnsigned(p.names(), mid * OID_BYTES, (mid + 1) * OID_BYTES,
+                    want, 0, OID_BYTES);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return p.offsets()[mid];
+            }
+        }
+        return -1;
+    }
+
+    static int readInt(byte[] d, int at) {
+        return ((d[at] & 0xff) << 24) | ((d[at + 1] & 0xff) << 16) | ((d[at + 2] & 0xff) << 8) | (d[at + 3] & 0xff);
+    }
+
+    private static long readLong(byte[] d, int at) {
+        return ((long) readInt(d, at) << 32) | (readInt(d, at + 4) & 0xffffffffL);
+    }
+
+    private static String firstLine(File f) {
+        try {
+            List<String> lines = Files.readAllLines(f.toPath(), StandardCharsets.UTF_8);
+            return lines.isEmpty() ? null : lines.get(0).trim();
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean isHex(String s) {
+        if (s.length() != 2 * OID_BYTES) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f'))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,916 @@
+package org.nmox.studio.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The dirty count of {@code git status --porcelain}, computed in-process:
+ * the same number of lines, without forking git. The git chip and
+ * TIMELINE used to spawn a process per refresh; on a large tree that is
+ * hundreds of milliseconds of git re-reading everything, every 30
+ * seconds, on every project. This engine answers the same question from
+ * the same on-disk facts git uses:
+ *
+ * <ul>
+ * <li><b>staged</b> — the index (.git/index, versions 2–4) against
+ * HEAD's tree read straight from the object database (loose or packed;
+ * see {@link GitObjects}), exact renames paired the way porcelain
+ * prints them;
+ * <li><b>unstaged</b> — each index entry against the working tree by
+ * stat, hashing a file only when its stat moved or is racily clean
+ * (modified in the same second the index was written); hashes are kept
+ * in a stat table, so a touched-but-unchanged file is hashed once;
+ * <li><b>untracked</b> — a walk honouring every ignore source
+ * ({@link GitIgnore}), collapsing wholly untracked directories into one
+ * "dir/" line as porcelain does (or listing files, under
+ * {@code status.showUntrackedFiles=all}).
+ * </ul>
+ *
+ * <p>Between full scans the engine can be FED: a file watcher covering
+ * the repository reports changed paths ({@link #notifyChanged}), and the
+ * next answer re-checks only those — no walk, no stat sweep. A change of
+ * the index, HEAD, refs or config, any .gitignore, an explicit
+ * {@link #rescan()}, or {@link #FULL_RESCAN_MS} of feed-only answers
+ * forces a full scan; a feed that stops ({@link #feedStopped}) drops the
+ * engine back to full scans. Whatever a watcher skips (its heavy
+ * directories, usually ignored anyway) surfaces at the next full scan.
+ *
+ * <p>Honesty over coverage: anything whose porcelain answer this engine
+ * cannot reproduce exactly — submodules, split or sparse indexes, SHA-256
+ * repositories, an add/delete pair that git might call an inexact
+ * rename, a modified file a clean filter or CRLF normalisation could
+ * render identical — answers null, and the caller asks git. Never
+ * throws.
+ */
+public final class GitStatus {
+
+    /** Longest a fed engine answers from its change feed before walking again. */
+    static final long FULL_RESCAN_MS = 120_000;
+    /** Stat-table hashes younger than this are recomputed (a same-tick edit keeps the stat). */
+    static final long RACY_MS = 2_000;
+    /** Changed paths queued beyond this and a full scan is cheaper than replaying them. */
+    private static final int PENDING_CAP = 10_000;
+    /** Engines kept warm (one per recently asked repository). */
+    private static final int ENGINES = 4;
+
+    private static final int S_IFMT = 0170000;
+    private static final int S_IFLNK = 0120000;
+    private static final int S_IFGITLINK = 0160000;
+
+    private static final Map<File, GitStatus> BY_ROOT = new LinkedHashMap<>(8, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<File, GitStatus> eldest) {
+            return size() > ENGINES;
+        }
+    };
+    /** Roots of running watchers that report every change under them. */
+    private static final Set<File> FEEDS = new HashSet<>();
+
+    /** One index entry (the fields status needs). */
+    record Entry(String path, int mode, String oid, long size, long mtimeSec, long mtimeNsec, int stage,
+            boolean assumeValid, boolean skipWorktree, boolean intentToAdd) {
+    }
+
+    /** A parsed index: stage-0 entries by path, unmerged paths, every directory holding a tracked path. */
+    record Index(Map<String, Entry> entries, Set<String> unmerged, Set<String> dirs, long mtimeSec) {
+
+        boolean tracks(String path) {
+            return entries.containsKey(path) || unmerged.contains(path);
+        }
+    }
+
+    private record Hashed(long size, long modified, String oid, boolean hadCr, boolean trusted) {
+    }
+
+    private record Stamped(long size, long modified, List<GitIgnore.Rule> rules) {
+    }
+
+    private enum Untracked {
+        NO, NORMAL, ALL
+    }
+
+    private final File root;
+    private final Path rootPath;
+    private final File gitDir;
+    private final File commonDir;
+    private final GitObjects objects;
+    private final Map<String, Hashed> hashes = new HashMap<>();
+    private final Map<Path, Stamped> ignoreFiles = new HashMap<>();
+
+    // the last full scan and what has moved since
+    private String stamp;
+    private long scannedAt;
+    private Index index;
+    private Map<String, String> config = Map.of();
+    private GitIgnore baseIgnore = GitIgnore.EMPTY;
+    private List<GitIgnore.Rule> risky = List.of();
+    private boolean crlf;
+    private Untracked untrackedMode = Untracked.NORMAL;
+    private String headCommit;
+    private Map<String, String> headTree;
+    private Set<String> staged;
+    private int renames;
+    private final Set<String> unstaged = new HashSet<>();
+    private final Set<String> untracked = new HashSet<>();
+    private Set<Path> pending = new HashSet<>();
+    private boolean valid;
+    private int scans;
+
+    private GitStatus(File root, File gitDir, File commonDir) {
+        this.root = root;
+        this.rootPath = root.toPath();
+        this.gitDir = gitDir;
+        this.commonDir = commonDir;
+        this.objects = new GitObjects(gitDir, commonDir);
+    }
+
+    /**
+     * The (shared, warm) engine for the repository rooted at
+     * {@code repoRoot} — the directory holding .git, as
+     * {@link GitFacts#repoRoot} finds it. Null when its git dir does not
+     * resolve.
+     */
+    public static GitStatus forRepo(File repoRoot) {
+        if (repoRoot == null) {
+            return null;
+        }
+        File key = canonical(repoRoot);
+        synchronized (BY_ROOT) {
+            GitStatus engine = BY_ROOT.get(key);
+            if (engine == null) {
+                File gitDir = GitFacts.resolveGitDir(new File(key, ".git"));
+                if (gitDir == null) {
+                    return null;
+                }
+                File common = gitDir;
+                String pointer = readSmall(new File(gitDir, "commondir"));
+                if (pointer != null) {
+                    File c = new File(pointer.trim());
+                    common = canonical(c.isAbsolute() ? c : new File(gitDir, pointer.trim()));
+                }
+                engine = new GitStatus(key, gitDir, common);
+                BY_ROOT.put(key, engine);
+            }
+            return engine;
+        }
+    }
+
+    /**
+     * A watcher rooted at {@code watchedRoot} started and will report
+     * every change under it: repositories at or below that root may
+     * answer from the feed between full scans.
+     */
+    public static void feedStarted(File watchedRoot) {
+        synchronized (BY_ROOT) {
+            FEEDS.add(canonical(watchedRoot));
+        }
+    }
+
+    /** The watcher stopped: its repositories go back to full scans. */
+    public static void feedStopped(File watchedRoot) {
+        synchronized (BY_ROOT) {
+            FEEDS.remove(canonical(watchedRoot));
+        }
+    }
+
+    /** Paths a watcher saw change; each warm engine queues the ones inside its tree. */
+    public static void notifyChanged(Collection<Path> changed) {
+        List<GitStatus> engines;
+        synchronized (BY_ROOT) {
+            engines = new ArrayList<>(BY_ROOT.values());
+        }
+        for (GitStatus engine : engines) {
+            engine.pathsChanged(changed);
+        }
+    }
+
+    public File root() {
+        return root;
+    }
+
+    /**
+     * Lines {@code git status --porcelain} would print — from the change
+     * feed when one covers this repository and nothing forces a walk,
+     * otherwise by a full scan. Null: ask git.
+     */
+    public synchronized Integer changeCount() {
+        if (!valid || !covered() || System.currentTimeMillis() - scannedAt > FULL_RESCAN_MS
+                || pending == null || !stamp().equals(stamp)) {
+            return rescan();
+        }
+        if (!pending.isEmpty()) {
+            Set<Path> batch = pending;
+            pending = new HashSet<>();
+            for (Path p : batch) {
+                if (!apply(p)) {
+                    return rescan();
+                }
+            }
+        }
+        return count();
+    }
+
+    /** A full scan, whatever the feed says. Null: ask git. */
+    public synchronized Integer rescan() {
+        pending = new HashSet<>();
+        valid = false;
+        scans++;
+        try {
+            if (!scan()) {
+                return null;
+            }
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+        valid = true;
+        scannedAt = System.currentTimeMillis();
+        return count();
+    }
+
+    /** Queues watcher-reported paths under this tree for the next answer. */
+    public synchronized void pathsChanged(Collection<Path> changed) {
+        for (Path p : changed) {
+            Path abs = p.toAbsolutePath().normalize();
+            if (!abs.startsWith(rootPath)) {
+                continue;
+            }
+            if (pending != null) {
+                pending.add(abs);
+                if (pending.size() > PENDING_CAP) {
+                    pending = null; // too much moved: the next answer walks
+                }
+            }
+        }
+    }
+
+    /** Full scans run so far — the change feed's witness. */
+    synchronized int scans() {
+        return scans;
+    }
+
+    private boolean covered() {
+        synchronized (BY_ROOT) {
+            for (File feed : FEEDS) {
+                if (root.toPath().startsWith(feed.toPath())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int count() {
+        Set<String> changed = new HashSet<>(staged);
+        changed.addAll(unstaged);
+        return changed.size() - renames + untracked.size();
+    }
+
+    // ---- the full scan ----
+
+    private boolean scan() throws IOException {
+        String before = stamp();
+        config = readConfig();
+        String format = config.get("extensions.objectformat");
+        if (format != null && !format.equalsIgnoreCase("sha1")) {
+            return false;
+        }
+        index = readIndex(new File(gitDir, "index"));
+        if (index == null) {
+            return false;
+        }
+        String head = objects.headCommit();
+        if (head == null) {
+            return false;
+        }
+        if (!head.equals(headCommit) || headTree == null) {
+            String tree = head.isEmpty() ? null : objects.treeOf(head);
+            headTree = head.isEmpty() ? Map.of() : tree == null ? null : objects.flatten(tree);
+            headCommit = head;
+            if (headTree == null) {
+                return false;
+            }
+        }
+        if (!stageChanges()) {
+            return false;
+        }
+        readIgnoreSources();
+        unstaged.clear();
+        hashes.keySet().retainAll(index.entries().keySet());
+        for (Entry e : index.entries().values()) {
+            Boolean dirty = worktreeDirty(e);
+            if (dirty == null) {
+                return false;
+            }
+            if (dirty) {
+                unstaged.add(e.path());
+            }
+        }
+        untracked.clear();
+        if (untrackedMode != Untracked.NO) {
+            walk("", rootPath, baseIgnore, false);
+        }
+        // the stamp taken BEFORE reading: a commit landing mid-scan forces the next one
+        stamp = before;
+        return true;
+    }
+
+    /** Index vs HEAD: changed paths, with exact renames paired. False when a rename is ambiguous. */
+    private boolean stageChanges() {
+        staged = new HashSet<>(index.unmerged());
+        Map<String, Integer> added = new HashMap<>();
+        for (Entry e : index.entries().values()) {
+            String inHead = headTree.get(e.path());
+            if (e.intentToAdd()) {
+                continue; // porcelain's " A": a worktree-side line, never a rename side
+            }
+            if (inHead == null) {
+                staged.add(e.path());
+                added.merge(e.oid(), 1, Integer::sum);
+            } else if (!inHead.equals(Integer.toOctalString(e.mode()) + " " + e.oid())) {
+                staged.add(e.path());
+            }
+        }
+        Map<String, Integer> deleted = new HashMap<>();
+        for (Map.Entry<String, String> h : headTree.entrySet()) {
+            if (!index.tracks(h.getKey())) {
+                staged.add(h.getKey());
+                deleted.merge(h.getValue().substring(h.getValue().indexOf(' ') + 1), 1, Integer::sum);
+            }
+        }
+        renames = 0;
+        if (!bool("status.renames", bool("diff.renames", true))) {
+            return true;
+        }
+        int addsLeft = 0;
+        int delsLeft = 0;
+        for (Map.Entry<String, Integer> a : added.entrySet()) {
+            int paired = Math.min(a.getValue(), deleted.getOrDefault(a.getKey(), 0));
+            renames += paired;
+            addsLeft += a.getValue() - paired;
+        }
+        for (int d : deleted.values()) {
+            delsLeft += d;
+        }
+        delsLeft -= renames;
+        // a leftover add and delete may be an edited rename — git's similarity call, not ours
+        return addsLeft == 0 || delsLeft == 0;
+    }
+
+    /** Whether a tracked file differs from its index entry; null when only git's filters could say. */
+    private Boolean worktreeDirty(Entry e) throws IOException {
+        if (e.intentToAdd()) {
+            return true;
+        }
+        if (e.skipWorktree() || e.assumeValid()) {
+            return false;
+        }
+        Path p = rootPath.resolve(e.path());
+        BasicFileAttributes attrs;
+        try {
+            attrs = Files.readAttributes(p, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException | java.nio.file.NotDirectoryException gone) {
+            return true;
+        }
+        boolean link = attrs.isSymbolicLink();
+        if (!link && !attrs.isRegularFile()) {
+            return true;
+        }
+        if (link != ((e.mode() & S_IFMT) == S_IFLNK)) {
+            return true;
+        }
+        if (!link && bool("core.filemode", true) && executable(p) != null
+                && executable(p) != ((e.mode() & 0100) != 0)) {
+            return true;
+        }
+        long size = link ? Files.readSymbolicLink(p).toString().getBytes(StandardCharsets.UTF_8).length
+                : attrs.size();
+        Instant mtime = attrs.lastModifiedTime().toInstant();
+        boolean racy = e.mtimeSec() >= index.mtimeSec();
+        if ((size & 0xffffffffL) == e.size() && mtime.getEpochSecond() == e.mtimeSec()
+                && mtime.getNano() == e.mtimeNsec() && !racy) {
+            return false;
+        }
+        if (e.size() != 0 && (size & 0xffffffffL) != e.size()) {
+            return true; // git's own shortcut: a size that moved is a change
+        }
+        Hashed h = hash(e.path(), p, link, size, attrs.lastModifiedTime().toMillis());
+        if (h.oid().equals(e.oid())) {
+            return false;
+        }
+        if ((crlf && h.hadCr()) || matchesAny(risky, e.path())) {
+            return null; // a clean filter might turn these bytes into the index blob
+        }
+        return true;
+    }
+
+    private Boolean executable(Path p) {
+        try {
+            PosixFileAttributes posix = Files.readAttributes(p, PosixFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+            return posix.permissions().contains(PosixFilePermission.OWNER_EXECUTE);
+        } catch (IOException | UnsupportedOperationException e) {
+            return null; // no POSIX view: git itself runs with core.filemode=false there
+        }
+    }
+
+    /** The blob id git would give the file, from the stat table when the stat has not moved. */
+    private Hashed hash(String rel, Path p, boolean link, long size, long modified) throws IOException {
+        Hashed had = hashes.get(rel);
+        if (had != null && had.trusted() && had.size() == size && had.modified() == modified) {
+            return had;
+        }
+        MessageDigest sha = sha1();
+        boolean cr = false;
+        if (link) {
+            byte[] target = Files.readSymbolicLink(p).toString().getBytes(StandardCharsets.UTF_8);
+            sha.update(("blob " + target.length + "\0").getBytes(StandardCharsets.US_ASCII));
+            sha.update(target);
+        } else {
+            sha.update(("blob " + size + "\0").getBytes(StandardCharsets.US_ASCII));
+            byte[] buf = new byte[64 * 1024];
+            long read = 0;
+            try (InputStream in = Files.newInputStream(p)) {
+                for (int n = in.read(buf); n > 0; n = in.read(buf)) {
+                    sha.update(buf, 0, n);
+                    read += n;
+                    for (int i = 0; i < n && !cr; i++) {
+                        cr = buf[i] == '\r';
+                    }
+                }
+            }
+            if (read != size) {
+                throw new IOException("file changed while hashing");
+            }
+        }
+        Hashed h = new Hashed(size, modified, HexFormat.of().formatHex(sha.digest()), cr,
+                System.currentTimeMillis() - modified > RACY_MS);
+        hashes.put(rel, h);
+        return h;
+    }
+
+    /**
+     * Untracked entries under {@code dirRel} ("" or "a/b/"). With
+     * {@code probe} set nothing is recorded — the answer is whether ANY
+     * untracked entry exists (porcelain hides empty untracked dirs).
+     */
+    private boolean walk(String dirRel, Path dir, GitIgnore ignore, boolean probe) throws IOException {
+        GitIgnore here = ignore.with(ignoreRules(dir.resolve(".gitignore"), dirRel));
+        List<Path> children = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            stream.forEach(children::add);
+        } catch (NoSuchFileException | java.nio.file.NotDirectoryException gone) {
+            return false;
+        }
+        boolean any = false;
+        for (Path child : children) {
+            String name = child.getFileName().toString();
+            if (name.equals(".git")) {
+                continue;
+            }
+            if (visit(dirRel + name, child, here, probe)) {
+                if (probe) {
+                    return true;
+                }
+                any = true;
+            }
+        }
+        return any;
+    }
+
+    /** One directory entry of the walk; true when it is (or holds) something untracked. */
+    private boolean visit(String rel, Path path, GitIgnore ignore, boolean probe) throws IOException {
+        BasicFileAttributes a;
+        try {
+            a = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (NoSuchFileException gone) {
+            return false;
+        }
+        if (a.isDirectory()) {
+            if (index.tracks(rel) || ignore.ignored(rel, true)) {
+                return false;
+            }
+            if (index.dirs().contains(rel)) {
+                return walk(rel + "/", path, ignore, probe);
+            }
+            boolean nestedRepo = Files.exists(path.resolve(".git"), LinkOption.NOFOLLOW_LINKS);
+            if (!nestedRepo && untrackedMode == Untracked.ALL && !probe) {
+                return walk(rel + "/", path, ignore, false);
+            }
+            if (nestedRepo || walk(rel + "/", path, ignore, true)) {
+                if (!probe) {
+                    untracked.add(rel + "/");
+                }
+                return true;
+            }
+            return false;
+        }
+        if (!a.isRegularFile() && !a.isSymbolicLink()) {
+            return false;
+        }
+        if (index.tracks(rel) || ignore.ignored(rel, false)) {
+            return false;
+        }
+        if (!probe) {
+            untracked.add(rel);
+        }
+        return true;
+    }
+
+    // ---- the change feed ----
+
+    /** Re-checks one reported path; false when only a full scan can answer. */
+    private boolean apply(Path abs) {
+        String rel = rootPath.relativize(abs).toString().replace('\\', '/');
+        if (rel.isEmpty() || rel.equals(".git") || rel.startsWith(".git/")) {
+            return true; // git's own files: the stamp covers what matters
+        }
+        int dotGit = rel.indexOf("/.git/");
+        if (dotGit >= 0 || rel.endsWith("/.git")) {
+            rel = rel.substring(0, dotGit >= 0 ? dotGit : rel.length() - 5); // a nested repo appeared
+        }
+        if (rel.equals(".gitignore") || rel.endsWith("/.gitignore")) {
+            return false;
+        }
+        try {
+            Entry e = index.entries().get(rel);
+            if (e != null) {
+                Boolean dirty = worktreeDirty(e);
+                if (dirty == null) {
+                    return false;
+                }
+                if (dirty) {
+                    unstaged.add(rel);
+                } else {
+                    unstaged.remove(rel);
+                }
+            }
+            if (index.tracks(rel) || index.dirs().contains(rel) || untrackedMode == Untracked.NO) {
+                return true;
+            }
+            // the topmost untracked ancestor is the unit porcelain prints
+            String top = rel;
+            String parent = parentOf(rel);
+            while (!parent.isEmpty() && !index.dirs().contains(parent)) {
+                top = parent;
+                parent = parentOf(parent);
+            }
+            String unit = top;
+            untracked.removeIf(u -> u.equals(unit) || u.startsWith(unit + "/"));
+            GitIgnore ignore = ignoreFor(parent);
+            if (ignore != null) {
+                visit(top, rootPath.resolve(top), ignore, false);
+            }
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            return false;
+        }
+    }
+
+    /** The ignore stack in effect inside {@code dirRel}; null when an ancestor is itself ignored. */
+    private GitIgnore ignoreFor(String dirRel) throws IOException {
+        GitIgnore ignore = baseIgnore.with(ignoreRules(rootPath.resolve(".gitignore"), ""));
+        if (dirRel.isEmpty()) {
+            return ignore;
+        }
+        String walked = "";
+        for (String part : dirRel.split("/")) {
+            walked = walked.isEmpty() ? part : walked + "/" + part;
+            if (ignore.ignored(walked, true)) {
+                return null;
+            }
+            ignore = ignore.with(ignoreRules(rootPath.resolve(walked).resolve(".gitignore"), walked + "/"));
+        }
+        return ignore;
+    }
+
+    private static String parentOf(String rel) {
+        int slash = rel.lastIndexOf('/');
+        return slash < 0 ? "" : rel.substring(0, slash);
+    }
+
+    // ---- on-disk formats ----
+
+    /**
+     * .git/index, versions 2 to 4 (v4 prefix-compresses names). Null for
+     * what porcelain would need more than this engine knows: a split
+     * index, a sparse index, or a gitlink (submodule) entry.
+     */
+    static Index readIndex(File file) throws IOException {
+        if (!file.isFile()) {
+            return new Index(Map.of(), Set.of(), Set.of(), 0); // no index yet: nothing tracked
+        }
+        byte[] d = Files.readAllBytes(file.toPath());
+        long indexMtime = Files.getLastModifiedTime(file.toPath()).toInstant().getEpochSecond();
+        if (d.length < 12 + GitObjects.OID_BYTES || d[0] != 'D' || d[1] != 'I' || d[2] != 'R' || d[3] != 'C') {
+            return null;
+        }
+        int version = GitObjects.readInt(d, 4);
+        int count = GitObjects.readInt(d, 8);
+        if (version < 2 || version > 4) {
+            return null;
+        }
+        Map<String, Entry> entries = new HashMap<>(count * 2);
+        Set<String> unmerged = new HashSet<>();
+        Set<String> dirs = new HashSet<>();
+        byte[] previous = new byte[0];
+        int at = 12;
+        int end = d.length - GitObjects.OID_BYTES;
+        for (int k = 0; k < count; k++) {
+            if (at + 62 > end) {
+                return null;
+            }
+            int start = at;
+            long mtimeSec = GitObjects.readInt(d, at + 8) & 0xffffffffL;
+            long mtimeNsec = GitObjects.readInt(d, at + 12) & 0xffffffffL;
+            int mode = GitObjects.readInt(d, at + 24);
+            long size = GitObjects.readInt(d, at + 36) & 0xffffffffL;
+            String oid = HexFormat.of().formatHex(d, at + 40, at + 40 + GitObjects.OID_BYTES);
+            int flags = ((d[at + 60] & 0xff) << 8) | (d[at + 61] & 0xff);
+            at += 62;
+            int extended = 0;
+            if ((flags & 0x4000) != 0) {
+                if (version < 3) {
+                    return null;
+                }
+                extended = ((d[at] & 0xff) << 8) | (d[at + 1] & 0xff);
+                at += 2;
+            }
+            byte[] name;
+            if (version == 4) {
+                long strip = 0;
+                int c = d[at++] & 0xff;
+                strip = c & 0x7f;
+                while ((c & 0x80) != 0) {
+                    c = d[at++] & 0xff;
+                    strip = ((strip + 1) << 7) | (c & 0x7f);
+                }
+                int nul = at;
+                while (d[nul] != 0) {
+                    nul++;
+                }
+                int keep = previous.length - (int) strip;
+                if (keep < 0) {
+                    return null;
+                }
+                name = new byte[keep + nul - at];
+                System.arraycopy(previous, 0, name, 0, keep);
+                System.arraycopy(d, at, name, keep, nul - at);
+                at = nul + 1;
+            } else {
+                int nul = at;
+                while (d[nul] != 0) {
+                    nul++;
+                }
+                name = java.util.Arrays.copyOfRange(d, at, nul);
+                at = start + ((at - start + name.length + 8) & ~7);
+            }
+            previous = name;
+            if ((mode & S_IFMT) == S_IFGITLINK || (mode & S_IFMT) == 0040000) {
+                return null; // submodules and sparse-directory entries
+            }
+            String path = new String(name, StandardCharsets.UTF_8);
+            int stage = (flags >> 12) & 3;
+            for (String dir = parentOf(path); !dir.isEmpty() && dirs.add(dir); dir = parentOf(dir)) {
+                // every ancestor directory of a tracked path is a tracked directory
+            }
+            if (stage != 0) {
+                unmerged.add(path);
+                continue;
+            }
+            entries.put(path, new Entry(path, mode, oid, size, mtimeSec, mtimeNsec, stage,
+                    (flags & 0x8000) != 0, (extended & 0x4000) != 0, (extended & 0x2000) != 0));
+        }
+        // extensions: only the ones that change what the entries mean matter
+        while (at + 8 <= end) {
+            String sig = new String(d, at, 4, StandardCharsets.US_ASCII);
+            if (sig.equals("link") || sig.equals("sdir")) {
+                return null;
+            }
+            at += 8 + GitObjects.readInt(d, at + 4);
+        }
+        unmerged.removeAll(entries.keySet());
+        return new Index(entries, unmerged, dirs, indexMtime);
+    }
+
+    /** Everything that, moved, invalidates a scan: index, HEAD and its ref, packed refs, config, excludes. */
+    private String stamp() {
+        StringBuilder s = new StringBuilder();
+        File head = new File(gitDir, "HEAD");
+        String ref = readSmall(head);
+        for (File f : new File[] {
+            new File(gitDir, "index"), head,
+            ref != null && ref.startsWith("ref: ") ? new File(commonDir, ref.substring(5).trim()) : head,
+            new File(commonDir, "packed-refs"), new File(commonDir, "config"),
+            new File(commonDir, "info/exclude"), new File(commonDir, "info/attributes"), globalIgnoreFile()}) {
+            s.append(f == null ? "-" : f.length() + ":" + f.lastModified()).append('|');
+        }
+        return s.toString();
+    }
+
+    /** System, global and repository config flattened to lowercased "section.key" (later files win). */
+    private Map<String, String> readConfig() {
+        Map<String, String> out = new HashMap<>();
+        String home = System.getProperty("user.home");
+        String xdg = System.getenv("XDG_CONFIG_HOME");
+        List<File> files = new ArrayList<>();
+        files.add(new File("/etc/gitconfig"));
+        files.add(xdg != null && !xdg.isEmpty() ? new File(xdg, "git/config") : new File(home, ".config/git/config"));
+        files.add(new File(home, ".gitconfig"));
+        files.add(new File(commonDir, "config"));
+        for (File f : files) {
+            if (!f.isFile()) {
+                continue;
+            }
+            try {
+                String section = "";
+                for (String raw : Files.readAllLines(f.toPath(), StandardCharsets.UTF_8)) {
+                    String line = raw.trim();
+                    if (line.isEmpty() || line.startsWith("#") || line.startsWith(";")) {
+                        continue;
+                    }
+                    if (line.startsWith("[")) {
+                        int close = line.indexOf(']');
+                        String head = close < 0 ? line.substring(1) : line.substring(1, close);
+                        int quote = head.indexOf('"');
+                        section = (quote < 0 ? head.trim() : head.substring(0, quote).trim()).toLowerCase(Locale.ROOT);
+                        continue;
+                    }
+                    int eq = line.indexOf('=');
+                    String key = (eq < 0 ? line : line.substring(0, eq)).trim().toLowerCase(Locale.ROOT);
+                    String value = eq < 0 ? "true" : line.substring(eq + 1).trim();
+                    if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                        value = value.substring(1, value.length() - 1);
+                    }
+                    out.put(section + "." + key, value);
+                }
+            } catch (IOException | RuntimeException e) {
+                // an unreadable config file contributes nothing, as with git
+            }
+        }
+        return out;
+    }
+
+    private boolean bool(String key, boolean fallback) {
+        String v = config.get(key);
+        if (v == null) {
+            return fallback;
+        }
+        return switch (v.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "on", "1" -> true;
+            case "false", "no", "off", "0", "" -> false;
+            default -> fallback;
+        };
+    }
+
+    /** info/exclude and core.excludesFile; attributes that can make a differing hash clean; untracked mode. */
+    private void readIgnoreSources() throws IOException {
+        GitIgnore base = GitIgnore.EMPTY;
+        File global = globalIgnoreFile();
+        if (global != null) {
+            base = base.with(ignoreRules(global.toPath(), ""));
+        }
+        baseIgnore = base.with(ignoreRules(new File(commonDir, "info/exclude").toPath(), ""));
+        String autocrlf = config.getOrDefault("core.autocrlf", "false").toLowerCase(Locale.ROOT);
+        crlf = !autocrlf.equals("false");
+        List<GitIgnore.Rule> rules = new ArrayList<>();
+        List<String> attributeFiles = new ArrayList<>();
+        for (String path : index.entries().keySet()) {
+            if (path.equals(".gitattributes") || path.endsWith("/.gitattributes")) {
+                attributeFiles.add(path);
+            }
+        }
+        collectRisky(new File(commonDir, "info/attributes").toPath(), "", rules);
+        for (String path : attributeFiles) {
+            collectRisky(rootPath.resolve(path), path.substring(0, path.length() - ".gitattributes".length()), rules);
+        }
+        risky = rules;
+        untrackedMode = switch (config.getOrDefault("status.showuntrackedfiles", "normal").toLowerCase(Locale.ROOT)) {
+            case "no", "false" -> Untracked.NO;
+            case "all" -> Untracked.ALL;
+            default -> Untracked.NORMAL;
+        };
+    }
+
+    /**
+     * Attribute lines that can make different bytes hash the same:
+     * filters (LFS and friends), ident, working-tree encodings, and
+     * any text/eol setting (CRLF normalisation).
+     */
+    private void collectRisky(Path file, String base, List<GitIgnore.Rule> out) {
+        if (!Files.isRegularFile(file)) {
+            return;
+        }
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                String t = line.trim();
+                int space = t.indexOf(' ') < 0 ? t.indexOf('\t') : t.indexOf(' ');
+                if (t.isEmpty() || t.startsWith("#") || space < 0) {
+                    continue;
+                }
+                String attrs = t.substring(space);
+                if (attrs.contains("filter") || attrs.contains("ident") || attrs.contains("encoding")
+                        || attrs.contains("text") || attrs.contains("eol") || attrs.contains("crlf")) {
+                    GitIgnore.Rule r = GitIgnore.compile(t.substring(0, space), base);
+                    if (r != null) {
+                        out.add(r);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            out.add(GitIgnore.compile("**", base)); // unreadable: everything under it is unsure
+        }
+    }
+
+    private static boolean matchesAny(List<GitIgnore.Rule> rules, String path) {
+        for (GitIgnore.Rule r : rules) {
+            if (r.matches(path, false)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private File globalIgnoreFile() {
+        String configured = config.get("core.excludesfile");
+        if (configured != null && !configured.isEmpty()) {
+            return new File(configured.startsWith("~/")
+                    ? System.getProperty("user.home") + configured.substring(1) : configured);
+        }
+        String xdg = System.getenv("XDG_CONFIG_HOME");
+        File f = xdg != null && !xdg.isEmpty() ? new File(xdg, "git/ignore")
+                : new File(System.getProperty("user.home"), ".config/git/ignore");
+        return f;
+    }
+
+    /** An ignore file's rules, re-parsed only when its stat moves. */
+    private List<GitIgnore.Rule> ignoreRules(Path file, String base) throws IOException {
+        BasicFileAttributes a;
+        try {
+            a = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException | java.nio.file.NotDirectoryException none) {
+            ignoreFiles.remove(file);
+            return List.of();
+        }
+        if (!a.isRegularFile()) {
+            return List.of();
+        }
+        long modified = a.lastModifiedTime().toMillis();
+        Stamped had = ignoreFiles.get(file);
+        if (had != null && had.size() == a.size() && had.modified() == modified) {
+            return had.rules();
+        }
+        List<GitIgnore.Rule> rules = GitIgnore.parse(
+                new String(Files.readAllBytes(file), StandardCharsets.UTF_8), base);
+        ignoreFiles.put(file, new Stamped(a.size(), modified, rules));
+        return rules;
+    }
+
+    private static String readSmall(File f) {
+        try {
+            if (!f.isFile() || f.length() > GitFacts.FIRST_LINE_CAP) {
+                return null;
+            }
+            return Files.readString(f.toPath(), StandardCharsets.UTF_8).trim();
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static File canonical(File f) {
+        try {
+            return f.getCanonicalFile();
+        } catch (IOException e) {
+            return f.getAbsoluteFile();
+        }
+    }
+
+    private static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("every JRE ships SHA-1", e);
+        }
+    }
+}
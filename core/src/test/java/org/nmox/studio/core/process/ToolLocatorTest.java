@@ -97,4 +97,95 @@ class ToolLocatorTest {
             ToolLocator.reset(); // forget every fixture-home lookup
         }
     }
+
+    @Test
+    @DisplayName("On a case-blind filesystem Git.EXE answers for git, under its listed spelling")
+    void windowsNamesAreCaseBlind(@org.junit.jupiter.api.io.TempDir java.io.File home) throws Exception {
+        java.io.File volta = new java.io.File(home, ".volta/bin");
+        assertThat(volta.mkdirs()).isTrue();
+        java.io.File git = new java.io.File(volta, "NmoxGit.EXE");
+        assertThat(git.createNewFile()).isTrue();
+        assertThat(new java.io.File(volta, "NmoxNpm.Cmd").createNewFile()).isTrue();
+
+        String realHome = System.getProperty("user.home");
+        boolean realBlind = ToolLocator.caseBlind;
+        try {
+            System.setProperty("user.home", home.getAbsolutePath());
+            ToolLocator.caseBlind = true;
+            ToolLocator.reset();
+            assertThat(ToolLocator.resolve("nmoxgit")).isEqualTo(git.getAbsolutePath());
+            assertThat(ToolLocator.resolve("NMOXNPM"))
+                    .isEqualTo(new java.io.File(volta, "NmoxNpm.Cmd").getAbsolutePath());
+
+            ToolLocator.caseBlind = false;
+            ToolLocator.reset();
+            assertThat(ToolLocator.isResolvable("nmoxgit")).as("case-exact elsewhere").isFalse();
+        } finally {
+            System.setProperty("user.home", realHome);
+            ToolLocator.caseBlind = realBlind;
+            ToolLocator.reset();
+        }
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    @DisplayName("A tool installed mid-session resolves without a restart; removal is noticed too")
+    void installsAreNoticed(@org.junit.jupiter.api.io.TempDir java.io.File home) throws Exception {
+        java.io.File bin = new java.io.File(home, ".local/bin");
+        assertThat(bin.mkdirs()).isTrue();
+        String realHome = System.getProperty("user.home");
+        try {
+            System.setProperty("user.home", home.getAbsolutePath());
+            ToolLocator.reset();
+            assertThat(ToolLocator.resolve("nmox-late-tool")).isEqualTo("nmox-late-tool");
+
+            java.io.File tool = new java.io.File(bin, "nmox-late-tool");
+            assertThat(tool.createNewFile()).isTrue();
+            assertThat(tool.setExecutable(true)).isTrue();
+            // the dir's mtime moved; force the recheck instead of sleeping
+            // out the one-second window
+            ToolLocator.refresh();
+            assertThat(ToolLocator.resolve("nmox-late-tool")).isEqualTo(tool.getAbsolutePath());
+            assertThat(ToolLocator.isResolvable("nmox-late-tool")).isTrue();
+
+            assertThat(tool.delete()).isTrue();
+            ToolLocator.refresh();
+            assertThat(ToolLocator.isResolvable("nmox-late-tool")).isFalse();
+        } finally {
+            System.setProperty("user.home", realHome);
+            ToolLocator.reset();
+        }
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    @DisplayName("Repeat lookups are memo hits and an unchanged path is never re-listed")
+    void lookupsAreIndexed() {
+        ToolLocator.reset();
+        ToolLocator.resolve("sh");
+        ToolLocator.Stats first = ToolLocator.stats();
+        assertThat(first.listings()).as("one listing per search dir").isPositive();
+
+        for (int i = 0; i < 100; i++) {
+            ToolLocator.resolve("sh");
+        }
+        ToolLocator.refresh(); // a recheck of unchanged dirs lists nothing
+        ToolLocator.resolve("sh");
+        ToolLocator.Stats after = ToolLocator.stats();
+        assertThat(after.lookups()).isEqualTo(first.lookups() + 101);
+        assertThat(after.memoHits()).isGreaterThanOrEqualTo(100);
+        assertThat(after.listings()).isEqualTo(first.listings());
+        assertThat(after.rebuilds()).isEqualTo(first.rebuilds());
+    }
+
+    @Test
+    @DisplayName("Batch resolution answers every name, in order, exactly as resolve would")
+    void resolveAllMatchesResolve() {
+        List<String> names = List.of("sh", "definitely-not-a-real-tool-xyz", "git");
+        java.util.Map<String, String> all = ToolLocator.resolveAll(names);
+        assertThat(all.keySet()).containsExactlyElementsOf(names);
+        for (String name : names) {
+            assertThat(all.get(name)).isEqualTo(ToolLocator.resolve(name));
+        }
+    }
 }
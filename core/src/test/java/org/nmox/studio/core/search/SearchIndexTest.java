@@ -0,0 +1,218 @@
+package org.nmox.studio.core.search;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The index must say exactly what {@link SearchTerms} says — checked
+ * over a corpus shaped like the real sources and a few thousand queries
+ * cut from it — and then rank, update in place, respect its budget, and
+ * answer while it is being written to.
+ */
+class SearchIndexTest {
+
+    private static final List<String[]> CORPUS = List.of(
+            new String[]{"PRISM", "Bundle-Size Gate — weigh the build, hold the line", "bundle size webpack vite"},
+            new String[]{"TAIL", "Log Follower — tail -f any file", "logs follow"},
+            new String[]{"ANVIL", "Local EVM chain — anvil devnet", null},
+            new String[]{"ORACLE", "Error Explainer", "ai claude llm"},
+            new String[]{"VERITAS", "Test Harness — jest/vitest/mocha", "tests coverage"},
+            new String[]{"Counter @ 0x5FbDB2315678afecb367f032d93F642f64180aa3", "Local (anvil)"},
+            new String[]{"NMOX-Studio", "/Users/david/vcs/git/github/nmox/NMOX-Studio"},
+            new String[]{"http://localhost:5173", "SURGE", "serving live server localhost port"},
+            new String[]{"getUserById", "PostgreSQL", "user_orders"},
+            new String[]{"前端项目", "/home/li/前端项目"},
+            new String[]{"CSS formatter", "classes of things", "Sass"},
+            new String[]{"containers volumes images", "DOCK"},
+            new String[]{"", null, "---"});
+
+    private static SearchIndex<Integer> corpusIndex() {
+        SearchIndex<Integer> index = new SearchIndex<>();
+        for (int i = 0; i < CORPUS.size(); i++) {
+            index.put(i, CORPUS.get(i));
+        }
+        return index;
+    }
+
+    private static List<Integer> expected(String query) {
+        List<Integer> hits = new ArrayList<>();
+        for (int i = 0; i < CORPUS.size(); i++) {
+            if (SearchTerms.matches(query, CORPUS.get(i))) {
+                hits.add(i);
+            }
+        }
+        return hits;
+    }
+
+    /** Queries cut from the corpus: whole words, prefixes, mid-word slices, plurals, pairs. */
+    private static List<String> queries() {
+        List<String> out = new ArrayList<>(List.of("", "  ", "ai", "logs", "log", "bundle size", "size bundle",
+                "sql", "5678afecb", "5fbdb2315678afecb367f032", "项目", "项", "数据", "css", "cs", "class",
+                "container", "test kangaroo", "nmox studio", "5173", "user orders", "by id", "anvils",
+                "tails", "sass", "ss", "gate bundle", "zzz"));
+        Random random = new Random(42);
+        for (String[] item : CORPUS) {
+            for (String h : item) {
+                if (h == null || h.isEmpty()) {
+                    continue;
+                }
+                for (int n = 0; n < 60; n++) {
+                    int from = random.nextInt(h.length());
+                    int to = Math.min(h.length(), from + 1 + random.nextInt(24));
+                    out.add(h.substring(from, to));
+                }
+            }
+        }
+        for (int n = 0; n < 200; n++) {
+            out.add(out.get(random.nextInt(out.size())) + " " + out.get(random.nextInt(out.size())));
+        }
+        return out;
+    }
+
+    @Test
+    @DisplayName("matches() accepts exactly what SearchTerms.matches accepts, in source order")
+    void agreesWithSearchTerms() {
+        SearchIndex<Integer> index = corpusIndex();
+        for (String q : queries()) {
+            assertThat(index.matches(q)).as("query '%s'", q).isEqualTo(expected(q));
+        }
+    }
+
+    @Test
+    @DisplayName("ranking: a whole word beats a prefix beats a mid-word fragment, and the name beats the rest")
+    void ranking() {
+        SearchIndex<String> index = new SearchIndex<>();
+        index.put("mid", "Store", "a nosqldb");
+        index.put("prefix", "Cache", "an sqlite file");
+        index.put("whole-in-description", "Store", "a sql console");
+        index.put("whole-in-name", "SQL runner");
+
+        assertThat(index.search("sql", 10, Duration.ofSeconds(1)))
+                .containsExactly("whole-in-name", "whole-in-description", "prefix", "mid");
+        assertThat(index.search("sql", 2, Duration.ofSeconds(1))).containsExactly("whole-in-name", "whole-in-description");
+        assertThat(index.matches("sql")).as("matches() keeps source order")
+                .containsExactly("mid", "prefix", "whole-in-description", "whole-in-name");
+    }
+
+    @Test
+    @DisplayName("put replaces in place, remove forgets, and nothing of the old text lingers")
+    void incremental() {
+        SearchIndex<String> index = new SearchIndex<>();
+        index.put("a", "alpha tunnel");
+        index.put("b", "bravo");
+        index.put("a", "alpha docker");
+
+        assertThat(index.matches("tunnel")).isEmpty();
+        assertThat(index.matches("docker")).containsExactly("a");
+        assertThat(index.matches("alpha bravo")).isEmpty();
+        assertThat(index.size()).isEqualTo(2);
+
+        index.put("c", "bravo charlie");
+        assertThat(index.matches("bravo")).as("a replaced item kept its place").containsExactly("b", "c");
+        assertThat(index.remove("b")).isTrue();
+        assertThat(index.remove("b")).isFalse();
+        assertThat(index.matches("bravo")).containsExactly("c");
+        index.clear();
+        assertThat(index.matches("charlie")).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("sync adds the new, drops the gone, re-orders the rest, and never re-reads kept text")
+    void sync() {
+        SearchIndex<String> index = new SearchIndex<>();
+        List<String> read = new ArrayList<>();
+        index.sync(List.of("one project", "two project"), s -> {
+            read.add(s);
+            return new String[]{s};
+        });
+        index.sync(List.of("three project", "one project"), s -> {
+            read.add(s);
+            return new String[]{s};
+        });
+
+        assertThat(read).containsExactly("one project", "two project", "three project");
+        assertThat(index.matches("project")).containsExactly("three project", "one project");
+        assertThat(index.matches("two")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("a stamped sync lists the source only when the stamp moved, or the index changed behind it")
+    void stampedSync() {
+        SearchIndex<String> index = new SearchIndex<>();
+        int[] listed = {0};
+        java.util.function.Supplier<List<String>> source = () -> {
+            listed[0]++;
+            return List.of("alpha", "beta");
+        };
+
+        assertThat(index.sync(1, source, s -> new String[]{s})).isTrue();
+        assertThat(index.sync(1, source, s -> new String[]{s})).isFalse();
+        assertThat(listed[0]).isEqualTo(1);
+
+        index.put("gamma", "gamma");
+        assertThat(index.sync(1, source, s -> new String[]{s})).as("a put voids the stamp").isTrue();
+        assertThat(index.matches("gamma")).isEmpty();
+        assertThat(index.sync(2, source, s -> new String[]{s})).isTrue();
+        assertThat(index.sync(null, source, s -> new String[]{s})).as("null always syncs").isTrue();
+        assertThat(listed[0]).isEqualTo(4);
+        assertThat(index.matches("beta")).containsExactly("beta");
+    }
+
+    @Test
+    @DisplayName("an exhausted budget returns fewer hits, never wrong ones")
+    void budget() {
+        SearchIndex<Integer> index = new SearchIndex<>();
+        for (int i = 0; i < 20_000; i++) {
+            index.put(i, "device" + i + " runner", "tool number " + i);
+        }
+        List<Integer> all = index.matches("device runner");
+        assertThat(all).hasSize(20_000);
+
+        List<Integer> hurried = index.search("device runner", Integer.MAX_VALUE, Duration.ZERO);
+        assertThat(hurried.size()).isLessThanOrEqualTo(all.size());
+        assertThat(hurried).allMatch(i -> SearchTerms.matches("device runner", "device" + i + " runner"));
+    }
+
+    @Test
+    @DisplayName("queries run concurrently with updates and always see a consistent index")
+    void concurrent() throws Exception {
+        SearchIndex<Integer> index = new SearchIndex<>();
+        for (int i = 0; i < 500; i++) {
+            index.put(i, "stable item " + i);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> work = new ArrayList<>();
+            work.add(pool.submit(() -> {
+                for (int i = 0; i < 5_000; i++) {
+                    index.put(1_000 + i % 50, "churn item " + i);
+                    index.remove(1_000 + (i + 25) % 50);
+                }
+            }));
+            for (int t = 0; t < 3; t++) {
+                work.add(pool.submit(() -> {
+                    for (int i = 0; i < 2_000; i++) {
+                        assertThat(index.search("stable item", 1_000, Duration.ofSeconds(5))).hasSize(500);
+                        assertThat(index.matches("churn")).allMatch(n -> n >= 1_000);
+                    }
+                }));
+            }
+            for (Future<?> f : work) {
+                f.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package org.nmox.studio.core.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The in-process status engine against the real thing: unlike
+ * {@link GitFactsTest}, these fixtures are built by the git binary and
+ * every answer is checked against the line count of its own
+ * {@code git status --porcelain} — the engine's whole contract is
+ * "the same number, without the fork". Skipped where git is absent.
+ */
+class GitStatusTest {
+
+    @TempDir
+    Path dir;
+
+    private Path repo;
+
+    @BeforeEach
+    void init() throws Exception {
+        assumeTrue(gitAvailable(), "git binary not on PATH");
+        repo = dir.resolve("repo");
+        Files.createDirectories(repo);
+        git("init", "-q", "-b", "main");
+    }
+
+    private static boolean gitAvailable() {
+        try {
+            Process p = new ProcessBuilder("git", "--version").redirectErrorStream(true).start();
+            p.getInputStream().readAllBytes();
+            return p.waitFor(10, TimeUnit.SECONDS) && p.exitValue() == 0;
+        } catch (IOException | InterruptedException e) {
+            return false;
+        }
+    }
+
+    private String git(String... args) throws Exception {
+        List<String> cmd = new ArrayList<>(List.of("git", "-c", "user.name=t", "-c", "user.email=t@example.com",
+                "-c", "commit.gpgsign=false"));
+        cmd.addAll(List.of(args));
+        Process p = new ProcessBuilder(cmd).directory(repo.toFile()).redirectErrorStream(true).start();
+        String out = new String(p.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertThat(p.waitFor(30, TimeUnit.SECONDS)).isTrue();
+        assertThat(p.exitValue()).as("git %s: %s", List.of(args), out).isZero();
+        return out;
+    }
+
+    private Path write(String rel, String text) throws IOException {
+        Path p = repo.resolve(rel);
+        Files.createDirectories(p.getParent());
+        Files.writeString(p, text);
+        return p;
+    }
+
+    private void commitAll(String message) throws Exception {
+        git("add", "-A");
+        git("commit", "-q", "-m", message);
+    }
+
+    /** Without optional locks git does not rewrite the index — the feed test watches its stamp. */
+    private int porcelain() throws Exception {
+        return GitFacts.changeCount(git("--no-optional-locks", "status", "--porcelain"));
+    }
+
+    private GitStatus engine() {
+        return GitStatus.forRepo(repo.toFile());
+    }
+
+    private void assertMatchesGit() throws Exception {
+        int expected = porcelain();
+        assertThat(engine().rescan()).as(git("--no-optional-locks", "status", "--porcelain")).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("a fresh repository: untracked files, collapsed directories, ignores and negations")
+    void unbornAndUntracked() throws Exception {
+        assertMatchesGit();
+        write("a.txt", "a");
+        write("src/deep/x.ts", "x");
+        write("logs/app.log", "noise");
+        write("keep/one.log", "kept");
+        write(".gitignore", "*.log\n!keep/*.log\nbuild/\n/root-only.txt\n**/gen/**\n");
+        write("build/out.js", "ignored dir");
+        write("sub/root-only.txt", "not anchored here");
+        write("root-only.txt", "ignored");
+        write("sub/gen/a/b.txt", "ignored under gen");
+        Files.createDirectories(repo.resolve("empty/also-empty"));
+        assertMatchesGit();
+
+        git("add", "src/deep/x.ts");
+        write("src/deep/y.ts", "y");
+        write("src/other/z.ts", "z");
+        assertMatchesGit();
+    }
+
+    @Test
+    @DisplayName("modified, deleted, chmodded, staged, renamed and replaced-by-directory paths")
+    void trackedChanges() throws Exception {
+        write("keep.txt", "keep");
+        write("edit.txt", "one");
+        write("gone.txt", "gone");
+        write("mode.sh", "echo");
+        write("move/from.txt", "moved content");
+        write("lib/a.js", "a");
+        commitAll("base");
+        assertMatchesGit();
+
+        write("edit.txt", "two, longer");
+        Files.delete(repo.resolve("gone.txt"));
+        Files.setPosixFilePermissions(repo.resolve("mode.sh"), PosixFilePermissions.fromString("rwxr-xr-x"));
+        git("mv", "move/from.txt", "move/to.txt");
+        write("staged.txt", "new");
+        git("add", "staged.txt");
+        write("staged.txt", "new and edited");
+        write("lib/b.js", "untracked beside tracked");
+        assertMatchesGit();
+
+        Files.delete(repo.resolve("keep.txt"));
+        write("keep.txt/inner.txt", "a directory where a file was");
+        assertMatchesGit();
+    }
+
+    @Test
+    @DisplayName("a same-size edit in the index's own second is caught (racy-git)")
+    void racyClean() throws Exception {
+        Path f = write("racy.txt", "aaaa");
+        commitAll("base");
+        assertMatchesGit();
+        Files.writeString(f, "bbbb");
+        FileTime stamp = Files.getLastModifiedTime(f);
+        Files.setLastModifiedTime(f, stamp);
+        assertThat(porcelain()).isEqualTo(1);
+        assertThat(engine().rescan()).isEqualTo(1);
+
+        git("add", "racy.txt");
+        assertMatchesGit();
+    }
+
+    @Test
+    @DisplayName("packed objects with deltas, packed refs and a version-4 index read the same")
+    void packedAndIndexV4() throws Exception {
+        StringBuilder big = new StringBuilder();
+        for (int i = 0; i < 400; i++) {
+            big.append("line ").append(i).append(" of a file that will delta well\n");
+        }
+        for (int round = 0; round < 4; round++) {
+            write("doc.txt", big + "round " + round + "\n");
+            write("dir" + round + "/f.txt", "round " + round);
+            commitAll("round " + round);
+        }
+        git("gc", "-q", "--aggressive", "--prune=now");
+        assertThat(repo.resolve(".git/refs/heads/main")).doesNotExist();
+        write("doc.txt", big + "edited\n");
+        write("dir1/f.txt", "round 1"); // rewritten, same content
+        git("update-index", "--index-version", "4");
+        assertMatchesGit();
+        assertThat(engine().rescan()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("showUntrackedFiles=all lists files, =no hides them, nested repositories stay one line")
+    void untrackedModes() throws Exception {
+        write("tracked.txt", "t");
+        commitAll("base");
+        write("new/a.txt", "a");
+        write("new/deeper/b.txt", "b");
+        Files.createDirectories(repo.resolve("nested"));
+        new ProcessBuilder("git", "init", "-q").directory(repo.resolve("nested").toFile()).start().waitFor();
+        assertMatchesGit();
+        git("config", "status.showUntrackedFiles", "all");
+        assertMatchesGit();
+        git("config", "status.showUntrackedFiles", "no");
+        assertMatchesGit();
+    }
+
+    @Test
+    @DisplayName("what only git can answer is null: an edited rename and a submodule")
+    void declines() throws Exception {
+        write("old.txt", "the original content of this file, long enough to be similar\n");
+        commitAll("base");
+        git("mv", "old.txt", "new.txt");
+        write("new.txt", "the original content of this file, long enough to be similar!\n");
+        git("add", "new.txt");
+        assertThat(engine().rescan()).isNull();
+
+        git("reset", "-q", "--hard");
+        assertMatchesGit();
+        git("update-index", "--add", "--cacheinfo", "160000," + "a".repeat(40) + ",vendor/lib");
+        assertThat(engine().rescan()).isNull();
+    }
+
+    @Test
+    @DisplayName("a covering feed answers from reported paths; a moved index or stopped feed rescans")
+    void changeFeed() throws Exception {
+        write("a.txt", "a");
+        write("src/b.txt", "b");
+        commitAll("base");
+        File watched = repo.toFile();
+        GitStatus.feedStarted(watched);
+        try {
+            GitStatus engine = engine();
+            assertThat(engine.changeCount()).isZero();
+            int scans = engine.scans();
+
+            Path a = write("a.txt", "edited");
+            Path c = write("src/new/c.txt", "c");
+            GitStatus.notifyChanged(List.of(a, c));
+            assertThat(engine.changeCount()).isEqualTo(porcelain()).isEqualTo(2);
+            assertThat(engine.scans()).as("answered from the feed").isEqualTo(scans);
+
+            Files.delete(c);
+            GitStatus.notifyChanged(List.of(c));
+            assertThat(engine.changeCount()).isEqualTo(porcelain()).isEqualTo(1);
+            assertThat(engine.scans()).isEqualTo(scans);
+
+            git("add", "a.txt");
+            assertThat(engine.changeCount()).isEqualTo(porcelain());
+            assertThat(engine.scans()).as("the index moved").isEqualTo(scans + 1);
+        } finally {
+            GitStatus.feedStopped(watched);
+        }
+        engine().changeCount();
+        engine().changeCount();
+        assertThat(engine().scans()).as("unfed: every answer walks").isGreaterThanOrEqualTo(3);
+    }
+}
@@ -0,0 +1,454 @@
+package org.nmox.studio.dbstudio.engine;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.json.JSONObject;
+import org.nmox.studio.dbstudio.model.ColumnInfo;
+import org.nmox.studio.dbstudio.model.DbEngine;
+import org.nmox.studio.dbstudio.model.TableInfo;
+
+/**
+ * The writing half of "Import CSV / NDJSON": streams records from an
+ * {@link ImportReader} into a container in fixed-size chunks, so the
+ * import runs at constant heap whatever the file size. SQL engines get
+ * multi-row {@code INSERT ... VALUES (?,?),(?,?),...} prepared
+ * statements inside ONE transaction (all or nothing — a failure on row
+ * 80,000 rolls back the first 79,999 instead of leaving a half-loaded
+ * table); the document backends chunk the same way through
+ * {@code insertMany} / {@code _bulk_docs} (see
+ * {@link MongoBackend#importRows} and {@link CouchBackend#importRows}).
+ *
+ * <p><b>Typing.</b> Every value is bound by the target column's
+ * {@link ColumnInfo#typeName()}, classified with the same
+ * {@link UpdateBuilder#baseType} the edit path uses: integer types bind
+ * as {@code long}, DECIMAL/NUMERIC as {@link BigDecimal}, REAL/FLOAT/
+ * DOUBLE as {@code double}, BOOLEAN as {@code boolean}; everything else
+ * binds as text (on PostgreSQL as an untyped literal so {@code date},
+ * {@code uuid}, {@code jsonb} columns cast server-side). An empty CSV
+ * field or the literal {@code NULL} — what {@link ResultExports#toCsv}
+ * writes for a SQL NULL — imports as NULL into a nullable column.
+ *
+ * <p><b>Mapping.</b> Fields map to columns by name, case-insensitively.
+ * A field with no matching column refuses the import (a typo'd header
+ * must not silently drop a column's data) — for CSV before anything is
+ * written, for NDJSON whenever a record first carries it, rolling back
+ * what came before. Columns the file lacks take their defaults. NDJSON
+ * records need not share one key set: a key first seen mid-file widens
+ * the column list from that record on (earlier rows, written without
+ * the column, keep its default), and a record missing a key inserts
+ * NULL.
+ *
+ * <p>Same failure contract as every backend: nothing throws, the
+ * outcome (rows, time, error) comes back as a {@link Report}.
+ */
+public final class BulkImport {
+
+    private static final Logger LOG = Logger.getLogger(BulkImport.class.getName());
+
+    /** Rows per multi-row INSERT / insertMany / _bulk_docs request. */
+    static final int CHUNK_ROWS = 500;
+
+    /**
+     * Bind-parameter ceilings per statement: SQLite's historical 999
+     * (builds before 3.32 still ship), and a safe floor under the
+     * 65,535 PostgreSQL and MySQL allow.
+     */
+    private static final int SQLITE_MAX_PARAMS = 999;
+    private static final int DEFAULT_MAX_PARAMS = 32_767;
+
+    private static final Set<String> INTEGER_TYPES = Set.of(
+            "INT", "INTEGER", "BIGINT", "SMALLINT", "TINYINT");
+    private static final Set<String> DECIMAL_TYPES = Set.of("DECIMAL", "NUMERIC");
+    private static final Set<String> FLOAT_TYPES = Set.of("REAL", "FLOAT", "DOUBLE");
+    private static final Set<String> BOOLEAN_TYPES = Set.of("BOOLEAN", "BOOL");
+
+    private BulkImport() {
+    }
+
+    /**
+     * What an import did.
+     *
+     * @param rows      rows written (and committed — on failure, 0 for
+     *                  SQL engines, whose import is one transaction;
+     *                  the chunks already acknowledged for document
+     *                  backends, which have no transaction to undo)
+     * @param elapsedMs wall-clock time of the whole import
+     * @param error     the human-readable failure, or null on success
+     */
+    public record Report(long rows, long elapsedMs, String error) {
+
+        /** True when the import failed. */
+        public boolean isError() {
+            return error != null;
+        }
+
+        /** Average throughput over the whole import. */
+        public double rowsPerSecond() {
+            return elapsedMs <= 0 ? rows : rows * 1000.0 / elapsedMs;
+        }
+    }
+
+    /**
+     * A progress tick, delivered after every committed chunk on the
+     * importing thread — marshal to the EDT yourself.
+     *
+     * @param rows          rows written so far
+     * @param fraction      how far through the file, 0..1
+     * @param rowsPerSecond throughput since the import started
+     */
+    public record Progress(long rows, double fraction, double rowsPerSecond) {
+    }
+
+    // ---- SQL ------------------------------------------------------------
+
+    /**
+     * Streams {@code source} into {@code table} over {@code connection}
+     * in one transaction, {@link #CHUNK_ROWS} (or fewer, when the column
+     * count would break the engine's bind-parameter limit) rows per
+     * multi-row INSERT. Each executing statement is parked on
+     * {@code hook}, so the backend's cancelImport() aborts the import
+     * (and rolls it back). The connection's auto-commit mode is restored
+     * afterwards.
+     */
+    static Report insertJdbc(Connection connection, DbEngine engine, TableInfo table,
+            List<ColumnInfo> columns, ImportReader source, Consumer<Progress> progress,
+            JdbcCore.CancelHook hook) {
+        long start = System.nanoTime();
+        boolean autoCommit = true;
+        long written = 0;
+        try {
+            autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            Map<String, Object> first = source.next();
+            if (first == null) {
+                connection.rollback();
+                return new Report(0, elapsedMs(start), null);
+            }
+            List<ColumnInfo> targets = targetColumns(columns, first.keySet(), table);
+            Set<String> known = lowerNames(targets);
+            int chunk = chunkRows(engine, targets.size());
+            String quote = SqlDialect.identifierQuote(engine);
+            List<Map<String, Object>> pending = new ArrayList<>(chunk);
+            pending.add(first);
+            PreparedStatement full = null;
+            try {
+                Map<String, Object> record;
+                while ((record = source.next()) != null) {
+                    List<String> added = unseen(record.keySet(), known);
+                    if (!added.isEmpty()) {
+                        // a key first seen mid-file: flush under the old column list, then widen
+                        written += flush(connection, engine, quote, table, targets, pending, hook);
+                        pending.clear();
+                        targets = new ArrayList<>(targets);
+                        targets.addAll(targetColumns(columns, added, table));
+                        known = lowerNames(targets);
+                        chunk = chunkRows(engine, targets.size());
+                        if (full != null) {
+                            full.close();
+                            full = null;
+                        }
+                    }
+                    pending.add(record);
+                    if (pending.size() == chunk) {
+                        if (full == null) {
+                            full = connection.prepareStatement(insertSql(quote, table, targets, chunk));
+                        }
+                        written += execute(full, engine, targets, pending, hook);
+                        pending.clear();
+                        progress.accept(progress(written, source, start));
+                    }
+                }
+            } finally {
+                if (full != null) {
+                    full.close();
+                }
+            }
+            written += flush(connection, engine, quote, table, targets, pending, hook);
+            connection.commit();
+            progress.accept(new Progress(written, 1.0, rate(written, start)));
+            return new Report(written, elapsedMs(start), null);
+        } catch (SQLException | IOException | IllegalArgumentException e) {
+            rollbackQuietly(connection);
+            String reason = e instanceof SQLException
+                    ? JdbcCore.humanize(e) + " (after " + written + " rows)"
+                    : JdbcCore.humanize(e);
+            return new Report(0, elapsedMs(start), reason + " — nothing was imported");
+        } finally {
+            try {
+                connection.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                LOG.log(Level.FINE, "restoring auto-commit failed", e);
+            }
+        }
+    }
+
+    /** A short chunk (the tail, or the rows before a widening) in a statement sized to it. */
+    private static int flush(Connection connection, DbEngine engine, String quote, TableInfo table,
+            List<ColumnInfo> targets, List<Map<String, Object>> pending, JdbcCore.CancelHook hook)
+            throws SQLException {
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        try (PreparedStatement tail = connection.prepareStatement(
+                insertSql(quote, table, targets, pending.size()))) {
+            return execute(tail, engine, targets, pending, hook);
+        }
+    }
+
+    /** The record's keys that map to no target column yet, in record order. */
+    private static List<String> unseen(Iterable<String> keys, Set<String> known) {
+        List<String> added = new ArrayList<>();
+        for (String key : keys) {
+            String lower = key == null ? "" : key.toLowerCase(Locale.ROOT);
+            if (!known.contains(lower) && !added.contains(key)) {
+                added.add(key);
+            }
+        }
+        return added;
+    }
+
+    private static Set<String> lowerNames(List<ColumnInfo> targets) {
+        Set<String> names = new HashSet<>();
+        for (ColumnInfo column : targets) {
+            names.add(column.name().toLowerCase(Locale.ROOT));
+        }
+        return names;
+    }
+
+    /**
+     * The multi-row INSERT for {@code rows} records:
+     * {@code INSERT INTO "t" ("a", "b") VALUES (?, ?), (?, ?)}.
+     */
+    static String insertSql(String quote, TableInfo table, List<ColumnInfo> columns, int rows) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ")
+                .append(SqlDialect.qualifiedTable(quote, table)).append(" (");
+        StringBuilder tuple = new StringBuilder("(");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+                tuple.append(", ");
+            }
+            sql.append(SqlDialect.quote(quote, columns.get(i).name()));
+            tuple.append('?');
+        }
+        tuple.append(')');
+        sql.append(") VALUES ");
+        for (int r = 0; r < rows; r++) {
+            if (r > 0) {
+                sql.append(", ");
+            }
+            sql.append(tuple);
+        }
+        return sql.toString();
+    }
+
+    /** Rows per statement: {@link #CHUNK_ROWS}, lowered to respect the engine's parameter cap. */
+    static int chunkRows(DbEngine engine, int columnCount) {
+        int maxParams = engine == DbEngine.SQLITE ? SQLITE_MAX_PARAMS : DEFAULT_MAX_PARAMS;
+        return Math.max(1, Math.min(CHUNK_ROWS, maxParams / Math.max(1, columnCount)));
+    }
+
+    /**
+     * The table columns the file's fields map to, in file order; a field
+     * naming no column throws with every unknown name listed.
+     */
+    static List<ColumnInfo> targetColumns(List<ColumnInfo> columns, Iterable<String> fields,
+            TableInfo table) {
+        Map<String, ColumnInfo> byName = new LinkedHashMap<>();
+        for (ColumnInfo column : columns) {
+            byName.putIfAbsent(column.name().toLowerCase(Locale.ROOT), column);
+        }
+        List<ColumnInfo> targets = new ArrayList<>();
+        List<String> unknown = new ArrayList<>();
+        for (String field : fields) {
+            ColumnInfo column = byName.get(field == null ? "" : field.toLowerCase(Locale.ROOT));
+            if (column == null) {
+                unknown.add(field);
+            } else {
+                targets.add(column);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException(table.name() + " has no column named "
+                    + String.join(", ", unknown));
+        }
+        if (targets.isEmpty()) {
+            throw new IllegalArgumentException("The file has no fields to import");
+        }
+        return targets;
+    }
+
+    /**
+     * Binds one value by the column's base type (see the class javadoc).
+     * Unparseable numbers throw {@link IllegalArgumentException} naming
+     * the column, which fails (and rolls back) the import.
+     */
+    static void bind(PreparedStatement statement, int index, DbEngine engine,
+            ColumnInfo column, Object value) throws SQLException {
+        String text = value == null ? null : String.valueOf(value);
+        String type = UpdateBuilder.baseType(column.typeName());
+        boolean textual = !INTEGER_TYPES.contains(type) && !DECIMAL_TYPES.contains(type)
+                && !FLOAT_TYPES.contains(type) && !BOOLEAN_TYPES.contains(type);
+        if (isNull(text, column, textual)) {
+            statement.setNull(index, sqlType(type));
+            return;
+        }
+        String trimmed = text.trim();
+        try {
+            if (INTEGER_TYPES.contains(type)) {
+                statement.setLong(index, Long.parseLong(trimmed));
+            } else if (DECIMAL_TYPES.contains(type)) {
+                statement.setBigDecimal(index, new BigDecimal(trimmed));
+            } else if (FLOAT_TYPES.contains(type)) {
+                statement.setDouble(index, Double.parseDouble(trimmed));
+            } else if (BOOLEAN_TYPES.contains(type)) {
+                statement.setBoolean(index, parseBoolean(trimmed, column));
+            } else if (engine == DbEngine.POSTGRES && !"TEXT".equals(type)
+                    && !type.startsWith("VARCHAR") && !type.startsWith("CHAR")) {
+                statement.setObject(index, text, Types.OTHER); // server-side cast
+            } else {
+                statement.setString(index, text);
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Column " + column.name() + " ("
+                    + column.typeName() + ") cannot take \"" + abbreviate(text) + "\"", e);
+        }
+    }
+
+    // ---- shared with the document backends --------------------------------
+
+    /**
+     * Reads up to {@code max} records into {@code into} (cleared
+     * first); returns false once the source is exhausted and nothing
+     * was read.
+     */
+    static boolean fill(ImportReader source, List<Map<String, Object>> into, int max)
+            throws IOException {
+        into.clear();
+        Map<String, Object> record;
+        while (into.size() < max && (record = source.next()) != null) {
+            into.add(record);
+        }
+        return !into.isEmpty();
+    }
+
+    /**
+     * A record as a JSON object, {@code null} values kept as JSON
+     * {@code null} (the {@code JSONObject(Map)} constructor would drop
+     * them).
+     */
+    static JSONObject toJsonObject(Map<String, Object> record) {
+        JSONObject object = new JSONObject();
+        for (Map.Entry<String, Object> field : record.entrySet()) {
+            object.put(field.getKey(), field.getValue() == null ? JSONObject.NULL : field.getValue());
+        }
+        return object;
+    }
+
+    /** A progress tick for {@code rows} written so far. */
+    static Progress progress(long rows, ImportReader source, long startNanos) {
+        return new Progress(rows, source.fraction(), rate(rows, startNanos));
+    }
+
+    static long elapsedMs(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    // ---- internals --------------------------------------------------------
+
+    private static int execute(PreparedStatement statement, DbEngine engine,
+            List<ColumnInfo> targets, List<Map<String, Object>> rows, JdbcCore.CancelHook hook)
+            throws SQLException {
+        int index = 1;
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> lower = lowerKeys(row);
+            for (ColumnInfo column : targets) {
+                bind(statement, index++, engine, column,
+                        lower.get(column.name().toLowerCase(Locale.ROOT)));
+            }
+        }
+        hook.park(statement);
+        try {
+            statement.executeUpdate();
+        } finally {
+            hook.park(null);
+        }
+        return rows.size();
+    }
+
+    private static Map<String, Object> lowerKeys(Map<String, Object> row) {
+        Map<String, Object> lower = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : row.entrySet()) {
+            lower.putIfAbsent(entry.getKey().toLowerCase(Locale.ROOT), entry.getValue());
+        }
+        return lower;
+    }
+
+    private static boolean isNull(String text, ColumnInfo column, boolean textual) {
+        if (text == null) {
+            return true;
+        }
+        if (!column.nullable()) {
+            return false;
+        }
+        // an empty field is "no value" for anything but text, where the
+        // empty string is a legitimate value; NULL is the export's spelling
+        return "NULL".equals(text) || (!textual && text.isBlank());
+    }
+
+    private static boolean parseBoolean(String text, ColumnInfo column) {
+        return switch (text.toLowerCase(Locale.ROOT)) {
+            case "true", "t", "1", "yes", "y" -> true;
+            case "false", "f", "0", "no", "n" -> false;
+            default -> throw new IllegalArgumentException("Column " + column.name()
+                    + " (" + column.typeName() + ") cannot take \"" + abbreviate(text) + "\"");
+        };
+    }
+
+    private static int sqlType(String baseType) {
+        if (INTEGER_TYPES.contains(baseType)) {
+            return Types.BIGINT;
+        }
+        if (DECIMAL_TYPES.contains(baseType)) {
+            return Types.DECIMAL;
+        }
+        if (FLOAT_TYPES.contains(baseType)) {
+            return Types.DOUBLE;
+        }
+        if (BOOLEAN_TYPES.contains(baseType)) {
+            return Types.BOOLEAN;
+        }
+        return Types.VARCHAR;
+    }
+
+    private static double rate(long rows, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed <= 0 ? 0 : rows * 1_000_000_000.0 / elapsed;
+    }
+
+    private static void rollbackQuietly(Connection connection) {
+        try {
+            connection.rollback();
+        } catch (SQLException e) {
+            LOG.log(Level.FINE, "rollback failed", e);
+        }
+    }
+
+    private static String abbreviate(String text) {
+        return text.length() > 40 ? text.substring(0, 40) + "…" : text;
+    }
+}
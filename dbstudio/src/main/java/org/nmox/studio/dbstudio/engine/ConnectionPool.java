@@ -0,0 +1,321 @@
+package org.nmox.studio.dbstudio.engine;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A small, bounded JDBC connection pool — one per {@link DbClient}, so
+ * one per connection spec. It exists so schema introspection, imports
+ * and the console stop queueing behind each other on a single
+ * {@link Connection}: a long {@code SELECT} in the console no longer
+ * freezes table browsing.
+ *
+ * <ul>
+ *   <li><b>Bounded:</b> at most {@code maxSize} connections exist at
+ *       once (idle + borrowed); a borrow beyond that waits, then fails
+ *       with {@link SQLTimeoutException} naming the pool size.</li>
+ *   <li><b>Validated on borrow:</b> an idle connection that sat longer
+ *       than {@link #VALIDATE_AFTER_MS} is probed with
+ *       {@link Connection#isValid} before it is handed out; a dead one
+ *       is closed and the borrow moves on (or connects afresh). A
+ *       connection used a moment ago is trusted — the probe is a round
+ *       trip, and the hot path is tree expansion.</li>
+ *   <li><b>Idle eviction:</b> connections idle longer than the eviction
+ *       window are closed — on every borrow and release, and by
+ *       {@link #evictIdle()}, which the owner schedules once activity
+ *       stops (the pool itself owns no thread).</li>
+ * </ul>
+ *
+ * <p>Idle connections are reused most-recently-released first, so the
+ * warmest socket serves the next borrow and the cold tail ages out.
+ * Connects and validation probes run OUTSIDE the monitor — a slow
+ * server stalls only the borrower that needs the new socket.
+ *
+ * <p>Callers must release every borrowed connection exactly once,
+ * closed or not; a closed one is discarded and frees its slot. After
+ * {@link #close()} borrows fail, idle connections are closed at once
+ * and borrowed ones as they come back.
+ */
+final class ConnectionPool implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(ConnectionPool.class.getName());
+
+    /** Idle time after which a connection is probed before reuse. */
+    static final long VALIDATE_AFTER_MS = 1_000;
+
+    /** {@link Connection#isValid} timeout for that probe. */
+    static final int VALIDATE_TIMEOUT_SECONDS = 2;
+
+    /** How a pool makes a new connection — DbClient's URL + credentials. */
+    @FunctionalInterface
+    interface Factory {
+        Connection connect() throws SQLException;
+    }
+
+    /**
+     * A utilization snapshot.
+     *
+     * @param inUse connections currently borrowed (the pinned console
+     *              session counts)
+     * @param idle  open connections waiting in the pool
+     * @param max   the pool's bound
+     */
+    record Stats(int inUse, int idle, int max) {
+    }
+
+    private record Idle(Connection connection, long since) {
+    }
+
+    private final Factory factory;
+    private final int maxSize;
+    private final long idleEvictMs;
+    private final LongSupplier clockMs;
+    private final Runnable onChange;
+
+    private final Deque<Idle> idle = new ArrayDeque<>(); // guarded by this; head = warmest
+    private int total;                                   // guarded by this; idle + borrowed + connecting
+    private boolean closed;                              // guarded by this
+
+    /**
+     * @param factory     makes a new connection
+     * @param maxSize     the bound, at least 1
+     * @param idleEvictMs idle time after which a connection is closed
+     * @param clockMs     millisecond clock (a seam for tests)
+     * @param onChange    fired (on the calling thread, outside the
+     *                    monitor) after every borrow and release; may
+     *                    be null
+     */
+    ConnectionPool(Factory factory, int maxSize, long idleEvictMs, LongSupplier clockMs,
+            Runnable onChange) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1: " + maxSize);
+        }
+        this.factory = Objects.requireNonNull(factory, "factory");
+        this.maxSize = maxSize;
+        this.idleEvictMs = idleEvictMs;
+        this.clockMs = Objects.requireNonNull(clockMs, "clockMs");
+        this.onChange = onChange;
+    }
+
+    /** The bound this pool was built with. */
+    int maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * A live connection: a validated idle one, else a fresh one while
+     * under the bound, else the next one released within
+     * {@code waitMs}.
+     *
+     * @throws SQLTimeoutException when every connection stayed busy for
+     *                             {@code waitMs}
+     * @throws SQLException        when the pool is closed or the
+     *                             connect fails
+     */
+    Connection borrow(long waitMs) throws SQLException {
+        long deadline = clockMs.getAsLong() + Math.max(0, waitMs);
+        while (true) {
+            Connection candidate = null;
+            boolean create = false;
+            boolean trusted = false;
+            List<Connection> stale;
+            synchronized (this) {
+                stale = evictLocked();
+                while (!closed && idle.isEmpty() && total >= maxSize) {
+                    long remaining = deadline - clockMs.getAsLong();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    try {
+                        wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted waiting for a free connection", e);
+                    }
+                    stale.addAll(evictLocked());
+                }
+                if (closed) {
+                    closeAll(stale);
+                    throw new SQLException("The connection pool is closed");
+                }
+                Idle next = idle.pollFirst();
+                if (next != null) {
+                    candidate = next.connection();
+                    trusted = clockMs.getAsLong() - next.since() < VALIDATE_AFTER_MS;
+                } else if (total < maxSize) {
+                    total++;
+                    create = true;
+                } else {
+                    closeAll(stale);
+                    throw new SQLTimeoutException("All " + maxSize
+                            + " connections stayed busy for " + waitMs + " ms");
+                }
+            }
+            closeAll(stale);
+            if (create) {
+                try {
+                    Connection fresh = factory.connect();
+                    changed();
+                    return fresh;
+                } catch (SQLException | RuntimeException e) {
+                    discardSlot();
+                    throw e;
+                }
+            }
+            if (trusted || alive(candidate)) { // used a moment ago: trust it
+                changed();
+                return candidate;
+            }
+            closeQuietly(candidate);
+            discardSlot(); // dead: free its slot and go round again
+        }
+    }
+
+    /**
+     * Returns a borrowed connection. Closed connections (and any
+     * connection released after {@link #close()}) are discarded; the
+     * rest go back to the warm end of the idle queue. Null is ignored.
+     */
+    void release(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        boolean keep = !isClosedQuietly(connection);
+        List<Connection> stale;
+        synchronized (this) {
+            stale = evictLocked();
+            if (keep && !closed) {
+                idle.addFirst(new Idle(connection, clockMs.getAsLong()));
+            } else {
+                total--;
+                stale.add(connection);
+            }
+            notifyAll();
+        }
+        closeAll(stale);
+        changed();
+    }
+
+    /**
+     * Current utilization. Never closes anything and never waits on a
+     * connect, so the EDT may call it from a renderer.
+     */
+    synchronized Stats stats() {
+        return new Stats(total - idle.size(), idle.size(), maxSize);
+    }
+
+    /**
+     * Closes the idle connections past the eviction window.
+     *
+     * @return how many were closed
+     */
+    int evictIdle() {
+        List<Connection> stale;
+        synchronized (this) {
+            stale = evictLocked();
+        }
+        closeAll(stale);
+        if (!stale.isEmpty()) {
+            changed();
+        }
+        return stale.size();
+    }
+
+    /** True once {@link #close()} ran. */
+    synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Closes idle connections now and borrowed ones on release; wakes
+     * any waiting borrower (it fails). Idempotent.
+     */
+    @Override
+    public void close() {
+        List<Connection> doomed = new ArrayList<>();
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            for (Idle entry : idle) {
+                doomed.add(entry.connection());
+            }
+            total -= idle.size();
+            idle.clear();
+            notifyAll();
+        }
+        closeAll(doomed);
+        changed();
+    }
+
+    // ---- internals ------------------------------------------------
+
+    /** Pulls the cold tail past the eviction window; the caller closes them. */
+    private List<Connection> evictLocked() {
+        List<Connection> stale = new ArrayList<>();
+        long now = clockMs.getAsLong();
+        while (!idle.isEmpty() && now - idle.peekLast().since() >= idleEvictMs) {
+            stale.add(idle.pollLast().connection());
+            total--;
+        }
+        if (!stale.isEmpty()) {
+            notifyAll(); // freed slots
+        }
+        return stale;
+    }
+
+    private synchronized void discardSlot() {
+        total--;
+        notifyAll();
+    }
+
+    private void changed() {
+        if (onChange != null) {
+            try {
+                onChange.run();
+            } catch (RuntimeException e) {
+                LOG.log(Level.FINE, "pool listener failed", e);
+            }
+        }
+    }
+
+    private static boolean alive(Connection connection) {
+        try {
+            return connection.isValid(VALIDATE_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static boolean isClosedQuietly(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    private static void closeAll(List<Connection> connections) {
+        for (Connection connection : connections) {
+            closeQuietly(connection);
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOG.log(Level.FINE, "closing a pooled connection failed", e);
+        }
+    }
+}
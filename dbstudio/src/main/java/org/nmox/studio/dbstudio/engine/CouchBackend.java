@@ -11,7 +11,9 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.json.JSONArray;
@@ -74,6 +76,8 @@ public final class CouchBackend implements DbBackend {
     private final char[] password;
 
     private volatile boolean open;
+    /** Set by {@link #cancelImport()}; checked between import chunks. */
+    private volatile boolean importCancelled;
 
     /**
      * @param spec     the connection to speak to; must be a
@@ -236,6 +240,44 @@ public final class CouchBackend implements DbBackend {
         return results;
     }
 
+    /**
+     * Streams {@code source} into the database in
+     * {@link BulkImport#CHUNK_ROWS}-document {@code POST /{db}/_bulk_docs}
+     * requests. NDJSON records go up as-is; CSV cells stay JSON strings
+     * (empty and {@code NULL} become JSON null) — CouchDB has no schema
+     * to type them against. A chunk whose reply carries any per-document
+     * error ends the import with the first reason (conflicts included);
+     * the report counts the documents CouchDB accepted, since there is
+     * no transaction to roll back. {@link #cancelImport()} stops
+     * between chunks.
+     */
+    @Override
+    public BulkImport.Report importRows(TableInfo container, ImportReader source,
+            Consumer<BulkImport.Progress> progress) {
+        long start = System.nanoTime();
+        importCancelled = false;
+        long written = 0;
+        try {
+            String path = "/" + encodePath(container.name()) + "/_bulk_docs";
+            List<Map<String, Object>> chunk = new ArrayList<>(BulkImport.CHUNK_ROWS);
+            while (!importCancelled && BulkImport.fill(source, chunk, BulkImport.CHUNK_ROWS)) {
+                BulkOutcome outcome = parseBulkDocs(post(path,
+                        bulkDocsBody(chunk, source.format())));
+                written += outcome.accepted();
+                if (outcome.firstError() != null) {
+                    return new BulkImport.Report(written, BulkImport.elapsedMs(start),
+                            outcome.firstError() + " (" + written + " documents were saved)");
+                }
+                progress.accept(BulkImport.progress(written, source, start));
+            }
+            return new BulkImport.Report(written, BulkImport.elapsedMs(start),
+                    importCancelled ? "Cancelled after " + written + " documents" : null);
+        } catch (Exception e) {
+            return new BulkImport.Report(written, BulkImport.elapsedMs(start),
+                    humanize(e) + " (" + written + " documents were saved)");
+        }
+    }
+
     /**
      * No-op: each console run is a single bounded HTTP request
      * ({@value #TIMEOUT_SECONDS}s timeout), so there is nothing
@@ -246,6 +288,12 @@ public final class CouchBackend implements DbBackend {
         // deliberately empty — see javadoc
     }
 
+    /** Stops an {@link #importRows} before its next chunk. */
+    @Override
+    public void cancelImport() {
+        importCancelled = true;
+    }
+
     // ---- parsing seams (static, String-in, no server needed) --------
 
     /**
@@ -322,6 +370,54 @@ public final class CouchBackend implements DbBackend {
         return mango.toString();
     }
 
+    /**
+     * The {@code _bulk_docs} body for one import chunk:
+     * {@code {"docs":[...]}}. CSV cells that are empty or the literal
+     * {@code NULL} become JSON null; everything else passes through.
+     */
+    static String bulkDocsBody(List<Map<String, Object>> records, ImportReader.Format format) {
+        JSONArray docs = new JSONArray();
+        for (Map<String, Object> record : records) {
+            JSONObject doc = BulkImport.toJsonObject(record);
+            if (format == ImportReader.Format.CSV) {
+                for (String key : record.keySet()) {
+                    Object value = record.get(key);
+                    if (value == null || "".equals(value) || "NULL".equals(value)) {
+                        doc.put(key, JSONObject.NULL);
+                    }
+                }
+            }
+            docs.put(doc);
+        }
+        return new JSONObject().put("docs", docs).toString();
+    }
+
+    /**
+     * What a {@code _bulk_docs} reply said: how many documents were
+     * stored and the first per-document failure as
+     * {@code error: reason}, or null when all were stored.
+     */
+    record BulkOutcome(int accepted, String firstError) {
+    }
+
+    /** Parses a {@code _bulk_docs} reply — a JSON array of per-document results. */
+    static BulkOutcome parseBulkDocs(String json) {
+        JSONArray results = new JSONArray(json);
+        int accepted = 0;
+        String firstError = null;
+        for (int i = 0; i < results.length(); i++) {
+            JSONObject result = results.getJSONObject(i);
+            if (result.has("error")) {
+                if (firstError == null) {
+                    firstError = errorSummary(result);
+                }
+            } else {
+                accepted++;
+            }
+        }
+        return new BulkOutcome(accepted, firstError);
+    }
+
     /** Shape-samples the first document; see {@link #columns}. No documents → no columns. */
     static List<ColumnInfo> shapeSample(List<JSONObject> docs) {
         List<ColumnInfo> columns = new ArrayList<>();
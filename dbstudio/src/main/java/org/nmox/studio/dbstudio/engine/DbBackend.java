@@ -2,6 +2,7 @@ package org.nmox.studio.dbstudio.engine;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 import org.nmox.studio.dbstudio.model.ColumnInfo;
 import org.nmox.studio.dbstudio.model.ConnectionSpec;
 import org.nmox.studio.dbstudio.model.DbEngine;
@@ -87,6 +88,87 @@ public interface DbBackend extends AutoCloseable {
      */
     void cancel();
 
+    /**
+     * Streams the records of {@code source} into {@code container} —
+     * multi-row INSERTs in one transaction on SQL engines,
+     * {@code insertMany} on MongoDB, {@code _bulk_docs} on CouchDB —
+     * ticking {@code progress} after every chunk (on the calling
+     * thread). Cancellable through {@link #cancelImport()} where the
+     * backend can cancel at all. Never throws; the outcome, including any
+     * error, is the returned {@link BulkImport.Report}. The caller
+     * owns (and closes) the reader. The default refuses, for backends
+     * that cannot write.
+     */
+    default BulkImport.Report importRows(TableInfo container, ImportReader source,
+            Consumer<BulkImport.Progress> progress) {
+        return new BulkImport.Report(0, 0, spec().name() + " cannot import rows");
+    }
+
+    /**
+     * Best-effort cancellation of the {@link #importRows} in flight; a
+     * no-op when none is. Separate from {@link #cancel()} on purpose:
+     * the console's Cancel must not roll back an import running beside
+     * it, nor the import's progress handle kill a console query. Safe to
+     * call from any thread. The default does nothing, for backends that
+     * cannot import.
+     */
+    default void cancelImport() {
+        // nothing to cancel — see javadoc
+    }
+
+    /**
+     * A short utilization note for the UI (e.g. {@code "2/4 in use"}
+     * for a pooled JDBC client), or null when the backend has nothing
+     * to report — the default, for single-session backends.
+     */
+    default String utilization() {
+        return null;
+    }
+
+    /**
+     * Registers the listener told whenever {@link #utilization()} may
+     * have changed; it runs on whatever worker thread caused the
+     * change, so UI listeners marshal to the EDT themselves. The
+     * default ignores it — nothing ever changes.
+     */
+    default void onUtilizationChange(Runnable listener) {
+    }
+
+    /**
+     * The backend's cached {@link SchemaCatalog}, or null when it keeps
+     * none (the default) or has not fetched yet.
+     */
+    default SchemaCatalog catalog() {
+        return null;
+    }
+
+    /**
+     * Offers a catalog persisted by an earlier session; a backend that
+     * caches adopts it only while it holds none, and serves it until
+     * {@link #refreshCatalog()} replaces it. The default ignores it.
+     */
+    default void seedCatalog(SchemaCatalog stored) {
+    }
+
+    /**
+     * Re-reads the catalog from the server (synchronously — call off
+     * the EDT) and returns the current one; null when the backend keeps
+     * no catalog (the default). A changed schema fires the
+     * {@link #onCatalogChange} listener.
+     */
+    default SchemaCatalog refreshCatalog() {
+        return null;
+    }
+
+    /**
+     * Registers the listener told (on a worker thread) when a refresh
+     * replaced the catalog with a different schema — after DDL in the
+     * console, or a seeded catalog proving stale. The default ignores
+     * it.
+     */
+    default void onCatalogChange(Runnable listener) {
+    }
+
     /**
      * The one place engine dispatch happens: SQL engines get the JDBC
      * {@link DbClient}, MongoDB its driver-backed {@link MongoBackend},
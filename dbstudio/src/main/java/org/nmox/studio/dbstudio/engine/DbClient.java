@@ -9,25 +9,41 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.nmox.studio.dbstudio.model.ColumnInfo;
 import org.nmox.studio.dbstudio.model.ConnectionSpec;
 import org.nmox.studio.dbstudio.model.DbEngine;
 import org.nmox.studio.dbstudio.model.TableInfo;
+import org.openide.util.RequestProcessor;
 
 /**
- * The JDBC wrapper: one client per connection spec, holding at most one
- * live {@link Connection}. Every method is synchronous and throws
+ * The JDBC wrapper: one client per connection spec, backed by a small
+ * {@link ConnectionPool}. Every method is synchronous and throws
  * nothing — failures come back as strings ({@link #test()},
  * {@link #open()}) or inside {@link QueryResult#error()} — so the UI
  * layer can call from any worker thread and simply render what it gets.
  *
- * <p><b>Threading contract:</b> connection state is guarded by this
- * object's monitor; a long-running {@link #runScript} holds it, so a
- * concurrent {@link #close()} waits for the script (call
- * {@link #cancel()} first — it is deliberately unsynchronized and
- * interrupts the in-flight statement). Never call from the EDT.
+ * <p><b>Threading contract:</b> the console runs on a pinned SESSION
+ * connection — one borrowed connection kept for the client's life, so
+ * {@code BEGIN}, {@code SET} and temp tables persist from one run to
+ * the next exactly as they did when the client held a single
+ * connection. Scripts serialize on the session lock; a long-running
+ * {@link #runScript} holds it, so a concurrent {@link #close()} waits
+ * for the script (call {@link #cancel()} first — it is deliberately
+ * unsynchronized and interrupts the in-flight statements).
+ * Introspection ({@link #listTables()}, {@link #columns}) and
+ * {@link #importRows} borrow their OWN pooled connections and run
+ * alongside the console — the reason the pool exists. A private
+ * in-memory SQLite database is per-connection, so there the pool is a
+ * single connection and everything shares the session, as before.
+ * Never call from the EDT.
+ *
+ * <p>Schema introspection is served from a {@link SchemaCatalog} —
+ * one bulk query on first use, refreshed in the background after the
+ * console runs DDL, and seedable from the copy the UI persisted last
+ * session — so tree expansion and edit gating cost no round trips.
  *
  * <p><b>Deliberate design:</b> the console executes exactly the SQL the
  * user typed via {@code Statement.execute} — that is the product (a SQL
@@ -50,12 +66,48 @@ public final class DbClient implements DbBackend {
     /** Connect-phase timeout applied to every open/test. */
     private static final int CONNECT_TIMEOUT_SECONDS = 5;
 
+    /** Pool bound for server engines: the console session plus three lanes. */
+    static final int POOL_SIZE = 4;
+
+    /**
+     * Pool bound for a SQLite file: readers run concurrently, but writers
+     * take the file lock, so more lanes only buy {@code SQLITE_BUSY} waits.
+     */
+    static final int SQLITE_POOL_SIZE = 3;
+
+    /** How long a borrow waits for a lane before reporting the pool busy. */
+    static final long BORROW_WAIT_MS = 15_000;
+
+    /** Idle pooled connections close after this long untouched. */
+    static final long IDLE_EVICT_MS = 60_000;
+
+    /** Runs the idle sweep once a client's pool goes quiet. */
+    private static final RequestProcessor SWEEPER =
+            new RequestProcessor("DB Studio connection sweeper", 1, false, false);
+
+    /** Re-reads schema catalogs after DDL, off every caller's thread. */
+    private static final RequestProcessor CATALOGS =
+            new RequestProcessor("DB Studio catalog refresh", 1, false, false);
+
     private final ConnectionSpec spec;
     private final char[] password;
 
-    private Connection connection;           // guarded by this
-    /** Cancellation seam shared with {@link JdbcCore}; fired by {@link #cancel()}. */
+    /** Written under this; read lock-free by {@link #utilization()} (the EDT renders it). */
+    private volatile ConnectionPool pool;
+    private volatile Runnable utilizationListener;
+    private final Object sessionLock = new Object();
+    private Connection session;              // guarded by sessionLock
+    /** Cancellation seam for the console session; fired by {@link #cancel()}. */
     private final JdbcCore.CancelHook cancelHook = new JdbcCore.CancelHook();
+    /** Cancellation seam for an {@link #importRows} chunk; fired by {@link #cancelImport()}. */
+    private final JdbcCore.CancelHook importHook = new JdbcCore.CancelHook();
+    /** Re-armed on every pool change; fires one sweep after the window. */
+    private final RequestProcessor.Task sweep = SWEEPER.create(this::sweepIdle);
+    /** The bulk-fetched schema, served to listTables/columns; null until fetched or seeded. */
+    private volatile SchemaCatalog catalog;
+    private volatile Runnable catalogListener;
+    /** Scheduled after a script ran DDL; one task, so a burst coalesces. */
+    private final RequestProcessor.Task catalogRefresh = CATALOGS.create(this::refreshCatalog);
 
     /**
      * @param spec     the connection to speak to
@@ -104,45 +156,60 @@ public final class DbClient implements DbBackend {
     }
 
     /**
-     * Opens the held connection if not already open. Returns null on
+     * Opens the pool if not already open, proving it with one real
+     * connection (which stays in the pool, warm). Returns null on
      * success (including "was already open"), else a human-readable
      * reason. Surfacing this string is how the UI learns why the
      * schema tree is empty — call it before {@link #listTables()}.
+     * Never waits on a running script.
      */
     @Override
     public synchronized String open() {
-        if (isOpenLocked()) {
+        if (pool != null && !pool.isClosed()) {
             return null;
         }
+        ConnectionPool fresh = new ConnectionPool(this::connect, poolSize(spec),
+                IDLE_EVICT_MS, System::currentTimeMillis, this::fireUtilization);
         try {
-            Class.forName(spec.engine().driverClass());
-            connection = DriverManager.getConnection(urlWithConnectTimeout(), credentials());
+            fresh.release(fresh.borrow(BORROW_WAIT_MS));
+            pool = fresh;
             return null;
         } catch (Exception e) {
-            connection = null;
+            fresh.close();
+            pool = null;
             return humanize(e);
         }
     }
 
-    /** True while the held connection is open and not known-dead. */
+    /** True while the pool is open. */
     @Override
     public synchronized boolean isOpen() {
-        return isOpenLocked();
+        return pool != null && !pool.isClosed();
     }
 
     /**
-     * Closes the held connection; safe to call when already closed.
-     * Blocks while a script is running — {@link #cancel()} first.
+     * Closes the session and the pool; safe to call when already
+     * closed. Blocks while a script is running — {@link #cancel()}
+     * first. An import in flight keeps its connection until it
+     * finishes; the pool closes it on release.
      */
     @Override // both DbBackend and AutoCloseable
-    public synchronized void close() {
-        if (connection != null) {
-            try {
-                connection.close();
-            } catch (SQLException e) {
-                LOG.log(Level.FINE, "close failed for " + spec.name(), e);
+    public void close() {
+        synchronized (sessionLock) {
+            synchronized (this) {
+                closeLocked();
+            }
+        }
+    }
+
+    private void closeLocked() {
+        if (pool != null) {
+            if (session != null) {
+                pool.release(session);
+                session = null;
             }
-            connection = null;
+            pool.close();
+            pool = null;
         }
         // zero the secret's in-memory copy (ledger 54 L5): the char[] is our
         // own clone, so wiping it can't disturb the keyring source. Hygiene —
@@ -156,19 +223,31 @@ public final class DbClient implements DbBackend {
     }
 
     /**
-     * Tables and views in the spec's database scope, via
-     * {@code DatabaseMetaData.getTables}. Opens the connection if
-     * needed; on any failure returns an empty list and logs — the
-     * connection error itself is the return value of {@link #open()}.
+     * Tables and views in the spec's database scope, from the
+     * {@link SchemaCatalog} — fetched in one bulk query on first use,
+     * then served from memory (falling back to
+     * {@code DatabaseMetaData.getTables} if the bulk fetch fails). Opens
+     * the connection if needed; on any failure returns an empty list and
+     * logs — the connection error itself is the return value of
+     * {@link #open()}.
      */
-    public synchronized List<TableInfo> listTables() {
+    public List<TableInfo> listTables() {
         String openError = open();
         if (openError != null) {
             LOG.log(Level.WARNING, "listTables: cannot open {0}: {1}",
                     new Object[]{spec.name(), openError});
             return new ArrayList<>();
         }
-        return JdbcCore.listTables(connection, scopeCatalog(), null, spec.name());
+        SchemaCatalog known = catalog;
+        if (known == null) {
+            known = refreshCatalog();
+        }
+        if (known != null) {
+            return new ArrayList<>(known.tables());
+        }
+        List<TableInfo> tables = onLane(connection ->
+                JdbcCore.listTables(connection, scopeCatalog(), null, spec.name()));
+        return tables == null ? new ArrayList<>() : tables;
     }
 
     /** {@link DbBackend}'s name for {@link #listTables()}. */
@@ -178,40 +257,63 @@ public final class DbClient implements DbBackend {
     }
 
     /**
-     * Columns of one table, via {@code getColumns} cross-referenced
-     * with {@code getPrimaryKeys}. Same failure contract as
+     * Columns of one table — from the catalog when it knows the table,
+     * else live via {@code getColumns} cross-referenced with
+     * {@code getPrimaryKeys}. Same failure contract as
      * {@link #listTables()}.
      */
     @Override
-    public synchronized List<ColumnInfo> columns(TableInfo table) {
+    public List<ColumnInfo> columns(TableInfo table) {
         if (table == null || open() != null) {
             return new ArrayList<>();
         }
-        return JdbcCore.columns(connection, table);
+        SchemaCatalog known = catalog;
+        List<ColumnInfo> cached = known == null ? null : known.columns(table);
+        if (cached != null) {
+            return new ArrayList<>(cached);
+        }
+        List<ColumnInfo> columns = onLane(connection -> JdbcCore.columns(connection, table));
+        return columns == null ? new ArrayList<>() : columns;
     }
 
     /**
      * Splits the script with {@link SqlSplitter} and executes every
-     * statement in order on the held connection (opening it first if
-     * needed). A failing statement records its error in ITS result and
+     * statement in order on the console session (opening the pool first
+     * if needed). A failing statement records its error in ITS result and
      * the script keeps going — a DBA expects the rest of the file to
      * run. Result sets are read up to {@code rowLimit} rows
      * ({@code <= 0} means unlimited) and marked {@code truncated} when
-     * more remained.
+     * more remained. A successful {@code CREATE}/{@code ALTER}/
+     * {@code DROP}/{@code RENAME} schedules a background catalog refresh.
      */
-    public synchronized List<QueryResult> runScript(String sql, int rowLimit) {
+    public List<QueryResult> runScript(String sql, int rowLimit) {
         List<QueryResult> results = new ArrayList<>();
         List<String> statements = SqlSplitter.split(sql);
         if (statements.isEmpty()) {
             return results;
         }
-        String openError = open();
-        if (openError != null) {
-            results.add(JdbcCore.errorResult(statements.get(0), 0,
-                    "Could not open connection: " + openError));
-            return results;
+        synchronized (sessionLock) {
+            String openError = open();
+            if (openError != null) {
+                results.add(JdbcCore.errorResult(statements.get(0), 0,
+                        "Could not open connection: " + openError));
+                return results;
+            }
+            Connection connection;
+            try {
+                connection = sessionLocked();
+            } catch (SQLException e) {
+                results.add(JdbcCore.errorResult(statements.get(0), 0,
+                        "Could not open connection: " + humanize(e)));
+                return results;
+            }
+            results = JdbcCore.runStatements(connection, statements, rowLimit, cancelHook);
+        }
+        if (catalog != null && results.stream().anyMatch(
+                r -> !r.isError() && SchemaCatalog.changesSchema(r.statement()))) {
+            catalogRefresh.schedule(0);
         }
-        return JdbcCore.runStatements(connection, statements, rowLimit, cancelHook);
+        return results;
     }
 
     /** {@link DbBackend}'s name for {@link #runScript}. */
@@ -220,25 +322,243 @@ public final class DbClient implements DbBackend {
         return runScript(text, rowLimit);
     }
 
+    /**
+     * Streams {@code source} into {@code table} through
+     * {@link BulkImport} — multi-row INSERTs, one transaction, rolled
+     * back whole on any failure or {@link #cancelImport()}. Runs on its own
+     * pooled connection, so the console stays usable meanwhile (on a
+     * single-connection pool it queues behind the session instead).
+     */
+    @Override
+    public BulkImport.Report importRows(TableInfo table, ImportReader source,
+            Consumer<BulkImport.Progress> progress) {
+        String openError = open();
+        if (openError != null) {
+            return new BulkImport.Report(0, 0, "Could not open connection: " + openError);
+        }
+        BulkImport.Report report = onLane(connection -> {
+            List<ColumnInfo> columns = JdbcCore.columns(connection, table);
+            if (columns.isEmpty()) {
+                return new BulkImport.Report(0, 0,
+                        "Could not read the columns of " + table.name());
+            }
+            return BulkImport.insertJdbc(connection, spec.engine(), table, columns, source,
+                    progress, importHook);
+        });
+        return report != null ? report
+                : new BulkImport.Report(0, 0, "No connection free: all "
+                        + poolSize(spec) + " are busy");
+    }
+
     /**
      * Cancels the statement currently executing inside
-     * {@link #runScript}, if any; a no-op otherwise. Deliberately NOT
-     * synchronized so it can fire while runScript holds the monitor.
-     * The cancelled statement surfaces as an error in its own result.
+     * {@link #runScript} via {@code Statement.cancel()}; a no-op when
+     * idle. An import on its own pooled connection is left alone —
+     * that is {@link #cancelImport()}. Deliberately
+     * lock-free so it can fire while runScript holds the session. The
+     * cancelled statement surfaces as an error in its own result.
+     * Introspection is never cancelled — it is short, and the tree
+     * would lose a branch.
      */
     @Override
     public void cancel() {
         cancelHook.cancel();
     }
 
+    /**
+     * Cancels the {@link #importRows} chunk in flight, which rolls the
+     * whole import back; a no-op when no import runs. Lock-free, like
+     * {@link #cancel()}.
+     */
+    @Override
+    public void cancelImport() {
+        importHook.cancel();
+    }
+
+    @Override
+    public SchemaCatalog catalog() {
+        return catalog;
+    }
+
+    @Override
+    public synchronized void seedCatalog(SchemaCatalog stored) {
+        if (catalog == null) {
+            catalog = stored;
+        }
+    }
+
+    /**
+     * One bulk {@link SchemaCatalog#fetch} on a lane connection. A
+     * failed fetch keeps the current catalog (a stale tree beats an
+     * empty one); a fetch that differs from a catalog already held
+     * fires the {@link #onCatalogChange} listener.
+     */
+    @Override
+    public SchemaCatalog refreshCatalog() {
+        if (open() != null) {
+            return catalog;
+        }
+        SchemaCatalog fresh = onLane(connection ->
+                SchemaCatalog.fetch(connection, spec.engine(), scopeCatalog(), spec.name()));
+        if (fresh == null) {
+            return catalog;
+        }
+        SchemaCatalog previous;
+        synchronized (this) {
+            previous = catalog;
+            catalog = fresh;
+        }
+        Runnable listener = catalogListener;
+        if (previous != null && !fresh.sameSchemaAs(previous) && listener != null) {
+            listener.run();
+        }
+        return fresh;
+    }
+
+    @Override
+    public void onCatalogChange(Runnable listener) {
+        this.catalogListener = listener;
+    }
+
+    /**
+     * Pool utilization, e.g. {@code "2/4 in use"} (the console session
+     * counts once it has run); null while closed.
+     */
+    @Override
+    public String utilization() {
+        ConnectionPool lanes = pool; // lock-free: open() may hold this across a connect
+        if (lanes == null || lanes.isClosed()) {
+            return null;
+        }
+        ConnectionPool.Stats stats = lanes.stats();
+        return stats.inUse() + "/" + stats.max() + " in use";
+    }
+
+    /**
+     * Registers the one listener told (on a worker thread) whenever
+     * {@link #utilization()} may have changed; null clears.
+     */
+    @Override
+    public void onUtilizationChange(Runnable listener) {
+        this.utilizationListener = listener;
+    }
+
     // ---- internals ------------------------------------------------
 
-    private boolean isOpenLocked() {
+    /** One piece of JDBC work on a lane connection. */
+    @FunctionalInterface
+    private interface LaneWork<T> {
+        T on(Connection connection);
+    }
+
+    /**
+     * Runs {@code work} on a pooled connection borrowed for just this
+     * call — or, on a single-connection pool, on the session under its
+     * lock (borrowing would wait on the session forever). Returns null
+     * when no connection could be had; the reason is logged.
+     */
+    private <T> T onLane(LaneWork<T> work) {
+        ConnectionPool lanes;
+        synchronized (this) {
+            lanes = pool;
+        }
+        if (lanes == null) {
+            return null;
+        }
+        if (lanes.maxSize() == 1) {
+            synchronized (sessionLock) {
+                try {
+                    return work.on(sessionLocked());
+                } catch (SQLException e) {
+                    LOG.log(Level.WARNING, "no session connection for " + spec.name(), e);
+                    return null;
+                }
+            }
+        }
+        Connection connection;
         try {
-            return connection != null && !connection.isClosed();
+            connection = lanes.borrow(BORROW_WAIT_MS);
         } catch (SQLException e) {
-            return false;
+            LOG.log(Level.WARNING, "no pooled connection for " + spec.name(), e);
+            return null;
+        }
+        try {
+            return work.on(connection);
+        } finally {
+            lanes.release(connection);
+        }
+    }
+
+    /**
+     * The pinned console session, borrowed on first use and replaced
+     * when the server dropped it (the pool validates the replacement).
+     * Caller holds {@link #sessionLock} and has opened the pool.
+     */
+    private Connection sessionLocked() throws SQLException {
+        ConnectionPool lanes;
+        synchronized (this) {
+            lanes = pool;
+        }
+        if (lanes == null) {
+            throw new SQLException("The connection is closed");
+        }
+        if (session != null) {
+            boolean dead;
+            try {
+                dead = session.isClosed();
+            } catch (SQLException e) {
+                dead = true;
+            }
+            if (!dead) {
+                return session;
+            }
+            lanes.release(session); // discarded: frees its slot
+            session = null;
+        }
+        session = lanes.borrow(BORROW_WAIT_MS);
+        return session;
+    }
+
+    private Connection connect() throws SQLException {
+        try {
+            Class.forName(spec.engine().driverClass());
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("JDBC driver not found: " + spec.engine().driverClass(), e);
+        }
+        return DriverManager.getConnection(urlWithConnectTimeout(), credentials());
+    }
+
+    private void fireUtilization() {
+        sweep.schedule((int) IDLE_EVICT_MS + 1_000);
+        Runnable listener = utilizationListener;
+        if (listener != null) {
+            listener.run();
+        }
+    }
+
+    private void sweepIdle() {
+        ConnectionPool lanes = pool;
+        if (lanes != null) {
+            lanes.evictIdle();
+        }
+    }
+
+    /**
+     * The pool bound for {@code spec}: {@link #POOL_SIZE} for server
+     * engines, {@link #SQLITE_POOL_SIZE} for a SQLite file, and 1 for a
+     * private in-memory SQLite database (blank path or
+     * {@code :memory:}) — a second connection there would see a
+     * different, empty database.
+     */
+    static int poolSize(ConnectionSpec spec) {
+        if (spec.engine() != DbEngine.SQLITE) {
+            return POOL_SIZE;
         }
+        String path = spec.filePath() == null ? "" : spec.filePath().strip();
+        boolean privateMemory = path.isEmpty() || path.equals(":memory:")
+                || (path.contains(":memory:") && !path.contains("cache=shared"))
+                || (path.contains("mode=memory") && !path.contains("cache=shared"));
+        return privateMemory ? 1 : SQLITE_POOL_SIZE;
     }
 
     /**
@@ -68,8 +68,12 @@ public final class ExplainQueries {
         return trimmed;
     }
 
-    /** The first keyword, skipping whitespace and {@code --}/{@code #}/block comments. */
-    private static String firstWord(String statement) {
+    /**
+     * The first keyword, skipping whitespace and {@code --}/{@code #}/block
+     * comments. Package-private: {@link SchemaCatalog#changesSchema} reads
+     * the same word.
+     */
+    static String firstWord(String statement) {
         int i = 0;
         int n = statement.length();
         while (i < n) {
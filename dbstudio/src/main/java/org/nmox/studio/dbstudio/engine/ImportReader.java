@@ -0,0 +1,373 @@
+package org.nmox.studio.dbstudio.engine;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * The reading half of "Import CSV / NDJSON": a streaming, BOUNDED
+ * record reader over a file on disk. Nothing here ever holds more than
+ * one record — a multi-GB dump imports at constant heap — and every
+ * record is capped ({@link #MAX_FIELD_CHARS} per field,
+ * {@link #MAX_FIELDS} per record, {@link #MAX_LINE_CHARS} per NDJSON
+ * line) so a malformed file (an unterminated quote swallowing the rest
+ * of the disk, a binary blob renamed {@code .csv}) fails with a line
+ * number instead of an OOM.
+ *
+ * <p>Records come out as {@code field → value} maps in file order:
+ * <ul>
+ *   <li><b>CSV</b> (RFC 4180, the dialect {@link ResultExports#toCsv}
+ *       writes): the first record is the header; values are the raw
+ *       strings, quotes removed, {@code ""} un-doubled. A UTF-8 BOM is
+ *       skipped. Short rows pad with {@code null}, long rows are an
+ *       error (a shifted column would import garbage silently).</li>
+ *   <li><b>NDJSON</b>: one JSON object per line, blank lines skipped;
+ *       values are the parsed JSON values ({@code JSONObject.NULL}
+ *       becomes {@code null}, nested objects/arrays stay
+ *       {@code JSONObject}/{@code JSONArray}). Files whose name ends
+ *       {@code .json} are read the same way — a pretty-printed array
+ *       is not streamable and is refused with a hint.</li>
+ * </ul>
+ *
+ * <p>Not thread-safe; one reader per import. Malformed input throws
+ * {@link IOException} carrying the 1-based line of the offending
+ * record.
+ */
+public final class ImportReader implements Closeable {
+
+    /** Per-field ceiling — the same order of magnitude as the grid's LOB cap. */
+    static final int MAX_FIELD_CHARS = 1024 * 1024;
+
+    /** Per-record column ceiling — far beyond any engine's column limit. */
+    static final int MAX_FIELDS = 4096;
+
+    /** Per-line ceiling for NDJSON records. */
+    static final int MAX_LINE_CHARS = 4 * 1024 * 1024;
+
+    /** The two streamable import formats. */
+    public enum Format {
+        CSV, NDJSON;
+
+        /**
+         * The format implied by a file name: CSV for {@code .csv}, NDJSON
+         * for {@code .ndjson}, {@code .jsonl} and {@code .json}; null when
+         * the extension says neither.
+         */
+        public static Format forFileName(String fileName) {
+            String lower = fileName == null ? "" : fileName.toLowerCase(Locale.ROOT);
+            if (lower.endsWith(".csv")) {
+                return CSV;
+            }
+            if (lower.endsWith(".ndjson") || lower.endsWith(".jsonl") || lower.endsWith(".json")) {
+                return NDJSON;
+            }
+            return null;
+        }
+    }
+
+    private final Format format;
+    private final CountingStream counting;
+    private final Reader reader;
+    private final long totalBytes;
+    private final StringBuilder field = new StringBuilder();
+    private List<String> header;
+    private int line = 1;
+    private int pushback = -2; // -2 = empty
+
+    private ImportReader(Format format, InputStream in, long totalBytes) {
+        this.format = format;
+        this.counting = new CountingStream(in);
+        this.reader = new BufferedReader(new InputStreamReader(counting, StandardCharsets.UTF_8),
+                64 * 1024);
+        this.totalBytes = totalBytes;
+    }
+
+    /**
+     * Opens {@code file} for streaming. For CSV the header record is
+     * read eagerly, so {@link #header()} is answerable before the first
+     * {@link #next()}; an empty CSV file is an error.
+     */
+    public static ImportReader open(Path file, Format format) throws IOException {
+        InputStream in = Files.newInputStream(file);
+        try {
+            return open(in, format, Files.size(file));
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /** Stream seam for tests; {@code totalBytes} only feeds {@link #fraction()}. */
+    static ImportReader open(InputStream in, Format format, long totalBytes) throws IOException {
+        ImportReader r = new ImportReader(format, in, totalBytes);
+        r.skipBom();
+        if (format == Format.CSV) {
+            List<String> names = r.csvRecord();
+            if (names == null) {
+                throw new IOException("The CSV file is empty — expected a header row");
+            }
+            r.header = List.copyOf(names);
+        }
+        return r;
+    }
+
+    /** The import format. */
+    public Format format() {
+        return format;
+    }
+
+    /**
+     * The CSV header's field names in file order; for NDJSON, empty —
+     * each record carries its own keys.
+     */
+    public List<String> header() {
+        return header == null ? List.of() : header;
+    }
+
+    /**
+     * The next record, or null at end of file. See the class javadoc
+     * for the value shapes per format.
+     */
+    public Map<String, Object> next() throws IOException {
+        return format == Format.CSV ? nextCsv() : nextNdjson();
+    }
+
+    /** Bytes consumed from the file so far (buffering makes it run slightly ahead). */
+    public long bytesRead() {
+        return counting.count;
+    }
+
+    /** Progress through the file, 0..1; 0 when the size is unknown. */
+    public double fraction() {
+        return totalBytes <= 0 ? 0 : Math.min(1.0, (double) counting.count / totalBytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    // ---- CSV ------------------------------------------------------------
+
+    private Map<String, Object> nextCsv() throws IOException {
+        int recordLine = line;
+        List<String> values = csvRecord();
+        if (values == null) {
+            return null;
+        }
+        if (values.size() > header.size()) {
+            throw new IOException("Line " + recordLine + ": " + values.size()
+                    + " fields, but the header has " + header.size());
+        }
+        Map<String, Object> record = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            record.put(header.get(i), i < values.size() ? values.get(i) : null);
+        }
+        return record;
+    }
+
+    /**
+     * One RFC 4180 record, or null at EOF. A record that is a lone empty
+     * line is skipped (trailing newlines are not rows). Both CRLF and
+     * bare LF end a record; CR/LF inside quotes belong to the field.
+     */
+    private List<String> csvRecord() throws IOException {
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                return null;
+            }
+            if (c == '\n') {
+                line++;
+                continue; // blank line
+            }
+            if (c == '\r') {
+                continue;
+            }
+            unread(c);
+            break;
+        }
+        int startLine = line;
+        List<String> values = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Line " + startLine + ": unterminated quoted field");
+                }
+                if (c == '"') {
+                    int peek = read();
+                    if (peek == '"') {
+                        append('"', startLine);
+                    } else {
+                        quoted = false;
+                        unread(peek);
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    append((char) c, startLine);
+                }
+                continue;
+            }
+            if (c == '"' && field.length() == 0 && !wasQuoted) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                addField(values, startLine);
+                wasQuoted = false;
+            } else if (c == '\r') {
+                int peek = read();
+                if (peek != '\n') {
+                    unread(peek);
+                }
+                line++;
+                addField(values, startLine);
+                return values;
+            } else if (c == '\n' || c < 0) {
+                if (c == '\n') {
+                    line++;
+                }
+                addField(values, startLine);
+                return values;
+            } else {
+                append((char) c, startLine);
+            }
+        }
+    }
+
+    private void append(char c, int recordLine) throws IOException {
+        if (field.length() >= MAX_FIELD_CHARS) {
+            throw new IOException("Line " + recordLine + ": a field exceeds "
+                    + (MAX_FIELD_CHARS / 1024) + " KB — is this really a CSV file?");
+        }
+        field.append(c);
+    }
+
+    private void addField(List<String> values, int recordLine) throws IOException {
+        if (values.size() >= MAX_FIELDS) {
+            throw new IOException("Line " + recordLine + ": more than " + MAX_FIELDS + " fields");
+        }
+        values.add(field.toString());
+        field.setLength(0);
+    }
+
+    // ---- NDJSON ---------------------------------------------------------
+
+    private Map<String, Object> nextNdjson() throws IOException {
+        while (true) {
+            int recordLine = line;
+            String text = ndjsonLine();
+            if (text == null) {
+                return null;
+            }
+            String trimmed = text.strip();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            if (trimmed.startsWith("[")) {
+                throw new IOException("Line " + recordLine + ": a JSON array is not streamable"
+                        + " — import newline-delimited JSON (one object per line)");
+            }
+            JSONObject object;
+            try {
+                object = new JSONObject(trimmed);
+            } catch (JSONException e) {
+                throw new IOException("Line " + recordLine + ": not a JSON object — "
+                        + e.getMessage(), e);
+            }
+            Map<String, Object> record = new LinkedHashMap<>();
+            for (String key : object.keySet()) {
+                Object value = object.get(key);
+                record.put(key, value == JSONObject.NULL ? null : value);
+            }
+            return record;
+        }
+    }
+
+    private String ndjsonLine() throws IOException {
+        field.setLength(0);
+        int c = read();
+        if (c < 0) {
+            return null;
+        }
+        while (c >= 0 && c != '\n') {
+            if (field.length() >= MAX_LINE_CHARS) {
+                throw new IOException("Line " + line + ": longer than "
+                        + (MAX_LINE_CHARS / (1024 * 1024)) + " MB");
+            }
+            field.append((char) c);
+            c = read();
+        }
+        line++;
+        return field.toString();
+    }
+
+    // ---- plumbing -------------------------------------------------------
+
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pushback = c;
+    }
+
+    private void skipBom() throws IOException {
+        int c = read();
+        if (c != '\uFEFF') {
+            unread(c);
+        }
+    }
+
+    /** Counts raw bytes so progress reflects the file, not decoded chars. */
+    private static final class CountingStream extends FilterInputStream {
+
+        private volatile long count;
+
+        CountingStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+}
@@ -69,6 +69,15 @@ final class JdbcCore {
                 }
             }
         }
+
+        /**
+         * Parks {@code statement} as the in-flight one ({@code null}
+         * clears) — for executors outside this class, such as
+         * {@link BulkImport}'s chunked INSERTs.
+         */
+        void park(Statement statement) {
+            inFlight = statement;
+        }
     }
 
     /**
@@ -2,6 +2,7 @@ package org.nmox.studio.dbstudio.engine;
 
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
@@ -9,6 +10,7 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.bson.BsonRegularExpression;
@@ -61,6 +63,8 @@ public final class MongoBackend implements DbBackend {
     private final char[] password;
 
     private MongoClient client; // guarded by this
+    /** Set by {@link #cancelImport()}; checked between import chunks. */
+    private volatile boolean importCancelled;
 
     /**
      * @param spec     the connection to speak to; must be a
@@ -230,6 +234,49 @@ public final class MongoBackend implements DbBackend {
         return results;
     }
 
+    /**
+     * Streams {@code source} into the collection in
+     * {@link BulkImport#CHUNK_ROWS}-document {@code insertMany} calls.
+     * NDJSON lines become documents through {@code Document.parse}, so
+     * Extended JSON ({@code {"$oid": ...}}, {@code {"$date": ...}})
+     * round-trips; CSV cells are typed by the collection's shape sample
+     * (see {@link #toDocument}). MongoDB has no transaction to roll back
+     * here: on failure the report counts the chunks already inserted.
+     * {@link #cancelImport()} stops between chunks.
+     */
+    @Override
+    public synchronized BulkImport.Report importRows(TableInfo container, ImportReader source,
+            Consumer<BulkImport.Progress> progress) {
+        long start = System.nanoTime();
+        importCancelled = false;
+        String openError = open();
+        if (openError != null) {
+            return new BulkImport.Report(0, 0, "Could not open connection: " + openError);
+        }
+        long written = 0;
+        try {
+            MongoCollection<Document> collection = client.getDatabase(spec.database())
+                    .getCollection(container.name());
+            List<ColumnInfo> shape = shapeSample(collection.find().first());
+            List<Map<String, Object>> chunk = new ArrayList<>(BulkImport.CHUNK_ROWS);
+            List<Document> docs = new ArrayList<>(BulkImport.CHUNK_ROWS);
+            while (!importCancelled && BulkImport.fill(source, chunk, BulkImport.CHUNK_ROWS)) {
+                docs.clear();
+                for (Map<String, Object> record : chunk) {
+                    docs.add(toDocument(record, source.format(), shape));
+                }
+                collection.insertMany(docs);
+                written += docs.size();
+                progress.accept(BulkImport.progress(written, source, start));
+            }
+            return new BulkImport.Report(written, BulkImport.elapsedMs(start),
+                    importCancelled ? "Cancelled after " + written + " documents" : null);
+        } catch (java.io.IOException | RuntimeException e) {
+            return new BulkImport.Report(written, BulkImport.elapsedMs(start),
+                    humanize(e) + " (" + written + " documents were inserted)");
+        }
+    }
+
     /**
      * Best-effort no-op: the sync driver offers no per-operation
      * cancellation handle, and a server-side {@code killOp} hunt is out
@@ -242,6 +289,12 @@ public final class MongoBackend implements DbBackend {
         // deliberately empty — see javadoc
     }
 
+    /** Stops an {@link #importRows} before its next chunk. */
+    @Override
+    public void cancelImport() {
+        importCancelled = true;
+    }
+
     // ---- internals (static seams, testable without a server) -------
 
     /**
@@ -329,6 +382,49 @@ public final class MongoBackend implements DbBackend {
         return value.getClass().getSimpleName();
     }
 
+    /**
+     * One import record as a document. NDJSON records parse as Extended
+     * JSON; CSV cells convert by the shape sample's BSON type for that
+     * field ({@code int}, {@code long}, {@code double}, {@code bool}) and
+     * stay strings otherwise — or when they don't parse as that type,
+     * since a collection has no schema to violate. Empty CSV cells and
+     * the literal {@code NULL} become BSON null.
+     */
+    static Document toDocument(Map<String, Object> record, ImportReader.Format format,
+            List<ColumnInfo> shape) {
+        if (format == ImportReader.Format.NDJSON) {
+            return Document.parse(BulkImport.toJsonObject(record).toString());
+        }
+        Map<String, String> types = new java.util.HashMap<>();
+        for (ColumnInfo column : shape) {
+            types.put(column.name(), column.typeName());
+        }
+        Document doc = new Document();
+        for (Map.Entry<String, Object> field : record.entrySet()) {
+            String text = field.getValue() == null ? null : field.getValue().toString();
+            doc.append(field.getKey(), csvValue(text, types.get(field.getKey())));
+        }
+        return doc;
+    }
+
+    private static Object csvValue(String text, String bsonType) {
+        if (text == null || text.isEmpty() || "NULL".equals(text)) {
+            return null;
+        }
+        try {
+            return switch (bsonType == null ? "" : bsonType) {
+                case "int" -> Integer.valueOf(text.trim());
+                case "long" -> Long.valueOf(text.trim());
+                case "double" -> Double.valueOf(text.trim());
+                case "bool" -> "true".equalsIgnoreCase(text.trim()) ? Boolean.TRUE
+                        : "false".equalsIgnoreCase(text.trim()) ? Boolean.FALSE : text;
+                default -> text;
+            };
+        } catch (NumberFormatException notThatType) {
+            return text;
+        }
+    }
+
     /**
      * Maps a {@code runCommand} reply to a result: a reply carrying
      * {@code cursor.firstBatch} flattens those documents (capped at
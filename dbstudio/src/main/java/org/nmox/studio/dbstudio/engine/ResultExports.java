@@ -1,16 +1,22 @@
 package org.nmox.studio.dbstudio.engine;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import org.json.JSONArray;
 import org.json.JSONObject;
 
 /**
- * Pure result-grid exporters — the strings behind "Export as CSV /
- * JSON". The UI owns the file dialog and the disk write; these methods
+ * Pure result-grid exporters — the bytes behind "Export as CSV /
+ * JSON". The UI owns the file dialog and opens the file; these methods
  * own the format, so every escaping rule is pinned by tests instead of
- * discovered by a spreadsheet.
+ * discovered by a spreadsheet. The {@code write*} forms stream row by
+ * row into a {@link Writer} (the export never materializes a second
+ * copy of the grid as one giant String); {@code toCsv}/{@code toJson}
+ * are the same bytes collected in memory.
  *
  * <p>Cells arrive already stringified by the backend (see
  * {@link QueryResult#rows} — JDBC NULL becomes the string
@@ -31,14 +37,28 @@ public final class ResultExports {
      * an empty field.
      */
     public static String toCsv(QueryResult result) {
-        StringBuilder csv = new StringBuilder();
-        appendCsvRow(csv, result.columnNames(), result.columnNames().size());
-        for (List<String> row : result.rows()) {
-            appendCsvRow(csv, row, result.columnNames().size());
+        StringWriter csv = new StringWriter();
+        try {
+            writeCsv(result, csv);
+        } catch (IOException impossible) {
+            throw new UncheckedIOException(impossible); // StringWriter never throws
         }
         return csv.toString();
     }
 
+    /** {@link #toCsv}'s bytes, streamed one record at a time into {@code out}. */
+    public static void writeCsv(QueryResult result, Writer out) throws IOException {
+        int width = result.columnNames().size();
+        StringBuilder record = new StringBuilder();
+        appendCsvRow(record, result.columnNames(), width);
+        out.write(record.toString());
+        for (List<String> row : result.rows()) {
+            record.setLength(0);
+            appendCsvRow(record, row, width);
+            out.write(record.toString());
+        }
+    }
+
     /**
      * A JSON array of one object per row, keyed by {@code columnNames};
      * duplicate column names get {@code _2}, {@code _3}, … suffixes so
@@ -47,17 +67,36 @@ public final class ResultExports {
      * {@code null}. Pretty-printed (2-space indent).
      */
     public static String toJson(QueryResult result) {
+        StringWriter json = new StringWriter();
+        try {
+            writeJson(result, json);
+        } catch (IOException impossible) {
+            throw new UncheckedIOException(impossible); // StringWriter never throws
+        }
+        return json.toString();
+    }
+
+    /**
+     * {@link #toJson}'s bytes, streamed one row object at a time into
+     * {@code out} — the exact layout {@code JSONArray.toString(2)}
+     * produces (including its single-element special case), without
+     * building the array first.
+     */
+    public static void writeJson(QueryResult result, Writer out) throws IOException {
         List<String> keys = uniqueKeys(result.columnNames());
-        JSONArray array = new JSONArray();
-        for (List<String> row : result.rows()) {
-            JSONObject object = new JSONObject();
-            for (int i = 0; i < keys.size(); i++) {
-                String cell = i < row.size() ? row.get(i) : null;
-                object.put(keys.get(i), cell == null ? JSONObject.NULL : cell);
+        List<List<String>> rows = result.rows();
+        out.write('[');
+        boolean single = rows.size() == 1;
+        for (int r = 0; r < rows.size(); r++) {
+            if (!single) {
+                out.write(r == 0 ? "\n  " : ",\n  ");
             }
-            array.put(object);
+            rowObject(keys, rows.get(r)).write(out, 2, single ? 0 : 2);
+        }
+        if (rows.size() > 1) {
+            out.write('\n');
         }
-        return array.toString(2);
+        out.write(']');
     }
 
     /**
@@ -75,6 +114,15 @@ public final class ResultExports {
                 .orElse("results");
     }
 
+    private static JSONObject rowObject(List<String> keys, List<String> row) {
+        JSONObject object = new JSONObject();
+        for (int i = 0; i < keys.size(); i++) {
+            String cell = i < row.size() ? row.get(i) : null;
+            object.put(keys.get(i), cell == null ? JSONObject.NULL : cell);
+        }
+        return object;
+    }
+
     /** Column names disambiguated: the second {@code id} becomes {@code id_2}. */
     static List<String> uniqueKeys(List<String> names) {
         Set<String> used = new LinkedHashSet<>();
@@ -0,0 +1,450 @@
+package org.nmox.studio.dbstudio.engine;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.nmox.studio.dbstudio.model.ColumnInfo;
+import org.nmox.studio.dbstudio.model.DbEngine;
+import org.nmox.studio.dbstudio.model.TableInfo;
+
+/**
+ * One connection's schema — every table and view with its columns and
+ * primary key — fetched in ONE bulk round trip and served from memory
+ * afterwards. Before it, every tree expansion paid
+ * {@code getPrimaryKeys} + {@code getColumns} (two round trips per
+ * table), which against a remote PostgreSQL with hundreds of tables was
+ * the slowest thing in DB Studio.
+ *
+ * <p>{@link #fetch} speaks each engine's own catalog:
+ * <ul>
+ *   <li><b>PostgreSQL, MySQL, MariaDB:</b> {@code information_schema}
+ *       tables ⟕ columns ⟕ primary-key usage, one query.</li>
+ *   <li><b>SQLite:</b> {@code sqlite_master} joined with the
+ *       {@code pragma_table_info} table-valued function, one query.</li>
+ *   <li><b>Anything else</b> (a Services connection to Derby, Oracle,
+ *       …): {@code DatabaseMetaData} — one {@code getTables}, one
+ *       all-tables {@code getColumns}, then {@code getPrimaryKeys} per
+ *       table (the one call JDBC offers no bulk form of).</li>
+ * </ul>
+ * Every path produces the same {@link TableInfo}/{@link ColumnInfo}
+ * shapes {@link JdbcCore#listTables}/{@link JdbcCore#columns} report —
+ * catalog vs schema placement, {@code "TABLE"}/{@code "VIEW"} types,
+ * the driver's type-name spelling — so the tree, Quick Search and
+ * {@link EditGate} cannot tell a cached answer from a live one.
+ *
+ * <p>Immutable and thread-safe; a refresh builds a new catalog. The
+ * JSON form ({@link #toJson}/{@link #fromJson}) is what
+ * {@code io.CatalogStore} persists between sessions.
+ */
+public final class SchemaCatalog {
+
+    private static final Logger LOG = Logger.getLogger(SchemaCatalog.class.getName());
+
+    /** JSON format version; a different version on disk is ignored. */
+    static final int FORMAT_VERSION = 1;
+
+    /** JDBC's getTables order: type, catalog, schema, name. */
+    private static final Comparator<TableInfo> JDBC_ORDER = Comparator
+            .comparing(TableInfo::type)
+            .thenComparing(TableInfo::catalog)
+            .thenComparing(TableInfo::schema)
+            .thenComparing(TableInfo::name);
+
+    private final Map<TableInfo, List<ColumnInfo>> columnsByTable;
+    private final long fetchedAtMs;
+
+    /**
+     * @param columnsByTable every table with its columns in ordinal
+     *                       order; tables are re-sorted into JDBC order
+     * @param fetchedAtMs    when the catalog was read from the server
+     */
+    public SchemaCatalog(Map<TableInfo, List<ColumnInfo>> columnsByTable, long fetchedAtMs) {
+        Map<TableInfo, List<ColumnInfo>> sorted = new LinkedHashMap<>();
+        columnsByTable.keySet().stream().sorted(JDBC_ORDER)
+                .forEach(t -> sorted.put(t, List.copyOf(columnsByTable.get(t))));
+        this.columnsByTable = sorted;
+        this.fetchedAtMs = fetchedAtMs;
+    }
+
+    /** Tables and views, in JDBC order. */
+    public List<TableInfo> tables() {
+        return List.copyOf(columnsByTable.keySet());
+    }
+
+    /**
+     * The columns of {@code table}, or null when the catalog does not
+     * know it. An exact match wins; otherwise a key with blank catalog
+     * and schema (what {@link EditGate} synthesizes for an unqualified
+     * name) matches a unique same-named table, case-insensitively.
+     */
+    public List<ColumnInfo> columns(TableInfo table) {
+        if (table == null) {
+            return null;
+        }
+        List<ColumnInfo> exact = columnsByTable.get(table);
+        if (exact != null) {
+            return exact;
+        }
+        List<ColumnInfo> found = null;
+        for (Map.Entry<TableInfo, List<ColumnInfo>> entry : columnsByTable.entrySet()) {
+            TableInfo known = entry.getKey();
+            if (known.name().equalsIgnoreCase(table.name())
+                    && wildcardOrEqual(table.catalog(), known.catalog())
+                    && wildcardOrEqual(table.schema(), known.schema())) {
+                if (found != null) {
+                    return null; // ambiguous: let the live lookup decide
+                }
+                found = entry.getValue();
+            }
+        }
+        return found;
+    }
+
+    /** When the catalog was read from the server (epoch ms). */
+    public long fetchedAtMs() {
+        return fetchedAtMs;
+    }
+
+    /** Same tables, same columns — the fetch time is not compared. */
+    public boolean sameSchemaAs(SchemaCatalog other) {
+        return other != null && columnsByTable.equals(other.columnsByTable);
+    }
+
+    /**
+     * Whether a successfully executed {@code statement} may have changed
+     * the schema — it starts (after comments) with {@code CREATE},
+     * {@code ALTER}, {@code DROP} or {@code RENAME}. A cheap, generous
+     * test: a false positive costs one background refresh.
+     */
+    public static boolean changesSchema(String statement) {
+        String word = ExplainQueries.firstWord(statement == null ? "" : statement)
+                .toUpperCase(Locale.ROOT);
+        return switch (word) {
+            case "CREATE", "ALTER", "DROP", "RENAME" -> true;
+            default -> false;
+        };
+    }
+
+    // ---- JSON -------------------------------------------------------
+
+    /** The persisted form. */
+    public String toJson() {
+        JSONArray tables = new JSONArray();
+        for (Map.Entry<TableInfo, List<ColumnInfo>> entry : columnsByTable.entrySet()) {
+            TableInfo table = entry.getKey();
+            JSONArray columns = new JSONArray();
+            for (ColumnInfo column : entry.getValue()) {
+                columns.put(new JSONObject()
+                        .put("name", column.name())
+                        .put("type", column.typeName())
+                        .put("size", column.size())
+                        .put("nullable", column.nullable())
+                        .put("pk", column.primaryKey()));
+            }
+            tables.put(new JSONObject()
+                    .put("catalog", table.catalog())
+                    .put("schema", table.schema())
+                    .put("name", table.name())
+                    .put("type", table.type())
+                    .put("columns", columns));
+        }
+        return new JSONObject()
+                .put("version", FORMAT_VERSION)
+                .put("fetchedAt", fetchedAtMs)
+                .put("tables", tables)
+                .toString();
+    }
+
+    /**
+     * Parses {@link #toJson} output; null for anything malformed or of
+     * another format version — a cache miss, never an error.
+     */
+    public static SchemaCatalog fromJson(String json) {
+        if (json == null || json.isBlank()) {
+            return null;
+        }
+        try {
+            JSONObject root = new JSONObject(json);
+            if (root.optInt("version") != FORMAT_VERSION) {
+                return null;
+            }
+            Map<TableInfo, List<ColumnInfo>> columnsByTable = new LinkedHashMap<>();
+            JSONArray tables = root.getJSONArray("tables");
+            for (int i = 0; i < tables.length(); i++) {
+                JSONObject t = tables.getJSONObject(i);
+                List<ColumnInfo> columns = new ArrayList<>();
+                JSONArray cs = t.getJSONArray("columns");
+                for (int j = 0; j < cs.length(); j++) {
+                    JSONObject c = cs.getJSONObject(j);
+                    columns.add(new ColumnInfo(c.getString("name"), c.getString("type"),
+                            c.optInt("size"), c.optBoolean("nullable", true),
+                            c.optBoolean("pk")));
+                }
+                columnsByTable.put(new TableInfo(t.optString("catalog"), t.optString("schema"),
+                        t.getString("name"), t.getString("type")), columns);
+            }
+            return new SchemaCatalog(columnsByTable, root.optLong("fetchedAt"));
+        } catch (RuntimeException malformed) {
+            LOG.log(Level.FINE, "unreadable schema catalog: {0}", malformed.getMessage());
+            return null;
+        }
+    }
+
+    // ---- the bulk fetch -------------------------------------------
+
+    private static final String POSTGRES_SQL = """
+            SELECT t.table_schema, t.table_name, t.table_type, c.column_name, c.udt_name,
+                   COALESCE(c.character_maximum_length, c.numeric_precision,
+                            c.datetime_precision, 0),
+                   c.is_nullable, CASE WHEN k.column_name IS NULL THEN 0 ELSE 1 END
+              FROM information_schema.tables t
+              LEFT JOIN information_schema.columns c
+                ON c.table_schema = t.table_schema AND c.table_name = t.table_name
+              LEFT JOIN (SELECT u.table_schema, u.table_name, u.column_name
+                           FROM information_schema.table_constraints tc
+                           JOIN information_schema.key_column_usage u
+                             ON u.constraint_schema = tc.constraint_schema
+                            AND u.constraint_name = tc.constraint_name
+                            AND u.table_name = tc.table_name
+                          WHERE tc.constraint_type = 'PRIMARY KEY') k
+                ON k.table_schema = c.table_schema AND k.table_name = c.table_name
+               AND k.column_name = c.column_name
+             WHERE t.table_type IN ('BASE TABLE', 'VIEW')
+               AND t.table_schema NOT IN ('pg_catalog', 'information_schema')
+               AND t.table_schema NOT LIKE 'pg\\_toast%'
+             ORDER BY t.table_schema, t.table_name, c.ordinal_position
+            """;
+
+    private static final String MYSQL_SQL = """
+            SELECT t.table_schema, t.table_name, t.table_type, c.column_name,
+                   UPPER(c.data_type), c.column_type,
+                   COALESCE(c.character_maximum_length, c.numeric_precision,
+                            c.datetime_precision, 0),
+                   c.is_nullable, CASE WHEN c.column_key = 'PRI' THEN 1 ELSE 0 END
+              FROM information_schema.tables t
+              LEFT JOIN information_schema.columns c
+                ON c.table_schema = t.table_schema AND c.table_name = t.table_name
+             WHERE t.table_type IN ('BASE TABLE', 'VIEW')
+               AND (t.table_schema = ? OR (? IS NULL AND t.table_schema NOT IN
+                    ('mysql', 'information_schema', 'performance_schema', 'sys')))
+             ORDER BY t.table_schema, t.table_name, c.ordinal_position
+            """;
+
+    private static final String SQLITE_SQL = """
+            SELECT m.name, m.type, p.name, p.type, p."notnull", p.pk
+              FROM sqlite_master m
+              LEFT JOIN pragma_table_info(m.name) p
+             WHERE m.type IN ('table', 'view') AND m.name NOT LIKE 'sqlite\\_%' ESCAPE '\\'
+             ORDER BY m.name, p.cid
+            """;
+
+    /**
+     * Reads the whole catalog over {@code connection} in the engine's
+     * bulk form ({@code engine} null means "unknown": the metadata
+     * path). {@code scopeCatalog} narrows MySQL/MariaDB to one database
+     * and the metadata path to one catalog; null means all. Returns null
+     * on failure and logs a WARNING carrying {@code connectionName} —
+     * callers fall back to per-table lookups.
+     */
+    static SchemaCatalog fetch(Connection connection, DbEngine engine, String scopeCatalog,
+            String connectionName) {
+        long now = System.currentTimeMillis();
+        try {
+            Map<TableInfo, List<ColumnInfo>> columnsByTable = engine == null
+                    ? viaMetadata(connection, scopeCatalog)
+                    : switch (engine) {
+                        case POSTGRES -> viaPostgres(connection);
+                        case MYSQL, MARIADB -> viaMysql(connection, scopeCatalog);
+                        case SQLITE -> viaSqlite(connection);
+                        case MONGODB, COUCHDB -> throw new IllegalArgumentException(
+                                engine.displayName() + " has no SQL catalog");
+                    };
+            return new SchemaCatalog(columnsByTable, now);
+        } catch (SQLException e) {
+            LOG.log(Level.WARNING, "schema catalog fetch failed for " + connectionName, e);
+            return null;
+        }
+    }
+
+    private static Map<TableInfo, List<ColumnInfo>> viaPostgres(Connection connection)
+            throws SQLException {
+        Map<TableInfo, List<ColumnInfo>> out = new LinkedHashMap<>();
+        try (PreparedStatement st = connection.prepareStatement(POSTGRES_SQL);
+             ResultSet rs = st.executeQuery()) {
+            while (rs.next()) {
+                TableInfo table = new TableInfo("", nz(rs.getString(1)), nz(rs.getString(2)),
+                        tableType(rs.getString(3)));
+                List<ColumnInfo> columns = out.computeIfAbsent(table, k -> new ArrayList<>());
+                String column = rs.getString(4);
+                if (column != null) {
+                    columns.add(new ColumnInfo(column, nz(rs.getString(5)), clampedInt(rs, 6),
+                            !"NO".equalsIgnoreCase(rs.getString(7)), rs.getInt(8) == 1));
+                }
+            }
+        }
+        return out;
+    }
+
+    private static Map<TableInfo, List<ColumnInfo>> viaMysql(Connection connection,
+            String database) throws SQLException {
+        Map<TableInfo, List<ColumnInfo>> out = new LinkedHashMap<>();
+        try (PreparedStatement st = connection.prepareStatement(MYSQL_SQL)) {
+            st.setString(1, database);
+            st.setString(2, database);
+            try (ResultSet rs = st.executeQuery()) {
+                while (rs.next()) {
+                    TableInfo table = new TableInfo(nz(rs.getString(1)), "",
+                            nz(rs.getString(2)), tableType(rs.getString(3)));
+                    List<ColumnInfo> columns = out.computeIfAbsent(table, k -> new ArrayList<>());
+                    String column = rs.getString(4);
+                    if (column != null) {
+                        String columnType = nz(rs.getString(6)).toLowerCase(Locale.ROOT);
+                        String type = nz(rs.getString(5))
+                                + (columnType.contains("unsigned") ? " UNSIGNED" : "");
+                        columns.add(new ColumnInfo(column, type, clampedInt(rs, 7),
+                                !"NO".equalsIgnoreCase(rs.getString(8)), rs.getInt(9) == 1));
+                    }
+                }
+            }
+        }
+        return out;
+    }
+
+    private static Map<TableInfo, List<ColumnInfo>> viaSqlite(Connection connection)
+            throws SQLException {
+        Map<TableInfo, List<ColumnInfo>> out = new LinkedHashMap<>();
+        try (PreparedStatement st = connection.prepareStatement(SQLITE_SQL);
+             ResultSet rs = st.executeQuery()) {
+            while (rs.next()) {
+                TableInfo table = new TableInfo("", "", nz(rs.getString(1)),
+                        nz(rs.getString(2)).toUpperCase(Locale.ROOT));
+                List<ColumnInfo> columns = out.computeIfAbsent(table, k -> new ArrayList<>());
+                String column = rs.getString(3);
+                if (column != null) {
+                    String declared = nz(rs.getString(4));
+                    columns.add(new ColumnInfo(column, sqliteTypeName(declared),
+                            sqliteSize(declared), rs.getInt(5) == 0, rs.getInt(6) > 0));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * The portable path: two bulk metadata calls plus one
+     * {@code getPrimaryKeys} per table. Still N+2 round trips instead of
+     * 2N+1, and only for engines DB Studio does not model.
+     */
+    private static Map<TableInfo, List<ColumnInfo>> viaMetadata(Connection connection,
+            String catalog) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        Map<TableInfo, List<ColumnInfo>> out = new LinkedHashMap<>();
+        Map<String, TableInfo> byKey = new HashMap<>();
+        try (ResultSet rs = meta.getTables(catalog, null, null, new String[]{"TABLE", "VIEW"})) {
+            while (rs.next()) {
+                TableInfo table = new TableInfo(nz(rs.getString("TABLE_CAT")),
+                        nz(rs.getString("TABLE_SCHEM")), nz(rs.getString("TABLE_NAME")),
+                        nz(rs.getString("TABLE_TYPE")));
+                out.put(table, new ArrayList<>());
+                byKey.put(key(table.catalog(), table.schema(), table.name()), table);
+            }
+        }
+        Map<TableInfo, Set<String>> pks = new HashMap<>();
+        for (TableInfo table : out.keySet()) {
+            Set<String> names = new HashSet<>();
+            try (ResultSet rs = meta.getPrimaryKeys(JdbcCore.blankToNull(table.catalog()),
+                    JdbcCore.blankToNull(table.schema()), table.name())) {
+                while (rs.next()) {
+                    names.add(rs.getString("COLUMN_NAME"));
+                }
+            }
+            pks.put(table, names);
+        }
+        try (ResultSet rs = meta.getColumns(catalog, null, null, null)) {
+            while (rs.next()) {
+                TableInfo table = byKey.get(key(nz(rs.getString("TABLE_CAT")),
+                        nz(rs.getString("TABLE_SCHEM")), nz(rs.getString("TABLE_NAME"))));
+                if (table == null) {
+                    continue; // a system table or another type we don't list
+                }
+                String name = nz(rs.getString("COLUMN_NAME"));
+                out.get(table).add(new ColumnInfo(name, nz(rs.getString("TYPE_NAME")),
+                        rs.getInt("COLUMN_SIZE"),
+                        rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls,
+                        pks.get(table).contains(name)));
+            }
+        }
+        return out;
+    }
+
+    // ---- shapes -----------------------------------------------------
+
+    /** information_schema's {@code BASE TABLE} is JDBC's {@code TABLE}. */
+    private static String tableType(String infoSchemaType) {
+        return "VIEW".equalsIgnoreCase(infoSchemaType) ? "VIEW" : "TABLE";
+    }
+
+    /**
+     * sqlite-jdbc's {@code TYPE_NAME}: the declared type up to any
+     * {@code (}, upper-cased; an undeclared column reads {@code ""}.
+     */
+    static String sqliteTypeName(String declared) {
+        int paren = declared.indexOf('(');
+        return (paren < 0 ? declared : declared.substring(0, paren)).strip()
+                .toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * sqlite-jdbc's {@code COLUMN_SIZE}: the declared length — precision
+     * plus scale for {@code (p,s)} — else 2000000000.
+     */
+    static int sqliteSize(String declared) {
+        int open = declared.indexOf('(');
+        int close = declared.indexOf(')', open + 1);
+        if (open < 0 || close < 0) {
+            return 2_000_000_000;
+        }
+        int size = 0;
+        for (String part : declared.substring(open + 1, close).split(",")) {
+            try {
+                size += Integer.parseInt(part.strip());
+            } catch (NumberFormatException e) {
+                return 2_000_000_000;
+            }
+        }
+        return size;
+    }
+
+    private static int clampedInt(ResultSet rs, int column) throws SQLException {
+        long value = rs.getLong(column);
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, value));
+    }
+
+    private static boolean wildcardOrEqual(String wanted, String actual) {
+        return wanted == null || wanted.isEmpty() || wanted.equalsIgnoreCase(actual);
+    }
+
+    private static String key(String catalog, String schema, String name) {
+        return catalog + '\u0000' + schema + '\u0000' + name;
+    }
+
+    private static String nz(String s) {
+        return Objects.requireNonNullElse(s, "");
+    }
+}
@@ -5,6 +5,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.netbeans.api.db.explorer.ConnectionManager;
@@ -51,6 +52,7 @@ public final class ServicesBackend implements DbBackend {
     private final DatabaseConnection connection;
     private final ConnectionSpec spec;
     private final JdbcCore.CancelHook cancelHook = new JdbcCore.CancelHook();
+    private final JdbcCore.CancelHook importHook = new JdbcCore.CancelHook();
 
     public ServicesBackend(DatabaseConnection connection) {
         this.connection = Objects.requireNonNull(connection, "connection");
@@ -211,6 +213,30 @@ public final class ServicesBackend implements DbBackend {
                 statements, rowLimit, cancelHook);
     }
 
+    /**
+     * Imports through the shared connection with the same
+     * {@link BulkImport} path as {@link DbClient#importRows} — one
+     * transaction, rolled back whole on failure. The connection's
+     * auto-commit mode is restored afterwards, so the rest of the IDE
+     * never notices.
+     */
+    @Override
+    public synchronized BulkImport.Report importRows(TableInfo container, ImportReader source,
+            Consumer<BulkImport.Progress> progress) {
+        String openError = open();
+        if (openError != null) {
+            return new BulkImport.Report(0, 0, "Could not open connection: " + openError);
+        }
+        Connection jdbc = connection.getJDBCConnection();
+        List<ColumnInfo> columns = JdbcCore.columns(jdbc, container);
+        if (columns.isEmpty()) {
+            return new BulkImport.Report(0, 0, "Could not read the columns of "
+                    + container.name());
+        }
+        return BulkImport.insertJdbc(jdbc, spec.engine(), container, columns, source,
+                progress, importHook);
+    }
+
     /**
      * Cancels the statement currently executing inside
      * {@link #runConsole}, if any; a no-op otherwise. NOT synchronized,
@@ -222,6 +248,12 @@ public final class ServicesBackend implements DbBackend {
         cancelHook.cancel();
     }
 
+    /** Cancels the {@link #importRows} chunk in flight (rolling it back), if any. */
+    @Override
+    public void cancelImport() {
+        importHook.cancel();
+    }
+
     /**
      * Always {@link DbEngine.Kind#SQL}: a Services connection is JDBC
      * by definition, even when {@link ConnectionSpec#engine()} is null
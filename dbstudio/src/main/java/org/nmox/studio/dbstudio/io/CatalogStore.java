@@ -0,0 +1,139 @@
+package org.nmox.studio.dbstudio.io;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.json.JSONObject;
+import org.nmox.studio.dbstudio.engine.SchemaCatalog;
+import org.nmox.studio.dbstudio.model.ConnectionSpec;
+import org.nmox.studio.dbstudio.model.TableInfo;
+
+/**
+ * Persists each connection's {@link SchemaCatalog} between sessions, so
+ * a reopened DB Studio paints the schema tree — and Quick Search finds
+ * tables of connections not yet connected — before the first round
+ * trip. One JSON file per spec under
+ * {@code <userdir>/var/nmox/dbstudio/catalogs/}, next to the rack's own
+ * {@code var/nmox} state; never in the project directory (schema
+ * names are not something to commit by accident).
+ *
+ * <p>A stored catalog is a HINT: the studio shows it at once and
+ * refreshes in the background on connect. Each file records the spec
+ * id and the spec's target (engine, host, port, database, file, user);
+ * a file whose target no longer matches — the connection was edited to
+ * point elsewhere — is a miss, never a wrong schema.
+ *
+ * <p>Never throws: I/O and parse failures log at FINE and read as
+ * "no catalog". Writes are atomic ({@code AtomicFiles}), so a crash
+ * mid-save leaves the previous version. Outside the platform (no
+ * {@code netbeans.user}, plain unit tests) {@link #userDefault()} is a
+ * no-op store.
+ */
+public final class CatalogStore {
+
+    private static final Logger LOG = Logger.getLogger(CatalogStore.class.getName());
+
+    private final Path dir;
+
+    /** @param dir where the files live; null makes every call a no-op */
+    public CatalogStore(Path dir) {
+        this.dir = dir;
+    }
+
+    /** The store under the NetBeans user directory, or a no-op one outside the platform. */
+    public static CatalogStore userDefault() {
+        String userdir = System.getProperty("netbeans.user");
+        return new CatalogStore(userdir == null ? null
+                : Path.of(userdir, "var", "nmox", "dbstudio", "catalogs"));
+    }
+
+    /** The stored catalog for {@code spec}, or null (missing, stale target, unreadable). */
+    public SchemaCatalog load(ConnectionSpec spec) {
+        Path file = fileFor(spec);
+        if (file == null || !Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            JSONObject root = new JSONObject(Files.readString(file, StandardCharsets.UTF_8));
+            if (!spec.id().equals(root.optString("specId"))
+                    || !target(spec).equals(root.optString("target"))) {
+                return null; // a hash collision, or the connection now points elsewhere
+            }
+            JSONObject catalog = root.optJSONObject("catalog");
+            return catalog == null ? null : SchemaCatalog.fromJson(catalog.toString());
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.FINE, "unreadable catalog " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * The stored tables of every spec that has a usable catalog — what
+     * Quick Search shows for connections not connected this session.
+     */
+    public Map<String, List<TableInfo>> tablesFor(List<ConnectionSpec> specs) {
+        Map<String, List<TableInfo>> tables = new LinkedHashMap<>();
+        for (ConnectionSpec spec : specs) {
+            SchemaCatalog catalog = load(spec);
+            if (catalog != null) {
+                tables.put(spec.id(), catalog.tables());
+            }
+        }
+        return tables;
+    }
+
+    /** Stores {@code catalog} for {@code spec}; null catalogs are ignored. */
+    public void save(ConnectionSpec spec, SchemaCatalog catalog) {
+        Path file = fileFor(spec);
+        if (file == null || catalog == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.getParent());
+            String json = new JSONObject()
+                    .put("specId", spec.id())
+                    .put("target", target(spec))
+                    .put("catalog", new JSONObject(catalog.toJson()))
+                    .toString();
+            org.nmox.studio.core.util.AtomicFiles.writeString(file, json);
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.FINE, "could not store catalog " + file, e);
+        }
+    }
+
+    /** Deletes the stored catalog — the connection was removed. */
+    public void forget(ConnectionSpec spec) {
+        Path file = fileFor(spec);
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "could not delete catalog " + file, e);
+        }
+    }
+
+    /** The spec's file: the id's hash, RackService's session-file idiom. */
+    Path fileFor(ConnectionSpec spec) {
+        return dir == null || spec == null ? null
+                : dir.resolve(Integer.toHexString(spec.id().hashCode()) + ".json");
+    }
+
+    /** What the catalog describes: a change here makes the stored one stale. */
+    static String target(ConnectionSpec spec) {
+        return String.join("|", String.valueOf(spec.engine()), nz(spec.host()),
+                String.valueOf(spec.port()), nz(spec.database()), nz(spec.filePath()),
+                nz(spec.user()));
+    }
+
+    private static String nz(String s) {
+        return s == null ? "" : s;
+    }
+}
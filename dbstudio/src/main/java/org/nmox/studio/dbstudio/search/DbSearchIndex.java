@@ -1,24 +1,25 @@
 package org.nmox.studio.dbstudio.search;
 
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import org.nmox.studio.dbstudio.model.ConnectionSpec;
 import org.nmox.studio.dbstudio.model.TableInfo;
-import org.nmox.studio.core.search.SearchTerms;
+import org.nmox.studio.core.search.SearchIndex;
 
 /**
  * The pure matcher behind DB Studio's Quick Search (⌘I) reach:
  * connections match on name, engine display name, or host; known
  * tables match on table name and carry their owning spec so the UI can
- * jump straight to them. Case-insensitive substring, connection hits
- * before table hits, input order preserved within each group.
+ * jump straight to them. Connection hits before table hits, input
+ * order preserved within each group.
  *
  * <p>Deliberately UI-free — the QuickSearch SPI provider wraps this
  * class; that keeps the semantics unit-testable without a platform.
  * Instances are immutable snapshots, safe to share across threads.
+ * Every hit's text is tokenized into a {@link SearchIndex} when the
+ * snapshot is built — once per publish — so a keystroke over a schema
+ * of thousands of tables walks a trie instead of re-splitting names.
  */
 public final class DbSearchIndex {
 
@@ -38,8 +39,9 @@ public final class DbSearchIndex {
     public record Hit(Kind kind, String label, ConnectionSpec spec, TableInfo table) {
     }
 
-    private final List<ConnectionSpec> specs;
-    private final Map<String, List<TableInfo>> tablesBySpecId;
+    /** Every possible hit, in hit order; the index is keyed by position, so equal hits stay two. */
+    private final List<Hit> hits = new ArrayList<>();
+    private final SearchIndex<Integer> index = new SearchIndex<>();
 
     /**
      * @param specs          the workspace's connections, in display order
@@ -49,56 +51,45 @@ public final class DbSearchIndex {
      *                       unknown connections simply have no table hits
      */
     public DbSearchIndex(List<ConnectionSpec> specs, Map<String, List<TableInfo>> tablesBySpecId) {
-        this.specs = specs == null ? List.of() : List.copyOf(specs);
-        Map<String, List<TableInfo>> copy = new LinkedHashMap<>();
-        if (tablesBySpecId != null) {
-            for (Map.Entry<String, List<TableInfo>> entry : tablesBySpecId.entrySet()) {
-                if (entry.getKey() != null && entry.getValue() != null) {
-                    copy.put(entry.getKey(), List.copyOf(entry.getValue()));
-                }
+        List<ConnectionSpec> specList = specs == null ? List.of() : List.copyOf(specs);
+        Map<String, List<TableInfo>> tables = tablesBySpecId == null ? Map.of() : tablesBySpecId;
+        // insertion order is hit order: every connection, then every table
+        for (ConnectionSpec spec : specList) {
+            add(new Hit(Kind.CONNECTION,
+                    nz(spec.name()) + " (" + spec.engine().displayName() + ")", spec, null),
+                    spec.name(), spec.engine().displayName(), spec.host());
+        }
+        for (ConnectionSpec spec : specList) {
+            List<TableInfo> known = spec.id() == null ? null : tables.get(spec.id());
+            for (TableInfo table : known == null ? List.<TableInfo>of() : known) {
+                add(new Hit(Kind.TABLE, table.name() + " — " + nz(spec.name()), spec, table),
+                        table.name());
             }
         }
-        this.tablesBySpecId = copy;
     }
 
     /**
-     * Term-based matching via {@code SearchTerms} (v1.215.0 — phrases,
-     * plurals, word boundaries, with a mid-word fallback for pasted
-     * fragments); blank queries match nothing. Connection hits come
-     * first, then table hits, each group in the order the connections
-     * were given.
+     * Term-based matching with {@code SearchTerms}' rule (v1.215.0 —
+     * phrases, plurals, word boundaries, with a mid-word fallback for
+     * pasted fragments); blank queries match nothing. A connection's
+     * terms may spread over its name, engine and host ("staging
+     * postgres"). Connection hits come first, then table hits, each
+     * group in the order the connections were given.
      */
     public List<Hit> matches(String query) {
-        List<Hit> hits = new ArrayList<>();
         if (query == null || query.isBlank()) {
-            return hits;
-        }
-        String needle = query.trim();
-        for (ConnectionSpec spec : specs) {
-            if (contains(spec.name(), needle)
-                    || contains(spec.engine().displayName(), needle)
-                    || contains(spec.host(), needle)) {
-                hits.add(new Hit(Kind.CONNECTION,
-                        nz(spec.name()) + " (" + spec.engine().displayName() + ")", spec, null));
-            }
+            return new ArrayList<>();
         }
-        for (ConnectionSpec spec : specs) {
-            for (TableInfo table : tablesBySpecId.getOrDefault(spec.id(), List.of())) {
-                if (contains(table.name(), needle)) {
-                    hits.add(new Hit(Kind.TABLE,
-                            table.name() + " — " + nz(spec.name()), spec, table));
-                }
-            }
+        List<Hit> found = new ArrayList<>();
+        for (int i : index.matches(query.trim())) {
+            found.add(hits.get(i));
         }
-        return hits;
+        return found;
     }
 
-    /**
-     * v1.215.0: term-based, so "user orders" finds a table named
-     * "user_orders" and a pasted name fragment still lands.
-     */
-    private static boolean contains(String haystack, String needle) {
-        return haystack != null && SearchTerms.matches(needle, haystack);
+    private void add(Hit hit, String... haystacks) {
+        index.put(hits.size(), haystacks);
+        hits.add(hit);
     }
 
     private static String nz(String s) {
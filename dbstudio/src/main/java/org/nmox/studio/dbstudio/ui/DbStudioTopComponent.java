@@ -51,15 +51,18 @@ import javax.swing.tree.TreePath;
 import javax.swing.tree.TreeSelectionModel;
 import org.netbeans.api.db.explorer.ConnectionManager;
 import org.netbeans.api.db.explorer.DatabaseConnection;
+import org.nmox.studio.dbstudio.engine.BulkImport;
 import org.nmox.studio.dbstudio.engine.DbBackend;
 import org.nmox.studio.dbstudio.engine.EditGate;
 import org.nmox.studio.dbstudio.engine.EditSession;
 import org.nmox.studio.dbstudio.engine.ExplainQueries;
+import org.nmox.studio.dbstudio.engine.ImportReader;
 import org.nmox.studio.dbstudio.engine.JdbcUrlDialects;
 import org.nmox.studio.dbstudio.engine.Passwords;
 import org.nmox.studio.dbstudio.engine.QueryResult;
 import org.nmox.studio.dbstudio.engine.ResultExports;
 import org.nmox.studio.dbstudio.engine.ServicesBackend;
+import org.nmox.studio.dbstudio.io.CatalogStore;
 import org.nmox.studio.dbstudio.io.DbWorkspaceIO;
 import org.nmox.studio.dbstudio.io.EnvConnections;
 import org.nmox.studio.dbstudio.io.WorkspaceEdits;
@@ -157,6 +160,14 @@ public final class DbStudioTopComponent extends TopComponent {
     private final Map<String, DbBackend> backends = new ConcurrentHashMap<>();
     /** Containers the tree has fetched, by spec id — feeds Quick Search, never re-fetched there. */
     private final Map<String, List<TableInfo>> containerCache = new ConcurrentHashMap<>();
+    /**
+     * Tables of the persisted schema catalogs, by spec id — Quick Search
+     * finds a table of a connection not yet connected this session;
+     * {@link #containerCache} wins wherever both know a spec.
+     */
+    private final Map<String, List<TableInfo>> storedTables = new ConcurrentHashMap<>();
+    /** Schema catalogs between sessions; a no-op store outside the platform. */
+    private final CatalogStore catalogStore = CatalogStore.userDefault();
     private final Set<String> connecting = ConcurrentHashMap.newKeySet();
     private final Set<Object> loadingNodes = ConcurrentHashMap.newKeySet();
     private final ConsoleHistory history = new ConsoleHistory();
@@ -166,6 +177,7 @@ public final class DbStudioTopComponent extends TopComponent {
     private final JButton removeButton = new JButton("Remove");
     private final JButton testButton = new JButton("Test");
     private final JButton connectButton = new JButton("Connect");
+    private final JButton importButton = new JButton("Import…");
 
     private final JEditorPane console = new JEditorPane();
     private final JButton runButton = new JButton("RUN");
@@ -332,8 +344,10 @@ public final class DbStudioTopComponent extends TopComponent {
         row2.setFloatable(false);
         testButton.addActionListener(e -> testSelected());
         connectButton.addActionListener(e -> toggleConnect());
+        importButton.addActionListener(e -> importIntoSelected());
         row2.add(testButton);
         row2.add(connectButton);
+        row2.add(importButton);
         tools.add(row1);
         tools.add(row2);
         panel.add(tools, BorderLayout.SOUTH);
@@ -776,9 +790,14 @@ public final class DbStudioTopComponent extends TopComponent {
         }
         File target = chooser.getSelectedFile();
         RP.post(() -> {
-            try {
-                String text = csv ? ResultExports.toCsv(result) : ResultExports.toJson(result);
-                Files.writeString(target.toPath(), text, StandardCharsets.UTF_8);
+            // streamed row by row into the file — no whole-export String
+            try (java.io.Writer out = Files.newBufferedWriter(target.toPath(),
+                    StandardCharsets.UTF_8)) {
+                if (csv) {
+                    ResultExports.writeCsv(result, out);
+                } else {
+                    ResultExports.writeJson(result, out);
+                }
                 SwingUtilities.invokeLater(() -> {
                     status("Exported " + result.rowCount() + " row(s) → "
                             + target.getName(), OK_GREEN);
@@ -794,6 +813,73 @@ public final class DbStudioTopComponent extends TopComponent {
         });
     }
 
+    /**
+     * Import gesture: pick a CSV/NDJSON file, then stream it into the
+     * selected container off-EDT through {@link DbBackend#importRows}.
+     * A determinate ProgressHandle follows the file position and is
+     * cancellable (the backend aborts the in-flight chunk — and a SQL
+     * import rolls back whole); the status strip carries rows and
+     * rows/sec as chunks commit.
+     */
+    private void importIntoSelected() {
+        ConnectionSpec spec = selectedConnection();
+        TableInfo table = selectedContainer();
+        DbBackend backend = spec == null ? null : backends.get(spec.id());
+        if (table == null || backend == null || !backend.isOpen()) {
+            return;
+        }
+        JFileChooser chooser = new JFileChooser(projectDir());
+        chooser.setDialogTitle("Import into " + table.name());
+        chooser.setFileFilter(new javax.swing.filechooser.FileNameExtensionFilter(
+                "CSV or newline-delimited JSON", "csv", "ndjson", "jsonl", "json"));
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File source = chooser.getSelectedFile();
+        ImportReader.Format format = ImportReader.Format.forFileName(source.getName());
+        if (format == null) {
+            status("Import needs a .csv, .ndjson, .jsonl or .json file", FAIL_RED);
+            return;
+        }
+        status("Importing " + source.getName() + " → " + table.name() + "…", Color.GRAY);
+        RP.post(() -> {
+            org.netbeans.api.progress.ProgressHandle progress =
+                    org.netbeans.api.progress.ProgressHandle.createHandle(
+                            "Importing " + source.getName() + " into " + table.name(),
+                            () -> {
+                                backend.cancelImport();
+                                return true;
+                            });
+            progress.start(1000);
+            BulkImport.Report report;
+            try (ImportReader reader = ImportReader.open(source.toPath(), format)) {
+                report = backend.importRows(table, reader, tick -> {
+                    progress.progress(String.format("%,d rows · %,.0f rows/s",
+                            tick.rows(), tick.rowsPerSecond()), (int) (tick.fraction() * 1000));
+                    SwingUtilities.invokeLater(() -> status(String.format(
+                            "Importing… %,d rows (%,.0f rows/s)", tick.rows(),
+                            tick.rowsPerSecond()), Color.GRAY));
+                });
+            } catch (IOException ex) {
+                report = new BulkImport.Report(0, 0, ex.getMessage());
+            } finally {
+                progress.finish();
+            }
+            BulkImport.Report done = report;
+            SwingUtilities.invokeLater(() -> {
+                if (done.isError()) {
+                    status("Import failed: " + done.error(), FAIL_RED);
+                    balloon("Import into " + table.name() + " failed", done.error(), false);
+                } else {
+                    String summary = String.format("%,d rows in %,d ms (%,.0f rows/s)",
+                            done.rows(), done.elapsedMs(), done.rowsPerSecond());
+                    status("Imported " + summary + " → " + table.name(), OK_GREEN);
+                    balloon("Imported into " + table.name(), summary, true);
+                }
+            });
+        });
+    }
+
     /**
      * The Apply gesture: build the UPDATEs (any {@link UpdateBuilder}
      * refusal lands verbatim in the status bar), preview them in a
@@ -1493,18 +1579,34 @@ public final class DbStudioTopComponent extends TopComponent {
             DbBackend backend;
             String error;
             List<TableInfo> containers;
+            boolean seeded = false;
             try {
                 backend = backendFor(spec);
                 if (backend == null) { // a Services connection that just left the explorer
                     error = "Connection no longer exists in the Services window";
                     containers = List.of();
                 } else {
+                    // last session's catalog paints the tree without a
+                    // round trip; it is refreshed below, off this handle
+                    if (backend.catalog() == null) {
+                        backend.seedCatalog(catalogStore.load(spec));
+                    }
+                    seeded = backend.catalog() != null;
                     error = backend.open();
                     containers = error == null ? backend.listContainers() : List.of();
                 }
             } finally {
                 progress.finish();
             }
+            if (error == null && backend != null) {
+                DbBackend live = backend;
+                if (seeded) {
+                    // a changed schema comes back through catalogChanged
+                    RP.post(() -> catalogStore.save(spec, live.refreshCatalog()));
+                } else {
+                    catalogStore.save(spec, live.catalog());
+                }
+            }
             SwingUtilities.invokeLater(() -> {
                 connecting.remove(spec.id());
                 if (error != null) {
@@ -1576,7 +1678,12 @@ public final class DbStudioTopComponent extends TopComponent {
             }
             char[] password = Passwords.read(id);
             try {
-                return DbBackend.create(spec, password); // the backend copies the array
+                DbBackend created = DbBackend.create(spec, password); // copies the array
+                // the connection node shows pool utilization; borrows and
+                // releases happen on RP threads, the repaint on the EDT
+                created.onUtilizationChange(() -> SwingUtilities.invokeLater(tree::repaint));
+                created.onCatalogChange(() -> catalogChanged(spec, created));
+                return created;
             } finally {
                 if (password != null) {
                     Arrays.fill(password, '\0');
@@ -1764,6 +1871,16 @@ public final class DbStudioTopComponent extends TopComponent {
         return specOf((DefaultMutableTreeNode) path.getLastPathComponent());
     }
 
+    /** The selected tree node's container, or null when a connection/column is selected. */
+    private TableInfo selectedContainer() {
+        TreePath path = tree.getSelectionPath();
+        if (path == null) {
+            return null;
+        }
+        Object userObject = ((DefaultMutableTreeNode) path.getLastPathComponent()).getUserObject();
+        return userObject instanceof TableInfo info ? info : null;
+    }
+
     private static ConnectionSpec specOf(DefaultMutableTreeNode node) {
         for (DefaultMutableTreeNode n = node; n != null;
                 n = (DefaultMutableTreeNode) n.getParent()) {
@@ -1821,6 +1938,13 @@ public final class DbStudioTopComponent extends TopComponent {
         connectButton.setToolTipText(services
                 ? "Connect through NetBeans (drivers and credentials live in the Services window)"
                 : null);
+        TableInfo target = selectedContainer();
+        boolean importable = target != null && !target.isView()
+                && backend != null && backend.isOpen();
+        importButton.setEnabled(importable);
+        importButton.setToolTipText(importable
+                ? "Stream a CSV or NDJSON file into " + target.name()
+                : "Select a table, collection or database of a connected connection");
         // RUN gates on having a target: an always-armed button that silently
         // no-ops reads as broken. The tooltip says why it's off.
         ConnectionSpec active = activeSpec();
@@ -1906,6 +2030,7 @@ public final class DbStudioTopComponent extends TopComponent {
             RP.post(stale::close);
         }
         containerCache.remove(spec.id());
+        storedTables.remove(spec.id()); // the store's target check now misses too
         saveWorkspace();
         rebuildTree();
         publishSearch();
@@ -1936,9 +2061,11 @@ public final class DbStudioTopComponent extends TopComponent {
                 backend.close();
             }
             Passwords.delete(spec.id()); // keyring may block — off the EDT
+            catalogStore.forget(spec);
         });
         specs.removeIf(s -> s.id().equals(spec.id()));
         containerCache.remove(spec.id());
+        storedTables.remove(spec.id());
         if (spec.id().equals(activeSpecId)) {
             activeSpecId = null;
         }
@@ -1990,7 +2117,35 @@ public final class DbStudioTopComponent extends TopComponent {
     }
 
     private void publishSearch() {
-        DbSearchProvider.publish(new ArrayList<>(specs), new HashMap<>(containerCache));
+        Map<String, List<TableInfo>> tables = new HashMap<>(storedTables);
+        tables.putAll(containerCache);
+        DbSearchProvider.publish(new ArrayList<>(specs), tables);
+    }
+
+    /**
+     * A backend's catalog changed under the tree — DDL in the console,
+     * or last session's catalog proved stale on connect. Runs on the
+     * refreshing worker: persist, then refill the connection's node
+     * and Quick Search on the EDT.
+     */
+    private void catalogChanged(ConnectionSpec spec, DbBackend backend) {
+        org.nmox.studio.dbstudio.engine.SchemaCatalog fresh = backend.catalog();
+        if (fresh == null) {
+            return;
+        }
+        catalogStore.save(spec, fresh);
+        List<TableInfo> tables = fresh.tables();
+        SwingUtilities.invokeLater(() -> {
+            if (backends.get(spec.id()) != backend) {
+                return; // disconnected or edited meanwhile
+            }
+            containerCache.put(spec.id(), tables);
+            DefaultMutableTreeNode node = findConnectionNode(spec.id());
+            if (node != null) {
+                fillContainers(node, tables);
+            }
+            publishSearch();
+        });
     }
 
     // ---- persistence (RackService idiom, same as apiclient/infra) ----
@@ -2030,6 +2185,8 @@ public final class DbStudioTopComponent extends TopComponent {
             // draining here preserves that ordering (bounded ms drain)
             SAVES.flush(5, java.util.concurrent.TimeUnit.SECONDS);
             DbWorkspaceIO.LoadOutcome outcome = DbWorkspaceIO.loadWorkspaceGuarded(dir);
+            Map<String, List<TableInfo>> stored =
+                    catalogStore.tablesFor(outcome.workspace().connections());
             // stamp the just-read file off-EDT too: Stamp.of stats the file,
             // and the whole point of M5 is that no reload I/O touches paint
             org.nmox.studio.dbstudio.io.ExternalEdits.Stamp ownStamp =
@@ -2039,16 +2196,19 @@ public final class DbStudioTopComponent extends TopComponent {
                 if (seq != reloadSeq) {
                     return; // a newer reload superseded this read
                 }
-                applyReloadedWorkspace(outcome, ownStamp);
+                applyReloadedWorkspace(outcome, ownStamp, stored);
             });
         });
     }
 
     /** EDT: swaps the studio onto a freshly read workspace. */
     private void applyReloadedWorkspace(DbWorkspaceIO.LoadOutcome outcome,
-            org.nmox.studio.dbstudio.io.ExternalEdits.Stamp ownStamp) {
+            org.nmox.studio.dbstudio.io.ExternalEdits.Stamp ownStamp,
+            Map<String, List<TableInfo>> stored) {
         closeAllBackends();
         containerCache.clear();
+        storedTables.clear();
+        storedTables.putAll(stored);
         connecting.clear();
         activeSpecId = null;
         specs.clear();
@@ -2300,7 +2460,11 @@ public final class DbStudioTopComponent extends TopComponent {
 
     // ---- renderers ----
 
-    /** Connection: name + grey engine badge (bold while connected); container: name + kind; column: name : type [PK]. */
+    /**
+     * Connection: name + grey engine badge (bold while connected, plus the
+     * backend's pool utilization); container: name + kind; column:
+     * name : type [PK].
+     */
     private final class DbTreeRenderer extends DefaultTreeCellRenderer {
         @Override
         public Component getTreeCellRendererComponent(JTree t, Object value, boolean sel,
@@ -2315,6 +2479,10 @@ public final class DbStudioTopComponent extends TopComponent {
                         ? (spec.engine() != null
                                 ? "Services · " + spec.engine().displayName() : "Services")
                         : spec.engine().displayName();
+                String utilization = connected ? backend.utilization() : null;
+                if (utilization != null) {
+                    badge += " · " + utilization;
+                }
                 setText("<html>" + (connected ? "<b>" : "") + esc(spec.name())
                         + (connected ? "</b>" : "")
                         + " <font color='#8a8a8a'>(" + esc(badge)
@@ -0,0 +1,193 @@
+package org.nmox.studio.dbstudio.engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nmox.studio.dbstudio.model.ColumnInfo;
+import org.nmox.studio.dbstudio.model.ConnectionSpec;
+import org.nmox.studio.dbstudio.model.DbEngine;
+import org.nmox.studio.dbstudio.model.TableInfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * Bulk import end to end on a real SQLite file (the DbClientSqliteTest
+ * idiom): chunked multi-row INSERTs, typed binding, all-or-nothing
+ * rollback, plus the pure SQL/chunk-size seams.
+ */
+class BulkImportTest {
+
+    private static final TableInfo PEOPLE = new TableInfo("", "", "people", "TABLE");
+
+    private static DbClient client(Path dir) {
+        return new DbClient(new ConnectionSpec(UUID.randomUUID().toString(), "import db",
+                DbEngine.SQLITE, "", -1, "", "", dir.resolve("import.db").toString()), null);
+    }
+
+    private static BulkImport.Report importFile(DbClient client, Path file,
+            ImportReader.Format format, List<BulkImport.Progress> ticks) throws IOException {
+        try (ImportReader reader = ImportReader.open(file, format)) {
+            return client.importRows(PEOPLE, reader, ticks::add);
+        }
+    }
+
+    @Test
+    @DisplayName("A CSV larger than one chunk lands whole, typed, with progress ticks and a rate")
+    void csvImportsAcrossChunks(@TempDir Path dir) throws IOException {
+        StringBuilder csv = new StringBuilder("id,name,score,active\r\n");
+        int rows = BulkImport.CHUNK_ROWS * 2 + 17;
+        for (int i = 1; i <= rows; i++) {
+            csv.append(i).append(",person ").append(i).append(',').append(i / 2.0)
+                    .append(',').append(i % 2 == 0 ? "true" : "false").append("\r\n");
+        }
+        Path file = Files.writeString(dir.resolve("people.csv"), csv);
+        List<BulkImport.Progress> ticks = new ArrayList<>();
+
+        try (DbClient client = client(dir)) {
+            client.runScript("CREATE TABLE people (id INTEGER PRIMARY KEY, name TEXT,"
+                    + " score REAL, active BOOLEAN);", 0);
+            BulkImport.Report report = importFile(client, file, ImportReader.Format.CSV, ticks);
+
+            assertThat(report.error()).isNull();
+            assertThat(report.rows()).isEqualTo(rows);
+            assertThat(report.rowsPerSecond()).isPositive();
+            assertThat(ticks).isNotEmpty();
+            assertThat(ticks.get(ticks.size() - 1).rows()).isEqualTo(rows);
+            QueryResult check = client.runScript(
+                    "SELECT COUNT(*), SUM(score), typeof(score) FROM people;", 0).get(0);
+            assertThat(check.rows().get(0).get(0)).isEqualTo(String.valueOf(rows));
+            assertThat(check.rows().get(0).get(2)).isEqualTo("real");
+        }
+    }
+
+    @Test
+    @DisplayName("NDJSON imports by key, case-insensitively; missing keys and JSON null insert NULL")
+    void ndjsonImports(@TempDir Path dir) throws IOException {
+        Path file = Files.writeString(dir.resolve("people.ndjson"),
+                "{\"ID\":1,\"Name\":\"ada\"}\n{\"id\":2,\"name\":null}\n{\"id\":3}\n");
+
+        try (DbClient client = client(dir)) {
+            client.runScript("CREATE TABLE people (id INTEGER PRIMARY KEY, name TEXT);", 0);
+            BulkImport.Report report = importFile(client, file, ImportReader.Format.NDJSON,
+                    new ArrayList<>());
+
+            assertThat(report.error()).isNull();
+            assertThat(report.rows()).isEqualTo(3);
+            QueryResult rows = client.runScript("SELECT name FROM people ORDER BY id;", 0).get(0);
+            assertThat(rows.rows()).containsExactly(List.of("ada"), List.of("NULL"), List.of("NULL"));
+        }
+    }
+
+    @Test
+    @DisplayName("An NDJSON key first seen mid-file widens the columns; one naming no column fails the import")
+    void ndjsonLateKeys(@TempDir Path dir) throws IOException {
+        StringBuilder ok = new StringBuilder();
+        for (int i = 1; i <= BulkImport.CHUNK_ROWS + 3; i++) {
+            ok.append("{\"id\":").append(i).append(i == 7 ? ",\"Name\":\"late\"" : "").append("}\n");
+        }
+        Path widened = Files.writeString(dir.resolve("late.ndjson"), ok);
+        Path typo = Files.writeString(dir.resolve("typo.ndjson"),
+                "{\"id\":1,\"name\":\"ada\"}\n{\"id\":2,\"nmae\":\"bob\"}\n");
+
+        try (DbClient client = client(dir)) {
+            client.runScript("CREATE TABLE people (id INTEGER PRIMARY KEY, name TEXT DEFAULT 'dflt');", 0);
+            BulkImport.Report report = importFile(client, widened, ImportReader.Format.NDJSON,
+                    new ArrayList<>());
+
+            assertThat(report.error()).isNull();
+            assertThat(report.rows()).isEqualTo(BulkImport.CHUNK_ROWS + 3);
+            assertThat(client.runScript("SELECT id, name FROM people WHERE id IN (6, 7, 8) ORDER BY id;", 0)
+                    .get(0).rows())
+                    .as("before the key: its default; the record carrying it: its value; after: NULL")
+                    .containsExactly(List.of("6", "dflt"), List.of("7", "late"), List.of("8", "NULL"));
+
+            client.runScript("DELETE FROM people;", 0);
+            BulkImport.Report refused = importFile(client, typo, ImportReader.Format.NDJSON,
+                    new ArrayList<>());
+
+            assertThat(refused.error()).contains("no column named nmae").contains("nothing was imported");
+            assertThat(client.runScript("SELECT COUNT(*) FROM people;", 0).get(0).rows())
+                    .containsExactly(List.of("0"));
+        }
+    }
+
+    @Test
+    @DisplayName("A bad value late in the file rolls the whole import back")
+    void failureRollsBack(@TempDir Path dir) throws IOException {
+        StringBuilder csv = new StringBuilder("id,name\n");
+        for (int i = 1; i <= BulkImport.CHUNK_ROWS + 5; i++) {
+            csv.append(i).append(",p").append(i).append('\n');
+        }
+        csv.append("not-a-number,late\n");
+        Path file = Files.writeString(dir.resolve("bad.csv"), csv);
+
+        try (DbClient client = client(dir)) {
+            client.runScript("CREATE TABLE people (id INTEGER PRIMARY KEY, name TEXT);", 0);
+            BulkImport.Report report = importFile(client, file, ImportReader.Format.CSV,
+                    new ArrayList<>());
+
+            assertThat(report.isError()).isTrue();
+            assertThat(report.error()).contains("id").contains("nothing was imported");
+            assertThat(report.rows()).isZero();
+            assertThat(client.runScript("SELECT COUNT(*) FROM people;", 0).get(0).rows())
+                    .containsExactly(List.of("0"));
+            // the connection is back in auto-commit: a console INSERT sticks
+            client.runScript("INSERT INTO people (id, name) VALUES (1, 'x');", 0);
+            assertThat(client.runScript("SELECT COUNT(*) FROM people;", 0).get(0).rows())
+                    .containsExactly(List.of("1"));
+        }
+    }
+
+    @Test
+    @DisplayName("A header naming no column refuses before anything is written")
+    void unknownColumnRefused(@TempDir Path dir) throws IOException {
+        Path file = Files.writeString(dir.resolve("typo.csv"), "id,nmae\n1,ada\n");
+
+        try (DbClient client = client(dir)) {
+            client.runScript("CREATE TABLE people (id INTEGER PRIMARY KEY, name TEXT);", 0);
+            BulkImport.Report report = importFile(client, file, ImportReader.Format.CSV,
+                    new ArrayList<>());
+
+            assertThat(report.error()).contains("no column named nmae");
+        }
+    }
+
+    @Test
+    @DisplayName("The multi-row INSERT quotes per dialect and repeats the tuple per row")
+    void insertSql() {
+        List<ColumnInfo> columns = List.of(new ColumnInfo("id", "INTEGER", 0, false, true),
+                new ColumnInfo("we\"ird", "TEXT", 0, true, false));
+
+        assertThat(BulkImport.insertSql("\"", new TableInfo("", "app", "t", "TABLE"), columns, 2))
+                .isEqualTo("INSERT INTO \"app\".\"t\" (\"id\", \"we\"\"ird\") VALUES (?, ?), (?, ?)");
+    }
+
+    @Test
+    @DisplayName("Chunk size shrinks so rows × columns stays under the engine's bind limit")
+    void chunkRowsRespectParameterCaps() {
+        assertThat(BulkImport.chunkRows(DbEngine.POSTGRES, 4)).isEqualTo(BulkImport.CHUNK_ROWS);
+        assertThat(BulkImport.chunkRows(DbEngine.SQLITE, 10)).isEqualTo(99);
+        assertThat(BulkImport.chunkRows(DbEngine.SQLITE, 5000)).isEqualTo(1);
+        assertThat(BulkImport.chunkRows(null, 100)).isEqualTo(327);
+    }
+
+    @Test
+    @DisplayName("targetColumns maps case-insensitively and lists every unknown field")
+    void targetColumns() {
+        List<ColumnInfo> columns = List.of(new ColumnInfo("Id", "INTEGER", 0, false, true),
+                new ColumnInfo("name", "TEXT", 0, true, false));
+
+        assertThat(BulkImport.targetColumns(columns, List.of("name", "ID"), PEOPLE))
+                .extracting(ColumnInfo::name).containsExactly("name", "Id");
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> BulkImport.targetColumns(columns, List.of("a", "b"), PEOPLE))
+                .withMessageContaining("a, b");
+    }
+}
@@ -0,0 +1,204 @@
+package org.nmox.studio.dbstudio.engine;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The pool's contract against scripted fake connections and a hand
+ * cranked clock — bound, validate-on-borrow, idle eviction, close —
+ * without a database anywhere.
+ */
+class ConnectionPoolTest {
+
+    /** A fake connection: tracks close, answers isValid from a switch. */
+    private static final class Fake {
+        boolean closed;
+        boolean valid = true;
+        int validations;
+        final Connection connection = (Connection) Proxy.newProxyInstance(
+                ConnectionPoolTest.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "isClosed" -> closed;
+                    case "isValid" -> {
+                        validations++;
+                        yield valid && !closed;
+                    }
+                    case "close" -> {
+                        closed = true;
+                        yield null;
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private final List<Fake> made = new ArrayList<>();
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    private ConnectionPool pool(int max, long evictMs) {
+        return new ConnectionPool(() -> {
+            Fake fake = new Fake();
+            made.add(fake);
+            return fake.connection;
+        }, max, evictMs, now::get, null);
+    }
+
+    @Test
+    @DisplayName("A released connection is reused instead of connecting again")
+    void reusesReleased() throws SQLException {
+        ConnectionPool pool = pool(2, 60_000);
+        Connection first = pool.borrow(0);
+        pool.release(first);
+
+        assertThat(pool.borrow(0)).isSameAs(first);
+        assertThat(made).hasSize(1);
+        assertThat(pool.stats()).isEqualTo(new ConnectionPool.Stats(1, 0, 2));
+    }
+
+    @Test
+    @DisplayName("The bound holds: a borrow past it times out naming the pool size")
+    void boundedBorrowTimesOut() throws SQLException {
+        ConnectionPool pool = pool(2, 60_000);
+        pool.borrow(0);
+        pool.borrow(0);
+
+        assertThatThrownBy(() -> pool.borrow(0))
+                .isInstanceOf(SQLTimeoutException.class)
+                .hasMessageContaining("All 2 connections");
+        assertThat(made).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("A waiting borrow gets the connection another thread releases")
+    void waiterWakesOnRelease() throws Exception {
+        ConnectionPool pool = new ConnectionPool(() -> new Fake().connection, 1, 60_000,
+                System::currentTimeMillis, null);
+        Connection held = pool.borrow(0);
+        CompletableFuture<Connection> waiter = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.borrow(5_000);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(100);
+        assertThat(waiter).isNotDone();
+
+        pool.release(held);
+        assertThat(waiter.get(5, TimeUnit.SECONDS)).isSameAs(held);
+    }
+
+    @Test
+    @DisplayName("A connection idle past the validate window is probed; a dead one is replaced")
+    void validatesOnBorrow() throws SQLException {
+        ConnectionPool pool = pool(2, 60_000);
+        Connection first = pool.borrow(0);
+        pool.release(first);
+
+        // a moment later: trusted without a round trip
+        now.addAndGet(ConnectionPool.VALIDATE_AFTER_MS - 1);
+        assertThat(pool.borrow(0)).isSameAs(first);
+        assertThat(made.get(0).validations).isZero();
+        pool.release(first);
+
+        // later, and the server dropped it meanwhile
+        now.addAndGet(ConnectionPool.VALIDATE_AFTER_MS);
+        made.get(0).valid = false;
+        Connection second = pool.borrow(0);
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(made.get(0).validations).isEqualTo(1);
+        assertThat(made.get(0).closed).as("the dead one is closed").isTrue();
+        assertThat(pool.stats()).isEqualTo(new ConnectionPool.Stats(1, 0, 2));
+    }
+
+    @Test
+    @DisplayName("Idle connections past the eviction window close; fresher ones stay")
+    void evictsIdle() throws SQLException {
+        ConnectionPool pool = pool(3, 10_000);
+        Connection a = pool.borrow(0);
+        Connection b = pool.borrow(0);
+        pool.release(a);
+        now.addAndGet(6_000);
+        pool.release(b);
+        now.addAndGet(5_000); // a idle 11s, b idle 5s
+
+        assertThat(pool.evictIdle()).isEqualTo(1);
+        assertThat(made.get(0).closed).isTrue();
+        assertThat(made.get(1).closed).isFalse();
+        assertThat(pool.stats()).isEqualTo(new ConnectionPool.Stats(0, 1, 3));
+    }
+
+    @Test
+    @DisplayName("Releasing a closed connection frees its slot instead of pooling it")
+    void closedReleaseFreesSlot() throws SQLException {
+        ConnectionPool pool = pool(1, 60_000);
+        Connection broken = pool.borrow(0);
+        broken.close();
+        pool.release(broken);
+
+        assertThat(pool.stats()).isEqualTo(new ConnectionPool.Stats(0, 0, 1));
+        assertThat(pool.borrow(0)).isNotSameAs(broken);
+    }
+
+    @Test
+    @DisplayName("A failed connect gives its slot back")
+    void failedConnectFreesSlot() throws SQLException {
+        AtomicInteger attempts = new AtomicInteger();
+        ConnectionPool pool = new ConnectionPool(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new SQLException("server down");
+            }
+            return new Fake().connection;
+        }, 1, 60_000, now::get, null);
+
+        assertThatThrownBy(() -> pool.borrow(0)).hasMessage("server down");
+        assertThat(pool.borrow(0)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("close() shuts idle connections now, borrowed ones on release, and refuses borrows")
+    void closeLifecycle() throws SQLException {
+        AtomicInteger changes = new AtomicInteger();
+        ConnectionPool pool = new ConnectionPool(() -> {
+            Fake fake = new Fake();
+            made.add(fake);
+            return fake.connection;
+        }, 2, 60_000, now::get, changes::incrementAndGet);
+        Connection idle = pool.borrow(0);
+        Connection busy = pool.borrow(0);
+        pool.release(idle);
+
+        pool.close();
+        assertThat(made.get(0).closed).isTrue();
+        assertThat(made.get(1).closed).isFalse();
+        assertThatThrownBy(() -> pool.borrow(0)).hasMessageContaining("closed");
+
+        pool.release(busy);
+        assertThat(made.get(1).closed).isTrue();
+        assertThat(pool.stats().inUse()).isZero();
+        assertThat(changes.get()).as("every borrow/release/close notified").isEqualTo(5);
+        pool.close(); // idempotent
+    }
+
+    @Test
+    @DisplayName("A pool bound below one is refused")
+    void rejectsZeroBound() {
+        assertThatThrownBy(() -> pool(0, 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
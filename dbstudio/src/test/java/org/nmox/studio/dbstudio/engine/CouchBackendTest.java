@@ -32,6 +32,35 @@ class CouchBackendTest {
 
     // ---- parse seams --------------------------------------------------
 
+    @Test
+    @DisplayName("bulkDocsBody wraps a chunk as {docs:[...]}, CSV blanks and NULL as JSON null")
+    void bulkDocsBody() {
+        java.util.Map<String, Object> record = new java.util.LinkedHashMap<>();
+        record.put("_id", "a1");
+        record.put("note", "");
+        record.put("gone", "NULL");
+
+        JSONObject body = new JSONObject(CouchBackend.bulkDocsBody(List.of(record),
+                ImportReader.Format.CSV));
+        JSONObject doc = body.getJSONArray("docs").getJSONObject(0);
+
+        assertThat(doc.getString("_id")).isEqualTo("a1");
+        assertThat(doc.isNull("note")).isTrue();
+        assertThat(doc.isNull("gone")).isTrue();
+    }
+
+    @Test
+    @DisplayName("parseBulkDocs counts stored documents and keeps the first per-document error")
+    void parseBulkDocs() {
+        CouchBackend.BulkOutcome outcome = CouchBackend.parseBulkDocs(
+                "[{\"ok\":true,\"id\":\"a\",\"rev\":\"1-x\"},"
+                + "{\"id\":\"b\",\"error\":\"conflict\",\"reason\":\"Document update conflict.\"},"
+                + "{\"ok\":true,\"id\":\"c\",\"rev\":\"1-y\"}]");
+
+        assertThat(outcome.accepted()).isEqualTo(2);
+        assertThat(outcome.firstError()).isEqualTo("conflict: Document update conflict.");
+    }
+
     @Test
     @DisplayName("parseWelcome recognizes CouchDB's root document with its version")
     void parseWelcome() {
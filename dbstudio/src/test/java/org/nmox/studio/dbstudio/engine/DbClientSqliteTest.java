@@ -227,4 +227,120 @@ class DbClientSqliteTest {
         client.cancel(); // after close
         assertThat(client.isOpen()).isFalse();
     }
+
+    @Test
+    @DisplayName("Table browsing runs while a long console statement holds the session")
+    void introspectionRunsAlongsideALongScript(@TempDir Path dir) throws Exception {
+        try (DbClient client = new DbClient(sqliteSpec(dir.resolve("busy.db")), null)) {
+            client.runScript("CREATE TABLE t (id INTEGER PRIMARY KEY);", 10);
+            java.util.concurrent.CompletableFuture<List<QueryResult>> slow =
+                    java.util.concurrent.CompletableFuture.supplyAsync(() -> client.runScript("""
+                            WITH RECURSIVE n(x) AS (SELECT 1 UNION ALL SELECT x + 1 FROM n
+                                                    WHERE x < 500000000)
+                            SELECT count(*) FROM n;
+                            """, 10));
+            Thread.sleep(200); // let the script take the session
+
+            long started = System.nanoTime();
+            List<TableInfo> tables = client.listTables();
+            List<ColumnInfo> columns = client.columns(tables.get(0));
+            long tookMs = (System.nanoTime() - started) / 1_000_000;
+
+            assertThat(slow).as("the script is still running").isNotDone();
+            assertThat(tables).extracting(TableInfo::name).containsExactly("t");
+            assertThat(columns).extracting(ColumnInfo::name).containsExactly("id");
+            assertThat(tookMs).as("introspection did not queue behind the script")
+                    .isLessThan(5_000);
+            assertThat(client.utilization()).isEqualTo("1/" + DbClient.SQLITE_POOL_SIZE + " in use");
+
+            client.cancel();
+            List<QueryResult> cancelled = slow.get(30, java.util.concurrent.TimeUnit.SECONDS);
+            assertThat(cancelled.get(0).isError()).as("Cancel interrupts the statement").isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("The console session persists across runs: a TEMP table survives to the next script")
+    void consoleSessionIsPinned(@TempDir Path dir) {
+        try (DbClient client = new DbClient(sqliteSpec(dir.resolve("session.db")), null)) {
+            client.runScript("CREATE TEMP TABLE scratch (v TEXT); INSERT INTO scratch VALUES ('kept');", 10);
+            client.listTables(); // borrows a different lane in between
+
+            QueryResult read = client.runScript("SELECT v FROM scratch;", 10).get(0);
+            assertThat(read.error()).isNull();
+            assertThat(read.rows()).containsExactly(List.of("kept"));
+        }
+    }
+
+    @Test
+    @DisplayName("A private in-memory database gets a single-connection pool so every call sees it")
+    void inMemoryDatabaseSharesTheSession() {
+        ConnectionSpec memory = new ConnectionSpec(UUID.randomUUID().toString(), "mem",
+                DbEngine.SQLITE, "", -1, "", "", ":memory:");
+        assertThat(DbClient.poolSize(memory)).isEqualTo(1);
+        assertThat(DbClient.poolSize(new ConnectionSpec("x", "x", DbEngine.POSTGRES,
+                "localhost", 5432, "db", "u", null))).isEqualTo(DbClient.POOL_SIZE);
+
+        try (DbClient client = new DbClient(memory, null)) {
+            client.runScript("CREATE TABLE m (id INTEGER);", 10);
+            assertThat(client.listTables()).extracting(TableInfo::name).containsExactly("m");
+        }
+    }
+
+    @Test
+    @DisplayName("Utilization reads null while closed and tells the listener about every change")
+    void utilizationReportsAndNotifies(@TempDir Path dir) {
+        DbClient client = new DbClient(sqliteSpec(dir.resolve("util.db")), null);
+        java.util.concurrent.atomic.AtomicInteger changes =
+                new java.util.concurrent.atomic.AtomicInteger();
+        client.onUtilizationChange(changes::incrementAndGet);
+        assertThat(client.utilization()).isNull();
+
+        client.open();
+        assertThat(client.utilization()).isEqualTo("0/" + DbClient.SQLITE_POOL_SIZE + " in use");
+        client.runScript("SELECT 1;", 10);
+        assertThat(client.utilization()).as("the session stays pinned")
+                .isEqualTo("1/" + DbClient.SQLITE_POOL_SIZE + " in use");
+        assertThat(changes.get()).isPositive();
+
+        client.close();
+        assertThat(client.utilization()).isNull();
+    }
+
+    @Test
+    @DisplayName("Tables and columns come from one bulk catalog; DDL refreshes it in the background")
+    void catalogServesAndRefreshesOnDdl(@TempDir Path dir) throws Exception {
+        try (DbClient client = new DbClient(sqliteSpec(dir.resolve("catalog.db")), null)) {
+            client.runScript("CREATE TABLE a (id INTEGER PRIMARY KEY);", 10);
+            assertThat(client.listTables()).extracting(TableInfo::name).containsExactly("a");
+            assertThat(client.catalog()).isNotNull();
+
+            java.util.concurrent.CountDownLatch changed = new java.util.concurrent.CountDownLatch(1);
+            client.onCatalogChange(changed::countDown);
+            client.runScript("CREATE TABLE b (id INTEGER PRIMARY KEY, v TEXT);", 10);
+
+            assertThat(changed.await(10, java.util.concurrent.TimeUnit.SECONDS))
+                    .as("the DDL scheduled a refresh that saw the new table").isTrue();
+            assertThat(client.listTables()).extracting(TableInfo::name).containsExactly("a", "b");
+            TableInfo b = client.listTables().get(1);
+            assertThat(client.columns(b)).extracting(ColumnInfo::name).containsExactly("id", "v");
+        }
+    }
+
+    @Test
+    @DisplayName("A seeded catalog is served until a refresh replaces it")
+    void seededCatalogIsServedUntilRefreshed(@TempDir Path dir) {
+        try (DbClient client = new DbClient(sqliteSpec(dir.resolve("seed.db")), null)) {
+            client.runScript("CREATE TABLE real_table (id INTEGER);", 10);
+            client.seedCatalog(new SchemaCatalog(java.util.Map.of(
+                    new TableInfo("", "", "remembered", "TABLE"), List.of()), 1L));
+
+            assertThat(client.listTables()).extracting(TableInfo::name)
+                    .containsExactly("remembered");
+
+            client.refreshCatalog();
+            assertThat(client.listTables()).extracting(TableInfo::name)
+                    .containsExactly("real_table");
+        }
+    }
 }
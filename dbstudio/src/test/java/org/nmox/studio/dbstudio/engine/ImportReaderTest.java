@@ -0,0 +1,125 @@
+package org.nmox.studio.dbstudio.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.json.JSONObject;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIOException;
+
+/**
+ * The import reader's contract: it reads back exactly what
+ * {@link ResultExports#toCsv} writes (RFC 4180 quoting, CRLF, embedded
+ * newlines), streams NDJSON one object per line, and fails malformed
+ * input with a line number instead of reading the whole disk.
+ */
+class ImportReaderTest {
+
+    private static ImportReader reader(String text, ImportReader.Format format)
+            throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        return ImportReader.open(new ByteArrayInputStream(bytes), format, bytes.length);
+    }
+
+    private static List<Map<String, Object>> all(ImportReader reader) throws IOException {
+        List<Map<String, Object>> records = new ArrayList<>();
+        Map<String, Object> record;
+        while ((record = reader.next()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+
+    @Test
+    @DisplayName("A CSV export reads back field for field — quotes, commas, newlines, CRLF")
+    void csvRoundTripsTheExport() throws IOException {
+        QueryResult grid = new QueryResult(List.of("id", "note"),
+                List.of(List.of("1", "Doe, Jane"), List.of("2", "said \"hi\"\nthen left")),
+                2, -1, false, 0L, null, "SELECT ...");
+
+        try (ImportReader r = reader(ResultExports.toCsv(grid), ImportReader.Format.CSV)) {
+            assertThat(r.header()).containsExactly("id", "note");
+            List<Map<String, Object>> records = all(r);
+            assertThat(records).hasSize(2);
+            assertThat(records.get(0)).containsEntry("note", "Doe, Jane");
+            assertThat(records.get(1)).containsEntry("note", "said \"hi\"\nthen left");
+            assertThat(r.fraction()).isEqualTo(1.0);
+        }
+    }
+
+    @Test
+    @DisplayName("Bare-LF files, a BOM and trailing blank lines are tolerated; short rows pad with null")
+    void csvLeniencies() throws IOException {
+        try (ImportReader r = reader("\uFEFFa,b,c\n1,2,3\n4\n\n", ImportReader.Format.CSV)) {
+            assertThat(r.header()).containsExactly("a", "b", "c");
+            List<Map<String, Object>> records = all(r);
+            assertThat(records).hasSize(2);
+            assertThat(records.get(1)).containsEntry("a", "4").containsEntry("b", null);
+        }
+    }
+
+    @Test
+    @DisplayName("A row wider than the header and an unterminated quote fail with the line number")
+    void csvMalformed() throws IOException {
+        try (ImportReader r = reader("a,b\n1,2\n1,2,3\n", ImportReader.Format.CSV)) {
+            r.next();
+            assertThatIOException().isThrownBy(r::next).withMessageContaining("Line 3");
+        }
+        try (ImportReader r = reader("a\n\"never closed\n", ImportReader.Format.CSV)) {
+            assertThatIOException().isThrownBy(r::next).withMessageContaining("unterminated");
+        }
+        assertThatIOException().isThrownBy(() -> reader("", ImportReader.Format.CSV))
+                .withMessageContaining("empty");
+    }
+
+    @Test
+    @DisplayName("A field past the cap fails instead of buffering without bound")
+    void csvFieldCap() throws IOException {
+        String huge = "x".repeat(ImportReader.MAX_FIELD_CHARS + 1);
+        try (ImportReader r = reader("a\n" + huge + "\n", ImportReader.Format.CSV)) {
+            assertThatIOException().isThrownBy(r::next).withMessageContaining("exceeds");
+        }
+    }
+
+    @Test
+    @DisplayName("NDJSON yields one typed record per line; JSON null becomes null, nesting survives")
+    void ndjson() throws IOException {
+        String text = "{\"id\":1,\"name\":\"ada\",\"tags\":{\"x\":1}}\n\n{\"id\":2,\"name\":null}\n";
+        try (ImportReader r = reader(text, ImportReader.Format.NDJSON)) {
+            assertThat(r.header()).isEmpty();
+            List<Map<String, Object>> records = all(r);
+            assertThat(records).hasSize(2);
+            assertThat(records.get(0).get("id")).isEqualTo(1);
+            assertThat(records.get(0).get("tags")).isInstanceOf(JSONObject.class);
+            assertThat(records.get(1)).containsEntry("name", null);
+        }
+    }
+
+    @Test
+    @DisplayName("A pretty-printed JSON array is refused with the NDJSON hint; garbage names its line")
+    void ndjsonRefusals() throws IOException {
+        try (ImportReader r = reader("[\n{\"a\":1}\n]", ImportReader.Format.NDJSON)) {
+            assertThatIOException().isThrownBy(r::next).withMessageContaining("newline-delimited");
+        }
+        try (ImportReader r = reader("{\"a\":1}\nnot json\n", ImportReader.Format.NDJSON)) {
+            r.next();
+            assertThatIOException().isThrownBy(r::next).withMessageContaining("Line 2");
+        }
+    }
+
+    @Test
+    @DisplayName("The format follows the file extension")
+    void formatForFileName() {
+        assertThat(ImportReader.Format.forFileName("users.CSV")).isEqualTo(ImportReader.Format.CSV);
+        assertThat(ImportReader.Format.forFileName("dump.ndjson")).isEqualTo(ImportReader.Format.NDJSON);
+        assertThat(ImportReader.Format.forFileName("dump.jsonl")).isEqualTo(ImportReader.Format.NDJSON);
+        assertThat(ImportReader.Format.forFileName("notes.txt")).isNull();
+        assertThat(ImportReader.Format.forFileName(null)).isNull();
+    }
+}
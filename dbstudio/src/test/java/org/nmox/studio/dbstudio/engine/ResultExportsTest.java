@@ -180,6 +180,35 @@ class ResultExportsTest {
         assertThat(parsed.getJSONObject(0).isNull("b")).isTrue();
     }
 
+    @Test
+    @DisplayName("The streamed JSON is byte-identical to JSONArray.toString(2) for 0, 1 and many rows")
+    void jsonStreamMatchesOrgJsonLayout() {
+        for (List<List<String>> rows : List.of(List.<List<String>>of(),
+                List.of(List.of("1", "Ann")),
+                List.of(List.of("1", "Ann"), List.of("2", "Bob"), List.of("3", "Cy")))) {
+            QueryResult r = grid(List.of("id", "name"), rows);
+            JSONArray expected = new JSONArray();
+            for (List<String> row : rows) {
+                expected.put(new JSONObject().put("id", row.get(0)).put("name", row.get(1)));
+            }
+
+            assertThat(ResultExports.toJson(r)).isEqualTo(expected.toString(2));
+        }
+    }
+
+    @Test
+    @DisplayName("writeCsv streams the same bytes toCsv returns")
+    void csvStreamMatchesString() throws Exception {
+        QueryResult r = grid(List.of("a", "b"),
+                List.of(List.of("1", "x,y"), Arrays.asList("2", null)));
+        java.io.StringWriter out = new java.io.StringWriter();
+
+        ResultExports.writeCsv(r, out);
+
+        assertThat(out.toString()).isEqualTo(ResultExports.toCsv(r))
+                .isEqualTo("a,b\r\n1,\"x,y\"\r\n2,\r\n");
+    }
+
     // ---- suggestedBaseName ----
 
     @Test
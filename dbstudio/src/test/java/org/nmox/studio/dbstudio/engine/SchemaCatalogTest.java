@@ -0,0 +1,157 @@
+package org.nmox.studio.dbstudio.engine;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nmox.studio.dbstudio.model.ColumnInfo;
+import org.nmox.studio.dbstudio.model.DbEngine;
+import org.nmox.studio.dbstudio.model.TableInfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The bulk catalog against a real SQLite file: the one-query fetch must
+ * agree exactly with the per-table {@code DatabaseMetaData} answers it
+ * replaces, and the metadata fallback path must agree too.
+ */
+class SchemaCatalogTest {
+
+    private static final String DDL = """
+            CREATE TABLE orders (id INTEGER PRIMARY KEY, code VARCHAR(20) NOT NULL, note,
+                                 total decimal(10,2), qty unsigned big int);
+            CREATE TABLE lines (order_id INTEGER NOT NULL, line INTEGER NOT NULL, sku TEXT,
+                                PRIMARY KEY (order_id, line));
+            CREATE VIEW big_orders AS SELECT id, code FROM orders WHERE total > 100;
+            """;
+
+    private static Connection sqlite(Path file) throws SQLException {
+        Connection connection = DriverManager.getConnection("jdbc:sqlite:" + file);
+        try (Statement st = connection.createStatement()) {
+            for (String statement : SqlSplitter.split(DDL)) {
+                st.execute(statement);
+            }
+        }
+        return connection;
+    }
+
+    @Test
+    @DisplayName("The SQLite bulk fetch matches per-table DatabaseMetaData exactly")
+    void sqliteBulkMatchesMetadata(@TempDir Path dir) throws SQLException {
+        try (Connection connection = sqlite(dir.resolve("parity.db"))) {
+            SchemaCatalog catalog = SchemaCatalog.fetch(connection, DbEngine.SQLITE, null, "t");
+
+            List<TableInfo> live = JdbcCore.listTables(connection, null, null, "t");
+            assertThat(catalog.tables()).containsExactlyElementsOf(live);
+            for (TableInfo table : live) {
+                assertThat(catalog.columns(table)).as(table.name())
+                        .containsExactlyElementsOf(JdbcCore.columns(connection, table));
+            }
+            assertThat(catalog.columns(live.stream()
+                    .filter(t -> t.name().equals("lines")).findFirst().orElseThrow()))
+                    .filteredOn(ColumnInfo::primaryKey).extracting(ColumnInfo::name)
+                    .containsExactly("order_id", "line");
+        }
+    }
+
+    @Test
+    @DisplayName("The portable metadata path (unknown engine) agrees with the bulk path")
+    void metadataPathAgrees(@TempDir Path dir) throws SQLException {
+        try (Connection connection = sqlite(dir.resolve("portable.db"))) {
+            SchemaCatalog bulk = SchemaCatalog.fetch(connection, DbEngine.SQLITE, null, "t");
+            SchemaCatalog portable = SchemaCatalog.fetch(connection, null, null, "t");
+
+            assertThat(portable.sameSchemaAs(bulk)).isTrue();
+        }
+    }
+
+    @Test
+    @DisplayName("A failed fetch is null, never an exception")
+    void failedFetchIsNull(@TempDir Path dir) throws SQLException {
+        Connection closed = DriverManager.getConnection("jdbc:sqlite:" + dir.resolve("x.db"));
+        closed.close();
+
+        assertThat(SchemaCatalog.fetch(closed, DbEngine.SQLITE, null, "t")).isNull();
+    }
+
+    @Test
+    @DisplayName("JSON round-trips; malformed or foreign-version JSON is a miss")
+    void jsonRoundTrip() {
+        SchemaCatalog catalog = sample();
+
+        SchemaCatalog back = SchemaCatalog.fromJson(catalog.toJson());
+
+        assertThat(back.sameSchemaAs(catalog)).isTrue();
+        assertThat(back.fetchedAtMs()).isEqualTo(42L);
+        assertThat(SchemaCatalog.fromJson("{not json")).isNull();
+        assertThat(SchemaCatalog.fromJson("{\"version\":99,\"tables\":[]}")).isNull();
+        assertThat(SchemaCatalog.fromJson(null)).isNull();
+    }
+
+    @Test
+    @DisplayName("Tables come out in JDBC order: type, catalog, schema, name")
+    void jdbcOrder() {
+        assertThat(sample().tables()).extracting(t -> t.schema() + "." + t.name())
+                .containsExactly("billing.accounts", "public.accounts", "public.users",
+                        "public.active_users");
+    }
+
+    @Test
+    @DisplayName("columns() matches exactly, then a unique blank-scoped name, else null")
+    void columnLookup() {
+        SchemaCatalog catalog = sample();
+
+        assertThat(catalog.columns(new TableInfo("", "public", "users", "TABLE")))
+                .extracting(ColumnInfo::name).containsExactly("id", "email");
+        assertThat(catalog.columns(new TableInfo("", "", "USERS", "TABLE")))
+                .as("EditGate's synthesized key for an unqualified name").isNotNull();
+        assertThat(catalog.columns(new TableInfo("", "", "accounts", "TABLE")))
+                .as("two schemas hold accounts: ambiguous").isNull();
+        assertThat(catalog.columns(new TableInfo("", "billing", "accounts", "TABLE")))
+                .hasSize(1);
+        assertThat(catalog.columns(new TableInfo("", "", "nope", "TABLE"))).isNull();
+    }
+
+    @Test
+    @DisplayName("changesSchema spots CREATE/ALTER/DROP/RENAME behind comments, nothing else")
+    void changesSchema() {
+        assertThat(SchemaCatalog.changesSchema("create table t (id int)")).isTrue();
+        assertThat(SchemaCatalog.changesSchema("-- note\n/* x */ ALTER TABLE t ADD c int")).isTrue();
+        assertThat(SchemaCatalog.changesSchema("DROP VIEW v")).isTrue();
+        assertThat(SchemaCatalog.changesSchema("RENAME TABLE a TO b")).isTrue();
+        assertThat(SchemaCatalog.changesSchema("SELECT 'create'")).isFalse();
+        assertThat(SchemaCatalog.changesSchema("INSERT INTO t VALUES (1)")).isFalse();
+        assertThat(SchemaCatalog.changesSchema(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("sqlite-jdbc's type-name and size spellings are reproduced")
+    void sqliteShapes() {
+        assertThat(SchemaCatalog.sqliteTypeName("varchar(20)")).isEqualTo("VARCHAR");
+        assertThat(SchemaCatalog.sqliteTypeName("")).isEmpty();
+        assertThat(SchemaCatalog.sqliteSize("VARCHAR(20)")).isEqualTo(20);
+        assertThat(SchemaCatalog.sqliteSize("decimal(10,2)")).isEqualTo(12);
+        assertThat(SchemaCatalog.sqliteSize("TEXT")).isEqualTo(2_000_000_000);
+    }
+
+    private static SchemaCatalog sample() {
+        Map<TableInfo, List<ColumnInfo>> map = new LinkedHashMap<>();
+        map.put(new TableInfo("", "public", "active_users", "VIEW"),
+                List.of(new ColumnInfo("id", "int4", 10, true, false)));
+        map.put(new TableInfo("", "public", "users", "TABLE"), List.of(
+                new ColumnInfo("id", "int4", 10, false, true),
+                new ColumnInfo("email", "varchar", 255, true, false)));
+        map.put(new TableInfo("", "billing", "accounts", "TABLE"),
+                List.of(new ColumnInfo("id", "int8", 19, false, true)));
+        map.put(new TableInfo("", "public", "accounts", "TABLE"),
+                List.of(new ColumnInfo("id", "int8", 19, false, true)));
+        return new SchemaCatalog(map, 42L);
+    }
+}
@@ -0,0 +1,72 @@
+package org.nmox.studio.dbstudio.io;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nmox.studio.dbstudio.engine.SchemaCatalog;
+import org.nmox.studio.dbstudio.model.ColumnInfo;
+import org.nmox.studio.dbstudio.model.ConnectionSpec;
+import org.nmox.studio.dbstudio.model.DbEngine;
+import org.nmox.studio.dbstudio.model.TableInfo;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogStoreTest {
+
+    private static final ConnectionSpec SPEC = new ConnectionSpec("spec-1", "staging",
+            DbEngine.POSTGRES, "db.example", 5432, "app", "ada", null);
+
+    private static final SchemaCatalog CATALOG = new SchemaCatalog(Map.of(
+            new TableInfo("", "public", "users", "TABLE"),
+            List.of(new ColumnInfo("id", "int4", 10, false, true))), 7L);
+
+    @Test
+    @DisplayName("A saved catalog loads back for the same spec")
+    void roundTrip(@TempDir Path dir) {
+        CatalogStore store = new CatalogStore(dir);
+        store.save(SPEC, CATALOG);
+
+        SchemaCatalog loaded = store.load(SPEC);
+
+        assertThat(loaded).isNotNull();
+        assertThat(loaded.sameSchemaAs(CATALOG)).isTrue();
+        assertThat(store.tablesFor(List.of(SPEC)))
+                .containsOnlyKeys("spec-1")
+                .extractingByKey("spec-1").asList().hasSize(1);
+    }
+
+    @Test
+    @DisplayName("A spec edited to point elsewhere misses instead of showing the old schema")
+    void retargetedSpecMisses(@TempDir Path dir) {
+        CatalogStore store = new CatalogStore(dir);
+        store.save(SPEC, CATALOG);
+        ConnectionSpec moved = new ConnectionSpec("spec-1", "staging", DbEngine.POSTGRES,
+                "db.example", 5432, "other_db", "ada", null);
+
+        assertThat(store.load(moved)).isNull();
+        assertThat(store.tablesFor(List.of(moved))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Corrupt files and forgotten specs read as misses; a null dir is a no-op")
+    void missesAndNoOp(@TempDir Path dir) throws Exception {
+        CatalogStore store = new CatalogStore(dir);
+        store.save(SPEC, CATALOG);
+        Files.writeString(store.fileFor(SPEC), "{torn");
+        assertThat(store.load(SPEC)).isNull();
+
+        store.save(SPEC, CATALOG);
+        store.forget(SPEC);
+        assertThat(store.load(SPEC)).isNull();
+        assertThat(Files.exists(store.fileFor(SPEC))).isFalse();
+
+        CatalogStore none = new CatalogStore(null);
+        none.save(SPEC, CATALOG);
+        assertThat(none.load(SPEC)).isNull();
+        none.forget(SPEC);
+    }
+}
@@ -12,6 +12,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.nmox.studio.editor.find.ContentIndex;
 
 /**
  * The project's component selectors (the Angular-top arc, 2026-08-11):
@@ -57,30 +58,45 @@ public final class NgSelectors {
     /** Every component selector under {@code root}; empty when none. */
     public static List<Decl> scanProject(File root) {
         List<Decl> out = new ArrayList<>();
-        if (root == null || !root.isDirectory()) {
-            return out;
+        for (File ts : sources(root)) {
+            out.addAll(declsOf(ts));
         }
-        int[] budget = {MAX_FILES};
-        walk(root, out, budget, 0);
         return out;
     }
 
-    /** The declaration whose selector list contains {@code tag}, or null. */
+    /**
+     * The declaration whose selector list contains {@code tag}, or null.
+     * Only the sources the project's content index cannot rule out are
+     * read — a file without the tag's text declares no selector for it.
+     */
     public static Decl find(File root, String tag) {
         if (tag == null || tag.isBlank()) {
             return null;
         }
-        for (Decl d : scanProject(root)) {
-            for (String part : d.selector().split(",")) {
-                if (part.trim().equals(tag)) {
-                    return d;
+        List<File> sources = ContentIndex.narrowed(root, sources(root), tag.trim());
+        for (File ts : sources) {
+            for (Decl d : declsOf(ts)) {
+                for (String part : d.selector().split(",")) {
+                    if (part.trim().equals(tag)) {
+                        return d;
+                    }
                 }
             }
         }
         return null;
     }
 
-    private static void walk(File dir, List<Decl> out, int[] budget, int depth) {
+    /** The bounded walk's component sources, in walk order. */
+    private static List<File> sources(File root) {
+        List<File> out = new ArrayList<>();
+        if (root != null && root.isDirectory()) {
+            int[] budget = {MAX_FILES};
+            walk(root, out, budget, 0);
+        }
+        return out;
+    }
+
+    private static void walk(File dir, List<File> out, int[] budget, int depth) {
         if (depth > 12 || budget[0] <= 0) {
             return;
         }
@@ -100,7 +116,7 @@ public final class NgSelectors {
             } else if (name.endsWith(".ts") && !name.endsWith(".spec.ts")
                     && !name.endsWith(".d.ts")) {
                 budget[0]--;
-                out.addAll(declsOf(f));
+                out.add(f);
             }
         }
     }
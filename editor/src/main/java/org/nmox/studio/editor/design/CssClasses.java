@@ -10,6 +10,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.nmox.studio.editor.find.ContentIndex;
 
 /**
  * Class selectors as data (v2.27.0): the {@code class} attribute is the
@@ -327,7 +328,8 @@ public final class CssClasses {
      * Every {@code class="…"} usage of {@code name} across the
      * project's markup files, capped at {@code cap} — a click-time
      * query, bounded by the same walk as the scans but uncached (a
-     * usage list is wanted once, not on every keystroke). Callers run
+     * usage list is wanted once, not on every keystroke) — and only the
+     * markup the content index cannot rule out is read. Callers run
      * this OFF the EDT.
      */
     public static List<Usage> findUsages(File root, String name, int cap) {
@@ -335,7 +337,7 @@ public final class CssClasses {
         if (root == null || !root.isDirectory() || name == null || name.isEmpty()) {
             return out;
         }
-        for (File f : CssTokens.collectStylesheets(root)) {
+        for (File f : ContentIndex.narrowed(root, CssTokens.collectStylesheets(root), name)) {
             if (!isMarkupFile(f.getName())) {
                 continue;
             }
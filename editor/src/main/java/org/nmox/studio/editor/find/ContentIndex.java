@@ -0,0 +1,812 @@
+package org.nmox.studio.editor.find;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import org.openide.filesystems.FileAttributeEvent;
+import org.openide.filesystems.FileChangeListener;
+import org.openide.filesystems.FileEvent;
+import org.openide.filesystems.FileRenameEvent;
+import org.openide.filesystems.FileUtil;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Which files of a project can contain a string — answered from a
+ * trigram index instead of by reading them. The project jumps
+ * ({@code CssClasses.findUsages}, {@code NgSelectors.find}) and Find in
+ * Project used to read every file their walk produced, per click; with
+ * the index they read only the files holding every three-character
+ * slice of the subject, which for a class name or a selector is a
+ * handful. (Route navigation keeps its own table: a concrete path like
+ * {@code /api/users/42} is not text in the file that serves it.)
+ *
+ * <p>Every text file under the root is indexed — the walk skips the
+ * same dependency and output trees the scanners skip, plus dot
+ * directories. Trigrams are case-folded and stored as posting lists of
+ * file ids, so a case-sensitive query narrows through the same lists as
+ * an insensitive one (folding only adds candidates). Non-ASCII
+ * trigrams are hashed into a fixed range; a collision adds a candidate,
+ * never loses one. Files over {@link #MAX_FILE_BYTES} or unreadable are
+ * recorded as UNINDEXED and are candidates for every query; binary
+ * files (a NUL in the first block) are candidates for none.
+ *
+ * <p>Fresh three ways. {@link #refresh()} walks the tree and re-reads
+ * only files whose mtime or size moved (the {@code ImportGraph}
+ * idiom); {@link #watch()} hangs a recursive file-system listener on
+ * the root so saves re-index in the background; and
+ * {@link #narrow(List, String)} stats each file the caller hands it
+ * before trusting the index about it — a click never acts on a stale
+ * answer, whether or not an event arrived. A changed file gets a new
+ * id and its old postings are tombstoned until compaction, so an edit
+ * costs one file read and no posting-list surgery.
+ *
+ * <p>Persisted to {@code .nmox/content-index.bin} under the root, so a
+ * restart re-validates by stat instead of rebuilding. A missing or
+ * corrupt store is an empty index, never an error.
+ */
+public final class ContentIndex {
+
+    private static final Set<String> SKIP_DIRS = Set.of(
+            "node_modules", ".git", "dist", "build", "out", "coverage",
+            "target", ".next", ".nuxt", ".angular", ".svelte-kit", ".cache", ".idea");
+    static final int MAX_DEPTH = 12;
+    static final int MAX_FILES = 10_000;
+    static final long MAX_FILE_BYTES = 512 * 1024;
+    private static final int SNIFF_BYTES = 8 * 1024;
+
+    static final String STORE = ".nmox/content-index.bin";
+    private static final int MAGIC = 0x4E4D5833;
+    private static final int VERSION = 1;
+
+    /** Events in a burst (a git checkout, a formatter run) flush once. */
+    private static final int SETTLE_MS = 750;
+    private static final int OPEN_CAP = 8;
+
+    private static final RequestProcessor RP = new RequestProcessor("nmox-content-index", 1);
+    private static final Map<Path, ContentIndex> OPEN = new ConcurrentHashMap<>();
+
+    private static final byte TEXT = 0;
+    private static final byte BINARY = 1;
+    private static final byte UNINDEXED = 2;
+
+    private record Doc(Path path, long modified, long size, byte kind) {
+    }
+
+    /** One trigram's file ids, ascending (ids only grow between compactions). */
+    private static final class Posting {
+        int[] ids = new int[4];
+        int n;
+
+        void add(int id) {
+            if (n == ids.length) {
+                ids = Arrays.copyOf(ids, n * 2);
+            }
+            ids[n++] = id;
+        }
+    }
+
+    private final Path root;
+    private final Path store;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Doc> docs = new ArrayList<>();           // id -> doc, null once tombstoned
+    private final Map<Path, Integer> ids = new HashMap<>();
+    private final Map<Integer, Posting> postings = new HashMap<>();
+    private final BitSet unindexed = new BitSet();
+    private final Set<Path> dirty = ConcurrentHashMap.newKeySet();
+    private final RequestProcessor.Task flush = RP.create(this::flush);
+    private volatile boolean walkNeeded;
+    private boolean loaded;
+    private boolean unsaved;
+    private int dead;
+    private int reads;
+    private FileChangeListener listener;
+
+    ContentIndex(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+        this.store = this.root.resolve(STORE);
+    }
+
+    /**
+     * The index of {@code root}, shared by every caller that names the
+     * same directory; null for a non-directory. Nothing is read until
+     * the first query or {@link #refresh()}.
+     */
+    public static ContentIndex of(File root) {
+        if (root == null || !root.isDirectory()) {
+            return null;
+        }
+        Path key = root.toPath().toAbsolutePath().normalize();
+        ContentIndex index = OPEN.get(key);
+        if (index != null) {
+            return index;
+        }
+        if (OPEN.size() >= OPEN_CAP) {
+            // bounded by wholesale eviction (the NgTemplates idiom); a
+            // watched index stays — its listener is the aim's
+            OPEN.values().removeIf(i -> i.listener == null);
+        }
+        return OPEN.computeIfAbsent(key, ContentIndex::new);
+    }
+
+    /**
+     * {@code files} without the ones the index proves cannot contain
+     * {@code literal} — the one-line hook for a scanner about to read
+     * its walk. Any file the index does not know, cannot vouch for, or
+     * has not caught up with stays in; so does everything when the
+     * literal is too short to narrow or the index is busy building.
+     */
+    public static List<File> narrowed(File root, List<File> files, String literal) {
+        ContentIndex index = of(root);
+        return index == null ? files : index.narrow(files, literal);
+    }
+
+    /** The project root the index covers (absolute, normalized). */
+    public Path root() {
+        return root;
+    }
+
+    // ---- building ---------------------------------------------------------
+
+    /**
+     * Brings the index up to date with the tree: new and changed files
+     * are (re)read, vanished ones dropped, the rest kept; the store is
+     * rewritten when anything moved. Callers run this OFF the EDT.
+     * @return how many files were read this time
+     */
+    public int refresh() {
+        lock.lock();
+        try {
+            load();
+            walkNeeded = false;
+            dirty.clear();
+            Map<Path, BasicFileAttributes> seen = walk();
+            int read = 0;
+            for (Path known : new ArrayList<>(ids.keySet())) {
+                if (!seen.containsKey(known)) {
+                    drop(known);
+                }
+            }
+            for (Map.Entry<Path, BasicFileAttributes> e : seen.entrySet()) {
+                BasicFileAttributes a = e.getValue();
+                if (sync(e.getKey(), a.lastModifiedTime().toMillis(), a.size())) {
+                    read++;
+                }
+            }
+            compactIfWorthIt();
+            save();
+            return read;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Map<Path, BasicFileAttributes> walk() {
+        Map<Path, BasicFileAttributes> seen = new LinkedHashMap<>();
+        try {
+            Files.walkFileTree(root, Set.of(), MAX_DEPTH, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return dir.equals(root) || admitsDir(dir.getFileName().toString())
+                            ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        seen.put(file, attrs);
+                    }
+                    return seen.size() >= MAX_FILES ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            // a tree we cannot walk keeps the index we had
+        }
+        return seen;
+    }
+
+    private static boolean admitsDir(String name) {
+        return !SKIP_DIRS.contains(name) && !name.startsWith(".");
+    }
+
+    /** True when {@code file} lies where the walk would have found it. */
+    boolean admits(Path file) {
+        Path p = file.toAbsolutePath().normalize();
+        if (!p.startsWith(root) || p.equals(root)) {
+            return false;
+        }
+        Path rel = root.relativize(p);
+        if (rel.getNameCount() > MAX_DEPTH) {
+            return false;
+        }
+        for (int i = 0; i < rel.getNameCount() - 1; i++) {
+            if (!admitsDir(rel.getName(i).toString())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Re-reads {@code file} unless the index already holds this stat of it; true when read. */
+    private boolean sync(Path file, long modified, long size) {
+        Integer id = ids.get(file);
+        if (id != null) {
+            Doc had = docs.get(id);
+            if (had.modified() == modified && had.size() == size) {
+                return false;
+            }
+            drop(file);
+        }
+        if (ids.size() >= MAX_FILES) {
+            return false;
+        }
+        add(file, modified, size);
+        return true;
+    }
+
+    private void add(Path file, long modified, long size) {
+        int id = docs.size();
+        byte kind = UNINDEXED;
+        int[] grams = null;
+        if (size <= MAX_FILE_BYTES) {
+            try {
+                byte[] bytes = Files.readAllBytes(file);
+                reads++;
+                if (isBinary(bytes)) {
+                    kind = BINARY;
+                } else {
+                    kind = TEXT;
+                    grams = grams(new String(bytes, StandardCharsets.UTF_8));
+                }
+            } catch (IOException | OutOfMemoryError unreadable) {
+                // stays UNINDEXED: a candidate for everything
+            }
+        }
+        docs.add(new Doc(file, modified, size, kind));
+        ids.put(file, id);
+        if (kind == UNINDEXED) {
+            unindexed.set(id);
+        }
+        if (grams != null) {
+            for (int g : grams) {
+                postings.computeIfAbsent(g, k -> new Posting()).add(id);
+            }
+        }
+        unsaved = true;
+    }
+
+    private void drop(Path file) {
+        Integer id = ids.remove(file);
+        if (id != null) {
+            docs.set(id, null);
+            unindexed.clear(id);
+            dead++;
+            unsaved = true;
+        }
+    }
+
+    private static boolean isBinary(byte[] bytes) {
+        for (int i = 0, n = Math.min(bytes.length, SNIFF_BYTES); i < n; i++) {
+            if (bytes[i] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Rewrites ids densely once tombstones outnumber a third of the docs. */
+    private void compactIfWorthIt() {
+        if (dead > 0 && dead * 3 >= docs.size()) {
+            compact();
+        }
+    }
+
+    private void compact() {
+        int[] remap = new int[docs.size()];
+        List<Doc> live = new ArrayList<>(docs.size() - dead);
+        BitSet keptUnindexed = new BitSet();
+        for (int id = 0; id < docs.size(); id++) {
+            Doc d = docs.get(id);
+            if (d == null) {
+                remap[id] = -1;
+            } else {
+                remap[id] = live.size();
+                if (unindexed.get(id)) {
+                    keptUnindexed.set(live.size());
+                }
+                live.add(d);
+            }
+        }
+        postings.values().removeIf(p -> {
+            int w = 0;
+            for (int i = 0; i < p.n; i++) {
+                int to = remap[p.ids[i]];
+                if (to >= 0) {
+                    p.ids[w++] = to;
+                }
+            }
+            p.n = w;
+            return w == 0;
+        });
+        docs.clear();
+        docs.addAll(live);
+        ids.clear();
+        for (int id = 0; id < docs.size(); id++) {
+            ids.put(docs.get(id).path(), id);
+        }
+        unindexed.clear();
+        unindexed.or(keptUnindexed);
+        dead = 0;
+    }
+
+    // ---- trigrams ---------------------------------------------------------
+
+    /** The distinct folded trigrams of {@code text}, ascending. */
+    static int[] grams(CharSequence text) {
+        int n = text.length() - 2;
+        if (n <= 0) {
+            return new int[0];
+        }
+        int[] out = new int[n];
+        char a = Character.toLowerCase(text.charAt(0));
+        char b = Character.toLowerCase(text.charAt(1));
+        for (int i = 0; i < n; i++) {
+            char c = Character.toLowerCase(text.charAt(i + 2));
+            out[i] = gram(a, b, c);
+            a = b;
+            b = c;
+        }
+        Arrays.sort(out);
+        int w = 1;
+        for (int i = 1; i < n; i++) {
+            if (out[i] != out[w - 1]) {
+                out[w++] = out[i];
+            }
+        }
+        return Arrays.copyOf(out, w);
+    }
+
+    /** ASCII trigrams pack exactly into 21 bits; the rest hash above them. */
+    private static int gram(char a, char b, char c) {
+        if ((a | b | c) < 128) {
+            return (a << 14) | (b << 7) | c;
+        }
+        return (1 << 21) | (((a * 31 + b) * 31 + c) & 0x1F_FFFF);
+    }
+
+    // ---- querying ---------------------------------------------------------
+
+    /**
+     * See {@link #narrowed}. Each file handed in is stat'ed and, when
+     * the index's copy is missing or stale, re-read on the spot — the
+     * read the caller was about to make anyway, paid once.
+     */
+    public List<File> narrow(List<File> files, String literal) {
+        return narrow(files, literal == null ? null : List.of(List.of(literal)));
+    }
+
+    /** {@link #narrow(List, String)} for a regular expression's required literals. */
+    public List<File> narrow(List<File> files, Pattern regex) {
+        return narrow(files, RegexLiterals.required(regex));
+    }
+
+    private List<File> narrow(List<File> files, List<List<String>> query) {
+        if (!narrows(query) || files.isEmpty() || !lock.tryLock()) {
+            // never wait behind a build: the caller's full read is the
+            // honest fallback, and it is bounded by the caller's caps
+            return files;
+        }
+        try {
+            load();
+            List<Path> paths = new ArrayList<>(files.size());
+            BitSet gone = new BitSet();
+            for (int i = 0; i < files.size(); i++) {
+                File f = files.get(i);
+                Path p = f.toPath().toAbsolutePath().normalize();
+                paths.add(p);
+                if (admits(p)) {
+                    if (f.isFile()) {
+                        sync(p, f.lastModified(), f.length());
+                    } else {
+                        drop(p);
+                        gone.set(i);
+                    }
+                }
+            }
+            BitSet hits = evaluate(query);
+            List<File> out = new ArrayList<>();
+            for (int i = 0; i < files.size(); i++) {
+                Integer id = ids.get(paths.get(i));
+                if (!gone.get(i) && (id == null || hits.get(id))) {
+                    out.add(files.get(i));
+                }
+            }
+            if (unsaved) {
+                flush.schedule(SETTLE_MS);
+            }
+            return out;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Every file the index holds that may contain {@code literal} —
+     * after a {@link #refresh()}, in walk order. Binary files are never
+     * candidates; when the literal is too short to narrow, every other
+     * file is.
+     */
+    public List<Path> candidates(String literal) {
+        return candidates(literal == null ? null : List.of(List.of(literal)));
+    }
+
+    /** {@link #candidates(String)} for a regular expression's required literals. */
+    public List<Path> candidates(Pattern regex) {
+        return candidates(RegexLiterals.required(regex));
+    }
+
+    private List<Path> candidates(List<List<String>> query) {
+        refresh();
+        lock.lock();
+        try {
+            BitSet hits;
+            if (narrows(query)) {
+                hits = evaluate(query);
+            } else {
+                hits = new BitSet();
+                for (int id = 0; id < docs.size(); id++) {
+                    Doc d = docs.get(id);
+                    if (d != null && d.kind() != BINARY) {
+                        hits.set(id);
+                    }
+                }
+            }
+            List<Path> out = new ArrayList<>(hits.cardinality());
+            for (int id = hits.nextSetBit(0); id >= 0; id = hits.nextSetBit(id + 1)) {
+                out.add(docs.get(id).path());
+            }
+            return out;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A query is a disjunction of conjunctions of literals; it narrows
+     * only when every branch has a literal of three or more chars.
+     */
+    private static boolean narrows(List<List<String>> query) {
+        if (query == null || query.isEmpty()) {
+            return false;
+        }
+        for (List<String> branch : query) {
+            if (branch.stream().noneMatch(s -> s != null && s.length() >= 3)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private BitSet evaluate(List<List<String>> query) {
+        BitSet any = new BitSet();
+        for (List<String> branch : query) {
+            BitSet all = null;
+            for (String literal : branch) {
+                if (literal == null || literal.length() < 3) {
+                    continue;
+                }
+                BitSet one = lookup(literal);
+                if (all == null) {
+                    all = one;
+                } else {
+                    all.and(one);
+                }
+            }
+            any.or(all);
+        }
+        // the unindexed may hold anything; tombstones hold nothing
+        any.or(unindexed);
+        for (int id = any.nextSetBit(0); id >= 0; id = any.nextSetBit(id + 1)) {
+            if (docs.get(id) == null) {
+                any.clear(id);
+            }
+        }
+        return any;
+    }
+
+    /** Ids holding every trigram of {@code literal}: shortest list first, merged down. */
+    private BitSet lookup(String literal) {
+        int[] grams = grams(literal);
+        Posting[] lists = new Posting[grams.length];
+        for (int i = 0; i < grams.length; i++) {
+            lists[i] = postings.get(grams[i]);
+            if (lists[i] == null) {
+                return new BitSet();
+            }
+        }
+        Arrays.sort(lists, (x, y) -> Integer.compare(x.n, y.n));
+        int[] acc = Arrays.copyOf(lists[0].ids, lists[0].n);
+        int size = acc.length;
+        for (int l = 1; l < lists.length && size > 0; l++) {
+            Posting p = lists[l];
+            int w = 0;
+            int j = 0;
+            for (int i = 0; i < size && j < p.n; ) {
+                if (acc[i] == p.ids[j]) {
+                    acc[w++] = acc[i++];
+                    j++;
+                } else if (acc[i] < p.ids[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            size = w;
+        }
+        BitSet out = new BitSet();
+        for (int i = 0; i < size; i++) {
+            out.set(acc[i]);
+        }
+        return out;
+    }
+
+    /** Files held (tombstones excluded). */
+    public int size() {
+        lock.lock();
+        try {
+            return ids.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Test seam: files read since this instance was created. */
+    int reads() {
+        return reads;
+    }
+
+    // ---- events -----------------------------------------------------------
+
+    /**
+     * Re-index on the IDE's own file events: a changed, created or
+     * deleted file is re-read in the background after the burst
+     * settles; a folder created, deleted or renamed asks for a walk.
+     * Idempotent; {@link #unwatch()} detaches.
+     */
+    public synchronized void watch() {
+        if (listener != null) {
+            return;
+        }
+        listener = new FileChangeListener() {
+            @Override
+            public void fileFolderCreated(FileEvent fe) {
+                walkLater();
+            }
+
+            @Override
+            public void fileDataCreated(FileEvent fe) {
+                changed(fe);
+            }
+
+            @Override
+            public void fileChanged(FileEvent fe) {
+                changed(fe);
+            }
+
+            @Override
+            public void fileDeleted(FileEvent fe) {
+                if (fe.getFile().isFolder()) {
+                    walkLater();
+                } else {
+                    changed(fe);
+                }
+            }
+
+            @Override
+            public void fileRenamed(FileRenameEvent fe) {
+                walkLater();
+            }
+
+            @Override
+            public void fileAttributeChanged(FileAttributeEvent fe) {
+            }
+        };
+        try {
+            FileUtil.addRecursiveListener(listener, root.toFile());
+        } catch (RuntimeException noFilesystem) {
+            listener = null; // no masterfs (plain unit tests): stat checks still keep answers honest
+        }
+    }
+
+    /** Detaches the {@link #watch()} listener, if any. */
+    public synchronized void unwatch() {
+        if (listener != null) {
+            try {
+                FileUtil.removeRecursiveListener(listener, root.toFile());
+            } catch (RuntimeException gone) {
+                // the listener is dropped either way
+            }
+            listener = null;
+        }
+    }
+
+    private void changed(FileEvent fe) {
+        File f = FileUtil.toFile(fe.getFile());
+        if (f != null) {
+            changed(f.toPath());
+        }
+    }
+
+    /** Queues {@code file} for re-indexing after the burst settles. */
+    void changed(Path file) {
+        Path p = file.toAbsolutePath().normalize();
+        if (admits(p)) {
+            dirty.add(p);
+            flush.schedule(SETTLE_MS);
+        }
+    }
+
+    private void walkLater() {
+        walkNeeded = true;
+        flush.schedule(SETTLE_MS);
+    }
+
+    /** The settled-burst task: apply queued changes, then persist. */
+    void flush() {
+        if (walkNeeded) {
+            refresh();
+            return;
+        }
+        lock.lock();
+        try {
+            load();
+            for (Path p : List.copyOf(dirty)) {
+                dirty.remove(p);
+                try {
+                    BasicFileAttributes a = Files.readAttributes(p, BasicFileAttributes.class);
+                    if (a.isRegularFile()) {
+                        sync(p, a.lastModifiedTime().toMillis(), a.size());
+                    }
+                } catch (IOException gone) {
+                    drop(p);
+                }
+            }
+            compactIfWorthIt();
+            save();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---- persistence ------------------------------------------------------
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!Files.isRegularFile(store)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(store)))) {
+            read(in);
+        } catch (IOException | RuntimeException | OutOfMemoryError corrupt) {
+            docs.clear();
+            ids.clear();
+            postings.clear();
+            unindexed.clear();
+        }
+        unsaved = false;
+    }
+
+    private void read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            return;
+        }
+        int count = in.readInt();
+        for (int id = 0; id < count; id++) {
+            Path path = root.resolve(in.readUTF()).normalize();
+            Doc d = new Doc(path, in.readLong(), in.readLong(), in.readByte());
+            docs.add(d);
+            ids.put(path, id);
+            if (d.kind() == UNINDEXED) {
+                unindexed.set(id);
+            }
+        }
+        int grams = in.readInt();
+        for (int i = 0; i < grams; i++) {
+            Posting p = new Posting();
+            int gram = in.readInt();
+            p.n = in.readInt();
+            p.ids = new int[Math.max(1, p.n)];
+            for (int j = 0; j < p.n; j++) {
+                p.ids[j] = in.readInt();
+                if (p.ids[j] < 0 || p.ids[j] >= count) {
+                    throw new IOException("posting out of range");
+                }
+            }
+            postings.put(gram, p);
+        }
+    }
+
+    private void save() {
+        if (!unsaved || !Files.isDirectory(root)) {
+            return; // nothing new, or the project itself is gone
+        }
+        if (dead > 0) {
+            compact(); // the store is always written dense
+        }
+        try {
+            Files.createDirectories(store.getParent());
+            Path tmp = store.resolveSibling(store.getFileName() + ".tmp");
+            try (OutputStream raw = Files.newOutputStream(tmp);
+                    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(raw))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(docs.size());
+                for (Doc d : docs) {
+                    out.writeUTF(root.relativize(d.path()).toString().replace(File.separatorChar, '/'));
+                    out.writeLong(d.modified());
+                    out.writeLong(d.size());
+                    out.writeByte(d.kind());
+                }
+                out.writeInt(postings.size());
+                for (Map.Entry<Integer, Posting> e : postings.entrySet()) {
+                    Posting p = e.getValue();
+                    out.writeInt(e.getKey());
+                    out.writeInt(p.n);
+                    for (int j = 0; j < p.n; j++) {
+                        out.writeInt(p.ids[j]);
+                    }
+                }
+            }
+            Files.move(tmp, store, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            unsaved = false;
+        } catch (IOException | RuntimeException unwritable) {
+            // a read-only checkout keeps its index in memory only
+        }
+    }
+
+    /** Test seam: forget every open index (stores on disk stay). */
+    static void forgetForTest() {
+        OPEN.values().forEach(ContentIndex::unwatch);
+        OPEN.clear();
+    }
+
+    /** Reads {@code file} as the index does, for callers matching what it narrowed. */
+    static String readText(Path file, long cap) {
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] bytes = in.readNBytes((int) Math.min(cap, Integer.MAX_VALUE - 8));
+            return isBinary(bytes) ? null : new String(bytes, StandardCharsets.UTF_8);
+        } catch (IOException unreadable) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.nmox.studio.editor.find;
+
+import java.io.File;
+import org.nmox.studio.core.spi.ProjectAim;
+import org.openide.modules.OnStart;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Builds the aimed project's {@link ContentIndex} in the background and
+ * keeps it on the IDE's file events, so the first ⌘-click or Find in
+ * Project after an aim reads a handful of files instead of the tree.
+ * The previous aim's index is unwatched (its store stays on disk for
+ * the next visit). Never the home directory's default aim, and
+ * {@code -Dnmox.index.prewarm=false} turns it off.
+ */
+@OnStart
+public final class ContentIndexWarmup implements Runnable {
+
+    /** Aims in quick succession (a recent-projects walk) build only the last. */
+    private static final int SETTLE_MS = 1500;
+
+    private static final RequestProcessor RP = new RequestProcessor("nmox-content-index-warmup", 1, true);
+    private static final RequestProcessor.Task WARM = RP.create(ContentIndexWarmup::warmAimed);
+    private static ContentIndex watched;
+
+    @Override
+    public void run() {
+        if (!Boolean.parseBoolean(System.getProperty("nmox.index.prewarm", "true"))) {
+            return;
+        }
+        ProjectAim aim = ProjectAim.find();
+        if (aim == null) {
+            return;
+        }
+        aim.addListener(() -> WARM.schedule(SETTLE_MS));
+        WARM.schedule(SETTLE_MS); // the project restored at startup counts as aimed
+    }
+
+    private static void warmAimed() {
+        ProjectAim aim = ProjectAim.find();
+        File dir = aim == null ? null : aim.projectDir();
+        ContentIndex index = dir == null || dir.equals(new File(System.getProperty("user.home")))
+                ? null : ContentIndex.of(dir);
+        if (watched != null && watched != index) {
+            watched.unwatch();
+        }
+        watched = index;
+        if (index != null) {
+            index.watch();
+            index.refresh();
+        }
+    }
+}
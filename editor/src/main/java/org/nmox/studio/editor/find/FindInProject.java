@@ -0,0 +1,109 @@
+package org.nmox.studio.editor.find;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Find in Project's engine: a literal or a regular expression, matched
+ * line by line across the project's text files — reading only the
+ * files {@link ContentIndex} cannot rule out. The index answers "which
+ * files", this class answers "where in them", so what the user sees is
+ * always the files' current text, never the index's idea of it.
+ *
+ * <p>One hit per matching line (the list is for jumping, not counting),
+ * capped; an invalid pattern comes back as the result's error, never as
+ * an exception. Callers run this OFF the EDT.
+ */
+public final class FindInProject {
+
+    /** Hits kept before the search stops reading. */
+    public static final int HIT_CAP = 1_000;
+    /** An unindexed (oversized) candidate is read up to here. */
+    static final long MAX_READ_BYTES = 4L * 1024 * 1024;
+    private static final int PREVIEW_CHARS = 200;
+
+    /** One matching line: 0-based line and column, the match's offset, the line's text. */
+    public record Hit(File file, int line, int column, int offset, String text) {
+    }
+
+    /**
+     * What a search found: the hits, how many files were read to find
+     * them out of how many the index holds, whether the cap cut it
+     * short, and the pattern error (null when the query compiled).
+     */
+    public record Result(List<Hit> hits, int read, int indexed, boolean capped, String error) {
+
+        static Result error(String message) {
+            return new Result(List.of(), 0, 0, false, message);
+        }
+    }
+
+    private FindInProject() {
+    }
+
+    /** Searches {@code root} for {@code query}; see the class comment. */
+    public static Result search(File root, String query, boolean regex, boolean matchCase, int cap) {
+        if (query == null || query.isEmpty()) {
+            return Result.error("Nothing to find");
+        }
+        ContentIndex index = ContentIndex.of(root);
+        if (index == null) {
+            return Result.error("No project folder to search");
+        }
+        Pattern pattern;
+        try {
+            int flags = (regex ? 0 : Pattern.LITERAL)
+                    | (matchCase ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE)
+                    | Pattern.MULTILINE;
+            pattern = Pattern.compile(query, flags);
+        } catch (PatternSyntaxException bad) {
+            return Result.error(bad.getDescription() + " near index " + bad.getIndex());
+        }
+        List<Path> candidates = new ArrayList<>(index.candidates(pattern));
+        candidates.sort(null); // walk order is the directory's; the list reads by path
+        List<Hit> hits = new ArrayList<>();
+        int read = 0;
+        for (Path file : candidates) {
+            if (hits.size() >= cap) {
+                break;
+            }
+            String text = ContentIndex.readText(file, MAX_READ_BYTES);
+            read++;
+            if (text != null) {
+                collect(file.toFile(), text, pattern, hits, cap);
+            }
+        }
+        return new Result(List.copyOf(hits), read, index.size(), hits.size() >= cap, null);
+    }
+
+    static void collect(File file, String text, Pattern pattern, List<Hit> hits, int cap) {
+        Matcher m = pattern.matcher(text);
+        int line = 0;
+        int lineStart = 0;
+        int scanned = 0;
+        int lastLine = -1;
+        while (hits.size() < cap && m.find()) {
+            for (; scanned < m.start(); scanned++) {
+                if (text.charAt(scanned) == '\n') {
+                    line++;
+                    lineStart = scanned + 1;
+                }
+            }
+            if (line == lastLine) {
+                continue;
+            }
+            lastLine = line;
+            int lineEnd = text.indexOf('\n', lineStart);
+            String preview = text.substring(lineStart, lineEnd < 0 ? text.length() : lineEnd).strip();
+            if (preview.length() > PREVIEW_CHARS) {
+                preview = preview.substring(0, PREVIEW_CHARS - 1) + "…";
+            }
+            hits.add(new Hit(file, line, m.start() - lineStart, m.start(), preview));
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package org.nmox.studio.editor.find;
+
+import java.awt.Dialog;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import javax.swing.JButton;
+import org.nmox.studio.core.spi.ProjectAim;
+import org.openide.DialogDescriptor;
+import org.openide.DialogDisplayer;
+import org.openide.awt.ActionID;
+import org.openide.awt.ActionReference;
+import org.openide.awt.ActionRegistration;
+import org.openide.awt.StatusDisplayer;
+import org.openide.util.NbBundle.Messages;
+
+/**
+ * Opens Find in Project over the aimed project. Non-modal, so a hit can
+ * be opened and the next one tried without losing the list. With no
+ * rack (no aim to follow) the action says so on the status line.
+ */
+@ActionID(category = "Edit", id = "org.nmox.studio.editor.find.FindInProjectAction")
+@ActionRegistration(displayName = "#CTL_FindInProject")
+@ActionReference(path = "Menu/Edit", position = 2450)
+@Messages("CTL_FindInProject=Find in Project…")
+public final class FindInProjectAction implements ActionListener {
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        ProjectAim aim = ProjectAim.find();
+        File root = aim == null ? null : aim.projectDir();
+        if (root == null || !root.isDirectory()) {
+            StatusDisplayer.getDefault().setStatusText("Find in Project needs an open project");
+            return;
+        }
+        FindInProjectPanel panel = new FindInProjectPanel(root);
+        JButton close = new JButton("Close");
+        DialogDescriptor d = new DialogDescriptor(panel, "Find in Project", false,
+                new Object[]{close}, close, DialogDescriptor.DEFAULT_ALIGN, null, null);
+        Dialog dialog = DialogDisplayer.getDefault().createDialog(d);
+        close.addActionListener(ev -> dialog.dispose());
+        dialog.setVisible(true);
+        panel.queryField().requestFocusInWindow();
+    }
+}
@@ -0,0 +1,167 @@
+package org.nmox.studio.editor.find;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.FlowLayout;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.DefaultListModel;
+import javax.swing.JCheckBox;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.KeyStroke;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import org.openide.awt.StatusDisplayer;
+import org.openide.cookies.LineCookie;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+import org.openide.loaders.DataObject;
+import org.openide.text.Line;
+import org.openide.util.RequestProcessor;
+
+/**
+ * The dialog behind Edit ▸ Find in Project…: a query line with the two
+ * switches that matter (regular expression, match case), the hits as
+ * {@code path:line  text}, and Enter or a double-click to open one at
+ * its column. Searches run on their own RP; a new query cancels the one
+ * in flight, and only the latest result ever reaches the list.
+ */
+final class FindInProjectPanel extends JPanel {
+
+    private static final RequestProcessor RP = new RequestProcessor("nmox-find-in-project", 1, true);
+
+    private final File root;
+    private final JTextField query = new JTextField();
+    private final JCheckBox regex = new JCheckBox("Regular expression");
+    private final JCheckBox matchCase = new JCheckBox("Match case");
+    private final JLabel status = new JLabel(" ");
+    private final DefaultListModel<FindInProject.Hit> model = new DefaultListModel<>();
+    private final JList<FindInProject.Hit> list = new JList<>(model);
+    private RequestProcessor.Task running;
+    private int generation;
+
+    FindInProjectPanel(File root) {
+        super(new BorderLayout(0, 8));
+        this.root = root;
+        setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        setPreferredSize(new Dimension(760, 520));
+
+        JPanel north = new JPanel(new BorderLayout(0, 4));
+        north.add(new JLabel("Find in " + root.getName() + ":"), BorderLayout.NORTH);
+        north.add(query, BorderLayout.CENTER);
+        JPanel switches = new JPanel(new FlowLayout(FlowLayout.LEADING, 0, 0));
+        switches.add(regex);
+        switches.add(matchCase);
+        north.add(switches, BorderLayout.SOUTH);
+        add(north, BorderLayout.NORTH);
+
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setCellRenderer(new HitRenderer(root));
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    openSelected();
+                }
+            }
+        });
+        list.getInputMap(JComponent.WHEN_FOCUSED).put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "open");
+        list.getActionMap().put("open", new javax.swing.AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                openSelected();
+            }
+        });
+        add(new JScrollPane(list), BorderLayout.CENTER);
+        add(status, BorderLayout.SOUTH);
+
+        query.addActionListener(e -> search());
+        regex.addActionListener(e -> search());
+        matchCase.addActionListener(e -> search());
+    }
+
+    JTextField queryField() {
+        return query;
+    }
+
+    private void search() {
+        String q = query.getText();
+        boolean re = regex.isSelected();
+        boolean mc = matchCase.isSelected();
+        int ticket = ++generation;
+        if (running != null) {
+            running.cancel();
+        }
+        status.setText("Searching…");
+        running = RP.post(() -> {
+            long started = System.nanoTime();
+            FindInProject.Result result = FindInProject.search(root, q, re, mc, FindInProject.HIT_CAP);
+            long ms = (System.nanoTime() - started) / 1_000_000;
+            SwingUtilities.invokeLater(() -> show(ticket, result, ms));
+        });
+    }
+
+    private void show(int ticket, FindInProject.Result result, long ms) {
+        if (ticket != generation) {
+            return;
+        }
+        model.clear();
+        if (result.error() != null) {
+            status.setText(result.error());
+            return;
+        }
+        result.hits().forEach(model::addElement);
+        status.setText(result.hits().size() + (result.capped() ? "+" : "") + " match(es) — read "
+                + result.read() + " of " + result.indexed() + " files in " + ms + " ms");
+        if (!model.isEmpty()) {
+            list.setSelectedIndex(0);
+        }
+    }
+
+    private void openSelected() {
+        FindInProject.Hit hit = list.getSelectedValue();
+        if (hit == null) {
+            return;
+        }
+        try {
+            FileObject fo = FileUtil.toFileObject(FileUtil.normalizeFile(hit.file()));
+            LineCookie lc = fo == null ? null : DataObject.find(fo).getLookup().lookup(LineCookie.class);
+            if (lc != null) {
+                lc.getLineSet().getCurrent(hit.line())
+                        .show(Line.ShowOpenType.OPEN, Line.ShowVisibilityType.FOCUS, hit.column());
+            }
+        } catch (Exception ex) {
+            StatusDisplayer.getDefault().setStatusText(
+                    "Could not open " + hit.file().getName() + ": " + ex.getMessage());
+        }
+    }
+
+    /** {@code src/app.ts:12  const user = …} — path relative to the project. */
+    private static final class HitRenderer extends DefaultListCellRenderer {
+
+        private final File root;
+
+        HitRenderer(File root) {
+            this.root = root;
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                boolean isSelected, boolean cellHasFocus) {
+            FindInProject.Hit hit = (FindInProject.Hit) value;
+            String path = root.toPath().relativize(hit.file().toPath()).toString();
+            return super.getListCellRendererComponent(list,
+                    path + ":" + (hit.line() + 1) + "    " + hit.text(), index, isSelected, cellHasFocus);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package org.nmox.studio.editor.find;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The literal text a regular expression cannot match without — what
+ * {@link ContentIndex} narrows a regex query by. The answer is a
+ * disjunction of conjunctions: one list per top-level {@code |} branch,
+ * each holding the literal runs that branch requires.
+ *
+ * <p>Deliberately conservative rather than a full regex-to-trigram
+ * compiler: groups and character classes contribute nothing (their
+ * text is skipped, not guessed at), a {@code ?}, {@code *} or
+ * {@code {0,…}} quantifier takes its character back off the run, and
+ * any escape naming a class ({@code \d}, {@code \w}, {@code \p{…}})
+ * ends the run. Getting this wrong in the permissive direction only
+ * reads an extra file; in the strict direction it would hide a match,
+ * so every doubt ends a run. Comment-mode patterns are not narrowed.
+ */
+final class RegexLiterals {
+
+    private static final Pattern INLINE_COMMENTS = Pattern.compile("\\(\\?[a-wyzA-Z-]*x");
+
+    private RegexLiterals() {
+    }
+
+    /** The required literals of {@code regex}; null when it cannot be narrowed at all. */
+    static List<List<String>> required(Pattern regex) {
+        if (regex == null) {
+            return null;
+        }
+        String p = regex.pattern();
+        if ((regex.flags() & Pattern.LITERAL) != 0) {
+            return List.of(List.of(p));
+        }
+        if ((regex.flags() & Pattern.COMMENTS) != 0 || INLINE_COMMENTS.matcher(p).find()) {
+            return null;
+        }
+        List<List<String>> branches = new ArrayList<>();
+        List<String> runs = new ArrayList<>();
+        StringBuilder run = new StringBuilder();
+        int i = 0;
+        while (i < p.length()) {
+            char c = p.charAt(i);
+            switch (c) {
+                case '\\' -> {
+                    if (i + 1 >= p.length()) {
+                        return null;
+                    }
+                    char e = p.charAt(i + 1);
+                    if (e == 'Q') {
+                        int end = p.indexOf("\\E", i + 2);
+                        run.append(p, i + 2, end < 0 ? p.length() : end);
+                        i = end < 0 ? p.length() : end + 2;
+                    } else if (Character.isLetterOrDigit(e)) {
+                        flush(run, runs);
+                        i = skipEscape(p, i + 1);
+                    } else {
+                        run.append(e);
+                        i += 2;
+                    }
+                }
+                case '[' -> {
+                    flush(run, runs);
+                    i = skipClass(p, i);
+                }
+                case '(' -> {
+                    flush(run, runs);
+                    i = skipGroup(p, i);
+                }
+                case '|' -> {
+                    flush(run, runs);
+                    branches.add(runs);
+                    runs = new ArrayList<>();
+                    i++;
+                }
+                case '*', '?' -> {
+                    dropLast(run);
+                    flush(run, runs);
+                    i = skipLazy(p, i + 1);
+                }
+                case '+' -> {
+                    flush(run, runs);
+                    i = skipLazy(p, i + 1);
+                }
+                case '{' -> {
+                    int close = p.indexOf('}', i);
+                    if (close < 0) {
+                        return null;
+                    }
+                    if (p.substring(i + 1, close).trim().startsWith("0")) {
+                        dropLast(run);
+                    }
+                    flush(run, runs);
+                    i = skipLazy(p, close + 1);
+                }
+                case '.', '^', '$' -> {
+                    flush(run, runs);
+                    i++;
+                }
+                default -> {
+                    run.append(c);
+                    i++;
+                }
+            }
+        }
+        flush(run, runs);
+        branches.add(runs);
+        return branches;
+    }
+
+    private static void flush(StringBuilder run, List<String> runs) {
+        if (run.length() >= 3) {
+            runs.add(run.toString());
+        }
+        run.setLength(0);
+    }
+
+    private static void dropLast(StringBuilder run) {
+        if (run.length() > 0) {
+            run.setLength(run.length() - 1);
+        }
+    }
+
+    /** Past a lazy or possessive suffix on a quantifier. */
+    private static int skipLazy(String p, int i) {
+        return i < p.length() && (p.charAt(i) == '?' || p.charAt(i) == '+') ? i + 1 : i;
+    }
+
+    /** Past an alphanumeric escape starting at the letter {@code at}. */
+    private static int skipEscape(String p, int at) {
+        char e = p.charAt(at);
+        int i = at + 1;
+        if ((e == 'p' || e == 'P' || e == 'x' || e == 'N' || e == 'k') && i < p.length()
+                && (p.charAt(i) == '{' || p.charAt(i) == '<')) {
+            int close = p.indexOf(p.charAt(i) == '{' ? '}' : '>', i);
+            return close < 0 ? p.length() : close + 1;
+        }
+        int take = switch (e) {
+            case 'x' -> 2;
+            case 'u' -> 4;
+            case 'c', 'p', 'P' -> 1;
+            case '0' -> 3;
+            default -> 0;
+        };
+        if (Character.isDigit(e) && e != '0') {
+            while (i < p.length() && Character.isDigit(p.charAt(i))) {
+                i++;
+            }
+        }
+        return Math.min(p.length(), i + take);
+    }
+
+    /** Past the class opening at {@code open}, nested classes and escapes included. */
+    private static int skipClass(String p, int open) {
+        int depth = 0;
+        int i = open;
+        while (i < p.length()) {
+            char c = p.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                depth++;
+                if (depth == 1 && i + 1 < p.length() && p.charAt(i + 1) == '^') {
+                    i++;
+                }
+                if (depth == 1 && i + 1 < p.length() && p.charAt(i + 1) == ']') {
+                    i++; // a leading ] is literal
+                }
+            } else if (c == ']' && --depth == 0) {
+                return skipQuantifier(p, i + 1);
+            }
+            i++;
+        }
+        return p.length();
+    }
+
+    /** Past the group opening at {@code open}, classes and escapes inside included. */
+    private static int skipGroup(String p, int open) {
+        int depth = 0;
+        int i = open;
+        while (i < p.length()) {
+            char c = p.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '[') {
+                i = skipClassRaw(p, i);
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')' && --depth == 0) {
+                return skipQuantifier(p, i + 1);
+            }
+            i++;
+        }
+        return p.length();
+    }
+
+    private static int skipClassRaw(String p, int open) {
+        int depth = 0;
+        for (int i = open; i < p.length(); i++) {
+            char c = p.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '[') {
+                depth++;
+            } else if (c == ']' && --depth == 0) {
+                return i + 1;
+            }
+        }
+        return p.length();
+    }
+
+    /** A quantifier on a skipped atom quantifies nothing we kept. */
+    private static int skipQuantifier(String p, int i) {
+        if (i >= p.length()) {
+            return i;
+        }
+        char c = p.charAt(i);
+        if (c == '*' || c == '+' || c == '?') {
+            return skipLazy(p, i + 1);
+        }
+        if (c == '{') {
+            int close = p.indexOf('}', i);
+            return close < 0 ? p.length() : skipLazy(p, close + 1);
+        }
+        return i;
+    }
+}
@@ -0,0 +1,8 @@
+/**
+ * Project-wide content search: a trigram index over the project's text
+ * files ({@link org.nmox.studio.editor.find.ContentIndex}) that the
+ * project jumps narrow their sweeps through, and Find in Project on top
+ * of it. The index only ever rules files OUT — every answer shown to
+ * the user is matched against the file's current text.
+ */
+package org.nmox.studio.editor.find;
@@ -0,0 +1,435 @@
+package org.nmox.studio.editor.format;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.json.JSONObject;
+import org.nmox.studio.core.process.ProcessSupport;
+import org.nmox.studio.core.util.AtomicFiles;
+import org.openide.modules.Places;
+import org.openide.util.RequestProcessor;
+
+/**
+ * A warm Prettier for one project root: one long-lived {@code node}
+ * that has already loaded the project's own node_modules/prettier and
+ * its plugins, fed documents over a framed stdio protocol (see
+ * prettier-worker.js beside this class). A one-shot
+ * {@code prettier --stdin-filepath} pays Node startup and plugin loading
+ * on every save - hundreds of milliseconds - where a warm worker answers
+ * in the time the format itself takes.
+ *
+ * <p>Lifecycle: started on the first save in a root, shut down after
+ * {@link #IDLE_MS} without a request, and restarted when anything that
+ * shapes its output moves - a Prettier config, an .editorconfig or
+ * ignore file on the way from a formatted file up to the root, the
+ * root's package.json, or the installed prettier itself. A JVM exit
+ * reaps every live worker (the static-hook idiom of JsDebugServer).
+ *
+ * <p>Every failure of the daemon itself - node missing, prettier not
+ * loadable, a garbled frame, a timeout, the worker dying - is an
+ * {@link IOException} and the worker is killed; {@link PrettierFormatter}
+ * answers it by running the old one-shot path, so a broken daemon
+ * costs speed, never a format. A root whose worker will not start is
+ * left alone for {@link #RETRY_MS}.
+ */
+final class PrettierDaemon {
+
+    private static final Logger LOG = Logger.getLogger(PrettierDaemon.class.getName());
+
+    /** A worker with no request for this long exits. */
+    static final long IDLE_MS = 10 * 60_000;
+    /** A root whose worker failed to start is not retried before this. */
+    static final long RETRY_MS = 5 * 60_000;
+    /** Header lines longer than this are a garbled stream, not a reply. */
+    private static final int HEADER_CAP = 64 * 1024;
+    /** Latencies kept for {@link Metrics}: enough for a stable p95. */
+    private static final int LATENCY_WINDOW = 256;
+
+    /** What the IDE's format calls have cost: per-request latency, restarts, fallbacks. */
+    record Metrics(int requests, int failures, int starts, long lastMs, long p50Ms, long p95Ms) {
+    }
+
+    private static final Map<File, PrettierDaemon> BY_ROOT = new HashMap<>();
+    private static final Map<File, Long> REFUSED = new HashMap<>();
+    /** Live workers the JVM shutdown hook reaps; emptied by stop(). */
+    private static final Set<PrettierDaemon> LIVE = ConcurrentHashMap.newKeySet();
+    static {
+        Runtime.getRuntime().addShutdownHook(
+                new Thread(() -> LIVE.forEach(d -> ProcessSupport.killTree(d.process)),
+                        "nmox-prettier-reaper"));
+    }
+    private static final RequestProcessor IDLE_RP =
+            new RequestProcessor("nmox-prettier-daemon-idle", 1, true);
+
+    private static int requests;
+    private static int failures;
+    private static int starts;
+    private static long lastMs = -1;
+    private static final long[] LATENCIES = new long[LATENCY_WINDOW];
+    private static int latencyCount;
+
+    private final File root;
+    private final Process process;
+    private final OutputStream toWorker;
+    private final Map<Long, CompletableFuture<PrettierFormatter.Result>> inFlight = new ConcurrentHashMap<>();
+    private final CompletableFuture<String> ready = new CompletableFuture<>();
+    /** Every file whose state shaped this worker's output: path to "mtime:length", "-" when absent. */
+    private final Map<File, String> stamps = new LinkedHashMap<>();
+    private final RequestProcessor.Task idle;
+    private long nextId = 1;
+    private volatile boolean stopped;
+
+    private PrettierDaemon(File root, Process process) {
+        this.root = root;
+        this.process = process;
+        this.toWorker = process.getOutputStream();
+        this.idle = IDLE_RP.create(this::idleOut);
+    }
+
+    /**
+     * The project root a local binary belongs to, when a daemon can serve
+     * it: {@code <root>/node_modules/.bin/prettier} with the prettier
+     * package installed beside it. Null for a global install - there is no
+     * project module to load, and the one-shot path serves it as before.
+     */
+    static File rootOf(String binary) {
+        File bin = new File(binary).getParentFile();
+        File modules = bin == null ? null : bin.getParentFile();
+        if (bin == null || modules == null || !".bin".equals(bin.getName())
+                || !"node_modules".equals(modules.getName())) {
+            return null;
+        }
+        File root = modules.getParentFile();
+        return root != null && new File(modules, "prettier/package.json").isFile() ? root : null;
+    }
+
+    /**
+     * Formats {@code text} as {@code file} on the root's warm worker,
+     * starting or restarting it as needed. The result mirrors the CLI's:
+     * exit 0 and the output, or exit 2 (prettier's own error exit) when
+     * prettier rejected the text.
+     *
+     * @throws IOException on any daemon failure; the caller falls back
+     */
+    static PrettierFormatter.Result format(File root, File file, String text)
+            throws IOException, InterruptedException {
+        PrettierDaemon daemon = acquire(root, file);
+        long started = System.nanoTime();
+        try {
+            PrettierFormatter.Result result = daemon.request(file, text);
+            count((System.nanoTime() - started) / 1_000_000, false);
+            return result;
+        } catch (IOException ex) {
+            count(-1, true);
+            daemon.stop();
+            throw ex;
+        }
+    }
+
+    private static PrettierDaemon acquire(File root, File file) throws IOException, InterruptedException {
+        PrettierDaemon daemon;
+        synchronized (PrettierDaemon.class) {
+            daemon = BY_ROOT.get(root);
+            if (daemon != null && (daemon.stopped || daemon.moved())) {
+                LOG.log(Level.FINE, "prettier daemon for {0}: inputs moved, restarting", root);
+                daemon.stop();
+                daemon = null;
+            }
+            if (daemon == null) {
+                Long refused = REFUSED.get(root);
+                if (refused != null && System.currentTimeMillis() - refused < RETRY_MS) {
+                    throw new IOException("prettier daemon recently failed to start in " + root);
+                }
+                try {
+                    daemon = start(root);
+                } catch (IOException ex) {
+                    REFUSED.put(root, System.currentTimeMillis()); // no node on PATH
+                    throw ex;
+                }
+                BY_ROOT.put(root, daemon);
+            }
+            daemon.watch(file);
+        }
+        try {
+            daemon.awaitReady();
+        } catch (IOException ex) {
+            synchronized (PrettierDaemon.class) {
+                REFUSED.put(root, System.currentTimeMillis());
+            }
+            daemon.stop();
+            throw ex;
+        }
+        return daemon;
+    }
+
+    private static PrettierDaemon start(File root) throws IOException {
+        ProcessBuilder pb = ProcessSupport.builder(
+                List.of("node", workerScript().getAbsolutePath(), root.getAbsolutePath()));
+        pb.directory(root);
+        // the worker lives on its stdin; its stderr is prettier's chatter
+        pb.redirectInput(ProcessBuilder.Redirect.PIPE);
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        PrettierDaemon daemon = new PrettierDaemon(root, pb.start());
+        synchronized (PrettierDaemon.class) {
+            starts++;
+        }
+        LIVE.add(daemon);
+        Thread reader = new Thread(daemon::readLoop, "nmox-prettier-daemon");
+        reader.setDaemon(true);
+        reader.start();
+        return daemon;
+    }
+
+    /**
+     * prettier-worker.js unpacked into the cache directory, rewritten only
+     * when the bundled copy differs. The worker runs as a file rather than
+     * {@code node -e <script>}: on Windows ProcessImpl passes an argument
+     * with embedded double quotes through unescaped, and the script has
+     * plenty, so node would receive it torn at the first quote.
+     */
+    static synchronized File workerScript() throws IOException {
+        String script;
+        try (InputStream in = PrettierDaemon.class.getResourceAsStream("prettier-worker.js")) {
+            if (in == null) {
+                throw new IOException("prettier-worker.js missing from the module");
+            }
+            script = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        File worker = new File(Places.getCacheSubdirectory("prettier"), "prettier-worker.js");
+        Path target = worker.toPath();
+        if (!Files.isRegularFile(target)
+                || !script.equals(Files.readString(target, StandardCharsets.UTF_8))) {
+            AtomicFiles.writeString(target, script);
+        }
+        return worker;
+    }
+
+    private void awaitReady() throws IOException, InterruptedException {
+        try {
+            String version = ready.get(PrettierFormatter.TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            LOG.log(Level.FINE, "prettier daemon {0} warm in {1}", new Object[]{version, root});
+        } catch (ExecutionException ex) {
+            throw new IOException(ex.getCause().getMessage(), ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new IOException("prettier daemon not ready after " + PrettierFormatter.TIMEOUT_MS + " ms");
+        }
+    }
+
+    private PrettierFormatter.Result request(File file, String text) throws IOException, InterruptedException {
+        CompletableFuture<PrettierFormatter.Result> reply = new CompletableFuture<>();
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            long id = nextId++;
+            inFlight.put(id, reply);
+            String header = new JSONObject().put("id", id).put("file", file.getAbsolutePath())
+                    .put("length", body.length).toString() + "\n";
+            try {
+                toWorker.write(header.getBytes(StandardCharsets.UTF_8));
+                toWorker.write(body);
+                toWorker.flush();
+            } catch (IOException ex) {
+                inFlight.remove(id);
+                throw ex;
+            }
+        }
+        idle.schedule((int) IDLE_MS);
+        try {
+            return reply.get(PrettierFormatter.TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            throw new IOException(ex.getCause().getMessage(), ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new IOException("prettier daemon timed out after " + PrettierFormatter.TIMEOUT_MS + " ms");
+        }
+    }
+
+    /** The worker's stdout: the ready line, then reply frames until EOF. */
+    private void readLoop() {
+        try (InputStream in = process.getInputStream()) {
+            JSONObject hello = new JSONObject(readHeader(in));
+            if (!hello.optBoolean("ready")) {
+                throw new IOException("prettier did not load: " + hello.optString("error"));
+            }
+            ready.complete(hello.optString("version", "?"));
+            for (;;) {
+                JSONObject header = new JSONObject(readHeader(in));
+                int length = header.getInt("length");
+                if (length < 0 || length > PrettierFormatter.OUTPUT_CAP_BYTES) {
+                    // the one-shot path's law: oversized output is refused, never truncated
+                    throw new IOException("prettier daemon reply of " + length + " bytes refused");
+                }
+                byte[] body = in.readNBytes(length);
+                if (body.length < length) {
+                    throw new IOException("prettier daemon closed mid-reply");
+                }
+                CompletableFuture<PrettierFormatter.Result> reply = inFlight.remove(header.getLong("id"));
+                if (reply == null) {
+                    continue; // answered after its caller gave up
+                }
+                if (header.getBoolean("ok")) {
+                    reply.complete(new PrettierFormatter.Result(0, new String(body, StandardCharsets.UTF_8)));
+                } else {
+                    LOG.log(Level.FINE, "prettier rejected {0}", header.optString("error"));
+                    reply.complete(new PrettierFormatter.Result(2, ""));
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            fail(ex instanceof IOException io ? io : new IOException("garbled prettier daemon frame", ex));
+        }
+    }
+
+    private static String readHeader(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        for (int b; (b = in.read()) != '\n';) {
+            if (b < 0) {
+                throw new IOException("prettier daemon exited");
+            }
+            if (line.size() == HEADER_CAP) {
+                throw new IOException("prettier daemon header over " + HEADER_CAP + " bytes");
+            }
+            line.write(b);
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+
+    private void fail(IOException why) {
+        ready.completeExceptionally(why);
+        for (CompletableFuture<PrettierFormatter.Result> reply : new ArrayList<>(inFlight.values())) {
+            reply.completeExceptionally(why);
+        }
+        inFlight.clear();
+        stop();
+    }
+
+    // ---- restart on config change ----
+
+    /** Starts watching what shapes {@code file}'s output, recording its current state. */
+    private void watch(File file) {
+        for (File f : inputsFor(file)) {
+            stamps.putIfAbsent(f, stamp(f));
+        }
+    }
+
+    /** True when anything this worker has read since it started has changed. */
+    private boolean moved() {
+        for (Map.Entry<File, String> e : stamps.entrySet()) {
+            if (!e.getValue().equals(stamp(e.getKey()))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The files a format of {@code file} depends on: each Prettier config
+     * name and .editorconfig in every directory from the file up to the
+     * root, and at the root the ignore files, package.json and the
+     * installed prettier's own package.json (an upgrade is a restart).
+     */
+    private List<File> inputsFor(File file) {
+        List<File> inputs = new ArrayList<>();
+        File dir = file.getParentFile();
+        for (; dir != null; dir = dir.getParentFile()) {
+            for (String name : PrettierFormatter.CONFIG_FILES) {
+                inputs.add(new File(dir, name));
+            }
+            inputs.add(new File(dir, ".editorconfig"));
+            inputs.add(new File(dir, "package.json"));
+            if (dir.equals(root)) {
+                break;
+            }
+        }
+        inputs.add(new File(root, ".prettierignore"));
+        inputs.add(new File(root, ".gitignore"));
+        inputs.add(new File(root, "node_modules/prettier/package.json"));
+        return inputs;
+    }
+
+    private static String stamp(File f) {
+        long modified = f.lastModified();
+        return modified == 0 ? "-" : modified + ":" + f.length();
+    }
+
+    // ---- lifecycle ----
+
+    private void idleOut() {
+        LOG.log(Level.FINE, "prettier daemon for {0} idle, stopping", root);
+        stop();
+    }
+
+    /** Idempotent: kills the worker's tree and forgets it. */
+    void stop() {
+        if (stopped) {
+            return;
+        }
+        stopped = true;
+        synchronized (PrettierDaemon.class) {
+            BY_ROOT.remove(root, this);
+        }
+        LIVE.remove(this);
+        idle.cancel();
+        try {
+            toWorker.close();
+        } catch (IOException ignored) {
+        }
+        ProcessSupport.killTree(process);
+    }
+
+    /** Stops every worker - module uninstall, tests. */
+    static void stopAll() {
+        List<PrettierDaemon> all;
+        synchronized (PrettierDaemon.class) {
+            all = new ArrayList<>(BY_ROOT.values());
+            REFUSED.clear();
+        }
+        all.forEach(PrettierDaemon::stop);
+    }
+
+    static synchronized PrettierDaemon running(File root) {
+        return BY_ROOT.get(root);
+    }
+
+    boolean alive() {
+        return !stopped && process.isAlive();
+    }
+
+    // ---- metrics ----
+
+    private static synchronized void count(long ms, boolean failed) {
+        requests++;
+        if (failed) {
+            failures++;
+            return;
+        }
+        lastMs = ms;
+        LATENCIES[latencyCount++ % LATENCY_WINDOW] = ms;
+        LOG.log(Level.FINE, "prettier daemon answered in {0} ms", ms);
+    }
+
+    /** Per-request latency over the last {@value #LATENCY_WINDOW} answers, and how often the daemon failed. */
+    static synchronized Metrics metrics() {
+        int n = Math.min(latencyCount, LATENCY_WINDOW);
+        long[] sorted = java.util.Arrays.copyOf(LATENCIES, n);
+        java.util.Arrays.sort(sorted);
+        long p50 = n == 0 ? -1 : sorted[(n - 1) / 2];
+        long p95 = n == 0 ? -1 : sorted[(int) Math.ceil(n * 0.95) - 1];
+        return new Metrics(requests, failures, starts, lastMs, p50, p95);
+    }
+}
@@ -24,6 +24,11 @@ import org.nmox.studio.core.process.ToolLocator;
  * Everything that can go wrong — no opt-in, no binary, a syntax error
  * mid-edit, a hung process — degrades to "no change" and a log line,
  * never a dialog. A formatter that interrupts typing is worse than none.
+ *
+ * A project-local prettier runs on a warm {@link PrettierDaemon} — one
+ * node per project root with prettier already loaded — instead of a
+ * process per save; any daemon failure falls through to the one-shot
+ * process below, so the daemon can only make a save faster.
  */
 public final class PrettierFormatter {
 
@@ -53,14 +58,31 @@ public final class PrettierFormatter {
     record Result(int exitCode, String stdout) {
     }
 
+    /**
+     * The warm path, a seam like {@link Runner}: the result, or null when
+     * no daemon serves {@code binary}; an IOException means the daemon
+     * failed and the one-shot runner takes over.
+     */
+    interface Daemon {
+        Result format(String binary, File file, String text)
+                throws IOException, InterruptedException;
+    }
+
     private final Runner runner;
+    private final Daemon daemon;
 
     public PrettierFormatter() {
-        this(PrettierFormatter::exec);
+        this(PrettierFormatter::exec, PrettierFormatter::warm);
     }
 
+    /** One-shot only: tests that stub the process never meet a daemon. */
     PrettierFormatter(Runner runner) {
+        this(runner, null);
+    }
+
+    PrettierFormatter(Runner runner, Daemon daemon) {
         this.runner = runner;
+        this.daemon = daemon;
     }
 
     /**
@@ -128,19 +150,26 @@ public final class PrettierFormatter {
                 : new OnDemand(OnDemandOutcome.FORMATTED, formatted, optedIn);
     }
 
-    /** The one process call both entry points share; null on any failure. */
+    /**
+     * The one format call both entry points share: the warm daemon when
+     * one serves this binary, else (or when it fails) a one-shot process.
+     * Null on any failure.
+     */
     private String runPrettier(String text, File file, File dir, String binary) {
         try {
+            if (daemon != null) {
+                try {
+                    Result warm = daemon.format(binary, file, text);
+                    if (warm != null) {
+                        return output(warm, file);
+                    }
+                } catch (IOException ex) {
+                    LOG.log(Level.FINE, "prettier daemon failed, running one-shot: {0}", ex.getMessage());
+                }
+            }
             Result result = runner.run(
                     List.of(binary, "--stdin-filepath", file.getAbsolutePath()), dir, text);
-            if (result.exitCode() != 0) {
-                // usually a syntax error mid-edit: a normal condition
-                LOG.log(Level.FINE, "prettier exited {0} for {1}",
-                        new Object[]{result.exitCode(), file});
-                return null;
-            }
-            String formatted = result.stdout();
-            return formatted.isEmpty() ? null : formatted;
+            return output(result, file);
         } catch (IOException ex) {
             LOG.log(Level.INFO, "prettier failed to run: {0}", ex.getMessage());
             return null;
@@ -150,6 +179,23 @@ public final class PrettierFormatter {
         }
     }
 
+    private static String output(Result result, File file) {
+        if (result.exitCode() != 0) {
+            // usually a syntax error mid-edit: a normal condition
+            LOG.log(Level.FINE, "prettier exited {0} for {1}",
+                    new Object[]{result.exitCode(), file});
+            return null;
+        }
+        String formatted = result.stdout();
+        return formatted.isEmpty() ? null : formatted;
+    }
+
+    /** The production daemon: project-local binaries only, never with the switch off. */
+    static Result warm(String binary, File file, String text) throws IOException, InterruptedException {
+        File root = Boolean.getBoolean("nmox.prettier.oneshot") ? null : PrettierDaemon.rootOf(binary);
+        return root == null ? null : PrettierDaemon.format(root, file, text);
+    }
+
     /**
      * True when some directory from {@code startDir} up to the repository
      * root carries a Prettier config file or a package.json that mentions
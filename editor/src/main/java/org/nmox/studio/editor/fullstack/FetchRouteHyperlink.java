@@ -10,8 +10,10 @@ import org.netbeans.lib.editor.hyperlink.spi.HyperlinkProviderExt;
  * ⌘-click the {@code '/api/users'} in a {@code fetch(}/{@code axios.*}
  * call and land on the Express/Fastify/Koa route that serves it
  * (v2.31.0, the full-stack wishlist) — the client and the server of
- * the same project, finally on speaking terms. Exact-path match; a
- * path no route declares refuses with the sweep's honest scope.
+ * the same project, finally on speaking terms. Params, wildcards and
+ * template-literal interpolations match through the project's
+ * {@link RouteTable}, preferring the route for the call's own verb; a
+ * path no route serves refuses with the sweep's honest scope.
  */
 @MimeRegistrations({
     @MimeRegistration(mimeType = "text/javascript", service = HyperlinkProviderExt.class, position = 17),
@@ -31,10 +33,10 @@ public final class FetchRouteHyperlink extends ProjectJumpHyperlink {
 
     @Override
     protected void click(String text, int[] span, File projectDir) {
-        String path = text.substring(span[0], span[1]);
-        Routes.Route found = Routes.findRoute(projectDir, path);
+        String path = Routes.clientPath(text, span[0]);
+        Routes.Route found = Routes.findRoute(projectDir, path, Routes.clientVerb(text, span[0]));
         if (found == null) {
-            status("No route registers " + path
+            status("No route serves " + path.replace(RouteTable.DYNAMIC, '…')
                     + " in this project's JS/TS sources");
         } else {
             openAt(found.file(), found.offset());
@@ -0,0 +1,402 @@
+package org.nmox.studio.editor.fullstack;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A project's server routes compiled into a segment trie, so a client
+ * path finds its route by walking its own segments — one hash lookup
+ * per literal segment — instead of testing every registration.
+ *
+ * <p>The path syntax is Express's (path-to-regexp), which Fastify and
+ * Koa's router share in the parts that matter: literal segments,
+ * {@code :param} with an optional {@code (regex)} constraint, mixed
+ * segments ({@code :from-:to}, {@code file.:ext}), {@code *} and
+ * {@code :rest*}/{@code :rest+} tails, and optional parts —
+ * {@code :id?} and Express 5's {@code {/:id}} braces. Optional parts are
+ * expanded into one trie path each at compile time (capped), so the
+ * matcher itself never branches on optionality.
+ *
+ * <p>When several routes accept a path, the most specific wins: a
+ * literal segment beats a mixed one beats a param beats a wildcard,
+ * segment by segment from the left. That is not Express's rule —
+ * Express takes the first REGISTERED match — but registration order
+ * across files depends on mount order the editor cannot see, and for
+ * navigation the specific route is the one the reader meant. Among
+ * routes on the same node, one whose verb agrees with the call's wins;
+ * the search continues past a node with no agreeing verb before
+ * settling for any verb.
+ *
+ * <p>A client segment holding {@link #DYNAMIC} (a template literal's
+ * {@code ${…}}) is an unknown value: it matches params and wildcards,
+ * never literals, and skips constraint checks. Recorded limit: router
+ * mount prefixes ({@code app.use('/api', router)}) are not composed —
+ * a route is matched by the path written at its registration.
+ */
+public final class RouteTable {
+
+    /** Stands for a {@code ${…}} interpolation inside a client path. */
+    public static final char DYNAMIC = '\u0000';
+
+    /** Optional-part expansions per route; beyond it the route keeps its longest form. */
+    static final int MAX_EXPANSIONS = 16;
+
+    /** A route the path reached, with the values its params captured. */
+    public record Match(Routes.Route route, Map<String, String> params) {
+    }
+
+    private enum Kind { LITERAL, MIXED, PARAM, WILD }
+
+    /** One compiled segment: a literal, or something that captures. */
+    private record Seg(Kind kind, String text, Pattern pattern, List<String> names, int min) {
+
+        static Seg literal(String text) {
+            return new Seg(Kind.LITERAL, text, null, List.of(), 0);
+        }
+    }
+
+    /** A route at a terminal node, with its capture names in trie order. */
+    private record Entry(Routes.Route route, List<String> names) {
+    }
+
+    private static final class Node {
+        final Map<String, Node> literals = new HashMap<>();
+        final List<Seg> mixedSegs = new ArrayList<>();
+        final List<Node> mixed = new ArrayList<>();
+        final List<Seg> paramSegs = new ArrayList<>();
+        final List<Node> params = new ArrayList<>();
+        final List<Seg> wildSegs = new ArrayList<>();
+        final List<Node> wilds = new ArrayList<>();
+        final List<Entry> routes = new ArrayList<>();
+
+        Node child(Seg seg) {
+            return switch (seg.kind()) {
+                case LITERAL -> literals.computeIfAbsent(seg.text(), k -> new Node());
+                case MIXED -> child(mixedSegs, mixed, seg);
+                case PARAM -> child(paramSegs, params, seg);
+                case WILD -> child(wildSegs, wilds, seg);
+            };
+        }
+
+        /** Captures share a node when they accept the same segments. */
+        private static Node child(List<Seg> segs, List<Node> nodes, Seg seg) {
+            for (int i = 0; i < segs.size(); i++) {
+                Seg s = segs.get(i);
+                if (s.min() == seg.min() && String.valueOf(s.pattern()).equals(String.valueOf(seg.pattern()))) {
+                    return nodes.get(i);
+                }
+            }
+            segs.add(seg);
+            Node n = new Node();
+            nodes.add(n);
+            return n;
+        }
+    }
+
+    private final List<Routes.Route> routes;
+    private final Node root = new Node();
+
+    private RouteTable(List<Routes.Route> routes) {
+        this.routes = List.copyOf(routes);
+        for (Routes.Route r : this.routes) {
+            for (List<Seg> form : compile(r.path())) {
+                Node n = root;
+                List<String> names = new ArrayList<>();
+                for (Seg s : form) {
+                    n = n.child(s);
+                    names.addAll(s.names());
+                }
+                n.routes.add(new Entry(r, List.copyOf(names)));
+            }
+        }
+    }
+
+    /** Compiles {@code routes}; their order breaks ties between equals. */
+    public static RouteTable of(List<Routes.Route> routes) {
+        return new RouteTable(routes);
+    }
+
+    /** Every route, in the order it was given — the project's route map. */
+    public List<Routes.Route> routes() {
+        return routes;
+    }
+
+    /**
+     * The route that serves {@code path} — query and fragment ignored,
+     * a trailing slash optional — preferring one registered for
+     * {@code verb} (or {@code all}); null verb means any. Null when no
+     * route accepts the path.
+     */
+    public Match match(String path, String verb) {
+        List<String> segs = split(path);
+        Match[] fallback = {null};
+        Match hit = walk(root, segs, 0, new ArrayList<>(), verb == null ? null : verb.toLowerCase(Locale.ROOT),
+                fallback);
+        return hit != null ? hit : fallback[0];
+    }
+
+    // ---- matching ---------------------------------------------------------
+
+    private Match walk(Node n, List<String> segs, int at, List<String> captured, String verb, Match[] fallback) {
+        if (at == segs.size()) {
+            Match m = pick(n, captured, verb, fallback);
+            if (m != null) {
+                return m;
+            }
+            // a tail that may match nothing still ends here
+            for (int i = 0; i < n.wilds.size(); i++) {
+                if (n.wildSegs.get(i).min() == 0) {
+                    captured.add("");
+                    m = pick(n.wilds.get(i), captured, verb, fallback);
+                    captured.remove(captured.size() - 1);
+                    if (m != null) {
+                        return m;
+                    }
+                }
+            }
+            return null;
+        }
+        String seg = segs.get(at);
+        boolean dynamic = seg.indexOf(DYNAMIC) >= 0;
+        if (!dynamic) {
+            Node lit = n.literals.get(seg);
+            if (lit != null) {
+                Match m = walk(lit, segs, at + 1, captured, verb, fallback);
+                if (m != null) {
+                    return m;
+                }
+            }
+            for (int i = 0; i < n.mixed.size(); i++) {
+                java.util.regex.Matcher mm = n.mixedSegs.get(i).pattern().matcher(seg);
+                if (mm.matches()) {
+                    int mark = captured.size();
+                    for (int g = 1; g <= mm.groupCount(); g++) {
+                        captured.add(mm.group(g));
+                    }
+                    Match m = walk(n.mixed.get(i), segs, at + 1, captured, verb, fallback);
+                    captured.subList(mark, captured.size()).clear();
+                    if (m != null) {
+                        return m;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < n.params.size(); i++) {
+            Pattern constraint = n.paramSegs.get(i).pattern();
+            if (constraint == null || dynamic || constraint.matcher(seg).matches()) {
+                captured.add(seg);
+                Match m = walk(n.params.get(i), segs, at + 1, captured, verb, fallback);
+                captured.remove(captured.size() - 1);
+                if (m != null) {
+                    return m;
+                }
+            }
+        }
+        for (int i = 0; i < n.wilds.size(); i++) {
+            // a tail takes the rest of the path: it is always the last segment
+            captured.add(String.join("/", segs.subList(at, segs.size())));
+            Match m = pick(n.wilds.get(i), captured, verb, fallback);
+            captured.remove(captured.size() - 1);
+            if (m != null) {
+                return m;
+            }
+        }
+        return null;
+    }
+
+    /** The node's verb-agreeing route; records the first route of any verb as the fallback. */
+    private static Match pick(Node n, List<String> captured, String verb, Match[] fallback) {
+        for (Entry e : n.routes) {
+            if (verb == null || e.route().verb().equals(verb) || e.route().verb().equals("all")) {
+                return bind(e, captured);
+            }
+        }
+        if (fallback[0] == null && !n.routes.isEmpty()) {
+            fallback[0] = bind(n.routes.get(0), captured);
+        }
+        return null;
+    }
+
+    private static Match bind(Entry e, List<String> captured) {
+        Map<String, String> params = new LinkedHashMap<>();
+        for (int i = 0; i < e.names().size() && i < captured.size(); i++) {
+            params.put(e.names().get(i), captured.get(i));
+        }
+        return new Match(e.route(), params);
+    }
+
+    /** A client path's segments: query and fragment dropped, empty segments skipped. */
+    static List<String> split(String path) {
+        List<String> out = new ArrayList<>();
+        if (path == null) {
+            return out;
+        }
+        int cut = path.length();
+        for (char c : new char[] {'?', '#'}) {
+            int at = path.indexOf(c);
+            if (at >= 0 && at < cut) {
+                cut = at;
+            }
+        }
+        for (String s : path.substring(0, cut).split("/")) {
+            if (!s.isEmpty()) {
+                out.add(s);
+            }
+        }
+        return out;
+    }
+
+    // ---- compiling --------------------------------------------------------
+
+    /** Every concrete form of a route path: optional parts expanded. */
+    private static List<List<Seg>> compile(String path) {
+        List<List<Seg>> forms = new ArrayList<>();
+        for (String expanded : expandBraces(path)) {
+            List<List<Seg>> partial = new ArrayList<>();
+            partial.add(new ArrayList<>());
+            for (String raw : expanded.split("/")) {
+                if (raw.isEmpty()) {
+                    continue;
+                }
+                boolean optional = raw.startsWith(":") && raw.endsWith("?") && !raw.endsWith("\\?");
+                Seg seg = segment(optional ? raw.substring(0, raw.length() - 1) : raw);
+                List<List<Seg>> next = new ArrayList<>();
+                for (List<Seg> form : partial) {
+                    if (optional && partial.size() + next.size() < MAX_EXPANSIONS) {
+                        next.add(form);
+                    }
+                    List<Seg> longer = new ArrayList<>(form);
+                    longer.add(seg);
+                    next.add(longer);
+                }
+                partial = next;
+            }
+            forms.addAll(partial);
+        }
+        return forms;
+    }
+
+    /** {@code /users{/:id}} → {@code /users/:id} and {@code /users}; innermost braces last. */
+    private static List<String> expandBraces(String path) {
+        List<String> out = new ArrayList<>();
+        List<String> work = new ArrayList<>(List.of(path));
+        while (!work.isEmpty()) {
+            String p = work.remove(work.size() - 1);
+            int open = p.indexOf('{');
+            int close = open < 0 ? -1 : matchingBrace(p, open);
+            if (close < 0 || out.size() + work.size() >= MAX_EXPANSIONS) {
+                out.add(p.replace("{", "").replace("}", ""));
+                continue;
+            }
+            work.add(p.substring(0, open) + p.substring(close + 1));
+            work.add(p.substring(0, open) + p.substring(open + 1, close) + p.substring(close + 1));
+        }
+        return out;
+    }
+
+    private static int matchingBrace(String p, int open) {
+        int depth = 0;
+        for (int i = open; i < p.length(); i++) {
+            if (p.charAt(i) == '{') {
+                depth++;
+            } else if (p.charAt(i) == '}' && --depth == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** One raw route segment compiled. */
+    private static Seg segment(String raw) {
+        if (raw.equals("*") || raw.startsWith("*") && isName(raw.substring(1))) {
+            return new Seg(Kind.WILD, raw, null, List.of(raw.length() > 1 ? raw.substring(1) : "0"), 0);
+        }
+        if (raw.startsWith(":")) {
+            String rest = raw.substring(1);
+            int nameEnd = nameEnd(rest, 0);
+            String name = rest.substring(0, nameEnd);
+            String tail = rest.substring(nameEnd);
+            if (!name.isEmpty() && (tail.equals("*") || tail.equals("+"))) {
+                return new Seg(Kind.WILD, raw, null, List.of(name), tail.equals("+") ? 1 : 0);
+            }
+            if (!name.isEmpty() && tail.isEmpty()) {
+                return new Seg(Kind.PARAM, raw, null, List.of(name), 0);
+            }
+            if (!name.isEmpty() && tail.startsWith("(") && tail.endsWith(")")) {
+                Pattern constraint = compileOrNull(tail.substring(1, tail.length() - 1));
+                return new Seg(Kind.PARAM, raw, constraint, List.of(name), 0);
+            }
+        }
+        if (raw.indexOf(':') < 0 && raw.indexOf('*') < 0 && raw.indexOf('(') < 0) {
+            return Seg.literal(raw);
+        }
+        return mixed(raw);
+    }
+
+    /** {@code :from-:to}, {@code file.:ext}, {@code ab*cd} → one anchored regex with a group per capture. */
+    private static Seg mixed(String raw) {
+        StringBuilder re = new StringBuilder();
+        List<String> names = new ArrayList<>();
+        int i = 0;
+        int unnamed = 0;
+        while (i < raw.length()) {
+            char c = raw.charAt(i);
+            if (c == ':' && nameEnd(raw, i + 1) > i + 1) {
+                int end = nameEnd(raw, i + 1);
+                names.add(raw.substring(i + 1, end));
+                i = end;
+                if (i < raw.length() && raw.charAt(i) == '(') {
+                    int close = raw.indexOf(')', i);
+                    if (close > i) {
+                        re.append('(').append(raw, i + 1, close).append(')');
+                        i = close + 1;
+                        continue;
+                    }
+                }
+                re.append("([^/]+?)");
+            } else if (c == '*') {
+                names.add(String.valueOf(unnamed++));
+                re.append("(.*)");
+                i++;
+            } else {
+                // literal text; a backslash escapes the next character (path-to-regexp's \. and \:)
+                StringBuilder text = new StringBuilder();
+                while (i < raw.length() && raw.charAt(i) != ':' && raw.charAt(i) != '*') {
+                    if (raw.charAt(i) == '\\' && i + 1 < raw.length()) {
+                        i++;
+                    }
+                    text.append(raw.charAt(i++));
+                }
+                re.append(Pattern.quote(text.toString()));
+            }
+        }
+        Pattern p = compileOrNull(re.toString());
+        return p == null ? Seg.literal(raw) : new Seg(Kind.MIXED, raw, p, List.copyOf(names), 0);
+    }
+
+    private static int nameEnd(String s, int from) {
+        int i = from;
+        while (i < s.length() && (Character.isLetterOrDigit(s.charAt(i)) || s.charAt(i) == '_')) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isName(String s) {
+        return !s.isEmpty() && nameEnd(s, 0) == s.length();
+    }
+
+    private static Pattern compileOrNull(String regex) {
+        try {
+            return Pattern.compile(regex);
+        } catch (PatternSyntaxException bad) {
+            return null;
+        }
+    }
+}
@@ -5,7 +5,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -22,9 +25,14 @@ import java.util.regex.Pattern;
  * app/router-shaped receiver, a real HTTP verb, a string path. The
  * CLIENT side is equally narrow — only {@code fetch(} and the axios
  * family, only string literals starting with {@code /} — so an
- * arbitrary string never becomes a jump point. Exact-path match only:
- * {@code /api/users/:id} is not matched by {@code /api/users/123}
- * (recorded limit — param-aware matching waits for a real need).
+ * arbitrary string never becomes a jump point.
+ *
+ * <p>Param-aware: the project's routes are kept as a {@link RouteTable}
+ * (a segment trie), so {@code /api/users/123} and
+ * {@code `/api/users/${id}`} land on {@code /api/users/:id}. The table
+ * is cached per project and rebuilt only when a source's (mtime, size)
+ * moved — each file's routes are cached the CssTokens way, so a click
+ * after an edit re-reads the edited file and nothing else.
  */
 public final class Routes {
 
@@ -98,42 +106,232 @@ public final class Routes {
                 || c == '/' || c == '-' || c == '_' || c == '.' || c == ':';
     }
 
+    private static final int MAX_CLIENT_PATH = 400;
+    private static final Pattern FETCH_METHOD = Pattern.compile(
+            "\\bmethod\\s*:\\s*[`'\"]([A-Za-z]+)[`'\"]");
+
+    /**
+     * The whole client path whose span starts at {@code start} — up to
+     * the closing quote, not just the clicked span — with each
+     * template-literal {@code ${…}} replaced by
+     * {@link RouteTable#DYNAMIC}, so {@code `/api/users/${id}`} still
+     * matches {@code /api/users/:id}.
+     */
+    public static String clientPath(String text, int start) {
+        char quote = text.charAt(start - 1);
+        StringBuilder out = new StringBuilder();
+        int i = start;
+        while (i < text.length() && out.length() < MAX_CLIENT_PATH) {
+            char c = text.charAt(i);
+            if (c == quote || c == '\n') {
+                break;
+            }
+            if (quote == '`' && c == '$' && i + 1 < text.length() && text.charAt(i + 1) == '{') {
+                int close = text.indexOf('}', i);
+                if (close < 0) {
+                    break;
+                }
+                out.append(RouteTable.DYNAMIC);
+                i = close + 1;
+                continue;
+            }
+            out.append(c);
+            i++;
+        }
+        return out.toString();
+    }
+
+    /**
+     * The HTTP verb of the client call whose path starts at
+     * {@code start}, lower-case: the axios method name, a fetch's
+     * {@code method:} option, {@code get} for a bare fetch (its
+     * default), null for {@code axios(config)} — the route match then
+     * takes any verb.
+     */
+    public static String clientVerb(String text, int start) {
+        String before = text.substring(0, start - 1).stripTrailing();
+        if (before.endsWith("axios(")) {
+            return null;
+        }
+        if (!before.endsWith("fetch(")) {
+            // clientPathSpanAt admitted the call: axios.<verb>(
+            int dot = before.lastIndexOf('.');
+            return before.substring(dot + 1, before.length() - 1).toLowerCase(Locale.ROOT);
+        }
+        int close = text.indexOf(')', start);
+        String args = text.substring(start, close < 0 ? Math.min(text.length(), start + MAX_CLIENT_PATH)
+                : Math.min(close, start + MAX_CLIENT_PATH));
+        Matcher m = FETCH_METHOD.matcher(args);
+        return m.find() ? m.group(1).toLowerCase(Locale.ROOT) : "get";
+    }
+
     // ---- the server side --------------------------------------------------
 
-    /** Every route registration in one file's text. */
+    /**
+     * Every route registration in one file's text. The path is the
+     * string literal's VALUE, not its source text: Express sees
+     * {@code '/users/:id(\\d+)'} as {@code /users/:id(\d+)}, and the
+     * route table compiles the constraint from what Express sees.
+     */
     static List<Route> routesIn(String text, File file) {
         List<Route> out = new ArrayList<>();
         Matcher m = SERVER_ROUTE.matcher(text);
         while (m.find()) {
-            out.add(new Route(m.group(1), m.group(2), file, m.start(2)));
+            out.add(new Route(m.group(1), unescape(m.group(2)), file, m.start(2)));
         }
         return out;
     }
 
     /**
-     * The first route in the project whose path EQUALS {@code path} —
-     * a bounded sweep over the project's JS/TS sources (same caps and
-     * skip list as the design scans; uncached, a click-time query).
-     * Callers run this OFF the EDT.
+     * A JS string literal's body unescaped the way the engine does it:
+     * the named escapes, the hex and unicode ones, and for any
+     * other character the backslash simply dropped ({@code '\d'} is
+     * {@code d} in JS — which is why route constraints double it).
      */
-    public static Route findRoute(File root, String path) {
-        if (root == null || !root.isDirectory() || path == null || path.isEmpty()) {
-            return null;
+    static String unescape(String body) {
+        if (body.indexOf('\\') < 0) {
+            return body;
+        }
+        StringBuilder out = new StringBuilder(body.length());
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c != '\\' || i + 1 == body.length()) {
+                out.append(c);
+                continue;
+            }
+            char e = body.charAt(++i);
+            int hex = e == 'x' ? 2 : e == 'u' ? 4 : 0;
+            if (hex > 0 && i + hex < body.length() && isHex(body, i + 1, i + 1 + hex)) {
+                out.append((char) Integer.parseInt(body.substring(i + 1, i + 1 + hex), 16));
+                i += hex;
+                continue;
+            }
+            out.append(switch (e) {
+                case 'n' -> '\n';
+                case 't' -> '\t';
+                case 'r' -> '\r';
+                case 'b' -> '\b';
+                case 'f' -> '\f';
+                case 'v' -> '\u000B';
+                case '0' -> '\0';
+                default -> e;
+            });
+        }
+        return out.toString();
+    }
+
+    private static boolean isHex(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (Character.digit(s.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private record Parsed(long mtime, long size, List<Route> routes) {
+    }
+
+    private record Compiled(List<Parsed> from, RouteTable table) {
+    }
+
+    private static final Map<String, Parsed> PARSED = new ConcurrentHashMap<>();
+    private static final Map<String, Compiled> TABLES = new ConcurrentHashMap<>();
+    private static final int PARSED_CAP = 1024;
+    private static final int TABLES_CAP = 16;
+
+    /**
+     * The project's route map: every registration across its JS/TS
+     * sources (same caps and skip list as the design scans), compiled.
+     * Re-reads only sources whose (mtime, size) moved and recompiles
+     * only when one did; the walk itself is a stat pass. Callers run
+     * this OFF the EDT.
+     */
+    public static RouteTable table(File root) {
+        if (root == null || !root.isDirectory()) {
+            return RouteTable.of(List.of());
         }
         List<File> sources = new ArrayList<>();
         collect(root, sources, 0);
+        if (PARSED.size() >= PARSED_CAP) {
+            PARSED.clear(); // bounded by wholesale clear (NgTemplates idiom)
+        }
+        List<Parsed> parts = new ArrayList<>(sources.size());
         for (File f : sources) {
-            try {
-                for (Route r : routesIn(Files.readString(f.toPath()), f)) {
-                    if (r.path().equals(path)) {
-                        return r;
-                    }
-                }
-            } catch (IOException | OutOfMemoryError unreadable) {
-                // skip the file, keep the sweep
+            String key = f.getAbsolutePath();
+            long mtime = f.lastModified();
+            long size = f.length();
+            Parsed p = PARSED.get(key);
+            if (p == null || p.mtime() != mtime || p.size() != size) {
+                p = new Parsed(mtime, size, parse(f));
+                PARSED.put(key, p);
             }
+            parts.add(p);
         }
-        return null;
+        String rootKey = root.getAbsolutePath();
+        Compiled had = TABLES.get(rootKey);
+        if (had != null && sameParts(had.from(), parts)) {
+            return had.table();
+        }
+        List<Route> all = new ArrayList<>();
+        for (Parsed p : parts) {
+            all.addAll(p.routes());
+        }
+        RouteTable table = RouteTable.of(all);
+        if (TABLES.size() >= TABLES_CAP) {
+            TABLES.clear();
+        }
+        TABLES.put(rootKey, new Compiled(List.copyOf(parts), table));
+        return table;
+    }
+
+    /** Identity, not equality: a re-parsed file is a new entry even with equal routes. */
+    private static boolean sameParts(List<Parsed> a, List<Parsed> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+        for (int i = 0; i < a.size(); i++) {
+            if (a.get(i) != b.get(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<Route> parse(File f) {
+        try {
+            return List.copyOf(routesIn(Files.readString(f.toPath()), f));
+        } catch (IOException | OutOfMemoryError unreadable) {
+            return List.of(); // skip the file, keep the sweep
+        }
+    }
+
+    /**
+     * The route that serves {@code path} in the project — params,
+     * wildcards and optional segments honored, the most specific
+     * route first — or null. Any verb.
+     */
+    public static Route findRoute(File root, String path) {
+        return findRoute(root, path, null);
+    }
+
+    /**
+     * {@link #findRoute(File, String)} preferring a route registered
+     * for {@code verb} (or {@code all}); a route of another verb is
+     * still returned when it is the only one serving the path.
+     */
+    public static Route findRoute(File root, String path, String verb) {
+        if (root == null || !root.isDirectory() || path == null || path.isEmpty()) {
+            return null;
+        }
+        RouteTable.Match m = table(root).match(path, verb);
+        return m == null ? null : m.route();
+    }
+
+    /** Test seam: forget cached files and tables. */
+    static void clearCacheForTest() {
+        PARSED.clear();
+        TABLES.clear();
     }
 
     private static void collect(File dir, List<File> sources, int depth) {
@@ -0,0 +1,45 @@
+package org.nmox.studio.editor.fullstack;
+
+import java.awt.Dialog;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.io.File;
+import javax.swing.JButton;
+import org.nmox.studio.core.spi.ProjectAim;
+import org.openide.DialogDescriptor;
+import org.openide.DialogDisplayer;
+import org.openide.awt.ActionID;
+import org.openide.awt.ActionReference;
+import org.openide.awt.ActionRegistration;
+import org.openide.awt.StatusDisplayer;
+import org.openide.util.NbBundle.Messages;
+
+/**
+ * Opens the aimed project's route map — every server route the fetch
+ * ⌘-click can land on, and which one a given path reaches. Non-modal,
+ * like Find in Project, so routes can be opened one after another.
+ */
+@ActionID(category = "Edit", id = "org.nmox.studio.editor.fullstack.RoutesAction")
+@ActionRegistration(displayName = "#CTL_ProjectRoutes")
+@ActionReference(path = "Menu/Edit", position = 2460)
+@Messages("CTL_ProjectRoutes=Project Routes…")
+public final class RoutesAction implements ActionListener {
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        ProjectAim aim = ProjectAim.find();
+        File root = aim == null ? null : aim.projectDir();
+        if (root == null || !root.isDirectory()) {
+            StatusDisplayer.getDefault().setStatusText("Project Routes needs an open project");
+            return;
+        }
+        RoutesPanel panel = new RoutesPanel(root);
+        JButton close = new JButton("Close");
+        DialogDescriptor d = new DialogDescriptor(panel, "Project Routes", false,
+                new Object[]{close}, close, DialogDescriptor.DEFAULT_ALIGN, null, null);
+        Dialog dialog = DialogDisplayer.getDefault().createDialog(d);
+        close.addActionListener(ev -> dialog.dispose());
+        dialog.setVisible(true);
+        panel.filterField().requestFocusInWindow();
+    }
+}
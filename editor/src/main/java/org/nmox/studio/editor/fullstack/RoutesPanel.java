@@ -0,0 +1,168 @@
+package org.nmox.studio.editor.fullstack;
+
+import java.awt.BorderLayout;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.DefaultListModel;
+import javax.swing.JComponent;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPanel;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.KeyStroke;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import org.openide.util.RequestProcessor;
+
+/**
+ * The dialog behind Edit ▸ Project Routes…: the project's
+ * {@link RouteTable} as a list ({@code GET /api/users/:id — src/server.ts}),
+ * with a filter line. A filter starting with {@code /} is a request
+ * path and shows the one route that serves it, params bound, exactly as
+ * ⌘-click on a fetch would resolve it; anything else filters by
+ * substring. Enter or a double-click opens the registration. The table
+ * is built once per dialog on its own RP; the filter runs against it on
+ * the EDT (a trie walk, not a scan).
+ */
+final class RoutesPanel extends JPanel {
+
+    private static final RequestProcessor RP = new RequestProcessor("nmox-project-routes", 1);
+
+    private final File root;
+    private final JTextField filter = new JTextField();
+    private final JLabel status = new JLabel("Reading routes…");
+    private final DefaultListModel<Routes.Route> model = new DefaultListModel<>();
+    private final JList<Routes.Route> list = new JList<>(model);
+    private RouteTable table;
+
+    RoutesPanel(File root) {
+        super(new BorderLayout(0, 8));
+        this.root = root;
+        setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
+        setPreferredSize(new Dimension(700, 480));
+
+        JPanel north = new JPanel(new BorderLayout(0, 4));
+        north.add(new JLabel("Routes in " + root.getName() + " (filter, or a path like /api/users/42):"),
+                BorderLayout.NORTH);
+        north.add(filter, BorderLayout.CENTER);
+        add(north, BorderLayout.NORTH);
+
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setCellRenderer(new RouteRenderer(root));
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    openSelected();
+                }
+            }
+        });
+        list.getInputMap(JComponent.WHEN_FOCUSED).put(KeyStroke.getKeyStroke(KeyEvent.VK_ENTER, 0), "open");
+        list.getActionMap().put("open", new javax.swing.AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                openSelected();
+            }
+        });
+        add(new JScrollPane(list), BorderLayout.CENTER);
+        add(status, BorderLayout.SOUTH);
+
+        filter.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                refilter();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                refilter();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                refilter();
+            }
+        });
+        filter.addActionListener(e -> openSelected());
+        RP.post(() -> {
+            RouteTable built = Routes.table(root);
+            SwingUtilities.invokeLater(() -> {
+                table = built;
+                refilter();
+            });
+        });
+    }
+
+    JTextField filterField() {
+        return filter;
+    }
+
+    private void refilter() {
+        if (table == null) {
+            return;
+        }
+        model.clear();
+        String q = filter.getText().strip();
+        if (q.startsWith("/")) {
+            RouteTable.Match m = table.match(q, null);
+            if (m == null) {
+                status.setText("No route serves " + q);
+            } else {
+                model.addElement(m.route());
+                status.setText(m.params().isEmpty() ? "Served by " + m.route().path()
+                        : "Served by " + m.route().path() + " with " + m.params());
+            }
+        } else {
+            String needle = q.toLowerCase(Locale.ROOT);
+            List<Routes.Route> all = table.routes();
+            for (Routes.Route r : all) {
+                if (needle.isEmpty() || (r.verb() + " " + r.path()).toLowerCase(Locale.ROOT).contains(needle)) {
+                    model.addElement(r);
+                }
+            }
+            status.setText(model.size() + " of " + all.size() + " route(s)"
+                    + (all.size() == 0 ? " — none registered in this project's JS/TS sources" : ""));
+        }
+        if (!model.isEmpty()) {
+            list.setSelectedIndex(0);
+        }
+    }
+
+    private void openSelected() {
+        Routes.Route r = list.getSelectedValue();
+        if (r != null) {
+            ProjectJumpHyperlink.openAt(r.file(), r.offset());
+        }
+    }
+
+    /** {@code GET  /api/users/:id — src/server.ts}, path relative to the project. */
+    private static final class RouteRenderer extends DefaultListCellRenderer {
+
+        private final File root;
+
+        RouteRenderer(File root) {
+            this.root = root;
+        }
+
+        @Override
+        public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                boolean isSelected, boolean cellHasFocus) {
+            Routes.Route r = (Routes.Route) value;
+            String where = root.toPath().relativize(r.file().toPath()).toString();
+            return super.getListCellRendererComponent(list,
+                    r.verb().toUpperCase(Locale.ROOT) + "  " + r.path() + "  — " + where,
+                    index, isSelected, cellHasFocus);
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package org.nmox.studio.editor.lsp;
 
-import java.io.File;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -168,29 +167,32 @@ public final class LanguageServerCatalog {
     }
 
     /**
-     * True if the binary resolves on the IDE's augmented PATH. Deliberately
-     * NOT delegated to ToolLocator.resolve(): that caches misses for the JVM
-     * lifetime, and this probe must see a server the user just installed
-     * (the LSP health panel's install flow re-checks right after).
+     * True if the binary resolves on the IDE's augmented PATH. Answered by
+     * ToolLocator's directory index, which re-lists a PATH entry as soon
+     * as its mtime moves — but this probe must see a server the user just
+     * installed (the LSP health panel's install flow re-checks right
+     * after), so it forces the recheck rather than trust the index's
+     * one-second window. Windows spellings ({@code .exe} native servers,
+     * npm's {@code .cmd} shims) resolve there too.
      */
     public static boolean isInstalled(String binary) {
-        for (String dir : ToolLocator.augmentedPath().split(File.pathSeparator)) {
-            if (foundIn(new File(dir), binary)) {
-                return true;
-            }
-        }
-        return false;
+        ToolLocator.refresh();
+        return ToolLocator.isResolvable(binary);
     }
 
     /**
-     * One PATH entry's verdict. On Windows nothing is executable under the
-     * bare name — native servers ship {@code .exe}, npm shims ship
-     * {@code .cmd} — so probe the same two suffixes ToolLocator resolves;
-     * without them no language server was EVER detected on Windows.
+     * The subset of {@code binaries} that resolve, checked against ONE
+     * fresh index pass — the health panel's whole table at once instead
+     * of a recheck per row.
      */
-    static boolean foundIn(File dir, String binary) {
-        return new File(dir, binary).canExecute()
-                || new File(dir, binary + ".exe").isFile()
-                || new File(dir, binary + ".cmd").isFile();
+    public static java.util.Set<String> installed(java.util.Collection<String> binaries) {
+        ToolLocator.refresh();
+        java.util.Set<String> present = new java.util.LinkedHashSet<>();
+        ToolLocator.resolveAll(binaries).forEach((binary, resolved) -> {
+            if (!resolved.equals(binary)) {
+                present.add(binary);
+            }
+        });
+        return present;
     }
 }
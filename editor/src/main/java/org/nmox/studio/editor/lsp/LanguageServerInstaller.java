@@ -2,6 +2,7 @@ package org.nmox.studio.editor.lsp;
 
 import java.io.File;
 import java.util.Map;
+import org.nmox.studio.core.process.ToolLocator;
 import org.nmox.studio.editor.lsp.LanguageServerCatalog.Server;
 import org.nmox.studio.rack.engine.CommandExecutor;
 
@@ -84,8 +85,11 @@ public final class LanguageServerInstaller {
         CommandExecutor.Handle handle = CommandExecutor.run(
                 tab, cwd, Map.of(), server.command(), line -> {
                 }, exit -> {
-                    // success = the command succeeded; a freshly-installed binary may
-                    // not be on the resolved PATH until restart, so trust the exit code
+                    // success = the command succeeded, so trust the exit code; the
+                    // locator rechecks its directories now so the panel's re-check
+                    // sees the new binary (if it landed outside every search dir,
+                    // it still reads missing until the user puts it on PATH)
+                    ToolLocator.refresh();
                     Result r = exit == 0 ? Result.INSTALLED : Result.FAILED;
                     listener.onFinished(server, r, exit);
                 });
@@ -0,0 +1,162 @@
+package org.nmox.studio.editor.lsp;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.netbeans.api.editor.mimelookup.MimeLookup;
+import org.netbeans.api.project.FileOwnerQuery;
+import org.netbeans.api.project.Project;
+import org.netbeans.api.project.ProjectManager;
+import org.netbeans.modules.lsp.client.spi.LanguageServerProvider;
+import org.nmox.studio.core.spi.ProjectAim;
+import org.nmox.studio.rack.devices.ProjectInspector;
+import org.nmox.studio.rack.devices.ProjectInspector.ProjectKind;
+import org.openide.filesystems.FileObject;
+import org.openide.filesystems.FileUtil;
+import org.openide.modules.OnStart;
+import org.openide.util.RequestProcessor;
+import org.openide.util.lookup.Lookups;
+
+/**
+ * Boots the aimed project's language servers before the first file
+ * opens. The project's detected kinds name the mimes its sources will
+ * be ({@link #MIMES}); each mime's registered providers run in
+ * {@link ServerPool#prewarm} mode, so exactly the servers a file-open
+ * would have started - same trust gates, same yields - start now, in
+ * the background, and wait in the pool for the client.
+ *
+ * <p>Bounded on purpose: at most {@link #MAX_PROVIDERS} providers per
+ * aim (the kinds' precedence order picks which), never the home
+ * directory's default aim, and {@code -Dnmox.lsp.prewarm=false} turns
+ * it off.
+ */
+@OnStart
+public final class LanguageServerWarmup implements Runnable {
+
+    private static final Logger LOG = Logger.getLogger(LanguageServerWarmup.class.getName());
+
+    /** Providers warmed per aim: a monorepo's fifth language can wait for its first file. */
+    static final int MAX_PROVIDERS = 4;
+    /** Aims in quick succession (a recent-projects walk) warm only the last. */
+    private static final int SETTLE_MS = 1500;
+
+    /** The mimes a project kind's sources open as, in the order worth warming. */
+    static final Map<ProjectKind, List<String>> MIMES = Map.ofEntries(
+            Map.entry(ProjectKind.NODE, List.of("text/typescript", "text/javascript")),
+            Map.entry(ProjectKind.RUST, List.of("text/x-rust")),
+            Map.entry(ProjectKind.GO, List.of("text/x-go")),
+            Map.entry(ProjectKind.PYTHON, List.of("text/x-python")),
+            Map.entry(ProjectKind.RUBY, List.of("text/x-ruby")),
+            Map.entry(ProjectKind.PHP, List.of("text/x-php5")),
+            Map.entry(ProjectKind.DART, List.of("text/x-dart")),
+            Map.entry(ProjectKind.DOTNET, List.of("text/x-csharp")),
+            Map.entry(ProjectKind.SCALA, List.of("text/x-scala")),
+            Map.entry(ProjectKind.ELIXIR, List.of("text/x-elixir")),
+            Map.entry(ProjectKind.GLEAM, List.of("text/x-gleam")),
+            Map.entry(ProjectKind.SWIFT, List.of("text/x-swift")),
+            Map.entry(ProjectKind.HASKELL, List.of("text/x-haskell")),
+            Map.entry(ProjectKind.ZIG, List.of("text/x-zig")),
+            Map.entry(ProjectKind.FOUNDRY, List.of("text/x-solidity")),
+            Map.entry(ProjectKind.MAVEN, List.of("text/x-java")),
+            Map.entry(ProjectKind.GRADLE, List.of("text/x-java", "text/x-kotlin")),
+            Map.entry(ProjectKind.CMAKE, List.of("text/x-cpp")));
+
+    private static final RequestProcessor RP = new RequestProcessor("nmox-lsp-warmup", 1, true);
+    private static final RequestProcessor.Task WARM = RP.create(LanguageServerWarmup::warmAimed);
+
+    @Override
+    public void run() {
+        if (!Boolean.parseBoolean(System.getProperty("nmox.lsp.prewarm", "true"))) {
+            return;
+        }
+        ProjectAim aim = ProjectAim.find();
+        if (aim == null) {
+            return;
+        }
+        aim.addListener(() -> WARM.schedule(SETTLE_MS));
+        WARM.schedule(SETTLE_MS); // the project restored at startup counts as aimed
+    }
+
+    private static void warmAimed() {
+        ProjectAim aim = ProjectAim.find();
+        if (aim != null) {
+            warm(aim.projectDir());
+        }
+    }
+
+    /** Prewarms {@code dir}'s implied servers; returns how many providers ran. */
+    static int warm(File dir) {
+        if (dir == null || !dir.isDirectory()
+                || dir.equals(new File(System.getProperty("user.home")))) {
+            return 0;
+        }
+        Project project = projectOf(dir);
+        if (project == null) {
+            return 0;
+        }
+        List<LanguageServerProvider> providers = providersFor(mimesFor(ProjectInspector.detectKinds(dir).keySet()));
+        int ran = 0;
+        for (LanguageServerProvider provider : providers) {
+            if (ran == MAX_PROVIDERS) {
+                break;
+            }
+            ran++;
+            try {
+                ServerPool.prewarm(() -> provider.startServer(Lookups.fixed(project)));
+            } catch (RuntimeException ex) {
+                // one provider's trouble never costs the others their warm start
+                LOG.log(Level.FINE, "prewarm of " + provider.getClass().getSimpleName() + " failed", ex);
+            }
+        }
+        return ran;
+    }
+
+    /** The kinds' mimes, deduplicated, in the kinds' precedence order. */
+    static List<String> mimesFor(Set<ProjectKind> kinds) {
+        Set<String> mimes = new LinkedHashSet<>();
+        for (ProjectKind kind : kinds) {
+            mimes.addAll(MIMES.getOrDefault(kind, List.of()));
+        }
+        return new ArrayList<>(mimes);
+    }
+
+    /**
+     * Every provider the platform would consult for these mimes, each
+     * once: a multi-mime provider is one instance under all its mimes
+     * (see LanguageServers' singleton note), so identity dedups it.
+     */
+    private static List<LanguageServerProvider> providersFor(List<String> mimes) {
+        Set<LanguageServerProvider> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<LanguageServerProvider> out = new ArrayList<>();
+        for (String mime : mimes) {
+            for (LanguageServerProvider p : MimeLookup.getLookup(mime).lookupAll(LanguageServerProvider.class)) {
+                if (seen.add(p)) {
+                    out.add(p);
+                }
+            }
+        }
+        return out;
+    }
+
+    /** The project the platform will hand the providers for files under {@code dir}. */
+    private static Project projectOf(File dir) {
+        FileObject fo = FileUtil.toFileObject(FileUtil.normalizeFile(dir));
+        if (fo == null) {
+            return null;
+        }
+        try {
+            Project project = ProjectManager.getDefault().findProject(fo);
+            return project != null ? project : FileOwnerQuery.getOwner(fo);
+        } catch (IOException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
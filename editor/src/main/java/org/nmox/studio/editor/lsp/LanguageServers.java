@@ -53,23 +53,37 @@ public final class LanguageServers {
             if (refusesCommand(resolved.get(0), command.get(0))) {
                 return null;
             }
-            ProcessBuilder pb = new ProcessBuilder(resolved);
-            if (dir != null) {
-                pb.directory(dir);
-            }
-            pb.environment().put("PATH", ToolLocator.augmentedPath());
-            pb.redirectError(ProcessBuilder.Redirect.DISCARD);
-            Process process = pb.start();
-            java.io.OutputStream serverIn = process.getOutputStream();
-            if (initOptions != null) {
-                serverIn = new InitOptionsInjector(serverIn, initOptions);
+            ServerPool.Spawner spawner = () -> {
+                ProcessBuilder pb = new ProcessBuilder(resolved);
+                if (dir != null) {
+                    pb.directory(dir);
+                }
+                pb.environment().put("PATH", ToolLocator.augmentedPath());
+                pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+                return pb.start();
+            };
+            ServerPool.Key key = new ServerPool.Key(resolved, dir,
+                    initOptions == null ? "" : initOptions.toString());
+            // through the pool: a parked warm instance if one waits, and the
+            // per-server numbers and idle budget either way (ServerPool).
+            // The options rewrite applies only where the client's own
+            // initialize reaches the server; a warm handshake carried them.
+            // Inside a prewarm the process is parked for the client that
+            // will ask, and the description is only "this one runs"
+            java.util.function.UnaryOperator<java.io.OutputStream> inject = initOptions == null
+                    ? null : serverIn -> new InitOptionsInjector(serverIn, initOptions);
+            ServerPool.Connection server = ServerPool.prewarming()
+                    ? ServerPool.park(key, spawner, initOptions)
+                    : ServerPool.open(key, spawner, initOptions, inject);
+            if (server == null) {
+                return null;
             }
             // the Lookup carries the languageId mapping: without it the
             // client sends the RAW MIME as didOpen's languageId and
             // id-keyed servers (ngserver above all) silently ignore the
             // document — see LspLanguageIds
             return LanguageServerProvider.LanguageServerDescription.create(
-                    process.getInputStream(), serverIn, process,
+                    server.in(), server.out(), server.process(),
                     org.openide.util.lookup.Lookups.fixed(new LspLanguageIds()));
         } catch (IOException ex) {
             // no popup: a missing language server is a normal condition, but
@@ -90,7 +104,8 @@ public final class LanguageServers {
     /** Notifies (once per session) how to install {@code primaryBinary} when the server didn't start. */
     static LanguageServerProvider.LanguageServerDescription reported(
             LanguageServerProvider.LanguageServerDescription result, String primaryBinary) {
-        if (result == null) {
+        // a warm-up launch is the IDE's idea, not the user's: no nagging
+        if (result == null && !ServerPool.prewarming()) {
             LanguageServerHealth.reportMissing(primaryBinary);
         }
         return result;
@@ -13,14 +13,19 @@ import javax.swing.BorderFactory;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
+import javax.swing.JComponent;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 import javax.swing.JProgressBar;
 import javax.swing.JScrollPane;
+import javax.swing.JTable;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.table.AbstractTableModel;
 import org.nmox.studio.editor.lsp.LanguageServerCatalog.Server;
 import org.nmox.studio.editor.lsp.LanguageServerInstaller.Result;
 import org.nmox.studio.rack.engine.CommandExecutor;
+import org.openide.util.RequestProcessor;
 
 /**
  * The install interface behind Tools ▸ Language Servers…: every language
@@ -28,6 +33,7 @@ import org.nmox.studio.rack.engine.CommandExecutor;
  * Install that runs the ecosystem's own command with the bar running
  * across while it downloads. Installs run one at a time (the bar tracks
  * the batch); output streams to the Output window; Cancel kills the run.
+ * Above the list, the servers running right now ({@link ServerPool}).
  */
 public final class LanguageServersPanel extends JPanel {
 
@@ -42,16 +48,22 @@ public final class LanguageServersPanel extends JPanel {
     private CommandExecutor.Handle current;
     private int batchTotal;
     private int batchDone;
+    private final RunningModel runningModel = new RunningModel();
+    private final Timer poll = new Timer(2000, e -> refreshRunning());
+    private static final RequestProcessor POLL_RP = new RequestProcessor("nmox-lsp-stats", 1, true);
 
     public LanguageServersPanel() {
         super(new BorderLayout(0, 8));
         setBorder(BorderFactory.createEmptyBorder(12, 12, 12, 12));
-        setPreferredSize(new Dimension(560, 520));
+        setPreferredSize(new Dimension(620, 640));
 
         JLabel header = new JLabel("<html><b>Language servers</b> — the intelligence backends behind "
                 + "hover, go-to-definition, rename and live errors. Install one and it lights up "
                 + "the next time you open that language.</html>");
-        add(header, BorderLayout.NORTH);
+        JPanel north = new JPanel(new BorderLayout(0, 8));
+        north.add(header, BorderLayout.NORTH);
+        north.add(running(), BorderLayout.CENTER);
+        add(north, BorderLayout.NORTH);
 
         JPanel list = new JPanel();
         list.setLayout(new BoxLayout(list, BoxLayout.Y_AXIS));
@@ -83,13 +95,98 @@ public final class LanguageServersPanel extends JPanel {
         add(footer, BorderLayout.SOUTH);
     }
 
+    /**
+     * The Running section: every server the pool holds, with what it cost
+     * to start, what it holds in memory and how fast it answers. Polled
+     * while the panel is showing; the numbers (RSS reads a process tree)
+     * are gathered off the EDT.
+     */
+    private JComponent running() {
+        JTable table = org.nmox.studio.core.util.PlainTables.disableHtml(new JTable(runningModel));
+        table.setFillsViewportHeight(true);
+        table.setRowSelectionAllowed(false);
+        table.getColumnModel().getColumn(0).setPreferredWidth(170);
+        table.getColumnModel().getColumn(1).setPreferredWidth(110);
+        JScrollPane scroll = new JScrollPane(table);
+        scroll.setPreferredSize(new Dimension(560, 120));
+        scroll.setBorder(BorderFactory.createTitledBorder("Running"));
+        return scroll;
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        poll.start();
+        refreshRunning();
+    }
+
+    @Override
+    public void removeNotify() {
+        poll.stop();
+        super.removeNotify();
+    }
+
+    private void refreshRunning() {
+        POLL_RP.post(() -> {
+            List<ServerPool.Stats> stats = ServerPool.snapshot();
+            SwingUtilities.invokeLater(() -> runningModel.show(stats));
+        });
+    }
+
+    /** One table row's cells for a server's numbers; "—" where the pool doesn't know yet. */
+    static String[] cells(ServerPool.Stats s) {
+        return new String[]{
+            s.server() + "  (" + s.pid() + ")",
+            s.root() == null ? "—" : s.root().getName(),
+            s.state(),
+            s.startupMs() < 0 ? "—" : s.startupMs() + " ms",
+            s.rssKb() < 0 ? "—" : (s.rssKb() + 512) / 1024 + " MB",
+            s.p50Ms() < 0 ? "—" : s.p50Ms() + " / " + s.p95Ms() + " ms  (" + s.requests() + ")",
+            s.idleMs() < 0 ? "—" : s.idleMs() < 60_000 ? s.idleMs() / 1000 + " s" : s.idleMs() / 60_000 + " min"
+        };
+    }
+
+    private static final class RunningModel extends AbstractTableModel {
+
+        private static final String[] COLUMNS = {
+            "Server", "Project", "State", "Startup", "Memory", "p50 / p95 (requests)", "Idle"};
+        private List<String[]> rows = List.of();
+
+        void show(List<ServerPool.Stats> stats) {
+            rows = stats.stream().map(LanguageServersPanel::cells).toList();
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            return rows.get(row)[column];
+        }
+    }
+
     private void installAllMissing() {
         if (current != null) {
             return;
         }
         queue.clear();
+        java.util.Set<String> present = LanguageServerCatalog.installed(
+                rows.stream().map(r -> r.server.binary()).toList());
         for (Row r : rows) {
-            if (!LanguageServerCatalog.isInstalled(r.server.binary()) && r.server.autoInstallable()) {
+            if (!present.contains(r.server.binary()) && r.server.autoInstallable()) {
                 queue.add(r);
             }
         }
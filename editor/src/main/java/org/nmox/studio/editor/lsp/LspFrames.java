@@ -0,0 +1,184 @@
+package org.nmox.studio.editor.lsp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The base protocol's framing, as much as {@link ServerPool} needs to
+ * stand between the platform's client and a server: read one
+ * {@code Content-Length} frame, write one, and tell a request from a
+ * response by its first few hundred bytes.
+ *
+ * <p>{@link #sniff} deliberately does not parse: a completion response
+ * can run to megabytes and the pool only wants {@code id} and
+ * {@code method}, which every server we ship writes near the front
+ * (vscode-jsonrpc, lsp4j and serde all emit the envelope keys before
+ * the payload). Keys are matched at the top level only, so a
+ * {@code "method"} inside params never reads as the message's own.
+ */
+final class LspFrames {
+
+    /** A frame larger than this is a broken stream, not a message. */
+    static final int FRAME_CAP = 256 << 20;
+    /** How far into a body {@link #sniff} looks for the envelope. */
+    static final int SNIFF_BYTES = 1024;
+
+    private LspFrames() {
+    }
+
+    /** The envelope of one message: id (null for notifications), method (null for responses). */
+    record Sniff(String id, String method) {
+
+        boolean request() {
+            return id != null && method != null;
+        }
+
+        boolean response() {
+            return id != null && method == null;
+        }
+    }
+
+    /** One body with its header, ready for the wire. */
+    static byte[] frame(byte[] body) {
+        byte[] header = ("Content-Length: " + body.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] out = new byte[header.length + body.length];
+        System.arraycopy(header, 0, out, 0, header.length);
+        System.arraycopy(body, 0, out, header.length, body.length);
+        return out;
+    }
+
+    static byte[] frame(String json) {
+        return frame(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads one frame's body; null on a clean EOF between frames.
+     *
+     * @throws IOException on EOF mid-frame or a header without a length
+     */
+    static byte[] readFrame(InputStream in) throws IOException {
+        int length = -1;
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        boolean any = false;
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                if (any) {
+                    throw new IOException("stream ended inside a frame header");
+                }
+                return null;
+            }
+            any = true;
+            if (b == '\n') {
+                String text = line.toString(StandardCharsets.US_ASCII).trim();
+                line.reset();
+                if (text.isEmpty()) {
+                    if (length >= 0) {
+                        break;
+                    }
+                    continue; // stray blank line between frames
+                }
+                int colon = text.indexOf(':');
+                if (colon > 0 && text.substring(0, colon).trim().equalsIgnoreCase("Content-Length")) {
+                    try {
+                        length = Integer.parseInt(text.substring(colon + 1).trim());
+                    } catch (NumberFormatException ex) {
+                        throw new IOException("bad Content-Length: " + text);
+                    }
+                }
+            } else if (line.size() < 8192) {
+                line.write(b);
+            } else {
+                throw new IOException("frame header line too long");
+            }
+        }
+        if (length < 0 || length > FRAME_CAP) {
+            throw new IOException("frame length out of range: " + length);
+        }
+        byte[] body = in.readNBytes(length);
+        if (body.length < length) {
+            throw new IOException("stream ended inside a frame body");
+        }
+        return body;
+    }
+
+    /** The envelope keys of {@code body}, read from at most {@link #SNIFF_BYTES} of it. */
+    static Sniff sniff(byte[] body) {
+        String head = new String(body, 0, Math.min(body.length, SNIFF_BYTES), StandardCharsets.UTF_8);
+        String id = null;
+        String method = null;
+        int depth = 0;
+        int i = 0;
+        int n = head.length();
+        while (i < n) {
+            char c = head.charAt(i);
+            if (c == '"') {
+                int end = stringEnd(head, i);
+                if (end < 0) {
+                    break;
+                }
+                if (depth == 1) {
+                    String key = head.substring(i + 1, end);
+                    int colon = skipSpace(head, end + 1);
+                    if (colon < n && head.charAt(colon) == ':') {
+                        int value = skipSpace(head, colon + 1);
+                        if (key.equals("id")) {
+                            id = scalar(head, value);
+                        } else if (key.equals("method")) {
+                            method = scalar(head, value);
+                        }
+                        i = value;
+                        continue;
+                    }
+                }
+                i = end + 1;
+            } else {
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+                i++;
+            }
+        }
+        return new Sniff(id, method);
+    }
+
+    /** A string's unquoted text or a number's digits; null for anything else or a cut-off value. */
+    private static String scalar(String s, int at) {
+        if (at >= s.length()) {
+            return null;
+        }
+        if (s.charAt(at) == '"') {
+            int end = stringEnd(s, at);
+            return end < 0 ? null : s.substring(at + 1, end);
+        }
+        int end = at;
+        while (end < s.length() && (Character.isDigit(s.charAt(end)) || s.charAt(end) == '-')) {
+            end++;
+        }
+        return end == at || end == s.length() ? null : s.substring(at, end);
+    }
+
+    /** Index of the closing quote of the string opening at {@code open}; -1 if cut off. */
+    private static int stringEnd(String s, int open) {
+        for (int i = open + 1; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '"') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int skipSpace(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,890 @@
+package org.nmox.studio.editor.lsp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.nmox.studio.core.process.ProcessSupport;
+import org.openide.util.NbPreferences;
+import org.openide.util.RequestProcessor;
+
+/**
+ * The language servers' lifecycle: every process {@link LanguageServers}
+ * launches goes through here, so the IDE - not the first keystroke -
+ * decides when a server boots and when it goes away.
+ *
+ * <p><b>Warm.</b> At aim time {@link LanguageServerWarmup} runs each
+ * implied provider in {@link #prewarm} mode, and the launch it would
+ * have made is {@link #park parked} instead: the process starts, and when
+ * the platform client's capabilities are known (captured from the last
+ * real {@code initialize} it sent, kept in preferences) the pool performs
+ * the handshake itself, so tsserver and rust-analyzer start loading the
+ * project before any file opens. When the client does ask, {@link #open}
+ * hands it the parked process: the client's own {@code initialize} is
+ * answered from the stored result under the client's id, whatever the
+ * server said meanwhile is replayed behind it, and the client's
+ * {@code initialized} is swallowed - the server already had one.
+ * Without captured capabilities (a first run) only the process is warm
+ * and the client's handshake goes through untouched.
+ *
+ * <p><b>Shared.</b> One instance per (resolved command, root, init
+ * options): a prewarm never spawns beside a live one. A stdio server
+ * serves exactly one client, so sharing means the warm instance goes to
+ * whichever window asks first; the platform's bindings already reuse a
+ * started server for every file of the project.
+ *
+ * <p><b>Budgeted.</b> A sweep every {@link #SWEEP_MS} shuts down servers
+ * unused for {@link #IDLE_MS} and parked ones nobody claimed within
+ * {@link #WARM_TTL_MS}, then - while more than {@link #MAX_SERVERS} run
+ * or their summed resident memory exceeds the budget - evicts the least
+ * recently used, never one used within {@link #EVICT_AFTER_MS}. An
+ * evicted server is just a dead process to the platform, whose bindings
+ * start a fresh one on next use.
+ *
+ * <p><b>Measured.</b> Every frame passes through the pool: requests are
+ * matched to their responses by id for per-server latency, the
+ * {@code initialize} round trip is the startup time, and resident
+ * memory is read per process tree ({@link #snapshot}) for the Language
+ * Servers panel.
+ */
+final class ServerPool {
+
+    private static final Logger LOG = Logger.getLogger(ServerPool.class.getName());
+
+    /** A server the client hasn't written to for this long is shut down. */
+    static final long IDLE_MS = Long.getLong("nmox.lsp.idleMinutes", 30) * 60_000;
+    /** A parked server nobody claims within this is shut down. */
+    static final long WARM_TTL_MS = 10 * 60_000;
+    /** The LRU never evicts a server the client used this recently. */
+    static final long EVICT_AFTER_MS = 2 * 60_000;
+    static final int MAX_SERVERS = Integer.getInteger("nmox.lsp.maxServers", 8);
+    static final long RSS_BUDGET_KB = Long.getLong("nmox.lsp.rssBudgetMb", 3072) * 1024;
+    /** A warm handshake not answered within this is abandoned. */
+    static final long HANDSHAKE_TIMEOUT_MS = 60_000;
+    static final int SWEEP_MS = 30_000;
+    /** What a parked server may say before anyone listens; past it, the warm start is dropped. */
+    static final int REPLAY_CAP = 8 << 20;
+    /** Latency samples kept per server for the percentiles. */
+    static final int SAMPLES = 256;
+
+    static final String PREF_CAPABILITIES = "lsp.clientCapabilities";
+    private static final String WARM_ID = "nmox-warm-initialize";
+
+    /** What makes two launches the same server. */
+    record Key(List<String> command, File root, String initOptions) {
+
+        /** The binary's name, for people. */
+        String name() {
+            return new File(command.get(0)).getName();
+        }
+    }
+
+    /** One server's numbers for the panel; -1 is "not known (yet)". */
+    record Stats(String server, File root, String state, long pid, long startupMs,
+            long rssKb, int requests, long p50Ms, long p95Ms, long idleMs) {
+    }
+
+    /** The streams the platform client talks to, and the process it watches. */
+    record Connection(InputStream in, OutputStream out, Process process) {
+    }
+
+    /** Starts the server process; {@link LanguageServers} owns the argv and environment. */
+    interface Spawner {
+        Process spawn() throws IOException;
+    }
+
+    enum State { WARMING, WARM, ACTIVE, STOPPED }
+
+    private record Pending(String method, long nanos) {
+    }
+
+    private static final List<Server> SERVERS = new ArrayList<>();
+    /** Keys a prewarm is spawning outside the lock: a second prewarm of one finds it taken. */
+    private static final Set<Key> RESERVED = new HashSet<>();
+    private static final ThreadLocal<Boolean> PREWARMING = ThreadLocal.withInitial(() -> false);
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            synchronized (ServerPool.class) {
+                SERVERS.forEach(s -> ProcessSupport.killTree(s.process));
+            }
+        }, "nmox-lsp-reaper"));
+    }
+    private static final RequestProcessor RP = new RequestProcessor("nmox-lsp-pool", 4, true);
+    private static final RequestProcessor.Task SWEEP = RP.create(ServerPool::sweepNow);
+
+    private static volatile String capabilities;
+    private static volatile boolean capabilitiesLoaded;
+    private static int spawns;
+
+    private ServerPool() {
+    }
+
+    // ---- prewarm mode ----
+
+    /**
+     * Runs {@code providerCall} - a provider's {@code startServer} - with
+     * every launch it makes parked rather than handed out. The provider's
+     * own rules (trust, Angular/Deno yields, config presence) decide what
+     * is warmed, so warm and real launches can never disagree.
+     */
+    static void prewarm(Runnable providerCall) {
+        PREWARMING.set(true);
+        try {
+            providerCall.run();
+        } finally {
+            PREWARMING.remove();
+        }
+    }
+
+    /** True inside {@link #prewarm}: launches park, and a missing server is not reported. */
+    static boolean prewarming() {
+        return PREWARMING.get();
+    }
+
+    /**
+     * Starts {@code key}'s server in the background unless one already
+     * runs. A placeholder connection (empty streams, no process) when a
+     * server for the key is (now) running; null when the budget is full.
+     */
+    static Connection park(Key key, Spawner spawner, JSONObject initOptions) throws IOException {
+        Connection parked = new Connection(InputStream.nullInputStream(), OutputStream.nullOutputStream(), null);
+        synchronized (ServerPool.class) {
+            reapDead();
+            if (find(key, true) != null || RESERVED.contains(key)) {
+                return parked;
+            }
+            if (SERVERS.size() + RESERVED.size() >= MAX_SERVERS) {
+                return null; // warming must never push a server the user is using out
+            }
+            RESERVED.add(key); // the spawn runs unlocked; the key is ours until register
+        }
+        String caps = capabilities();
+        Process process = null;
+        try {
+            process = spawner.spawn();
+        } finally {
+            if (process == null) {
+                synchronized (ServerPool.class) {
+                    RESERVED.remove(key);
+                }
+            }
+        }
+        // process-only without capabilities: the client's own handshake will run
+        Server server = new Server(key, process, initOptions, caps == null ? State.WARM : State.WARMING);
+        register(server, true);
+        if (caps != null) {
+            RP.post(() -> server.handshake(caps));
+        }
+        return parked;
+    }
+
+    // ---- the real launch ----
+
+    /**
+     * The connection for a client launch of {@code key}: the parked
+     * server if one waits, else a fresh process.
+     */
+    static Connection open(Key key, Spawner spawner, JSONObject initOptions,
+            UnaryOperator<OutputStream> inject) throws IOException {
+        Server server;
+        synchronized (ServerPool.class) {
+            reapDead();
+            server = find(key, false);
+            if (server != null) {
+                server.state = State.ACTIVE;
+            }
+        }
+        if (server == null) {
+            server = new Server(key, spawner.spawn(), initOptions, State.ACTIVE);
+            register(server, false);
+        }
+        return server.connect(inject);
+    }
+
+    /** Makes {@code server} findable; a {@code reserved} key is released in the same step. */
+    private static void register(Server server, boolean reserved) {
+        synchronized (ServerPool.class) {
+            if (reserved) {
+                RESERVED.remove(server.key);
+            }
+            spawns++;
+            SERVERS.add(server);
+        }
+        server.startPump();
+        SWEEP.schedule(SWEEP_MS);
+    }
+
+    /** A running server for {@code key}; parked ones only unless {@code any}. */
+    private static Server find(Key key, boolean any) {
+        for (Server s : SERVERS) {
+            if (s.key.equals(key) && s.state != State.STOPPED && s.process.isAlive()
+                    && (any || s.state != State.ACTIVE)) {
+                return s;
+            }
+        }
+        return null;
+    }
+
+    private static void reapDead() {
+        SERVERS.removeIf(s -> s.state == State.STOPPED || !s.process.isAlive());
+    }
+
+    // ---- client capabilities ----
+
+    static String capabilities() {
+        if (!capabilitiesLoaded) {
+            capabilities = NbPreferences.forModule(ServerPool.class).get(PREF_CAPABILITIES, null);
+            capabilitiesLoaded = true;
+        }
+        return capabilities;
+    }
+
+    /** Keeps what the client announced, for the next warm handshake (this session and the next). */
+    static void rememberCapabilities(String json) {
+        if (json.equals(capabilities())) {
+            return;
+        }
+        capabilities = json;
+        NbPreferences.forModule(ServerPool.class).put(PREF_CAPABILITIES, json);
+    }
+
+    // ---- the budget ----
+
+    private static void sweepNow() {
+        sweep(System.currentTimeMillis(), MAX_SERVERS, RSS_BUDGET_KB, IDLE_MS);
+        synchronized (ServerPool.class) {
+            if (!SERVERS.isEmpty()) {
+                SWEEP.schedule(SWEEP_MS);
+            }
+        }
+    }
+
+    /** One sweep as of {@code now}; returns the servers it stopped. */
+    static List<Server> sweep(long now, int maxServers, long rssBudgetKb, long idleMs) {
+        List<Server> live;
+        synchronized (ServerPool.class) {
+            reapDead();
+            live = new ArrayList<>(SERVERS);
+        }
+        List<Server> victims = new ArrayList<>();
+        for (Server s : live) {
+            boolean parked = s.state != State.ACTIVE;
+            if (parked ? now - s.createdMillis > WARM_TTL_MS : now - s.lastUsed > idleMs) {
+                victims.add(s);
+            }
+        }
+        live.removeAll(victims);
+        // parked first (nobody is waiting on them), then least recently used
+        live.sort(Comparator.comparing((Server s) -> s.state == State.ACTIVE)
+                .thenComparingLong(s -> s.lastUsed));
+        long rss = 0;
+        Map<Server, Long> rssOf = new HashMap<>();
+        if (rssBudgetKb > 0) {
+            for (Server s : live) {
+                long kb = Math.max(0, rssKb(s.process.toHandle()));
+                rssOf.put(s, kb);
+                rss += kb;
+            }
+        }
+        int count = live.size();
+        for (Server s : live) {
+            if (count <= maxServers && rss <= rssBudgetKb) {
+                break;
+            }
+            if (s.state == State.ACTIVE && now - s.lastUsed < EVICT_AFTER_MS) {
+                continue;
+            }
+            victims.add(s);
+            count--;
+            rss -= rssOf.getOrDefault(s, 0L);
+        }
+        for (Server s : victims) {
+            LOG.log(Level.INFO, "Stopping language server {0} for {1} (idle {2} s)",
+                    new Object[]{s.key.name(), s.key.root(), (now - s.lastUsed) / 1000});
+            s.stop();
+        }
+        return victims;
+    }
+
+    /**
+     * Resident memory of a process and its descendants in KiB; -1 when
+     * the platform doesn't say. Linux reads {@code /proc}, macOS asks
+     * {@code ps} - a fixed argv of the OS's own tool.
+     */
+    static long rssKb(ProcessHandle root) {
+        List<ProcessHandle> tree = new ArrayList<>();
+        tree.add(root);
+        try (Stream<ProcessHandle> kids = root.descendants()) {
+            kids.forEach(tree::add);
+        }
+        if (Files.isDirectory(Path.of("/proc/self"))) {
+            long total = 0;
+            boolean any = false;
+            for (ProcessHandle h : tree) {
+                try {
+                    for (String line : Files.readAllLines(Path.of("/proc", Long.toString(h.pid()), "status"))) {
+                        if (line.startsWith("VmRSS:")) {
+                            total += Long.parseLong(line.replaceAll("[^0-9]", ""));
+                            any = true;
+                            break;
+                        }
+                    }
+                } catch (IOException | NumberFormatException gone) {
+                    // exited between listing and reading
+                }
+            }
+            return any ? total : -1;
+        }
+        if (System.getProperty("os.name", "").toLowerCase().contains("mac")) {
+            List<String> cmd = new ArrayList<>(List.of("ps", "-o", "rss=", "-p"));
+            cmd.add(String.join(",", tree.stream().map(h -> Long.toString(h.pid())).toList()));
+            try {
+                ProcessSupport.BoundedResult r = ProcessSupport.runBounded(cmd, null, Duration.ofSeconds(2));
+                long total = 0;
+                for (String line : r.stdout().split("\\R")) {
+                    if (!line.isBlank()) {
+                        total += Long.parseLong(line.trim());
+                    }
+                }
+                return total > 0 ? total : -1;
+            } catch (Exception unavailable) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    // ---- the panel's view ----
+
+    /** Every running server, most recently used first. */
+    static List<Stats> snapshot() {
+        List<Server> live;
+        synchronized (ServerPool.class) {
+            reapDead();
+            live = new ArrayList<>(SERVERS);
+        }
+        long now = System.currentTimeMillis();
+        live.sort(Comparator.comparingLong((Server s) -> s.lastUsed).reversed());
+        List<Stats> out = new ArrayList<>(live.size());
+        for (Server s : live) {
+            long[] pct = s.percentiles();
+            out.add(new Stats(s.key.name(), s.key.root(), s.state.name().toLowerCase(),
+                    s.process.pid(), s.startupMs, rssKb(s.process.toHandle()), s.requests,
+                    pct[0], pct[1], s.state == State.ACTIVE ? now - s.lastUsed : -1));
+        }
+        return out;
+    }
+
+    /** Processes spawned this session: a test's witness that a warm one was reused. */
+    static synchronized int spawns() {
+        return spawns;
+    }
+
+    /** Stops everything and forgets the captured capabilities - tests. */
+    static void clearForTest() {
+        List<Server> all;
+        synchronized (ServerPool.class) {
+            all = new ArrayList<>(SERVERS);
+        }
+        all.forEach(Server::stop);
+        capabilities = null;
+        capabilitiesLoaded = true;
+    }
+
+    /**
+     * One server process between the platform client and the wire. The
+     * pump thread reads every server frame: answers to our own warm
+     * {@code initialize}, latency bookkeeping, then delivery to the
+     * client - or, while nobody listens yet, the replay buffer.
+     */
+    static final class Server {
+
+        final Key key;
+        final Process process;
+        final JSONObject initOptions;
+        final long createdMillis = System.currentTimeMillis();
+        volatile State state;
+        volatile long lastUsed = createdMillis;
+        volatile long startupMs = -1;
+        volatile int requests;
+
+        private final Map<String, Pending> pending = new ConcurrentHashMap<>();
+        private final long[] samples = new long[SAMPLES];
+        private int sampleCount;
+        private final FrameQueue toClient = new FrameQueue();
+        /**
+         * Orders puts to {@link #toClient}: the replay goes in before any
+         * newer frame. Taken before this, and held across the put, which
+         * blocks while the client is behind - so this monitor never is.
+         */
+        private final Object delivery = new Object();
+        /** Serializes writes to the server's stdin: the client's frames and our handshake. */
+        private final Object wire = new Object();
+        private final CompletableFuture<Void> warmAnswered = new CompletableFuture<>();
+
+        /** The pool, not the client, owns the initialize; fixed at spawn. */
+        private final boolean handshaking;
+        // hand-off state, guarded by this
+        private final List<byte[]> replay = new ArrayList<>();
+        private int replayBytes;
+        private boolean live;
+        private byte[] warmResult;
+        private Object clientInitId;
+        private boolean initializedSwallowed;
+
+        Server(Key key, Process process, JSONObject initOptions, State state) {
+            this.key = key;
+            this.process = process;
+            this.initOptions = initOptions;
+            this.state = state;
+            this.live = state == State.ACTIVE;
+            // set before the server is findable: a client claiming it must
+            // know the pool, not the client, owns the initialize
+            this.handshaking = state == State.WARMING;
+        }
+
+        void startPump() {
+            Thread pump = new Thread(this::pump, "nmox-lsp-pump " + key.name());
+            pump.setDaemon(true);
+            pump.start();
+        }
+
+        /** Our own handshake on the parked process, with the client's last capabilities. */
+        void handshake(String caps) {
+            try {
+                JSONObject params = new JSONObject()
+                        .put("processId", ProcessHandle.current().pid())
+                        .put("clientInfo", new JSONObject().put("name", "NMOX Studio"))
+                        .put("capabilities", new JSONObject(caps));
+                File root = key.root();
+                if (root != null) {
+                    String uri = root.toPath().toUri().toString();
+                    params.put("rootUri", uri).put("rootPath", root.getAbsolutePath())
+                            .put("workspaceFolders", new JSONArray().put(
+                                    new JSONObject().put("uri", uri).put("name", root.getName())));
+                }
+                if (initOptions != null) {
+                    params.put("initializationOptions", initOptions);
+                }
+                pending.put(WARM_ID, new Pending("initialize", System.nanoTime()));
+                toServer(process.getOutputStream(), new JSONObject().put("jsonrpc", "2.0")
+                        .put("id", WARM_ID).put("method", "initialize").put("params", params)
+                        .toString().getBytes(StandardCharsets.UTF_8));
+                warmAnswered.get(HANDSHAKE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                synchronized (ServerPool.class) {
+                    if (state == State.WARMING) {
+                        state = State.WARM;
+                    }
+                }
+            } catch (IOException | JSONException | TimeoutException ex) {
+                abandonWarm("warm handshake failed: " + ex);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                abandonWarm("interrupted");
+            } catch (java.util.concurrent.ExecutionException ex) {
+                abandonWarm("warm handshake failed: " + ex.getCause());
+            }
+        }
+
+        /** A warm start gone wrong costs the warm start only - unless a client already holds it. */
+        private void abandonWarm(String why) {
+            LOG.log(Level.FINE, "{0} {1}: {2}", new Object[]{key.name(), key.root(), why});
+            if (state != State.ACTIVE) {
+                stop();
+            }
+        }
+
+        /** The platform client's side; {@code inject} rewrites its initialize when that reaches the server. */
+        Connection connect(UnaryOperator<OutputStream> inject) {
+            OutputStream raw = process.getOutputStream();
+            OutputStream target;
+            synchronized (delivery) {
+                List<byte[]> out = List.of();
+                synchronized (this) {
+                    target = handshaking || inject == null ? raw : inject.apply(raw);
+                    if (!handshaking && !live) {
+                        out = flushReplay();
+                    }
+                }
+                out.forEach(toClient::put);
+            }
+            lastUsed = System.currentTimeMillis();
+            return new Connection(toClient, new ClientOut(this, target), process);
+        }
+
+        // ---- server to client ----
+
+        private void pump() {
+            try (InputStream in = process.getInputStream()) {
+                for (byte[] body; (body = LspFrames.readFrame(in)) != null;) {
+                    LspFrames.Sniff sniff = LspFrames.sniff(body);
+                    if (sniff.response() && answered(sniff.id(), body)) {
+                        continue;
+                    }
+                    deliver(LspFrames.frame(body));
+                }
+            } catch (IOException ex) {
+                LOG.log(Level.FINE, "{0} stream: {1}", new Object[]{key.name(), ex.getMessage()});
+            } finally {
+                warmAnswered.completeExceptionally(new IOException(key.name() + " exited"));
+                toClient.end();
+                synchronized (ServerPool.class) {
+                    state = State.STOPPED;
+                    SERVERS.remove(this);
+                }
+            }
+        }
+
+        /** Latency for a matched request; true when the frame was ours and must not reach the client. */
+        private boolean answered(String id, byte[] body) throws IOException {
+            Pending p = pending.remove(id);
+            if (p == null) {
+                return false;
+            }
+            long ms = (System.nanoTime() - p.nanos()) / 1_000_000;
+            if (p.method().equals("initialize")) {
+                startupMs = ms;
+            } else if (!p.method().equals("shutdown")) {
+                record(ms);
+            }
+            if (!WARM_ID.equals(id)) {
+                return false;
+            }
+            boolean ok = !new JSONObject(new String(body, StandardCharsets.UTF_8)).has("error");
+            if (ok) {
+                // before the client can hear the answer: nothing may overtake initialized
+                toServer(process.getOutputStream(), "{\"jsonrpc\":\"2.0\",\"method\":\"initialized\",\"params\":{}}"
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            synchronized (delivery) {
+                List<byte[]> out;
+                synchronized (this) {
+                    warmResult = body;
+                    out = answerClientInit();
+                }
+                out.forEach(toClient::put);
+            }
+            if (ok) {
+                warmAnswered.complete(null);
+            } else {
+                warmAnswered.completeExceptionally(new IOException("initialize refused"));
+            }
+            return true;
+        }
+
+        private void deliver(byte[] frame) {
+            boolean buffered;
+            boolean overflow = false;
+            synchronized (delivery) {
+                synchronized (this) {
+                    buffered = !live;
+                    if (buffered) {
+                        replay.add(frame);
+                        replayBytes += frame.length;
+                        overflow = replayBytes > REPLAY_CAP;
+                    }
+                }
+                if (!buffered) {
+                    toClient.put(frame);
+                }
+            }
+            if (overflow) {
+                abandonWarm("said more than " + REPLAY_CAP + " bytes before anyone listened");
+            }
+        }
+
+        /**
+         * The client's initialize meets our stored answer: the reply under
+         * its id, then the replay - for the caller to put once out of this.
+         * Holds this.
+         */
+        private List<byte[]> answerClientInit() {
+            if (live || warmResult == null || clientInitId == null) {
+                return List.of();
+            }
+            JSONObject ours = new JSONObject(new String(warmResult, StandardCharsets.UTF_8));
+            JSONObject reply = new JSONObject().put("jsonrpc", "2.0").put("id", clientInitId);
+            if (ours.has("error")) {
+                reply.put("error", ours.get("error"));
+            } else {
+                reply.put("result", ours.opt("result"));
+            }
+            List<byte[]> out = new ArrayList<>(replay.size() + 1);
+            out.add(LspFrames.frame(reply.toString()));
+            out.addAll(flushReplay());
+            return out;
+        }
+
+        /** Goes live and hands back the buffered frames for the caller to put. Holds this. */
+        private List<byte[]> flushReplay() {
+            List<byte[]> out = new ArrayList<>(replay);
+            replay.clear();
+            replayBytes = 0;
+            live = true;
+            return out;
+        }
+
+        // ---- client to server ----
+
+        /** One client frame; false when the pool consumed it. */
+        boolean fromClient(byte[] body) {
+            lastUsed = System.currentTimeMillis();
+            LspFrames.Sniff sniff = LspFrames.sniff(body);
+            if ("initialize".equals(sniff.method())) {
+                capture(body);
+            }
+            if (handshaking && ("initialize".equals(sniff.method()) || "initialized".equals(sniff.method()))) {
+                synchronized (delivery) {
+                    List<byte[]> out = null;
+                    synchronized (this) {
+                        if (clientInitId == null && "initialize".equals(sniff.method())) {
+                            clientInitId = parse(body).opt("id");
+                            out = answerClientInit();
+                        } else if (!initializedSwallowed && "initialized".equals(sniff.method())) {
+                            initializedSwallowed = true;
+                            return false;
+                        }
+                    }
+                    if (out != null) {
+                        out.forEach(toClient::put);
+                        return false;
+                    }
+                }
+            }
+            if (sniff.request()) {
+                requests++;
+                pending.put(sniff.id(), new Pending(sniff.method(), System.nanoTime()));
+            }
+            return true;
+        }
+
+        void toServer(OutputStream target, byte[] body) throws IOException {
+            synchronized (wire) {
+                target.write(LspFrames.frame(body));
+                target.flush();
+            }
+        }
+
+        private static void capture(byte[] body) {
+            try {
+                JSONObject caps = parse(body).getJSONObject("params").optJSONObject("capabilities");
+                if (caps != null) {
+                    rememberCapabilities(caps.toString());
+                }
+            } catch (JSONException ex) {
+                LOG.log(Level.FINE, "unparseable initialize: {0}", ex.getMessage());
+            }
+        }
+
+        private static JSONObject parse(byte[] body) {
+            return new JSONObject(new String(body, StandardCharsets.UTF_8));
+        }
+
+        // ---- numbers ----
+
+        private synchronized void record(long ms) {
+            samples[sampleCount++ % SAMPLES] = ms;
+        }
+
+        /** {p50, p95} of the recent samples, or -1s. */
+        synchronized long[] percentiles() {
+            int n = Math.min(sampleCount, SAMPLES);
+            if (n == 0) {
+                return new long[]{-1, -1};
+            }
+            long[] sorted = Arrays.copyOf(samples, n);
+            Arrays.sort(sorted);
+            return new long[]{sorted[(n - 1) / 2], sorted[(int) Math.ceil(n * 0.95) - 1]};
+        }
+
+        /** Idempotent: kills the tree; the pump ends the client's stream. */
+        void stop() {
+            synchronized (ServerPool.class) {
+                state = State.STOPPED;
+                SERVERS.remove(this);
+            }
+            ProcessSupport.killTree(process);
+        }
+    }
+
+    /** Frames to a client stream and a writer that hands whole client frames to {@link Server#fromClient}. */
+    private static final class ClientOut extends OutputStream {
+
+        private final Server server;
+        private final OutputStream target;
+        private byte[] buf = new byte[8192];
+        private int len;
+
+        ClientOut(Server server, OutputStream target) {
+            this.server = server;
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int n) throws IOException {
+            if (len + n > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + n));
+            }
+            System.arraycopy(b, off, buf, len, n);
+            len += n;
+            drain();
+        }
+
+        private void drain() throws IOException {
+            while (true) {
+                int headerEnd = indexOf(buf, len, "\r\n\r\n");
+                if (headerEnd < 0) {
+                    if (len > 8192) {
+                        throw new IOException("client frame header too long");
+                    }
+                    return;
+                }
+                int length = contentLength(new String(buf, 0, headerEnd, StandardCharsets.US_ASCII));
+                int total = headerEnd + 4 + length;
+                if (len < total) {
+                    return;
+                }
+                byte[] body = Arrays.copyOfRange(buf, headerEnd + 4, total);
+                System.arraycopy(buf, total, buf, 0, len - total);
+                len -= total;
+                if (server.fromClient(body)) {
+                    server.toServer(target, body);
+                }
+            }
+        }
+
+        private static int contentLength(String header) throws IOException {
+            for (String line : header.split("\r\n")) {
+                int colon = line.indexOf(':');
+                if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("Content-Length")) {
+                    try {
+                        int n = Integer.parseInt(line.substring(colon + 1).trim());
+                        if (n >= 0 && n <= LspFrames.FRAME_CAP) {
+                            return n;
+                        }
+                    } catch (NumberFormatException ignored) {
+                        // fall through to the error
+                    }
+                }
+            }
+            throw new IOException("client frame without a usable Content-Length");
+        }
+
+        private static int indexOf(byte[] b, int n, String needle) {
+            outer:
+            for (int i = 0; i + needle.length() <= n; i++) {
+                for (int j = 0; j < needle.length(); j++) {
+                    if (b[i + j] != needle.charAt(j)) {
+                        continue outer;
+                    }
+                }
+                return i;
+            }
+            return -1;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            target.close();
+        }
+    }
+
+    /** The client's end of the server's output: whole frames, in order, EOF when the server is gone. */
+    private static final class FrameQueue extends InputStream {
+
+        private static final byte[] EOF = new byte[0];
+        private final BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>(1024);
+        private byte[] current;
+        private int pos;
+        private volatile boolean closed;
+
+        void put(byte[] frame) {
+            try {
+                while (!closed && !queue.offer(frame, 200, TimeUnit.MILLISECONDS)) {
+                    // the client is behind; keep waiting unless it hung up
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        void end() {
+            put(EOF);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int n) throws IOException {
+            if (n == 0) {
+                return 0;
+            }
+            while (current == null || pos == current.length) {
+                if (current == EOF || closed) {
+                    return -1;
+                }
+                try {
+                    current = queue.take();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new java.io.InterruptedIOException();
+                }
+                pos = 0;
+            }
+            int k = Math.min(n, current.length - pos);
+            System.arraycopy(current, pos, b, off, k);
+            pos += k;
+            return k;
+        }
+
+        @Override
+        public int available() {
+            return current == null || current == EOF ? 0 : current.length - pos;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            queue.clear();
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package org.nmox.studio.editor.sass;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The slice of Dart Sass's embedded protocol ({@code sass --embedded},
+ * protocol 2+) that {@link SassHost} speaks, hand-rolled: the messages
+ * are a handful of protobuf fields, and a protobuf runtime plus generated
+ * classes would outweigh the whole feature.
+ *
+ * <p>Wire shape: each packet is a varint length, then a varint
+ * compilation id (0 for the version handshake and protocol errors), then
+ * one protobuf {@code InboundMessage} / {@code OutboundMessage}. Field
+ * numbers are embedded_sass.proto's.
+ */
+final class EmbeddedSass {
+
+    private EmbeddedSass() {
+    }
+
+    /** A packet larger than this is a broken stream, not a stylesheet. */
+    static final int PACKET_CAP = 64 * 1024 * 1024;
+
+    // InboundMessage
+    private static final int IN_COMPILE_REQUEST = 2;
+    private static final int IN_VERSION_REQUEST = 7;
+    // CompileRequest
+    private static final int COMPILE_PATH = 3;
+    private static final int COMPILE_CHARSET = 13;
+    // OutboundMessage
+    static final int OUT_ERROR = 1;
+    static final int OUT_COMPILE_RESPONSE = 2;
+    static final int OUT_LOG_EVENT = 3;
+    static final int OUT_VERSION_RESPONSE = 8;
+    // CompileResponse
+    static final int RESPONSE_SUCCESS = 2;
+    static final int RESPONSE_FAILURE = 3;
+    static final int RESPONSE_LOADED_URLS = 4;
+
+    /** What one outbound message said, reduced to what the host acts on. */
+    record Outbound(int kind, String css, String failure, List<String> loadedUrls, String text) {
+    }
+
+    /** One framed packet. */
+    record Packet(long compilationId, byte[] message) {
+    }
+
+    /** The handshake: {@code InboundMessage{version_request{id}}}, sent as compilation 0. */
+    static byte[] versionRequest(int id) {
+        return new Writer().message(IN_VERSION_REQUEST, new Writer().varint(1, id)).toByteArray();
+    }
+
+    /**
+     * Compile the file at {@code path}, as the CLI would: expanded
+     * style, no source map, {@code @charset}/BOM for non-ASCII output.
+     */
+    static byte[] compileRequest(String path) {
+        return new Writer().message(IN_COMPILE_REQUEST, new Writer()
+                .string(COMPILE_PATH, path)
+                .varint(COMPILE_CHARSET, 1)).toByteArray();
+    }
+
+    static Outbound parse(byte[] message) throws IOException {
+        for (Field f : fields(message)) {
+            switch (f.number()) {
+                case OUT_COMPILE_RESPONSE -> {
+                    String css = null;
+                    String failure = null;
+                    List<String> urls = new ArrayList<>();
+                    for (Field r : fields(f.bytes())) {
+                        if (r.number() == RESPONSE_SUCCESS) {
+                            css = "";
+                            for (Field s : fields(r.bytes())) {
+                                if (s.number() == 1) {
+                                    css = s.string();
+                                }
+                            }
+                        } else if (r.number() == RESPONSE_FAILURE) {
+                            String plain = "";
+                            String formatted = "";
+                            for (Field s : fields(r.bytes())) {
+                                if (s.number() == 1) {
+                                    plain = s.string();
+                                } else if (s.number() == 4) {
+                                    formatted = s.string();
+                                }
+                            }
+                            failure = formatted.isEmpty() ? "Error: " + plain : formatted;
+                        } else if (r.number() == RESPONSE_LOADED_URLS) {
+                            urls.add(r.string());
+                        }
+                    }
+                    return new Outbound(OUT_COMPILE_RESPONSE, css, failure, urls, null);
+                }
+                case OUT_VERSION_RESPONSE -> {
+                    String version = "";
+                    for (Field v : fields(f.bytes())) {
+                        if (v.number() == 2) {
+                            version = v.string();
+                        }
+                    }
+                    return new Outbound(OUT_VERSION_RESPONSE, null, null, List.of(), version);
+                }
+                case OUT_ERROR -> {
+                    String text = "";
+                    for (Field e : fields(f.bytes())) {
+                        if (e.number() == 3) {
+                            text = e.string();
+                        }
+                    }
+                    return new Outbound(OUT_ERROR, null, null, List.of(), text);
+                }
+                default -> {
+                    // log events, and host callbacks (importers, functions) we never register
+                    return new Outbound(f.number(), null, null, List.of(), null);
+                }
+            }
+        }
+        throw new IOException("empty embedded-sass message");
+    }
+
+    // ---- framing ----
+
+    static void writePacket(OutputStream out, long compilationId, byte[] message) throws IOException {
+        ByteArrayOutputStream id = new ByteArrayOutputStream(5);
+        writeVarint(id, compilationId);
+        ByteArrayOutputStream packet = new ByteArrayOutputStream(message.length + 10);
+        writeVarint(packet, id.size() + message.length);
+        id.writeTo(packet);
+        packet.writeBytes(message);
+        packet.writeTo(out);
+        out.flush();
+    }
+
+    /** The next packet, or null at a clean end of stream. */
+    static Packet readPacket(InputStream in) throws IOException {
+        long length = readVarint(in, true);
+        if (length < 0) {
+            return null;
+        }
+        if (length > PACKET_CAP) {
+            throw new IOException("embedded-sass packet of " + length + " bytes refused");
+        }
+        byte[] body = in.readNBytes((int) length);
+        if (body.length < length) {
+            throw new EOFException("embedded-sass stream ended mid-packet");
+        }
+        int[] cursor = {0};
+        long id = varint(body, cursor);
+        byte[] message = java.util.Arrays.copyOfRange(body, cursor[0], body.length);
+        return new Packet(id, message);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVarint(InputStream in, boolean eofOk) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (eofOk && shift == 0) {
+                    return -1;
+                }
+                throw new EOFException("embedded-sass stream ended mid-varint");
+            }
+            v |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return v;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    // ---- protobuf, the five percent we need ----
+
+    /** One decoded field: varints in {@code varint}, length-delimited payloads in {@code bytes}. */
+    record Field(int number, long varint, byte[] bytes) {
+
+        String string() {
+            return bytes == null ? "" : new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    static List<Field> fields(byte[] message) throws IOException {
+        List<Field> out = new ArrayList<>();
+        int[] c = {0};
+        while (c[0] < message.length) {
+            long tag = varint(message, c);
+            int number = (int) (tag >>> 3);
+            switch ((int) (tag & 7)) {
+                case 0 -> out.add(new Field(number, varint(message, c), null));
+                case 1 -> c[0] += 8;
+                case 2 -> {
+                    long len = varint(message, c);
+                    if (len < 0 || c[0] + len > message.length) {
+                        throw new IOException("truncated embedded-sass field " + number);
+                    }
+                    out.add(new Field(number, 0, java.util.Arrays.copyOfRange(message, c[0], c[0] + (int) len)));
+                    c[0] += (int) len;
+                }
+                case 5 -> c[0] += 4;
+                default -> throw new IOException("unsupported wire type in field " + number);
+            }
+        }
+        if (c[0] > message.length) {
+            throw new IOException("truncated embedded-sass message");
+        }
+        return out;
+    }
+
+    private static long varint(byte[] b, int[] c) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (c[0] >= b.length) {
+                throw new IOException("truncated varint");
+            }
+            byte x = b[c[0]++];
+            v |= (long) (x & 0x7F) << shift;
+            if ((x & 0x80) == 0) {
+                return v;
+            }
+        }
+        throw new IOException("malformed varint");
+    }
+
+    /** Builds one protobuf message, field by field. */
+    static final class Writer {
+
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Writer varint(int field, long value) {
+            writeVarint(out, (long) field << 3);
+            writeVarint(out, value);
+            return this;
+        }
+
+        Writer string(int field, String value) {
+            return bytes(field, value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Writer bytes(int field, byte[] value) {
+            writeVarint(out, ((long) field << 3) | 2);
+            writeVarint(out, value.length);
+            out.writeBytes(value);
+            return this;
+        }
+
+        Writer message(int field, Writer value) {
+            return bytes(field, value.toByteArray());
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
@@ -4,7 +4,13 @@ import java.awt.EventQueue;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import org.openide.awt.ActionID;
 import org.openide.awt.ActionReference;
@@ -30,8 +36,15 @@ import org.openide.util.RequestProcessor;
  * (v1.228.0) repaints the served page — the designer's whole
  * scss → css → pixels loop with no terminal.
  *
- * <p>The watch is per-file and per-session; nothing persists, nothing
- * fires for files never compiled by hand. Partials refuse honestly.
+ * <p>The watch follows the import graph ({@link SassGraph}): an armed
+ * entry point's partials are watched too, and a save of any of them
+ * recompiles exactly the armed entries that read it, side by side, each
+ * with its own time on the status line. The gesture on a partial
+ * compiles and arms the entry points that use it. Saves landing
+ * together (Save All) coalesce into one batch.
+ *
+ * <p>The watch is per-session; nothing persists, nothing fires for
+ * files never compiled by hand. A partial nothing uses refuses honestly.
  */
 @ActionID(category = "Source", id = "org.nmox.studio.editor.sass.SassCompileAction")
 @ActionRegistration(displayName = "#CTL_SassCompile", lazy = true)
@@ -45,11 +58,18 @@ import org.openide.util.RequestProcessor;
 @Messages("CTL_SassCompile=Compile to CSS")
 public final class SassCompileAction implements ActionListener {
 
-    /** One lane: compiles queue rather than pile up. */
+    /** One lane: compiles queue rather than pile up; all watch state changes here. */
     private static final RequestProcessor RP = new RequestProcessor("nmox-sass-compile", 1);
+    /** Saves within this window are one batch: Save All compiles each entry once. */
+    private static final int COALESCE_MS = 100;
 
-    /** Absolute path → armed listener; the session's watch list. */
-    private static final Map<String, FileChangeListener> ARMED = new ConcurrentHashMap<>();
+    /** Entry points armed by a gesture; the session's compile list. */
+    private static final Set<File> ARMED = ConcurrentHashMap.newKeySet();
+    /** Every file an armed entry reads, to its listener; the session's watch list. */
+    private static final Map<File, FileChangeListener> WATCHED = new ConcurrentHashMap<>();
+    /** Files saved since the last batch ran. */
+    private static final Set<File> SAVED = ConcurrentHashMap.newKeySet();
+    private static final RequestProcessor.Task BATCH = RP.create(SassCompileAction::recompileSaved);
 
     private final DataObject context;
 
@@ -81,53 +101,141 @@ public final class SassCompileAction implements ActionListener {
                     return;
                 }
             }
-            SassCompiler.Result result = new SassCompiler().compile(file);
-            // the directory refresh stats the disk — do it here, not in
-            // the EDT report (the review's other half of this finding)
-            if (result.outcome() == SassCompiler.Outcome.COMPILED) {
-                FileUtil.refreshFor(file.getParentFile());
+            SassGraph graph = SassGraph.forFile(file);
+            graph.refresh();
+            graph.changed(file);
+            List<File> targets = SassCompiler.isPartial(file)
+                    ? graph.entriesUsing(file) : List.of(file);
+            if (targets.isEmpty()) {
+                String name = file.getName();
+                EventQueue.invokeLater(() -> status(name
+                        + " is a partial no stylesheet in this project uses — nothing to compile."));
+                return;
+            }
+            Map<File, SassCompiler.Result> results = compile(targets);
+            boolean newlyArmed = false;
+            for (Map.Entry<File, SassCompiler.Result> r : results.entrySet()) {
+                if (r.getValue().outcome() == SassCompiler.Outcome.COMPILED) {
+                    newlyArmed |= ARMED.add(r.getKey());
+                }
             }
-            EventQueue.invokeLater(() -> report(fo, file, result, true));
+            resync();
+            boolean armed = newlyArmed;
+            EventQueue.invokeLater(() -> report(results, armed));
         });
     }
 
-    private static void report(FileObject fo, File file, SassCompiler.Result result,
-            boolean armAfter) {
-        switch (result.outcome()) {
-            case COMPILED -> {
-                boolean newlyArmed = armAfter && arm(fo, file);
-                status("Compiled " + result.output().getName()
-                        + (newlyArmed ? " — recompiling on save." : "."));
+    /**
+     * Compiles {@code targets} in one batch, teaches each graph what the
+     * compiler loaded, and refreshes the output dirs — the disk stats
+     * belong on the RP, not in the EDT report (v1.234.0 review).
+     */
+    private static Map<File, SassCompiler.Result> compile(List<File> targets) {
+        Map<File, SassCompiler.Result> results = new SassCompiler().compileAll(targets);
+        Set<File> dirs = new LinkedHashSet<>();
+        for (Map.Entry<File, SassCompiler.Result> r : results.entrySet()) {
+            if (!r.getValue().loaded().isEmpty()) {
+                SassGraph.forFile(r.getKey()).compiled(r.getKey(), r.getValue().loaded());
+            }
+            if (r.getValue().outcome() == SassCompiler.Outcome.COMPILED) {
+                dirs.add(r.getKey().getParentFile());
             }
-            case PARTIAL -> status("Partials (_" + stripUnderscore(file.getName())
-                    + ") are imports, not entry points — compile the stylesheet that uses it.");
-            case NO_SASS -> status("sass not found — install it in the project "
-                    + "(npm i -D sass) or globally on PATH.");
-            case FAILED -> status("Sass error: " + result.error());
         }
+        dirs.forEach(FileUtil::refreshFor);
+        return results;
     }
 
-    private static String stripUnderscore(String name) {
-        return name.startsWith("_") ? name.substring(1) : name;
+    /** The batch: every armed entry that reads a saved file, compiled once. */
+    private static void recompileSaved() {
+        List<File> saved = new ArrayList<>(SAVED);
+        SAVED.removeAll(saved);
+        Set<File> targets = new TreeSet<>();
+        for (File f : saved) {
+            SassGraph graph = SassGraph.forFile(f);
+            graph.changed(f);
+            for (File dependent : graph.dependents(f)) {
+                if (ARMED.contains(dependent)) {
+                    targets.add(dependent);
+                }
+            }
+        }
+        if (targets.isEmpty()) {
+            resync(); // a watched partial stopped being used
+            return;
+        }
+        Map<File, SassCompiler.Result> results = compile(new ArrayList<>(targets));
+        resync();
+        EventQueue.invokeLater(() -> report(results, false));
+    }
+
+    /**
+     * Brings the listeners in line with the armed entries' current
+     * closures: an import added since the last compile is watched from
+     * now on, one removed stops being watched. RP only.
+     */
+    private static void resync() {
+        Set<File> wanted = new HashSet<>();
+        for (File entry : ARMED) {
+            wanted.addAll(SassGraph.forFile(entry).closure(entry));
+        }
+        for (File f : new ArrayList<>(WATCHED.keySet())) {
+            if (!wanted.contains(f)) {
+                FileChangeListener listener = WATCHED.remove(f);
+                FileObject fo = FileUtil.toFileObject(f);
+                if (fo != null) {
+                    fo.removeFileChangeListener(listener);
+                }
+            }
+        }
+        for (File f : wanted) {
+            if (!WATCHED.containsKey(f)) {
+                FileObject fo = FileUtil.toFileObject(f);
+                if (fo != null) {
+                    FileChangeListener listener = new RecompileOnSave(f);
+                    WATCHED.put(f, listener);
+                    fo.addFileChangeListener(listener);
+                }
+            }
+        }
     }
 
-    /** Arms the on-save recompile; true when this call newly armed it. */
-    private static boolean arm(FileObject fo, File file) {
-        String key = file.getAbsolutePath();
-        if (ARMED.containsKey(key)) {
-            return false;
+    private static void report(Map<File, SassCompiler.Result> results, boolean newlyArmed) {
+        List<String> compiled = new ArrayList<>();
+        for (Map.Entry<File, SassCompiler.Result> r : results.entrySet()) {
+            SassCompiler.Result result = r.getValue();
+            switch (result.outcome()) {
+                case COMPILED -> compiled.add(result.output().getName()
+                        + (result.millis() >= 0 ? " in " + result.millis() + " ms" : ""));
+                case PARTIAL -> {
+                    status("Partials (_" + stripUnderscore(r.getKey().getName())
+                            + ") are imports, not entry points — compile the stylesheet that uses it.");
+                    return;
+                }
+                case NO_SASS -> {
+                    status("sass not found — install it in the project "
+                            + "(npm i -D sass) or globally on PATH.");
+                    return;
+                }
+                case FAILED -> {
+                    status("Sass error" + (results.size() > 1 ? " in " + r.getKey().getName() : "")
+                            + ": " + result.error());
+                    return;
+                }
+            }
         }
-        FileChangeListener listener = new RecompileOnSave(file);
-        ARMED.put(key, listener);
-        fo.addFileChangeListener(listener);
-        return true;
+        status("Compiled " + String.join(", ", compiled)
+                + (newlyArmed ? " — recompiling on save." : "."));
+    }
+
+    private static String stripUnderscore(String name) {
+        return name.startsWith("_") ? name.substring(1) : name;
     }
 
     private static void status(String message) {
         StatusDisplayer.getDefault().setStatusText(message);
     }
 
-    /** The armed half: every save of the watched file recompiles it. */
+    /** The armed half: a save of any watched file queues the batch. */
     private static final class RecompileOnSave implements FileChangeListener {
 
         private final File file;
@@ -138,22 +246,21 @@ public final class SassCompileAction implements ActionListener {
 
         @Override
         public void fileChanged(FileEvent fe) {
-            RP.post(() -> {
-                SassCompiler.Result result = new SassCompiler().compile(file);
-                if (result.outcome() == SassCompiler.Outcome.COMPILED) {
-                    FileUtil.refreshFor(file.getParentFile()); // RP, not EDT
-                }
-                EventQueue.invokeLater(()
-                        -> report(fe.getFile(), file, result, false));
-            });
+            SAVED.add(file);
+            BATCH.schedule(COALESCE_MS);
         }
 
         @Override
         public void fileDeleted(FileEvent fe) {
-            FileChangeListener self = ARMED.remove(file.getAbsolutePath());
-            if (self != null) {
-                fe.getFile().removeFileChangeListener(self);
-            }
+            RP.post(() -> {
+                ARMED.remove(file);
+                SassGraph.forFile(file).changed(file);
+                FileChangeListener self = WATCHED.remove(file);
+                if (self != null) {
+                    fe.getFile().removeFileChangeListener(self);
+                }
+                resync();
+            });
         }
 
         @Override
@@ -4,13 +4,19 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.nmox.studio.core.process.ProcessSupport;
 import org.nmox.studio.core.process.ToolLocator;
+import org.openide.util.RequestProcessor;
 
 /**
  * Compiles one SCSS/Sass entry stylesheet to its sibling .css with the
@@ -23,6 +29,13 @@ import org.nmox.studio.core.process.ToolLocator;
  * ({@code _name.scss}) are refused honestly: they are imports, not
  * entry points, and compiling one would litter {@code _name.css}.
  *
+ * <p>A binary that speaks Dart Sass's embedded protocol is run
+ * once as a warm {@link SassHost} and every compile goes there - no Dart
+ * VM boot per save, and {@link #compileAll} puts every entry point in
+ * flight at once. Any host failure falls back to the CLI argv above,
+ * the entries of a batch then compiled side by side on
+ * {@link #POOL}. Each result carries its own wall time.
+ *
  * <p>Everything that can go wrong degrades to a typed outcome the
  * action turns into a status line, never a dialog.
  */
@@ -47,38 +60,181 @@ public final class SassCompiler {
         COMPILED, PARTIAL, NO_SASS, FAILED
     }
 
-    /** {@code output} is set for COMPILED; {@code error} for FAILED. */
-    public record Result(Outcome outcome, File output, String error) {
+    /**
+     * Compiles a batch on a warm embedded host; a seam so tests never need
+     * a real sass. Throws when the host can't serve - the CLI takes over.
+     */
+    interface Host {
+        Map<File, SassHost.Compiled> compile(String binary, List<File> entries)
+                throws IOException, InterruptedException;
+    }
+
+    /**
+     * {@code output} is set for COMPILED; {@code error} for FAILED;
+     * {@code millis} is the compile's wall time (-1 when nothing ran);
+     * {@code loaded} is every file the compiler read, when it said
+     * (the embedded host does, the CLI doesn't).
+     */
+    public record Result(Outcome outcome, File output, String error, long millis, List<File> loaded) {
+
+        Result(Outcome outcome, File output, String error) {
+            this(outcome, output, error, -1, List.of());
+        }
     }
 
+    /** The CLI fallback's lanes: a batch of entry points compiles side by side. */
+    private static final RequestProcessor POOL = new RequestProcessor("nmox-sass-compile-pool",
+            Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors())), true);
+
     private final Runner runner;
+    private final Host host;
 
     public SassCompiler() {
-        this(SassCompiler::exec);
+        this(SassCompiler::exec, SassCompiler::warm);
     }
 
     SassCompiler(Runner runner) {
+        this(runner, null);
+    }
+
+    SassCompiler(Runner runner, Host host) {
         this.runner = runner;
+        this.host = host;
+    }
+
+    /** The default host: the warm embedded compiler, unless pinned off with -Dnmox.sass.oneshot. */
+    private static Map<File, SassHost.Compiled> warm(String binary, List<File> entries)
+            throws IOException, InterruptedException {
+        if (Boolean.getBoolean("nmox.sass.oneshot")) {
+            throw new IOException("embedded sass disabled by nmox.sass.oneshot");
+        }
+        return SassHost.compileAll(binary, entries);
     }
 
     /** Compile {@code scss} to its sibling .css. */
     public Result compile(File scss) {
-        if (isPartial(scss)) {
-            return new Result(Outcome.PARTIAL, null, null);
+        return compileAll(List.of(scss)).get(scss);
+    }
+
+    /**
+     * Compiles every entry to its sibling .css, all at once, answering in
+     * {@code entries} order. Partials and entries with no sass answer
+     * without a spawn, as {@link #compile} does.
+     */
+    public Map<File, Result> compileAll(List<File> entries) {
+        Map<File, Result> results = new LinkedHashMap<>();
+        Map<Binaries, List<File>> batches = new LinkedHashMap<>();
+        Map<File, Binaries> byDir = new HashMap<>(); // entries mostly share a few directories
+        for (File scss : entries) {
+            results.put(scss, null); // hold the caller's order
+            File dir = scss.getParentFile();
+            Binaries binaries = isPartial(scss) || dir == null ? null
+                    : byDir.computeIfAbsent(dir, this::binaries);
+            if (isPartial(scss)) {
+                results.put(scss, new Result(Outcome.PARTIAL, null, null));
+            } else if (binaries == null) {
+                results.put(scss, new Result(Outcome.NO_SASS, null, null));
+            } else {
+                batches.computeIfAbsent(binaries, k -> new ArrayList<>()).add(scss);
+            }
         }
-        File dir = scss.getParentFile();
-        String binary = dir == null ? null : resolveBinary(dir);
-        if (binary == null) {
-            return new Result(Outcome.NO_SASS, null, null);
+        for (Map.Entry<Binaries, List<File>> batch : batches.entrySet()) {
+            Binaries binaries = batch.getKey();
+            Map<File, Result> hosted = binaries.host() == null ? null : hosted(binaries.host(), batch.getValue());
+            if (hosted != null) {
+                results.putAll(hosted);
+            } else {
+                results.putAll(viaCli(binaries.cli(), batch.getValue()));
+            }
         }
+        return results;
+    }
+
+    /**
+     * What a batch shares: the CLI it falls back to and the binary that
+     * hosts it (null without a host). Both are the batch's key, so one
+     * host serves only entries that resolved it themselves.
+     */
+    private record Binaries(String cli, String host) {
+    }
+
+    /** {@code dir}'s binaries; null when no sass answers there. */
+    private Binaries binaries(File dir) {
+        String cli = resolveBinary(dir);
+        return cli == null ? null : new Binaries(cli, host == null ? null : hostBinary(dir));
+    }
+
+    /** The batch on the warm host, or null when it can't serve (the CLI runs instead). */
+    private Map<File, Result> hosted(String binary, List<File> entries) {
+        try {
+            Map<File, SassHost.Compiled> compiled = host.compile(binary, entries);
+            Map<File, Result> out = new LinkedHashMap<>();
+            for (File scss : entries) {
+                SassHost.Compiled c = compiled.get(scss);
+                if (c == null) {
+                    return null;
+                }
+                out.put(scss, write(scss, c));
+            }
+            return out;
+        } catch (IOException ex) {
+            LOG.log(Level.FINE, "embedded sass unavailable, running the CLI: {0}", ex.getMessage());
+            return null;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /** Lands a hosted compile's css where the CLI would have written it. */
+    private static Result write(File scss, SassHost.Compiled c) {
+        if (c.css() == null) {
+            return new Result(Outcome.FAILED, null, firstLine(c.failure()), c.millis(), c.loaded());
+        }
+        File out = outputFor(scss);
+        // the CLI ends a non-empty file with a newline; the protocol's css doesn't
+        String css = c.css().isEmpty() || c.css().endsWith("\n") ? c.css() : c.css() + "\n";
+        try {
+            Files.writeString(out.toPath(), css, StandardCharsets.UTF_8);
+        } catch (IOException ex) {
+            LOG.log(Level.INFO, "could not write {0}: {1}", new Object[]{out, ex.getMessage()});
+            return new Result(Outcome.FAILED, null, ex.getMessage(), c.millis(), c.loaded());
+        }
+        return new Result(Outcome.COMPILED, out, null, c.millis(), c.loaded());
+    }
+
+    private Map<File, Result> viaCli(String binary, List<File> entries) {
+        Map<File, Result> out = new LinkedHashMap<>();
+        if (entries.size() == 1) {
+            out.put(entries.get(0), viaCli(binary, entries.get(0)));
+            return out;
+        }
+        Map<File, Result> done = new java.util.concurrent.ConcurrentHashMap<>();
+        List<RequestProcessor.Task> tasks = new ArrayList<>();
+        for (File scss : entries) {
+            tasks.add(POOL.post(() -> done.put(scss, viaCli(binary, scss))));
+        }
+        for (RequestProcessor.Task t : tasks) {
+            t.waitFinished();
+        }
+        for (File scss : entries) {
+            out.put(scss, done.getOrDefault(scss, new Result(Outcome.FAILED, null, "interrupted")));
+        }
+        return out;
+    }
+
+    private Result viaCli(String binary, File scss) {
+        File dir = scss.getParentFile();
         File out = outputFor(scss);
+        long started = System.nanoTime();
         try {
             Exec exec = runner.run(List.of(binary, "--no-source-map",
                     scss.getAbsolutePath(), out.getAbsolutePath()), dir);
+            long ms = (System.nanoTime() - started) / 1_000_000;
             if (exec.exitCode() != 0) {
-                return new Result(Outcome.FAILED, null, firstLine(exec.stderr()));
+                return new Result(Outcome.FAILED, null, firstLine(exec.stderr()), ms, List.of());
             }
-            return new Result(Outcome.COMPILED, out, null);
+            return new Result(Outcome.COMPILED, out, null, ms, List.of());
         } catch (IOException ex) {
             LOG.log(Level.INFO, "sass failed to run: {0}", ex.getMessage());
             return new Result(Outcome.FAILED, null, ex.getMessage());
@@ -142,6 +298,52 @@ public final class SassCompiler {
         return global.contains(File.separator) ? global : null;
     }
 
+    /**
+     * The binary to run as an embedded host: the project's own
+     * sass-embedded native compiler when trusted (npm's {@code sass}
+     * package is JavaScript and can't host), else whatever
+     * {@link #resolveBinary} picked - a Dart-native global sass hosts,
+     * and one that can't is refused once by {@link SassHost}.
+     */
+    static String hostBinary(File startDir) {
+        if (org.nmox.studio.rack.service.WorkspaceTrust.isTrusted(startDir)) {
+            String embedded = findEmbeddedBinary(startDir);
+            if (embedded != null) {
+                return embedded;
+            }
+        }
+        return resolveBinary(startDir);
+    }
+
+    /**
+     * {@code node_modules/sass-embedded-<os>-<arch>/dart-sass/sass}, the
+     * native compiler npm's sass-embedded installs; bounded by .git like
+     * {@link #findLocalBinary}.
+     */
+    static String findEmbeddedBinary(File startDir) {
+        for (File dir = startDir; dir != null; dir = dir.getParentFile()) {
+            File[] platforms = new File(dir, "node_modules").listFiles(
+                    f -> f.getName().startsWith("sass-embedded-"));
+            if (platforms != null) {
+                java.util.Arrays.sort(platforms);
+                for (File platform : platforms) {
+                    File bin = new File(platform, "dart-sass/sass");
+                    if (bin.canExecute()) {
+                        return bin.getAbsolutePath();
+                    }
+                    File bat = new File(platform, "dart-sass/sass.bat");
+                    if (bat.isFile()) {
+                        return bat.getAbsolutePath();
+                    }
+                }
+            }
+            if (new File(dir, ".git").exists()) {
+                return null;
+            }
+        }
+        return null;
+    }
+
     static String findLocalBinary(File startDir) {
         for (File dir = startDir; dir != null; dir = dir.getParentFile()) {
             File bin = new File(dir, "node_modules/.bin/sass");
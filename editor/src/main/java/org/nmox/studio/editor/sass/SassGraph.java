@@ -0,0 +1,404 @@
+package org.nmox.studio.editor.sass;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One project's Sass import graph: which stylesheet pulls in which, so
+ * a save of {@code _variables.scss} recompiles exactly the entry points
+ * that read it. Edges come from two sources, unioned:
+ *
+ * <ul>
+ * <li>a parse of each file's {@code @use}, {@code @forward} and
+ * {@code @import}, resolved the way Sass resolves a relative URL
+ * (partial, plain, then {@code _index}/{@code index}; .scss before
+ * .sass before .css). Plain-CSS imports, {@code url()}, remote URLs and
+ * {@code sass:} / {@code pkg:} modules are not edges;</li>
+ * <li>the {@code loaded_urls} of an entry's last embedded compile -
+ * everything the compiler really read, which covers whatever the parse
+ * cannot see.</li>
+ * </ul>
+ *
+ * <p>Incremental: the first query walks the root once (node_modules and
+ * dot-directories skipped, at most {@link #FILE_CAP} stylesheets); after
+ * that {@link #changed} reparses the one file that was saved and
+ * {@link #refresh} re-stats the known files, reparsing only those whose
+ * mtime moved. An entry point is a non-partial stylesheet no other
+ * stylesheet in the project imports.
+ */
+final class SassGraph {
+
+    private static final Logger LOG = Logger.getLogger(SassGraph.class.getName());
+
+    /** Stylesheets beyond this are not walked: a vendored framework is not the project. */
+    static final int FILE_CAP = 5_000;
+    /** A stylesheet larger than this is generated; its imports are not worth parsing. */
+    private static final long PARSE_CAP_BYTES = 1024 * 1024;
+
+    private static final Pattern DIRECTIVE = Pattern.compile("@(use|forward|import)\\b([^;{}]*)");
+    private static final Pattern QUOTED = Pattern.compile("\"([^\"]*)\"|'([^']*)'");
+    private static final String[] EXTENSIONS = {".scss", ".sass", ".css"};
+
+    private static final Map<File, SassGraph> BY_ROOT = new HashMap<>();
+
+    private final File root;
+    /** Every known stylesheet to its parsed, resolved imports. */
+    private final Map<File, Set<File>> imports = new HashMap<>();
+    /** Entry point to the files its last embedded compile loaded. */
+    private final Map<File, Set<File>> loaded = new HashMap<>();
+    private final Map<File, Long> mtimes = new HashMap<>();
+    private boolean walked;
+    private int parses;
+
+    SassGraph(File root) {
+        this.root = canonical(root);
+    }
+
+    /** The shared graph for {@code file}'s project. */
+    static synchronized SassGraph forFile(File file) {
+        return BY_ROOT.computeIfAbsent(rootOf(file), SassGraph::new);
+    }
+
+    /**
+     * The nearest ancestor holding a package.json or .git - where a
+     * stylesheet's project begins - else the file's own directory.
+     */
+    static File rootOf(File file) {
+        File start = canonical(file).getParentFile();
+        for (File dir = start; dir != null; dir = dir.getParentFile()) {
+            if (new File(dir, "package.json").isFile() || new File(dir, ".git").exists()) {
+                return dir;
+            }
+        }
+        return start;
+    }
+
+    File root() {
+        return root;
+    }
+
+    /** The saved (or created, or deleted) file's edges, reparsed alone. */
+    synchronized void changed(File file) {
+        ensureWalked();
+        File f = canonical(file);
+        if (isStylesheet(f) && f.isFile()) {
+            parse(f);
+        } else {
+            forget(f);
+        }
+    }
+
+    /** Re-stats every known file; reparses only those that moved, forgets the vanished. */
+    synchronized void refresh() {
+        if (!walked) {
+            ensureWalked();
+            return;
+        }
+        for (File f : new ArrayList<>(imports.keySet())) {
+            long m = f.lastModified();
+            if (m == 0) {
+                forget(f);
+            } else if (m != mtimes.getOrDefault(f, -1L)) {
+                parse(f);
+            }
+        }
+    }
+
+    /**
+     * Drops a vanished file, and reparses its direct importers: the same
+     * URL may now resolve to a sibling ({@code _x.scss} gone,
+     * {@code x.sass} still there), or to nothing.
+     */
+    private void forget(File f) {
+        imports.remove(f);
+        mtimes.remove(f);
+        loaded.remove(f);
+        for (Map.Entry<File, Set<File>> e : new ArrayList<>(imports.entrySet())) {
+            if (e.getValue().contains(f) && e.getKey().isFile()) {
+                parse(e.getKey());
+            }
+        }
+    }
+
+    /** Records what a compile of {@code entry} actually loaded (the entry itself excluded). */
+    synchronized void compiled(File entry, Collection<File> files) {
+        File e = canonical(entry);
+        Set<File> deps = new HashSet<>();
+        for (File f : files) {
+            File c = canonical(f);
+            if (!c.equals(e)) {
+                deps.add(c);
+            }
+        }
+        loaded.put(e, deps);
+    }
+
+    /** {@code entry} and every stylesheet it reaches: what a watch must cover. */
+    synchronized Set<File> closure(File entry) {
+        ensureWalked();
+        Set<File> seen = new LinkedHashSet<>();
+        Deque<File> todo = new ArrayDeque<>(List.of(canonical(entry)));
+        while (!todo.isEmpty()) {
+            File f = todo.pop();
+            if (seen.add(f)) {
+                todo.addAll(edges(f));
+            }
+        }
+        return seen;
+    }
+
+    /** Every stylesheet whose output depends on {@code file}, {@code file} included. */
+    synchronized Set<File> dependents(File file) {
+        ensureWalked();
+        Map<File, Set<File>> reverse = new HashMap<>();
+        for (File from : nodes()) {
+            for (File to : edges(from)) {
+                reverse.computeIfAbsent(to, k -> new HashSet<>()).add(from);
+            }
+        }
+        Set<File> seen = new LinkedHashSet<>();
+        Deque<File> todo = new ArrayDeque<>(List.of(canonical(file)));
+        while (!todo.isEmpty()) {
+            File f = todo.pop();
+            if (seen.add(f)) {
+                todo.addAll(reverse.getOrDefault(f, Set.of()));
+            }
+        }
+        return seen;
+    }
+
+    /** The entry points that use {@code file}, sorted by path: what compiling a partial means. */
+    synchronized List<File> entriesUsing(File file) {
+        Set<File> dependents = dependents(file);
+        Set<File> imported = new HashSet<>();
+        for (File from : nodes()) {
+            imported.addAll(edges(from));
+        }
+        Set<File> entries = new TreeSet<>();
+        for (File f : dependents) {
+            if (!SassCompiler.isPartial(f) && isStylesheet(f) && !imported.contains(f)) {
+                entries.add(f);
+            }
+        }
+        return new ArrayList<>(entries);
+    }
+
+    /** Files parsed since this graph was made: the witness that a save reparses one, not all. */
+    synchronized int parses() {
+        return parses;
+    }
+
+    private Set<File> nodes() {
+        Set<File> all = new HashSet<>(imports.keySet());
+        all.addAll(loaded.keySet());
+        return all;
+    }
+
+    private Set<File> edges(File f) {
+        Set<File> parsed = imports.getOrDefault(f, Set.of());
+        Set<File> seen = loaded.get(f);
+        if (seen == null) {
+            return parsed;
+        }
+        Set<File> both = new HashSet<>(parsed);
+        both.addAll(seen);
+        return both;
+    }
+
+    private void ensureWalked() {
+        if (walked) {
+            return;
+        }
+        walked = true;
+        try {
+            Files.walkFileTree(root.toPath(), new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    String name = dir.getFileName() == null ? "" : dir.getFileName().toString();
+                    if (!dir.equals(root.toPath()) && (name.equals("node_modules") || name.startsWith("."))) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (isStylesheet(file.toFile())) {
+                        parse(file.toFile());
+                        if (imports.size() >= FILE_CAP) {
+                            LOG.log(Level.INFO, "sass graph for {0} capped at {1} stylesheets",
+                                    new Object[]{root, FILE_CAP});
+                            return FileVisitResult.TERMINATE;
+                        }
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException ex) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException ex) {
+            LOG.log(Level.FINE, "sass graph walk of {0} stopped: {1}", new Object[]{root, ex.getMessage()});
+        }
+    }
+
+    private void parse(File f) {
+        parses++;
+        mtimes.put(f, f.lastModified());
+        Set<File> deps = new LinkedHashSet<>();
+        try {
+            if (f.length() <= PARSE_CAP_BYTES) {
+                for (String url : imports(Files.readString(f.toPath(), StandardCharsets.UTF_8),
+                        f.getName().endsWith(".sass"))) {
+                    File target = resolve(f, url);
+                    if (target != null) {
+                        deps.add(target);
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            // unreadable or not UTF-8: no edges, and the compiler's loaded_urls still count
+            LOG.log(Level.FINE, "sass graph could not parse {0}: {1}", new Object[]{f, ex.getMessage()});
+        }
+        imports.put(f, deps);
+    }
+
+    /**
+     * The URLs {@code text} loads, comments ignored. In the indented
+     * syntax a directive ends at the line break; in SCSS at the
+     * semicolon, so a multi-line {@code @import "a", "b";} is one list.
+     */
+    static List<String> imports(String text, boolean indented) {
+        String code = stripComments(text);
+        List<String> urls = new ArrayList<>();
+        Matcher m = DIRECTIVE.matcher(code);
+        while (m.find()) {
+            String args = m.group(2);
+            if (indented) {
+                int nl = args.indexOf('\n');
+                args = nl < 0 ? args : args.substring(0, nl);
+            }
+            boolean isImport = m.group(1).equals("import");
+            if (isImport && args.contains("url(")) {
+                continue;
+            }
+            Matcher q = QUOTED.matcher(args);
+            while (q.find()) {
+                String url = q.group(1) != null ? q.group(1) : q.group(2);
+                if (isLoadable(url, isImport)) {
+                    urls.add(url);
+                }
+                if (!isImport) {
+                    break; // @use "x" as y with (...): only the first string is the URL
+                }
+            }
+        }
+        return urls;
+    }
+
+    private static boolean isLoadable(String url, boolean isImport) {
+        if (url.isEmpty() || url.startsWith("sass:") || url.startsWith("pkg:")
+                || url.startsWith("http://") || url.startsWith("https://") || url.startsWith("//")) {
+            return false;
+        }
+        // @import "x.css" is a plain CSS import left for the browser
+        return !(isImport && url.endsWith(".css"));
+    }
+
+    /** Drops {@code //} and block comments, leaving quoted strings intact. */
+    static String stripComments(String text) {
+        StringBuilder out = new StringBuilder(text.length());
+        char quote = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quote != 0) {
+                out.append(c);
+                if (c == '\\' && i + 1 < text.length()) {
+                    out.append(text.charAt(++i));
+                } else if (c == quote || c == '\n') {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+                out.append(c);
+            } else if (c == '/' && i + 1 < text.length() && text.charAt(i + 1) == '/') {
+                while (i < text.length() && text.charAt(i) != '\n') {
+                    i++;
+                }
+                out.append('\n');
+            } else if (c == '/' && i + 1 < text.length() && text.charAt(i + 1) == '*') {
+                int end = text.indexOf("*/", i + 2);
+                i = end < 0 ? text.length() : end + 1;
+                out.append(' ');
+            } else {
+                out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Sass's relative resolution of {@code url} from {@code from}: with an
+     * extension, the partial then the plain file; without, each extension
+     * as partial then plain, then the directory's index. Null when nothing
+     * on disk matches (a load path or package import the CLI would fail
+     * on too, or a file not written yet).
+     */
+    static File resolve(File from, String url) {
+        File target = new File(from.getParentFile(), url);
+        File dir = target.getParentFile();
+        String base = target.getName();
+        List<File> candidates = new ArrayList<>();
+        if (base.endsWith(".scss") || base.endsWith(".sass") || base.endsWith(".css")) {
+            candidates.add(new File(dir, "_" + base));
+            candidates.add(new File(dir, base));
+        } else {
+            for (String ext : EXTENSIONS) {
+                candidates.add(new File(dir, "_" + base + ext));
+                candidates.add(new File(dir, base + ext));
+            }
+            for (String ext : EXTENSIONS) {
+                candidates.add(new File(target, "_index" + ext));
+                candidates.add(new File(target, "index" + ext));
+            }
+        }
+        for (File c : candidates) {
+            if (c.isFile()) {
+                return canonical(c);
+            }
+        }
+        return null;
+    }
+
+    static boolean isStylesheet(File f) {
+        String name = f.getName();
+        return name.endsWith(".scss") || name.endsWith(".sass");
+    }
+
+    private static File canonical(File f) {
+        return f.toPath().toAbsolutePath().normalize().toFile();
+    }
+}
@@ -0,0 +1,335 @@
+package org.nmox.studio.editor.sass;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.nmox.studio.core.process.ProcessSupport;
+import org.openide.util.RequestProcessor;
+
+/**
+ * A warm Dart Sass: one long-lived {@code sass --embedded} per binary,
+ * fed compile requests over the embedded protocol ({@link EmbeddedSass}).
+ * The CLI path boots a Dart VM per stylesheet; the host boots it once,
+ * and - the part a one-shot can't do - takes several compilations at
+ * once, each under its own compilation id, so the entry points a
+ * partial feeds compile side by side on one warm process.
+ *
+ * <p>Each answer also carries the compile's {@code loaded_urls}: every
+ * file the compiler actually read, which {@link SassGraph} takes as the
+ * authoritative dependency set for that entry point.
+ *
+ * <p>Lifecycle is {@link org.nmox.studio.editor.format.PrettierDaemon}'s:
+ * started on first use, shut down after {@link #IDLE_MS} without a
+ * request, reaped on JVM exit. A binary that does not speak the protocol
+ * (the pure-JavaScript npm {@code sass} answers {@code --embedded} with
+ * a usage error) is refused until the binary itself changes; every
+ * failure is an {@link IOException} the caller answers by running the
+ * CLI, so a broken host costs speed, never a compile.
+ */
+final class SassHost {
+
+    private static final Logger LOG = Logger.getLogger(SassHost.class.getName());
+
+    /** A host with no request for this long exits. */
+    static final long IDLE_MS = 10 * 60_000;
+    /** The version handshake must come back within this (cold VM, slow disk). */
+    static final long START_TIMEOUT_MS = 10_000;
+    /** The protocol reserves this id for errors not tied to a compilation. */
+    private static final long ERROR_ID = 0xFFFF_FFFFL;
+
+    /** One compilation's answer: {@code css} on success, else {@code failure}; always the files it read. */
+    record Compiled(String css, String failure, List<File> loaded, long millis) {
+    }
+
+    private static final Map<String, SassHost> BY_BINARY = new HashMap<>();
+    /** Binary path to the stamp it had when it failed the handshake. */
+    private static final Map<String, String> REFUSED = new HashMap<>();
+    /** Live hosts the JVM shutdown hook reaps; emptied by stop(). */
+    private static final Set<SassHost> LIVE = ConcurrentHashMap.newKeySet();
+    static {
+        Runtime.getRuntime().addShutdownHook(
+                new Thread(() -> LIVE.forEach(h -> h.kill.run()), "nmox-sass-reaper"));
+    }
+    private static final RequestProcessor IDLE_RP =
+            new RequestProcessor("nmox-sass-host-idle", 1, true);
+
+    private static int starts;
+
+    private final String binary;
+    private final OutputStream toHost;
+    private final Runnable kill;
+    private final Map<Long, CompletableFuture<Compiled>> inFlight = new ConcurrentHashMap<>();
+    private final Map<Long, Long> startedAt = new ConcurrentHashMap<>();
+    private final CompletableFuture<String> ready = new CompletableFuture<>();
+    private final RequestProcessor.Task idle;
+    private long nextId = 1;
+    private volatile boolean stopped;
+
+    /** Speaks the protocol over any stream pair; {@code kill} ends the other side. */
+    SassHost(String binary, InputStream fromHost, OutputStream toHost, Runnable kill) {
+        this.binary = binary;
+        this.toHost = toHost;
+        this.kill = kill;
+        this.idle = IDLE_RP.create(this::idleOut);
+        LIVE.add(this);
+        Thread reader = new Thread(() -> readLoop(fromHost), "nmox-sass-host");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * Compiles every entry on {@code binary}'s warm host, all in flight
+     * at once, answering in {@code entries} order. A Sass error is a
+     * {@link Compiled} with a failure, not an exception.
+     *
+     * @throws IOException on any host failure; the caller falls back
+     */
+    static Map<File, Compiled> compileAll(String binary, List<File> entries)
+            throws IOException, InterruptedException {
+        SassHost host = acquire(binary);
+        try {
+            return host.compile(entries);
+        } catch (IOException ex) {
+            host.stop();
+            throw ex;
+        }
+    }
+
+    private static SassHost acquire(String binary) throws IOException, InterruptedException {
+        SassHost host;
+        synchronized (SassHost.class) {
+            host = BY_BINARY.get(binary);
+            if (host != null && host.stopped) {
+                host = null;
+            }
+            if (host == null) {
+                String stamp = stamp(new File(binary));
+                if (stamp.equals(REFUSED.get(binary))) {
+                    throw new IOException(binary + " does not speak the embedded protocol");
+                }
+                try {
+                    host = start(binary);
+                } catch (IOException ex) {
+                    REFUSED.put(binary, stamp); // gone before the handshake was even written
+                    throw ex;
+                }
+                BY_BINARY.put(binary, host);
+            }
+        }
+        try {
+            host.awaitReady();
+        } catch (IOException ex) {
+            synchronized (SassHost.class) {
+                REFUSED.put(binary, stamp(new File(binary)));
+            }
+            host.stop();
+            throw ex;
+        }
+        return host;
+    }
+
+    private static SassHost start(String binary) throws IOException {
+        ProcessBuilder pb = ProcessSupport.builder(List.of(binary, "--embedded"));
+        // the host lives on its stdin; its stderr is the Dart VM's chatter
+        pb.redirectInput(ProcessBuilder.Redirect.PIPE);
+        pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+        Process process = pb.start();
+        starts++;
+        SassHost host = new SassHost(binary, process.getInputStream(), process.getOutputStream(),
+                () -> ProcessSupport.killTree(process));
+        try {
+            host.handshake();
+        } catch (IOException ex) {
+            host.stop();
+            throw ex;
+        }
+        return host;
+    }
+
+    /** Sends the handshake on a host built over raw streams (tests). */
+    void handshake() throws IOException {
+        send(0, EmbeddedSass.versionRequest(1));
+    }
+
+    void awaitReady() throws IOException, InterruptedException {
+        try {
+            String version = ready.get(START_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            LOG.log(Level.FINE, "sass host {0} warm: {1}", new Object[]{binary, version});
+        } catch (ExecutionException ex) {
+            throw new IOException(ex.getCause().getMessage(), ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new IOException("sass host not ready after " + START_TIMEOUT_MS + " ms");
+        }
+    }
+
+    Map<File, Compiled> compile(List<File> entries) throws IOException, InterruptedException {
+        Map<File, CompletableFuture<Compiled>> replies = new LinkedHashMap<>();
+        for (File entry : entries) {
+            CompletableFuture<Compiled> reply = new CompletableFuture<>();
+            synchronized (this) {
+                long id = nextId++;
+                inFlight.put(id, reply);
+                startedAt.put(id, System.nanoTime());
+                try {
+                    send(id, EmbeddedSass.compileRequest(entry.getAbsolutePath()));
+                } catch (IOException ex) {
+                    inFlight.remove(id);
+                    throw ex;
+                }
+            }
+            replies.put(entry, reply);
+        }
+        idle.schedule((int) IDLE_MS);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SassCompiler.TIMEOUT_MS);
+        Map<File, Compiled> out = new LinkedHashMap<>();
+        for (Map.Entry<File, CompletableFuture<Compiled>> e : replies.entrySet()) {
+            try {
+                out.put(e.getKey(), e.getValue().get(
+                        Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (ExecutionException ex) {
+                throw new IOException(ex.getCause().getMessage(), ex.getCause());
+            } catch (TimeoutException ex) {
+                throw new IOException("sass host timed out after " + SassCompiler.TIMEOUT_MS + " ms");
+            }
+        }
+        return out;
+    }
+
+    private synchronized void send(long compilationId, byte[] message) throws IOException {
+        EmbeddedSass.writePacket(toHost, compilationId, message);
+    }
+
+    /** The host's stdout: the version response, then compile responses until EOF. */
+    private void readLoop(InputStream in) {
+        try (in) {
+            for (EmbeddedSass.Packet packet; (packet = EmbeddedSass.readPacket(in)) != null;) {
+                EmbeddedSass.Outbound msg = EmbeddedSass.parse(packet.message());
+                long id = packet.compilationId();
+                switch (msg.kind()) {
+                    case EmbeddedSass.OUT_VERSION_RESPONSE -> ready.complete(msg.text());
+                    case EmbeddedSass.OUT_COMPILE_RESPONSE -> {
+                        CompletableFuture<Compiled> reply = inFlight.remove(id);
+                        Long started = startedAt.remove(id);
+                        if (reply != null) {
+                            long ms = started == null ? -1 : (System.nanoTime() - started) / 1_000_000;
+                            reply.complete(new Compiled(msg.css(), msg.failure(), files(msg.loadedUrls()), ms));
+                        }
+                    }
+                    case EmbeddedSass.OUT_ERROR -> {
+                        IOException why = new IOException("sass protocol error: " + msg.text());
+                        CompletableFuture<Compiled> reply = inFlight.remove(id);
+                        if (id == 0 || id == ERROR_ID || reply == null) {
+                            throw why; // the host is gone or confused; nothing more is trustworthy
+                        }
+                        reply.completeExceptionally(why);
+                    }
+                    case EmbeddedSass.OUT_LOG_EVENT -> {
+                        // @warn/@debug and deprecations: the CLI path drops them on success too
+                    }
+                    default -> {
+                        // an importer or function callback we never registered
+                        CompletableFuture<Compiled> reply = inFlight.remove(id);
+                        if (reply != null) {
+                            reply.completeExceptionally(new IOException(
+                                    "sass host asked for callback " + msg.kind()));
+                        }
+                    }
+                }
+            }
+            fail(new IOException("sass host exited"));
+        } catch (IOException ex) {
+            fail(ex);
+        } catch (RuntimeException ex) {
+            fail(new IOException("garbled sass host packet", ex));
+        }
+    }
+
+    /** {@code file:} URLs to files; anything else (a custom importer's) is not on disk. */
+    static List<File> files(List<String> urls) {
+        List<File> out = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            if (!url.startsWith("file:")) {
+                continue;
+            }
+            try {
+                out.add(new File(URI.create(url)).toPath().normalize().toFile());
+            } catch (IllegalArgumentException ex) {
+                LOG.log(Level.FINE, "unparseable loaded url {0}", url);
+            }
+        }
+        return out;
+    }
+
+    private void fail(IOException why) {
+        stop(); // before the callers hear of it: none of them may find this host still listed
+        ready.completeExceptionally(why);
+        for (CompletableFuture<Compiled> reply : new ArrayList<>(inFlight.values())) {
+            reply.completeExceptionally(why);
+        }
+        inFlight.clear();
+    }
+
+    private static String stamp(File f) {
+        long modified = f.lastModified();
+        return modified == 0 ? "-" : modified + ":" + f.length();
+    }
+
+    // ---- lifecycle ----
+
+    private void idleOut() {
+        LOG.log(Level.FINE, "sass host {0} idle, stopping", binary);
+        stop();
+    }
+
+    /** Idempotent: kills the host's tree and forgets it. */
+    void stop() {
+        if (stopped) {
+            return;
+        }
+        stopped = true;
+        synchronized (SassHost.class) {
+            BY_BINARY.remove(binary, this);
+        }
+        LIVE.remove(this);
+        idle.cancel();
+        try {
+            toHost.close();
+        } catch (IOException ignored) {
+        }
+        kill.run();
+    }
+
+    /** Stops every host and forgets refusals - module uninstall, tests. */
+    static void stopAll() {
+        List<SassHost> all;
+        synchronized (SassHost.class) {
+            all = new ArrayList<>(BY_BINARY.values());
+            REFUSED.clear();
+        }
+        all.forEach(SassHost::stop);
+    }
+
+    boolean alive() {
+        return !stopped;
+    }
+
+    /** Hosts spawned this session: a test's witness that the VM was reused. */
+    static synchronized int starts() {
+        return starts;
+    }
+}
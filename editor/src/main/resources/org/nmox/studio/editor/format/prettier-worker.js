@@ -0,0 +1,92 @@
+// The NMOX Prettier worker: one long-lived node per project root, running
+// the project's OWN node_modules/prettier so output matches the pinned CLI.
+// Started by PrettierDaemon as `node <this file> <root>`.
+//
+// Frames, both directions: one JSON header line, then exactly `length`
+// bytes of UTF-8 body.
+//   in:  {"id":1,"file":"/abs/path.ts","length":123}\n<text>
+//   out: {"id":1,"ok":true,"length":120}\n<formatted>
+//        {"id":1,"ok":false,"length":0,"error":"SyntaxError: ..."}\n
+// The first line out is {"ready":true,"version":"3.3.3"} once prettier has
+// loaded, or {"ready":false,"error":"..."} before exiting.
+'use strict';
+
+const path = require('path');
+const { createRequire } = require('module');
+
+const root = process.argv[2];
+let prettier;
+try {
+  prettier = createRequire(path.join(root, 'package.json'))('prettier');
+} catch (e) {
+  process.stdout.write(JSON.stringify({ ready: false, error: String(e && e.message || e) }) + '\n');
+  process.exit(1);
+}
+
+// the CLI's own defaults: prettier 3 reads .gitignore and .prettierignore,
+// prettier 2 only .prettierignore
+const major = parseInt(String(prettier.version || '2').split('.')[0], 10);
+const ignorePath = major >= 3
+  ? [path.join(root, '.gitignore'), path.join(root, '.prettierignore')]
+  : path.join(root, '.prettierignore');
+
+async function format(file, text) {
+  const info = await prettier.getFileInfo(file, { ignorePath });
+  if (info.ignored) {
+    return text; // what `prettier --stdin-filepath` prints for an ignored file
+  }
+  const options = (await prettier.resolveConfig(file, { editorconfig: true })) || {};
+  return prettier.format(text, Object.assign({}, options, { filepath: file }));
+}
+
+function reply(id, ok, out, error) {
+  const body = ok ? Buffer.from(out, 'utf8') : Buffer.alloc(0);
+  const header = { id, ok, length: body.length };
+  if (!ok) {
+    header.error = String(error).split('\n')[0];
+  }
+  process.stdout.write(JSON.stringify(header) + '\n');
+  if (body.length) {
+    process.stdout.write(body);
+  }
+}
+
+let pending = Buffer.alloc(0);
+let header = null;
+let queue = Promise.resolve();
+
+function pump() {
+  for (;;) {
+    if (header === null) {
+      const nl = pending.indexOf(10);
+      if (nl < 0) {
+        return;
+      }
+      header = JSON.parse(pending.subarray(0, nl).toString('utf8'));
+      pending = pending.subarray(nl + 1);
+    }
+    if (pending.length < header.length) {
+      return;
+    }
+    const h = header;
+    const text = pending.subarray(0, h.length).toString('utf8');
+    pending = pending.subarray(h.length);
+    header = null;
+    // one at a time, in arrival order: replies never interleave
+    queue = queue.then(() => format(h.file, text).then(
+      out => reply(h.id, true, out),
+      err => reply(h.id, false, null, err && err.message || err)));
+  }
+}
+
+process.stdin.on('data', chunk => {
+  pending = pending.length ? Buffer.concat([pending, chunk]) : chunk;
+  try {
+    pump();
+  } catch (e) {
+    process.exit(2); // a garbled frame: the IDE restarts us
+  }
+});
+process.stdin.on('end', () => queue.then(() => process.exit(0)));
+
+process.stdout.write(JSON.stringify({ ready: true, version: prettier.version }) + '\n');
@@ -0,0 +1,206 @@
+package org.nmox.studio.editor.find;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The index may only ever rule a file OUT when the file cannot hold the
+ * text — checked against the files' real contents for literals and
+ * regexes — and it must stay that honest across edits nobody announced,
+ * restarts, corrupt stores, and the trees the scanners skip.
+ */
+class ContentIndexTest {
+
+    @TempDir
+    Path root;
+
+    @AfterEach
+    void forget() {
+        ContentIndex.forgetForTest();
+    }
+
+    private File write(String rel, String text) throws IOException {
+        Path p = root.resolve(rel);
+        Files.createDirectories(p.getParent());
+        Files.writeString(p, text);
+        return p.toFile();
+    }
+
+    private List<File> sample() throws IOException {
+        return List.of(
+                write("src/card.html", "<div class=\"card card-title\">Hi</div>"),
+                write("src/list.html", "<ul class=\"list\"><li>cardigan</li></ul>"),
+                write("src/app.ts", "app.get('/api/users', handler);\n"),
+                write("src/notes.md", "nothing to see"));
+    }
+
+    @Test
+    @DisplayName("a literal narrows to the files holding it, case-folded; a short one narrows nothing")
+    void narrowsLiterals() throws IOException {
+        List<File> files = sample();
+        ContentIndex index = ContentIndex.of(root.toFile());
+
+        assertThat(index.narrow(files, "card-title")).extracting(File::getName).containsExactly("card.html");
+        assertThat(index.narrow(files, "CARD")).extracting(File::getName)
+                .as("folding only adds candidates").containsExactly("card.html", "list.html");
+        assertThat(index.narrow(files, "/api/users")).extracting(File::getName).containsExactly("app.ts");
+        assertThat(index.narrow(files, "zebra")).isEmpty();
+        assertThat(index.narrow(files, "ca")).isEqualTo(files);
+        assertThat(ContentIndex.narrowed(root.resolve("absent").toFile(), files, "card")).isEqualTo(files);
+    }
+
+    @Test
+    @DisplayName("an edit no event announced is caught by the stat check, and unchanged files are not re-read")
+    void staleByStat() throws IOException {
+        List<File> files = sample();
+        ContentIndex index = ContentIndex.of(root.toFile());
+        assertThat(index.narrow(files, "checkout")).isEmpty();
+        int reads = index.reads();
+
+        write("src/notes.md", "the checkout button lives here now");
+        assertThat(index.narrow(files, "checkout")).extracting(File::getName).containsExactly("notes.md");
+        assertThat(index.reads()).as("only the edited file").isEqualTo(reads + 1);
+
+        Files.delete(files.get(0).toPath());
+        assertThat(index.narrow(files, "card-title")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("the store survives a restart — nothing re-read — and a corrupt store is an empty index")
+    void persistence() throws IOException {
+        sample();
+        ContentIndex first = ContentIndex.of(root.toFile());
+        assertThat(first.refresh()).isEqualTo(4);
+        assertThat(root.resolve(ContentIndex.STORE)).isRegularFile();
+
+        ContentIndex.forgetForTest();
+        ContentIndex second = ContentIndex.of(root.toFile());
+        assertThat(second.candidates("card-title")).extracting(p -> p.getFileName().toString())
+                .containsExactly("card.html");
+        assertThat(second.reads()).isZero();
+
+        ContentIndex.forgetForTest();
+        Files.writeString(root.resolve(ContentIndex.STORE), "garbage");
+        ContentIndex third = ContentIndex.of(root.toFile());
+        assertThat(third.candidates("/api/users")).extracting(p -> p.getFileName().toString())
+                .containsExactly("app.ts");
+        assertThat(third.reads()).as("rebuilt from the tree").isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("skipped trees are not indexed, and files the index does not know are never ruled out")
+    void skippedTrees() throws IOException {
+        File vendored = write("node_modules/lib/card.js", "card-title everywhere");
+        File hidden = write(".cache/x.txt", "card-title");
+        File mine = write("src/mine.js", "no match");
+        ContentIndex index = ContentIndex.of(root.toFile());
+
+        assertThat(index.candidates("card-title")).isEmpty();
+        assertThat(index.narrow(List.of(vendored, hidden, mine), "card-title"))
+                .containsExactly(vendored, hidden);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("file events re-index in the background; a deletion drops the file")
+    void events() throws IOException {
+        sample();
+        ContentIndex index = ContentIndex.of(root.toFile());
+        index.refresh();
+
+        write("src/notes.md", "the payment form");
+        index.changed(root.resolve("src/notes.md"));
+        Files.delete(root.resolve("src/app.ts"));
+        index.changed(root.resolve("src/app.ts"));
+        index.changed(root.resolve("node_modules/ignored.js"));
+        index.flush();
+
+        assertThat(index.candidates("payment")).extracting(p -> p.getFileName().toString())
+                .containsExactly("notes.md");
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("oversized files are candidates for everything, binary files for nothing")
+    void oversizedAndBinary() throws IOException {
+        write("big.log", "x".repeat((int) ContentIndex.MAX_FILE_BYTES + 10));
+        Files.write(root.resolve("logo.png"), new byte[] {(byte) 0x89, 'P', 'N', 'G', 0, 'c', 'a', 'r', 'd'});
+        write("a.txt", "card");
+        ContentIndex index = ContentIndex.of(root.toFile());
+
+        assertThat(index.candidates("card")).extracting(p -> p.getFileName().toString())
+                .containsExactlyInAnyOrder("big.log", "a.txt");
+        assertThat(index.candidates("zz")).as("unnarrowable: every text file")
+                .extracting(p -> p.getFileName().toString()).containsExactlyInAnyOrder("big.log", "a.txt");
+    }
+
+    @Test
+    @DisplayName("after many edits and compactions, candidates still cover every real match")
+    void churn() throws IOException {
+        Random random = new Random(7);
+        String[] words = {"alpha", "bravo", "charlie", "delta", "echo", "foxtrot"};
+        ContentIndex index = ContentIndex.of(root.toFile());
+        for (int round = 0; round < 40; round++) {
+            for (int f = 0; f < 6; f++) {
+                if (random.nextInt(3) == 0) {
+                    write("f" + f + ".txt", words[random.nextInt(words.length)] + " " + round + " "
+                            + words[random.nextInt(words.length)] + " " + "x".repeat(round));
+                }
+            }
+            index.refresh();
+            for (String w : words) {
+                List<String> expected = new ArrayList<>();
+                for (int f = 0; f < 6; f++) {
+                    Path p = root.resolve("f" + f + ".txt");
+                    if (Files.exists(p) && Files.readString(p).contains(w)) {
+                        expected.add(p.getFileName().toString());
+                    }
+                }
+                assertThat(index.candidates(w)).extracting(p -> p.getFileName().toString())
+                        .as("round %d, %s", round, w).containsExactlyInAnyOrderElementsOf(expected);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("a regex narrows by the literals it cannot match without, and never hides a match")
+    void regexes() throws IOException {
+        List<String> corpus = List.of("fetch('/api/users/42')", "router.post('/login', auth)",
+                "const KEY = process.env.API_KEY;", "color: #ff0000;", "nothing", "a.b.c users");
+        for (int i = 0; i < corpus.size(); i++) {
+            write("c" + i + ".txt", corpus.get(i));
+        }
+        ContentIndex index = ContentIndex.of(root.toFile());
+        for (String re : List.of("/api/\\w+/\\d+", "router\\.(get|post)", "process\\.env\\.[A-Z_]+",
+                "#[0-9a-f]{6}", "users?", "(?i)ROUTER", "login|logout", "fetchx?\\(", "a\\.b", "[^]x]users",
+                "\\Qa.b.c\\E", "colou?r", "ab{0,2}c", "env.API", "nothing|#ff")) {
+            Pattern p = Pattern.compile(re);
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < corpus.size(); i++) {
+                if (p.matcher(corpus.get(i)).find()) {
+                    expected.add("c" + i + ".txt");
+                }
+            }
+            assertThat(index.candidates(p)).extracting(x -> x.getFileName().toString())
+                    .as(re).containsAll(expected);
+        }
+        assertThat(index.candidates(Pattern.compile("process\\.env\\.[A-Z_]+")))
+                .as("narrowed, not everything").hasSize(1);
+        assertThat(RegexLiterals.required(Pattern.compile("login|logout")))
+                .containsExactly(List.of("login"), List.of("logout"));
+        assertThat(RegexLiterals.required(Pattern.compile("colou?r"))).containsExactly(List.of("colo"));
+        assertThat(RegexLiterals.required(Pattern.compile("a b", Pattern.COMMENTS))).isNull();
+    }
+}
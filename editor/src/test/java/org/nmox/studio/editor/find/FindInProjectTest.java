@@ -0,0 +1,69 @@
+package org.nmox.studio.editor.find;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Find in Project through the index: the hits are the files' real
+ * lines and columns, the switches mean what they say, a bad pattern is
+ * a message, and only candidate files are read.
+ */
+class FindInProjectTest {
+
+    @TempDir
+    Path root;
+
+    @BeforeEach
+    void project() throws IOException {
+        Files.createDirectories(root.resolve("src"));
+        Files.writeString(root.resolve("src/a.ts"), "import x from 'y';\n  const User = load();\nuser.save(); user.drop();\n");
+        Files.writeString(root.resolve("src/b.ts"), "export const other = 1;\n");
+        Files.writeString(root.resolve("src/c.ts"), "// nothing here\n");
+    }
+
+    @AfterEach
+    void forget() {
+        ContentIndex.forgetForTest();
+    }
+
+    @Test
+    @DisplayName("a literal finds each matching line once, with its line and column, reading only candidates")
+    void literal() {
+        FindInProject.Result r = FindInProject.search(root.toFile(), "user", false, false, 100);
+
+        assertThat(r.error()).isNull();
+        assertThat(r.hits()).extracting(FindInProject.Hit::line).containsExactly(1, 2);
+        FindInProject.Hit first = r.hits().get(0);
+        assertThat(first.column()).isEqualTo(8);
+        assertThat(first.text()).isEqualTo("const User = load();");
+        assertThat(r.read()).isEqualTo(1);
+        assertThat(r.indexed()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("match case and regular expressions narrow the hits; a bad pattern is a message")
+    void switches() {
+        assertThat(FindInProject.search(root.toFile(), "User", false, true, 100).hits())
+                .extracting(FindInProject.Hit::line).containsExactly(1);
+        assertThat(FindInProject.search(root.toFile(), "(export|import) \\w+", true, true, 100).hits())
+                .extracting(h -> h.file().getName()).containsExactly("a.ts", "b.ts");
+        assertThat(FindInProject.search(root.toFile(), "user.(", true, false, 100).error()).isNotBlank();
+        assertThat(FindInProject.search(root.toFile(), "", false, false, 100).error()).isNotBlank();
+    }
+
+    @Test
+    @DisplayName("the cap stops the search and says so")
+    void capped() {
+        FindInProject.Result r = FindInProject.search(root.toFile(), "e", false, false, 2);
+        assertThat(r.hits()).hasSize(2);
+        assertThat(r.capped()).isTrue();
+    }
+}
@@ -0,0 +1,201 @@
+package org.nmox.studio.editor.format;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The warm path against a real node and a fake prettier package (the
+ * worker only needs {@code version}, {@code getFileInfo},
+ * {@code resolveConfig} and {@code format}): one worker serves many
+ * saves, a config edit restarts it, prettier's own errors stay errors,
+ * and a worker that breaks hands the save to the one-shot runner.
+ * Skipped where node is absent.
+ */
+@Timeout(60)
+class PrettierDaemonTest {
+
+    @TempDir
+    Path root;
+
+    /** Upper-cases, appends ";" unless the config says semi:false, and reports its pid. */
+    private static final String FAKE_PRETTIER = """
+            const fs = require('fs');
+            const path = require('path');
+            const root = path.resolve(__dirname, '../..');
+            module.exports = {
+              version: '3.0.0',
+              async getFileInfo(file) {
+                return { ignored: file.endsWith('.skip.js'), inferredParser: 'babel' };
+              },
+              async resolveConfig(file) {
+                const rc = path.join(root, '.prettierrc');
+                return fs.existsSync(rc) ? JSON.parse(fs.readFileSync(rc, 'utf8')) : null;
+              },
+              async format(text, options) {
+                if (text.includes('const const')) throw new SyntaxError('Unexpected token (1:7)');
+                if (text.includes('crash')) process.exit(3);
+                return text.toUpperCase() + (options.semi === false ? '' : ';') + ' #' + process.pid;
+              }
+            };
+            """;
+
+    @BeforeEach
+    void fakeProject() throws Exception {
+        assumeTrue(nodeAvailable(), "node not on PATH");
+        Path pkg = Files.createDirectories(root.resolve("node_modules/prettier"));
+        Files.writeString(pkg.resolve("package.json"), "{\"name\":\"prettier\",\"version\":\"3.0.0\",\"main\":\"index.js\"}");
+        Files.writeString(pkg.resolve("index.js"), FAKE_PRETTIER);
+        Path bin = Files.createDirectories(root.resolve("node_modules/.bin"));
+        File prettier = Files.createFile(bin.resolve("prettier")).toFile();
+        assertThat(prettier.setExecutable(true)).isTrue();
+        Files.writeString(root.resolve("package.json"), "{\"devDependencies\":{\"prettier\":\"3.0.0\"}}");
+        Files.createDirectories(root.resolve("src"));
+    }
+
+    @AfterEach
+    void stopWorkers() {
+        PrettierDaemon.stopAll();
+    }
+
+    private static boolean nodeAvailable() {
+        try {
+            Process p = new ProcessBuilder("node", "--version").redirectErrorStream(true).start();
+            p.getInputStream().readAllBytes();
+            return p.waitFor(10, TimeUnit.SECONDS) && p.exitValue() == 0;
+        } catch (IOException | InterruptedException e) {
+            return false;
+        }
+    }
+
+    private File rootDir() {
+        return root.toFile();
+    }
+
+    private String bin() {
+        return root.resolve("node_modules/.bin/prettier").toString();
+    }
+
+    private File src(String name) {
+        return root.resolve("src/" + name).toFile();
+    }
+
+    @Test
+    @DisplayName("a local install with the prettier package is daemon-served; a bare binary is not")
+    void rootOfLocalInstallsOnly() throws IOException {
+        assertThat(PrettierDaemon.rootOf(bin())).isEqualTo(rootDir());
+        assertThat(PrettierDaemon.rootOf("/usr/local/bin/prettier")).isNull();
+        Files.delete(root.resolve("node_modules/prettier/package.json"));
+        assertThat(PrettierDaemon.rootOf(bin())).isNull();
+    }
+
+    @Test
+    @DisplayName("one worker answers many saves, and counts what each cost")
+    void warmWorkerIsReused() throws Exception {
+        PrettierDaemon.Metrics before = PrettierDaemon.metrics();
+
+        PrettierFormatter.Result first = PrettierDaemon.format(rootDir(), src("a.js"), "let a");
+        PrettierFormatter.Result second = PrettierDaemon.format(rootDir(), src("b.js"), "let b — ünï");
+
+        assertThat(first.exitCode()).isZero();
+        assertThat(first.stdout()).startsWith("LET A;");
+        assertThat(second.stdout()).startsWith("LET B — ÜNÏ;");
+        String pid = first.stdout().substring(first.stdout().indexOf('#'));
+        assertThat(second.stdout()).as("the same warm process").endsWith(pid);
+        PrettierDaemon.Metrics after = PrettierDaemon.metrics();
+        assertThat(after.starts() - before.starts()).isEqualTo(1);
+        assertThat(after.requests() - before.requests()).isEqualTo(2);
+        assertThat(after.lastMs()).isNotNegative();
+        assertThat(after.p95Ms()).isGreaterThanOrEqualTo(after.p50Ms());
+    }
+
+    @Test
+    @DisplayName("editing .prettierrc restarts the worker; the next save sees the new config")
+    void configChangeRestarts() throws Exception {
+        PrettierFormatter.Result before = PrettierDaemon.format(rootDir(), src("a.js"), "x");
+        PrettierDaemon first = PrettierDaemon.running(rootDir());
+        assertThat(before.stdout()).startsWith("X;");
+
+        Path rc = Files.writeString(root.resolve(".prettierrc"), "{\"semi\":false}");
+        rc.toFile().setLastModified(System.currentTimeMillis() + 5_000);
+        PrettierFormatter.Result after = PrettierDaemon.format(rootDir(), src("a.js"), "x");
+
+        assertThat(after.stdout()).startsWith("X #");
+        assertThat(PrettierDaemon.running(rootDir())).isNotSameAs(first);
+        assertThat(first.alive()).isFalse();
+    }
+
+    @Test
+    @DisplayName("prettier rejecting the text is exit 2 from a still-warm worker; ignored files come back as-is")
+    void prettierErrorsStayErrors() throws Exception {
+        PrettierFormatter.Result broken = PrettierDaemon.format(rootDir(), src("a.js"), "const const");
+        assertThat(broken.exitCode()).isEqualTo(2);
+        assertThat(PrettierDaemon.running(rootDir()).alive()).isTrue();
+
+        PrettierFormatter.Result ignored = PrettierDaemon.format(rootDir(), src("vendor.skip.js"), "as is");
+        assertThat(ignored.stdout()).isEqualTo("as is");
+    }
+
+    @Test
+    @DisplayName("a worker that dies mid-save hands that save to the one-shot runner")
+    void brokenWorkerFallsBack() throws Exception {
+        Files.writeString(root.resolve(".prettierrc"), "{}");
+        org.nmox.studio.rack.service.WorkspaceTrust.trust(rootDir());
+        AtomicInteger oneShots = new AtomicInteger();
+        PrettierFormatter formatter = new PrettierFormatter((command, workDir, stdin) -> {
+            oneShots.incrementAndGet();
+            return new PrettierFormatter.Result(0, "one-shot");
+        }, PrettierFormatter::warm);
+        try {
+            assertThat(formatter.format("crash", src("a.js"))).isEqualTo("one-shot");
+            assertThat(oneShots).hasValue(1);
+            assertThat(PrettierDaemon.running(rootDir())).as("the dead worker is forgotten").isNull();
+
+            assertThat(formatter.format("fine", src("a.js"))).startsWith("FINE");
+            assertThat(oneShots).as("the next save is warm again").hasValue(1);
+        } finally {
+            org.nmox.studio.rack.service.WorkspaceTrust.clearForTest();
+        }
+    }
+
+    @Test
+    @DisplayName("a prettier that will not load fails fast and is not retried on every save")
+    void unloadablePrettierIsRefused() throws Exception {
+        Files.writeString(root.resolve("node_modules/prettier/index.js"), "throw new Error('broken install');");
+
+        assertThatThrownBy(() -> PrettierDaemon.format(rootDir(), src("a.js"), "x"))
+                .isInstanceOf(IOException.class).hasMessageContaining("broken install");
+        int starts = PrettierDaemon.metrics().starts();
+        assertThatThrownBy(() -> PrettierDaemon.format(rootDir(), src("a.js"), "x"))
+                .isInstanceOf(IOException.class).hasMessageContaining("recently failed");
+        assertThat(PrettierDaemon.metrics().starts()).isEqualTo(starts);
+    }
+
+    @Test
+    @DisplayName("the stub-runner constructor never reaches a daemon")
+    void stubbedFormatterIsOneShot() throws Exception {
+        Files.createFile(root.resolve(".prettierrc"));
+        org.nmox.studio.rack.service.WorkspaceTrust.trust(rootDir());
+        try {
+            PrettierFormatter formatter = new PrettierFormatter((command, workDir, stdin) ->
+                    new PrettierFormatter.Result(0, "stubbed"));
+            assertThat(formatter.format("x", src("a.js"))).isEqualTo("stubbed");
+            assertThat(PrettierDaemon.running(rootDir())).isNull();
+        } finally {
+            org.nmox.studio.rack.service.WorkspaceTrust.clearForTest();
+        }
+    }
+}
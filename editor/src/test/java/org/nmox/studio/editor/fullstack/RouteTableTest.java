@@ -0,0 +1,165 @@
+package org.nmox.studio.editor.fullstack;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The route trie against Express's path syntax: a client path lands on
+ * the route that serves it, the specific route before the general one,
+ * the call's own verb before another — and the project table is
+ * rebuilt only when a source moved.
+ */
+class RouteTableTest {
+
+    private static final File F = new File("server.js");
+
+    @AfterEach
+    void forget() {
+        Routes.clearCacheForTest();
+    }
+
+    private static RouteTable table(String... verbAndPath) {
+        List<Routes.Route> routes = new ArrayList<>();
+        for (int i = 0; i < verbAndPath.length; i++) {
+            String[] vp = verbAndPath[i].split(" ", 2);
+            routes.add(new Routes.Route(vp[0], vp[1], F, i));
+        }
+        return RouteTable.of(routes);
+    }
+
+    private static String served(RouteTable t, String path, String verb) {
+        RouteTable.Match m = t.match(path, verb);
+        return m == null ? null : m.route().verb() + " " + m.route().path();
+    }
+
+    @Test
+    @DisplayName("params bind, constraints filter, query and trailing slash are ignored")
+    void params() {
+        RouteTable t = table("get /api/users", "get /api/users/:id(\\d+)", "get /api/users/:name",
+                "get /api/users/:id/posts/:post");
+
+        RouteTable.Match m = t.match("/api/users/42/posts/7?draft=1", "get");
+        assertThat(m.route().path()).isEqualTo("/api/users/:id/posts/:post");
+        assertThat(m.params()).containsExactly(Map.entry("id", "42"), Map.entry("post", "7"));
+        assertThat(served(t, "/api/users/42/", "get")).isEqualTo("get /api/users/:id(\\d+)");
+        assertThat(served(t, "/api/users/ada", "get")).as("constraint refuses, the plain param takes it")
+                .isEqualTo("get /api/users/:name");
+        assertThat(served(t, "/api/users", "get")).isEqualTo("get /api/users");
+        assertThat(t.match("/api/users/42/comments", "get")).isNull();
+        assertThat(t.match("/api", "get")).isNull();
+    }
+
+    @Test
+    @DisplayName("a constraint read from real JS source matches: the literal is unescaped first")
+    void constraintsFromSource() {
+        String js = "app.get('/api/users/:id(\\\\d+)', show);\n"
+                + "app.get(\"/files/:name(\\\\w+)\\\\.:ext\", file);\n"
+                + "router.get('/api/users/:slug', bySlug);\n";
+        List<Routes.Route> routes = Routes.routesIn(js, F);
+        assertThat(routes).extracting(Routes.Route::path)
+                .containsExactly("/api/users/:id(\\d+)", "/files/:name(\\w+)\\.:ext", "/api/users/:slug");
+        RouteTable t = RouteTable.of(routes);
+
+        assertThat(served(t, "/api/users/42", "get")).isEqualTo("get /api/users/:id(\\d+)");
+        assertThat(served(t, "/api/users/ada", "get")).isEqualTo("get /api/users/:slug");
+        assertThat(t.match("/files/report.pdf", "get").params())
+                .containsEntry("name", "report").containsEntry("ext", "pdf");
+        assertThat(Routes.unescape("a\\'b\\x41\\u0042\\d\\")).isEqualTo("a'bABd\\");
+    }
+
+    @Test
+    @DisplayName("mixed segments, wildcards and optional parts")
+    void syntax() {
+        RouteTable t = table("get /flights/:from-:to", "get /files/:name.:ext", "get /static/*",
+                "get /docs/:path+", "get /blog/:slug?", "get /shop{/:cat}/items");
+
+        RouteTable.Match flight = t.match("/flights/LAX-SFO", null);
+        assertThat(flight.params()).containsExactly(Map.entry("from", "LAX"), Map.entry("to", "SFO"));
+        assertThat(t.match("/files/report.pdf", null).params())
+                .containsEntry("name", "report").containsEntry("ext", "pdf");
+        assertThat(t.match("/static/css/site.css", null).params()).containsEntry("0", "css/site.css");
+        assertThat(served(t, "/static", null)).as("* may match nothing").isEqualTo("get /static/*");
+        assertThat(served(t, "/docs/a/b", null)).isEqualTo("get /docs/:path+");
+        assertThat(t.match("/docs", null)).as("+ needs one segment").isNull();
+        assertThat(served(t, "/blog", null)).isEqualTo("get /blog/:slug?");
+        assertThat(served(t, "/blog/hello", null)).isEqualTo("get /blog/:slug?");
+        assertThat(served(t, "/shop/items", null)).isEqualTo("get /shop{/:cat}/items");
+        assertThat(t.match("/shop/toys/items", null).params()).containsEntry("cat", "toys");
+    }
+
+    @Test
+    @DisplayName("the specific route wins over registration order; the call's verb over another")
+    void preference() {
+        RouteTable t = table("get /api/*", "get /api/:thing", "get /api/me", "delete /api/users/:id",
+                "get /api/users/:id", "all /health");
+
+        assertThat(served(t, "/api/me", "get")).isEqualTo("get /api/me");
+        assertThat(served(t, "/api/you", "get")).isEqualTo("get /api/:thing");
+        assertThat(served(t, "/api/a/b", "get")).isEqualTo("get /api/*");
+        assertThat(served(t, "/api/users/1", "delete")).isEqualTo("delete /api/users/:id");
+        assertThat(served(t, "/api/users/1", "get")).isEqualTo("get /api/users/:id");
+        assertThat(served(t, "/api/users/1", "put")).as("no PUT route: any verb beats nothing")
+                .isEqualTo("delete /api/users/:id");
+        assertThat(served(t, "/health", "post")).isEqualTo("all /health");
+    }
+
+    @Test
+    @DisplayName("a template interpolation matches params and wildcards, never a literal")
+    void dynamic() {
+        RouteTable t = table("get /api/users/me", "get /api/users/:id(\\d+)", "get /assets/*");
+        String d = String.valueOf(RouteTable.DYNAMIC);
+
+        assertThat(served(t, "/api/users/" + d, "get")).isEqualTo("get /api/users/:id(\\d+)");
+        assertThat(served(t, "/assets/" + d + "/logo.png", "get")).isEqualTo("get /assets/*");
+        assertThat(RouteTable.of(List.of(new Routes.Route("get", "/api/me", F, 0)))
+                .match("/api/" + d, "get")).isNull();
+    }
+
+    @Test
+    @DisplayName("the client side: the whole path with interpolations, and the call's verb")
+    void clientSide() {
+        String tpl = "const r = await fetch(`/api/users/${user.id}/posts?x=1`, { method: 'DELETE' });";
+        int start = tpl.indexOf("/api");
+        assertThat(Routes.clientPath(tpl, start))
+                .isEqualTo("/api/users/" + RouteTable.DYNAMIC + "/posts?x=1");
+        assertThat(Routes.clientVerb(tpl, start)).isEqualTo("delete");
+
+        String bare = "fetch('/api/users')";
+        assertThat(Routes.clientVerb(bare, bare.indexOf('/'))).isEqualTo("get");
+        String ax = "axios.patch(\"/api/users/1\", body)";
+        assertThat(Routes.clientPath(ax, ax.indexOf('/'))).isEqualTo("/api/users/1");
+        assertThat(Routes.clientVerb(ax, ax.indexOf('/'))).isEqualTo("patch");
+        String config = "axios('/api/x')";
+        assertThat(Routes.clientVerb(config, config.indexOf('/'))).isNull();
+    }
+
+    @Test
+    @DisplayName("the project table is reused until a source moves, and the move is seen")
+    void cached(@TempDir Path dir) throws Exception {
+        Path server = dir.resolve("server.js");
+        Files.writeString(server, "app.get('/api/users/:id', show);\n");
+        Files.writeString(dir.resolve("client.js"), "fetch('/api/users/1');\n");
+
+        RouteTable first = Routes.table(dir.toFile());
+        assertThat(Routes.table(dir.toFile())).isSameAs(first);
+        assertThat(Routes.findRoute(dir.toFile(), "/api/users/7", "get").path()).isEqualTo("/api/users/:id");
+
+        Files.writeString(server, "app.get('/api/users/:id', show);\napp.delete('/api/users/:id', drop);\n");
+        server.toFile().setLastModified(server.toFile().lastModified() + 2000);
+        RouteTable second = Routes.table(dir.toFile());
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.routes()).extracting(Routes.Route::verb).containsExactly("get", "delete");
+        assertThat(Routes.findRoute(dir.toFile(), "/api/users/7", "delete").verb()).isEqualTo("delete");
+    }
+}
@@ -51,16 +51,30 @@ class LanguageServerCatalogTest {
 
     @Test
     @DisplayName("PATH-entry probing sees Windows spellings — .exe and npm's .cmd shims")
-    void windowsSpellingsDetected(@org.junit.jupiter.api.io.TempDir java.io.File dir) throws Exception {
+    void windowsSpellingsDetected(@org.junit.jupiter.api.io.TempDir java.io.File home) throws Exception {
         // Pure file probing, so the Windows-shaped names are testable on any
         // OS. Before this, no language server was EVER detected as installed
-        // on Windows: nothing there is executable under its bare name.
+        // on Windows: nothing there is executable under its bare name. The
+        // locator reads user.home live, so a fixture home's ~/.local/bin is
+        // a search dir once the index is refreshed.
+        java.io.File dir = new java.io.File(home, ".local/bin");
+        assertThat(dir.mkdirs()).isTrue();
         new java.io.File(dir, "native-server.exe").createNewFile();
         new java.io.File(dir, "npm-server.cmd").createNewFile();
 
-        assertThat(LanguageServerCatalog.foundIn(dir, "native-server")).isTrue();
-        assertThat(LanguageServerCatalog.foundIn(dir, "npm-server")).isTrue();
-        assertThat(LanguageServerCatalog.foundIn(dir, "absent-server")).isFalse();
+        String realHome = System.getProperty("user.home");
+        try {
+            System.setProperty("user.home", home.getAbsolutePath());
+            assertThat(LanguageServerCatalog.isInstalled("native-server")).isTrue();
+            assertThat(LanguageServerCatalog.isInstalled("npm-server")).isTrue();
+            assertThat(LanguageServerCatalog.isInstalled("absent-server")).isFalse();
+            assertThat(LanguageServerCatalog.installed(
+                    java.util.List.of("absent-server", "npm-server", "native-server")))
+                    .containsExactly("npm-server", "native-server");
+        } finally {
+            System.setProperty("user.home", realHome);
+            org.nmox.studio.core.process.ToolLocator.refresh();
+        }
     }
 
     @Test
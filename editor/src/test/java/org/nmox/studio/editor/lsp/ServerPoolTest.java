@@ -0,0 +1,291 @@
+package org.nmox.studio.editor.lsp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.openide.util.NbPreferences;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The server pool against a fake language server in a child JVM: a cold
+ * launch measured end to end, a parked server handed to a client whose
+ * own handshake never reaches it, no duplicate per key, and the sweep's
+ * idle and LRU rules.
+ */
+class ServerPoolTest {
+
+    @TempDir
+    File dir;
+
+    @BeforeEach
+    @AfterEach
+    void clean() {
+        ServerPool.clearForTest();
+        NbPreferences.forModule(ServerPool.class).remove(ServerPool.PREF_CAPABILITIES);
+    }
+
+    /**
+     * Answers initialize once (a second one is an error, as in real
+     * servers), says something unprompted after it, reports every
+     * initialized it receives, and answers test/hover after 20 ms.
+     */
+    public static final class FakeServer {
+
+        public static void main(String[] args) throws Exception {
+            InputStream in = System.in;
+            OutputStream out = System.out;
+            boolean initialized = false;
+            int initializedCount = 0;
+            for (byte[] body; (body = LspFrames.readFrame(in)) != null;) {
+                JSONObject msg = new JSONObject(new String(body, StandardCharsets.UTF_8));
+                String method = msg.optString("method");
+                switch (method) {
+                    case "initialize" -> {
+                        if (initialized) {
+                            send(out, new JSONObject().put("jsonrpc", "2.0").put("id", msg.get("id"))
+                                    .put("error", new JSONObject().put("code", -32600).put("message", "initialize twice")));
+                            break;
+                        }
+                        initialized = true;
+                        JSONObject params = msg.getJSONObject("params");
+                        send(out, new JSONObject().put("jsonrpc", "2.0").put("id", msg.get("id"))
+                                .put("result", new JSONObject()
+                                        .put("capabilities", new JSONObject().put("hoverProvider", true))
+                                        .put("options", params.opt("initializationOptions"))
+                                        .put("client", params.opt("capabilities"))));
+                        send(out, new JSONObject().put("jsonrpc", "2.0").put("method", "window/logMessage")
+                                .put("params", new JSONObject().put("type", 3).put("message", "indexing")));
+                    }
+                    case "initialized" -> send(out, new JSONObject().put("jsonrpc", "2.0")
+                            .put("method", "fake/initialized")
+                            .put("params", new JSONObject().put("count", ++initializedCount)));
+                    case "test/hover" -> {
+                        Thread.sleep(20);
+                        send(out, new JSONObject().put("jsonrpc", "2.0").put("id", msg.get("id"))
+                                .put("result", "hover"));
+                    }
+                    case "exit" -> System.exit(0);
+                    default -> {
+                    }
+                }
+            }
+        }
+
+        private static void send(OutputStream out, JSONObject msg) throws IOException {
+            out.write(LspFrames.frame(msg.toString()));
+            out.flush();
+        }
+    }
+
+    private ServerPool.Key key(File root) {
+        return new ServerPool.Key(List.of("fake-ls"), root, "");
+    }
+
+    private static ServerPool.Spawner fake() {
+        return () -> new ProcessBuilder(
+                new File(System.getProperty("java.home"), "bin/java").getPath(),
+                "-cp", System.getProperty("java.class.path"), FakeServer.class.getName())
+                .redirectError(ProcessBuilder.Redirect.DISCARD).start();
+    }
+
+    private static void send(ServerPool.Connection c, String json) throws IOException {
+        // split header and body across writes, as lsp4j does
+        byte[] frame = LspFrames.frame(json);
+        int header = new String(frame, StandardCharsets.US_ASCII).indexOf("\r\n\r\n") + 4;
+        c.out().write(frame, 0, header);
+        c.out().write(frame, header, frame.length - header);
+        c.out().flush();
+    }
+
+    private static JSONObject read(ServerPool.Connection c) throws IOException {
+        return new JSONObject(new String(LspFrames.readFrame(c.in()), StandardCharsets.UTF_8));
+    }
+
+    private static String initialize(Object id) {
+        return new JSONObject().put("jsonrpc", "2.0").put("id", id).put("method", "initialize")
+                .put("params", new JSONObject().put("capabilities", new JSONObject().put("hover", true)))
+                .toString();
+    }
+
+    private static final String INITIALIZED = "{\"jsonrpc\":\"2.0\",\"method\":\"initialized\",\"params\":{}}";
+
+    private static String hover(int id) {
+        return "{\"jsonrpc\":\"2.0\",\"id\":" + id + ",\"method\":\"test/hover\",\"params\":{}}";
+    }
+
+    @Test
+    @DisplayName("a cold launch passes through, is measured, and teaches the pool the client's capabilities")
+    void coldLaunchMeasured() throws Exception {
+        int before = ServerPool.spawns();
+        ServerPool.Connection c = ServerPool.open(key(dir), fake(), null, null);
+        send(c, initialize(1));
+        assertThat(read(c).getInt("id")).isEqualTo(1);
+        assertThat(read(c).getString("method")).isEqualTo("window/logMessage");
+        send(c, INITIALIZED);
+        assertThat(read(c).getJSONObject("params").getInt("count")).isEqualTo(1);
+        send(c, hover(2));
+        assertThat(read(c).getString("result")).isEqualTo("hover");
+
+        assertThat(ServerPool.spawns()).isEqualTo(before + 1);
+        assertThat(ServerPool.capabilities()).isEqualTo("{\"hover\":true}");
+        List<ServerPool.Stats> stats = ServerPool.snapshot();
+        assertThat(stats).hasSize(1);
+        ServerPool.Stats s = stats.get(0);
+        assertThat(s.server()).isEqualTo("fake-ls");
+        assertThat(s.state()).isEqualTo("active");
+        assertThat(s.startupMs()).isGreaterThanOrEqualTo(0);
+        assertThat(s.requests()).isEqualTo(2);
+        assertThat(s.p50Ms()).isGreaterThanOrEqualTo(20);
+        assertThat(s.idleMs()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("a parked server is handed off warm: the client's handshake is answered, not repeated")
+    void warmHandOff() throws Exception {
+        ServerPool.rememberCapabilities("{\"hover\":true}");
+        JSONObject options = new JSONObject().put("enable", true);
+        assertThat(ServerPool.park(key(dir), fake(), options)).isNotNull();
+        int spawned = ServerPool.spawns();
+        long deadline = System.currentTimeMillis() + 20_000;
+        while (!ServerPool.snapshot().get(0).state().equals("warm")) {
+            assertThat(System.currentTimeMillis()).as("warm handshake finished").isLessThan(deadline);
+            Thread.sleep(20);
+        }
+
+        ServerPool.Connection c = ServerPool.open(key(dir), fake(), options, null);
+        assertThat(ServerPool.spawns()).as("the parked process is reused").isEqualTo(spawned);
+        send(c, initialize("client-7"));
+        JSONObject answer = read(c);
+        assertThat(answer.get("id")).isEqualTo("client-7");
+        assertThat(answer.getJSONObject("result").getJSONObject("options").getBoolean("enable")).isTrue();
+        assertThat(answer.getJSONObject("result").getJSONObject("client").getBoolean("hover")).isTrue();
+        // what the server said while parked, in order, behind the answer
+        assertThat(read(c).getString("method")).isEqualTo("window/logMessage");
+        assertThat(read(c).getJSONObject("params").getInt("count")).isEqualTo(1);
+        send(c, INITIALIZED);
+        send(c, hover(8));
+        JSONObject next = read(c);
+        assertThat(next.optString("method")).as("the client's initialized was swallowed").isEmpty();
+        assertThat(next.getInt("id")).isEqualTo(8);
+        assertThat(ServerPool.snapshot().get(0).startupMs()).isGreaterThanOrEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("one instance per (server, root): parking never spawns beside a live one")
+    void parkNeverDuplicates() throws Exception {
+        int before = ServerPool.spawns();
+        assertThat(ServerPool.park(key(dir), fake(), null)).isNotNull();
+        assertThat(ServerPool.park(key(dir), fake(), null)).isNotNull();
+        assertThat(ServerPool.spawns()).isEqualTo(before + 1);
+
+        ServerPool.open(key(dir), fake(), null, null);
+        assertThat(ServerPool.park(key(dir), fake(), null)).isNotNull();
+        assertThat(ServerPool.spawns()).as("claimed, still one").isEqualTo(before + 1);
+
+        File other = new File(dir, "other");
+        assertThat(other.mkdir()).isTrue();
+        assertThat(ServerPool.park(key(other), fake(), null)).isNotNull();
+        assertThat(ServerPool.spawns()).as("another root is another server").isEqualTo(before + 2);
+    }
+
+    @Test
+    @DisplayName("two prewarms racing on one key spawn once: the first reserves it before spawning")
+    void concurrentParksSpawnOnce() throws Exception {
+        int before = ServerPool.spawns();
+        CountDownLatch spawning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ServerPool.Spawner slow = () -> {
+            spawning.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return fake().spawn();
+        };
+        CompletableFuture<ServerPool.Connection> first = CompletableFuture.supplyAsync(() -> {
+            try {
+                return ServerPool.park(key(dir), slow, null);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        assertThat(spawning.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(ServerPool.park(key(dir), fake(), null)).as("taken while the first spawns").isNotNull();
+        release.countDown();
+        assertThat(first.get(20, TimeUnit.SECONDS)).isNotNull();
+        assertThat(ServerPool.spawns()).isEqualTo(before + 1);
+        assertThat(ServerPool.snapshot()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("the sweep stops idle servers and evicts least recently used over budget, never a busy one")
+    void sweepIdleAndLru() throws Exception {
+        File a = new File(dir, "a");
+        File b = new File(dir, "b");
+        assertThat(a.mkdir() && b.mkdir()).isTrue();
+        ServerPool.Connection first = ServerPool.open(key(a), fake(), null, null);
+        Thread.sleep(5);
+        ServerPool.Connection second = ServerPool.open(key(b), fake(), null, null);
+        long now = System.currentTimeMillis();
+
+        assertThat(ServerPool.sweep(now, 1, Long.MAX_VALUE, ServerPool.IDLE_MS))
+                .as("both in use: over the count, but nothing evictable").isEmpty();
+
+        List<ServerPool.Server> evicted = ServerPool.sweep(
+                now + ServerPool.EVICT_AFTER_MS + 5, 1, Long.MAX_VALUE, ServerPool.IDLE_MS);
+        assertThat(evicted).extracting(s -> s.key.root()).containsExactly(a);
+        assertThat(first.process().waitFor(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(first.in().read()).as("the client sees the server gone").isEqualTo(-1);
+        assertThat(second.process().isAlive()).isTrue();
+
+        assertThat(ServerPool.sweep(now + ServerPool.IDLE_MS + 5, 8, Long.MAX_VALUE, ServerPool.IDLE_MS))
+                .extracting(s -> s.key.root()).containsExactly(b);
+        assertThat(ServerPool.snapshot()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("the envelope is sniffed from the top level only, ids of either type")
+    void sniff() {
+        LspFrames.Sniff request = LspFrames.sniff(bytes(
+                "{\"jsonrpc\":\"2.0\",\"id\":12,\"method\":\"textDocument/hover\",\"params\":{}}"));
+        assertThat(request.request()).isTrue();
+        assertThat(request.id()).isEqualTo("12");
+        LspFrames.Sniff response = LspFrames.sniff(bytes(
+                "{\"jsonrpc\":\"2.0\",\"id\":\"a-1\",\"result\":{\"method\":\"not me\",\"id\":3}}"));
+        assertThat(response.response()).isTrue();
+        assertThat(response.id()).isEqualTo("a-1");
+        LspFrames.Sniff note = LspFrames.sniff(bytes(
+                "{\"params\":{\"id\":9,\"s\":\"\\\"}\"},\"method\":\"$/progress\",\"jsonrpc\":\"2.0\"}"));
+        assertThat(note.id()).isNull();
+        assertThat(note.method()).isEqualTo("$/progress");
+    }
+
+    @Test
+    @EnabledOnOs(OS.LINUX)
+    @DisplayName("resident memory is read for a process tree")
+    void rssOfThisJvm() {
+        assertThat(ServerPool.rssKb(ProcessHandle.current())).isGreaterThan(1024);
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -1,12 +1,22 @@
 package org.nmox.studio.editor.sass;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
 import org.junit.jupiter.api.io.TempDir;
+import org.nmox.studio.rack.service.WorkspaceTrust;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -14,13 +24,31 @@ import static org.assertj.core.api.Assertions.assertThat;
  * The Sass compile engine's rules (v1.230.0): the sibling-output
  * derivation, the partial refusal, the pinned argv (no source map,
  * absolute in/out), and the failure path carrying sass's own first
- * error line — all through the Runner seam, no real sass needed.
+ * error line — all through the Runner seam, no real sass needed. The
+ * batch half: a warm host's css lands where the CLI's would, a host
+ * failure falls back to the CLI, and the CLI batch runs side by side.
  */
 class SassCompilerTest {
 
     @TempDir
     File dir;
 
+    @AfterEach
+    void resetTrust() {
+        WorkspaceTrust.clearForTest();
+    }
+
+    /** A trusted project with an executable node_modules/.bin/sass stub. */
+    private File trustedProjectWithSass() throws IOException {
+        File bin = new File(dir, "node_modules/.bin/sass");
+        bin.getParentFile().mkdirs();
+        Files.writeString(bin.toPath(), "#!/bin/sh\nexit 0\n");
+        bin.setExecutable(true);
+        WorkspaceTrust.clearForTest();
+        WorkspaceTrust.trust(dir);
+        return bin;
+    }
+
     @Test
     @DisplayName("output is the sibling .css: extension swapped, directory kept")
     void outputSibling() {
@@ -129,4 +157,118 @@ class SassCompilerTest {
                 .isEqualTo("something odd");
     }
 
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    @DisplayName("a hosted batch writes each css beside its entry, in order, with its time and loads")
+    void hostedBatchWritesOutputs() throws Exception {
+        File bin = trustedProjectWithSass();
+        File site = new File(dir, "site.scss");
+        File admin = new File(dir, "admin.scss");
+        File vars = new File(dir, "_vars.scss");
+        List<String> hostedWith = new ArrayList<>();
+        SassCompiler compiler = new SassCompiler((cmd, wd) -> {
+            throw new AssertionError("the CLI must not run when the host answers");
+        }, (binary, entries) -> {
+            hostedWith.add(binary);
+            return Map.of(
+                    site, new SassHost.Compiled("a {\n  color: red;\n}", null, List.of(site, vars), 12),
+                    admin, new SassHost.Compiled(null, "Error: Undefined variable.\n  ╷", List.of(admin), 3));
+        });
+        Map<File, SassCompiler.Result> out = compiler.compileAll(List.of(site, admin));
+
+        assertThat(hostedWith).containsExactly(bin.getAbsolutePath());
+        assertThat(out.keySet()).containsExactly(site, admin);
+        assertThat(out.get(site).outcome()).isEqualTo(SassCompiler.Outcome.COMPILED);
+        assertThat(out.get(site).millis()).isEqualTo(12);
+        assertThat(out.get(site).loaded()).containsExactly(site, vars);
+        assertThat(Files.readString(new File(dir, "site.css").toPath())).isEqualTo("a {\n  color: red;\n}\n");
+        assertThat(out.get(admin).outcome()).isEqualTo(SassCompiler.Outcome.FAILED);
+        assertThat(out.get(admin).error()).isEqualTo("Error: Undefined variable.");
+        assertThat(new File(dir, "admin.css")).doesNotExist();
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    @DisplayName("entries sharing a CLI but not a host are hosted apart, each by its own binary")
+    void hostResolvedPerBatch() throws Exception {
+        File bin = trustedProjectWithSass();
+        assertThat(new File(dir, ".git").mkdir()).isTrue();
+        File embedded = new File(dir, "themed/node_modules/sass-embedded-linux-x64/dart-sass/sass");
+        embedded.getParentFile().mkdirs();
+        Files.writeString(embedded.toPath(), "#!/bin/sh\nexit 0\n");
+        embedded.setExecutable(true);
+        File themed = new File(dir, "themed/site.scss");
+        File plain = new File(dir, "plain/site.scss");
+        Map<String, List<File>> hostedWith = new LinkedHashMap<>();
+        SassCompiler compiler = new SassCompiler((cmd, wd) -> {
+            throw new AssertionError("the CLI must not run when the host answers");
+        }, (binary, entries) -> {
+            hostedWith.put(binary, entries);
+            Map<File, SassHost.Compiled> out = new LinkedHashMap<>();
+            entries.forEach(e -> out.put(e, new SassHost.Compiled("a {}", null, List.of(e), 1)));
+            return out;
+        });
+        compiler.compileAll(List.of(themed, plain));
+
+        assertThat(hostedWith).containsExactly(
+                Map.entry(embedded.getAbsolutePath(), List.of(themed)),
+                Map.entry(bin.getAbsolutePath(), List.of(plain)));
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    @DisplayName("a host that can't serve falls back to the pinned CLI argv")
+    void hostFailureFallsBackToCli() throws Exception {
+        File bin = trustedProjectWithSass();
+        File site = new File(dir, "site.scss");
+        List<List<String>> spawns = new ArrayList<>();
+        SassCompiler compiler = new SassCompiler((cmd, wd) -> {
+            spawns.add(cmd);
+            return new SassCompiler.Exec(0, "");
+        }, (binary, entries) -> {
+            throw new IOException("no embedded protocol");
+        });
+        SassCompiler.Result result = compiler.compile(site);
+        assertThat(result.outcome()).isEqualTo(SassCompiler.Outcome.COMPILED);
+        assertThat(result.millis()).isGreaterThanOrEqualTo(0);
+        assertThat(spawns).containsExactly(List.of(bin.getAbsolutePath(), "--no-source-map",
+                site.getAbsolutePath(), new File(dir, "site.css").getAbsolutePath()));
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    @DisplayName("the CLI batch compiles entries side by side, not one after another")
+    void cliBatchRunsInParallel() throws Exception {
+        trustedProjectWithSass();
+        File a = new File(dir, "a.scss");
+        File b = new File(dir, "b.scss");
+        File partial = new File(dir, "_p.scss");
+        // each spawn waits for the other: a serial batch would time the barrier out
+        CyclicBarrier both = new CyclicBarrier(2);
+        SassCompiler compiler = new SassCompiler((cmd, wd) -> {
+            try {
+                both.await(5, TimeUnit.SECONDS);
+            } catch (Exception ex) {
+                return new SassCompiler.Exec(1, "Error: ran serially");
+            }
+            return new SassCompiler.Exec(0, "");
+        });
+        Map<File, SassCompiler.Result> out = compiler.compileAll(List.of(partial, a, b));
+        assertThat(out.keySet()).containsExactly(partial, a, b);
+        assertThat(out.get(partial).outcome()).isEqualTo(SassCompiler.Outcome.PARTIAL);
+        assertThat(out.get(a).outcome()).isEqualTo(SassCompiler.Outcome.COMPILED);
+        assertThat(out.get(b).outcome()).isEqualTo(SassCompiler.Outcome.COMPILED);
+    }
+
+    @Test
+    @DisplayName("a trusted project's sass-embedded native compiler is the host binary")
+    void embeddedBinaryFound() throws Exception {
+        File native1 = new File(dir, "node_modules/sass-embedded-linux-x64/dart-sass/sass.bat");
+        native1.getParentFile().mkdirs();
+        assertThat(native1.createNewFile()).isTrue();
+        assertThat(SassCompiler.findEmbeddedBinary(dir)).isEqualTo(native1.getAbsolutePath());
+        File child = new File(dir, "child");
+        assertThat(new File(child, ".git").mkdirs()).isTrue();
+        assertThat(SassCompiler.findEmbeddedBinary(child)).isNull();
+    }
 }
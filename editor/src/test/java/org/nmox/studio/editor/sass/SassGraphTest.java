@@ -0,0 +1,140 @@
+package org.nmox.studio.editor.sass;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The project import graph: Sass's own relative resolution, directives
+ * read through comments, entry points found from a partial, loaded_urls
+ * widening what the parse saw, and a save reparsing one file, not the
+ * tree.
+ */
+class SassGraphTest {
+
+    @TempDir
+    File dir;
+
+    private File write(String path, String text) throws Exception {
+        File f = new File(dir, path);
+        f.getParentFile().mkdirs();
+        Files.writeString(f.toPath(), text);
+        return f.toPath().toAbsolutePath().normalize().toFile();
+    }
+
+    @Test
+    @DisplayName("directives: @use/@forward take their URL, @import its list; css, url(), sass: are not edges")
+    void directivesParsed() {
+        String scss = "// @use \"commented\";\n"
+                + "/* @import 'blocked'; */\n"
+                + "@use \"config\" as cfg with ($x: 1);\n"
+                + "@forward 'tokens' show $a;\n"
+                + "@use \"sass:math\";\n"
+                + "@import \"a\",\n  'b';\n"
+                + "@import \"print.css\";\n"
+                + "@import url(\"theme\");\n"
+                + "a { background: url(\"//cdn/x.png\"); }\n";
+        assertThat(SassGraph.imports(scss, false)).containsExactly("config", "tokens", "a", "b");
+        assertThat(SassGraph.imports("@use 'vars'\n.a\n  color: red\n", true)).containsExactly("vars");
+    }
+
+    @Test
+    @DisplayName("resolution follows Sass: partial before plain, .scss before .sass, then the _index")
+    void resolutionOrder() throws Exception {
+        File main = write("main.scss", "");
+        File partial = write("_vars.scss", "");
+        write("vars.sass", "");
+        File index = write("theme/_index.scss", "");
+        File indented = write("mixins.sass", "");
+        assertThat(SassGraph.resolve(main, "vars")).isEqualTo(partial);
+        assertThat(SassGraph.resolve(main, "theme")).isEqualTo(index);
+        assertThat(SassGraph.resolve(main, "mixins")).isEqualTo(indented);
+        assertThat(SassGraph.resolve(main, "missing")).isNull();
+    }
+
+    @Test
+    @DisplayName("a partial maps to the entry points that reach it, through forwards and nested dirs")
+    void entriesUsingPartial() throws Exception {
+        File vars = write("styles/_vars.scss", "$c: red;");
+        write("styles/_theme.scss", "@forward 'vars';");
+        File site = write("styles/site.scss", "@use 'theme';");
+        File admin = write("admin/admin.scss", "@use '../styles/vars';");
+        write("styles/_unused.scss", "");
+        write("node_modules/lib/lib.scss", "@use '../../styles/vars';");
+        write(".cache/old.scss", "@use '../styles/vars';");
+        write("package.json", "{}");
+
+        SassGraph graph = new SassGraph(dir);
+        assertThat(graph.entriesUsing(vars)).containsExactly(admin, site);
+        assertThat(graph.entriesUsing(new File(dir, "styles/_unused.scss"))).isEmpty();
+        assertThat(graph.closure(site)).contains(site, new File(dir, "styles/_theme.scss").getAbsoluteFile(), vars);
+        assertThat(SassGraph.rootOf(vars)).isEqualTo(dir.getAbsoluteFile());
+    }
+
+    @Test
+    @DisplayName("a non-partial another stylesheet imports is a dependency, not an entry point")
+    void importedNonPartialIsNotAnEntry() throws Exception {
+        File button = write("button.scss", "$x: 1;");
+        File main = write("main.scss", "@import 'button';");
+        assertThat(new SassGraph(dir).entriesUsing(button)).containsExactly(main);
+    }
+
+    @Test
+    @DisplayName("loaded_urls add the edges the parse missed")
+    void loadedWidensTheGraph() throws Exception {
+        File hidden = write("_generated.scss", "");
+        File main = write("main.scss", "@use 'pkg:design-system';");
+        SassGraph graph = new SassGraph(dir);
+        assertThat(graph.dependents(hidden)).doesNotContain(main);
+        graph.compiled(main, List.of(main, hidden));
+        assertThat(graph.dependents(hidden)).contains(main);
+        assertThat(graph.closure(main)).contains(hidden);
+    }
+
+    @Test
+    @DisplayName("a save reparses the saved file alone; a new import becomes an edge")
+    void incrementalReparse() throws Exception {
+        File vars = write("_vars.scss", "");
+        File other = write("_other.scss", "");
+        File main = write("main.scss", "@use 'vars';");
+        for (int i = 0; i < 20; i++) {
+            write("more/_p" + i + ".scss", "");
+        }
+        SassGraph graph = new SassGraph(dir);
+        assertThat(graph.entriesUsing(other)).isEmpty();
+        int walked = graph.parses();
+
+        write("main.scss", "@use 'vars';\n@use 'other';");
+        graph.changed(main);
+        assertThat(graph.parses()).isEqualTo(walked + 1);
+        assertThat(graph.entriesUsing(other)).containsExactly(main);
+        assertThat(graph.entriesUsing(vars)).containsExactly(main);
+
+        Files.delete(other.toPath());
+        graph.changed(other);
+        assertThat(graph.closure(main)).doesNotContain(other);
+    }
+
+    @Test
+    @DisplayName("refresh re-stats known files and reparses only those whose mtime moved")
+    void refreshReparsesOnlyMoved() throws Exception {
+        write("_a.scss", "");
+        File main = write("main.scss", "");
+        File b = write("_b.scss", "");
+        SassGraph graph = new SassGraph(dir);
+        graph.refresh();
+        int walked = graph.parses();
+
+        write("main.scss", "@use 'b';");
+        main.setLastModified(main.lastModified() + 5_000);
+        graph.refresh();
+        assertThat(graph.parses()).isEqualTo(walked + 1);
+        assertThat(graph.entriesUsing(b)).containsExactly(main);
+    }
+}
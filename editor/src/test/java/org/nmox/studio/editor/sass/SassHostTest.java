@@ -0,0 +1,214 @@
+package org.nmox.studio.editor.sass;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The embedded-protocol host against a fake compiler on the far end of a
+ * pipe pair: framing both ways, the handshake, several compilations in
+ * flight answered out of order, loaded_urls as files, and a protocol
+ * error or a dead host failing every caller instead of hanging one.
+ */
+class SassHostTest {
+
+    @TempDir
+    File dir;
+
+    @AfterEach
+    void stop() {
+        SassHost.stopAll();
+    }
+
+    /** The compiler's side of the pipe: reads inbound packets, answers as told. */
+    private static final class FakeCompiler {
+
+        final PipedInputStream fromIde = new PipedInputStream(1 << 16);
+        final PipedOutputStream toIde = new PipedOutputStream();
+        final PipedInputStream ideReads;
+        final PipedOutputStream ideWrites;
+        final List<String> paths = new ArrayList<>();
+        final AtomicBoolean killed = new AtomicBoolean();
+
+        FakeCompiler() throws IOException {
+            ideReads = new PipedInputStream(toIde, 1 << 16);
+            ideWrites = new PipedOutputStream(fromIde);
+        }
+
+        SassHost host() {
+            return new SassHost("fake-sass", ideReads, ideWrites, () -> killed.set(true));
+        }
+
+        /** Reads one packet; answers the handshake itself, returns compile packets. */
+        EmbeddedSass.Packet next() throws IOException {
+            EmbeddedSass.Packet p = EmbeddedSass.readPacket(fromIde);
+            for (EmbeddedSass.Field f : EmbeddedSass.fields(p.message())) {
+                if (f.number() == 7) {
+                    send(0, new EmbeddedSass.Writer().message(8, new EmbeddedSass.Writer()
+                            .string(1, "2.7.1").string(2, "1.77.0").varint(5, 1)));
+                    return next();
+                }
+                if (f.number() == 2) {
+                    for (EmbeddedSass.Field c : EmbeddedSass.fields(f.bytes())) {
+                        if (c.number() == 3) {
+                            paths.add(c.string());
+                        }
+                    }
+                }
+            }
+            return p;
+        }
+
+        void success(long id, String css, String... urls) throws IOException {
+            EmbeddedSass.Writer response = new EmbeddedSass.Writer()
+                    .message(2, new EmbeddedSass.Writer().string(1, css));
+            for (String url : urls) {
+                response.string(4, url);
+            }
+            send(id, new EmbeddedSass.Writer().message(2, response));
+        }
+
+        void failure(long id, String message) throws IOException {
+            send(id, new EmbeddedSass.Writer().message(2, new EmbeddedSass.Writer()
+                    .message(3, new EmbeddedSass.Writer().string(1, message))));
+        }
+
+        void send(long id, EmbeddedSass.Writer message) throws IOException {
+            EmbeddedSass.writePacket(toIde, id, message.toByteArray());
+        }
+    }
+
+    @Test
+    @DisplayName("framing round-trips: varint length, compilation id, message")
+    void framingRoundTrips() throws Exception {
+        java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+        byte[] big = EmbeddedSass.compileRequest("/p/" + "x".repeat(300) + ".scss");
+        EmbeddedSass.writePacket(out, 300, big);
+        java.io.ByteArrayInputStream in = new java.io.ByteArrayInputStream(out.toByteArray());
+        EmbeddedSass.Packet p = EmbeddedSass.readPacket(in);
+        assertThat(p.compilationId()).isEqualTo(300);
+        assertThat(p.message()).isEqualTo(big);
+        assertThat(EmbeddedSass.readPacket(in)).isNull();
+    }
+
+    @Test
+    @DisplayName("a batch is all in flight at once; answers out of order land on the right entry")
+    void concurrentCompilations() throws Exception {
+        FakeCompiler sass = new FakeCompiler();
+        SassHost host = sass.host();
+        host.handshake();
+        File a = new File(dir, "a.scss");
+        File b = new File(dir, "b.scss");
+        CountDownLatch checked = new CountDownLatch(1);
+        Thread compiler = new Thread(() -> {
+            try {
+                EmbeddedSass.Packet first = sass.next();
+                EmbeddedSass.Packet second = sass.next();
+                // both requests arrived before either answer: that's the concurrency
+                sass.failure(second.compilationId(), "Undefined variable.");
+                sass.success(first.compilationId(), "a{color:red}",
+                        a.toURI().toString(), new File(dir, "_vars.scss").toURI().toString(), "pkg:x");
+                // a pipe whose writer thread died reads as a dead host: stay up until checked
+                checked.await(5, TimeUnit.SECONDS);
+            } catch (IOException | InterruptedException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        compiler.start();
+        host.awaitReady();
+        Map<File, SassHost.Compiled> out = host.compile(List.of(a, b));
+
+        assertThat(sass.paths).containsExactly(a.getAbsolutePath(), b.getAbsolutePath());
+        assertThat(out.keySet()).containsExactly(a, b);
+        assertThat(out.get(a).css()).isEqualTo("a{color:red}");
+        assertThat(out.get(a).loaded()).containsExactly(a, new File(dir, "_vars.scss"));
+        assertThat(out.get(a).millis()).isGreaterThanOrEqualTo(0);
+        assertThat(out.get(b).css()).isNull();
+        assertThat(out.get(b).failure()).isEqualTo("Error: Undefined variable.");
+        assertThat(host.alive()).isTrue();
+        checked.countDown();
+        compiler.join(5_000);
+    }
+
+    @Test
+    @DisplayName("the host exiting mid-batch fails the caller at once and kills it")
+    void deadHostFailsFast() throws Exception {
+        FakeCompiler sass = new FakeCompiler();
+        SassHost host = sass.host();
+        host.handshake();
+        Thread compiler = new Thread(() -> {
+            try {
+                sass.next();
+                sass.toIde.close();
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        compiler.start();
+        host.awaitReady();
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> host.compile(List.of(new File(dir, "a.scss"))))
+                .isInstanceOf(IOException.class);
+        assertThat((System.nanoTime() - started) / 1_000_000).isLessThan(SassCompiler.TIMEOUT_MS);
+        assertThat(sass.killed).isTrue();
+        assertThat(host.alive()).isFalse();
+    }
+
+    @Test
+    @DisplayName("a protocol error not tied to one compilation brings the host down")
+    void protocolErrorStops() throws Exception {
+        FakeCompiler sass = new FakeCompiler();
+        SassHost host = sass.host();
+        host.handshake();
+        Thread compiler = new Thread(() -> {
+            try {
+                sass.next();
+                sass.send(0xFFFF_FFFFL, new EmbeddedSass.Writer().message(1,
+                        new EmbeddedSass.Writer().varint(1, 0).string(3, "bad packet")));
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        compiler.start();
+        host.awaitReady();
+        assertThatThrownBy(() -> host.compile(List.of(new File(dir, "a.scss"))))
+                .hasMessageContaining("bad packet");
+        assertThat(sass.killed).isTrue();
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    @DisplayName("a sass that can't host (npm's JS build) is refused once, not respawned per save")
+    void nonEmbeddedBinaryRefused() throws Exception {
+        File fake = new File(dir, "sass");
+        Files.writeString(fake.toPath(), "#!/bin/sh\necho 'Unknown flag --embedded' >&2\nexit 64\n");
+        assertThat(fake.setExecutable(true)).isTrue();
+        File scss = new File(dir, "main.scss");
+
+        int before = SassHost.starts();
+        assertThatThrownBy(() -> SassHost.compileAll(fake.getAbsolutePath(), List.of(scss)))
+                .isInstanceOf(IOException.class);
+        assertThat(SassHost.starts()).isEqualTo(before + 1);
+        assertThatThrownBy(() -> SassHost.compileAll(fake.getAbsolutePath(), List.of(scss)))
+                .hasMessageContaining("does not speak the embedded protocol");
+        assertThat(SassHost.starts()).isEqualTo(before + 1);
+    }
+}
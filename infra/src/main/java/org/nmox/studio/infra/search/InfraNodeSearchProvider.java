@@ -1,5 +1,7 @@
 package org.nmox.studio.infra.search;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import javax.swing.SwingUtilities;
 import org.netbeans.spi.quicksearch.SearchProvider;
@@ -10,16 +12,29 @@ import org.nmox.studio.infra.model.InfraGraph;
 import org.nmox.studio.infra.model.InfraGraph.InfraNode;
 import org.openide.windows.TopComponent;
 import org.openide.windows.WindowManager;
+import org.nmox.studio.core.search.SearchIndex;
 import org.nmox.studio.core.search.SearchTerms;
 
 /**
  * Quick Search over the current infra design: type a node's name (or
  * its kind, like "droplet" or "hetzner") in the toolbar search and
  * Enter jumps the Infra Designer to that node and selects it - faster
- * than hunting the canvas when the stack is large.
+ * than hunting the canvas when the stack is large. A node's words are
+ * indexed once per label: renaming a node re-indexes that node alone,
+ * and a keystroke over an unchanged design (labels are edited in place,
+ * not always with an event, so the node/label list itself is the stamp)
+ * only takes the index's read lock.
  */
 public class InfraNodeSearchProvider implements SearchProvider {
 
+    private static final int LIMIT = 50;
+
+    /** A node as the index keys it: the node itself, at its current label. */
+    private record Key(InfraNode node, String label) {
+    }
+
+    private static final SearchIndex<Key> INDEX = new SearchIndex<>();
+
     @Override
     public void evaluate(SearchRequest request, SearchResponse response) {
         InfraDesignerTopComponent designer = designer();
@@ -43,13 +58,18 @@ public class InfraNodeSearchProvider implements SearchProvider {
         if (needle.isBlank()) {
             return;
         }
+        List<Key> keys = new ArrayList<>();
         for (InfraNode node : graph.getNodes()) {
-            if (matches(node, needle)) {
-                String display = node.label + "  —  " + node.kind.getDisplayName()
-                        + (node.doId != null ? "  (live)" : "");
-                if (!addResult.test(() -> focus(node), display)) {
-                    return;
-                }
+            keys.add(new Key(node, node.label));
+        }
+        INDEX.sync(keys, () -> keys, k -> new String[]{k.label(),
+            k.node().kind.getDisplayName(), k.node().kind.name()});
+        for (Key k : INDEX.search(needle, LIMIT)) {
+            InfraNode node = k.node();
+            String display = node.label + "  —  " + node.kind.getDisplayName()
+                    + (node.doId != null ? "  (live)" : "");
+            if (!addResult.test(() -> focus(node), display)) {
+                return;
             }
         }
     }
@@ -54,7 +54,8 @@ public class BlackboxDevice extends RackDevice {
         lastLcd.setText("RECORDING — RUN SOMETHING");
         healthLcd.setText("NO ERRORS ON TAPE");
         lastLcd.setToolTipText("the last completed run on the tape");
-        healthLcd.setToolTipText("errors in the last 10 minutes, and any device running slower than its average");
+        healthLcd.setToolTipText("errors in the last 10 minutes, and any device running past its usual"
+                + " (p50/p95 over the last week of runs, past sessions included)");
 
         view.setToolTipText("Scroll the session timeline — every launch, exit, duration, and error");
         view.addActionListener(e -> showTimeline());
@@ -130,16 +131,26 @@ public class BlackboxDevice extends RackDevice {
             FlightRecorder.Stats s = rec.statistics().get(creep);
             healthLcd.setTextColor(RackStyle.LCD_AMBER);
             healthLcd.setText(creep + " SLOWING: " + (s.lastMs() / 1000.0) + "s VS "
-                    + (s.averageMs() / 1000.0) + "s AVG");
+                    + (s.baseline().p50() / 1000.0) + "s USUAL, P95 " + (s.baseline().p95() / 1000.0) + "s");
         } else if (errors > 0) {
             healthLcd.setTextColor(new Color(255, 90, 80));
             healthLcd.setText(errors + " ERROR" + (errors == 1 ? "" : "S") + " / 10 MIN — VIEW FOR THE TAPE");
         } else {
             healthLcd.setTextColor(RackStyle.LCD_TEXT);
-            healthLcd.setText("NO ERRORS ON TAPE");
+            healthLcd.setText("NO ERRORS ON TAPE" + cacheSummary(rec));
         }
     }
 
+    /** " · CACHE 12 HIT / 3 MISS" across every CACHE-switched device; "" before any lookup. */
+    private static String cacheSummary(FlightRecorder rec) {
+        int hits = 0, misses = 0;
+        for (FlightRecorder.CacheTally t : rec.cacheTallies().values()) {
+            hits += t.hits();
+            misses += t.misses();
+        }
+        return hits + misses == 0 ? "" : " · CACHE " + hits + " HIT / " + misses + " MISS";
+    }
+
     // ---- the timeline viewer ----
 
     private void showTimeline() {
@@ -170,6 +181,7 @@ public class BlackboxDevice extends RackDevice {
                         case "EXIT_OK" -> new Color(80, 200, 110);
                         case "EXIT_FAIL", "ERROR" -> new Color(230, 80, 70);
                         case "LAUNCH" -> new Color(110, 160, 230);
+                        case "REPLAY" -> new Color(150, 190, 160);
                         default -> t.getForeground();
                     });
                 }
@@ -220,16 +232,25 @@ public class BlackboxDevice extends RackDevice {
         });
         south.add(export);
         JPanel stats = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        for (Map.Entry<String, FlightRecorder.Stats> e
-                : FlightRecorder.getDefault().statistics().entrySet()) {
+        FlightRecorder recorder = FlightRecorder.getDefault();
+        for (Map.Entry<String, FlightRecorder.Stats> e : recorder.statistics().entrySet()) {
+            FlightRecorder.Percentiles usual = recorder.durations(e.getKey(), recorder.creepWindow());
+            String quantiles = usual.count() == 0 ? "" : " · p50 " + (usual.p50() / 1000.0) + "s p95 "
+                    + (usual.p95() / 1000.0) + "s p99 " + (usual.p99() / 1000.0) + "s";
             JLabel l = new JLabel(e.getKey() + " avg " + (e.getValue().averageMs() / 1000.0)
-                    + "s · last " + (e.getValue().lastMs() / 1000.0) + "s"
+                    + "s · last " + (e.getValue().lastMs() / 1000.0) + "s" + quantiles
                     + (e.getValue().creeping() ? " ▲" : "") + "   ");
+            l.setToolTipText(usual.count() + " successful runs in the creep window, past sessions included");
             if (e.getValue().creeping()) {
                 l.setForeground(new Color(230, 150, 40));
             }
             stats.add(l);
         }
+        for (Map.Entry<String, FlightRecorder.CacheTally> e
+                : FlightRecorder.getDefault().cacheTallies().entrySet()) {
+            stats.add(new JLabel(e.getKey() + " cache " + e.getValue().hits() + " hit / "
+                    + e.getValue().misses() + " miss   "));
+        }
 
         Event latest = FlightRecorder.getDefault().last();
         if (latest != null && latest.kind() == Kind.EXIT_FAIL) {
@@ -7,6 +7,7 @@ import org.nmox.studio.rack.model.Port;
 import org.nmox.studio.rack.model.RackDevice;
 import org.nmox.studio.rack.model.Signal;
 import org.nmox.studio.rack.model.SignalType;
+import org.nmox.studio.rack.service.PageVitals;
 import org.nmox.studio.rack.ui.controls.LcdDisplay;
 import org.nmox.studio.rack.ui.controls.Led;
 import org.nmox.studio.rack.ui.controls.RackButton;
@@ -16,12 +17,22 @@ import org.nmox.studio.rack.ui.controls.RackStyle;
  * SCOPE Browser Link: opens the system browser at the dialed URL.
  * Patch SURGE's URL output into the URL jack and its READY trigger
  * into OPEN, and the browser pops as soon as the dev server is up.
+ *
+ * <p>VITALS relays the in-app browser's page performance summary (the
+ * DevTools Performance tab's TTFB / FCP / total blocking time JSON, via
+ * {@link PageVitals}) as DATA — for whatever page that browser is
+ * showing, whichever way it got there.
  */
 public class BrowserDevice extends RackDevice {
 
     private final LcdDisplay urlLcd;
     private final Led openedLed;
     private final org.nmox.studio.rack.ui.controls.Knob targetKnob;
+    private final PageVitals.Listener vitalsRelay = json -> {
+        if (!isDisposed()) {
+            emit("vitals", Signal.data(json));
+        }
+    };
 
     public BrowserDevice() {
         super("browser", "SCOPE", "BROWSER LINK", new Color(54, 174, 222), 2);
@@ -42,11 +53,23 @@ public class BrowserDevice extends RackDevice {
         addInPort("open", "OPEN", SignalType.TRIGGER);
         addInPort("url", "URL", SignalType.DATA);
         addOutPort("opened", "OPENED", SignalType.TRIGGER);
+        addOutPort("vitals", "VITALS", SignalType.DATA);
 
         param("url", urlLcd);
         param("target", targetKnob);
     }
 
+    @Override
+    protected void onAttached() {
+        PageVitals.getDefault().addListener(vitalsRelay);
+    }
+
+    @Override
+    public void dispose() {
+        PageVitals.getDefault().removeListener(vitalsRelay);
+        super.dispose();
+    }
+
     private void openBrowser() {
         String url = urlLcd.getText().trim();
         if (url.isEmpty()) {
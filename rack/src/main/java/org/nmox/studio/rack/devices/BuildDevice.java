@@ -16,6 +16,9 @@ import org.nmox.studio.rack.ui.controls.ToggleSwitch;
  * In WATCH mode the process never exits, so FORGE listens to the build
  * output instead and fires OK/FAIL on every rebuild - patch OK into
  * VERITAS or PING and each save ripples down the pipeline.
+ *
+ * CACHE skips a one-shot build whose sources, config and lockfile are
+ * unchanged AND whose output directory is still as that build left it.
  */
 public class BuildDevice extends CommandDevice {
 
@@ -36,6 +39,7 @@ public class BuildDevice extends CommandDevice {
     private final Knob toolKnob;
     private final ToggleSwitch prodSwitch;
     private final ToggleSwitch watchSwitch;
+    private final ToggleSwitch cacheSwitch;
 
     public BuildDevice() {
         super("build", "FORGE", "BUILD ENGINE", new Color(232, 166, 35), 2);
@@ -46,6 +50,8 @@ public class BuildDevice extends CommandDevice {
         toolKnob = place(new Knob("TOOL", TOOLS, 0), 180, 40);
         prodSwitch = place(new ToggleSwitch("MODE", true, "PROD", "DEV"), 254, 42);
         watchSwitch = place(new ToggleSwitch("WATCH", false), 324, 42);
+        cacheSwitch = place(new ToggleSwitch("CACHE", false), 400, 42);
+        cacheSwitch.setToolTipText("Skip the build while its inputs are unchanged and its output is intact (not in WATCH)");
 
         build.addActionListener(e -> primaryAction());
         stop.addActionListener(e -> stopProcess());
@@ -53,6 +59,18 @@ public class BuildDevice extends CommandDevice {
         param("tool", toolKnob);
         param("prod", prodSwitch);
         param("watch", watchSwitch);
+        param("cache", cacheSwitch);
+    }
+
+    @Override
+    protected org.nmox.studio.rack.engine.RunCache.Inputs cacheInputs() {
+        if (!cacheSwitch.isOn() || watchSwitch.isOn()) {
+            return null;
+        }
+        // bundlers read assets too: everything outside the skipped
+        // dependency/output directories is an input
+        return new org.nmox.studio.rack.engine.RunCache.Inputs(List.of("**/*"),
+                List.of("dist", "build", "out", ".next"));
     }
 
     @Override
@@ -4,6 +4,7 @@ import java.awt.Color;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import org.nmox.studio.rack.engine.RunCache;
 import org.nmox.studio.rack.model.Port;
 import org.nmox.studio.rack.model.RackDevice;
 import org.nmox.studio.rack.model.Signal;
@@ -51,6 +52,9 @@ public abstract class CommandDevice extends RackDevice {
 
     private volatile long lastToastAt;
 
+    /** OUT's lines, chunked: see {@link LineBatcher}. */
+    private final LineBatcher out = new LineBatcher(signal -> emit("out", signal));
+
     protected CommandDevice(String typeId, String title, String tagline, Color accent, int units) {
         super(typeId, title, tagline, accent, units);
 
@@ -271,6 +275,43 @@ public abstract class CommandDevice extends RackDevice {
             });
             return false;
         }
+        RunCache.Inputs inputs = cacheInputs();
+        if (inputs != null) {
+            // the fingerprint walks the inputs: capture rack state here,
+            // hash on the cache lane, then replay or spawn from there
+            java.io.File dir = commandDir();
+            Map<String, String> env = new java.util.LinkedHashMap<>(
+                    getRack() != null ? getRack().getEnvOverrides() : Map.of());
+            env.putAll(extraEnv);
+            onEdt(() -> {
+                runLed.setBlinking(true);
+                statusLcd.setTextColor(RackStyle.LCD_AMBER);
+                statusLcd.setText("CHECKING INPUTS…");
+            });
+            checkingInputs = true;
+            CACHE_RP.post(() -> {
+                try {
+                    launchThroughCache(command, extraEnv, dir, env, inputs);
+                } finally {
+                    checkingInputs = false; // spawned (live) or replayed by now
+                }
+            });
+            return true;
+        }
+        return spawn(command, extraEnv, null);
+    }
+
+    /** Set while a launch fingerprints its inputs, before any process exists. */
+    private volatile boolean checkingInputs;
+
+    /** A launch on the cache lane is in flight even though nothing is live yet. */
+    @Override
+    public boolean isBusy() {
+        return checkingInputs || super.isBusy();
+    }
+
+    /** The real launch: LEDs, meter, the process, and the exit fan-out. */
+    private boolean spawn(List<String> command, Map<String, String> extraEnv, Capture capture) {
         // captured per launch: a relaunch must not skew a still-running
         // command's elapsed-time readout
         final long launchedAt = System.currentTimeMillis();
@@ -283,9 +324,13 @@ public abstract class CommandDevice extends RackDevice {
         });
         exec(command, extraEnv, commandDir(), line -> {
             activity.pulse(0.35 + Math.min(0.6, line.length() / 160.0));
+            if (capture != null) {
+                capture.add(line);
+            }
             onLine(line);
-            emit("out", Signal.data(line));
+            out.add(line);
         }, code -> {
+            out.flush(); // every line reaches OUT before the verdict does
             long elapsed = System.currentTimeMillis() - launchedAt;
             boolean ok = overallSuccess(code);
             boolean stopped = KILL_EXIT_CODES.contains(code);
@@ -308,6 +353,9 @@ public abstract class CommandDevice extends RackDevice {
                 // ok/fail triggers rippling down a pipeline someone just halted
                 return;
             }
+            if (capture != null) {
+                CACHE_RP.post(() -> capture.finish(code));
+            }
             if (!ok) {
                 toastFailure(code);
             }
@@ -317,6 +365,128 @@ public abstract class CommandDevice extends RackDevice {
         return true;
     }
 
+    // ---- the skip cache ----
+
+    /**
+     * Serial lane for fingerprinting and storing: one walk at a time, so
+     * a trigger storm hashes the tree once per trigger, never in parallel.
+     */
+    private static final org.openide.util.RequestProcessor CACHE_RP =
+            new org.openide.util.RequestProcessor("nmox-run-cache", 1, true);
+
+    /** Touched only on {@link #CACHE_RP}. */
+    private RunCache runCache;
+
+    /**
+     * Opt-in skip cache: the inputs whose unchanged content lets RUN
+     * replay the last result for this exact command instead of spawning
+     * the tool, or null (the default) to always run. Devices return null
+     * while their CACHE switch is off and in resident modes (WATCH) that
+     * never exit. Called on the launching thread; keep it cheap.
+     */
+    protected RunCache.Inputs cacheInputs() {
+        return null;
+    }
+
+    private void launchThroughCache(List<String> command, Map<String, String> extraEnv,
+            java.io.File dir, Map<String, String> env, RunCache.Inputs inputs) {
+        if (runCache == null || !runCache.root().equals(dir.toPath().toAbsolutePath().normalize())) {
+            runCache = new RunCache(dir.toPath(), projectDir().toPath()
+                    .resolve(".nmox").resolve("run-cache").resolve(getTypeId() + ".json"));
+        }
+        RunCache cache = runCache;
+        String key = cache.fingerprint(inputs, command, env);
+        RunCache.Result hit = key == null ? null : cache.lookup(key, inputs);
+        if (key != null) {
+            org.nmox.studio.rack.engine.FlightRecorder.getDefault()
+                    .cacheLookup(busName(), hit != null, hit == null ? -1 : hit.exitCode());
+        }
+        if (isDisposed()) {
+            return;
+        }
+        if (hit != null) {
+            replay(hit);
+        } else {
+            spawn(command, extraEnv, key == null ? null : new Capture(cache, key, inputs, command, env));
+        }
+    }
+
+    /**
+     * A cache hit plays back exactly like the run it stands for — every
+     * line through {@link #onLine} and OUT (so counters, LCDs and the
+     * diagnostics bus fill as before), then the verdict and the
+     * OK/FAIL/DONE triggers — minus the process and the failure toast.
+     */
+    private void replay(RunCache.Result hit) {
+        for (String line : hit.lines()) {
+            onLine(line);
+            out.add(line);
+        }
+        out.flush();
+        int code = hit.exitCode();
+        boolean ok = overallSuccess(code);
+        onEdt(() -> {
+            runLed.setBlinking(false);
+            runLed.setOn(false);
+            okLed.setOn(ok);
+            failLed.setOn(!ok);
+            statusLcd.setTextColor(ok ? RackStyle.LCD_TEXT : new Color(255, 90, 80));
+            statusLcd.setText((ok ? "OK" : "FAIL [" + code + "]") + "  CACHED — INPUTS UNCHANGED");
+        });
+        onFinished(code);
+        emit(ok ? "ok" : "fail", Signal.trigger(ok));
+        emit("done", Signal.trigger(ok));
+    }
+
+    /**
+     * One real run's output on its way into the cache. Stored only when
+     * the inputs still fingerprint the same after the exit: a formatter
+     * that rewrote files, or an edit saved mid-run, means the result
+     * answers for a state that no longer exists.
+     */
+    private static final class Capture {
+
+        private final RunCache cache;
+        private final String key;
+        private final RunCache.Inputs inputs;
+        private final List<String> command;
+        private final Map<String, String> env;
+        private final List<String> lines = new java.util.ArrayList<>();
+        private boolean overflow;
+
+        Capture(RunCache cache, String key, RunCache.Inputs inputs,
+                List<String> command, Map<String, String> env) {
+            this.cache = cache;
+            this.key = key;
+            this.inputs = inputs;
+            this.command = command;
+            this.env = env;
+        }
+
+        synchronized void add(String line) {
+            if (lines.size() < RunCache.MAX_LINES) {
+                lines.add(line);
+            } else {
+                overflow = true;
+            }
+        }
+
+        void finish(int code) {
+            List<String> out;
+            synchronized (this) {
+                // 126+ is "could not run" (not executable, not found,
+                // signalled): environmental, never a verdict to replay
+                if (overflow || code < 0 || code >= 126) {
+                    return;
+                }
+                out = List.copyOf(lines);
+            }
+            if (key.equals(cache.fingerprint(inputs, command, env))) {
+                cache.store(key, inputs, code, out);
+            }
+        }
+    }
+
     /** One step of a multi-toolchain sequence: a command and where to run it. */
     protected record Step(List<String> command, java.io.File dir) {
         protected Step {
@@ -366,8 +536,9 @@ public abstract class CommandDevice extends RackDevice {
         exec(step.command(), Map.of(), step.dir(), line -> {
             activity.pulse(0.35 + Math.min(0.6, line.length() / 160.0));
             onLine(line);
-            emit("out", Signal.data(line));
+            out.add(line);
         }, code -> {
+            out.flush();
             boolean stopped = KILL_EXIT_CODES.contains(code);
             if (code == 0 && index + 1 < steps.size() && !stopped) {
                 runStep(steps, index + 1, launchedAt);
@@ -1,6 +1,7 @@
 package org.nmox.studio.rack.devices;
 
 import java.awt.Color;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.nmox.studio.rack.engine.RackBus;
 import org.nmox.studio.rack.model.Port;
 import org.nmox.studio.rack.model.RackDevice;
@@ -19,6 +20,10 @@ import org.nmox.studio.rack.ui.controls.VuMeter;
  * way a studio monitor section taps the mix - STDERR hears every error
  * any device prints (the factory position), ALL hears everything.
  * Bus errors glow red on the phosphor and flash the ERR LED.
+ *
+ * <p>The tap runs on every device's pump thread, so nothing here posts
+ * to the EDT per line: the screen frame-batches appends, the meter
+ * coalesces pulses, and an error burst relights the LED once.
  */
 public class ConsoleDevice extends RackDevice {
 
@@ -32,6 +37,8 @@ public class ConsoleDevice extends RackDevice {
     private final javax.swing.Timer errFade;
     /** EDT-owned knob position mirrored for the pump threads. */
     private volatile String tapMode = "stderr";
+    /** True while an ERR-LED relight is queued for the EDT. */
+    private final AtomicBoolean errQueued = new AtomicBoolean();
 
     private final RackBus.Listener tap = (device, line, err) -> {
         String mode = tapMode;
@@ -71,8 +78,9 @@ public class ConsoleDevice extends RackDevice {
     private void show(String line, boolean err) {
         screen.appendLine(line, err ? ERR_TEXT : null);
         meter.pulse(0.4 + Math.min(0.55, line.length() / 140.0));
-        if (err) {
+        if (err && errQueued.compareAndSet(false, true)) {
             onEdt(() -> {
+                errQueued.set(false);
                 errLed.setOn(true);
                 errFade.restart();
             });
@@ -97,4 +105,15 @@ public class ConsoleDevice extends RackDevice {
             show(signal.payload(), false);
         }
     }
+
+    /** A chunk lands as its lines and ONE meter kick, not a kick per line. */
+    @Override
+    public void receiveBatch(Port in, Signal batch) {
+        int widest = 0;
+        for (String line : batch.lines()) {
+            screen.appendLine(line, null);
+            widest = Math.max(widest, line.length());
+        }
+        meter.pulse(0.4 + Math.min(0.55, widest / 140.0));
+    }
 }
@@ -105,6 +105,18 @@ public final class DeviceCatalog {
         return entries;
     }
 
+    /**
+     * Changes whenever {@link #all()} could answer differently — the
+     * user's device files (whose cached list is replaced on any edit)
+     * and the installed extensions — without building a single entry.
+     * Built-ins and the bundled gallery never change in a session. For
+     * caches of the catalog, such as Quick Search's index.
+     */
+    public static Object stamp() {
+        return List.of(UserDevices.all(),
+                List.copyOf(Lookup.getDefault().lookupAll(DeviceExtension.class)));
+    }
+
     /** Resolves a patch-file type id; empty for a kind not installed here. */
     public static Optional<Entry> byId(String id) {
         for (Entry e : all()) {
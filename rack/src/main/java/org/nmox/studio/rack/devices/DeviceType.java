@@ -38,7 +38,7 @@ public enum DeviceType {
     HTTP("http", "PING", "Request Probe — HTTP smoke tests", new Color(96, 180, 100), HttpDevice::new),
     BROWSER("browser", "SCOPE", "Browser Link — open URLs on trigger", new Color(54, 174, 222), BrowserDevice::new),
     CONSOLE("console", "MONITOR", "Output Console — watch any OUT jack", new Color(80, 200, 120), ConsoleDevice::new),
-    TERMINAL("terminal", "PHOSPHOR", "Scrollback Terminal — 5k lines, selectable", new Color(57, 255, 20), TerminalDevice::new),
+    TERMINAL("terminal", "PHOSPHOR", "Scrollback Terminal — disk-backed history, searchable", new Color(57, 255, 20), TerminalDevice::new),
     REPL("repl", "REPL", "Read-Eval-Print Loop — type into clisp/python/node/ghci live", new Color(120, 230, 160), ReplDevice::new),
     ENV("env", "ATMOS", "Env Mixer — NODE_ENV/CI/custom vars", new Color(120, 144, 220), EnvDevice::new),
     TEMPO("tempo", "TEMPO", "Step Sequencer — fire pipelines on a clock", new Color(255, 211, 105), TempoDevice::new),
@@ -153,7 +153,7 @@ public enum DeviceType {
             case NUXT -> "DEV serves via nuxi with the URL out feeding SCOPE; BUILD compiles, PREVIEW serves it, DIAG runs nuxi typecheck.\nVersion cluster tracks nuxt against the registry.";
             case ARTISAN -> "SERVE runs php artisan serve (URL out feeds SCOPE); the ACTION knob dials\ntest/migrate/fresh/queue/routes for RUN. Tinker is interactive — use the REPL device (php artisan tinker).";
             case CONSOLE -> "A glanceable 8-line screen. Patch any OUT (data) jack into IN,\nor dial TAP to stderr/all to hear every device unpatched — errors glow red.";
-            case TERMINAL -> "5,000 lines of selectable scrollback. FOLLOW tails the output.\nPatch the OUT of anything chatty in here.";
+            case TERMINAL -> "The whole session's scrollback, spilled to disk — regex-search it, select and copy lines.\nFOLLOW tails the output. Patch the OUT of anything chatty in here.";
             case REPL -> "Dial ENGINE to a known interpreter — it seeds COMMAND (force-interactive flags included), HINTS snippets,\nand the install command — or stay on CUSTOM and set COMMAND yourself; press START. Type an expression and Enter\nto evaluate; INSTALL runs the catalog's install command when the interpreter is missing. A Learning Space seeds everything for you.";
             case BENCH -> "FIRE hammers the URL with autocannon; req/s on the meter.\nPatch SURGE URL → URL and READY → RUN to bench the second it serves.";
             case DEBUG -> "LAUNCH starts your runtime in debug-server mode; the attach\nendpoint (chrome://inspect, debugpy, dlv…) lands on the LCD.";
@@ -164,7 +164,7 @@ public enum DeviceType {
             case ROSETTA -> "Mixed repo? Pin every AUTO knob to one toolchain with the dial.\nAUTO follows detection; KIND out reports the choice.";
             case WAYPOINT -> "JS monorepo? Dial a workspace package and NPM-9000, PURITY, GLOSS and VERITAS run there.\nroot = the repository root; DIR out reports the choice.";
             case DOCKER -> "The ENGINE LED tracks the daemon; LCDs show containers up, images held, disk reclaimable.\nPANEL opens the full control room — containers, images, volumes, networks, and one-click Dockerize.";
-            case BLACKBOX -> "The rack's session memory: every launch, exit, duration, and error, timestamped.\nVIEW scrolls the timeline; the health line warns when a build quietly slows past its average.";
+            case BLACKBOX -> "The rack's session memory: every launch, exit, duration, and error, timestamped.\nVIEW scrolls the timeline; the health line warns when a build quietly slows past its usual p95 — past sessions included.";
             case SONAR -> "SWEEP maps every listening port to its owning process — docker containers labeled.\nVIEW opens the field: BROWSE any port, KILL any squatter. EADDRINUSE, solved.";
             case PREFLIGHT -> "CHECK runs the readiness list — git clean, tests, build, lint, audit — one LED per item.\nPatch OK → LAUNCHPAD RUN and unverified code physically cannot deploy.";
             case DATABASE -> "Pings SQL databases (PostgreSQL/MySQL/SQLite/MariaDB).\nDial DB TYPE to select database URL or profile; ping fires OK on success.";
@@ -96,6 +96,15 @@ public final class ExtensionDevice extends RackDevice {
         }
     }
 
+    @Override
+    public void receiveBatch(Port in, Signal batch) {
+        if (isDisposed()) {
+            return;
+        }
+        // the plugin decides: its onDataBatch, or the SPI default unrolling to onData
+        logic.onDataBatch(in.getId(), batch.lines(), batch.seq());
+    }
+
     @Override
     public void projectChanged(File dir) {
         logic.onProjectChanged(dir);
@@ -10,11 +10,13 @@ import org.nmox.studio.rack.ui.controls.ToggleSwitch;
  * GLOSS Formatter: the project's own formatter over the whole project
  * — biome when biome.json opts in, prettier otherwise. WRITE mode
  * rewrites files; CHECK mode only verifies (fails when unformatted).
- * On PHP lanes it runs Laravel Pint instead, same two modes.
+ * On PHP lanes it runs Laravel Pint instead, same two modes. CACHE
+ * replays the last verdict while no formattable file has changed.
  */
 public class FormatDevice extends CommandDevice {
 
     private final ToggleSwitch writeSwitch;
+    private final ToggleSwitch cacheSwitch;
 
     public FormatDevice() {
         super("format", "GLOSS", "CODE FORMATTER", new Color(73, 196, 184), 2);
@@ -22,9 +24,25 @@ public class FormatDevice extends CommandDevice {
         RackButton run = place(new RackButton("FORMAT", RackStyle.GO), RackStyle.TRANSPORT_X, 52);
         run.setCommandPreview(this::commandPreview);
         writeSwitch = place(new ToggleSwitch("MODE", true, "WRITE", "CHECK"), 112, 42);
+        cacheSwitch = place(new ToggleSwitch("CACHE", false), 182, 42);
+        cacheSwitch.setToolTipText("Skip the formatter while no formattable file changed since its last run");
         run.addActionListener(e -> primaryAction());
 
         param("write", writeSwitch);
+        param("cache", cacheSwitch);
+    }
+
+    @Override
+    protected org.nmox.studio.rack.engine.RunCache.Inputs cacheInputs() {
+        if (!cacheSwitch.isOn()) {
+            return null;
+        }
+        return new org.nmox.studio.rack.engine.RunCache.Inputs(List.of(
+                "**/*.{js,jsx,ts,tsx,mjs,cjs,mts,cts,vue,svelte,astro,css,scss,less,html,md,mdx,"
+                        + "json,jsonc,json5,yaml,yml,graphql,hbs,php,sol,go,rs}",
+                "**/.prettierrc*", "**/prettier.config.*", "**/.prettierignore", ".editorconfig",
+                "biome.json*", "deno.json*", "pint.json", "rustfmt.toml", ".rustfmt.toml", "foundry.toml"),
+                List.of());
     }
 
     @Override
@@ -3,17 +3,22 @@ package org.nmox.studio.rack.devices;
 import java.awt.Color;
 import java.io.File;
 import java.util.List;
+import org.nmox.studio.core.util.GitFacts;
+import org.nmox.studio.core.util.GitStatus;
 import org.nmox.studio.rack.ui.controls.LcdDisplay;
 import org.nmox.studio.rack.ui.controls.Led;
 import org.nmox.studio.rack.ui.controls.RackButton;
 import org.nmox.studio.rack.ui.controls.RackStyle;
 import org.openide.DialogDisplayer;
 import org.openide.NotifyDescriptor;
+import org.openide.util.RequestProcessor;
 
 /**
  * TIMELINE Git Sequencer: source-control transport. The branch LCD and
- * DIRTY LED refresh after every operation; COMMIT prompts for a message
- * then stages everything and commits.
+ * DIRTY LED refresh after every operation — read from HEAD and the
+ * in-process {@link GitStatus} engine, with git itself only as the
+ * fallback; COMMIT prompts for a message then stages everything and
+ * commits.
  */
 public class GitDevice extends CommandDevice {
 
@@ -74,14 +79,49 @@ public class GitDevice extends CommandDevice {
         refreshBranch();
     }
 
+    /**
+     * Branch from HEAD and DIRTY from the in-process status engine — no
+     * fork per refresh. The git probes remain for what those decline (an
+     * unreadable HEAD, a tree only git can judge).
+     */
     private void refreshBranch() {
+        File dir = projectDir();
+        STATUS_RP.post(() -> {
+            File root = GitFacts.repoRoot(dir);
+            String branch = root == null ? null : GitFacts.branch(root);
+            GitStatus engine = GitStatus.forRepo(root);
+            Integer dirt = engine == null ? null : engine.changeCount();
+            if (root == null) {
+                onEdt(() -> branchLcd.setText("NO REPO"));
+            } else if (branch != null) {
+                onEdt(() -> branchLcd.setText(branch));
+            } else {
+                probeBranch(dir);
+            }
+            if (dirt != null) {
+                onEdt(() -> dirtyLed.setOn(dirt > 0));
+            } else if (root != null) {
+                probeDirt(dir);
+            } else {
+                onEdt(() -> dirtyLed.setOn(false));
+            }
+        });
+    }
+
+    /** One lane for status scans: a big tree's first walk never holds up other devices' background work. */
+    private static final RequestProcessor STATUS_RP = new RequestProcessor("nmox-git-status", 1, true);
+
+    private void probeBranch(File dir) {
         // lightweight probes outside the main launch pipeline
         StringBuilder branch = new StringBuilder();
-        CommandProbe.run(projectDir(), List.of("git", "rev-parse", "--abbrev-ref", "HEAD"),
+        CommandProbe.run(dir, List.of("git", "rev-parse", "--abbrev-ref", "HEAD"),
                 branch::append, code -> onEdt(() ->
                         branchLcd.setText(code == 0 ? branch.toString() : "NO REPO")));
+    }
+
+    private void probeDirt(File dir) {
         StringBuilder dirt = new StringBuilder();
-        CommandProbe.run(projectDir(), List.of("git", "status", "--porcelain"),
+        CommandProbe.run(dir, List.of("git", "status", "--porcelain"),
                 dirt::append, code -> onEdt(() ->
                         dirtyLed.setOn(code == 0 && dirt.length() > 0)));
     }
@@ -0,0 +1,68 @@
+package org.nmox.studio.rack.devices;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import org.nmox.studio.rack.model.Signal;
+import org.openide.util.RequestProcessor;
+
+/**
+ * Emit-side batching for a line-per-signal OUT port. A build that prints
+ * 50k lines used to be 50k router tasks and 50k deliveries per cable;
+ * here lines gather into one {@link Signal#batch} that leaves when it
+ * reaches {@link #MAX_LINES} or {@link #MAX_CHARS}, or {@link #DEADLINE_MS}
+ * after its first line — so a chatty process costs a task per chunk and
+ * a quiet one still shows each line within a frame.
+ *
+ * <p>A chunk of one leaves as a plain {@link Signal#data}: a process that
+ * prints a line now and then looks on the cable exactly as it always did.
+ * Emission happens under the batcher's lock, so chunks leave in order
+ * whichever thread (the pump or the deadline) flushes them. Anything that
+ * must follow the lines — the OK/FAIL/DONE triggers — calls {@link #flush}
+ * first.
+ */
+final class LineBatcher {
+
+    /** Lines per chunk before it leaves without waiting for the deadline. */
+    static final int MAX_LINES = 256;
+    /** Characters per chunk, for tools that print few but enormous lines. */
+    static final int MAX_CHARS = 64 * 1024;
+    /** How long the first line of a chunk may wait for company: about a frame. */
+    static final int DEADLINE_MS = 16;
+
+    /** One lane for every device's deadline: a flush is a list swap and an emit. */
+    private static final RequestProcessor FLUSH_RP = new RequestProcessor("nmox-rack-batch", 1, true);
+
+    private final Consumer<Signal> sink;
+    private final RequestProcessor.Task deadline;
+    private List<String> pending = new ArrayList<>();
+    private int chars;
+    private long seq;
+
+    LineBatcher(Consumer<Signal> sink) {
+        this.sink = sink;
+        this.deadline = FLUSH_RP.create(this::flush);
+    }
+
+    synchronized void add(String line) {
+        pending.add(line);
+        chars += line.length();
+        if (pending.size() >= MAX_LINES || chars >= MAX_CHARS) {
+            flush();
+        } else if (pending.size() == 1) {
+            deadline.schedule(DEADLINE_MS);
+        }
+    }
+
+    /** Sends what has gathered now; a no-op when nothing has. */
+    synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<String> chunk = pending;
+        pending = new ArrayList<>();
+        chars = 0;
+        // a stale deadline firing on the next chunk only sends it early
+        sink.accept(chunk.size() == 1 ? Signal.data(chunk.get(0)) : Signal.batch(chunk, ++seq));
+    }
+}
@@ -34,6 +34,7 @@ public class LintDevice extends CommandDevice {
 
     private final Knob linterKnob;
     private final ToggleSwitch fixSwitch;
+    private final ToggleSwitch cacheSwitch;
     private final LcdDisplay countLcd;
     private final Led cleanLed;
 
@@ -44,15 +45,31 @@ public class LintDevice extends CommandDevice {
         run.setCommandPreview(this::commandPreview);
         linterKnob = place(new Knob("LINTER", LINTERS, 3), 112, 40);
         fixSwitch = place(new ToggleSwitch("FIX", false), 182, 42);
-        countLcd = place(new LcdDisplay(120, 1), 252, 52);
+        cacheSwitch = place(new ToggleSwitch("CACHE", false), 248, 42);
+        cacheSwitch.setToolTipText("Replay the last findings while no linted file or config changed");
+        countLcd = place(new LcdDisplay(120, 1), 318, 52);
         countLcd.getAccessibleContext().setAccessibleName("findings");
-        cleanLed = place(new Led("CLEAN", RackStyle.GO), 386, 58);
+        cleanLed = place(new Led("CLEAN", RackStyle.GO), 444, 58);
         countLcd.setText("E:- W:-");
 
         run.addActionListener(e -> primaryAction());
 
         param("linter", linterKnob);
         param("fix", fixSwitch);
+        param("cache", cacheSwitch);
+    }
+
+    @Override
+    protected org.nmox.studio.rack.engine.RunCache.Inputs cacheInputs() {
+        if (!cacheSwitch.isOn()) {
+            return null;
+        }
+        return new org.nmox.studio.rack.engine.RunCache.Inputs(List.of(
+                "**/*.{js,jsx,ts,tsx,mjs,cjs,mts,cts,vue,svelte,astro,css,scss,less,json,jsonc,go,rs}",
+                "**/.eslintrc*", "**/eslint.config.*", "**/.eslintignore", "**/.stylelintrc*",
+                "**/stylelint.config.*", "biome.json*", "deno.json*", ".golangci*",
+                "Cargo.toml", "Cargo.lock", "go.mod", "go.sum", "clippy.toml"),
+                List.of());
     }
 
     /** The dialed linter with auto resolved — the project's own toolchain. */
@@ -0,0 +1,469 @@
+package org.nmox.studio.rack.devices;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+import org.nmox.studio.rack.devices.ProjectInspector.ProjectKind;
+
+/**
+ * One immutable snapshot of what {@link ProjectInspector} knows about a
+ * project directory: which toolchains it carries and where, which
+ * marker files sit beside them, the parsed package.json, and the locked
+ * versions from Cargo.lock and composer.lock. Dozens of devices ask on
+ * every AUTO resolution and every re-aim; before the snapshot each
+ * question re-probed the tree — {@code detectKinds} alone stat'ed every
+ * manifest name of every kind in up to forty subdirectories — and
+ * re-read the lockfiles whole.
+ *
+ * <p>A snapshot is built from ONE listing of the root and of each
+ * scanned child (only the names that matter are stat'ed), with the
+ * manifest and lockfile parses running in parallel. Lockfiles are read
+ * streaming: Cargo.lock line by line, composer.lock and package.json
+ * through a tokenizer over a reader — never a multi-megabyte string —
+ * and only the name → version maps are kept.
+ *
+ * <p><b>Freshness.</b> {@code RackService}'s {@code ManifestPulse}
+ * rebuilds the aimed project's snapshot and swaps it in when a manifest
+ * batch lands ({@link #manifestsChanged}), so devices reacting to the
+ * batch on the router thread already see the new facts. The pulse
+ * watches only the web manifests, and devices also inspect directories
+ * nobody watches, so every snapshot also carries a stamp — the
+ * modification times of the directories it listed and the files it
+ * parsed — and {@link #of} rebuilds when the stamp no longer matches.
+ * Checking it is a handful of attribute reads, not a tree probe;
+ * rebuilding re-parses only the files whose stamp moved.
+ */
+public final class ProjectFacts {
+
+    /** Snapshots kept; a rack inspects a few roots, tests make many. */
+    private static final int MAX_SNAPSHOTS = 64;
+
+    private static final Map<File, ProjectFacts> SNAPSHOTS = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<File, ProjectFacts> eldest) {
+                    return size() > MAX_SNAPSHOTS;
+                }
+            });
+
+    /** Marker files answered from the index, beside every kind's manifests. */
+    private static final Set<String> MARKERS = Set.of(
+            "package.json", "biome.json", "biome.jsonc", "deno.json", "deno.jsonc",
+            "pnpm-lock.yaml", "yarn.lock", "angular.json",
+            ".golangci.yml", ".golangci.yaml", ".golangci.toml", ".golangci.json",
+            "Cargo.lock", "composer.lock", "mix.exs");
+
+    private static final Set<String> INDEXED = indexedNames();
+
+    private static final Predicate<String> DOTNET =
+            n -> n.endsWith(".csproj") || n.endsWith(".fsproj") || n.endsWith(".sln");
+    private static final Predicate<String> NIM = n -> n.endsWith(".nimble");
+
+    /** A file or directory as last seen: absent, or its mtime and size. */
+    private record Stamp(long modifiedNanos, long size) {
+
+        static final Stamp ABSENT = new Stamp(-1, -1);
+
+        static Stamp of(File f) {
+            try {
+                BasicFileAttributes a = Files.readAttributes(f.toPath(), BasicFileAttributes.class);
+                return new Stamp(a.lastModifiedTime().to(java.util.concurrent.TimeUnit.NANOSECONDS),
+                        a.isDirectory() ? 0 : a.size());
+            } catch (IOException | RuntimeException e) {
+                return ABSENT;
+            }
+        }
+    }
+
+    /** A parsed file and the stamp it was parsed at, reusable while the stamp holds. */
+    private record Parsed<T>(File file, Stamp stamp, T value) {
+    }
+
+    private final File root;
+    private final Map<File, Set<String>> index;           // listed dir -> indexed regular files
+    private final Map<ProjectKind, File> manifestDirs;    // every kind found, STATIC raw
+    private final Map<ProjectKind, File> kinds;           // detectKinds' answer
+    private final Map<File, Stamp> stamps;                // what freshness re-checks
+    private final Parsed<JSONObject> packageJson;
+    private final Parsed<Map<String, String>> cargoLock;
+    private final Parsed<Map<String, String>> composerLock;
+    private final Parsed<String> mixExs;
+
+    private ProjectFacts(File root, Map<File, Set<String>> index,
+            Map<ProjectKind, File> manifestDirs, Map<ProjectKind, File> kinds,
+            Map<File, Stamp> stamps, Parsed<JSONObject> packageJson,
+            Parsed<Map<String, String>> cargoLock, Parsed<Map<String, String>> composerLock,
+            Parsed<String> mixExs) {
+        this.root = root;
+        this.index = index;
+        this.manifestDirs = manifestDirs;
+        this.kinds = kinds;
+        this.stamps = stamps;
+        this.packageJson = packageJson;
+        this.cargoLock = cargoLock;
+        this.composerLock = composerLock;
+        this.mixExs = mixExs;
+    }
+
+    /**
+     * The current snapshot for {@code projectDir}: the cached one while
+     * its stamp holds, else a fresh one (swapped in for the next caller).
+     */
+    public static ProjectFacts of(File projectDir) {
+        File root = projectDir.getAbsoluteFile();
+        ProjectFacts cached = SNAPSHOTS.get(root);
+        if (cached != null && cached.isFresh()) {
+            return cached;
+        }
+        ProjectFacts built = build(root, cached);
+        SNAPSHOTS.put(root, built);
+        return built;
+    }
+
+    /**
+     * The manifest pulse's hook: every cached snapshot whose tree holds
+     * one of the changed paths is rebuilt from scratch — no stamp trust,
+     * a same-millisecond rewrite still lands — and swapped in.
+     */
+    public static void manifestsChanged(List<Path> changed) {
+        if (changed == null || changed.isEmpty()) {
+            return;
+        }
+        List<File> roots;
+        synchronized (SNAPSHOTS) {
+            roots = new ArrayList<>(SNAPSHOTS.keySet());
+        }
+        for (File root : roots) {
+            Path rootPath = root.toPath();
+            for (Path p : changed) {
+                if (p.toAbsolutePath().startsWith(rootPath)) {
+                    SNAPSHOTS.put(root, build(root, null));
+                    break;
+                }
+            }
+        }
+    }
+
+    /** Drops every snapshot; a test seam. */
+    static void forgetAll() {
+        SNAPSHOTS.clear();
+    }
+
+    // ---- the facts ----------------------------------------------------
+
+    /** The directory this snapshot describes. */
+    public File root() {
+        return root;
+    }
+
+    /**
+     * Every toolchain present, each mapped to the directory carrying its
+     * manifest, in precedence order — {@link ProjectInspector#detectKinds}.
+     */
+    public Map<ProjectKind, File> kinds() {
+        return kinds;
+    }
+
+    /** The highest-precedence kind, or NONE. */
+    public ProjectKind primaryKind() {
+        return kinds.isEmpty() ? ProjectKind.NONE : kinds.keySet().iterator().next();
+    }
+
+    /** Where {@code kind}'s manifest lives (root, then one level down), or null. */
+    public File manifestDir(ProjectKind kind) {
+        return manifestDirs.get(kind);
+    }
+
+    /** Where commands for {@code kind} run: its manifest dir, else the root. */
+    public File kindDir(ProjectKind kind) {
+        File dir = kind == ProjectKind.NONE ? null : manifestDirs.get(kind);
+        return dir != null ? dir : root;
+    }
+
+    /**
+     * True when {@code name} is a regular file in {@code dir} — answered
+     * from the snapshot for the directories and names it indexed, from
+     * the disk otherwise.
+     */
+    public boolean hasFile(File dir, String name) {
+        Set<String> names = index.get(dir);
+        if (names != null && INDEXED.contains(name)) {
+            return names.contains(name);
+        }
+        return new File(dir, name).isFile();
+    }
+
+    /** The Node lane's parsed package.json, or null when absent or unreadable. */
+    public JSONObject packageJson() {
+        return packageJson == null ? null : packageJson.value();
+    }
+
+    /** Crate → first locked version from the root's Cargo.lock; empty without one. */
+    public Map<String, String> cargoLock() {
+        return cargoLock == null || cargoLock.value() == null ? Map.of() : cargoLock.value();
+    }
+
+    /**
+     * Package → locked version from the root's composer.lock (packages,
+     * then packages-dev; "v" prefix kept, "" when the entry has none);
+     * empty without one.
+     */
+    public Map<String, String> composerLock() {
+        return composerLock == null || composerLock.value() == null
+                ? Map.of() : composerLock.value();
+    }
+
+    /** The root's mix.exs text, or null. */
+    public String mixExs() {
+        return mixExs == null ? null : mixExs.value();
+    }
+
+    // ---- building -----------------------------------------------------
+
+    /** True while nothing this snapshot read has moved on disk. */
+    boolean isFresh() {
+        for (Map.Entry<File, Stamp> e : stamps.entrySet()) {
+            if (!Stamp.of(e.getKey()).equals(e.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ProjectFacts build(File root, ProjectFacts previous) {
+        Map<File, Stamp> stamps = new LinkedHashMap<>();
+        stamps.put(root, Stamp.of(root));
+        Map<File, Set<String>> index = new LinkedHashMap<>();
+        index.put(root, listIndexed(root));
+        List<File> children = scannedChildren(root);
+        for (File child : children) {
+            stamps.put(child, Stamp.of(child));
+            index.put(child, listIndexed(child));
+        }
+
+        Map<ProjectKind, File> dirs = new EnumMap<>(ProjectKind.class);
+        for (ProjectKind kind : ProjectKind.values()) {
+            File dir = locate(kind, root, children, index);
+            if (dir != null) {
+                dirs.put(kind, dir);
+            }
+        }
+        Map<ProjectKind, File> kinds = new LinkedHashMap<>();
+        for (Map.Entry<ProjectKind, File> e : dirs.entrySet()) {
+            if (e.getKey() != ProjectKind.STATIC) {
+                kinds.put(e.getKey(), e.getValue());
+            }
+        }
+        // STATIC is the true last resort: a ROOT index.html, and only when
+        // no real manifest matched anywhere
+        if (kinds.isEmpty() && dirs.containsKey(ProjectKind.STATIC)) {
+            kinds.put(ProjectKind.STATIC, root);
+        }
+
+        // the parses run side by side; each reuses the previous snapshot's
+        // result while its file's stamp holds
+        File nodeDir = dirs.getOrDefault(ProjectKind.NODE, root);
+        var pkg = parseAsync(new File(nodeDir, "package.json"),
+                previous == null ? null : previous.packageJson, ProjectFacts::readPackageJson);
+        var cargo = parseAsync(new File(root, "Cargo.lock"),
+                previous == null ? null : previous.cargoLock, ProjectFacts::readCargoLock);
+        var composer = parseAsync(new File(root, "composer.lock"),
+                previous == null ? null : previous.composerLock, ProjectFacts::readComposerLock);
+        var mix = parseAsync(new File(root, "mix.exs"),
+                previous == null ? null : previous.mixExs, ProjectFacts::readText);
+        Parsed<JSONObject> pkgParsed = pkg.join();
+        Parsed<Map<String, String>> cargoParsed = cargo.join();
+        Parsed<Map<String, String>> composerParsed = composer.join();
+        Parsed<String> mixParsed = mix.join();
+        for (Parsed<?> parsed : Arrays.asList(pkgParsed, cargoParsed, composerParsed, mixParsed)) {
+            if (parsed != null) {
+                stamps.put(parsed.file(), parsed.stamp());
+            }
+        }
+        return new ProjectFacts(root, Collections.unmodifiableMap(index),
+                Collections.unmodifiableMap(dirs), Collections.unmodifiableMap(kinds),
+                stamps, pkgParsed, cargoParsed, composerParsed, mixParsed);
+    }
+
+    @FunctionalInterface
+    private interface Reading<T> {
+        T read(File file) throws IOException;
+    }
+
+    /** Parses off-thread unless the previous parse of the same file still holds. */
+    private static <T> CompletableFuture<Parsed<T>> parseAsync(File file, Parsed<T> previous,
+            Reading<T> reading) {
+        if (!file.isFile()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        Stamp stamp = Stamp.of(file);
+        if (previous != null && previous.file().equals(file) && previous.stamp().equals(stamp)) {
+            return CompletableFuture.completedFuture(previous);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            T value;
+            try {
+                value = reading.read(file);
+            } catch (IOException | RuntimeException unreadable) {
+                value = null; // unreadable or malformed: the question answers "unknown"
+            }
+            return new Parsed<>(file, stamp, value);
+        });
+    }
+
+    /** The regular files in {@code dir} worth indexing — one listing, few stats. */
+    private static Set<String> listIndexed(File dir) {
+        String[] names = dir.list();
+        if (names == null) {
+            return Set.of();
+        }
+        Set<String> found = new HashSet<>();
+        for (String name : names) {
+            boolean wanted = INDEXED.contains(name)
+                    || (!name.startsWith(".") && (DOTNET.test(name) || NIM.test(name)));
+            // dotfiles excluded from the globs and plain files required:
+            // nimble's package cache is a DIRECTORY named ~/.nimble
+            if (wanted && new File(dir, name).isFile()) {
+                found.add(name);
+            }
+        }
+        return Collections.unmodifiableSet(found);
+    }
+
+    /** The subdirectories one level down that detection scans, in scan order. */
+    private static List<File> scannedChildren(File root) {
+        File[] children = root.listFiles(File::isDirectory);
+        if (children == null) {
+            return List.of();
+        }
+        Arrays.sort(children, Comparator.comparing(File::getName));
+        List<File> scanned = new ArrayList<>();
+        for (File child : children) {
+            String name = child.getName();
+            if (name.startsWith(".") || ProjectInspector.SKIP_DIRS.contains(name)) {
+                continue;
+            }
+            if (scanned.size() == ProjectInspector.MAX_CHILD_SCAN) {
+                break;
+            }
+            scanned.add(child);
+        }
+        return scanned;
+    }
+
+    /** Where {@code kind}'s manifest lives, from the index alone. */
+    private static File locate(ProjectKind kind, File root, List<File> children,
+            Map<File, Set<String>> index) {
+        if (kind == ProjectKind.NONE) {
+            return null;
+        }
+        Predicate<Set<String>> carries;
+        if (kind == ProjectKind.DOTNET) {
+            carries = names -> names.stream().anyMatch(DOTNET);
+        } else if (kind == ProjectKind.NIM) {
+            carries = names -> names.stream().anyMatch(NIM);
+        } else {
+            List<String> manifests = kind.manifestNames();
+            carries = names -> manifests.stream().anyMatch(names::contains);
+        }
+        if (carries.test(index.get(root))) {
+            return root;
+        }
+        if (kind == ProjectKind.STATIC) {
+            // STATIC never walks subdirectories: it means "serve THIS folder"
+            return null;
+        }
+        for (File child : children) {
+            if (carries.test(index.get(child))) {
+                return child;
+            }
+        }
+        return null;
+    }
+
+    private static Set<String> indexedNames() {
+        Set<String> names = new HashSet<>(MARKERS);
+        for (ProjectKind kind : ProjectKind.values()) {
+            names.addAll(kind.manifestNames());
+        }
+        return Collections.unmodifiableSet(names);
+    }
+
+    // ---- streaming readers ----------------------------------------------
+
+    private static JSONObject readPackageJson(File file) throws IOException {
+        try (Reader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            return new JSONObject(new JSONTokener(in));
+        }
+    }
+
+    /**
+     * Cargo.lock is INI-ish TOML: {@code [[package]]} blocks with
+     * {@code name = "x"} then {@code version = "y"}. Streamed line by
+     * line; the first version locked for a name wins.
+     */
+    private static Map<String, String> readCargoLock(File file) throws IOException {
+        Map<String, String> versions = new HashMap<>();
+        try (BufferedReader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            String crate = null;
+            for (String line; (line = in.readLine()) != null;) {
+                String t = line.trim();
+                if (t.startsWith("name = ")) {
+                    crate = t.length() > 8 && t.charAt(7) == '"' && t.endsWith("\"")
+                            ? t.substring(8, t.length() - 1) : null;
+                } else if (crate != null && t.startsWith("version = \"") && t.endsWith("\"")) {
+                    versions.putIfAbsent(crate, t.substring("version = \"".length(), t.length() - 1));
+                    crate = null;
+                }
+            }
+        }
+        return Collections.unmodifiableMap(versions);
+    }
+
+    /** composer.lock's packages then packages-dev, tokenized from a reader. */
+    private static Map<String, String> readComposerLock(File file) throws IOException {
+        JSONObject json;
+        try (Reader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            json = new JSONObject(new JSONTokener(in));
+        }
+        Map<String, String> versions = new HashMap<>();
+        for (String section : new String[]{"packages", "packages-dev"}) {
+            JSONArray packages = json.optJSONArray(section);
+            if (packages == null) {
+                continue;
+            }
+            for (int i = 0; i < packages.length(); i++) {
+                JSONObject pkg = packages.optJSONObject(i);
+                if (pkg != null && !pkg.optString("name").isEmpty()) {
+                    versions.putIfAbsent(pkg.optString("name"), pkg.optString("version", ""));
+                }
+            }
+        }
+        return Collections.unmodifiableMap(versions);
+    }
+
+    private static String readText(File file) throws IOException {
+        return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+    }
+}
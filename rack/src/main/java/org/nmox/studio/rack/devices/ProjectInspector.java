@@ -9,6 +9,11 @@ import org.json.JSONObject;
  * positions to the tools the project actually uses: a project with a
  * "build" script gets `npm run build`, a vite project gets `npx vite`,
  * a jest project gets `npx jest`, and so on.
+ *
+ * <p>Every answer comes from the directory's {@link ProjectFacts}
+ * snapshot — detected once, parsed once, re-checked by stamp — so the
+ * dozens of devices asking on each AUTO resolution share one probe of
+ * the tree instead of each running its own.
  */
 public final class ProjectInspector {
 
@@ -93,13 +98,18 @@ public final class ProjectInspector {
         public String manifest() {
             return manifests.length > 0 ? manifests[0] : "";
         }
+
+        /** Every manifest spelling, for {@link ProjectFacts}' index. */
+        java.util.List<String> manifestNames() {
+            return java.util.List.of(manifests);
+        }
     }
 
     /** Directories never scanned for nested project manifests. */
-    private static final java.util.Set<String> SKIP_DIRS = java.util.Set.of(
+    static final java.util.Set<String> SKIP_DIRS = java.util.Set.of(
             "node_modules", ".git", "dist", "build", "target", "out",
             "vendor", "coverage", "__pycache__", ".venv");
-    private static final int MAX_CHILD_SCAN = 40;
+    static final int MAX_CHILD_SCAN = 40;
 
     /**
      * Detects EVERY toolchain present, each mapped to the directory that
@@ -109,23 +119,11 @@ public final class ProjectInspector {
      * Iteration order expresses precedence (Node first).
      */
     public static java.util.LinkedHashMap<ProjectKind, File> detectKinds(File projectDir) {
-        java.util.LinkedHashMap<ProjectKind, File> found = new java.util.LinkedHashMap<>();
-        for (ProjectKind kind : ProjectKind.values()) {
-            if (kind == ProjectKind.NONE || kind == ProjectKind.STATIC) {
-                continue;
-            }
-            File dir = manifestDirFor(projectDir, kind);
-            if (dir != null) {
-                found.put(kind, dir);
-            }
-        }
         // STATIC is the true last resort: a ROOT index.html, and only when
         // no real manifest matched anywhere — so a Vite app (root
         // index.html beside package.json) never grows a spurious kind.
-        if (found.isEmpty() && hasManifestAt(projectDir, ProjectKind.STATIC)) {
-            found.put(ProjectKind.STATIC, projectDir);
-        }
-        return found;
+        // The snapshot applies that rule; callers get their own copy.
+        return new java.util.LinkedHashMap<>(ProjectFacts.of(projectDir).kinds());
     }
 
     /** True when one of the kind's manifests sits directly in this directory. */
@@ -143,83 +141,14 @@ public final class ProjectInspector {
      * level of subdirectories — or null when the kind is absent.
      */
     public static File manifestDir(File projectDir, ProjectKind kind) {
-        return manifestDirFor(projectDir, kind);
-    }
-
-    private static File manifestDirFor(File root, ProjectKind kind) {
-        if (kind == ProjectKind.DOTNET) {
-            return dotnetDir(root);
-        }
-        if (kind == ProjectKind.NIM) {
-            return globDir(root, n -> n.endsWith(".nimble"));
-        }
-        if (kind == ProjectKind.STATIC) {
-            // STATIC never walks subdirectories: it means "serve THIS folder",
-            // not "some docs/ dir happens to hold an index.html"
-            return hasManifestAt(root, kind) ? root : null;
-        }
-        for (String manifest : kind.manifests) {
-            if (new File(root, manifest).isFile()) {
-                return root;
-            }
-        }
-        File[] children = root.listFiles(File::isDirectory);
-        if (children == null) {
-            return null;
-        }
-        java.util.Arrays.sort(children, java.util.Comparator.comparing(File::getName));
-        int scanned = 0;
-        for (File child : children) {
-            String name = child.getName();
-            if (name.startsWith(".") || SKIP_DIRS.contains(name) || ++scanned > MAX_CHILD_SCAN) {
-                continue;
-            }
-            for (String manifest : kind.manifests) {
-                if (new File(child, manifest).isFile()) {
-                    return child;
-                }
-            }
-        }
-        return null;
-    }
-
-    /** .NET projects carry *.csproj/*.fsproj/*.sln - extension-detected. */
-    private static File dotnetDir(File root) {
-        return globDir(root, n -> n.endsWith(".csproj")
-                || n.endsWith(".fsproj") || n.endsWith(".sln"));
-    }
-
-    /** Extension-detected manifests (dotnet, nim): root first, then one level down. */
-    private static File globDir(File root, java.util.function.Predicate<String> manifest) {
-        if (hasGlobManifest(root, manifest)) {
-            return root;
-        }
-        File[] children = root.listFiles(File::isDirectory);
-        if (children == null) {
-            return null;
-        }
-        java.util.Arrays.sort(children, java.util.Comparator.comparing(File::getName));
-        int scanned = 0;
-        for (File child : children) {
-            String name = child.getName();
-            if (name.startsWith(".") || SKIP_DIRS.contains(name) || ++scanned > MAX_CHILD_SCAN) {
-                continue;
-            }
-            if (hasGlobManifest(child, manifest)) {
-                return child;
-            }
-        }
-        return null;
-    }
-
-    private static boolean hasGlobManifest(File dir, java.util.function.Predicate<String> manifest) {
-        // dotfiles excluded and plain files required: nimble's package
-        // cache is a DIRECTORY named ~/.nimble, and without this filter
-        // a rack aimed at $HOME detected NIM (v1.234.0 review — the
-        // WebProjectFactory half of the same bug made $HOME a project)
-        String[] names = dir.list((d, name) -> !name.startsWith(".")
-                && manifest.test(name) && new File(d, name).isFile());
-        return names != null && names.length > 0;
+        // .NET (*.csproj/*.fsproj/*.sln) and Nim (*.nimble) are
+        // extension-detected; STATIC never walks subdirectories: it means
+        // "serve THIS folder", not "some docs/ dir happens to hold an
+        // index.html". Dotfiles never match a glob and only plain files
+        // count: nimble's package cache is a DIRECTORY named ~/.nimble,
+        // and without that filter a rack aimed at $HOME detected NIM
+        // (v1.234.0 review). All of it lives in ProjectFacts' index.
+        return ProjectFacts.of(projectDir).manifestDir(kind);
     }
 
     /**
@@ -228,8 +157,7 @@ public final class ProjectInspector {
      * instead.
      */
     public static ProjectKind detectKind(File projectDir) {
-        var kinds = detectKinds(projectDir);
-        return kinds.isEmpty() ? ProjectKind.NONE : kinds.keySet().iterator().next();
+        return ProjectFacts.of(projectDir).primaryKind();
     }
 
     /**
@@ -237,8 +165,7 @@ public final class ProjectInspector {
      * manifest lives, falling back to the project root.
      */
     public static File kindDir(File projectDir, ProjectKind kind) {
-        File dir = kind == ProjectKind.NONE ? null : manifestDirFor(projectDir, kind);
-        return dir != null ? dir : projectDir;
+        return ProjectFacts.of(projectDir).kindDir(kind);
     }
 
     /** True when the directory carries any recognized project manifest. */
@@ -246,27 +173,15 @@ public final class ProjectInspector {
         return detectKind(projectDir) != ProjectKind.NONE;
     }
 
-    private static final java.util.Map<File, CacheEntry> packageJsonCache = new java.util.concurrent.ConcurrentHashMap<>();
-
-    private static class CacheEntry {
-        final long lastModified;
-        final JSONObject json;
-
-        CacheEntry(long lastModified, JSONObject json) {
-            this.lastModified = lastModified;
-            this.json = json;
-        }
-    }
-
     /**
      * True when the project (or its Node lane) opts into Biome — the
      * one-toolchain lint+format successor to eslint+prettier. PURITY and
      * GLOSS AUTO must run the project's own toolchain, not ours.
      */
     public static boolean hasBiome(File projectDir) {
-        File dir = kindDir(projectDir, ProjectKind.NODE);
-        return new File(dir, "biome.json").isFile()
-                || new File(dir, "biome.jsonc").isFile();
+        ProjectFacts facts = ProjectFacts.of(projectDir);
+        File dir = facts.kindDir(ProjectKind.NODE);
+        return facts.hasFile(dir, "biome.json") || facts.hasFile(dir, "biome.jsonc");
     }
 
     /**
@@ -280,10 +195,11 @@ public final class ProjectInspector {
      * community's aggregate linter. Config spellings per its docs.
      */
     public static boolean hasGolangci(File projectDir) {
-        File dir = kindDir(projectDir, ProjectKind.GO);
+        ProjectFacts facts = ProjectFacts.of(projectDir);
+        File dir = facts.kindDir(ProjectKind.GO);
         for (String name : new String[]{".golangci.yml", ".golangci.yaml",
                 ".golangci.toml", ".golangci.json"}) {
-            if (new File(dir, name).isFile()) {
+            if (facts.hasFile(dir, name)) {
                 return true;
             }
         }
@@ -291,9 +207,9 @@ public final class ProjectInspector {
     }
 
     public static boolean hasDeno(File projectDir) {
-        File dir = kindDir(projectDir, ProjectKind.DENO);
-        return new File(dir, "deno.json").isFile()
-                || new File(dir, "deno.jsonc").isFile();
+        ProjectFacts facts = ProjectFacts.of(projectDir);
+        File dir = facts.kindDir(ProjectKind.DENO);
+        return facts.hasFile(dir, "deno.json") || facts.hasFile(dir, "deno.jsonc");
     }
 
     /**
@@ -304,7 +220,8 @@ public final class ProjectInspector {
      * repo writes a second lockfile and a broken node_modules.
      */
     public static String nodePackageManager(File projectDir) {
-        JSONObject json = read(projectDir);
+        ProjectFacts facts = ProjectFacts.of(projectDir);
+        JSONObject json = facts.packageJson();
         if (json != null) {
             String pin = json.optString("packageManager", "");
             int at = pin.indexOf('@');
@@ -316,33 +233,18 @@ public final class ProjectInspector {
                     // unknown or absent pin: fall through to the lockfile
             }
         }
-        File dir = kindDir(projectDir, ProjectKind.NODE);
-        if (new File(dir, "pnpm-lock.yaml").isFile()) {
+        File dir = facts.kindDir(ProjectKind.NODE);
+        if (facts.hasFile(dir, "pnpm-lock.yaml")) {
             return "pnpm";
         }
-        if (new File(dir, "yarn.lock").isFile()) {
+        if (facts.hasFile(dir, "yarn.lock")) {
             return "yarn";
         }
         return "npm";
     }
 
     private static JSONObject read(File projectDir) {
-        File pkg = new File(kindDir(projectDir, ProjectKind.NODE), "package.json");
-        if (!pkg.isFile()) {
-            return null;
-        }
-        long currentMod = pkg.lastModified();
-        CacheEntry entry = packageJsonCache.get(pkg);
-        if (entry != null && entry.lastModified == currentMod) {
-            return entry.json;
-        }
-        try {
-            JSONObject json = new JSONObject(Files.readString(pkg.toPath(), java.nio.charset.StandardCharsets.UTF_8));
-            packageJsonCache.put(pkg, new CacheEntry(currentMod, json));
-            return json;
-        } catch (Exception ex) {
-            return null;
-        }
+        return ProjectFacts.of(projectDir).packageJson();
     }
 
     /** True if package.json declares the named script. */
@@ -389,22 +291,19 @@ public final class ProjectInspector {
 
     /** True when the project (or its Node subproject) is an Angular workspace. */
     public static boolean hasAngular(File projectDir) {
-        return new File(projectDir, "angular.json").isFile()
-                || new File(kindDir(projectDir, ProjectKind.NODE), "angular.json").isFile();
+        ProjectFacts facts = ProjectFacts.of(projectDir);
+        return facts.hasFile(facts.root(), "angular.json")
+                || facts.hasFile(facts.kindDir(ProjectKind.NODE), "angular.json");
     }
 
     /** Extracts a dependency version from mix.exs using the given pattern. */
     public static String mixDependencyVersion(File projectDir, java.util.regex.Pattern pattern) {
-        File mixExs = new File(projectDir, "mix.exs");
-        if (!mixExs.isFile()) {
-            return null;
-        }
-        try {
-            java.util.regex.Matcher m = pattern.matcher(Files.readString(mixExs.toPath(), java.nio.charset.StandardCharsets.UTF_8));
-            return m.find() ? m.group(1) : null;
-        } catch (Exception ex) {
+        String mixExs = ProjectFacts.of(projectDir).mixExs();
+        if (mixExs == null) {
             return null;
         }
+        java.util.regex.Matcher m = pattern.matcher(mixExs);
+        return m.find() ? m.group(1) : null;
     }
 
     /**
@@ -498,54 +397,16 @@ public final class ProjectInspector {
      * then {@code version = "y"} on the next lines.
      */
     public static String cargoLockVersion(File dir, String crate) {
-        File lock = new File(dir, "Cargo.lock");
-        if (!lock.isFile()) {
-            return null;
-        }
-        try {
-            boolean inCrate = false;
-            for (String line : Files.readAllLines(lock.toPath(),
-                    java.nio.charset.StandardCharsets.UTF_8)) {
-                String t = line.trim();
-                if (t.startsWith("name = ")) {
-                    inCrate = t.equals("name = \"" + crate + "\"");
-                } else if (inCrate && t.startsWith("version = \"") && t.endsWith("\"")) {
-                    return t.substring("version = \"".length(), t.length() - 1);
-                }
-            }
-        } catch (Exception ex) {
-            // unreadable or malformed lock: report unknown
-        }
-        return null;
+        // unreadable or malformed lock: an empty map, so "unknown"
+        return ProjectFacts.of(dir).cargoLock().get(crate);
     }
 
     public static String composerLockVersion(File dir, String packageName) {
-        File lock = new File(dir, "composer.lock");
-        if (!lock.isFile()) {
+        String version = ProjectFacts.of(dir).composerLock().get(packageName);
+        if (version == null || version.isEmpty()) {
             return null;
         }
-        try {
-            JSONObject json = new JSONObject(Files.readString(lock.toPath(), java.nio.charset.StandardCharsets.UTF_8));
-            for (String section : new String[]{"packages", "packages-dev"}) {
-                org.json.JSONArray packages = json.optJSONArray(section);
-                if (packages == null) {
-                    continue;
-                }
-                for (int i = 0; i < packages.length(); i++) {
-                    JSONObject pkg = packages.optJSONObject(i);
-                    if (pkg != null && packageName.equals(pkg.optString("name"))) {
-                        String version = pkg.optString("version", "");
-                        if (version.isEmpty()) {
-                            return null;
-                        }
-                        return version.startsWith("v") ? version.substring(1) : version;
-                    }
-                }
-            }
-        } catch (Exception ex) {
-            // unreadable or malformed lock: report unknown
-        }
-        return null;
+        return version.startsWith("v") ? version.substring(1) : version;
     }
 
     /** The declared version constraint of a dependency, or null. */
@@ -0,0 +1,357 @@
+package org.nmox.studio.rack.devices;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * PHOSPHOR's history: every line ever shown, spilled to disk so a day
+ * of dev-server output costs constant heap. The spill is a run of
+ * fixed-size SEGMENT files, each memory-mapped read-write and filled
+ * append-only with UTF-8, newline-terminated lines (a line never spans
+ * segments). What stays on the heap per segment is its first line
+ * number and a SPARSE offset index — one int per {@link #STRIDE} lines;
+ * finding a line scans at most that many newlines in mapped memory.
+ *
+ * <p>Lines are numbered absolutely from the first append, so a view's
+ * position survives retention: past {@link #MAX_SEGMENTS} segments the
+ * oldest file is unmapped and deleted and its lines become "gone"
+ * ({@link #line} answers null, {@link #firstLine()} moves on). A line
+ * longer than {@link #LINE_CAP} bytes is cut — a minified bundle dumped
+ * to stdout must not eat a segment.
+ *
+ * <p>Threading: appends, reads and clear synchronize on this; a
+ * {@link #search} snapshots the segment list and line range under the
+ * lock, then scans WITHOUT it on its own buffer views, so the EDT keeps
+ * appending while a regex walks a gigabyte. Never throws on I/O: a
+ * spill that cannot be created degrades to keeping nothing, logged once.
+ */
+final class Scrollback implements AutoCloseable {
+
+    private static final Logger LOG = Logger.getLogger(Scrollback.class.getName());
+
+    /** Bytes per segment file. */
+    static final int SEGMENT_BYTES = 32 * 1024 * 1024;
+
+    /** Segments kept before the oldest is dropped (16 × 32 MiB = 512 MiB of history). */
+    static final int MAX_SEGMENTS = 16;
+
+    /** One index entry per this many lines. */
+    static final int STRIDE = 64;
+
+    /** Longest line kept, in UTF-8 bytes (a cut line ends with an ellipsis). */
+    static final int LINE_CAP = 16 * 1024;
+
+    private static final byte[] ELLIPSIS = "…".getBytes(StandardCharsets.UTF_8);
+
+    /** One mapped file of lines. Index entries are byte offsets of every STRIDE-th line. */
+    private static final class Segment {
+        final Path file;
+        final MappedByteBuffer map;
+        final long firstLine;
+        int lines;
+        int used;
+        int[] index = new int[16];
+
+        Segment(Path file, MappedByteBuffer map, long firstLine) {
+            this.file = file;
+            this.map = map;
+            this.firstLine = firstLine;
+        }
+
+        /** The byte offset where local line {@code n} starts. */
+        int offsetOf(int n, java.nio.ByteBuffer view) {
+            int at = index[n / STRIDE];
+            for (int skip = n % STRIDE; skip > 0; skip--) {
+                while (view.get(at++) != '\n') {
+                    // scan to the next line start
+                }
+            }
+            return at;
+        }
+    }
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private Path spillDir;
+    private long nextLine;
+    private int seq;
+    private boolean broken;
+    private int widest;
+
+    /** A spill under a fresh temp directory, created on first append. */
+    Scrollback() {
+        this(null, SEGMENT_BYTES, MAX_SEGMENTS);
+    }
+
+    /**
+     * @param dir          where the segment files go; null means a fresh
+     *                     temp directory, made on first append
+     * @param segmentBytes bytes per segment (tests use tiny ones)
+     * @param maxSegments  segments retained
+     */
+    Scrollback(Path dir, int segmentBytes, int maxSegments) {
+        this.dir = dir;
+        this.segmentBytes = Math.max(segmentBytes, LINE_CAP + 8);
+        this.maxSegments = Math.max(1, maxSegments);
+    }
+
+    /** Appends one line (any embedded newlines become separate lines). */
+    synchronized void append(String line) {
+        if (broken) {
+            return;
+        }
+        String text = line == null ? "" : line;
+        int from = 0;
+        for (int nl = text.indexOf('\n'); nl >= 0; nl = text.indexOf('\n', from)) {
+            appendOne(text.substring(from, nl));
+            from = nl + 1;
+        }
+        appendOne(text.substring(from));
+    }
+
+    private void appendOne(String line) {
+        byte[] bytes = line.replace('\r', ' ').getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > LINE_CAP) {
+            bytes = Arrays.copyOf(bytes, LINE_CAP + ELLIPSIS.length);
+            System.arraycopy(ELLIPSIS, 0, bytes, LINE_CAP, ELLIPSIS.length);
+        }
+        Segment tail = segments.peekLast();
+        if (tail == null || tail.used + bytes.length + 1 > segmentBytes) {
+            tail = openSegment();
+            if (tail == null) {
+                return;
+            }
+        }
+        if (tail.lines % STRIDE == 0) {
+            int slot = tail.lines / STRIDE;
+            if (slot == tail.index.length) {
+                tail.index = Arrays.copyOf(tail.index, slot * 2);
+            }
+            tail.index[slot] = tail.used;
+        }
+        tail.map.put(tail.used, bytes);
+        tail.map.put(tail.used + bytes.length, (byte) '\n');
+        tail.used += bytes.length + 1;
+        tail.lines++;
+        nextLine++;
+        widest = Math.max(widest, line.length());
+    }
+
+    private Segment openSegment() {
+        try {
+            if (spillDir == null) {
+                spillDir = dir != null ? Files.createDirectories(dir)
+                        : Files.createTempDirectory("nmox-phosphor");
+                spillDir.toFile().deleteOnExit();
+            }
+            Path file = spillDir.resolve("scrollback-" + (seq++) + ".seg");
+            MappedByteBuffer map;
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                map = ch.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            }
+            file.toFile().deleteOnExit();
+            Segment s = new Segment(file, map, nextLine);
+            segments.addLast(s);
+            while (segments.size() > maxSegments) {
+                delete(segments.removeFirst());
+            }
+            return s;
+        } catch (IOException | RuntimeException e) {
+            broken = true;
+            LOG.log(Level.INFO, "PHOSPHOR scrollback spill unavailable; history off", e);
+            return null;
+        }
+    }
+
+    private static void delete(Segment s) {
+        try {
+            // the mapping stays valid until collected; unix drops the
+            // file at once, other platforms at exit (deleteOnExit)
+            Files.deleteIfExists(s.file);
+        } catch (IOException e) {
+            // kept until exit
+        }
+    }
+
+    /** The oldest line still retained (absolute number). */
+    synchronized long firstLine() {
+        Segment head = segments.peekFirst();
+        return head == null ? nextLine : head.firstLine;
+    }
+
+    /** One past the newest line — the total ever appended since the last clear. */
+    synchronized long endLine() {
+        return nextLine;
+    }
+
+    /** Lines retained right now. */
+    synchronized long size() {
+        return nextLine - firstLine();
+    }
+
+    /** The longest line seen, in chars — the view's width. */
+    synchronized int widest() {
+        return widest;
+    }
+
+    /** Line {@code n}, or null when it was dropped by retention or is not written yet. */
+    synchronized String line(long n) {
+        List<String> one = lines(n, 1);
+        return one.isEmpty() ? null : one.get(0);
+    }
+
+    /**
+     * Up to {@code count} lines from {@code from}; lines before the
+     * retained range are skipped, so the result may be shorter.
+     */
+    synchronized List<String> lines(long from, int count) {
+        List<String> out = new ArrayList<>(Math.max(0, Math.min(count, 4096)));
+        long n = Math.max(from, firstLine());
+        long end = Math.min(nextLine, from + count);
+        for (Segment s : segments) {
+            if (n >= end) {
+                break;
+            }
+            if (n >= s.firstLine + s.lines) {
+                continue;
+            }
+            java.nio.ByteBuffer view = s.map.duplicate();
+            int at = s.offsetOf((int) (n - s.firstLine), view);
+            while (n < end && n < s.firstLine + s.lines) {
+                int stop = at;
+                while (view.get(stop) != '\n') {
+                    stop++;
+                }
+                out.add(decode(view, at, stop));
+                at = stop + 1;
+                n++;
+            }
+        }
+        return out;
+    }
+
+    private static String decode(java.nio.ByteBuffer view, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        view.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The nearest line matching {@code pattern} from {@code start}
+     * (inclusive) in the given direction, or -1. Runs on the caller's
+     * thread — call it off the EDT — and gives up early, answering -1,
+     * once {@code cancelled} says so.
+     */
+    long search(Pattern pattern, long start, boolean forward, BooleanSupplier cancelled) {
+        List<Segment> snapshot;
+        long first;
+        long end;
+        synchronized (this) {
+            snapshot = new ArrayList<>(segments);
+            first = firstLine();
+            end = nextLine;
+        }
+        if (end == first) {
+            return -1;
+        }
+        long n = Math.max(first, Math.min(end - 1, start));
+        java.util.regex.Matcher m = pattern.matcher("");
+        if (forward) {
+            for (Segment s : snapshot) {
+                long segEnd = Math.min(end, s.firstLine + s.lines);
+                if (n >= segEnd) {
+                    continue;
+                }
+                java.nio.ByteBuffer view = s.map.duplicate();
+                int at = s.offsetOf((int) (n - s.firstLine), view);
+                for (; n < segEnd; n++) {
+                    int stop = at;
+                    while (view.get(stop) != '\n') {
+                        stop++;
+                    }
+                    if (m.reset(decode(view, at, stop)).find()) {
+                        return n;
+                    }
+                    if ((n & 1023) == 0 && cancelled.getAsBoolean()) {
+                        return -1;
+                    }
+                    at = stop + 1;
+                }
+            }
+            return -1;
+        }
+        // backward: walk index blocks newest-first, scanning each block forward
+        for (int i = snapshot.size() - 1; i >= 0; i--) {
+            Segment s = snapshot.get(i);
+            if (n < s.firstLine) {
+                continue;
+            }
+            java.nio.ByteBuffer view = s.map.duplicate();
+            int local = (int) Math.min(n - s.firstLine, s.lines - 1);
+            for (int block = local / STRIDE; block >= 0; block--) {
+                if (cancelled.getAsBoolean()) {
+                    return -1;
+                }
+                int blockStart = block * STRIDE;
+                int at = s.index[block];
+                long hit = -1;
+                for (int j = blockStart; j <= Math.min(local, blockStart + STRIDE - 1); j++) {
+                    int stop = at;
+                    while (view.get(stop) != '\n') {
+                        stop++;
+                    }
+                    if (m.reset(decode(view, at, stop)).find()) {
+                        hit = s.firstLine + j;
+                    }
+                    at = stop + 1;
+                }
+                if (hit >= 0) {
+                    return hit;
+                }
+            }
+            n = s.firstLine - 1;
+        }
+        return -1;
+    }
+
+    /** Forgets everything; numbering restarts at 0. */
+    synchronized void clear() {
+        while (!segments.isEmpty()) {
+            delete(segments.removeFirst());
+        }
+        nextLine = 0;
+        widest = 0;
+    }
+
+    /** Clears and removes the spill directory. */
+    @Override
+    public synchronized void close() {
+        clear();
+        if (spillDir != null && dir == null) {
+            try {
+                Files.deleteIfExists(spillDir);
+            } catch (IOException e) {
+                // a stray segment held open elsewhere: leave the empty dir
+            }
+            spillDir = null;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package org.nmox.studio.rack.devices;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.awt.Toolkit;
+import java.awt.datatransfer.StringSelection;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import javax.swing.AbstractAction;
+import javax.swing.JComponent;
+import javax.swing.KeyStroke;
+import javax.swing.Scrollable;
+import javax.swing.SwingConstants;
+
+/**
+ * PHOSPHOR's screen: a virtual view over a {@link Scrollback}. It is as
+ * tall as the retained history, but paints only the rows inside the
+ * clip, reading just those lines from the mapped spill — so a million
+ * lines cost what forty do. Click or drag selects whole lines, the
+ * copy key puts them on the clipboard (capped at {@link #COPY_CAP}), a
+ * search hit is marked. EDT-only; the device calls {@link #refresh}
+ * (coalesced) after appends.
+ */
+final class ScrollbackView extends JComponent implements Scrollable {
+
+    /** Most lines one copy puts on the clipboard. */
+    static final int COPY_CAP = 100_000;
+
+    private static final Color SELECTION = new Color(40, 90, 40);
+    private static final Color HIT = new Color(110, 90, 10);
+    private static final int PAD_X = 6;
+    private static final int PAD_Y = 4;
+
+    private final Scrollback history;
+    /** Absolute line numbers; -1 when nothing is selected / marked. */
+    private long anchor = -1;
+    private long lead = -1;
+    private long hit = -1;
+    /** The history's first retained line as of the last refresh. */
+    private long shownFirst;
+
+    ScrollbackView(Scrollback history) {
+        this.history = history;
+        setOpaque(true);
+        setFocusable(true);
+        MouseAdapter select = new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                requestFocusInWindow();
+                anchor = lineAt(e.getY());
+                lead = anchor;
+                repaint();
+            }
+
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                if (anchor >= 0) {
+                    lead = lineAt(e.getY());
+                    scrollRectToVisible(new Rectangle(0, e.getY(), 1, 1));
+                    repaint();
+                }
+            }
+        };
+        addMouseListener(select);
+        addMouseMotionListener(select);
+        // menu-shortcut mask needs a real toolkit; headless tests get Ctrl
+        int menu = java.awt.GraphicsEnvironment.isHeadless()
+                ? KeyEvent.CTRL_DOWN_MASK
+                : Toolkit.getDefaultToolkit().getMenuShortcutKeyMaskEx();
+        getInputMap().put(KeyStroke.getKeyStroke(KeyEvent.VK_C, menu), "copy-lines");
+        getActionMap().put("copy-lines", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                copySelection();
+            }
+        });
+    }
+
+    private int rowHeight() {
+        return getFontMetrics(getFont()).getHeight();
+    }
+
+    private long lineAt(int y) {
+        long row = Math.max(0, (y - PAD_Y) / rowHeight());
+        return Math.min(history.endLine() - 1, shownFirst + row);
+    }
+
+    /**
+     * Re-reads the history's extent. Lines dropped by retention shift
+     * every row up, so a viewport that is NOT following is moved up by
+     * the same amount — the lines on screen stay the lines on screen.
+     * @return how many rows scrolled off the top since the last refresh
+     */
+    int refresh() {
+        long first = history.firstLine();
+        long gone = Math.max(0, first - shownFirst);
+        shownFirst = first;
+        if (anchor >= 0 && anchor < first) {
+            anchor = first;
+        }
+        if (lead >= 0 && lead < first) {
+            lead = first;
+        }
+        revalidate();
+        repaint();
+        return (int) Math.min(Integer.MAX_VALUE, gone);
+    }
+
+    /** Drops selection and mark (after CLEAR). */
+    void reset() {
+        anchor = -1;
+        lead = -1;
+        hit = -1;
+        shownFirst = history.firstLine();
+        refresh();
+    }
+
+    /** Marks and reveals absolute line {@code n}. */
+    void reveal(long n) {
+        hit = n;
+        int h = rowHeight();
+        int y = PAD_Y + (int) Math.min(Integer.MAX_VALUE - h, (n - shownFirst) * h);
+        Rectangle visible = getVisibleRect();
+        scrollRectToVisible(new Rectangle(0, Math.max(0, y - visible.height / 2),
+                1, visible.height));
+        repaint();
+    }
+
+    /** The absolute line at the bottom of the viewport — where a search starts. */
+    long bottomLine() {
+        Rectangle r = getVisibleRect();
+        return lineAt(r.y + r.height - 1);
+    }
+
+    long marked() {
+        return hit;
+    }
+
+    private void copySelection() {
+        if (anchor < 0) {
+            return;
+        }
+        long from = Math.min(anchor, lead);
+        int count = (int) Math.min(COPY_CAP, Math.max(anchor, lead) - from + 1);
+        List<String> lines = history.lines(from, count);
+        Toolkit.getDefaultToolkit().getSystemClipboard()
+                .setContents(new StringSelection(String.join("\n", lines)), null);
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        FontMetrics fm = getFontMetrics(getFont());
+        long rows = history.size();
+        long height = 2L * PAD_Y + rows * fm.getHeight();
+        int width = 2 * PAD_X + Math.min(history.widest(), Scrollback.LINE_CAP) * fm.charWidth('m');
+        return new Dimension(width, (int) Math.min(Integer.MAX_VALUE / 2, height));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+        FontMetrics fm = g.getFontMetrics(getFont());
+        int h = fm.getHeight();
+        long firstRow = Math.max(0, (clip.y - PAD_Y) / h);
+        int rows = clip.height / h + 2;
+        // lines dropped since the last refresh are simply not painted
+        long from = Math.max(shownFirst + firstRow, history.firstLine());
+        List<String> lines = history.lines(from, rows);
+        long selFrom = anchor < 0 ? -1 : Math.min(anchor, lead);
+        long selTo = anchor < 0 ? -1 : Math.max(anchor, lead);
+        g.setFont(getFont());
+        for (int i = 0; i < lines.size(); i++) {
+            long n = from + i;
+            int top = PAD_Y + (int) ((n - shownFirst) * h);
+            if (n == hit || (n >= selFrom && n <= selTo)) {
+                g.setColor(n == hit ? HIT : SELECTION);
+                g.fillRect(clip.x, top, clip.width, h);
+            }
+            g.setColor(n >= selFrom && n <= selTo ? Color.WHITE : getForeground());
+            g.drawString(lines.get(i), PAD_X, top + fm.getAscent());
+        }
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visible, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL ? rowHeight() : getFontMetrics(getFont()).charWidth('m');
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visible, int orientation, int direction) {
+        return orientation == SwingConstants.VERTICAL
+                ? Math.max(rowHeight(), visible.height - rowHeight()) : visible.width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return getParent() != null && getParent().getWidth() > getPreferredSize().width;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return getParent() != null && getParent().getHeight() > getPreferredSize().height;
+    }
+}
@@ -2,9 +2,12 @@ package org.nmox.studio.rack.devices;
 
 import java.awt.Color;
 import java.awt.Font;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 import javax.swing.BorderFactory;
 import javax.swing.JScrollPane;
-import javax.swing.JTextArea;
+import javax.swing.JTextField;
 import org.nmox.studio.rack.model.Port;
 import org.nmox.studio.rack.model.RackDevice;
 import org.nmox.studio.rack.model.Signal;
@@ -15,33 +18,36 @@ import org.nmox.studio.rack.ui.controls.ToggleSwitch;
 
 /**
  * PHOSPHOR Terminal: a real scrollback console in the rack. Where
- * MONITOR is a glanceable 8-line readout, PHOSPHOR keeps five
- * thousand lines, lets you scroll back and select text, and follows
- * the tail unless you switch FOLLOW off. Patch any OUT jack in.
+ * MONITOR is a glanceable 8-line readout, PHOSPHOR keeps the whole
+ * session — every line spills to a memory-mapped {@link Scrollback}
+ * (512 MiB of history, then the oldest goes) and the screen is a
+ * virtual view that reads only the rows on screen, so a day of
+ * dev-server output costs constant heap and a steady EDT. Scroll back,
+ * drag-select lines and copy them, regex-search the full history
+ * (newest first; Enter again finds the next older match), and it
+ * follows the tail unless you switch FOLLOW off. Patch any OUT jack in.
+ * The screen exists only while the face is realized: scrolled out of
+ * sight the history keeps filling, and no layout is spent on it.
  */
 public class TerminalDevice extends RackDevice {
 
-    private static final int MAX_LINES = 5_000;
+    private static final org.openide.util.RequestProcessor SEARCH =
+            new org.openide.util.RequestProcessor("PHOSPHOR search", 1, true);
 
-    private final JTextArea screen;
+    private final Scrollback history = new Scrollback();
+    /** The view over {@link #history}; null while the face is released. */
+    private ScrollbackView screen;
     private final JScrollPane scroll;
     private final ToggleSwitch followSwitch;
-    private int lineCount;
+    private final JTextField findField;
+    /** Set by appends on any thread, cleared by the one queued EDT refresh. */
+    private final AtomicBoolean refreshQueued = new AtomicBoolean();
+    private volatile org.openide.util.RequestProcessor.Task search;
 
     public TerminalDevice() {
         super("terminal", "PHOSPHOR", "SCROLLBACK TERMINAL", new Color(57, 255, 20), 5);
 
-        screen = new JTextArea();
-        screen.setEditable(false);
-        screen.setLineWrap(false);
-        screen.setBackground(new Color(7, 14, 7));
-        screen.setForeground(RackStyle.LCD_TEXT);
-        screen.setCaretColor(RackStyle.LCD_TEXT);
-        screen.setSelectionColor(new Color(40, 90, 40));
-        screen.setSelectedTextColor(Color.WHITE);
-        screen.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
-        screen.setBorder(BorderFactory.createEmptyBorder(4, 6, 4, 6));
-
+        screen = newScreen();
         scroll = new JScrollPane(screen);
         scroll.getAccessibleContext().setAccessibleName("terminal output");
         scroll.setBorder(BorderFactory.createLineBorder(new Color(8, 8, 9), 2));
@@ -54,42 +60,144 @@ public class TerminalDevice extends RackDevice {
         int sideX = RackStyle.RACK_WIDTH - RackStyle.EAR_WIDTH - 92;
         RackButton clear = place(new RackButton("CLEAR", RackStyle.MUTATE), sideX, 44);
         followSwitch = place(new ToggleSwitch("FOLLOW", true), sideX, 96);
+        findField = new JTextField();
+        findField.setToolTipText("Regex search of the whole history — Enter finds the next older match");
+        findField.getAccessibleContext().setAccessibleName("search scrollback");
+        findField.setPreferredSize(new java.awt.Dimension(84, 22));
+        place(findField, sideX, 150);
 
         clear.addActionListener(e -> {
-            screen.setText("");
-            lineCount = 0;
+            history.clear();
+            if (screen != null) {
+                screen.reset();
+            }
         });
+        findField.addActionListener(e -> find(findField.getText()));
 
         addInPort("in", "IN", SignalType.DATA);
 
         param("follow", followSwitch);
     }
 
+    private ScrollbackView newScreen() {
+        ScrollbackView view = new ScrollbackView(history);
+        view.setBackground(new Color(7, 14, 7));
+        view.setForeground(RackStyle.LCD_TEXT);
+        view.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 12));
+        return view;
+    }
+
+    /** Drops the screen; the history it viewed keeps filling. */
+    @Override
+    protected void faceReleased() {
+        scroll.setViewportView(null);
+        screen = null;
+    }
+
+    /** A fresh screen over the history, at the tail when following. */
+    @Override
+    protected void faceRealized() {
+        screen = newScreen();
+        scroll.setViewportView(screen);
+        refreshScreen();
+    }
+
     @Override
     public void receive(Port in, Signal signal) {
         if (signal.type() != SignalType.DATA) {
             return;
         }
-        String line = signal.payload() == null ? "" : signal.payload();
-        onEdt(() -> {
-            screen.append(line);
-            screen.append("\n");
-            lineCount++;
-            if (lineCount > MAX_LINES) {
-                // drop the oldest tenth in one cut; trimming per line thrashes
-                int cut = 0;
-                String text = screen.getText();
-                for (int dropped = 0; dropped < MAX_LINES / 10 && cut >= 0; dropped++) {
-                    cut = text.indexOf('\n', cut + 1);
-                }
-                if (cut > 0) {
-                    screen.replaceRange("", 0, cut + 1);
-                    lineCount -= MAX_LINES / 10;
-                }
-            }
-            if (followSwitch.isOn()) {
-                screen.setCaretPosition(screen.getDocument().getLength());
+        // the spill append is cheap and thread-safe; the EDT only hears
+        // "something changed", once per frame however fast lines arrive
+        history.append(signal.payload() == null ? "" : signal.payload());
+        if (refreshQueued.compareAndSet(false, true)) {
+            onEdt(this::refreshScreen);
+        }
+    }
+
+    /** The whole chunk into the spill, then the one refresh. */
+    @Override
+    public void receiveBatch(Port in, Signal batch) {
+        for (String line : batch.lines()) {
+            history.append(line);
+        }
+        if (refreshQueued.compareAndSet(false, true)) {
+            onEdt(this::refreshScreen);
+        }
+    }
+
+    private void refreshScreen() {
+        refreshQueued.set(false);
+        if (screen == null) {
+            return; // released: faceRealized refreshes the new screen
+        }
+        javax.swing.JViewport port = scroll.getViewport();
+        int gone = screen.refresh();
+        if (followSwitch.isOn()) {
+            scroll.validate();
+            int bottom = Math.max(0, screen.getPreferredSize().height - port.getExtentSize().height);
+            port.setViewPosition(new java.awt.Point(port.getViewPosition().x, bottom));
+        } else if (gone > 0) {
+            java.awt.Point at = port.getViewPosition();
+            int rowH = screen.getFontMetrics(screen.getFont()).getHeight();
+            scroll.validate();
+            port.setViewPosition(new java.awt.Point(at.x,
+                    (int) Math.max(0, at.y - (long) gone * rowH)));
+        }
+    }
+
+    /**
+     * Regex search off the EDT, newest first from just above the last
+     * hit (or the bottom of the view); a new search cancels the old. An
+     * invalid regex is searched as plain text. A miss flashes the field.
+     */
+    private void find(String text) {
+        if (text.isEmpty()) {
+            return;
+        }
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(text);
+        } catch (PatternSyntaxException ex) {
+            pattern = Pattern.compile(Pattern.quote(text));
+        }
+        if (screen == null) {
+            return;
+        }
+        long marked = screen.marked();
+        long from = marked >= 0 ? marked - 1 : screen.bottomLine();
+        org.openide.util.RequestProcessor.Task previous = search;
+        if (previous != null) {
+            previous.cancel();
+        }
+        Pattern p = pattern;
+        search = SEARCH.post(() -> {
+            long hit = history.search(p, from, false, () -> Thread.currentThread().isInterrupted());
+            if (Thread.currentThread().isInterrupted()) {
+                return;
             }
+            onEdt(() -> {
+                if (hit >= 0) {
+                    followSwitch.setOn(false); // looking back: stop the tail from yanking the view
+                    if (screen != null) {
+                        screen.reveal(hit);
+                    }
+                    findField.setBackground(javax.swing.UIManager.getColor("TextField.background"));
+                } else {
+                    findField.setBackground(new Color(120, 40, 40));
+                }
+            });
         });
     }
+
+    /** The spill files go with the device. */
+    @Override
+    public void dispose() {
+        org.openide.util.RequestProcessor.Task running = search;
+        if (running != null) {
+            running.cancel();
+        }
+        history.close();
+        super.dispose();
+    }
 }
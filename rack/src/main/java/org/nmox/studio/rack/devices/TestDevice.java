@@ -1,10 +1,19 @@
 package org.nmox.studio.rack.devices;
 
 import java.awt.Color;
+import java.io.File;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import org.nmox.studio.rack.engine.ChangedSince;
+import org.nmox.studio.rack.engine.ImportGraph;
+import org.nmox.studio.rack.model.Port;
+import org.nmox.studio.rack.model.Signal;
+import org.nmox.studio.rack.model.SignalType;
 import org.nmox.studio.rack.ui.controls.Knob;
 import org.nmox.studio.rack.ui.controls.LcdDisplay;
 import org.nmox.studio.rack.ui.controls.RackButton;
@@ -14,6 +23,16 @@ import org.nmox.studio.rack.ui.controls.ToggleSwitch;
 /**
  * VERITAS Test Harness: runs the test suite and shows a live pass/fail
  * tally parsed from runner output (jest/vitest/mocha style summaries).
+ *
+ * <p>AFFECTED narrows a jest/vitest run to the test files that can see
+ * what changed since the last run: the changed paths (patched into
+ * PATHS from REFLEX, plus an mtime sweep of the project) are walked
+ * backwards through an {@link ImportGraph} of the JS/TS sources to the
+ * tests that import them, transitively, and only those are named on the
+ * command line. Anything the graph cannot vouch for — a config or
+ * lockfile change, no record of a previous run, more changes than the
+ * sweep reports, another runner — falls back to the full suite and says
+ * why on the tally LCD.
  */
 public class TestDevice extends CommandDevice {
 
@@ -48,12 +67,27 @@ public class TestDevice extends CommandDevice {
     private final Knob frameworkKnob;
     private final ToggleSwitch coverageSwitch;
     private final Knob covMinKnob;
+    private final ToggleSwitch affectedSwitch;
     private final LcdDisplay tallyLcd;
     private final java.util.List<String> failures = new java.util.concurrent.CopyOnWriteArrayList<>();
     private volatile int passed;
     private volatile int failed;
     private volatile double coverage = -1;
 
+    /** More affected tests than this and naming them buys nothing: full run. */
+    static final int AFFECTED_CAP = 400;
+    /** Changed paths remembered from PATHS between runs before giving up on them. */
+    private static final int PENDING_CAP = 2_000;
+
+    /** Paths heard on PATHS since the last run; null once it overflowed. */
+    private Set<Path> pendingPaths = new LinkedHashSet<>();
+    /** When the last run started (0 = never): the mtime sweep's horizon. */
+    private volatile long lastRunStart;
+    /** The current run names only some tests: its coverage is partial by design. */
+    private volatile boolean narrowed;
+    /** Built lazily, touched only on the device background lane. */
+    private ImportGraph graph;
+
     public TestDevice() {
         super("test", "VERITAS", "TEST HARNESS", new Color(99, 197, 70), 2);
 
@@ -64,6 +98,8 @@ public class TestDevice extends CommandDevice {
         coverageSwitch = place(new ToggleSwitch("COVER", false), 254, 42);
         covMinKnob = place(new Knob("MIN COV", COVERAGE_MINIMUMS, 0), 324, 40);
         covMinKnob.setToolTipText("Coverage floor (needs COVER on): below it, FAIL fires instead of OK");
+        affectedSwitch = place(new ToggleSwitch("AFFECTED", false), 400, 42);
+        affectedSwitch.setToolTipText("jest/vitest: run only the tests that import what changed since the last run");
         tallyLcd = place(new LcdDisplay(160, 1), 44, 82);
         tallyLcd.getAccessibleContext().setAccessibleName("test tally");
         tallyLcd.setText("P:0 F:0");
@@ -77,6 +113,45 @@ public class TestDevice extends CommandDevice {
         param("framework", frameworkKnob);
         param("coverage", coverageSwitch);
         param("covMin", covMinKnob);
+        param("affected", affectedSwitch);
+
+        addInPort("paths", "PATHS", SignalType.DATA);
+    }
+
+    @Override
+    public void receive(Port in, Signal signal) {
+        if ("paths".equals(in.getId()) && signal.type() == SignalType.DATA) {
+            rememberPaths(signal.payload());
+            return;
+        }
+        super.receive(in, signal);
+    }
+
+    /** Collects changed paths (one per line) for the next AFFECTED run. */
+    private synchronized void rememberPaths(String payload) {
+        if (payload == null || pendingPaths == null) {
+            return;
+        }
+        for (String line : payload.split("\n")) {
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            try {
+                pendingPaths.add(Path.of(trimmed).toAbsolutePath().normalize());
+            } catch (RuntimeException ignored) {
+                // not a path: nothing to map
+            }
+        }
+        if (pendingPaths.size() > PENDING_CAP) {
+            pendingPaths = null; // too many to trust a narrowed run
+        }
+    }
+
+    private synchronized Set<Path> drainPaths() {
+        Set<Path> drained = pendingPaths;
+        pendingPaths = new LinkedHashSet<>();
+        return drained;
     }
 
     @Override
@@ -89,14 +164,97 @@ public class TestDevice extends CommandDevice {
             tallyLcd.setTextColor(org.nmox.studio.rack.ui.controls.RackStyle.LCD_TEXT);
             tallyLcd.setText("P:0 F:0");
         });
+        if (affectedSwitch.isOn()) {
+            // the import walk reads the tree: never on the EDT
+            offEdt(this::launchAffected);
+            return;
+        }
+        narrowed = false;
+        lastRunStart = System.currentTimeMillis();
         launch(buildCommand());
     }
 
+    /** AFFECTED's run: the narrowed command when the graph can answer, else the full one. */
+    private void launchAffected() {
+        String framework = effectiveFramework();
+        File dir = commandDir();
+        long since = lastRunStart;
+        long started = System.currentTimeMillis();
+        Set<Path> heard = drainPaths();
+        ImportGraph.Plan plan;
+        if (!"jest".equals(framework) && !"vitest".equals(framework)) {
+            plan = new ImportGraph.Plan(true, framework.toUpperCase(java.util.Locale.ROOT)
+                    + " CANNOT NAME FILES", List.of());
+        } else if (since == 0 || heard == null) {
+            plan = new ImportGraph.Plan(true, since == 0 ? "FIRST RUN" : "TOO MANY CHANGES", List.of());
+        } else {
+            List<File> swept = ChangedSince.scan(dir, since);
+            if (swept.size() >= ChangedSince.CAP) {
+                plan = new ImportGraph.Plan(true, "TOO MANY CHANGES", List.of());
+            } else {
+                Set<Path> changed = new LinkedHashSet<>(heard);
+                swept.forEach(f -> changed.add(f.toPath().toAbsolutePath().normalize()));
+                if (graph == null || !graph.root().equals(dir.toPath().toAbsolutePath().normalize())) {
+                    graph = new ImportGraph(dir.toPath());
+                }
+                plan = graph.plan(changed, AFFECTED_CAP);
+            }
+        }
+        lastRunStart = started;
+        narrowed = !plan.full();
+        if (plan.full()) {
+            onEdt(() -> tallyLcd.setText("FULL: " + plan.reason().toUpperCase(java.util.Locale.ROOT)));
+            if (!launch(buildCommand())) {
+                lastRunStart = since;
+            }
+            return;
+        }
+        if (plan.tests().isEmpty()) {
+            onEdt(() -> {
+                tallyLcd.setText("0 AFFECTED");
+                okLed.setOn(true);
+                failLed.setOn(false);
+                statusLcd.setTextColor(org.nmox.studio.rack.ui.controls.RackStyle.LCD_TEXT);
+                statusLcd.setText("OK  nothing to re-test");
+            });
+            emit("ok", Signal.trigger(true));
+            emit("done", Signal.trigger(true));
+            return;
+        }
+        List<String> relative = new ArrayList<>(plan.tests().size());
+        Path root = dir.toPath().toAbsolutePath().normalize();
+        for (Path test : plan.tests()) {
+            relative.add(root.relativize(test).toString().replace(File.separatorChar, '/'));
+        }
+        int count = relative.size();
+        onEdt(() -> tallyLcd.setText(count + " AFFECTED"));
+        if (!launch(affectedCommand(framework, relative, coverageSwitch.isOn()))) {
+            lastRunStart = since;
+        }
+    }
+
+    /**
+     * The run of exactly these test files (project-relative): jest takes
+     * them as literal paths ({@code --runTestsByPath}, no regex reading
+     * of a bracketed Next.js route), vitest as positional filters.
+     */
+    static List<String> affectedCommand(String framework, List<String> testFiles, boolean coverage) {
+        List<String> cmd = new ArrayList<>("jest".equals(framework)
+                ? List.of("npx", "jest", "--runTestsByPath")
+                : List.of("npx", "vitest", "run"));
+        cmd.addAll(testFiles);
+        if (coverage) {
+            cmd.add("--coverage");
+        }
+        return cmd;
+    }
+
     /**
      * A green suite with thin coverage is not green. With COVER on and
      * MIN COV dialed, a measured percentage under the floor fails the
      * run - jacks and LEDs alike. Unmeasured coverage never gates:
-     * the device refuses to punish runners it can't read.
+     * the device refuses to punish runners it can't read. Nor does an
+     * AFFECTED run's: a handful of test files covers a handful of lines.
      */
     @Override
     protected boolean overallSuccess(int exitCode) {
@@ -104,7 +262,7 @@ public class TestDevice extends CommandDevice {
             return false;
         }
         int floor = coverageMinimum();
-        if (floor > 0 && coverage >= 0 && coverage < floor) {
+        if (floor > 0 && !narrowed && coverage >= 0 && coverage < floor) {
             double measured = coverage;
             onEdt(() -> {
                 tallyLcd.setTextColor(new Color(255, 90, 80));
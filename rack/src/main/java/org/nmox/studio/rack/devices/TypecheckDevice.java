@@ -26,6 +26,7 @@ public class TypecheckDevice extends CommandDevice {
 
     private final ToggleSwitch watchSwitch;
     private final ToggleSwitch strictSwitch;
+    private final ToggleSwitch cacheSwitch;
     private final LcdDisplay errorLcd;
     private final Led cleanLed;
     private volatile long lastWatchFire;
@@ -38,16 +39,30 @@ public class TypecheckDevice extends CommandDevice {
         RackButton stop = place(new RackButton("STOP", RackStyle.STOP), RackStyle.TRANSPORT_STOP_X, 52);
         watchSwitch = place(new ToggleSwitch("WATCH", false), 180, 42);
         strictSwitch = place(new ToggleSwitch("STRICT", false), 250, 42);
-        errorLcd = place(new LcdDisplay(110, 1), 324, 52);
+        cacheSwitch = place(new ToggleSwitch("CACHE", false), 320, 42);
+        cacheSwitch.setToolTipText("Replay the last check while no source or config changed (not in WATCH)");
+        errorLcd = place(new LcdDisplay(84, 1), 392, 48);
         errorLcd.getAccessibleContext().setAccessibleName("errors");
         errorLcd.setText("E:-");
-        cleanLed = place(new Led("SOUND", RackStyle.GO), 442, 58);
+        cleanLed = place(new Led("SOUND", RackStyle.GO), 392, 84);
 
         check.addActionListener(e -> primaryAction());
         stop.addActionListener(e -> stopProcess());
 
         param("watch", watchSwitch);
         param("strict", strictSwitch);
+        param("cache", cacheSwitch);
+    }
+
+    @Override
+    protected org.nmox.studio.rack.engine.RunCache.Inputs cacheInputs() {
+        if (!cacheSwitch.isOn() || watchSwitch.isOn()) {
+            return null;
+        }
+        return new org.nmox.studio.rack.engine.RunCache.Inputs(List.of(
+                "**/*.{ts,tsx,mts,cts,js,jsx,mjs,cjs,vue,svelte,json,php,sol,neon}",
+                "**/.solhint*", "phpstan.neon*", "composer.json", "composer.lock"),
+                List.of());
     }
 
     @Override
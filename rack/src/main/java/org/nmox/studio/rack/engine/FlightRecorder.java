@@ -14,20 +14,32 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * durations, error lines - so "it worked twenty minutes ago, what
  * happened since?" has an answer you can scroll instead of a feeling.
  *
- * It also keeps per-device duration statistics, which is how BLACKBOX
+ * It also keeps per-device duration statistics - p50/p95/p99 over a
+ * window, across sessions, from the journal - which is how BLACKBOX
  * notices the slow creep: the build that quietly went from 1.2s to
- * 3.4s while you weren't measuring.
+ * 3.4s while you weren't measuring - and per-device skip-cache tallies,
+ * so a CACHE switch that never hits is visible instead of assumed.
  */
 public final class FlightRecorder implements RackBus.Listener {
 
     public enum Kind {
-        LAUNCH, EXIT_OK, EXIT_FAIL, ERROR
+        LAUNCH, EXIT_OK, EXIT_FAIL, ERROR, REPLAY
+    }
+
+    /** Skip-cache lookups for one device: replayed runs vs real ones. */
+    public record CacheTally(int hits, int misses) {
     }
 
     /** One timeline entry. durationMs is -1 except on exits. */
     public record Event(long at, String device, Kind kind, String text, long durationMs) {
     }
 
+    /** Run-time quantiles for one device over a window; -1s when it holds no runs. */
+    public record Percentiles(int count, long p50, long p95, long p99) {
+
+        static final Percentiles NONE = new Percentiles(0, -1, -1, -1);
+    }
+
     /** Rolling duration stats for one device's successful runs. */
     public static final class Stats {
 
@@ -35,9 +47,11 @@ public final class FlightRecorder implements RackBus.Listener {
         private double avgMs;
         private long lastMs = -1;
         private long lastOkAt = -1;
+        private Percentiles baseline = Percentiles.NONE;
 
-        void addOk(long ms) {
+        void addOk(long ms, Percentiles before) {
             lastMs = ms;
+            baseline = before;
             count++;
             avgMs += (ms - avgMs) / count;
         }
@@ -63,9 +77,64 @@ public final class FlightRecorder implements RackBus.Listener {
             return lastMs;
         }
 
-        /** True when the latest run took notably longer than usual. */
+        /**
+         * What the device's runs took BEFORE the latest one, over the
+         * creep window and across sessions - the yardstick {@link #creeping}
+         * measures the latest run against.
+         */
+        public Percentiles baseline() {
+            return baseline;
+        }
+
+        /**
+         * True when the latest run took notably longer than usual: past
+         * the window's p95 and well past its median. The median, not the
+         * mean - one cold-cache 40s build must not make every later 3s
+         * build look normal.
+         */
         public boolean creeping() {
-            return count >= 3 && lastMs > avgMs * 1.8 && lastMs - avgMs > 500;
+            return baseline.count() >= 3 && lastMs > baseline.p95()
+                    && lastMs > baseline.p50() * 1.8 && lastMs - baseline.p50() > 500;
+        }
+    }
+
+    /**
+     * Successful run durations for one device, oldest first, across
+     * sessions: seeded from the journal on attach, appended live.
+     * Bounded - the oldest half goes when it fills.
+     */
+    private static final class History {
+
+        private long[] at = new long[64];
+        private long[] ms = new long[64];
+        private int size;
+
+        void add(long when, long duration) {
+            if (size == at.length) {
+                if (size >= HISTORY_RUNS) {
+                    int keep = size / 2;
+                    System.arraycopy(at, size - keep, at, 0, keep);
+                    System.arraycopy(ms, size - keep, ms, 0, keep);
+                    size = keep;
+                } else {
+                    at = java.util.Arrays.copyOf(at, size * 2);
+                    ms = java.util.Arrays.copyOf(ms, size * 2);
+                }
+            }
+            at[size] = when;
+            ms[size] = duration;
+            size++;
+        }
+
+        Percentiles over(long from, long to) {
+            DurationHistogram h = new DurationHistogram();
+            for (int i = 0; i < size; i++) {
+                if (at[i] >= from && at[i] < to) {
+                    h.record(ms[i]);
+                }
+            }
+            return h.count() == 0 ? Percentiles.NONE
+                    : new Percentiles(h.count(), h.quantile(0.50), h.quantile(0.95), h.quantile(0.99));
         }
     }
 
@@ -73,11 +142,20 @@ public final class FlightRecorder implements RackBus.Listener {
     private static final int CAPACITY = 2_000;
     /** Error lines kept per run, so a 10k-line stack trace stays a sample. */
     private static final int ERRORS_PER_RUN = 5;
+    /** Successful runs remembered per device for the quantiles. */
+    private static final int HISTORY_RUNS = 8_192;
+    /** How far back an attach seeds the duration history from the journal. */
+    private static final long HISTORY_MS = 30L * 24 * 60 * 60 * 1000;
+    /** The default creep window: the last week of runs, this session or not. */
+    public static final long CREEP_WINDOW_MS = 7L * 24 * 60 * 60 * 1000;
 
     private final Deque<Event> events = new ArrayDeque<>();
     private final Map<String, Long> launchAt = new HashMap<>();
     private final Map<String, Integer> errorsThisRun = new HashMap<>();
     private final Map<String, Stats> stats = new HashMap<>();
+    private final Map<String, CacheTally> cache = new HashMap<>();
+    private final Map<String, History> history = new HashMap<>();
+    private long creepWindowMs = CREEP_WINDOW_MS;
     private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
     private final java.util.function.LongSupplier clock;
 
@@ -109,8 +187,12 @@ public final class FlightRecorder implements RackBus.Listener {
                 long ms = started == null ? -1 : now - started;
                 if (code == 0) {
                     Stats st = stats.computeIfAbsent(device, d -> new Stats());
-                    st.addOk(ms);
+                    History h = history.computeIfAbsent(device, d -> new History());
+                    st.addOk(ms, h.over(now - creepWindowMs, now + 1));
                     st.stampOk(now);
+                    if (ms >= 0) {
+                        h.add(now, ms);
+                    }
                     record(new Event(now, device, Kind.EXIT_OK, "OK", ms));
                 } else {
                     record(new Event(now, device, Kind.EXIT_FAIL, "exit " + code, ms));
@@ -122,6 +204,28 @@ public final class FlightRecorder implements RackBus.Listener {
                 }
             }
         }
+        fireChanged();
+    }
+
+    /**
+     * A skip-cache lookup by {@code device}. A hit goes on the tape as a
+     * REPLAY (it never launched, so it is neither a LAUNCH nor an exit
+     * and never skews the duration statistics); a miss only counts.
+     */
+    public void cacheLookup(String device, boolean hit, int exitCode) {
+        long now = clock.getAsLong();
+        synchronized (this) {
+            cache.merge(device, hit ? new CacheTally(1, 0) : new CacheTally(0, 1),
+                    (a, b) -> new CacheTally(a.hits() + b.hits(), a.misses() + b.misses()));
+            if (hit) {
+                record(new Event(now, device, Kind.REPLAY,
+                        (exitCode == 0 ? "OK" : "exit " + exitCode) + " replayed, inputs unchanged", -1));
+            }
+        }
+        fireChanged();
+    }
+
+    private void fireChanged() {
         for (Runnable l : listeners) {
             try {
                 l.run();
@@ -130,6 +234,10 @@ public final class FlightRecorder implements RackBus.Listener {
         }
     }
 
+    public synchronized Map<String, CacheTally> cacheTallies() {
+        return new HashMap<>(cache);
+    }
+
     static int parseExit(String line) {
         try {
             return Integer.parseInt(line.replaceAll("[^0-9-]", ""));
@@ -148,14 +256,44 @@ public final class FlightRecorder implements RackBus.Listener {
     /**
      * add() + journal append - the path live events take. The in-memory add
      * stays under the caller's monitor (readers see a consistent tape); the
-     * disk append is handed to JOURNAL_RP so no pump thread ever blocks on I/O
-     * while holding the monitor. Posts happen in event order from the
-     * synchronized line(), and JOURNAL_RP is single-threaded, so the journal
-     * on disk stays in the same order as the tape in memory.
+     * disk write is handed to JOURNAL_RP so no pump thread ever blocks on I/O
+     * while holding the monitor. Group commit: the event joins the pending
+     * batch, and only the event that opens a batch posts a flush - everything
+     * that queues while that flush waits or writes rides along in one write.
+     * Appends happen in event order from the synchronized line(), and
+     * JOURNAL_RP is single-threaded, so the journal on disk stays in the same
+     * order as the tape in memory.
      */
     private void record(Event e) {
         add(e);
-        JOURNAL_RP.post(() -> appendToJournal(e));
+        pending.add(e);
+        if (pending.size() == 1) {
+            JOURNAL_RP.post(this::flushJournal);
+        }
+    }
+
+    /** On JOURNAL_RP: takes the whole pending batch under the monitor, writes it outside. */
+    private void flushJournal() {
+        List<Event> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new ArrayList<>();
+        }
+        FlightStore s = store;
+        if (s != null) {
+            s.append(batch);
+            flushes.incrementAndGet();
+        }
+    }
+
+    /** Batches written so far - the witness that a burst became one write. */
+    int flushes() {
+        return flushes.get();
+    }
+
+    /** Runs {@code r} on the journal lane, in order with the flushes - for tests. */
+    static void onJournalLane(Runnable r) {
+        JOURNAL_RP.post(r);
     }
 
     /**
@@ -202,7 +340,26 @@ public final class FlightRecorder implements RackBus.Listener {
         return new HashMap<>(stats);
     }
 
-    /** Any device whose latest run crept well past its average. */
+    /**
+     * p50/p95/p99 of {@code device}'s successful runs over the last
+     * {@code windowMs}, including past sessions the journal remembers.
+     */
+    public synchronized Percentiles durations(String device, long windowMs) {
+        History h = history.get(device);
+        long now = clock.getAsLong();
+        return h == null ? Percentiles.NONE : h.over(now - windowMs, now + 1);
+    }
+
+    /** How far back {@link Stats#creeping} looks for what "usual" means. */
+    public synchronized void setCreepWindow(long windowMs) {
+        this.creepWindowMs = windowMs;
+    }
+
+    public synchronized long creepWindow() {
+        return creepWindowMs;
+    }
+
+    /** Any device whose latest run crept well past its usual. */
     public synchronized String slowCreep() {
         for (Map.Entry<String, Stats> e : stats.entrySet()) {
             if (e.getValue().creeping()) {
@@ -214,17 +371,23 @@ public final class FlightRecorder implements RackBus.Listener {
 
     // ---- the journal: the tape survives the JVM ----
 
-    // volatile: written under the FlightRecorder monitor in attachJournal,
-    // read on the JOURNAL_RP thread in appendToJournal
-    private volatile java.io.File journal;
-    private static final long JOURNAL_MAX_BYTES = 1_500_000;
+    /** Segment size: the unit retention drops. */
+    static final long SEGMENT_BYTES = 256 * 1024;
+    /** The whole journal's cap, all segments together. */
+    static final long JOURNAL_MAX_BYTES = 4 * 1024 * 1024;
+
+    // volatile: written under the FlightRecorder monitor in attach, read on
+    // the JOURNAL_RP thread in flushJournal
+    private volatile FlightStore store;
+    /** Events recorded but not yet handed to the store; guarded by this. */
+    private List<Event> pending = new ArrayList<>();
+    private final java.util.concurrent.atomic.AtomicInteger flushes = new java.util.concurrent.atomic.AtomicInteger();
 
     /**
      * The journal's disk I/O rides its own single-thread FIFO lane, OFF the
      * FlightRecorder monitor. That monitor gates every bus publish (so every
      * device's output-pump thread funnels through it) and every EDT reader
-     * (timeline/export/statistics); doing the per-event {@code Files.writeString}
-     * append and the readAllLines+write rotate under it meant one slow or full
+     * (timeline/export/statistics); writing under it meant one slow or full
      * disk could serialize and stall every pump at once, and block a UI read
      * behind a pump's write. Single-threaded so journal order stays event order.
      */
@@ -232,49 +395,45 @@ public final class FlightRecorder implements RackBus.Listener {
             new org.openide.util.RequestProcessor("nmox-flightrec-journal", 1, true);
 
     /**
-     * Attaches a JSONL journal: existing events load onto the tape (so
-     * BLACKBOX remembers past sessions), and every new event appends.
+     * Attaches the journal kept in {@code dir}: the newest events load
+     * onto the tape and the last {@link #HISTORY_MS} of run durations
+     * seed the quantiles (so BLACKBOX remembers past sessions), and every
+     * new event appends. A JSONL journal from before the segment store
+     * ({@code dir} + ".jsonl" beside it) is migrated in once and deleted.
      * Mosh for the flight record - the session outlives the process.
      */
-    public synchronized void attachJournal(java.io.File file) {
-        this.journal = file;
-        try {
-            if (file.isFile()) {
-                for (String line : java.nio.file.Files.readAllLines(file.toPath())) {
+    public void attachJournal(java.io.File dir) {
+        attach(new FlightStore(dir, SEGMENT_BYTES, JOURNAL_MAX_BYTES));
+    }
+
+    /** attachJournal with the store's caps chosen by the caller - for tests. */
+    synchronized void attach(FlightStore journal) {
+        java.io.File dir = journal.directory();
+        java.io.File legacy = new java.io.File(dir.getParentFile(), dir.getName() + ".jsonl");
+        if (legacy.isFile()) {
+            try {
+                List<Event> old = new ArrayList<>();
+                for (String line : java.nio.file.Files.readAllLines(legacy.toPath())) {
                     Event e = eventFromJson(line);
                     if (e != null) {
-                        add(e);
+                        old.add(e);
                     }
                 }
-            } else {
-                java.nio.file.Files.createDirectories(file.getParentFile().toPath());
+                journal.append(old);
+                java.nio.file.Files.delete(legacy.toPath());
+            } catch (Exception ignored) {
+                // an unreadable legacy journal must never break recording
             }
-        } catch (Exception ignored) {
-            // an unreadable journal must never break recording
         }
-    }
-
-    private void appendToJournal(Event e) {
-        if (journal == null) {
-            return;
+        for (Event e : journal.tail(CAPACITY)) {
+            add(e);
         }
-        try {
-            if (journal.length() > JOURNAL_MAX_BYTES) {
-                rotateJournal();
+        journal.scan(clock.getAsLong() - HISTORY_MS, Long.MAX_VALUE, e -> {
+            if (e.kind() == Kind.EXIT_OK && e.durationMs() >= 0) {
+                history.computeIfAbsent(e.device(), d -> new History()).add(e.at(), e.durationMs());
             }
-            java.nio.file.Files.writeString(journal.toPath(), eventToJson(e) + "\n",
-                    java.nio.file.StandardOpenOption.CREATE,
-                    java.nio.file.StandardOpenOption.APPEND);
-        } catch (Exception ignored) {
-            // disk trouble must never break recording
-        }
-    }
-
-    /** Keeps the newer half when the journal outgrows its cap. */
-    private void rotateJournal() throws java.io.IOException {
-        java.util.List<String> lines = java.nio.file.Files.readAllLines(journal.toPath());
-        java.util.List<String> keep = lines.subList(lines.size() / 2, lines.size());
-        java.nio.file.Files.write(journal.toPath(), keep);
+        });
+        this.store = journal;
     }
 
     static String eventToJson(Event e) {
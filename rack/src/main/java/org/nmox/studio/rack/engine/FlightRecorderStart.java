@@ -19,7 +19,7 @@ public class FlightRecorderStart implements Runnable {
             FlightRecorder recorder = FlightRecorder.getDefault();
             String userdir = System.getProperty("netbeans.user");
             if (userdir != null) {
-                recorder.attachJournal(new java.io.File(userdir, "var/nmox/flight.jsonl"));
+                recorder.attachJournal(new java.io.File(userdir, "var/nmox/flight"));
             }
         });
     }
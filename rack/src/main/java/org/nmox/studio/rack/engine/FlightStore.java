@@ -0,0 +1,579 @@
+package org.nmox.studio.rack.engine;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import org.nmox.studio.rack.engine.FlightRecorder.Event;
+import org.nmox.studio.rack.engine.FlightRecorder.Kind;
+
+/**
+ * The flight recorder's disk: a directory of append-only segment files,
+ * newest last, each written once front to back and never rewritten.
+ *
+ * <p>A segment is a 13-byte header (magic, version, base time) followed
+ * by length-prefixed binary records - varint deltas from the base time,
+ * the device and text as UTF-8, one byte of kind, the duration - each
+ * trailed by a CRC32, so a write torn by a crash is detected and cut off
+ * at the last whole record instead of poisoning the tape. Every
+ * {@link #BLOCK} records the writer notes a block (offset, min and max
+ * time); when a segment fills it is sealed and those blocks become its
+ * {@code .idx} sidecar, so a time-range {@link #scan} skips whole
+ * segments and whole blocks without decoding them.
+ *
+ * <p>Retention is a file delete: past {@code maxBytes} the oldest sealed
+ * segment goes, whole. The JSONL journal this replaced re-read and
+ * rewrote itself to keep its newer half, on the lane every append waits
+ * behind.
+ *
+ * <p>{@link #append} takes a batch - FlightRecorder's journal lane hands
+ * over everything that queued while the previous write was in flight -
+ * and lands it with one channel write per segment touched. No fsync:
+ * the journal exists to outlive the JVM, and the kernel's page cache
+ * already does that; a power cut costing the last second of tape is the
+ * accepted trade.
+ *
+ * <p>Never throws: disk trouble loses journal entries, never a recording.
+ */
+final class FlightStore {
+
+    static final int MAGIC = 0x4E4D4652; // "NMFR"
+    static final byte VERSION = 1;
+    static final int HEADER = 4 + 1 + 8;
+    /** Records per index block: the granularity a time-range scan can skip at. */
+    static final int BLOCK = 64;
+    private static final int IDX_MAGIC = 0x4E4D4649; // "NMFI"
+    /** A record longer than this is corruption, not an error line. */
+    private static final int MAX_RECORD = 1 << 20;
+
+    /** One index entry: where a run of records starts and the time span it covers. */
+    record Block(long offset, long minAt, long maxAt) {
+    }
+
+    private final File dir;
+    private final long segmentBytes;
+    private final long maxBytes;
+
+    private FileChannel active;
+    private long activeSeq;
+    private long activeBase;
+    private long activeSize;
+    private final List<Block> activeBlocks = new ArrayList<>();
+    /** The block being filled: its offset, span and record count so far. */
+    private long openOffset;
+    private long openMin;
+    private long openMax;
+    private int openCount;
+
+    /** Blocks decoded by scans so far - the witness that the index skips. */
+    private int decodedBlocks;
+
+    FlightStore(File dir, long segmentBytes, long maxBytes) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(dir.toPath());
+            reopen();
+        } catch (IOException | RuntimeException ignored) {
+            // an unreadable store must never break recording; append retries the open
+        }
+    }
+
+    File directory() {
+        return dir;
+    }
+
+    // ---- writing ----
+
+    /**
+     * Appends {@code batch} in order - one write per segment it lands in,
+     * so a burst that fills a segment rolls mid-batch rather than
+     * growing one segment past what retention can drop.
+     */
+    synchronized void append(List<Event> batch) {
+        try {
+            ByteArrayOutputStream buf = new ByteArrayOutputStream(batch.size() * 48);
+            for (Event e : batch) {
+                if (active == null || activeSize + buf.size() >= segmentBytes) {
+                    write(buf);
+                    roll(e.at());
+                }
+                if (openCount == BLOCK) {
+                    closeBlock();
+                }
+                long offset = activeSize + buf.size();
+                if (openCount == 0) {
+                    openOffset = offset;
+                    openMin = e.at();
+                    openMax = e.at();
+                }
+                openMin = Math.min(openMin, e.at());
+                openMax = Math.max(openMax, e.at());
+                openCount++;
+                encode(e, activeBase, buf);
+            }
+            write(buf);
+        } catch (IOException | RuntimeException ex) {
+            closeQuietly();
+        }
+    }
+
+    private void write(ByteArrayOutputStream buf) throws IOException {
+        if (buf.size() == 0) {
+            return;
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(buf.toByteArray());
+        while (bytes.hasRemaining()) {
+            active.write(bytes);
+        }
+        activeSize += buf.size();
+        buf.reset();
+    }
+
+    private void closeBlock() {
+        if (openCount > 0) {
+            activeBlocks.add(new Block(openOffset, openMin, openMax));
+            openCount = 0;
+        }
+    }
+
+    /** Seals the active segment (if any) and starts the next one at {@code base}. */
+    private void roll(long base) throws IOException {
+        if (active != null) {
+            seal();
+        }
+        activeSeq++;
+        activeBase = base;
+        File f = segmentFile(activeSeq);
+        ByteBuffer header = ByteBuffer.allocate(HEADER).putInt(MAGIC).put(VERSION).putLong(base).flip();
+        active = FileChannel.open(f.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        while (header.hasRemaining()) {
+            active.write(header);
+        }
+        activeSize = HEADER;
+        activeBlocks.clear();
+        openCount = 0;
+        trim();
+    }
+
+    private void seal() throws IOException {
+        closeBlock();
+        active.close();
+        active = null;
+        writeIndex(activeSeq, activeBlocks);
+    }
+
+    /** Drops whole sealed segments, oldest first, while the store is over its cap. */
+    private void trim() {
+        long[] seqs = segments();
+        long total = 0;
+        for (long s : seqs) {
+            total += segmentFile(s).length();
+        }
+        for (int i = 0; i < seqs.length && total > maxBytes && seqs[i] != activeSeq; i++) {
+            File seg = segmentFile(seqs[i]);
+            total -= seg.length();
+            seg.delete();
+            indexFile(seqs[i]).delete();
+        }
+    }
+
+    /**
+     * Picks up where the last process stopped: a sealed newest segment
+     * means the next append starts a fresh one; an unsealed one is
+     * rescanned for its blocks, cut back to its last whole record, and
+     * appended to.
+     */
+    private void reopen() throws IOException {
+        long[] seqs = segments();
+        if (seqs.length == 0) {
+            return;
+        }
+        long last = seqs[seqs.length - 1];
+        activeSeq = last;
+        if (indexFile(last).isFile()) {
+            return;
+        }
+        File f = segmentFile(last);
+        Segment seg = Segment.read(f);
+        if (seg == null) {
+            f.delete(); // not even a header: nothing to keep
+            return;
+        }
+        List<Block> blocks = new ArrayList<>();
+        long end = seg.walk(blocks, null);
+        active = FileChannel.open(f.toPath(), StandardOpenOption.WRITE);
+        active.truncate(end);
+        active.position(end);
+        activeBase = seg.base;
+        activeSize = end;
+        activeBlocks.clear();
+        activeBlocks.addAll(blocks);
+        openCount = 0;
+    }
+
+    synchronized void close() {
+        try {
+            if (active != null) {
+                active.close();
+            }
+        } catch (IOException ignored) {
+        }
+        active = null;
+    }
+
+    private void closeQuietly() {
+        close();
+        activeSize = 0;
+    }
+
+    // ---- reading ----
+
+    /**
+     * Every record with {@code from <= at < to}, oldest segment first, in
+     * write order. Segments and blocks whose span misses the range are
+     * never decoded.
+     */
+    synchronized void scan(long from, long to, Consumer<Event> sink) {
+        for (long s : segments()) {
+            List<Block> blocks = blocksOf(s);
+            if (blocks == null || blocks.isEmpty()) {
+                continue;
+            }
+            boolean overlaps = false;
+            for (Block b : blocks) {
+                overlaps |= b.maxAt() >= from && b.minAt() < to;
+            }
+            if (!overlaps) {
+                continue;
+            }
+            Segment seg = Segment.read(segmentFile(s));
+            if (seg == null) {
+                continue;
+            }
+            for (int i = 0; i < blocks.size(); i++) {
+                Block b = blocks.get(i);
+                if (b.maxAt() < from || b.minAt() >= to) {
+                    continue;
+                }
+                decodedBlocks++;
+                long stop = i + 1 < blocks.size() ? blocks.get(i + 1).offset() : seg.bytes.length;
+                seg.decode(b.offset(), stop, e -> {
+                    if (e.at() >= from && e.at() < to) {
+                        sink.accept(e);
+                    }
+                });
+            }
+        }
+    }
+
+    /** The newest {@code n} records, oldest first - what a reattached tape shows. */
+    synchronized List<Event> tail(int n) {
+        Deque<List<Event>> newestFirst = new ArrayDeque<>();
+        int have = 0;
+        long[] seqs = segments();
+        for (int i = seqs.length - 1; i >= 0 && have < n; i--) {
+            Segment seg = Segment.read(segmentFile(seqs[i]));
+            if (seg == null) {
+                continue;
+            }
+            List<Event> events = new ArrayList<>();
+            seg.walk(null, events::add);
+            newestFirst.push(events);
+            have += events.size();
+        }
+        List<Event> all = new ArrayList<>(have);
+        newestFirst.forEach(all::addAll);
+        return all.size() > n ? new ArrayList<>(all.subList(all.size() - n, all.size())) : all;
+    }
+
+    synchronized int decodedBlocks() {
+        return decodedBlocks;
+    }
+
+    /** The index of segment {@code s}: its sidecar when sealed, else a fresh walk. */
+    private List<Block> blocksOf(long s) {
+        if (s == activeSeq && active != null) {
+            List<Block> live = new ArrayList<>(activeBlocks);
+            if (openCount > 0) {
+                live.add(new Block(openOffset, openMin, openMax));
+            }
+            return live;
+        }
+        List<Block> sealed = readIndex(s);
+        if (sealed != null) {
+            return sealed;
+        }
+        Segment seg = Segment.read(segmentFile(s));
+        if (seg == null) {
+            return null;
+        }
+        List<Block> blocks = new ArrayList<>();
+        seg.walk(blocks, null);
+        return blocks;
+    }
+
+    // ---- files ----
+
+    long[] segments() {
+        String[] names = dir.list((d, name) -> name.endsWith(".seg"));
+        if (names == null) {
+            return new long[0];
+        }
+        List<Long> seqs = new ArrayList<>();
+        for (String name : names) {
+            try {
+                seqs.add(Long.parseLong(name.substring(0, name.length() - 4)));
+            } catch (NumberFormatException ignored) {
+                // not ours
+            }
+        }
+        long[] out = seqs.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(out);
+        return out;
+    }
+
+    private File segmentFile(long seq) {
+        return new File(dir, String.format("%012d.seg", seq));
+    }
+
+    private File indexFile(long seq) {
+        return new File(dir, String.format("%012d.idx", seq));
+    }
+
+    private void writeIndex(long seq, List<Block> blocks) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream(8 + blocks.size() * 24);
+        DataOutputStream out = new DataOutputStream(buf);
+        out.writeInt(IDX_MAGIC);
+        out.writeInt(blocks.size());
+        for (Block b : blocks) {
+            out.writeLong(b.offset());
+            out.writeLong(b.minAt());
+            out.writeLong(b.maxAt());
+        }
+        File tmp = new File(dir, indexFile(seq).getName() + ".tmp");
+        Files.write(tmp.toPath(), buf.toByteArray());
+        Files.move(tmp.toPath(), indexFile(seq).toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private List<Block> readIndex(long seq) {
+        File f = indexFile(seq);
+        if (!f.isFile()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new java.io.ByteArrayInputStream(Files.readAllBytes(f.toPath())))) {
+            if (in.readInt() != IDX_MAGIC) {
+                return null;
+            }
+            int n = in.readInt();
+            List<Block> blocks = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                blocks.add(new Block(in.readLong(), in.readLong(), in.readLong()));
+            }
+            return blocks;
+        } catch (IOException | RuntimeException ex) {
+            return null; // a bad sidecar costs a walk, nothing more
+        }
+    }
+
+    // ---- the record format ----
+
+    static void encode(Event e, long base, ByteArrayOutputStream out) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream(32 + e.text().length());
+        writeVarLong(body, zigzag(e.at() - base));
+        writeString(body, e.device());
+        body.write(e.kind().ordinal());
+        writeVarLong(body, zigzag(e.durationMs()));
+        writeString(body, e.text());
+        byte[] bytes = body.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        writeVarLong(out, bytes.length);
+        out.writeBytes(bytes);
+        int c = (int) crc.getValue();
+        out.write(c >>> 24);
+        out.write(c >>> 16);
+        out.write(c >>> 8);
+        out.write(c);
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String s) {
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, b.length);
+        out.writeBytes(b);
+    }
+
+    /** One segment file in memory, decoded on demand. */
+    private static final class Segment {
+
+        final byte[] bytes;
+        final long base;
+
+        private Segment(byte[] bytes, long base) {
+            this.bytes = bytes;
+            this.base = base;
+        }
+
+        /** The file, or null when it is missing or not a segment. */
+        static Segment read(File f) {
+            try {
+                byte[] b = Files.readAllBytes(f.toPath());
+                ByteBuffer head = ByteBuffer.wrap(b);
+                if (b.length < HEADER || head.getInt() != MAGIC || head.get() != VERSION) {
+                    return null;
+                }
+                return new Segment(b, head.getLong());
+            } catch (IOException | RuntimeException ex) {
+                return null;
+            }
+        }
+
+        /**
+         * Decodes every whole record from the header on, noting blocks into
+         * {@code blocks} and events into {@code sink} (either may be null).
+         * Returns the offset just past the last whole record.
+         */
+        long walk(List<Block> blocks, Consumer<Event> sink) {
+            long[] span = new long[3];
+            int[] count = {0};
+            long end = decode(HEADER, bytes.length, e -> {
+                if (sink != null) {
+                    sink.accept(e);
+                }
+            }, (offset, e) -> {
+                if (blocks == null) {
+                    return;
+                }
+                if (count[0] == BLOCK) {
+                    blocks.add(new Block(span[0], span[1], span[2]));
+                    count[0] = 0;
+                }
+                if (count[0] == 0) {
+                    span[0] = offset;
+                    span[1] = e.at();
+                    span[2] = e.at();
+                }
+                span[1] = Math.min(span[1], e.at());
+                span[2] = Math.max(span[2], e.at());
+                count[0]++;
+            });
+            if (blocks != null && count[0] > 0) {
+                blocks.add(new Block(span[0], span[1], span[2]));
+            }
+            return end;
+        }
+
+        long decode(long from, long to, Consumer<Event> sink) {
+            return decode(from, to, sink, null);
+        }
+
+        private interface Positioned {
+            void at(long offset, Event e);
+        }
+
+        /** Decodes records in {@code [from, to)}; stops at the first torn or corrupt one. */
+        private long decode(long from, long to, Consumer<Event> sink, Positioned positions) {
+            int p = (int) from;
+            int limit = (int) Math.min(to, bytes.length);
+            int[] cursor = new int[1];
+            while (p < limit) {
+                cursor[0] = p;
+                long len = readVarLong(cursor, limit);
+                if (len < 0 || len > MAX_RECORD || cursor[0] + len + 4 > limit) {
+                    break;
+                }
+                int start = cursor[0];
+                int stop = start + (int) len;
+                CRC32 crc = new CRC32();
+                crc.update(bytes, start, (int) len);
+                int stored = ByteBuffer.wrap(bytes, stop, 4).getInt();
+                if (stored != (int) crc.getValue()) {
+                    break;
+                }
+                Event e = body(start, stop);
+                if (e == null) {
+                    break;
+                }
+                if (positions != null) {
+                    positions.at(p, e);
+                }
+                sink.accept(e);
+                p = stop + 4;
+            }
+            return p;
+        }
+
+        private Event body(int start, int stop) {
+            int[] c = {start};
+            long at = base + unzigzag(readVarLong(c, stop));
+            String device = readString(c, stop);
+            if (device == null || c[0] >= stop) {
+                return null;
+            }
+            int kind = bytes[c[0]++];
+            long ms = unzigzag(readVarLong(c, stop));
+            String text = readString(c, stop);
+            Kind[] kinds = Kind.values();
+            if (text == null || kind < 0 || kind >= kinds.length) {
+                return null;
+            }
+            return new Event(at, device, kinds[kind], text, ms);
+        }
+
+        private long readVarLong(int[] c, int limit) {
+            long v = 0;
+            for (int shift = 0; shift < 64 && c[0] < limit; shift += 7) {
+                byte b = bytes[c[0]++];
+                v |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return v;
+                }
+            }
+            return -1;
+        }
+
+        private String readString(int[] c, int limit) {
+            long len = readVarLong(c, limit);
+            if (len < 0 || c[0] + len > limit) {
+                return null;
+            }
+            String s = new String(bytes, c[0], (int) len, StandardCharsets.UTF_8);
+            c[0] += (int) len;
+            return s;
+        }
+    }
+}
@@ -0,0 +1,438 @@
+package org.nmox.studio.rack.engine;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Who imports whom in a JS/TS project — the map VERITAS's AFFECTED mode
+ * walks backwards from a save to the tests that can see it. Built by a
+ * static scan ({@code import … from}, bare {@code import '…'},
+ * {@code export … from}, dynamic {@code import('…')} and
+ * {@code require('…')}), no parser and no node: a specifier the regex
+ * over-matches (one in a comment) only adds an edge, and an extra edge
+ * only runs an extra test — the safe direction.
+ *
+ * <p>Specifiers resolve like the bundlers do: relative paths with
+ * extension and {@code index} probing (and a TS source answering for a
+ * {@code .js} specifier), plus the tsconfig/jsconfig {@code paths}
+ * aliases ({@code "@/*": ["src/*"]}) from the project root. Bare
+ * package names are not followed — node_modules is not the user's code.
+ *
+ * <p>Incremental: {@link #refresh()} stats the tree and re-reads only
+ * files whose mtime or size moved, so the second save in a TDD loop
+ * costs a directory walk, not three thousand file reads. Not
+ * thread-safe; the owner serializes calls.
+ */
+public final class ImportGraph {
+
+    /** Source extensions that are scanned for imports (and probed on resolve). */
+    static final List<String> SOURCES = List.of(
+            "ts", "tsx", "js", "jsx", "mjs", "cjs", "mts", "cts", "vue", "svelte");
+
+    /** Changed files that can change what EVERY test sees: a full run is the honest answer. */
+    private static final Pattern CONFIG = Pattern.compile(
+            "package\\.json|package-lock\\.json|yarn\\.lock|pnpm-lock\\.yaml|bun\\.lockb?"
+            + "|(?:jest|vitest|vite|babel|vitest\\.workspace|svelte|nuxt|next|astro)\\.config\\.[a-z]+"
+            + "|tsconfig(?:\\.[\\w-]+)?\\.json|jsconfig\\.json|\\.babelrc(?:\\.\\w+)?"
+            + "|(?:jest|vitest)\\.setup\\.[a-z]+|setupTests\\.[a-z]+|\\.env(?:\\.[\\w-]+)?");
+
+    private static final Pattern TEST = Pattern.compile("(?:\\.(?:test|spec)\\.[a-z]+$)");
+
+    /** Folders the runner reads test inputs from without any import: mocks and fixtures. */
+    private static final Set<String> TEST_INPUT_DIRS = Set.of("__mocks__", "__fixtures__", "fixtures");
+
+    /** Folders whose sources belong to the test side (setup, helpers, globals). */
+    private static final Set<String> TEST_DIRS = Set.of("test", "tests", "__tests__", "spec", "specs");
+
+    private static final Pattern SPECIFIERS = Pattern.compile(
+            "(?:\\bimport\\s*(?:[\\w*{}\\s,$]+?\\s*from\\s*)?|\\bexport\\s*[\\w*{}\\s,$]*?\\s*from\\s*"
+            + "|\\bimport\\s*\\(\\s*|\\brequire\\s*\\(\\s*)['\"]([^'\"\\n]+)['\"]");
+
+    private static final Set<String> SKIP_DIRS = Set.of(
+            "node_modules", ".git", "dist", "build", "target", "out",
+            ".next", ".nuxt", ".svelte-kit", "coverage", ".cache", ".idea", ".nmox");
+    private static final int MAX_FILES = 50_000;
+    private static final long MAX_BYTES = 2_000_000;
+
+    /**
+     * One scanned file: the stat it was read at, what it imports, and
+     * whether some project-looking specifier resolved to nothing (such a
+     * file is re-read when new files appear — the import may be one).
+     */
+    private record Node(long modified, long size, List<Path> imports, boolean dangling) {
+    }
+
+    /**
+     * What to run: everything ({@code full}, with the reason), or exactly
+     * {@code tests} — possibly none.
+     */
+    public record Plan(boolean full, String reason, List<Path> tests) {
+
+        static Plan full(String reason) {
+            return new Plan(true, reason, List.of());
+        }
+    }
+
+    private final Path root;
+    private final Map<Path, Node> nodes = new HashMap<>();
+    private Map<Path, Set<Path>> dependents = Map.of();
+    private Map<String, List<String>> aliases = Map.of();
+    private long aliasStamp = Long.MIN_VALUE;
+    private int reads;
+
+    public ImportGraph(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    /** The project root the graph was built over (absolute, normalized). */
+    public Path root() {
+        return root;
+    }
+
+    /**
+     * Brings the graph up to date with the tree: new and changed files
+     * are (re)read, vanished ones dropped, everything else kept.
+     * @return how many files were read this time
+     */
+    public int refresh() {
+        loadAliases();
+        Map<Path, BasicFileAttributes> seen = new LinkedHashMap<>();
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    String name = dir.getFileName() == null ? "" : dir.getFileName().toString();
+                    return !dir.equals(root) && (SKIP_DIRS.contains(name) || name.startsWith("."))
+                            ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && isSource(file)) {
+                        seen.put(file, attrs);
+                    }
+                    return seen.size() >= MAX_FILES ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            // a tree we cannot walk keeps the graph we had
+        }
+        int read = 0;
+        boolean changed = nodes.keySet().retainAll(seen.keySet());
+        boolean added = !nodes.keySet().containsAll(seen.keySet());
+        for (Map.Entry<Path, BasicFileAttributes> e : seen.entrySet()) {
+            long modified = e.getValue().lastModifiedTime().toMillis();
+            long size = e.getValue().size();
+            Node had = nodes.get(e.getKey());
+            if (had != null && had.modified() == modified && had.size() == size
+                    && !(added && had.dangling())) {
+                continue;
+            }
+            nodes.put(e.getKey(), scan(e.getKey(), modified, size));
+            read++;
+            changed = true;
+        }
+        if (changed || dependents.isEmpty()) {
+            rebuildDependents();
+        }
+        reads += read;
+        return read;
+    }
+
+    private void rebuildDependents() {
+        Map<Path, Set<Path>> reverse = new HashMap<>();
+        nodes.forEach((file, node) -> {
+            for (Path dep : node.imports()) {
+                reverse.computeIfAbsent(dep, k -> new HashSet<>()).add(file);
+            }
+        });
+        dependents = reverse;
+    }
+
+    private Node scan(Path file, long modified, long size) {
+        if (size > MAX_BYTES) {
+            // a vendored bundle, not a module worth mapping
+            return new Node(modified, size, List.of(), false);
+        }
+        String text;
+        try {
+            text = Files.readString(file, StandardCharsets.UTF_8);
+        } catch (IOException | RuntimeException e) {
+            return new Node(modified, size, List.of(), true);
+        }
+        List<Path> out = new ArrayList<>();
+        boolean dangling = false;
+        Matcher m = SPECIFIERS.matcher(text);
+        while (m.find()) {
+            String spec = m.group(1);
+            Path target = resolve(file, spec);
+            if (target != null && !out.contains(target)) {
+                out.add(target);
+            } else if (target == null && (spec.startsWith(".") || isAliased(spec))) {
+                dangling = true;
+            }
+        }
+        return new Node(modified, size, List.copyOf(out), dangling);
+    }
+
+    private boolean isAliased(String spec) {
+        for (String key : aliases.keySet()) {
+            if (key.endsWith("*") ? spec.startsWith(key.substring(0, key.length() - 1)) : spec.equals(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** The project file {@code specifier} names from {@code from}, or null (a package, or nothing). */
+    Path resolve(Path from, String specifier) {
+        String spec = specifier.split("[?#]", 2)[0];
+        if (spec.startsWith("./") || spec.startsWith("../") || spec.equals(".") || spec.equals("..")) {
+            return probe(from.getParent().resolve(spec).normalize());
+        }
+        if (spec.startsWith("/")) {
+            return null;
+        }
+        for (Map.Entry<String, List<String>> alias : aliases.entrySet()) {
+            String key = alias.getKey();
+            boolean wildcard = key.endsWith("*");
+            String prefix = wildcard ? key.substring(0, key.length() - 1) : key;
+            if (wildcard ? spec.startsWith(prefix) : spec.equals(key)) {
+                String rest = wildcard ? spec.substring(prefix.length()) : "";
+                for (String target : alias.getValue()) {
+                    Path hit = probe(root.resolve(target.replace("*", rest)).normalize());
+                    if (hit != null) {
+                        return hit;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static Path probe(Path base) {
+        if (Files.isRegularFile(base)) {
+            return base;
+        }
+        String name = base.getFileName() == null ? "" : base.getFileName().toString();
+        // TS ESM: './util.js' names util.ts
+        int dot = name.lastIndexOf('.');
+        if (dot > 0 && SOURCES.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT))) {
+            String stem = name.substring(0, dot);
+            for (String ext : SOURCES) {
+                Path sibling = base.resolveSibling(stem + "." + ext);
+                if (Files.isRegularFile(sibling)) {
+                    return sibling;
+                }
+            }
+        }
+        for (String ext : SOURCES) {
+            Path withExt = base.resolveSibling(name + "." + ext);
+            if (Files.isRegularFile(withExt)) {
+                return withExt;
+            }
+        }
+        if (Files.isDirectory(base)) {
+            for (String ext : SOURCES) {
+                Path index = base.resolve("index." + ext);
+                if (Files.isRegularFile(index)) {
+                    return index;
+                }
+            }
+        }
+        return null;
+    }
+
+    /** Reads {@code compilerOptions.paths} (with baseUrl) from tsconfig.json or jsconfig.json, when they change. */
+    private void loadAliases() {
+        Path config = Files.isRegularFile(root.resolve("tsconfig.json"))
+                ? root.resolve("tsconfig.json") : root.resolve("jsconfig.json");
+        long stamp;
+        try {
+            stamp = Files.isRegularFile(config) ? Files.getLastModifiedTime(config).toMillis() : -1;
+        } catch (IOException e) {
+            stamp = -1;
+        }
+        if (stamp == aliasStamp) {
+            return;
+        }
+        if (aliasStamp != Long.MIN_VALUE) {
+            nodes.clear(); // every alias resolution may have moved: re-read all
+        }
+        aliasStamp = stamp;
+        Map<String, List<String>> parsed = new LinkedHashMap<>();
+        if (stamp >= 0) {
+            try {
+                // tsconfig is JSONC: drop line comments and trailing commas before parsing
+                String text = Files.readString(config, StandardCharsets.UTF_8)
+                        .replaceAll("(?m)^\\s*//.*$", "")
+                        .replaceAll(",(\\s*[}\\]])", "$1");
+                org.json.JSONObject options = new org.json.JSONObject(text)
+                        .optJSONObject("compilerOptions");
+                org.json.JSONObject paths = options == null ? null : options.optJSONObject("paths");
+                String base = options == null ? "." : options.optString("baseUrl", ".");
+                if (paths != null) {
+                    for (String key : paths.keySet()) {
+                        org.json.JSONArray targets = paths.optJSONArray(key);
+                        List<String> list = new ArrayList<>();
+                        for (int i = 0; targets != null && i < targets.length(); i++) {
+                            list.add(base + "/" + targets.optString(i));
+                        }
+                        parsed.put(key, list);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // unreadable config: no aliases (AFFECTED then over-runs, never under-runs — see plan)
+            }
+        }
+        aliases = parsed;
+    }
+
+    /** Whether the graph tracks this file's imports (a JS/TS-family source). */
+    static boolean isSource(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && SOURCES.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /** jest/vitest's default test naming: {@code *.test.*}, {@code *.spec.*}, or under {@code __tests__}. */
+    public static boolean isTest(Path file) {
+        String name = file.getFileName().toString();
+        if (TEST.matcher(name).find()) {
+            return true;
+        }
+        for (Path part : file) {
+            if (part.toString().equals("__tests__")) {
+                return isSource(file);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the runner may read this file with no import the scan could
+     * follow: anything under {@code __mocks__} or a fixtures folder, and a
+     * JS/TS source named for setup or kept in a test folder (the
+     * {@code setupFiles} a config names, shared test helpers).
+     */
+    boolean isTestInput(Path file) {
+        Path rel = file.startsWith(root) ? root.relativize(file) : file;
+        for (Path part : rel) {
+            if (TEST_INPUT_DIRS.contains(part.toString())) {
+                return true;
+            }
+        }
+        if (!isSource(file)) {
+            return false;
+        }
+        if (file.getFileName().toString().toLowerCase(Locale.ROOT).contains("setup")) {
+            return true;
+        }
+        for (int i = 0; i < rel.getNameCount() - 1; i++) {
+            if (TEST_DIRS.contains(rel.getName(i).toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** Whether a change to this file invalidates the whole suite. */
+    public static boolean isConfig(Path file) {
+        return CONFIG.matcher(file.getFileName().toString()).matches();
+    }
+
+    /**
+     * Every test that transitively imports any of {@code changed} (a
+     * changed test is affected by itself), sorted. Files outside the
+     * graph (a README, a deleted module) reach nothing by themselves.
+     */
+    public List<Path> affectedTests(Collection<Path> changed) {
+        Set<Path> seen = new HashSet<>();
+        ArrayDeque<Path> queue = new ArrayDeque<>();
+        for (Path p : changed) {
+            Path abs = p.toAbsolutePath().normalize();
+            if (seen.add(abs)) {
+                queue.add(abs);
+            }
+        }
+        TreeSet<Path> tests = new TreeSet<>();
+        while (!queue.isEmpty()) {
+            Path file = queue.poll();
+            if (isTest(file) && nodes.containsKey(file)) {
+                tests.add(file);
+            }
+            for (Path dependent : dependents.getOrDefault(file, Set.of())) {
+                if (seen.add(dependent)) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        return new ArrayList<>(tests);
+    }
+
+    /**
+     * The AFFECTED decision for one save burst: a full run whenever the
+     * graph cannot be trusted to answer — no changes known, or a config,
+     * lockfile or env file moved, or a changed test input has no
+     * importers in the graph (see {@link #isTestInput}: the runner reaches
+     * it by a path the scan cannot see) — or when so many tests are
+     * affected that naming them buys nothing. Anything else nothing
+     * imports (docs, styles, tool caches, an app entry) reaches no test.
+     * @param cap most tests worth naming on a command line; past it, run all
+     */
+    public Plan plan(Collection<Path> changed, int cap) {
+        if (changed.isEmpty()) {
+            return Plan.full("no changes known yet");
+        }
+        for (Path p : changed) {
+            if (isConfig(p)) {
+                return Plan.full(p.getFileName() + " changed");
+            }
+        }
+        refresh();
+        for (Path p : changed) {
+            Path abs = p.toAbsolutePath().normalize();
+            if (!isTest(abs) && isTestInput(abs) && dependents.getOrDefault(abs, Set.of()).isEmpty()) {
+                return Plan.full(abs.getFileName() + " has no importers");
+            }
+        }
+        List<Path> tests = affectedTests(changed);
+        if (tests.size() > cap) {
+            return Plan.full(tests.size() + " affected — over " + cap);
+        }
+        return new Plan(false, tests.size() + " affected", tests);
+    }
+
+    /** Files currently mapped. */
+    public int size() {
+        return nodes.size();
+    }
+
+    /** Files read since construction — the incremental-refresh witness. */
+    public int reads() {
+        return reads;
+    }
+}
@@ -0,0 +1,330 @@
+package org.nmox.studio.rack.engine;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+/**
+ * The skip cache behind a command device's CACHE switch: "did any input
+ * of this exact run change since the tool last answered?" A run's
+ * fingerprint is a SHA-256 over the command line, the working
+ * directory, the launch environment and every declared input file's
+ * path, size and content checksum; a fingerprint seen before replays
+ * that run's exit code and output instead of spawning the tool again.
+ *
+ * <p>Content checksums are CRC32C (a JDK intrinsic — gigabytes a second)
+ * behind a stat cache: a file whose size and mtime have not moved since
+ * it was last summed is not read again, so the common "nothing changed"
+ * answer costs one directory walk. A file modified within
+ * {@link #RACY_MS} of being summed is re-read next time anyway (the
+ * racy-git rule — a same-tick edit leaves the stat untouched).
+ *
+ * <p>Declared OUTPUTS (a bundler's dist/) are stamped by stat when a
+ * run is stored; a hit whose outputs have since changed or vanished is
+ * a miss — a replayed OK must never stand in for a deleted build. The
+ * store is a small JSON file under the project's {@code .nmox/}, the
+ * newest {@link #ENTRIES} runs, so the cache survives restarts. Never
+ * throws: an unreadable tree or store means "run it for real".
+ */
+public final class RunCache {
+
+    /** Runs remembered per store (per device type). */
+    static final int ENTRIES = 8;
+    /** A run printing more lines than this is not worth replaying from disk. */
+    public static final int MAX_LINES = 5_000;
+    /** More input files than this and the walk costs what the tool does: no caching. */
+    static final int MAX_FILES = 50_000;
+    /** Stat entries younger than this are re-summed on the next walk. */
+    static final long RACY_MS = 2_000;
+
+    /**
+     * Inputs every tool run shares: the manifests and lockfiles that pin
+     * the tool's own version, and the dotenv files the launch loads.
+     */
+    static final List<String> ALWAYS = List.of(
+            "package.json", "package-lock.json", "yarn.lock", "pnpm-lock.yaml",
+            "bun.lock", "bun.lockb", ".env*", ".tool-versions", ".nvmrc", ".node-version");
+
+    private static final Set<String> SKIP_DIRS = Set.of(
+            "node_modules", "dist", "build", "target", "out", "coverage", "vendor", "__pycache__");
+
+    /**
+     * What a device's run depends on: {@code globs} relative to the
+     * command directory ({@code **}{@code /} also matches at the top),
+     * and {@code outputs} — files or directories the run produces.
+     */
+    public record Inputs(List<String> globs, List<String> outputs) {
+
+        public Inputs {
+            globs = List.copyOf(globs);
+            outputs = List.copyOf(outputs);
+        }
+    }
+
+    /** A remembered run: what it exited with and what it printed. */
+    public record Result(int exitCode, List<String> lines) {
+    }
+
+    private record Stat(long size, long modified, long crc, boolean trusted) {
+    }
+
+    private record Entry(String key, int exitCode, String outputs, List<String> lines) {
+    }
+
+    private final Path root;
+    private final Path store;
+    private final Map<Path, Stat> stats = new HashMap<>();
+    private List<Entry> entries;
+    private int summed;
+
+    /**
+     * @param root  the command directory the globs are relative to
+     * @param store the JSON file remembered runs live in
+     */
+    public RunCache(Path root, Path store) {
+        this.root = root.toAbsolutePath().normalize();
+        this.store = store;
+    }
+
+    public Path root() {
+        return root;
+    }
+
+    /**
+     * This run's fingerprint, or null when it cannot be taken (too many
+     * files, an unreadable tree) — null means "always run".
+     */
+    public synchronized String fingerprint(Inputs inputs, List<String> command, Map<String, String> env) {
+        Map<String, Path> files = walk(inputs.globs());
+        if (files == null) {
+            return null;
+        }
+        stats.keySet().retainAll(new java.util.HashSet<>(files.values())); // forget deleted files
+        MessageDigest sha = sha256();
+        feed(sha, String.join("\0", command));
+        feed(sha, root.toString());
+        new TreeMap<>(env).forEach((k, v) -> feed(sha, k + "=" + v));
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Path> f : files.entrySet()) {
+            Stat stat = sum(f.getValue(), now);
+            if (stat == null) {
+                return null;
+            }
+            feed(sha, f.getKey() + ":" + stat.size() + ":" + Long.toHexString(stat.crc()));
+        }
+        return HexFormat.of().formatHex(sha.digest());
+    }
+
+    /** The remembered run for this fingerprint, provided its outputs are as it left them. */
+    public synchronized Result lookup(String key, Inputs inputs) {
+        for (Entry e : entries()) {
+            if (e.key().equals(key)) {
+                return e.outputs().equals(outputsStamp(inputs)) ? new Result(e.exitCode(), e.lines()) : null;
+            }
+        }
+        return null;
+    }
+
+    /** Remembers a finished run (newest first; the oldest beyond {@link #ENTRIES} is forgotten). */
+    public synchronized void store(String key, Inputs inputs, int exitCode, List<String> lines) {
+        if (lines.size() > MAX_LINES) {
+            return;
+        }
+        List<Entry> list = entries();
+        list.removeIf(e -> e.key().equals(key));
+        list.add(0, new Entry(key, exitCode, outputsStamp(inputs), List.copyOf(lines)));
+        while (list.size() > ENTRIES) {
+            list.remove(list.size() - 1);
+        }
+        save(list);
+    }
+
+    /** Files content-summed since construction — the stat cache's witness. */
+    public synchronized int summed() {
+        return summed;
+    }
+
+    /** A stat-only digest of the declared outputs ("" when none exist). */
+    private String outputsStamp(Inputs inputs) {
+        if (inputs.outputs().isEmpty()) {
+            return "";
+        }
+        MessageDigest sha = sha256();
+        boolean any = false;
+        for (String out : inputs.outputs()) {
+            Path p = root.resolve(out);
+            if (!Files.exists(p)) {
+                continue;
+            }
+            any = true;
+            try (var stream = Files.walk(p)) {
+                List<Path> sorted = new ArrayList<>(stream.filter(Files::isRegularFile).limit(MAX_FILES).toList());
+                sorted.sort(null);
+                for (Path f : sorted) {
+                    feed(sha, root.relativize(f) + ":" + Files.size(f) + ":"
+                            + Files.getLastModifiedTime(f).toMillis());
+                }
+            } catch (IOException | RuntimeException e) {
+                feed(sha, out + ":unreadable:" + System.nanoTime()); // never matches
+            }
+        }
+        return any ? HexFormat.of().formatHex(sha.digest()) : "";
+    }
+
+    /** The matching files, keyed (and so ordered) by '/'-separated relative path; null past the cap. */
+    private Map<String, Path> walk(List<String> globs) {
+        List<PathMatcher> matchers = new ArrayList<>();
+        List<String> all = new ArrayList<>(globs);
+        all.addAll(ALWAYS);
+        for (String glob : all) {
+            matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+            if (glob.startsWith("**/")) {
+                matchers.add(FileSystems.getDefault().getPathMatcher("glob:" + glob.substring(3)));
+            }
+        }
+        TreeMap<String, Path> out = new TreeMap<>();
+        boolean[] overflow = {false};
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (dir.equals(root)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    String name = dir.getFileName().toString();
+                    return SKIP_DIRS.contains(name) || name.startsWith(".")
+                            ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!attrs.isRegularFile()) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    Path rel = root.relativize(file);
+                    for (PathMatcher m : matchers) {
+                        if (m.matches(rel)) {
+                            out.put(rel.toString().replace('\\', '/'), file);
+                            break;
+                        }
+                    }
+                    if (out.size() > MAX_FILES) {
+                        overflow[0] = true;
+                        return FileVisitResult.TERMINATE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            return null;
+        }
+        return overflow[0] ? null : out;
+    }
+
+    private Stat sum(Path file, long now) {
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+            long size = attrs.size();
+            long modified = attrs.lastModifiedTime().toMillis();
+            Stat had = stats.get(file);
+            if (had != null && had.trusted() && had.size() == size && had.modified() == modified) {
+                return had;
+            }
+            CRC32C crc = new CRC32C();
+            byte[] buf = new byte[64 * 1024];
+            try (InputStream in = Files.newInputStream(file)) {
+                for (int n = in.read(buf); n > 0; n = in.read(buf)) {
+                    crc.update(buf, 0, n);
+                }
+            }
+            summed++;
+            Stat stat = new Stat(size, modified, crc.getValue(), now - modified > RACY_MS);
+            stats.put(file, stat);
+            return stat;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private List<Entry> entries() {
+        if (entries == null) {
+            entries = load();
+        }
+        return entries;
+    }
+
+    private List<Entry> load() {
+        List<Entry> list = new ArrayList<>();
+        try {
+            if (!Files.isRegularFile(store)) {
+                return list;
+            }
+            org.json.JSONArray runs = new org.json.JSONObject(
+                    Files.readString(store, StandardCharsets.UTF_8)).optJSONArray("runs");
+            for (int i = 0; runs != null && i < runs.length() && list.size() < ENTRIES; i++) {
+                org.json.JSONObject o = runs.getJSONObject(i);
+                org.json.JSONArray lines = o.getJSONArray("lines");
+                List<String> text = new ArrayList<>(lines.length());
+                for (int j = 0; j < lines.length(); j++) {
+                    text.add(lines.getString(j));
+                }
+                list.add(new Entry(o.getString("key"), o.getInt("exit"), o.optString("outputs", ""), text));
+            }
+        } catch (IOException | RuntimeException e) {
+            list.clear(); // a corrupt store is an empty cache
+        }
+        return list;
+    }
+
+    private void save(List<Entry> list) {
+        org.json.JSONArray runs = new org.json.JSONArray();
+        for (Entry e : list) {
+            runs.put(new org.json.JSONObject().put("key", e.key()).put("exit", e.exitCode())
+                    .put("outputs", e.outputs()).put("lines", new org.json.JSONArray(e.lines())));
+        }
+        try {
+            Files.createDirectories(store.getParent());
+            Path tmp = store.resolveSibling(store.getFileName() + ".tmp");
+            Files.writeString(tmp, new org.json.JSONObject().put("runs", runs).toString(), StandardCharsets.UTF_8);
+            Files.move(tmp, store, java.nio.file.StandardCopyOption.REPLACE_EXISTING,
+                    java.nio.file.StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            // the in-memory entries still serve this session
+        }
+    }
+
+    private static void feed(MessageDigest sha, String s) {
+        sha.update(s.getBytes(StandardCharsets.UTF_8));
+        sha.update((byte) 0);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("every JRE ships SHA-256", e);
+        }
+    }
+}
@@ -27,6 +27,12 @@ public final class Rack {
         default void cablesChanged() { }
         /** A signal travelled down a cable (for cable-flash animation). */
         default void signalTravelled(Cable cable) { }
+        /**
+         * A device emitted from an OUT port, cabled or not — called on the
+         * emitting thread before fan-out. The headless runner reads
+         * verdicts here: a last stage's DONE goes nowhere but still counts.
+         */
+        default void signalEmitted(Port out, Signal signal) { }
         /** Project directory changed. */
         default void projectChanged() { }
     }
@@ -488,6 +494,9 @@ public final class Rack {
         if (out == null || out.getDirection() != Port.Direction.OUT) {
             return;
         }
+        for (Listener l : listeners) {
+            l.signalEmitted(out, signal);
+        }
         List<Cable> targets;
         synchronized (this) {
             targets = new ArrayList<>();
@@ -515,7 +524,11 @@ public final class Rack {
                     return; // removed while this signal sat in the router queue
                 }
                 try {
-                    target.receive(c.getTo(), signal);
+                    if (signal.isBatch()) {
+                        target.receiveBatch(c.getTo(), signal);
+                    } else {
+                        target.receive(c.getTo(), signal);
+                    }
                 } catch (RuntimeException ex) {
                     java.util.logging.Logger.getLogger(Rack.class.getName())
                             .warning("Device " + target.getTitle() + " failed on signal: " + ex);
@@ -141,7 +141,7 @@ public abstract class RackDevice extends JPanel {
      * get " ·2", " ·3"… Assigned once at first attach and kept for the
      * instance's life, so undo re-attach never renames a running lane.
      */
-    protected final String busName() {
+    public final String busName() {
         return busName != null ? busName : title;
     }
 
@@ -331,6 +331,22 @@ public abstract class RackDevice extends JPanel {
     public void receive(Port in, Signal signal) {
     }
 
+    /**
+     * Receives a DATA {@link Signal#batch} on an input port, on the rack
+     * router thread. The default unrolls it into {@link #receive} one
+     * line at a time, in order, so a device that only handles single
+     * lines sees exactly what it always did; high-volume sinks override
+     * this to take the chunk in one go.
+     */
+    public void receiveBatch(Port in, Signal batch) {
+        for (String line : batch.lines()) {
+            if (isDisposed()) {
+                return; // removed mid-chunk: the rest must not wake it
+            }
+            receive(in, Signal.data(line));
+        }
+    }
+
     // ---- command execution ----
 
     /**
@@ -553,6 +569,16 @@ public abstract class RackDevice extends JPanel {
         return h != null && h.isAlive();
     }
 
+    /**
+     * True while this device has work in flight that will end in its own
+     * time — a process, or anything it launches after a pause. The
+     * headless runner waits on this, not on {@link #isLive()}, so a run
+     * still deciding whether to spawn is not mistaken for a finished one.
+     */
+    public boolean isBusy() {
+        return isLive();
+    }
+
     /**
      * Whether session resurrection should bring this device back after a
      * crash. Process devices tie it to {@link #isLive()}; timer devices
@@ -666,6 +692,85 @@ public abstract class RackDevice extends JPanel {
         }
     }
 
+    // ---- face realization ----
+
+    /**
+     * True while the controls are in this device's component tree — the
+     * default, and all a device built outside a rack panel ever sees.
+     */
+    public boolean isFaceRealized() {
+        return dormantFace == null;
+    }
+
+    /**
+     * Takes the controls out of the component tree while keeping them,
+     * and their values, for {@link #realizeFace}. The rack panel calls
+     * this for devices scrolled well out of sight: off the tree a control
+     * holds no tooltip registration, blink timer or meter animation, and
+     * costs nothing in layout or paint — on a 60-device rack, most of
+     * the faceplates. The DEVICE stays: it keeps its size and position
+     * (cable geometry and hit-testing are unchanged), still paints its
+     * chrome and patch bay, and everything that is not face — params
+     * via {@link #getState}, ports, signals, its process — runs exactly
+     * as before, because a control off the tree is still the param's
+     * store. What the face holds only to be SEEN goes too: every
+     * {@link LcdDisplay} stops spending frames on glass nobody looks at,
+     * and {@link #faceReleased} lets a device drop its own view state.
+     * EDT only, like any component surgery.
+     */
+    public void releaseFace() {
+        if (dormantFace != null) {
+            return;
+        }
+        dormantFace = getComponents();
+        removeAll();
+        setLcdsDormant(dormantFace, true);
+        faceReleased();
+        repaint();
+    }
+
+    /** Puts released controls back where they were, facing the current side. */
+    public void realizeFace() {
+        Component[] face = dormantFace;
+        if (face == null) {
+            return;
+        }
+        dormantFace = null;
+        faceRealized();
+        for (Component c : face) {
+            c.setVisible(front);
+            add(c);
+        }
+        setLcdsDormant(face, false);
+        repaint();
+    }
+
+    /**
+     * Called by {@link #releaseFace} once the controls are off the tree:
+     * drop whatever exists only to be looked at (a view over a model the
+     * device keeps) and rebuild it in {@link #faceRealized}. Param
+     * controls must stay — they are the device's state.
+     */
+    protected void faceReleased() {
+    }
+
+    /** Called by {@link #realizeFace} before the controls go back on the tree. */
+    protected void faceRealized() {
+    }
+
+    private static void setLcdsDormant(Component[] face, boolean dormant) {
+        for (Component c : face) {
+            if (c instanceof LcdDisplay lcd) {
+                lcd.setDormant(dormant);
+            } else if (c instanceof java.awt.Container box) {
+                setLcdsDormant(box.getComponents(), dormant);
+            }
+        }
+    }
+
+    /** The controls {@link #releaseFace} took out; null while realized. */
+    private Component[] dormantFace;
+
     /** The draggable grip on the faceplate (used for rack reordering). */
     public boolean isGrip(Point p) {
         return front && p.y < 24 && p.x > RackStyle.EAR_WIDTH && p.x < getWidth() - RackStyle.EAR_WIDTH;
@@ -1,14 +1,25 @@
 package org.nmox.studio.rack.model;
 
+import java.util.List;
+
 /**
  * A value travelling down a patch cable.
  *
  * @param type the signal kind (must match the emitting port's type)
- * @param payload text payload for DATA signals, or a short event note
+ * @param payload text payload for DATA signals, or a short event note;
+ *                empty for a batch, whose text is {@code lines}
  * @param high for GATE signals: true = gate opened, false = closed.
  *             For TRIGGER signals: true = success-ish, false = failure-ish.
+ * @param lines for a DATA batch ({@link #batch}): the chunk of lines, in
+ *              emission order; null for every other signal
+ * @param seq for a DATA batch: the emitting port's batch number, from 1
+ *            and without gaps; 0 for every other signal
  */
-public record Signal(SignalType type, String payload, boolean high) {
+public record Signal(SignalType type, String payload, boolean high, List<String> lines, long seq) {
+
+    public Signal(SignalType type, String payload, boolean high) {
+        this(type, payload, high, null, 0);
+    }
 
     public static Signal trigger() {
         return new Signal(SignalType.TRIGGER, "", true);
@@ -22,7 +33,22 @@ public record Signal(SignalType type, String payload, boolean high) {
         return new Signal(SignalType.DATA, payload, true);
     }
 
+    /**
+     * A chunk of DATA lines as ONE signal: one router task and one
+     * delivery for what would otherwise be a task per line. Receivers
+     * that never heard of batches still see single lines — the rack
+     * unrolls at delivery ({@link RackDevice#receiveBatch}).
+     */
+    public static Signal batch(List<String> lines, long seq) {
+        return new Signal(SignalType.DATA, "", true, List.copyOf(lines), seq);
+    }
+
     public static Signal gate(boolean high) {
         return new Signal(SignalType.GATE, "", high);
     }
+
+    /** True for a {@link #batch}: read {@link #lines}, not {@link #payload}. */
+    public boolean isBatch() {
+        return lines != null;
+    }
 }
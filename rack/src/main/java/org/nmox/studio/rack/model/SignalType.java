@@ -13,7 +13,10 @@ public enum SignalType {
     TRIGGER(new Color[]{
         new Color(225, 70, 60), new Color(240, 130, 40), new Color(200, 50, 110)
     }),
-    /** A stream of text payloads (process output lines, results). */
+    /**
+     * A stream of text payloads (process output lines, results) - one
+     * line per signal, or a chunk of them as one {@link Signal#batch}.
+     */
     DATA(new Color[]{
         new Color(235, 200, 50), new Color(110, 200, 70), new Color(170, 220, 60)
     }),
@@ -5,7 +5,12 @@ import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import org.nmox.studio.core.process.ProcessSupport;
+import org.openide.util.RequestProcessor;
 
 /**
  * The environment doctor: one honest answer to "what does this machine
@@ -15,14 +20,52 @@ import org.nmox.studio.core.process.ProcessSupport;
  * when its own tool is missing. This sweeps them all at once: each
  * tool is probed with {@code --version} through the same hardened
  * launcher the devices use, so the verdict here is the verdict there.
+ *
+ * <p>A checkup used to be ninety launches one after another — a single
+ * slow JVM or Ruby shim held every row behind it. Now {@link #sweep}
+ * runs the probes {@value #SWEEP_WIDTH} at a time and hands each
+ * finding over the moment it lands, and every answer is remembered
+ * against the binary that gave it ({@link ProbeCache}: real path, mtime,
+ * size). A repeat checkup costs a stat per tool until the binary
+ * actually changes.
  */
 public final class EnvironmentDoctor {
 
+    /** Probes in flight at once: enough to hide slow starters, few enough not to thrash. */
+    static final int SWEEP_WIDTH = 8;
+
+    private static final RequestProcessor PROBES =
+            new RequestProcessor("Environment Doctor", SWEEP_WIDTH);
+
+    private static final ProbeCache CACHE = ProbeCache.userDefault();
+
+    /** A raw probe's verdict, and whether it is settled enough to remember. */
+    private record Outcome(Finding finding, boolean settled) {
+    }
+
     /** One probed tool: found (with its version line) or missing (with the fix). */
     public record Finding(String tool, String purpose, boolean found,
             String detail, String installHint) {
     }
 
+    /**
+     * One row of a {@link #sweep}: the tool it answers for, and the probe.
+     * The tool travels beside the probe so a probe that throws still gets
+     * its row — a failed one, under its own name.
+     */
+    public record Probe(String tool, String purpose, String installHint, Supplier<Finding> run) {
+
+        /** A checklist row, probed with its version command. */
+        public static Probe of(String tool, String purpose, String installHint) {
+            return new Probe(tool, purpose, installHint, () -> probe(tool, purpose, installHint));
+        }
+
+        /** The row for a probe that threw: not found, and why. */
+        Finding failed(String why) {
+            return new Finding(tool, purpose, false, "probe failed — " + why, installHint);
+        }
+    }
+
     private EnvironmentDoctor() {
     }
 
@@ -145,7 +188,47 @@ public final class EnvironmentDoctor {
      * a tool that launches but dislikes --version still counts as found.
      */
     public static Finding probe(String tool, String purpose, String installHint) {
-        return probeWith(tool, purpose, installHint, versionCommand(tool));
+        return probeCached(CACHE, tool, purpose, installHint, versionCommand(tool));
+    }
+
+    /** Forgets every remembered answer; the next probe of each tool runs live. */
+    public static void forget() {
+        CACHE.clear();
+    }
+
+    /**
+     * Runs {@code probes} concurrently, {@value #SWEEP_WIDTH} at a time,
+     * and hands each finding to {@code onFinding} as it completes —
+     * completion order, not list order. Every callback runs on the
+     * calling thread, one at a time, so the consumer needs no locking.
+     * Every probe is heard exactly once: one that throws is reported as
+     * a failed finding for its tool, so a consumer counting to
+     * {@code probes.size()} always gets there. Blocks until all are in;
+     * an interrupt stops the wait and leaves the stragglers to finish
+     * unheard.
+     */
+    public static void sweep(List<Probe> probes, Consumer<Finding> onFinding) {
+        BlockingQueue<Finding> landed = new LinkedBlockingQueue<>();
+        for (Probe probe : probes) {
+            PROBES.post(() -> {
+                Finding f = null;
+                try {
+                    f = probe.run().get();
+                } catch (RuntimeException e) {
+                    f = probe.failed(e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+                } finally {
+                    // a probe that dies must not stall the count, nor go unsaid
+                    landed.add(f != null ? f : probe.failed("no answer"));
+                }
+            });
+        }
+        try {
+            for (int i = 0; i < probes.size(); i++) {
+                onFinding.accept(landed.take());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
     }
 
     /**
@@ -157,7 +240,7 @@ public final class EnvironmentDoctor {
      * anything else before this is ever called.
      */
     public static Finding probeCustom(UserProbes.Custom custom) {
-        return probeWith(custom.tool(), custom.purpose() + " · yours",
+        return probeCached(CACHE, custom.tool(), custom.purpose() + " · yours",
                 custom.install(), customCommand(custom.tool(), custom.args()));
     }
 
@@ -187,6 +270,27 @@ public final class EnvironmentDoctor {
         };
     }
 
+    /**
+     * A probe through {@code cache}: the remembered answer while the
+     * binary's stamp holds, else a live run that is remembered unless it
+     * timed out or was interrupted (a loaded machine's 4s stall is not
+     * the tool's verdict). The stamp is taken BEFORE the run, so a
+     * binary replaced mid-probe just misses next time.
+     */
+    static Finding probeCached(ProbeCache cache, String tool, String purpose,
+            String installHint, List<String> versionCmd) {
+        ProbeCache.Stamp stamp = ProbeCache.stamp(tool);
+        ProbeCache.Entry hit = cache.lookup(versionCmd, stamp);
+        if (hit != null) {
+            return new Finding(tool, purpose, hit.found(), hit.detail(), installHint);
+        }
+        Outcome outcome = run(tool, purpose, installHint, versionCmd);
+        if (outcome.settled()) {
+            cache.store(versionCmd, stamp, outcome.finding().found(), outcome.finding().detail());
+        }
+        return outcome.finding();
+    }
+
     /**
      * Runs one already-resolved version command under the 4s leash. Package
      * private so a test can inject a command that launches, prints, then holds
@@ -195,11 +299,16 @@ public final class EnvironmentDoctor {
      */
     static Finding probeWith(String tool, String purpose, String installHint,
             List<String> versionCmd) {
+        return run(tool, purpose, installHint, versionCmd).finding();
+    }
+
+    private static Outcome run(String tool, String purpose, String installHint,
+            List<String> versionCmd) {
         try {
             // runBounded drains both streams on their own threads while
             // waitFor runs FIRST — a tool that launches, prints nothing, and
-            // holds its pipe open still hits the 4s leash instead of hanging
-            // this whole sequential sweep. (The old hand-rolled probe read to
+            // holds its pipe open still hits the 4s leash instead of holding
+            // one of the sweep's slots forever. (The old hand-rolled probe read to
             // EOF before waitFor, so the timeout was unreachable.) The version
             // line lands on stdout for most tools and stderr for the holdouts
             // (nginx -v, apachectl -v), so we take the first non-blank of each.
@@ -209,13 +318,15 @@ public final class EnvironmentDoctor {
             if (firstLine.isBlank()) {
                 firstLine = firstNonBlankLine(r.stderr());
             }
-            return new Finding(tool, purpose, true,
-                    detailFor(r.exitCode(), firstLine), installHint);
+            return new Outcome(new Finding(tool, purpose, true,
+                    detailFor(r.exitCode(), firstLine), installHint), !r.timedOut());
         } catch (IOException notFound) {
             // no such binary, or the sweep thread was interrupted mid-probe
             // (runBounded reasserts the interrupt flag before wrapping) — either
-            // way this tool doesn't answer, so report it missing and move on
-            return new Finding(tool, purpose, false, "not found", installHint);
+            // way this tool doesn't answer, so report it missing and move on;
+            // only the genuine miss is worth remembering
+            return new Outcome(new Finding(tool, purpose, false, "not found", installHint),
+                    !Thread.currentThread().isInterrupted());
         }
     }
 
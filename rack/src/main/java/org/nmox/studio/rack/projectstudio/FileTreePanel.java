@@ -5,6 +5,7 @@ import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.File;
 import javax.swing.JPanel;
+import org.nmox.studio.core.util.GitStatus;
 import org.nmox.studio.rack.engine.FileWatcher;
 import javax.swing.SwingUtilities;
 import org.openide.explorer.ExplorerManager;
@@ -78,6 +79,7 @@ public class FileTreePanel extends JPanel implements ExplorerManager.Provider {
 
     private File root;
     private FileWatcher watcher;
+    private File watchedRoot;
     /**
      * Notified on the EDT with the selected File — or null when nothing
      * is selected. Ledger 29 remainder (v1.48.0): the owning studio
@@ -196,21 +198,31 @@ public class FileTreePanel extends JPanel implements ExplorerManager.Provider {
     // ---- external-change refresh ----
 
     private void restartWatcher() {
-        if (watcher != null) {
-            watcher.stop();
-            watcher = null;
-        }
+        stopWatcher();
         if (root != null && root.isDirectory()) {
             File watched = root;
             // builds and generators write behind the platform's back;
             // refreshFor re-syncs the FileObject tree and the view keeps
-            // its own expansion state — no rebuild, no re-expand dance
-            watcher = new FileWatcher(watched, 1500, null,
-                    changed -> scanner.post(() -> FileUtil.refreshFor(watched)));
+            // its own expansion state — no rebuild, no re-expand dance.
+            // The same feed spares the git status engine its tree walks.
+            watcher = new FileWatcher(watched, 1500, null, changed -> {
+                GitStatus.notifyChanged(changed);
+                scanner.post(() -> FileUtil.refreshFor(watched));
+            });
+            watchedRoot = watched;
+            GitStatus.feedStarted(watched);
             watcher.start();
         }
     }
 
+    private void stopWatcher() {
+        if (watcher != null) {
+            watcher.stop();
+            watcher = null;
+            GitStatus.feedStopped(watchedRoot);
+        }
+    }
+
     /**
      * Releases the filesystem watcher. Deliberately does NOT stop the
      * scanner or drop the selection relay: Project Studio is
@@ -224,10 +236,7 @@ public class FileTreePanel extends JPanel implements ExplorerManager.Provider {
      * are safe to keep across the panel's whole lifetime.
      */
     public void dispose() {
-        if (watcher != null) {
-            watcher.stop();
-            watcher = null;
-        }
+        stopWatcher();
     }
 
     // ---- helpers ----
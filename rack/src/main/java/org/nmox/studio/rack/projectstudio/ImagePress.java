@@ -12,10 +12,19 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageOutputStream;
 import org.nmox.studio.core.process.ProcessSupport;
 
@@ -23,8 +32,10 @@ import org.nmox.studio.core.process.ProcessSupport;
  * The Image Kit's engine: finds a web project's images and presses
  * them — smaller JPEGs by re-encoding (pure Java2D/ImageIO, no tools
  * required), optional downscale to a maximum width, and WebP siblings
- * via the user's own {@code cwebp} when it's on PATH. Pure file work on
- * the caller's thread; the action runs it off the EDT.
+ * via the user's own {@code cwebp} when it's on PATH. The single-file
+ * presses are pure file work on the caller's thread; {@link #pressAll}
+ * runs a whole batch in parallel and reports each file as it lands. The
+ * action runs either off the EDT.
  *
  * <p>The laws it inherits: <b>never clobber</b> — an output that
  * already exists is skipped and said so, and originals are never
@@ -42,6 +53,8 @@ public final class ImagePress {
     public static final int KEEP_THRESHOLD_PERCENT = 10;
     /** A workbench pass, not a bulk archiver. */
     public static final int MAX_FILES = 500;
+    /** Share of the heap a batch may hold in decoded pixels at once (1/N). */
+    static final int HEAP_SHARE = 4;
 
     private static final Set<String> SKIP_DIRS = Set.of(
             "node_modules", ".git", "dist", "build", "coverage", "target",
@@ -66,6 +79,25 @@ public final class ImagePress {
         }
     }
 
+    /**
+     * What a batch press does to each file: a {@code .min.jpg} when
+     * {@code jpeg} is set, a {@code .webp} when {@code cwebp} is non-null.
+     */
+    public record Options(boolean jpeg, float quality, int maxWidth, File cwebp, int webpQuality) {
+    }
+
+    /** One file's finished presses, in the order they were asked for (JPEG, then WebP). */
+    public record Pressed(Candidate candidate, List<Result> results) {
+
+        public long saved() {
+            return results.stream().mapToLong(Result::saved).sum();
+        }
+    }
+
+    /** A file just finished: it, how many of {@code total} are done, and the bytes saved so far. */
+    public record Progress(Pressed file, int done, int total, long saved) {
+    }
+
     /** Finds .jpg/.jpeg/.png under root, skipping the heavy dirs. */
     public static List<Candidate> scan(File root) {
         List<Candidate> out = new ArrayList<>();
@@ -108,32 +140,150 @@ public final class ImagePress {
      * boxes.
      */
     public static Result pressJpeg(File src, float quality, int maxWidth) {
+        return pressJpeg(src, quality, maxWidth, null);
+    }
+
+    /**
+     * Presses a batch: JPEG re-encodes on a fork/join pool sized to the
+     * cores, cwebp runs concurrently on a pool of the same width (each
+     * is a single-threaded process; waiting on it must not take an
+     * encoder's core). Decoded pixels share a budget of 1/{@value
+     * #HEAP_SHARE} of the heap — a big photo waits for room rather than
+     * eight of them failing together — and a downscale decodes
+     * subsampled, never at full size. {@code onProgress} hears each file
+     * as it completes (serialized, {@code done} counting up); the answer
+     * lists every file in {@code found}'s order. Blocks until all are done.
+     */
+    public static List<Pressed> pressAll(List<Candidate> found, Options options,
+            Consumer<Progress> onProgress) {
+        int parallelism = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), found.size()));
+        Budget budget = new Budget(Runtime.getRuntime().maxMemory() / 1024 / HEAP_SHARE);
+        ForkJoinPool encoders = new ForkJoinPool(parallelism);
+        ExecutorService webps = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "nmox-image-press-cwebp");
+            t.setDaemon(true);
+            return t;
+        });
+        Object tally = new Object();
+        int[] done = {0};
+        long[] saved = {0};
+        List<CompletableFuture<Pressed>> files = new ArrayList<>(found.size());
+        try {
+            for (Candidate c : found) {
+                CompletableFuture<Result> jpeg = options.jpeg()
+                        ? CompletableFuture.supplyAsync(() -> guarded(c.file(),
+                                () -> pressJpeg(c.file(), options.quality(), options.maxWidth(), budget)), encoders)
+                        : CompletableFuture.completedFuture(null);
+                CompletableFuture<Result> webp = options.cwebp() != null
+                        ? CompletableFuture.supplyAsync(() -> guarded(c.file(),
+                                () -> pressWebp(c.file(), options.cwebp(), options.webpQuality())), webps)
+                        : CompletableFuture.completedFuture(null);
+                files.add(jpeg.thenCombine(webp, (j, w) -> {
+                    List<Result> results = new ArrayList<>(2);
+                    if (j != null) {
+                        results.add(j);
+                    }
+                    if (w != null) {
+                        results.add(w);
+                    }
+                    Pressed pressed = new Pressed(c, List.copyOf(results));
+                    synchronized (tally) {
+                        done[0]++;
+                        saved[0] += pressed.saved();
+                        if (onProgress != null) {
+                            onProgress.accept(new Progress(pressed, done[0], found.size(), saved[0]));
+                        }
+                    }
+                    return pressed;
+                }));
+            }
+            List<Pressed> out = new ArrayList<>(files.size());
+            for (CompletableFuture<Pressed> f : files) {
+                out.add(f.join());
+            }
+            return out;
+        } finally {
+            encoders.shutdownNow();
+            webps.shutdownNow();
+        }
+    }
+
+    /** A worker never dies silently: an unexpected throw is that file's honest note. */
+    private static Result guarded(File src, java.util.function.Supplier<Result> press) {
+        try {
+            return press.get();
+        } catch (RuntimeException | OutOfMemoryError ex) {
+            long before = src.length();
+            return new Result(src, null, before, before,
+                    "failed (" + ex.getClass().getSimpleName() + ") — skipped.");
+        }
+    }
+
+    /**
+     * The JPEG press, decoding against {@code budget} (null = none). The header is read first: a downscale
+     * decodes every n-th pixel, keeping at least twice the target width
+     * so the final bilinear pass still has real detail to average.
+     */
+    static Result pressJpeg(File src, float quality, int maxWidth, Budget budget) {
         File out = sibling(src, ".min.jpg");
         long before = src.length();
         if (out.exists()) {
             return new Result(src, null, before, out.length(),
                     out.getName() + " already exists — skipped (never clobber).");
         }
-        BufferedImage img;
+        int held = 0;
         try {
-            img = ImageIO.read(src);
-        } catch (IOException ex) {
-            return new Result(src, null, before, before,
-                    "unreadable (" + ex.getMessage() + ") — skipped.");
-        }
-        if (img == null) {
-            return new Result(src, null, before, before,
-                    "not a decodable image — skipped.");
-        }
-        BufferedImage flat = flatten(img, maxWidth);
-        try {
-            writeJpeg(flat, quality, out);
-        } catch (IOException ex) {
-            return new Result(src, null, before, before,
-                    "write failed (" + ex.getMessage() + ").");
+            BufferedImage img;
+            int srcWidth;
+            try (ImageInputStream in = ImageIO.createImageInputStream(src)) {
+                Iterator<ImageReader> readers = in == null ? null : ImageIO.getImageReaders(in);
+                if (readers == null || !readers.hasNext()) {
+                    return new Result(src, null, before, before,
+                            "not a decodable image — skipped.");
+                }
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(in, true, true);
+                    srcWidth = reader.getWidth(0);
+                    int srcHeight = reader.getHeight(0);
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    int step = maxWidth > 0 ? Math.max(1, srcWidth / (2 * maxWidth)) : 1;
+                    if (step > 1) {
+                        param.setSourceSubsampling(step, step, 0, 0);
+                    }
+                    if (budget != null) {
+                        held = budget.acquire(
+                                (long) ceilDiv(srcWidth, step) * ceilDiv(srcHeight, step) * 4 / 1024 + 1);
+                    }
+                    img = reader.read(0, param);
+                } finally {
+                    reader.dispose();
+                }
+            } catch (IOException ex) {
+                return new Result(src, null, before, before,
+                        "unreadable (" + ex.getMessage() + ") — skipped.");
+            }
+            if (img == null) {
+                return new Result(src, null, before, before,
+                        "not a decodable image — skipped.");
+            }
+            BufferedImage flat = flatten(img, maxWidth);
+            try {
+                writeJpeg(flat, quality, out);
+            } catch (IOException ex) {
+                return new Result(src, null, before, before,
+                        "write failed (" + ex.getMessage() + ").");
+            }
+            return kept(src, out, before, maxWidth > 0 && srcWidth > maxWidth, flat.getWidth());
+        } finally {
+            if (budget != null) {
+                budget.release(held);
+            }
         }
+    }
+
+    private static Result kept(File src, File out, long before, boolean resized, int width) {
         long after = out.length();
-        boolean resized = maxWidth > 0 && img.getWidth() > maxWidth;
         if (!resized && after > before * (100 - KEEP_THRESHOLD_PERCENT) / 100) {
             // an "optimization" that saves under the threshold is noise;
             // a RESIZED output is kept regardless — smaller pixels were
@@ -148,7 +298,34 @@ public final class ImagePress {
                     + KEEP_THRESHOLD_PERCENT + "%, nothing written.");
         }
         return new Result(src, out, before, after,
-                resized ? "resized to " + flat.getWidth() + "px wide" : "re-encoded");
+                resized ? "resized to " + width + "px wide" : "re-encoded");
+    }
+
+    /** Kilobytes of decoded pixels a batch may hold at once. */
+    static final class Budget {
+
+        private final int capacity;
+        private final Semaphore free;
+
+        Budget(long capacityKb) {
+            capacity = (int) Math.max(1, Math.min(Integer.MAX_VALUE, capacityKb));
+            free = new Semaphore(capacity);
+        }
+
+        /** Waits for room for {@code kb}; a picture larger than the whole budget runs alone. */
+        int acquire(long kb) {
+            int held = (int) Math.min(kb, capacity);
+            free.acquireUninterruptibly(held);
+            return held;
+        }
+
+        void release(int held) {
+            free.release(held);
+        }
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
     }
 
     /**
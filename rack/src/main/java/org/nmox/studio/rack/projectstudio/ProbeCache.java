@@ -0,0 +1,179 @@
+package org.nmox.studio.rack.projectstudio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.nmox.studio.core.process.ToolLocator;
+import org.nmox.studio.core.util.AtomicFiles;
+import org.openide.util.RequestProcessor;
+
+/**
+ * The doctor's memory: what each version command answered last time,
+ * keyed on the binary it actually ran — resolved path (symlinks
+ * followed, so a Homebrew upgrade that moves the Cellar target is a new
+ * key), modification time and size. While those hold, the answer holds:
+ * a repeat checkup and a device asking "is this tool installed?" cost
+ * one attribute read instead of a process launch. A binary that was not
+ * found is remembered as its bare name; once it resolves to a real file
+ * the key no longer matches and it is probed afresh.
+ *
+ * <p>Persisted under {@code <userdir>/var/nmox/doctor/probes.json}, like
+ * the rack's other {@code var/nmox} state, written atomically and
+ * coalesced (a sweep storing ninety answers writes once). Outside the
+ * platform it is memory-only. Never throws: an unreadable file is an
+ * empty cache.
+ *
+ * <p>Known limit: version-manager SHIMS (asdf, pyenv, rbenv) are the
+ * same small script whichever version they dispatch to, so switching
+ * versions behind one keeps the old version line until the shim itself
+ * changes; the checkup's Re-probe button ({@link EnvironmentDoctor#forget})
+ * is the way out.
+ */
+final class ProbeCache {
+
+    private static final Logger LOG = Logger.getLogger(ProbeCache.class.getName());
+    private static final RequestProcessor WRITER = new RequestProcessor("Environment Doctor cache", 1);
+    private static final int SAVE_DELAY_MS = 500;
+
+    /** The binary a command runs, as last seen. */
+    record Stamp(String path, long modified, long size) {
+    }
+
+    /** One remembered answer. */
+    record Entry(Stamp stamp, boolean found, String detail) {
+    }
+
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final RequestProcessor.Task save;
+    private volatile boolean loaded;
+
+    /** @param file where to persist; null keeps it in memory */
+    ProbeCache(Path file) {
+        this.file = file;
+        this.save = WRITER.create(this::flush);
+    }
+
+    /** The cache under the NetBeans user dir, or a memory-only one outside the platform. */
+    static ProbeCache userDefault() {
+        String userdir = System.getProperty("netbeans.user");
+        return new ProbeCache(userdir == null ? null
+                : Path.of(userdir, "var", "nmox", "doctor", "probes.json"));
+    }
+
+    /**
+     * The remembered answer for {@code command}, or null when there is
+     * none or it was given by a binary other than {@code now}.
+     */
+    Entry lookup(List<String> command, Stamp now) {
+        load();
+        Entry entry = entries.get(key(command));
+        return entry != null && entry.stamp().equals(now) ? entry : null;
+    }
+
+    /** Remembers an answer for the binary as it is now; the file follows shortly. */
+    void store(List<String> command, Stamp stamp, boolean found, String detail) {
+        load();
+        entries.put(key(command), new Entry(stamp, found, detail));
+        if (file != null) {
+            save.schedule(SAVE_DELAY_MS);
+        }
+    }
+
+    /** Forgets everything — the checkup's Re-probe button. */
+    void clear() {
+        load();
+        entries.clear();
+        if (file != null) {
+            save.schedule(SAVE_DELAY_MS);
+        }
+    }
+
+    /**
+     * The binary {@code tool} resolves to right now: its real path,
+     * mtime and size — or the bare name when nothing resolves.
+     */
+    static Stamp stamp(String tool) {
+        String resolved = ToolLocator.resolve(tool);
+        if (!resolved.contains(File.separator)) {
+            return new Stamp(resolved, -1, -1);
+        }
+        try {
+            Path real = Path.of(resolved).toRealPath();
+            BasicFileAttributes a = Files.readAttributes(real, BasicFileAttributes.class);
+            return new Stamp(real.toString(), a.lastModifiedTime().toMillis(), a.size());
+        } catch (IOException | RuntimeException e) {
+            return new Stamp(resolved, -1, -1);
+        }
+    }
+
+    /** The cache key: the whole argv, so a drop-in's custom flags are their own entry. */
+    static String key(List<String> command) {
+        return String.join("\u0000", command);
+    }
+
+    /** Writes the file now (the coalesced save calls this). */
+    synchronized void flush() {
+        if (file == null) {
+            return;
+        }
+        JSONArray rows = new JSONArray();
+        entries.forEach((key, e) -> rows.put(new JSONObject()
+                .put("command", new JSONArray(List.of(key.split("\u0000", -1))))
+                .put("path", e.stamp().path())
+                .put("modified", e.stamp().modified())
+                .put("size", e.stamp().size())
+                .put("found", e.found())
+                .put("detail", e.detail())));
+        try {
+            Files.createDirectories(file.getParent());
+            AtomicFiles.writeString(file,
+                    new JSONObject().put("version", 1).put("probes", rows).toString());
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.FINE, "could not store doctor cache " + file, e);
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            loaded = true;
+            if (file == null || !Files.isRegularFile(file)) {
+                return;
+            }
+            try {
+                JSONObject root = new JSONObject(Files.readString(file, StandardCharsets.UTF_8));
+                JSONArray rows = root.optJSONArray("probes");
+                for (int i = 0; rows != null && i < rows.length(); i++) {
+                    JSONObject row = rows.optJSONObject(i);
+                    JSONArray command = row == null ? null : row.optJSONArray("command");
+                    if (command == null || command.isEmpty()) {
+                        continue;
+                    }
+                    List<String> argv = command.toList().stream().map(String::valueOf).toList();
+                    entries.putIfAbsent(key(argv), new Entry(
+                            new Stamp(row.optString("path"), row.optLong("modified", -1),
+                                    row.optLong("size", -1)),
+                            row.optBoolean("found"), row.optString("detail")));
+                }
+            } catch (IOException | RuntimeException e) {
+                LOG.log(Level.FINE, "unreadable doctor cache " + file, e);
+            }
+        }
+    }
+}
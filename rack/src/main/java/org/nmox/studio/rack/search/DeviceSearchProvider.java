@@ -1,9 +1,13 @@
 package org.nmox.studio.rack.search;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import org.netbeans.spi.quicksearch.SearchProvider;
 import org.netbeans.spi.quicksearch.SearchRequest;
 import org.netbeans.spi.quicksearch.SearchResponse;
-import org.nmox.studio.core.search.SearchTerms;
+import org.nmox.studio.core.search.SearchIndex;
 import org.nmox.studio.rack.devices.DeviceCatalog;
 import org.nmox.studio.rack.service.RackService;
 
@@ -12,43 +16,86 @@ import org.nmox.studio.rack.service.RackService;
  * the toolbar search and Enter racks the device and opens the rack -
  * faster than scrolling the palette when you know what you want.
  *
- * <p>Matching runs through {@link SearchTerms}, so "run tests" and
+ * <p>Matching runs through {@code SearchTerms}' rule, so "run tests" and
  * "bundle size" work as phrases, and through each device's search
  * vocabulary, so the words people reach for ("coverage", "postgres",
  * "cron") reach the device even when its shelf copy never says them.
+ * The catalog's text is tokenized once into a {@link SearchIndex} and
+ * re-read only when {@link DeviceCatalog#stamp()} moves (an installed
+ * extension, an edited user device) — and then only for the kinds whose
+ * words changed — so a keystroke walks a trie under the index's read
+ * lock instead of a few hundred descriptions.
  */
 public class DeviceSearchProvider implements SearchProvider {
 
+    /** How many devices one query may offer; Quick Search shows fewer. */
+    private static final int LIMIT = 50;
+
+    /**
+     * A catalog kind as the index keys it: by its searchable text, so an
+     * extension whose description changed is re-indexed, not stale.
+     */
+    private record Indexed(String id, String title, String description, String keywords) {
+    }
+
+    private static final SearchIndex<Indexed> INDEX = new SearchIndex<>();
+    /** The entries the index's keys stand for; replaced by every re-read. */
+    private static volatile Map<String, DeviceCatalog.Entry> byId = Map.of();
+
+    /** The catalog's kinds ranked for {@code needle}. Package-private for tests. */
+    static List<DeviceCatalog.Entry> search(String needle) {
+        INDEX.sync(DeviceCatalog.stamp(), DeviceSearchProvider::catalog,
+                k -> new String[]{k.title(), k.description(), k.keywords()});
+        Map<String, DeviceCatalog.Entry> entries = byId;
+        List<DeviceCatalog.Entry> hits = new ArrayList<>();
+        for (Indexed k : INDEX.search(needle, LIMIT)) {
+            DeviceCatalog.Entry type = entries.get(k.id());
+            if (type != null) {
+                hits.add(type);
+            }
+        }
+        return hits;
+    }
+
+    /** Reads the catalog (under the index's write lock): its keys, with {@link #byId} to match. */
+    private static List<Indexed> catalog() {
+        Map<String, DeviceCatalog.Entry> entries = new HashMap<>();
+        List<Indexed> keys = new ArrayList<>();
+        for (DeviceCatalog.Entry type : DeviceCatalog.all()) {
+            entries.put(type.id(), type);
+            keys.add(new Indexed(type.id(), type.title(), type.description(), type.keywords()));
+        }
+        byId = entries;
+        return keys;
+    }
+
     @Override
     public void evaluate(SearchRequest request, SearchResponse response) {
         String needle = request.getText();
         if (needle == null || needle.isBlank()) {
             return;
         }
-        for (DeviceCatalog.Entry type : DeviceCatalog.all()) {
-            if (SearchTerms.matches(needle,
-                    type.title(), type.description(), type.keywords())) {
-                boolean more = response.addResult(() -> javax.swing.SwingUtilities.invokeLater(() -> {
-                    // a third-party device's build() can throw — never let it
-                    // escape onto the EDT from Quick Search (matches the drop
-                    // and double-click guards)
-                    try {
-                        RackService.getDefault().getRack().addDevice(type.create());
-                    } catch (Exception | LinkageError ex) {
-                        org.openide.awt.StatusDisplayer.getDefault().setStatusText(
-                                "Could not add " + type.title() + ": " + ex);
-                        return;
-                    }
-                    org.openide.windows.TopComponent rack = org.openide.windows.WindowManager
-                            .getDefault().findTopComponent("RackTopComponent");
-                    if (rack != null) {
-                        rack.open();
-                        rack.requestActive();
-                    }
-                }), type.title() + "  —  " + type.description());
-                if (!more) {
+        for (DeviceCatalog.Entry type : search(needle)) {
+            boolean more = response.addResult(() -> javax.swing.SwingUtilities.invokeLater(() -> {
+                // a third-party device's build() can throw — never let it
+                // escape onto the EDT from Quick Search (matches the drop
+                // and double-click guards)
+                try {
+                    RackService.getDefault().getRack().addDevice(type.create());
+                } catch (Exception | LinkageError ex) {
+                    org.openide.awt.StatusDisplayer.getDefault().setStatusText(
+                            "Could not add " + type.title() + ": " + ex);
                     return;
                 }
+                org.openide.windows.TopComponent rack = org.openide.windows.WindowManager
+                        .getDefault().findTopComponent("RackTopComponent");
+                if (rack != null) {
+                    rack.open();
+                    rack.requestActive();
+                }
+            }), type.title() + "  —  " + type.description());
+            if (!more) {
+                return;
             }
         }
     }
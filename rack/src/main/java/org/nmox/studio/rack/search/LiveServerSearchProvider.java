@@ -3,7 +3,7 @@ package org.nmox.studio.rack.search;
 import org.netbeans.spi.quicksearch.SearchProvider;
 import org.netbeans.spi.quicksearch.SearchRequest;
 import org.netbeans.spi.quicksearch.SearchResponse;
-import org.nmox.studio.core.search.SearchTerms;
+import org.nmox.studio.core.search.SearchIndex;
 import org.nmox.studio.rack.service.ServingRegistry;
 
 /**
@@ -11,26 +11,43 @@ import org.nmox.studio.rack.service.ServingRegistry;
  * the device's name and the live URL is one Enter away — WEB servings
  * open in the browser, CHAIN servings focus Contract Studio (a devnet
  * URL in a browser tab is useless; the studio speaks its JSON-RPC).
+ * Servings come and go far slower than keys are typed, so the index
+ * follows the registry's own change events — each serving tokenized
+ * once, when it first shows up — and a keystroke only reads it.
  */
 public class LiveServerSearchProvider implements SearchProvider {
 
+    private static final int LIMIT = 20;
+
+    private static final SearchIndex<ServingRegistry.Serving> INDEX = new SearchIndex<>();
+
+    static {
+        ServingRegistry registry = ServingRegistry.getDefault();
+        registry.addListener(() -> reindex(registry));
+        reindex(registry);
+    }
+
+    /** Re-reads the registry into the index; runs on its notifier thread. */
+    private static void reindex(ServingRegistry registry) {
+        // The URL splits into words, so a bare port ("5173") or host
+        // ("localhost") finds the serving without the whole URL.
+        INDEX.sync(registry.snapshot(), serving -> new String[]{
+            serving.url(), serving.deviceTitle(), serving.projectDir().getName(),
+            "serving live server localhost port"});
+    }
+
     @Override
     public void evaluate(SearchRequest request, SearchResponse response) {
         String needle = request.getText();
         if (needle == null || needle.isBlank()) {
             return;
         }
-        for (ServingRegistry.Serving serving : ServingRegistry.getDefault().snapshot()) {
-            // The URL splits into words, so a bare port ("5173") or host
-            // ("localhost") finds the serving without the whole URL.
-            if (SearchTerms.matches(needle, serving.url(), serving.deviceTitle(),
-                    serving.projectDir().getName(), "serving live server localhost port")) {
-                String label = "Serving · " + serving.url() + " — "
-                        + serving.deviceTitle() + " · " + serving.projectDir().getName();
-                boolean more = response.addResult(actionFor(serving), label);
-                if (!more) {
-                    return;
-                }
+        for (ServingRegistry.Serving serving : INDEX.search(needle, LIMIT)) {
+            String label = "Serving · " + serving.url() + " — "
+                    + serving.deviceTitle() + " · " + serving.projectDir().getName();
+            boolean more = response.addResult(actionFor(serving), label);
+            if (!more) {
+                return;
             }
         }
     }
@@ -1,36 +1,44 @@
 package org.nmox.studio.rack.search;
 
 import java.io.File;
+import java.util.List;
 import org.netbeans.spi.quicksearch.SearchProvider;
 import org.netbeans.spi.quicksearch.SearchRequest;
 import org.netbeans.spi.quicksearch.SearchResponse;
-import org.nmox.studio.core.search.SearchTerms;
+import org.nmox.studio.core.search.SearchIndex;
 import org.nmox.studio.rack.service.RackService;
 
 /**
  * Quick Search over recent projects: type a project's name in the
  * toolbar search (Cmd+I) and Enter re-aims the whole IDE - through the
- * same live-process guard as every other switch path.
+ * same live-process guard as every other switch path. The list is
+ * short but its paths are long; they are tokenized once, when a project
+ * joins the list, not per keystroke — and a keystroke that finds the
+ * list unchanged (nearly all of them) only takes the index's read lock.
  */
 public class RecentProjectSearchProvider implements SearchProvider {
 
+    private static final int LIMIT = 20;
+
+    private static final SearchIndex<File> INDEX = new SearchIndex<>();
+
     @Override
     public void evaluate(SearchRequest request, SearchResponse response) {
         String needle = request.getText();
         if (needle == null || needle.isBlank()) {
             return;
         }
-        for (File dir : RackService.getDefault().getRecentProjects()) {
-            // The path splits on separators, so "nmox studio" finds
-            // ~/vcs/NMOX-Studio without typing the punctuation.
-            if (SearchTerms.matches(needle, dir.getName(), dir.getAbsolutePath())) {
-                boolean more = response.addResult(
-                        () -> javax.swing.SwingUtilities.invokeLater(
-                                () -> RackService.getDefault().openProject(dir)),
-                        dir.getName() + "  —  " + dir.getAbsolutePath());
-                if (!more) {
-                    return;
-                }
+        // The path splits on separators, so "nmox studio" finds
+        // ~/vcs/NMOX-Studio without typing the punctuation.
+        List<File> recent = RackService.getDefault().getRecentProjects();
+        INDEX.sync(recent, () -> recent, dir -> new String[]{dir.getName(), dir.getAbsolutePath()});
+        for (File dir : INDEX.search(needle, LIMIT)) {
+            boolean more = response.addResult(
+                    () -> javax.swing.SwingUtilities.invokeLater(
+                            () -> RackService.getDefault().openProject(dir)),
+                    dir.getName() + "  —  " + dir.getAbsolutePath());
+            if (!more) {
+                return;
             }
         }
     }
@@ -14,8 +14,9 @@ import org.nmox.studio.core.util.GitFacts;
  * processless; only an aim landing inside a real repo arms it.
  *
  * <p>All facts come from {@link GitFacts} file reads (cheap, no forks);
- * the dirty count arrives from outside via {@link #porcelain} because
- * only the panel — after the guard — is allowed to spawn.
+ * the dirty count arrives from outside — {@link #count} from the
+ * in-process status engine, {@link #porcelain} when git had to run —
+ * because only the panel, after the guard, decides how it is obtained.
  */
 final class GitChip {
 
@@ -79,6 +80,11 @@ final class GitChip {
         changeCount = GitFacts.changeCount(porcelainOutput);
     }
 
+    /** The in-process engine's count (the same number porcelain would print). */
+    void count(int changes) {
+        changeCount = Math.max(0, changes);
+    }
+
     /** "⎇ main", then "⎇ main ±3" once a count is known; null = hidden. */
     String label() {
         if (!visible()) {
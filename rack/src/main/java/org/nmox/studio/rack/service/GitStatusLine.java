@@ -16,6 +16,7 @@ import javax.swing.Timer;
 import org.nmox.studio.core.process.ProcessSupport;
 import org.nmox.studio.rack.model.Rack;
 import org.nmox.studio.core.util.GitFacts;
+import org.nmox.studio.core.util.GitStatus;
 import org.openide.awt.StatusDisplayer;
 import org.openide.awt.StatusLineElementProvider;
 import org.openide.cookies.InstanceCookie;
@@ -33,9 +34,10 @@ import org.openide.windows.TopComponent;
  * The git chip: "⎇ main ±3" in the status line when the aimed project
  * lives in a repository, nothing when it doesn't. Branch facts are
  * GitFacts file reads (no forks, safe on every aim event); the dirty
- * count is the one thing that needs the git binary, and it runs only
- * behind {@link GitChip#mayRunProcess()} — a fresh launch aims ~/NMOX,
- * which is not a repo, so boot stays processless (the v1.38.0 law).
+ * count comes from the in-process {@link GitStatus} engine, and only when
+ * that declines does the git binary run — behind
+ * {@link GitChip#mayRunProcess()} either way: a fresh launch aims
+ * ~/NMOX, which is not a repo, so boot stays processless (the v1.38.0 law).
  * Clicking the chip opens the platform git module's own windows
  * (Status/Diff/History/Annotate) — this chip is a doorway, not a
  * reimplementation.
@@ -66,6 +68,8 @@ public class GitStatusLine implements StatusLineElementProvider {
          * just a poke — the process itself runs on RP behind the boot guard.
          */
         private final Timer poll = new Timer(30_000, e -> tick());
+        /** Set by Refresh: the next count walks the whole tree, whatever the change feed says. RP-only. */
+        private boolean rescanNext;
         private final Rack.Listener rackListener = new Rack.Listener() {
             @Override
             public void projectChanged() {
@@ -126,6 +130,8 @@ public class GitStatusLine implements StatusLineElementProvider {
         /**
          * The ONLY process spawn in the chip, and it starts with the boot
          * guard: no aim on a repo means no fork, ever — the v1.38.0 law.
+         * The engine answers first; git runs only for what it declines
+         * (submodules, a possible inexact rename, filtered files).
          * Always called on RP (aim path, timer tick, and Refresh all post).
          */
         private void refreshCount() {
@@ -133,6 +139,14 @@ public class GitStatusLine implements StatusLineElementProvider {
                 return;
             }
             chip.refreshBranch(); // checkouts in a terminal move HEAD under us
+            GitStatus engine = GitStatus.forRepo(chip.repoRoot());
+            Integer count = engine == null ? null : rescanNext ? engine.rescan() : engine.changeCount();
+            rescanNext = false;
+            if (count != null) {
+                chip.count(count);
+                publish();
+                return;
+            }
             try {
                 ProcessSupport.BoundedResult r = ProcessSupport.runBounded(
                         List.of("git", "status", "--porcelain"),
@@ -210,7 +224,10 @@ public class GitStatusLine implements StatusLineElementProvider {
             menu.add(history);
             menu.addSeparator();
             JMenuItem refresh = new JMenuItem("Refresh");
-            refresh.addActionListener(e -> RP.post(this::refreshCount));
+            refresh.addActionListener(e -> RP.post(() -> {
+                rescanNext = true;
+                refreshCount();
+            }));
             menu.add(refresh);
             menu.show(chipLabel, 0, -menu.getPreferredSize().height);
         }
@@ -0,0 +1,513 @@
+package org.nmox.studio.rack.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.SwingUtilities;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.nmox.studio.core.util.AtomicFiles;
+import org.nmox.studio.rack.engine.RackBus;
+import org.nmox.studio.rack.model.Cable;
+import org.nmox.studio.rack.model.MissingDevice;
+import org.nmox.studio.rack.model.Port;
+import org.nmox.studio.rack.model.Rack;
+import org.nmox.studio.rack.model.RackDevice;
+import org.nmox.studio.rack.model.RackIO;
+import org.nmox.studio.rack.model.Signal;
+import org.nmox.studio.rack.model.SignalType;
+
+/**
+ * Runs a rack patch with no IDE around it — the CI entry point. The
+ * patch loads through {@link RackIO} into a plain {@link Rack}, MAESTRO's
+ * patched TRIG outputs (or the devices named with {@code --trigger})
+ * fire, and the signals travel the same router the rack window uses, so
+ * what passes locally is what passes in CI, cable for cable.
+ *
+ * <p>UI-less means AWT headless: the devices are the same classes, but
+ * no panel ever shows them, so their faces are never realized — meters
+ * drop pulses and LEDs never start a blink timer — and
+ * {@link WorkspaceTrust} answers for the absent human. Independent
+ * branches run side by side for free: every process device spawns
+ * asynchronously, so two lanes off MAESTRO overlap exactly as they do in
+ * the window; the report says how much they did.
+ *
+ * <p>The run is over when the rack is quiet: no device {@link
+ * RackDevice#isBusy busy}, nothing emitted or printed for a settle
+ * window. The verdict is every triggered step's own — OK/FAIL/DONE as it
+ * leaves the device, cabled onward or not. A step that was triggered but
+ * never spoke (no manifest, nothing to run) fails the run too: in CI a
+ * silent refusal is a red build, not a green one.
+ *
+ * <p>Exit codes: 0 pass, 1 a step failed, 2 usage or patch error, 3 the
+ * run outlived {@code --timeout} (every process is killed first).
+ *
+ * <p>Launched by {@code scripts/rack-headless.sh}, which puts the module
+ * jar in front of the runtime classpath the rack build writes to
+ * {@code rack/target/headless.classpath}.
+ */
+public final class HeadlessRunner {
+
+    public static final int EXIT_PASS = 0;
+    public static final int EXIT_FAIL = 1;
+    public static final int EXIT_USAGE = 2;
+    public static final int EXIT_TIMEOUT = 3;
+
+    /** How long the rack must stay quiet before a run counts as finished. */
+    static final long SETTLE_MS = 300;
+    private static final long POLL_MS = 50;
+    private static final long DEFAULT_TIMEOUT_S = 30 * 60;
+
+    /** A trigger into one of these stops a device; it does not start a step. */
+    private static final Set<String> STOP_PORTS = Set.of("stop", "halt");
+
+    private static final String USAGE = """
+            usage: HeadlessRunner [PATCH] [--project DIR] [--trigger NAME]... \
+            [--report FILE] [--timeout SECONDS]
+              PATCH            the rack patch (default ./.nmoxrack.json)
+              --project DIR    the project the rack aims at (default: the patch's folder)
+              --trigger NAME   fire this device instead of MAESTRO (title or bus name; repeatable)
+              --report FILE    write the JSON timing report here
+              --timeout SEC    kill everything and exit 3 after this long (default 1800)""";
+
+    /** How one triggered step ended. */
+    enum Outcome {
+        PASSED, FAILED, NO_VERDICT, SKIPPED, TIMED_OUT
+    }
+
+    /** One pipeline step: a device downstream of what fired, and its last run. */
+    private static final class Step {
+
+        final RackDevice device;
+        final int lane;
+        long startMs = -1;
+        long endMs = -1;
+        int runs;
+        Outcome outcome = Outcome.SKIPPED;
+        boolean open;
+
+        Step(RackDevice device, int lane) {
+            this.device = device;
+            this.lane = lane;
+        }
+
+        long durationMs() {
+            return startMs < 0 || endMs < 0 ? 0 : endMs - startMs;
+        }
+    }
+
+    private final Rack rack;
+    private final PrintStream log;
+    private final Map<RackDevice, Step> steps = new LinkedHashMap<>();
+    private final AtomicLong activity = new AtomicLong();
+    private long t0;
+    private int lanes;
+
+    private HeadlessRunner(Rack rack, PrintStream log) {
+        this.rack = rack;
+        this.log = log;
+    }
+
+    public static void main(String[] args) {
+        // before anything touches AWT: no display in CI, and the trust
+        // gate reads headlessness as "no human to ask"
+        System.setProperty("java.awt.headless", "true");
+        System.exit(cli(args, System.out, System.err));
+    }
+
+    /** The whole run, minus {@code System.exit}: the exit code to leave with. */
+    static int cli(String[] args, PrintStream out, PrintStream err) {
+        File patch = new File(RackIO.DEFAULT_FILENAME);
+        File project = null;
+        File report = null;
+        List<String> triggers = new ArrayList<>();
+        long timeoutS = DEFAULT_TIMEOUT_S;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-h", "--help" -> {
+                        out.println(USAGE);
+                        return EXIT_PASS;
+                    }
+                    case "--project" -> project = new File(value(args, ++i));
+                    case "--report" -> report = new File(value(args, ++i));
+                    case "--trigger" -> triggers.add(value(args, ++i));
+                    case "--timeout" -> timeoutS = Long.parseLong(value(args, ++i));
+                    default -> {
+                        if (args[i].startsWith("-")) {
+                            throw new IllegalArgumentException("unknown option " + args[i]);
+                        }
+                        patch = new File(args[i]);
+                    }
+                }
+            }
+            if (timeoutS <= 0) {
+                throw new IllegalArgumentException("--timeout must be positive");
+            }
+        } catch (IllegalArgumentException ex) {
+            err.println("nmox-rack: " + ex.getMessage());
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        JSONObject doc;
+        try {
+            // parsed here rather than through RackIO.readDocument: a CI run
+            // must never rename the checked-in patch to .bak behind the build
+            doc = new JSONObject(Files.readString(patch.toPath(), StandardCharsets.UTF_8));
+        } catch (IOException | JSONException ex) {
+            err.println("nmox-rack: cannot read patch " + patch + ": " + ex.getMessage());
+            return EXIT_USAGE;
+        }
+        File dir = (project != null ? project : patch.getAbsoluteFile().getParentFile()).getAbsoluteFile();
+
+        Rack rack = new Rack();
+        try {
+            rack.setProjectDir(dir);
+            SwingUtilities.invokeAndWait(() -> RackIO.fromJson(rack, doc));
+            for (RackDevice d : rack.getDevices()) {
+                if (d instanceof MissingDevice) {
+                    err.println("nmox-rack: patch needs device type '" + d.getTypeId()
+                            + "', which this build does not have");
+                    return EXIT_USAGE;
+                }
+            }
+            HeadlessRunner runner = new HeadlessRunner(rack, out);
+            List<Port> fired = runner.firePorts(triggers, err);
+            if (fired == null) {
+                return EXIT_USAGE;
+            }
+            return runner.run(fired, timeoutS * 1000, report, err);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return EXIT_USAGE;
+        } catch (java.lang.reflect.InvocationTargetException ex) {
+            err.println("nmox-rack: cannot load patch " + patch + ": " + ex.getCause());
+            return EXIT_USAGE;
+        } finally {
+            rack.shutdown();
+        }
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException(args[i - 1] + " needs a value");
+        }
+        return args[i];
+    }
+
+    /**
+     * What this run fires: the named devices' start inputs, or else every
+     * patched MAESTRO TRIG output. Null (after saying why) when there is
+     * nothing to fire — an empty CI run must not read as a pass.
+     */
+    private List<Port> firePorts(List<String> names, PrintStream err) {
+        List<Port> fired = new ArrayList<>();
+        if (!names.isEmpty()) {
+            for (String name : names) {
+                boolean found = false;
+                for (RackDevice d : rack.getDevices()) {
+                    if (name.equalsIgnoreCase(d.busName()) || name.equalsIgnoreCase(d.getTitle())) {
+                        Port in = startPort(d);
+                        if (in != null) {
+                            fired.add(in);
+                            found = true;
+                        }
+                    }
+                }
+                if (!found) {
+                    err.println("nmox-rack: no device '" + name + "' with a trigger input in this patch");
+                    return null;
+                }
+            }
+            return fired;
+        }
+        for (RackDevice d : rack.getDevices()) {
+            if (!"master".equals(d.getTypeId())) {
+                continue;
+            }
+            for (Port p : d.getPorts()) {
+                if (p.getDirection() == Port.Direction.OUT && p.getType() == SignalType.TRIGGER
+                        && !rack.cablesAt(p).isEmpty()) {
+                    fired.add(p);
+                }
+            }
+        }
+        if (fired.isEmpty()) {
+            err.println("nmox-rack: nothing to fire — no patched MAESTRO output; name a device with --trigger");
+            return null;
+        }
+        return fired;
+    }
+
+    /** A device's first trigger input that starts it (not STOP). */
+    private static Port startPort(RackDevice d) {
+        for (Port p : d.getPorts()) {
+            if (p.getDirection() == Port.Direction.IN && p.getType() == SignalType.TRIGGER
+                    && !STOP_PORTS.contains(p.getId())) {
+                return p;
+            }
+        }
+        return null;
+    }
+
+    /** True for a device that reports a verdict: anything with OK, FAIL or DONE. */
+    private static boolean hasVerdict(RackDevice d) {
+        return d.getPort("ok") != null || d.getPort("fail") != null || d.getPort("done") != null;
+    }
+
+    /**
+     * Lanes: one per trigger cable leaving what fired (or per named
+     * device), each claiming what it reaches over trigger cables first.
+     * Two lanes are two branches the rack runs side by side; a device
+     * reached from both (a JOIN) belongs to the first.
+     */
+    private void planLanes(List<Port> fired) {
+        List<Cable> cables = rack.getCables();
+        Deque<RackDevice> roots = new ArrayDeque<>();
+        for (Port p : fired) {
+            if (p.getDirection() == Port.Direction.IN) {
+                roots.add(p.getDevice());
+            } else {
+                for (Cable c : cables) {
+                    if (c.getFrom() == p) {
+                        roots.add(c.getTo().getDevice());
+                    }
+                }
+            }
+        }
+        for (RackDevice root : roots) {
+            if (steps.containsKey(root)) {
+                continue;
+            }
+            int lane = ++lanes;
+            Deque<RackDevice> queue = new ArrayDeque<>(List.of(root));
+            while (!queue.isEmpty()) {
+                RackDevice d = queue.poll();
+                if (steps.containsKey(d)) {
+                    continue;
+                }
+                steps.put(d, new Step(d, lane));
+                for (Cable c : cables) {
+                    if (c.getFrom().getDevice() == d && c.getFrom().getType() == SignalType.TRIGGER
+                            && !STOP_PORTS.contains(c.getTo().getId())) {
+                        queue.add(c.getTo().getDevice());
+                    }
+                }
+            }
+        }
+        // a device with no verdict port (a console, a counter) is plumbing, not a step
+        steps.values().removeIf(s -> !hasVerdict(s.device));
+    }
+
+    private long now() {
+        return (System.nanoTime() - t0) / 1_000_000;
+    }
+
+    private synchronized void started(RackDevice d) {
+        Step s = steps.get(d);
+        if (s != null && !s.open) {
+            s.open = true;
+            s.runs++;
+            s.startMs = now();
+            s.endMs = -1;
+            s.outcome = Outcome.NO_VERDICT;
+        }
+    }
+
+    private synchronized void emitted(Port out, Signal signal) {
+        Step s = steps.get(out.getDevice());
+        String id = out.getId();
+        if (s == null || !s.open || signal.type() != SignalType.TRIGGER
+                || !("ok".equals(id) || "fail".equals(id) || "done".equals(id))) {
+            return;
+        }
+        boolean pass = "done".equals(id) ? signal.high() : "ok".equals(id);
+        s.outcome = pass ? Outcome.PASSED : Outcome.FAILED;
+        // the step ends at its first verdict: OK/FAIL already started the
+        // successor, so a DONE right after must not stretch this step over it
+        if (s.endMs < 0) {
+            s.endMs = now();
+        }
+        // OK/FAIL then DONE: the run closes on DONE, or on OK/FAIL for a device without one
+        if ("done".equals(id) || out.getDevice().getPort("done") == null) {
+            s.open = false;
+        }
+    }
+
+    private int run(List<Port> fired, long timeoutMs, File report, PrintStream err) throws InterruptedException {
+        planLanes(fired);
+        Rack.Listener tap = new Rack.Listener() {
+            @Override
+            public void signalTravelled(Cable cable) {
+                activity.incrementAndGet();
+                Port to = cable.getTo();
+                if (to.getType() == SignalType.TRIGGER && !STOP_PORTS.contains(to.getId())) {
+                    started(to.getDevice());
+                }
+            }
+
+            @Override
+            public void signalEmitted(Port out, Signal signal) {
+                activity.incrementAndGet();
+                emitted(out, signal);
+            }
+        };
+        RackBus.Listener tee = (device, line, isErr) -> {
+            activity.incrementAndGet();
+            log.println("[" + device + "] " + line);
+        };
+        rack.addListener(tap);
+        RackBus.subscribe(tee);
+        t0 = System.nanoTime();
+        boolean timedOut;
+        try {
+            log.println("nmox-rack: " + rack.getDevices().size() + " devices, " + lanes + " lane"
+                    + (lanes == 1 ? "" : "s") + ", project " + rack.getProjectDir());
+            for (Port p : fired) {
+                if (p.getDirection() == Port.Direction.OUT) {
+                    rack.emit(p, Signal.trigger());
+                } else {
+                    started(p.getDevice());
+                    p.getDevice().receive(p, Signal.trigger());
+                }
+            }
+            timedOut = !awaitQuiet(timeoutMs);
+            if (timedOut) {
+                err.println("nmox-rack: timed out after " + timeoutMs / 1000 + "s — stopping every device");
+                for (RackDevice d : rack.getDevices()) {
+                    d.panic();
+                }
+            }
+        } finally {
+            RackBus.unsubscribe(tee);
+            rack.removeListener(tap);
+        }
+        return finish(timedOut, report, err);
+    }
+
+    /** Waits for the rack to go quiet; false when the deadline came first. */
+    private boolean awaitQuiet(long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutMs * 1_000_000;
+        long seen = -1;
+        long quietSince = System.nanoTime();
+        while (System.nanoTime() < deadline) {
+            rack.awaitRouterIdle();
+            RackDevice.awaitDeviceBgIdle();
+            try {
+                SwingUtilities.invokeAndWait(() -> { });
+            } catch (java.lang.reflect.InvocationTargetException ignored) {
+                // an empty barrier cannot throw
+            }
+            boolean busy = false;
+            for (RackDevice d : rack.getDevices()) {
+                busy |= d.isBusy();
+            }
+            long count = activity.get();
+            if (busy || count != seen) {
+                seen = count;
+                quietSince = System.nanoTime();
+            } else if (System.nanoTime() - quietSince >= SETTLE_MS * 1_000_000) {
+                return true;
+            }
+            Thread.sleep(POLL_MS);
+        }
+        return false;
+    }
+
+    private synchronized int finish(boolean timedOut, File report, PrintStream err) {
+        long wallMs = now();
+        List<Step> ordered = new ArrayList<>(steps.values());
+        ordered.sort(Comparator.comparingInt((Step s) -> s.lane)
+                .thenComparingLong(s -> s.startMs < 0 ? Long.MAX_VALUE : s.startMs));
+        long busyMs = 0;
+        boolean ran = false;
+        boolean failed = false;
+        for (Step s : ordered) {
+            if (s.open && timedOut) {
+                s.outcome = Outcome.TIMED_OUT;
+                s.endMs = wallMs;
+            }
+            busyMs += s.durationMs();
+            ran |= s.runs > 0;
+            failed |= s.outcome == Outcome.FAILED || s.outcome == Outcome.NO_VERDICT;
+        }
+        int code = timedOut ? EXIT_TIMEOUT : failed || !ran ? EXIT_FAIL : EXIT_PASS;
+        String verdict = code == EXIT_PASS ? "pass" : code == EXIT_TIMEOUT ? "timeout" : "fail";
+        double parallelism = wallMs == 0 ? 0 : Math.round(busyMs * 100.0 / wallMs) / 100.0;
+
+        for (Step s : ordered) {
+            log.printf(Locale.ROOT, "  %-10s lane %-2d %7.2fs  %s%n", s.outcome, s.lane,
+                    s.durationMs() / 1000.0, s.device.busName());
+        }
+        log.printf(Locale.ROOT, "nmox-rack: %s — %d step%s, %d lane%s, %.2fs wall, %.2fs busy (x%.2f)%n",
+                verdict.toUpperCase(Locale.ROOT), ordered.size(), ordered.size() == 1 ? "" : "s",
+                lanes, lanes == 1 ? "" : "s", wallMs / 1000.0, busyMs / 1000.0, parallelism);
+
+        if (report != null) {
+            JSONObject root = new JSONObject();
+            root.put("verdict", verdict);
+            root.put("exitCode", code);
+            root.put("project", rack.getProjectDir().getPath());
+            root.put("wallMs", wallMs);
+            root.put("busyMs", busyMs);
+            root.put("parallelism", parallelism);
+            root.put("peakConcurrency", peakConcurrency(ordered));
+            root.put("lanes", lanes);
+            JSONArray arr = new JSONArray();
+            for (Step s : ordered) {
+                JSONObject sj = new JSONObject();
+                sj.put("device", s.device.busName());
+                sj.put("type", s.device.getTypeId());
+                sj.put("lane", s.lane);
+                sj.put("outcome", s.outcome.name().toLowerCase(Locale.ROOT));
+                sj.put("runs", s.runs);
+                sj.put("startMs", s.startMs);
+                sj.put("endMs", s.endMs);
+                sj.put("durationMs", s.durationMs());
+                arr.put(sj);
+            }
+            root.put("steps", arr);
+            try {
+                AtomicFiles.writeString(report.toPath(), root.toString(2));
+            } catch (IOException ex) {
+                // the verdict stands; only the artifact is lost
+                err.println("nmox-rack: cannot write report " + report + ": " + ex.getMessage());
+            }
+        }
+        return code;
+    }
+
+    /** The most steps that were ever running at the same moment. */
+    private static int peakConcurrency(List<Step> steps) {
+        List<long[]> edges = new ArrayList<>();
+        for (Step s : steps) {
+            if (s.startMs >= 0 && s.endMs >= 0) {
+                edges.add(new long[]{s.startMs, 1});
+                edges.add(new long[]{s.endMs, -1});
+            }
+        }
+        // an end at the same instant as a start is a hand-off, not overlap
+        edges.sort(Comparator.<long[]>comparingLong(e -> e[0]).thenComparingLong(e -> e[1]));
+        int live = 0;
+        int peak = 0;
+        for (long[] e : edges) {
+            live += (int) e[1];
+            peak = Math.max(peak, live);
+        }
+        return peak;
+    }
+}
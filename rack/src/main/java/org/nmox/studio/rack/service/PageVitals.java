@@ -0,0 +1,101 @@
+package org.nmox.studio.rack.service;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.openide.util.Lookup;
+import org.openide.util.lookup.ServiceProvider;
+
+/**
+ * The in-app browser's page vitals, on their way to the rack: the
+ * DevTools Performance tab publishes a small JSON summary (TTFB, first
+ * contentful paint, total blocking time, layout shift) whenever it
+ * changes, and every SCOPE device relays it on its VITALS data jack —
+ * so a patch can gate, log or chart page performance like any other
+ * signal.
+ *
+ * <p>Same shape as {@link ServingRegistry}: one instance, listeners
+ * notified on the hub's own single background thread (never the
+ * publisher's thread, never the EDT), a failing listener logged and
+ * skipped. Publishing the same summary twice in a row is a no-op — a
+ * page that settles must not keep pulsing the jack. The ui module
+ * depends on the rack, so it publishes here directly; nothing in the
+ * rack knows the browser exists.
+ */
+@ServiceProvider(service = PageVitals.class)
+public class PageVitals {
+
+    /** Hears each new summary; the payload is the published JSON. */
+    public interface Listener {
+        void vitals(String json);
+    }
+
+    public static PageVitals getDefault() {
+        PageVitals vitals = Lookup.getDefault().lookup(PageVitals.class);
+        return vitals != null ? vitals : Holder.FALLBACK;
+    }
+
+    /** Outside the platform (plain unit tests) Lookup may be empty. */
+    private static final class Holder {
+        static final PageVitals FALLBACK = new PageVitals();
+    }
+
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "nmox-page-vitals");
+        t.setDaemon(true);
+        return t;
+    });
+    private String last;
+
+    /** Publishes a summary; null or a repeat of the last one fires nothing. */
+    public void publish(String json) {
+        if (json == null) {
+            return;
+        }
+        synchronized (this) {
+            if (json.equals(last)) {
+                return;
+            }
+            last = json;
+        }
+        notifier.submit(() -> {
+            for (Listener l : listeners) {
+                try {
+                    l.vitals(json);
+                } catch (RuntimeException ex) {
+                    java.util.logging.Logger.getLogger(PageVitals.class.getName())
+                            .warning("Vitals listener failed: " + ex);
+                }
+            }
+        });
+    }
+
+    /** The last published summary, or null before the first. */
+    public synchronized String latest() {
+        return last;
+    }
+
+    /** Subscribes; a listener already subscribed is not added twice. */
+    public void addListener(Listener l) {
+        listeners.addIfAbsent(l);
+    }
+
+    public void removeListener(Listener l) {
+        listeners.remove(l);
+    }
+
+    /**
+     * Blocks until every notification queued before this call has been
+     * delivered — the {@link ServingRegistry#awaitIdle} twin, for tests.
+     */
+    public void awaitIdle() {
+        try {
+            notifier.submit(() -> { }).get(10, java.util.concurrent.TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (java.util.concurrent.ExecutionException | java.util.concurrent.TimeoutException ex) {
+            throw new IllegalStateException("page vitals notifier did not drain", ex);
+        }
+    }
+}
@@ -79,6 +79,10 @@ public class RackService {
     }
 
     private void dispatchManifestBatch(java.util.List<java.nio.file.Path> batch) {
+        // the fresh ProjectFacts goes in first, so every device below
+        // re-resolves against the new manifests, not the snapshot the
+        // stamp check might still trust within one mtime tick
+        org.nmox.studio.rack.devices.ProjectFacts.manifestsChanged(batch);
         // devices react on the router thread (settle-drainable in tests);
         // .env deliberately reloads nothing — env is read at launch — but
         // the status line notes it so the honesty is visible
@@ -13,5 +13,8 @@
  * {@code AimFollower} gives suite windows the aimed project's node as
  * their ambient selection, which is what makes the platform's Team menu
  * and ^F6 work while, say, the Browser tab is focused.
+ *
+ * <p>{@code HeadlessRunner} is the rack with no IDE at all: the CI entry
+ * point that runs a patch file and exits with its verdict.
  */
 package org.nmox.studio.rack.service;
@@ -6,12 +6,14 @@ import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.datatransfer.DataFlavor;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.geom.CubicCurve2D;
 import java.awt.geom.Ellipse2D;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
 import javax.swing.BoxLayout;
 import javax.swing.JComponent;
@@ -19,13 +21,13 @@ import javax.swing.JMenuItem;
 import javax.swing.JPanel;
 import javax.swing.JPopupMenu;
 import javax.swing.SwingUtilities;
-import javax.swing.Timer;
 import javax.swing.TransferHandler;
 import org.nmox.studio.rack.devices.DeviceCatalog;
 import org.nmox.studio.rack.model.Cable;
 import org.nmox.studio.rack.model.Port;
 import org.nmox.studio.rack.model.Rack;
 import org.nmox.studio.rack.model.RackDevice;
+import org.nmox.studio.rack.ui.controls.AnimationClock;
 import org.nmox.studio.rack.ui.controls.RackStyle;
 import org.openide.DialogDisplayer;
 import org.openide.NotifyDescriptor;
@@ -36,6 +38,19 @@ import org.openide.NotifyDescriptor;
  * rack around and patch cables between jacks by dragging - straight
  * out of Reason. Devices drag in from the palette and reorder by
  * their title-bar grip.
+ *
+ * <p>Painting is kept cheap for a busy rack: the rails and their
+ * silkscreen are static, so they live in a {@link VolatileLayer} and
+ * re-render only on resize; cable flashes and the drop-slot fade run on
+ * the shared {@link AnimationClock} (no timers of the panel's own), and
+ * a flash repaints only the bounding box of the cables that glow.
+ *
+ * <p>Faces are virtualized: in a scroll pane only the devices within a
+ * screen of the viewport keep their controls in the component tree
+ * ({@link RackDevice#releaseFace}), so a 60-device CI rack realizes the
+ * handful in view rather than every knob, LCD and meter it owns. Focus
+ * walking into a device scrolls it into view, so Tab still reaches
+ * every face.
  */
 public class RackPanel extends JPanel implements Rack.Listener {
 
@@ -56,30 +71,69 @@ public class RackPanel extends JPanel implements Rack.Listener {
     // palette drag-over insertion slot (-1 = no drag in progress)
     private int dropIndex = -1;
     private long dropSeenAt;
-    private final Timer dropClearTimer = new Timer(150, e -> {
-        if (dropIndex >= 0 && System.currentTimeMillis() - dropSeenAt > 300) {
+    private final AnimationClock clock = AnimationClock.shared();
+    private final AnimationClock.Animation dropClear = now -> {
+        if (dropIndex >= 0 && now - dropSeenAt > 300) {
             dropIndex = -1;
             repaint();
         }
-        if (dropIndex < 0) {
-            ((Timer) e.getSource()).stop();
-        }
-    });
+        return dropIndex >= 0;
+    };
 
     // recent signal flashes per cable, for the glow animation
+    static final long FLASH_MS = 700;
     private final Map<Cable, Long> flashes = new HashMap<>();
-    private final Timer flashTimer = new Timer(60, e -> {
-        long now = System.currentTimeMillis();
-        flashes.values().removeIf(t -> now - t > 700);
-        repaint();
-        if (flashes.isEmpty()) {
-            ((Timer) e.getSource()).stop();
+    private final AnimationClock.Animation flashFade = this::fadeFlashes;
+
+    // the static rail/silkscreen layer: one blit per frame
+    private final VolatileLayer rails = new VolatileLayer();
+
+    /** What the rail layer depends on; a change re-renders it. */
+    private record RailKey(int width, int height, Color background) {
+    }
+
+    // paint constants: the rack paints every animation frame, so nothing
+    // per-frame allocates a color or a stroke it could share
+    private static final Color HOLE = new Color(8, 8, 10);
+    private static final Color HOLE_LIP = new Color(255, 255, 255, 28);
+    private static final Color UNIT_INK = new Color(120, 122, 128, 110);
+    private static final Color CABLE_SHADOW = new Color(0, 0, 0, 110);
+    private static final Color CABLE_HIGHLIGHT = new Color(255, 255, 255, 70);
+    private static final Color PLUG_BODY = new Color(28, 28, 30);
+    private static final Color PLUG_RIM = new Color(255, 255, 255, 60);
+    private static final BasicStroke SHADOW_STROKE =
+            new BasicStroke(5.5f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private static final BasicStroke BODY_STROKE =
+            new BasicStroke(3.6f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private static final BasicStroke HIGHLIGHT_STROKE =
+            new BasicStroke(1.1f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND);
+    private static final String[] UNIT_LABELS = new String[100];
+
+    static {
+        for (int u = 0; u < UNIT_LABELS.length; u++) {
+            UNIT_LABELS[u] = String.format("%02d", u);
         }
-    });
+    }
+
+    /**
+     * How far past its control polygon a cable can paint: the plug disk
+     * (radius 7), the widest glow stroke (half of 7.6) and the shadow's
+     * 3 px drop, rounded up.
+     */
+    static final int CABLE_PAD = 12;
 
     /** True while this panel is in the hierarchy and listening to the rack. */
     private boolean listenerAttached;
 
+    /** One rebuild per burst of structure events: a patch load adds devices one by one. */
+    private final java.util.concurrent.atomic.AtomicBoolean rebuildQueued =
+            new java.util.concurrent.atomic.AtomicBoolean();
+
+    // face virtualization: the viewport whose view rect decides which faces live
+    private javax.swing.JViewport viewport;
+    private final javax.swing.event.ChangeListener viewportMoved = e -> syncFaces();
+    private final java.beans.PropertyChangeListener focusFollower = this::followFocus;
+
     public RackPanel(Rack rack) {
         this.rack = rack;
         setLayout(new BoxLayout(this, BoxLayout.Y_AXIS));
@@ -171,6 +225,13 @@ public class RackPanel extends JPanel implements Rack.Listener {
         if (!listenerAttached) {
             rack.addListener(this);
             listenerAttached = true;
+            viewport = (javax.swing.JViewport) SwingUtilities.getAncestorOfClass(
+                    javax.swing.JViewport.class, this);
+            if (viewport != null) {
+                viewport.addChangeListener(viewportMoved);
+                java.awt.KeyboardFocusManager.getCurrentKeyboardFocusManager()
+                        .addPropertyChangeListener("permanentFocusOwner", focusFollower);
+            }
         }
         rebuild();
     }
@@ -181,10 +242,22 @@ public class RackPanel extends JPanel implements Rack.Listener {
         if (listenerAttached) {
             rack.removeListener(this);
             listenerAttached = false;
+            if (viewport != null) {
+                viewport.removeChangeListener(viewportMoved);
+                java.awt.KeyboardFocusManager.getCurrentKeyboardFocusManager()
+                        .removePropertyChangeListener("permanentFocusOwner", focusFollower);
+                viewport = null;
+            }
         }
         uninstallInteraction();
-        flashTimer.stop();
-        dropClearTimer.stop();
+        // the devices outlive this panel: hand them back whole
+        for (RackDevice d : rack.getDevices()) {
+            d.realizeFace();
+        }
+        clock.stop(flashFade);
+        clock.stop(dropClear);
+        flashes.clear();
+        rails.flush();
         super.removeNotify();
     }
 
@@ -234,6 +307,10 @@ public class RackPanel extends JPanel implements Rack.Listener {
         for (RackDevice d : rack.getDevices()) {
             d.setAlignmentX(CENTER_ALIGNMENT);
             d.setFront(front);
+            if (viewport != null) {
+                // enters faceless; the layout pass realizes what is in view
+                d.releaseFace();
+            }
             installInteraction(d);
             add(d);
         }
@@ -243,7 +320,59 @@ public class RackPanel extends JPanel implements Rack.Listener {
 
     @Override
     public void structureChanged() {
-        SwingUtilities.invokeLater(this::rebuild);
+        if (rebuildQueued.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> {
+                rebuildQueued.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    // ---- face virtualization ----
+
+    /** Devices placed, faces follow: runs before the pass paints anything. */
+    @Override
+    public void doLayout() {
+        super.doLayout();
+        syncFaces();
+    }
+
+    /**
+     * Realizes every face within one screen of the visible rect and
+     * releases those beyond two; between the bands nothing changes, so a
+     * device on the edge does not churn while the view jiggles. Outside
+     * a viewport every face is realized.
+     */
+    void syncFaces() {
+        Rectangle view = getVisibleRect();
+        for (RackDevice d : rack.getDevices()) {
+            if (d.getParent() != this) {
+                continue; // racked since the last rebuild; that rebuild decides
+            }
+            if (viewport == null || nearView(d, view, 1)) {
+                d.realizeFace();
+            } else if (!nearView(d, view, 2)) {
+                d.releaseFace();
+            }
+        }
+    }
+
+    private static boolean nearView(RackDevice d, Rectangle view, int screens) {
+        int margin = view.height * screens;
+        return d.getY() + d.getHeight() > view.y - margin
+                && d.getY() < view.y + view.height + margin;
+    }
+
+    /**
+     * Tab walks the faces in order; the band holds one screen beyond the
+     * view, and scrolling the newly focused control into sight moves the
+     * band on before the next Tab.
+     */
+    private void followFocus(java.beans.PropertyChangeEvent e) {
+        if (e.getNewValue() instanceof JComponent c && c != this
+                && SwingUtilities.isDescendingFrom(c, this)) {
+            c.scrollRectToVisible(new Rectangle(c.getSize()));
+        }
     }
 
     @Override
@@ -256,13 +385,37 @@ public class RackPanel extends JPanel implements Rack.Listener {
         SwingUtilities.invokeLater(() -> {
             if (!front) {
                 flashes.put(cable, System.currentTimeMillis());
-                if (!flashTimer.isRunning()) {
-                    flashTimer.start();
-                }
+                clock.start(flashFade);
+                repaint(cableBounds(cable));
             }
         });
     }
 
+    /**
+     * One clock frame of the flash glow: repaints just the union of the
+     * glowing cables' bounds (including those whose glow ends now, so
+     * the last frame clears), then forgets the expired flashes.
+     */
+    private boolean fadeFlashes(long now) {
+        Rectangle dirty = null;
+        for (Iterator<Map.Entry<Cable, Long>> it = flashes.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<Cable, Long> flash = it.next();
+            Rectangle bounds = cableBounds(flash.getKey());
+            if (dirty == null) {
+                dirty = bounds;
+            } else {
+                dirty.add(bounds);
+            }
+            if (now - flash.getValue() > FLASH_MS) {
+                it.remove();
+            }
+        }
+        if (dirty != null) {
+            repaint(dirty);
+        }
+        return !flashes.isEmpty();
+    }
+
     // ---- interaction ----
 
     private void installInteraction(RackDevice device) {
@@ -537,12 +690,33 @@ public class RackPanel extends JPanel implements Rack.Listener {
 
     @Override
     protected void paintComponent(Graphics gr) {
-        super.paintComponent(gr);
         Graphics2D g = (Graphics2D) gr.create();
-        RackStyle.antialias(g);
         // rack rails behind the device stack
         int railX1 = (getWidth() - RackStyle.RACK_WIDTH) / 2 - 10;
         int railX2 = railX1 + RackStyle.RACK_WIDTH + 20;
+        if (isOpaque()) {
+            // background, rails and silkscreen: one cached, opaque layer
+            rails.draw(g, getGraphicsConfiguration(), getWidth(), getHeight(),
+                    new RailKey(getWidth(), getHeight(), getBackground()),
+                    layer -> paintRails(layer, railX1, railX2));
+        } else {
+            super.paintComponent(gr);
+            paintRails(g, railX1, railX2);
+        }
+        RackStyle.antialias(g);
+        if (rack.getDevices().isEmpty()) {
+            paintEmptyRack(g, railX1, railX2);
+        }
+        g.dispose();
+    }
+
+    /** The static layer: panel background (when opaque), rails, hardware. */
+    private void paintRails(Graphics2D g, int railX1, int railX2) {
+        if (isOpaque()) {
+            g.setColor(getBackground());
+            g.fillRect(0, 0, getWidth(), getHeight());
+        }
+        RackStyle.antialias(g);
         g.setColor(RackStyle.RAIL);
         g.fillRect(railX1, 0, 10, getHeight());
         g.fillRect(railX2 - 10, 0, 10, getHeight());
@@ -550,10 +724,6 @@ public class RackPanel extends JPanel implements Rack.Listener {
         g.drawRect(railX1, -1, 10, getHeight() + 1);
         g.drawRect(railX2 - 10, -1, 10, getHeight() + 1);
         paintRailHardware(g, railX1, railX2);
-        if (rack.getDevices().isEmpty()) {
-            paintEmptyRack(g, railX1, railX2);
-        }
-        g.dispose();
     }
 
     /**
@@ -565,21 +735,25 @@ public class RackPanel extends JPanel implements Rack.Listener {
         int unit = RackStyle.UNIT;
         g.setFont(RackStyle.TINY_FONT);
         for (int y = unit / 4; y < getHeight(); y += unit / 2) {
-            for (int x : new int[]{railX1 + 2, railX2 - 8}) {
-                // square hole, punched dark with a lit bottom edge
-                g.setColor(new Color(8, 8, 10));
-                g.fillRoundRect(x, y - 3, 6, 6, 2, 2);
-                g.setColor(new Color(255, 255, 255, 28));
-                g.drawLine(x, y + 3, x + 6, y + 3);
-            }
+            paintCageHole(g, railX1 + 2, y);
+            paintCageHole(g, railX2 - 8, y);
         }
-        g.setColor(new Color(120, 122, 128, 110));
+        g.setColor(UNIT_INK);
+        var fm = g.getFontMetrics();
         for (int u = 0; u * unit < getHeight(); u++) {
-            String n = String.format("%02d", u + 1);
-            g.drawString(n, railX1 - g.getFontMetrics().stringWidth(n) - 3, u * unit + unit / 2 + 3);
+            String n = u + 1 < UNIT_LABELS.length ? UNIT_LABELS[u + 1] : Integer.toString(u + 1);
+            g.drawString(n, railX1 - fm.stringWidth(n) - 3, u * unit + unit / 2 + 3);
         }
     }
 
+    /** A square hole, punched dark with a lit bottom edge. */
+    private static void paintCageHole(Graphics2D g, int x, int y) {
+        g.setColor(HOLE);
+        g.fillRoundRect(x, y - 3, 6, 6, 2, 2);
+        g.setColor(HOLE_LIP);
+        g.drawLine(x, y + 3, x + 6, y + 3);
+    }
+
     /** An empty rack invites: etched silkscreen between bare rails. */
     private void paintEmptyRack(Graphics2D g, int railX1, int railX2) {
         int cx = (railX1 + railX2) / 2;
@@ -609,11 +783,16 @@ public class RackPanel extends JPanel implements Rack.Listener {
         Graphics2D g = (Graphics2D) gr.create();
         RackStyle.antialias(g);
         long now = System.currentTimeMillis();
+        Rectangle clip = g.getClipBounds();
         for (Cable cable : rack.getCables()) {
+            Point a = portLocation(cable.getFrom());
+            Point b = portLocation(cable.getTo());
+            if (clip != null && !clip.intersects(cableBounds(a, b))) {
+                continue; // a flash frame repaints a few cables, not all
+            }
             Long flash = flashes.get(cable);
-            float glow = flash == null ? 0f : Math.max(0f, 1f - (now - flash) / 700f);
-            paintCable(g, portLocation(cable.getFrom()), portLocation(cable.getTo()),
-                    cable.getColor(), glow);
+            float glow = flash == null ? 0f : Math.max(0f, 1f - (now - flash) / (float) FLASH_MS);
+            paintCable(g, a, b, cable.getColor(), glow);
         }
         if (dragFrom != null && dragPoint != null) {
             // light up every jack this cable could land on; the snap
@@ -704,30 +883,50 @@ public class RackPanel extends JPanel implements Rack.Listener {
         g.fill(right);
     }
 
-    private void paintCable(Graphics2D g, Point a, Point b, Color color, float glow) {
+    /** The sagging curve a cable between two jacks hangs along. */
+    static CubicCurve2D cableCurve(Point a, Point b) {
         double dist = a.distance(b);
         double sag = Math.min(170, 45 + dist * 0.28);
-        CubicCurve2D curve = new CubicCurve2D.Double(
+        return new CubicCurve2D.Double(
                 a.x, a.y,
                 a.x + (b.x - a.x) * 0.25, Math.max(a.y, b.y) + sag * 0.7 + (a.y - b.y) * 0.1,
                 a.x + (b.x - a.x) * 0.75, Math.max(a.y, b.y) + sag,
                 b.x, b.y);
+    }
+
+    /**
+     * Everything a cable between {@code a} and {@code b} can paint —
+     * curve, shadow, glow and plugs: the curve's control polygon (which
+     * always encloses it) grown by {@link #CABLE_PAD}.
+     */
+    static Rectangle cableBounds(Point a, Point b) {
+        Rectangle bounds = cableCurve(a, b).getBounds();
+        bounds.grow(CABLE_PAD, CABLE_PAD);
+        return bounds;
+    }
+
+    private Rectangle cableBounds(Cable cable) {
+        return cableBounds(portLocation(cable.getFrom()), portLocation(cable.getTo()));
+    }
+
+    private void paintCable(Graphics2D g, Point a, Point b, Color color, float glow) {
+        CubicCurve2D curve = cableCurve(a, b);
 
         // shadow
-        g.setColor(new Color(0, 0, 0, 110));
-        g.setStroke(new BasicStroke(5.5f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g.setColor(CABLE_SHADOW);
+        g.setStroke(SHADOW_STROKE);
         g.translate(0, 3);
         g.draw(curve);
         g.translate(0, -3);
 
         // body
         g.setColor(color);
-        g.setStroke(new BasicStroke(3.6f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g.setStroke(BODY_STROKE);
         g.draw(curve);
 
         // top highlight
-        g.setColor(new Color(255, 255, 255, 70));
-        g.setStroke(new BasicStroke(1.1f, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+        g.setColor(CABLE_HIGHLIGHT);
+        g.setStroke(HIGHLIGHT_STROKE);
         g.draw(curve);
 
         // signal glow
@@ -739,11 +938,11 @@ public class RackPanel extends JPanel implements Rack.Listener {
 
         // plug bodies sunk into the jacks
         for (Point end : new Point[]{a, b}) {
-            g.setColor(new Color(28, 28, 30));
+            g.setColor(PLUG_BODY);
             g.fill(new Ellipse2D.Float(end.x - 7, end.y - 7, 14, 14));
             g.setColor(color.darker());
             g.fill(new Ellipse2D.Float(end.x - 5, end.y - 5, 10, 10));
-            g.setColor(new Color(255, 255, 255, 60));
+            g.setColor(PLUG_RIM);
             g.draw(new Ellipse2D.Float(end.x - 7, end.y - 7, 14, 14));
         }
     }
@@ -780,9 +979,7 @@ public class RackPanel extends JPanel implements Rack.Listener {
                     dropIndex = index;
                     repaint();
                 }
-                if (!dropClearTimer.isRunning()) {
-                    dropClearTimer.start();
-                }
+                clock.start(dropClear);
             }
             return ok;
         }
@@ -0,0 +1,101 @@
+package org.nmox.studio.rack.ui;
+
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.image.VolatileImage;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A painted layer that only changes when its inputs do, kept in a
+ * {@link VolatileImage} so every repaint in between is one accelerated
+ * blit instead of a re-render. The rack panel keeps its rails, cage-nut
+ * holes and unit silkscreen here: they depend on nothing but the panel
+ * size, yet used to be redrawn — a few hundred shapes and as many
+ * label strings — on every cable-flash frame.
+ *
+ * <p>The layer re-renders when the caller's {@code key} changes (size,
+ * colors — whatever the picture depends on) and whenever the image
+ * itself needs it: the surface was lost ({@code IMAGE_RESTORED}) or the
+ * component moved to an incompatible screen ({@code IMAGE_INCOMPATIBLE}).
+ * Without a graphics configuration — headless, or not yet displayable —
+ * it simply paints straight onto the target.
+ *
+ * <p>EDT-confined, like the component that owns it.
+ */
+final class VolatileLayer {
+
+    private VolatileImage image;
+    private Object key;
+    private int renders; // re-renders so far; a test seam
+
+    /**
+     * Draws the layer at the target's origin, re-rendering it first if
+     * {@code key} changed or the surface was lost.
+     *
+     * @param target  where the layer goes
+     * @param gc      the owner's graphics configuration; null paints
+     *                {@code painter} directly
+     * @param w       layer width
+     * @param h       layer height
+     * @param key     what the picture depends on (compared with equals)
+     * @param painter renders the layer onto a fresh graphics
+     */
+    void draw(Graphics2D target, GraphicsConfiguration gc, int w, int h, Object key,
+            Consumer<Graphics2D> painter) {
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        if (gc == null) {
+            flush();
+            Graphics2D g = (Graphics2D) target.create();
+            try {
+                painter.accept(g);
+            } finally {
+                g.dispose();
+            }
+            return;
+        }
+        do {
+            boolean stale = !Objects.equals(key, this.key);
+            if (image == null || image.getWidth() != w || image.getHeight() != h) {
+                flush();
+                image = gc.createCompatibleVolatileImage(w, h);
+                stale = true;
+            }
+            int state = image.validate(gc);
+            if (state == VolatileImage.IMAGE_INCOMPATIBLE) {
+                flush();
+                image = gc.createCompatibleVolatileImage(w, h);
+                stale = true;
+            } else if (state == VolatileImage.IMAGE_RESTORED) {
+                stale = true;
+            }
+            if (stale) {
+                Graphics2D g = image.createGraphics();
+                try {
+                    painter.accept(g);
+                } finally {
+                    g.dispose();
+                }
+                this.key = key;
+                renders++;
+            }
+            target.drawImage(image, 0, 0, null);
+        } while (image.contentsLost());
+    }
+
+    /** Releases the surface; the next draw renders afresh. */
+    void flush() {
+        if (image != null) {
+            image.flush();
+            image = null;
+        }
+        key = null;
+    }
+
+    /** How many times the layer has been rendered into its image. */
+    int renders() {
+        return renders;
+    }
+}
@@ -0,0 +1,115 @@
+package org.nmox.studio.rack.ui.controls;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.Timer;
+
+/**
+ * The rack's one animation heartbeat. Before it, every {@link VuMeter}
+ * owned a 70 ms {@link Timer} and the rack panel ran its own flash and
+ * drop-slot timers — forty devices with live meters meant forty-odd
+ * timers waking the EDT out of phase. Now every animation subscribes
+ * here and they all advance on the same tick, so a frame's worth of
+ * repaints coalesce into one paint pass.
+ *
+ * <p>The clock ticks ONLY while something animates: {@link #start}
+ * arms the single timer, and an animation that reports it is done
+ * (its {@link Animation#tick} returns false) is dropped; the last one
+ * leaving stops the timer. An idle rack costs zero wakeups.
+ *
+ * <p>EDT-confined, like the Swing timer behind it: call
+ * {@link #start}/{@link #stop} on the EDT (callers already marshal
+ * there), and ticks arrive on the EDT.
+ */
+public final class AnimationClock {
+
+    /** The frame period — the old meter and cable-flash cadence. */
+    public static final int TICK_MS = 60;
+
+    private static final Logger LOG = Logger.getLogger(AnimationClock.class.getName());
+
+    private static final AnimationClock SHARED = new AnimationClock(TICK_MS);
+
+    /** One animated thing. */
+    @FunctionalInterface
+    public interface Animation {
+
+        /**
+         * Advances one frame.
+         *
+         * @param nowMs the tick's wall-clock time, shared by every
+         *              animation in the frame
+         * @return true to keep ticking, false once settled
+         */
+        boolean tick(long nowMs);
+    }
+
+    private final Set<Animation> active = new LinkedHashSet<>();
+    private final Timer timer;
+
+    AnimationClock(int periodMs) {
+        timer = new Timer(periodMs, e -> tick(System.currentTimeMillis()));
+        timer.setCoalesce(true);
+    }
+
+    /** The rack-wide clock. */
+    public static AnimationClock shared() {
+        return SHARED;
+    }
+
+    /** Subscribes {@code animation} (idempotent) and makes sure the clock runs. */
+    public void start(Animation animation) {
+        active.add(animation);
+        if (!timer.isRunning()) {
+            timer.start();
+        }
+    }
+
+    /** Unsubscribes {@code animation}; the clock stops when none remain. */
+    public void stop(Animation animation) {
+        active.remove(animation);
+        if (active.isEmpty()) {
+            timer.stop();
+        }
+    }
+
+    /** True while {@code animation} is subscribed. */
+    public boolean isAnimating(Animation animation) {
+        return active.contains(animation);
+    }
+
+    /** True while the timer is armed — i.e. while anything animates. */
+    public boolean isRunning() {
+        return timer.isRunning();
+    }
+
+    /** How many animations the next tick will advance. */
+    int activeCount() {
+        return active.size();
+    }
+
+    /**
+     * One frame: every animation advances with the same timestamp;
+     * those that settle leave. Package-private so tests can drive
+     * frames without waiting on the timer.
+     */
+    void tick(long nowMs) {
+        for (Animation animation : active.toArray(new Animation[0])) {
+            boolean more;
+            try {
+                more = animation.tick(nowMs);
+            } catch (RuntimeException e) {
+                more = false; // a broken animation must not stall the rest
+                LOG.log(Level.FINE, "animation failed", e);
+            }
+            if (!more) {
+                active.remove(animation);
+            }
+        }
+        if (active.isEmpty()) {
+            timer.stop();
+        }
+    }
+}
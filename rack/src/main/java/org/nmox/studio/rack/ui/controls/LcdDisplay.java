@@ -10,6 +10,10 @@ import java.awt.geom.RoundRectangle2D;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.accessibility.AccessibleContext;
 import javax.accessibility.AccessibleRole;
 import javax.swing.JComponent;
@@ -24,6 +28,17 @@ import org.openide.NotifyDescriptor;
  * To assistive technology it is a read-only LABEL (never focusable):
  * the name says what the panel shows (explicit name, else the edit
  * prompt), the description is the text currently on the glass.
+ *
+ * <p>Lines appended OFF the EDT — process pumps, the monitor bus — are
+ * frame-batched: they land in a lock-free pending queue and the EDT
+ * drains it once per {@link AnimationClock} frame, one repaint for the
+ * whole batch. A build printing thousands of lines a second used to
+ * post one runnable per line and stall the rack. The queue never holds
+ * more than a screenful; what a frame could not show collapses into a
+ * dim "N lines skipped" marker, and {@link #throughput()} counts lines
+ * received against lines that reached the glass. Appends ON the EDT
+ * still apply at once. A {@linkplain #setDormant dormant} display keeps
+ * queueing (still a screenful at most) but spends no frames draining.
  */
 public class LcdDisplay extends JComponent implements javax.accessibility.Accessible {
 
@@ -31,6 +46,29 @@ public class LcdDisplay extends JComponent implements javax.accessibility.Access
     private record Entry(String text, Color color) {
     }
 
+    /**
+     * Line traffic since construction.
+     *
+     * @param received lines handed to {@link #appendLine}
+     * @param rendered lines that made it onto the glass
+     * @param skipped  lines collapsed into a skip marker unseen
+     */
+    public record Throughput(long received, long rendered, long skipped) {
+    }
+
+    private static final Color SKIP_MARKER = new Color(150, 150, 150);
+
+    // the off-EDT hand-off: producers never lock, the EDT drains per frame
+    private final ConcurrentLinkedQueue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final AtomicInteger pendingSkipped = new AtomicInteger();
+    private final AtomicBoolean drainArmed = new AtomicBoolean();
+    private volatile boolean dormant;
+    private final AnimationClock.Animation drain = now -> drainFrame();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong rendered = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
     private final int lines;
     private final LinkedList<Entry> buffer = new LinkedList<>();
     private String text = "";
@@ -94,21 +132,116 @@ public class LcdDisplay extends JComponent implements javax.accessibility.Access
         appendLine(line, null);
     }
 
-    /** Multi-line mode with a per-line glow color (null = panel default). */
+    /**
+     * Multi-line mode with a per-line glow color (null = panel default).
+     * Safe from any thread; off the EDT the line joins the next frame's
+     * batch.
+     */
     public void appendLine(String line, Color color) {
+        Entry entry = new Entry(line == null ? "" : line, color);
+        received.incrementAndGet();
+        if (SwingUtilities.isEventDispatchThread()) {
+            drainPending(); // keep order with lines already queued
+            show(List.of(entry), 0);
+            return;
+        }
+        pending.add(entry);
+        if (pendingCount.incrementAndGet() > lines && pending.poll() != null) {
+            // a screenful is all a frame can show: drop the oldest now
+            // so a stalled EDT never holds a build log in memory
+            pendingCount.decrementAndGet();
+            pendingSkipped.incrementAndGet();
+        }
+        if (!dormant && drainArmed.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(() -> AnimationClock.shared().start(drain));
+        }
+    }
+
+    /**
+     * Dormant while its device's face is released from the rack panel:
+     * lines from a chatty process still land in the bounded queue, but
+     * the clock no longer ticks to drain them onto glass nobody can see.
+     * Waking puts the backlog on the next frame. EDT only.
+     */
+    public void setDormant(boolean dormant) {
+        this.dormant = dormant;
+        if (!dormant && (!pending.isEmpty() || pendingSkipped.get() > 0)
+                && drainArmed.compareAndSet(false, true)) {
+            AnimationClock.shared().start(drain);
+        }
+    }
+
+    /** A clock frame: drain — or, gone dormant meanwhile, leave the clock until woken. */
+    private boolean drainFrame() {
+        if (dormant) {
+            drainArmed.set(false);
+            return false;
+        }
+        return drainPending();
+    }
+
+    /**
+     * One frame's drain: everything queued goes on the glass in one
+     * repaint. Returns true while lines keep coming, so a busy display
+     * stays on the clock and an idle one leaves after a quiet frame.
+     */
+    private boolean drainPending() {
+        List<Entry> batch = new ArrayList<>();
+        for (Entry e; (e = pending.poll()) != null;) {
+            pendingCount.decrementAndGet();
+            batch.add(e);
+        }
+        int dropped = pendingSkipped.getAndSet(0);
+        if (!batch.isEmpty() || dropped > 0) {
+            show(batch, dropped);
+            return true;
+        }
+        drainArmed.set(false);
+        // a producer may have queued between the poll and the disarm
+        return !pending.isEmpty() && drainArmed.compareAndSet(false, true);
+    }
+
+    /** EDT: scrolls a batch on, led by a skip marker when lines were dropped. */
+    private void show(List<Entry> batch, int dropped) {
         String old = shownText();
+        List<Entry> visible = batch;
+        if (dropped > 0 && lines > 1) {
+            // the marker takes a row: keep only what fits beside it
+            int keep = Math.min(batch.size(), lines - 1);
+            dropped += batch.size() - keep;
+            visible = new ArrayList<>(keep + 1);
+            visible.add(new Entry("··· " + dropped + " line" + (dropped == 1 ? "" : "s")
+                    + " skipped", SKIP_MARKER));
+            visible.addAll(batch.subList(batch.size() - keep, batch.size()));
+        } else if (batch.size() > lines) {
+            dropped += batch.size() - lines;
+            visible = batch.subList(batch.size() - lines, batch.size());
+        }
+        skipped.addAndGet(dropped);
+        rendered.addAndGet(visible.size() - (dropped > 0 && lines > 1 ? 1 : 0));
         synchronized (buffer) {
-            buffer.add(new Entry(line == null ? "" : line, color));
+            buffer.addAll(visible);
             while (buffer.size() > lines) {
                 buffer.removeFirst();
             }
         }
-        repaintLater();
+        repaint();
         fireTextChanged(old);
     }
 
+    /** Lines received vs. rendered so far; safe from any thread. */
+    public Throughput throughput() {
+        return new Throughput(received.get(), rendered.get(), skipped.get());
+    }
+
     public void clear() {
         String old = shownText();
+        // lines still in flight belong to what is being cleared
+        for (Entry e; (e = pending.poll()) != null;) {
+            pendingCount.decrementAndGet();
+            skipped.incrementAndGet();
+        }
+        skipped.addAndGet(pendingSkipped.getAndSet(0));
         synchronized (buffer) {
             buffer.clear();
         }
@@ -57,7 +57,7 @@ public class Led extends JComponent implements javax.accessibility.Accessible {
     public void setBlinking(boolean v) {
         String old = stateText();
         blink = v;
-        if (v) {
+        if (v && isDisplayable()) {
             blinkTimer.start();
         } else {
             blinkTimer.stop();
@@ -115,6 +115,19 @@ public class Led extends JComponent implements javax.accessibility.Accessible {
         }
     }
 
+    /**
+     * The blink runs only while the lamp is in a showing tree: a device
+     * whose face the rack released keeps its LED blinking in state, and
+     * the timer picks up again when the face comes back.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        if (blink) {
+            blinkTimer.start();
+        }
+    }
+
     @Override
     public void removeNotify() {
         blinkTimer.stop();
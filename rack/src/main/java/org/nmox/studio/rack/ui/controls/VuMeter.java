@@ -6,12 +6,12 @@ import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.geom.RoundRectangle2D;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.accessibility.AccessibleContext;
 import javax.accessibility.AccessibleRole;
 import javax.accessibility.AccessibleValue;
 import javax.swing.JComponent;
 import javax.swing.SwingUtilities;
-import javax.swing.Timer;
 
 /**
  * A segmented activity meter (green -> yellow -> red) with peak-hold and
@@ -19,17 +19,49 @@ import javax.swing.Timer;
  * output lines stream in, so a busy task "plays" the meter. A pure
  * indicator: to assistive technology it is a PROGRESS_BAR (never
  * focusable) reporting percent 0-100.
+ *
+ * <p>Decay runs on the rack-wide {@link AnimationClock}, not a timer of
+ * its own: the meter subscribes when pulsed and leaves once it has
+ * fallen silent, and the decay is scaled by the real time between
+ * frames, so a coalesced tick never slows the fall. Pulses from other
+ * threads coalesce too: a pump pulsing per output line keeps at most one
+ * EDT hop in flight, carrying the loudest pulse since the last.
  */
 public class VuMeter extends JComponent implements javax.accessibility.Accessible {
 
     private static final int SEGMENTS = 12;
 
+    /** Level lost per millisecond (the old 0.06 per 70 ms tick). */
+    private static final double LEVEL_DECAY_PER_MS = 0.06 / 70;
+    /** Peak lost per millisecond once the hold is over (0.04 per 70 ms). */
+    private static final double PEAK_DECAY_PER_MS = 0.04 / 70;
+    private static final long PEAK_HOLD_MS = 1200;
+
+    private static final Color BEZEL = new Color(8, 8, 9);
+    private static final Color[] LIT = new Color[SEGMENTS];
+    private static final Color[] DIM = new Color[SEGMENTS];
+
+    static {
+        Color red = new Color(255, 64, 56);
+        Color yellow = new Color(255, 200, 40);
+        Color green = new Color(70, 230, 90);
+        for (int i = 0; i < SEGMENTS; i++) {
+            Color c = i >= SEGMENTS - 2 ? red : i >= SEGMENTS - 5 ? yellow : green;
+            LIT[i] = c;
+            DIM[i] = new Color(c.getRed() / 5, c.getGreen() / 5, c.getBlue() / 5);
+        }
+    }
+
     private final String label;
     private final boolean vertical;
     private double level;       // 0..1, decays over time
     private double peak;
     private long peakTime;
-    private final Timer decayTimer;
+    private long lastFrame;
+    private final AnimationClock clock = AnimationClock.shared();
+    private final AnimationClock.Animation decay = this::decay;
+    // loudest off-EDT pulse not yet applied, as double bits; -1 = none queued
+    private final AtomicLong pendingPulse = new AtomicLong(-1);
 
     public VuMeter(String label, boolean vertical) {
         this.label = label;
@@ -38,42 +70,62 @@ public class VuMeter extends JComponent implements javax.accessibility.Accessibl
         setFocusable(false);
         setPreferredSize(vertical ? new Dimension(26, 96) : new Dimension(110, 30));
         setSize(getPreferredSize());
-        decayTimer = new Timer(70, e -> {
-            boolean active = level > 0.001 || peak > 0.001;
-            int old = percent();
-            level = Math.max(0, level - 0.06);
-            if (System.currentTimeMillis() - peakTime > 1200) {
-                peak = Math.max(0, peak - 0.04);
-            }
-            fireAccessibleValue(old);
-            if (active) {
-                repaint();
-            } else {
-                ((Timer) e.getSource()).stop();
-            }
-        });
     }
 
-    /** Kick the meter up to at least this level (0..1); it decays on its own. */
-    public void pulse(double v) {
-        Runnable r = () -> {
-            int old = percent();
-            level = Math.max(level, Math.min(1, v));
-            if (level > peak) {
-                peak = level;
-                peakTime = System.currentTimeMillis();
-            }
-            if (!decayTimer.isRunning()) {
-                decayTimer.start();
-            }
+    /** One clock frame of decay; false once the ladder is dark. */
+    private boolean decay(long now) {
+        boolean active = level > 0.001 || peak > 0.001;
+        long elapsed = Math.max(0, now - lastFrame);
+        lastFrame = now;
+        int old = percent();
+        level = Math.max(0, level - elapsed * LEVEL_DECAY_PER_MS);
+        if (now - peakTime > PEAK_HOLD_MS) {
+            peak = Math.max(0, peak - elapsed * PEAK_DECAY_PER_MS);
+        }
+        fireAccessibleValue(old);
+        if (active) {
             repaint();
-            fireAccessibleValue(old);
-        };
+        }
+        return active;
+    }
+
+    /**
+     * Kick the meter up to at least this level (0..1); it decays on its
+     * own. A meter outside a showing tree (its device's face released,
+     * or never racked) ignores pulses: a kick is a transient nobody
+     * could see, and it would only keep the clock ticking.
+     */
+    public void pulse(double v) {
+        if (!isDisplayable()) {
+            return;
+        }
         if (SwingUtilities.isEventDispatchThread()) {
-            r.run();
-        } else {
-            SwingUtilities.invokeLater(r);
+            kick(v);
+            return;
+        }
+        long bits = Double.doubleToLongBits(Math.max(0, Math.min(1, v)));
+        long before = pendingPulse.getAndAccumulate(bits, (queued, next) ->
+                queued == -1 || Double.longBitsToDouble(next) > Double.longBitsToDouble(queued)
+                ? next : queued);
+        if (before == -1) {
+            SwingUtilities.invokeLater(() -> kick(Double.longBitsToDouble(pendingPulse.getAndSet(-1))));
+        }
+    }
+
+    /** EDT: apply one pulse and make sure the decay runs. */
+    private void kick(double v) {
+        int old = percent();
+        level = Math.max(level, Math.min(1, v));
+        if (level > peak) {
+            peak = level;
+            peakTime = System.currentTimeMillis();
         }
+        if (!clock.isAnimating(decay)) {
+            lastFrame = System.currentTimeMillis();
+            clock.start(decay);
+        }
+        repaint();
+        fireAccessibleValue(old);
     }
 
     /** Pin the meter to a fixed level (for gauges such as severity counts). */
@@ -109,20 +161,19 @@ public class VuMeter extends JComponent implements javax.accessibility.Accessibl
         }
     }
 
+    /**
+     * Leaving the tree ends a decay in flight, and the ladder comes back
+     * dark rather than frozen mid-fall. A pinned level ({@link #setLevel})
+     * never animates, so a gauge keeps its reading.
+     */
     @Override
     public void removeNotify() {
-        decayTimer.stop();
-        super.removeNotify();
-    }
-
-    private static Color segmentColor(int i) {
-        if (i >= SEGMENTS - 2) {
-            return new Color(255, 64, 56);
+        if (clock.isAnimating(decay)) {
+            clock.stop(decay);
+            level = 0;
+            peak = 0;
         }
-        if (i >= SEGMENTS - 5) {
-            return new Color(255, 200, 40);
-        }
-        return new Color(70, 230, 90);
+        super.removeNotify();
     }
 
     @Override
@@ -137,13 +188,12 @@ public class VuMeter extends JComponent implements javax.accessibility.Accessibl
             int mh = h - 14;
             int segH = (mh - 4) / SEGMENTS;
             int x = w / 2 - 7;
-            g.setColor(new Color(8, 8, 9));
+            g.setColor(BEZEL);
             g.fill(new RoundRectangle2D.Float(x - 2, 0, 18, mh, 4, 4));
             for (int i = 0; i < SEGMENTS; i++) {
                 int y = mh - 4 - (i + 1) * segH;
-                Color c = segmentColor(i);
                 boolean lit = i < litCount || i == peakSeg;
-                g.setColor(lit ? c : new Color(c.getRed() / 5, c.getGreen() / 5, c.getBlue() / 5));
+                g.setColor(lit ? LIT[i] : DIM[i]);
                 g.fillRect(x, y, 14, segH - 2);
             }
             g.setFont(RackStyle.TINY_FONT);
@@ -154,12 +204,11 @@ public class VuMeter extends JComponent implements javax.accessibility.Accessibl
             int mw = w - 4;
             int segW = mw / SEGMENTS;
             int y = 4;
-            g.setColor(new Color(8, 8, 9));
+            g.setColor(BEZEL);
             g.fill(new RoundRectangle2D.Float(0, y - 2, mw + 4, 14, 4, 4));
             for (int i = 0; i < SEGMENTS; i++) {
-                Color c = segmentColor(i);
                 boolean lit = i < litCount || i == peakSeg;
-                g.setColor(lit ? c : new Color(c.getRed() / 5, c.getGreen() / 5, c.getBlue() / 5));
+                g.setColor(lit ? LIT[i] : DIM[i]);
                 g.fillRect(2 + i * segW, y, segW - 2, 10);
             }
             g.setFont(RackStyle.TINY_FONT);
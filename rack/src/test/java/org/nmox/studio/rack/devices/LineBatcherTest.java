@@ -0,0 +1,167 @@
+package org.nmox.studio.rack.devices;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nmox.studio.core.spi.device.DeviceLogic;
+import org.nmox.studio.rack.model.Port;
+import org.nmox.studio.rack.model.Rack;
+import org.nmox.studio.rack.model.RackDevice;
+import org.nmox.studio.rack.model.Signal;
+import org.nmox.studio.rack.model.SignalType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Batched DATA: the emit side chunks on size or deadline and numbers its
+ * chunks, and every receiver that never heard of batches — a plain
+ * device, an extension's logic — still sees single lines, in order.
+ */
+class LineBatcherTest {
+
+    @Test
+    @DisplayName("a full chunk leaves at once as one numbered batch")
+    void sizeFlush() {
+        List<Signal> sent = new ArrayList<>();
+        LineBatcher batcher = new LineBatcher(sent::add);
+        for (int i = 0; i < LineBatcher.MAX_LINES * 2; i++) {
+            batcher.add("line " + i);
+        }
+        assertThat(sent).hasSize(2);
+        assertThat(sent).allMatch(Signal::isBatch).allMatch(s -> s.type() == SignalType.DATA);
+        assertThat(sent).extracting(Signal::seq).containsExactly(1L, 2L);
+        assertThat(sent.get(0).lines()).hasSize(LineBatcher.MAX_LINES).startsWith("line 0");
+        assertThat(sent.get(1).lines()).endsWith("line " + (LineBatcher.MAX_LINES * 2 - 1));
+    }
+
+    @Test
+    @DisplayName("a few enormous lines leave on the character cap, not the line cap")
+    void charFlush() {
+        List<Signal> sent = new ArrayList<>();
+        LineBatcher batcher = new LineBatcher(sent::add);
+        String wide = "x".repeat(LineBatcher.MAX_CHARS / 2);
+        batcher.add(wide);
+        batcher.add(wide);
+        assertThat(sent).hasSize(1);
+        assertThat(sent.get(0).lines()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("a short burst leaves on the deadline; a lone line leaves as plain data")
+    void deadlineFlush() throws Exception {
+        List<Signal> sent = new CopyOnWriteArrayList<>();
+        LineBatcher batcher = new LineBatcher(sent::add);
+        batcher.add("a");
+        batcher.add("b");
+        batcher.add("c");
+        awaitSize(sent, 1);
+        assertThat(sent.get(0).lines()).containsExactly("a", "b", "c");
+
+        batcher.add("alone");
+        awaitSize(sent, 2);
+        assertThat(sent.get(1).isBatch()).isFalse();
+        assertThat(sent.get(1).payload()).isEqualTo("alone");
+        assertThat(sent.get(1).seq()).isZero();
+    }
+
+    @Test
+    @DisplayName("flush sends what gathered now, and is a no-op when nothing has")
+    void explicitFlush() {
+        List<Signal> sent = new ArrayList<>();
+        LineBatcher batcher = new LineBatcher(sent::add);
+        batcher.flush();
+        assertThat(sent).isEmpty();
+        batcher.add("one");
+        batcher.add("two");
+        batcher.flush();
+        assertThat(sent).hasSize(1);
+        assertThat(sent.get(0).lines()).containsExactly("one", "two");
+        batcher.flush();
+        assertThat(sent).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("a batch is immutable: the emitter's list can move on")
+    void batchCopies() {
+        List<String> lines = new ArrayList<>(List.of("a", "b"));
+        Signal batch = Signal.batch(lines, 7);
+        lines.add("c");
+        assertThat(batch.lines()).containsExactly("a", "b");
+        assertThat(batch.payload()).isEmpty();
+        assertThat(Signal.data("x").isBatch()).isFalse();
+    }
+
+    private static class Source extends RackDevice {
+
+        Source() {
+            super("test-batch-source", "SOURCE", "TEST", Color.RED, 1);
+            addOutPort("out", "OUT", SignalType.DATA);
+        }
+
+        void send(Signal signal) {
+            emit("out", signal);
+        }
+    }
+
+    private static class LineSink extends RackDevice {
+
+        final List<String> lines = new CopyOnWriteArrayList<>();
+        final CountDownLatch done;
+
+        LineSink(int expect) {
+            super("test-batch-sink", "SINK", "TEST", Color.BLUE, 1);
+            addInPort("in", "IN", SignalType.DATA);
+            done = new CountDownLatch(expect);
+        }
+
+        @Override
+        public void receive(Port in, Signal signal) {
+            assertThat(signal.isBatch()).isFalse();
+            lines.add(signal.payload());
+            done.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("a device that only knows receive() gets a batch as its lines, in order")
+    void rackUnrollsForPlainDevices() throws Exception {
+        Rack rack = new Rack();
+        Source src = new Source();
+        LineSink sink = new LineSink(4);
+        rack.addDevice(src);
+        rack.addDevice(sink);
+        assertThat(rack.connect(src.getPort("out"), sink.getPort("in"))).isNotNull();
+
+        src.send(Signal.batch(List.of("1", "2", "3"), 1));
+        src.send(Signal.data("4"));
+        assertThat(sink.done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(sink.lines).containsExactly("1", "2", "3", "4");
+    }
+
+    @Test
+    @DisplayName("an extension's logic that never overrides onDataBatch sees onData per line")
+    void spiDefaultUnrolls() {
+        List<String> seen = new ArrayList<>();
+        DeviceLogic logic = new DeviceLogic() {
+            @Override
+            public void onData(String portId, String line) {
+                seen.add(portId + ":" + line);
+            }
+        };
+        logic.onDataBatch("in", List.of("x", "y"), 3);
+        assertThat(seen).containsExactly("in:x", "in:y");
+    }
+
+    private static void awaitSize(List<Signal> sent, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (sent.size() < size) {
+            assertThat(System.currentTimeMillis()).as("deadline flush").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package org.nmox.studio.rack.devices;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nmox.studio.rack.devices.ProjectInspector.ProjectKind;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The shared snapshot: one probe serves every question while nothing
+ * moved, any move (a new manifest, an edited package.json, a pulse)
+ * swaps in a fresh one, and the streaming lockfile readers answer what
+ * the whole-file reads used to.
+ */
+class ProjectFactsTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("An unchanged tree is served from the same snapshot")
+    void unchangedTreeSharesSnapshot() throws IOException {
+        Files.writeString(dir.resolve("package.json"), "{\"scripts\":{\"build\":\"vite build\"}}");
+        ProjectFacts first = ProjectFacts.of(dir.toFile());
+
+        assertThat(ProjectFacts.of(dir.toFile())).isSameAs(first);
+        assertThat(first.primaryKind()).isEqualTo(ProjectKind.NODE);
+        assertThat(first.packageJson().getJSONObject("scripts").getString("build"))
+                .isEqualTo("vite build");
+    }
+
+    @Test
+    @DisplayName("A manifest added to a scanned subdirectory rebuilds the snapshot")
+    void newManifestRebuilds() throws IOException {
+        Files.writeString(dir.resolve("package.json"), "{}");
+        Files.createDirectory(dir.resolve("backend"));
+        ProjectFacts before = ProjectFacts.of(dir.toFile());
+        assertThat(before.kinds()).containsOnlyKeys(ProjectKind.NODE);
+
+        Files.writeString(dir.resolve("backend/Cargo.toml"), "[package]\nname = \"api\"\n");
+        ProjectFacts after = ProjectFacts.of(dir.toFile());
+
+        assertThat(after).isNotSameAs(before);
+        assertThat(after.kinds()).containsKeys(ProjectKind.NODE, ProjectKind.RUST);
+        assertThat(after.manifestDir(ProjectKind.RUST)).isEqualTo(dir.resolve("backend").toFile());
+        assertThat(ProjectInspector.kindDir(dir.toFile(), ProjectKind.RUST))
+                .isEqualTo(dir.resolve("backend").toFile());
+    }
+
+    @Test
+    @DisplayName("An edited package.json is re-read; the old parse is never served")
+    void editedPackageJsonIsReread() throws IOException {
+        Path pkg = dir.resolve("package.json");
+        Files.writeString(pkg, "{\"devDependencies\":{\"jest\":\"^29\"}}");
+        assertThat(ProjectInspector.firstDependency(dir.toFile(), "vitest", "jest")).isEqualTo("jest");
+
+        Files.writeString(pkg, "{\"devDependencies\":{\"vitest\":\"^2.0.0\"}}");
+        assertThat(ProjectInspector.firstDependency(dir.toFile(), "vitest", "jest")).isEqualTo("vitest");
+    }
+
+    @Test
+    @DisplayName("A manifest pulse swaps in a fresh snapshot for the tree it touched")
+    void pulseSwapsSnapshot() throws IOException {
+        Path pkg = dir.resolve("package.json");
+        Files.writeString(pkg, "{}");
+        ProjectFacts before = ProjectFacts.of(dir.toFile());
+
+        ProjectFacts.manifestsChanged(List.of(pkg));
+        ProjectFacts after = ProjectFacts.of(dir.toFile());
+        assertThat(after).isNotSameAs(before);
+        assertThat(ProjectFacts.of(dir.toFile())).isSameAs(after);
+
+        ProjectFacts.manifestsChanged(List.of(Path.of("/elsewhere/package.json")));
+        assertThat(ProjectFacts.of(dir.toFile())).as("an unrelated tree is left alone").isSameAs(after);
+    }
+
+    @Test
+    @DisplayName("Cargo.lock streams to the first locked version of each crate")
+    void cargoLockStreams() throws IOException {
+        Files.writeString(dir.resolve("Cargo.lock"), """
+                # This file is automatically @generated by Cargo.
+                version = 3
+
+                [[package]]
+                name = "serde"
+                version = "1.0.203"
+                source = "registry+https://github.com/rust-lang/crates.io-index"
+
+                [[package]]
+                name = "soroban-sdk"
+                version = "21.2.0"
+
+                [[package]]
+                name = "serde"
+                version = "0.9.0"
+                """);
+        assertThat(ProjectInspector.cargoLockVersion(dir.toFile(), "soroban-sdk")).isEqualTo("21.2.0");
+        assertThat(ProjectInspector.cargoLockVersion(dir.toFile(), "serde")).isEqualTo("1.0.203");
+        assertThat(ProjectInspector.cargoLockVersion(dir.toFile(), "tokio")).isNull();
+    }
+
+    @Test
+    @DisplayName("composer.lock: packages before packages-dev, 'v' stripped, blank version unknown")
+    void composerLockVersions() throws IOException {
+        Files.writeString(dir.resolve("composer.lock"), """
+                {"packages": [{"name": "laravel/framework", "version": "v11.9.2"},
+                              {"name": "odd/pkg", "version": ""}],
+                 "packages-dev": [{"name": "laravel/framework", "version": "v10.0.0"},
+                                  {"name": "pestphp/pest", "version": "2.34.7"}]}
+                """);
+        assertThat(ProjectInspector.composerLockVersion(dir.toFile(), "laravel/framework")).isEqualTo("11.9.2");
+        assertThat(ProjectInspector.composerLockVersion(dir.toFile(), "pestphp/pest")).isEqualTo("2.34.7");
+        assertThat(ProjectInspector.composerLockVersion(dir.toFile(), "odd/pkg")).isNull();
+        assertThat(ProjectInspector.composerLockVersion(dir.toFile(), "missing/pkg")).isNull();
+    }
+
+    @Test
+    @DisplayName("A malformed lockfile answers unknown instead of throwing")
+    void malformedLockIsUnknown() throws IOException {
+        Files.writeString(dir.resolve("composer.lock"), "{ not json");
+        Files.writeString(dir.resolve("package.json"), "{ also not json");
+        assertThat(ProjectInspector.composerLockVersion(dir.toFile(), "laravel/framework")).isNull();
+        assertThat(ProjectInspector.scripts(dir.toFile())).isEmpty();
+        assertThat(ProjectInspector.detectKind(dir.toFile())).isEqualTo(ProjectKind.NODE);
+    }
+
+    @Test
+    @DisplayName("Marker files are answered from the index, lanes and all")
+    void markersFromIndex() throws IOException {
+        Files.createDirectory(dir.resolve("web"));
+        Files.writeString(dir.resolve("web/package.json"), "{}");
+        Files.writeString(dir.resolve("web/biome.json"), "{}");
+        Files.writeString(dir.resolve("web/pnpm-lock.yaml"), "lockfileVersion: '9.0'");
+        ProjectFacts facts = ProjectFacts.of(dir.toFile());
+
+        assertThat(facts.hasFile(dir.resolve("web").toFile(), "biome.json")).isTrue();
+        assertThat(facts.hasFile(dir.toFile(), "biome.json")).isFalse();
+        assertThat(ProjectInspector.hasBiome(dir.toFile())).isTrue();
+        assertThat(ProjectInspector.nodePackageManager(dir.toFile())).isEqualTo("pnpm");
+    }
+}
@@ -0,0 +1,112 @@
+package org.nmox.studio.rack.devices;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PHOSPHOR's spill: lines come back exactly as appended from any point
+ * of the sparse index, across segment boundaries; retention drops whole
+ * old segments (their files with them) while numbering stays absolute;
+ * and the regex search walks the full history in both directions and
+ * stops when cancelled.
+ */
+class ScrollbackTest {
+
+    @TempDir
+    Path dir;
+
+    /** Tiny segments (the floor: one capped line plus change) so tests cross many. */
+    private Scrollback small(int maxSegments) {
+        return new Scrollback(dir, 0, maxSegments);
+    }
+
+    @Test
+    @DisplayName("lines read back verbatim from anywhere, across segments and index strides")
+    void readsBack() {
+        try (Scrollback history = small(100)) {
+            for (int i = 0; i < 5_000; i++) {
+                history.append("line " + i + " — ünïcödé");
+            }
+            assertThat(history.endLine()).isEqualTo(5_000);
+            assertThat(history.line(0)).isEqualTo("line 0 — ünïcödé");
+            assertThat(history.line(Scrollback.STRIDE + 1)).startsWith("line 65 ");
+            assertThat(history.lines(4_990, 50)).hasSize(10)
+                    .first().asString().startsWith("line 4990 ");
+            assertThat(history.line(5_000)).as("not written yet").isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("embedded newlines split, carriage returns flatten, giant lines are cut")
+    void lineShaping() {
+        try (Scrollback history = small(4)) {
+            history.append("a\nb\r");
+            history.append("x".repeat(Scrollback.LINE_CAP * 2));
+            assertThat(history.lines(0, 3)).hasSize(3);
+            assertThat(history.line(0)).isEqualTo("a");
+            assertThat(history.line(1)).isEqualTo("b ");
+            assertThat(history.line(2)).hasSize(Scrollback.LINE_CAP + 1).endsWith("…");
+        }
+    }
+
+    @Test
+    @DisplayName("retention drops the oldest segment files; numbering stays absolute")
+    void retention() throws Exception {
+        try (Scrollback history = small(3)) {
+            for (int i = 0; i < 20_000; i++) {
+                history.append("row " + i);
+            }
+            long first = history.firstLine();
+            assertThat(first).isPositive();
+            assertThat(history.line(first - 1)).isNull();
+            assertThat(history.line(first)).isEqualTo("row " + first);
+            assertThat(history.line(19_999)).isEqualTo("row 19999");
+            try (var files = Files.list(dir)) {
+                assertThat(files.count()).isEqualTo(3);
+            }
+        }
+        try (var files = Files.list(dir)) {
+            assertThat(files.count()).as("close removes the spill").isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("search finds the nearest match either way across the whole history, and can be cancelled")
+    void search() {
+        try (Scrollback history = small(100)) {
+            for (int i = 0; i < 10_000; i++) {
+                history.append(i % 997 == 0 ? "ERROR build " + i : "ok " + i);
+            }
+            Pattern error = Pattern.compile("ERROR build \\d+");
+            assertThat(history.search(error, 9_999, false, () -> false)).isEqualTo(9_970);
+            assertThat(history.search(error, 9_969, false, () -> false)).isEqualTo(8_973);
+            assertThat(history.search(error, 1, true, () -> false)).isEqualTo(997);
+            assertThat(history.search(Pattern.compile("nowhere"), 9_999, false, () -> false)).isEqualTo(-1);
+
+            AtomicInteger asked = new AtomicInteger();
+            assertThat(history.search(Pattern.compile("nowhere"), 9_999, false,
+                    () -> asked.incrementAndGet() > 2)).isEqualTo(-1);
+            assertThat(asked.get()).as("gave up as soon as told").isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("clear restarts numbering; an empty history has nothing to find")
+    void clear() {
+        try (Scrollback history = small(2)) {
+            history.append("one");
+            history.clear();
+            assertThat(history.size()).isZero();
+            assertThat(history.search(Pattern.compile("one"), 0, false, () -> false)).isEqualTo(-1);
+            history.append("two");
+            assertThat(history.line(0)).isEqualTo("two");
+        }
+    }
+}
@@ -223,4 +223,14 @@ class VeritasRunnerMatrixTest {
         assertThat(commandFor("cargo", true))
                 .as("no portable cargo coverage flag").containsExactly("cargo", "test");
     }
+
+    @Test
+    @DisplayName("AFFECTED names the test files literally: jest by path, vitest positionally")
+    void affectedCommands() {
+        List<String> tests = List.of("src/cart.test.ts", "app/[id]/page.test.tsx");
+        assertThat(TestDevice.affectedCommand("jest", tests, false)).containsExactly(
+                "npx", "jest", "--runTestsByPath", "src/cart.test.ts", "app/[id]/page.test.tsx");
+        assertThat(TestDevice.affectedCommand("vitest", tests, true)).containsExactly(
+                "npx", "vitest", "run", "src/cart.test.ts", "app/[id]/page.test.tsx", "--coverage");
+    }
 }
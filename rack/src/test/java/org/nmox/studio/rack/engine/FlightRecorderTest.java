@@ -98,7 +98,7 @@ class FlightRecorderTest {
     @Test
     @DisplayName("The tape survives the JVM: journal writes and reloads")
     void journalRoundTrips(@org.junit.jupiter.api.io.TempDir java.io.File dir) {
-        java.io.File journal = new java.io.File(dir, "flight.jsonl");
+        java.io.File journal = new java.io.File(dir, "flight");
 
         FlightRecorder first = new FlightRecorder(now::get);
         first.attachJournal(journal);
@@ -106,9 +106,9 @@ class FlightRecorderTest {
         tick(1_200);
         first.line("FORGE", "[exit 0]", false);
         // the journal append rides its own lane now (off the recorder monitor);
-        // drain it before reading the file back
+        // drain it before reading the store back
         FlightRecorder.awaitJournalIdle();
-        assertThat(journal).exists();
+        assertThat(journal.list()).anyMatch(name -> name.endsWith(".seg"));
 
         FlightRecorder reborn = new FlightRecorder(now::get);
         reborn.attachJournal(journal);
@@ -121,9 +121,10 @@ class FlightRecorderTest {
     @DisplayName("Journal disk I/O rides JOURNAL_RP, never inline under the recorder monitor")
     void journalWritesOffTheMonitor() throws Exception {
         // Source gate for the rack-engine review's MED-1: record() must hand the
-        // append to JOURNAL_RP, not call appendToJournal(e) inline — otherwise a
-        // slow/full disk stalls every device's output pump (all funnel through
-        // the recorder monitor) and blocks EDT readers behind a pump's write.
+        // write to JOURNAL_RP, not write inline — otherwise a slow/full disk
+        // stalls every device's output pump (all funnel through the recorder
+        // monitor) and blocks EDT readers behind a pump's write. Group commit:
+        // only the event that opens a batch posts the flush.
         String src = java.nio.file.Files.readString(java.nio.file.Path.of(
                 "src/main/java/org/nmox/studio/rack/engine/FlightRecorder.java"),
                 java.nio.charset.StandardCharsets.UTF_8);
@@ -131,50 +132,124 @@ class FlightRecorderTest {
         assertThat(m).as("record() exists").isPositive();
         String body = src.substring(m, src.indexOf("\n    }", m));
         assertThat(body)
-                .as("the append is posted to the journal lane")
-                .contains("JOURNAL_RP.post(() -> appendToJournal(e))");
+                .as("the batch flush is posted to the journal lane")
+                .contains("JOURNAL_RP.post(this::flushJournal)");
         assertThat(body)
-                .as("the append is NOT run inline under the caller's monitor")
-                .doesNotContain("        appendToJournal(e);");
+                .as("nothing is written inline under the caller's monitor")
+                .doesNotContain("flushJournal();")
+                .doesNotContain("store");
     }
 
     @Test
-    @DisplayName("A corrupt journal line is skipped, not fatal")
-    void corruptJournalLineSkipped(@org.junit.jupiter.api.io.TempDir java.io.File dir) throws Exception {
-        java.io.File journal = new java.io.File(dir, "flight.jsonl");
-        java.nio.file.Files.writeString(journal.toPath(),
+    @DisplayName("A burst is group-committed: one flush carries everything that queued behind it")
+    void burstGroupCommits(@org.junit.jupiter.api.io.TempDir java.io.File dir) throws Exception {
+        FlightRecorder writer = new FlightRecorder(now::get);
+        writer.attachJournal(new java.io.File(dir, "flight"));
+        java.util.concurrent.CountDownLatch hold = new java.util.concurrent.CountDownLatch(1);
+        // park the lane so the burst queues up behind it
+        FlightRecorder.onJournalLane(() -> {
+            try {
+                hold.await(10, java.util.concurrent.TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        for (int i = 0; i < 500; i++) {
+            writer.line("FORGE", "$ build-" + i, false);
+        }
+        hold.countDown();
+        FlightRecorder.awaitJournalIdle();
+
+        assertThat(writer.flushes()).as("one write for the whole burst").isEqualTo(1);
+        FlightRecorder reborn = new FlightRecorder(now::get);
+        reborn.attachJournal(new java.io.File(dir, "flight"));
+        assertThat(reborn.timeline()).hasSize(500);
+    }
+
+    @Test
+    @DisplayName("A JSONL journal from before the segment store migrates once; corrupt lines are skipped")
+    void legacyJournalMigrates(@org.junit.jupiter.api.io.TempDir java.io.File dir) throws Exception {
+        java.io.File legacy = new java.io.File(dir, "flight.jsonl");
+        java.nio.file.Files.writeString(legacy.toPath(),
                 FlightRecorder.eventToJson(new FlightRecorder.Event(1, "A", Kind.LAUNCH, "x", -1))
                 + "\n{garbage\n");
         FlightRecorder rec2 = new FlightRecorder(now::get);
-        rec2.attachJournal(journal);
+        rec2.attachJournal(new java.io.File(dir, "flight"));
         assertThat(rec2.timeline()).hasSize(1);
+        assertThat(legacy).doesNotExist();
+
+        FlightRecorder reborn = new FlightRecorder(now::get);
+        reborn.attachJournal(new java.io.File(dir, "flight"));
+        assertThat(reborn.timeline()).hasSize(1);
     }
 
     @Test
-    @DisplayName("The journal rotates at its cap, keeping the newer half, still loadable")
-    void journalRotates(@org.junit.jupiter.api.io.TempDir java.io.File dir) {
-        java.io.File journal = new java.io.File(dir, "flight.jsonl");
+    @DisplayName("Retention drops whole old segments, keeping the store near its cap, still loadable")
+    void journalRetains(@org.junit.jupiter.api.io.TempDir java.io.File dir) {
+        java.io.File journal = new java.io.File(dir, "flight");
         FlightRecorder writer = new FlightRecorder(now::get);
-        writer.attachJournal(journal);
+        writer.attach(new FlightStore(journal, 16 * 1024, 64 * 1024));
 
-        // ~20k events at ~90 bytes/line crosses the 1.5MB cap and rotates
         for (int i = 0; i < 20_000; i++) {
             tick(1);
             writer.line("FORGE", "$ build-" + i, false);
         }
-        // appends + rotation ride JOURNAL_RP now; drain before reading the file
+        // appends ride JOURNAL_RP; drain before reading the store
         FlightRecorder.awaitJournalIdle();
 
-        assertThat(journal.length())
-                .as("rotation must keep the file near its cap, not unbounded")
-                .isLessThan(2_000_000);
+        long total = 0;
+        for (java.io.File f : journal.listFiles()) {
+            total += f.length();
+        }
+        assertThat(total)
+                .as("retention must keep the store near its cap, not unbounded")
+                .isLessThan(64 * 1024 + 2 * 16 * 1024);
+        assertThat(new java.io.File(journal, "000000000001.seg"))
+                .as("the oldest segment was dropped whole")
+                .doesNotExist();
 
         FlightRecorder reborn = new FlightRecorder(now::get);
         reborn.attachJournal(journal);
         assertThat(reborn.timeline()).isNotEmpty();
         var lastLoaded = reborn.timeline().get(reborn.timeline().size() - 1);
         assertThat(lastLoaded.text())
-                .as("the newest event survives rotation")
+                .as("the newest event survives retention")
                 .isEqualTo("build-19999");
     }
+
+    @Test
+    @DisplayName("Run-time quantiles span sessions: the journal's history is the creep yardstick")
+    void quantilesAcrossSessions(@org.junit.jupiter.api.io.TempDir java.io.File dir) {
+        java.io.File journal = new java.io.File(dir, "flight");
+        FlightRecorder yesterday = new FlightRecorder(now::get);
+        yesterday.attachJournal(journal);
+        for (int i = 0; i < 100; i++) {
+            yesterday.line("FORGE", "$ npm run build", false);
+            tick(1_000 + (i % 10) * 20);
+            yesterday.line("FORGE", "[exit 0]", false);
+        }
+        FlightRecorder.awaitJournalIdle();
+        tick(24L * 60 * 60 * 1000);
+
+        FlightRecorder today = new FlightRecorder(now::get);
+        today.attachJournal(journal);
+        FlightRecorder.Percentiles p = today.durations("FORGE", FlightRecorder.CREEP_WINDOW_MS);
+        assertThat(p.count()).isEqualTo(100);
+        assertThat(p.p50()).isBetween(1_050L, 1_130L);
+        assertThat(p.p99()).isBetween(1_150L, 1_220L);
+        assertThat(today.durations("FORGE", 60_000).count()).as("outside a one-minute window").isZero();
+
+        // the first run of the new session is already judged against yesterday
+        today.line("FORGE", "$ npm run build", false);
+        tick(3_000);
+        today.line("FORGE", "[exit 0]", false);
+        assertThat(today.statistics().get("FORGE").count()).isEqualTo(1);
+        assertThat(today.slowCreep()).isEqualTo("FORGE");
+
+        today.setCreepWindow(60_000);
+        today.line("FORGE", "$ npm run build", false);
+        tick(3_100);
+        today.line("FORGE", "[exit 0]", false);
+        assertThat(today.slowCreep()).as("a one-minute window holds too few runs to judge").isNull();
+    }
 }
@@ -0,0 +1,134 @@
+package org.nmox.studio.rack.engine;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.nmox.studio.rack.engine.FlightRecorder.Event;
+import org.nmox.studio.rack.engine.FlightRecorder.Kind;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The segment store below the flight recorder: records round-trip
+ * exactly, a time-range scan decodes only the blocks its index says
+ * overlap, a torn tail is cut back to the last whole record, and
+ * retention is whole-segment deletes.
+ */
+class FlightStoreTest {
+
+    @TempDir
+    File dir;
+
+    private static List<Event> run(long from, int n) {
+        List<Event> out = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            out.add(new Event(from + i * 1_000L, "FORGE", i % 2 == 0 ? Kind.LAUNCH : Kind.EXIT_OK,
+                    i % 2 == 0 ? "npm run build — ünïcode " + i : "OK", i % 2 == 0 ? -1 : 900 + i));
+        }
+        return out;
+    }
+
+    private static List<Event> scan(FlightStore store, long from, long to) {
+        List<Event> out = new ArrayList<>();
+        store.scan(from, to, out::add);
+        return out;
+    }
+
+    @Test
+    @DisplayName("records round-trip exactly, across batches and a reopen")
+    void roundTrip() {
+        List<Event> events = run(1_700_000_000_000L, 300);
+        FlightStore store = new FlightStore(dir, 1 << 20, 1 << 22);
+        store.append(events.subList(0, 100));
+        store.append(events.subList(100, 300));
+        store.close();
+
+        FlightStore reopened = new FlightStore(dir, 1 << 20, 1 << 22);
+        assertThat(reopened.tail(1_000)).containsExactlyElementsOf(events);
+        assertThat(reopened.tail(5)).containsExactlyElementsOf(events.subList(295, 300));
+        reopened.append(List.of(new Event(1_700_000_000_000L - 5, "LATE", Kind.ERROR, "clock stepped back", -1)));
+        assertThat(reopened.tail(1).get(0).at()).isEqualTo(1_700_000_000_000L - 5);
+        assertThat(reopened.segments()).as("an unsealed segment is appended to, not replaced").hasSize(1);
+    }
+
+    @Test
+    @DisplayName("a time-range scan decodes only the blocks the index says overlap")
+    void indexSkips() {
+        long t0 = 1_700_000_000_000L;
+        FlightStore store = new FlightStore(dir, 8 * 1024, 1 << 22);
+        for (int batch = 0; batch < 40; batch++) {
+            store.append(run(t0 + batch * 100_000L, 100));
+        }
+        assertThat(store.segments().length).as("sealed segments with sidecars").isGreaterThan(3);
+        assertThat(dir.list()).anyMatch(n -> n.endsWith(".idx"));
+
+        List<Event> hits = scan(store, t0 + 1_000_000, t0 + 1_050_000);
+        assertThat(hits).hasSize(50);
+        assertThat(hits).allMatch(e -> e.at() >= t0 + 1_000_000 && e.at() < t0 + 1_050_000);
+        int totalBlocks = 40 * 100 / FlightStore.BLOCK;
+        assertThat(store.decodedBlocks()).as("a narrow window is a couple of blocks").isLessThan(4)
+                .isLessThan(totalBlocks);
+
+        assertThat(scan(store, 0, Long.MAX_VALUE)).hasSize(4_000);
+        assertThat(scan(store, t0 + 10_000_000, Long.MAX_VALUE)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("a write torn by a crash is cut back to the last whole record")
+    void tornTail() throws Exception {
+        List<Event> events = run(1_700_000_000_000L, 10);
+        FlightStore store = new FlightStore(dir, 1 << 20, 1 << 22);
+        store.append(events);
+        store.close();
+        File seg = new File(dir, String.format("%012d.seg", store.segments()[0]));
+        long whole = seg.length();
+        try (RandomAccessFile f = new RandomAccessFile(seg, "rw")) {
+            f.setLength(whole - 3); // the last record loses its checksum tail
+        }
+
+        FlightStore reopened = new FlightStore(dir, 1 << 20, 1 << 22);
+        assertThat(reopened.tail(100)).containsExactlyElementsOf(events.subList(0, 9));
+        reopened.append(events.subList(9, 10));
+        assertThat(reopened.tail(100)).containsExactlyElementsOf(events);
+    }
+
+    @Test
+    @DisplayName("retention deletes whole oldest segments and never the one being written")
+    void retention() {
+        long t0 = 1_700_000_000_000L;
+        FlightStore store = new FlightStore(dir, 4 * 1024, 16 * 1024);
+        for (int batch = 0; batch < 60; batch++) {
+            store.append(run(t0 + batch * 100_000L, 50));
+        }
+        long[] segs = store.segments();
+        assertThat(segs[0]).as("the oldest went").isGreaterThan(1);
+        long total = 0;
+        for (File f : dir.listFiles((d, n) -> n.endsWith(".seg"))) {
+            total += f.length();
+        }
+        assertThat(total).isLessThanOrEqualTo(16 * 1024 + 8 * 1024);
+        List<Event> tail = store.tail(1);
+        assertThat(tail.get(0).at()).isEqualTo(t0 + 59 * 100_000L + 49 * 1_000L);
+    }
+
+    @Test
+    @DisplayName("the bucketed quantiles stay within a few percent")
+    void histogramPrecision() {
+        DurationHistogram h = new DurationHistogram();
+        assertThat(h.quantile(0.5)).isEqualTo(-1);
+        for (int ms = 1; ms <= 10_000; ms++) {
+            h.record(ms);
+        }
+        assertThat(h.count()).isEqualTo(10_000);
+        assertThat(h.quantile(0.50)).isCloseTo(5_000L, org.assertj.core.data.Percentage.withPercentage(3));
+        assertThat(h.quantile(0.95)).isCloseTo(9_500L, org.assertj.core.data.Percentage.withPercentage(3));
+        assertThat(h.quantile(0.99)).isCloseTo(9_900L, org.assertj.core.data.Percentage.withPercentage(3));
+        DurationHistogram small = new DurationHistogram();
+        small.record(42);
+        assertThat(small.quantile(0.99)).as("exact below 64ms").isEqualTo(42);
+    }
+}
@@ -0,0 +1,169 @@
+package org.nmox.studio.rack.engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * AFFECTED mode's map: specifiers resolve the way bundlers resolve them
+ * (extension and index probing, TS sources behind .js specifiers,
+ * tsconfig path aliases), a change reaches every test that imports it
+ * however indirectly, the second refresh re-reads only what moved, and
+ * a config change or an unimported one is always a full run.
+ */
+class ImportGraphTest {
+
+    @TempDir
+    Path root;
+
+    private Path write(String rel, String text) throws IOException {
+        Path p = root.resolve(rel);
+        Files.createDirectories(p.getParent());
+        Files.writeString(p, text);
+        return p;
+    }
+
+    @Test
+    @DisplayName("relative specifiers probe extensions, index files and TS sources behind .js")
+    void resolvesLikeBundlers() throws IOException {
+        Path util = write("src/util.ts", "export const x = 1;");
+        Path index = write("src/lib/index.tsx", "export default 1;");
+        Path css = write("src/app.css", "body {}");
+        Path app = write("src/app.ts", "import a from './util.js'");
+        ImportGraph graph = new ImportGraph(root);
+
+        assertThat(graph.resolve(app, "./util")).isEqualTo(util);
+        assertThat(graph.resolve(app, "./util.js")).isEqualTo(util);
+        assertThat(graph.resolve(app, "./lib")).isEqualTo(index);
+        assertThat(graph.resolve(app, "./app.css?inline")).isEqualTo(css);
+        assertThat(graph.resolve(app, "react")).as("packages are not followed").isNull();
+        assertThat(graph.resolve(app, "./missing")).isNull();
+    }
+
+    @Test
+    @DisplayName("a change reaches tests through import, export-from, require and dynamic import")
+    void transitiveTests() throws IOException {
+        write("src/price.ts", "export const price = 1;");
+        write("src/cart.ts", "import { price } from './price';\nexport * from './tax';");
+        write("src/tax.js", "module.exports = 1;");
+        write("src/checkout.ts", "export { cart } from \"./cart\";");
+        write("src/lazy.ts", "const m = await import('./checkout');");
+        write("src/cart.test.ts", "import { cart } from './cart';");
+        write("src/__tests__/lazy.ts", "import './../lazy';");
+        write("src/old.spec.js", "const tax = require('./tax');");
+        write("src/other.test.ts", "import 'react';");
+        ImportGraph graph = new ImportGraph(root);
+        graph.refresh();
+
+        assertThat(graph.affectedTests(List.of(root.resolve("src/price.ts"))))
+                .containsExactly(root.resolve("src/__tests__/lazy.ts"), root.resolve("src/cart.test.ts"));
+        assertThat(graph.affectedTests(List.of(root.resolve("src/tax.js"))))
+                .containsExactly(root.resolve("src/__tests__/lazy.ts"), root.resolve("src/cart.test.ts"),
+                        root.resolve("src/old.spec.js"));
+        assertThat(graph.affectedTests(List.of(root.resolve("src/other.test.ts"))))
+                .as("a changed test affects itself").containsExactly(root.resolve("src/other.test.ts"));
+        assertThat(graph.affectedTests(List.of(root.resolve("README.md")))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("tsconfig paths aliases resolve, comments and trailing commas notwithstanding")
+    void aliases() throws IOException {
+        write("tsconfig.json", """
+                {
+                  // editor-only comment
+                  "compilerOptions": {
+                    "baseUrl": ".",
+                    "paths": { "@/*": ["src/*"], "~config": ["src/config.ts"], },
+                  },
+                }
+                """);
+        Path button = write("src/ui/button.tsx", "export default 1;");
+        Path config = write("src/config.ts", "export default 1;");
+        write("test/button.test.tsx", "import Button from '@/ui/button';\nimport c from '~config';");
+        ImportGraph graph = new ImportGraph(root);
+        graph.refresh();
+
+        assertThat(graph.affectedTests(List.of(button))).containsExactly(root.resolve("test/button.test.tsx"));
+        assertThat(graph.affectedTests(List.of(config))).containsExactly(root.resolve("test/button.test.tsx"));
+    }
+
+    @Test
+    @DisplayName("refresh re-reads only changed files, and a new file heals a dangling import")
+    void incremental() throws IOException {
+        write("src/a.ts", "export const a = 1;");
+        Path b = write("src/b.ts", "import { a } from './a';");
+        write("src/b.test.ts", "import './b'; import './c';");
+        write("node_modules/lib/index.js", "require('./x');");
+        ImportGraph graph = new ImportGraph(root);
+
+        assertThat(graph.refresh()).isEqualTo(3);
+        assertThat(graph.size()).as("node_modules is not the user's code").isEqualTo(3);
+        assertThat(graph.refresh()).as("nothing moved").isZero();
+
+        Files.writeString(b, "import { a } from './a';\nexport const b = 2;");
+        Files.setLastModifiedTime(b, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+        assertThat(graph.refresh()).isEqualTo(1);
+
+        Path c = write("src/c.ts", "export const c = 3;");
+        assertThat(graph.refresh()).as("the new file plus the test that was waiting for it").isEqualTo(2);
+        assertThat(graph.affectedTests(List.of(c))).containsExactly(root.resolve("src/b.test.ts"));
+        assertThat(graph.reads()).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("config, lockfile and env changes, no changes, or too many tests all mean a full run")
+    void plans() throws IOException {
+        Path a = write("src/a.ts", "export const a = 1;");
+        write("src/a.test.ts", "import './a';");
+        write("src/a2.test.ts", "import './a';");
+        ImportGraph graph = new ImportGraph(root);
+
+        assertThat(graph.plan(List.of(root.resolve("package.json")), 10).full()).isTrue();
+        assertThat(graph.plan(List.of(a, root.resolve("vitest.config.ts")), 10).full()).isTrue();
+        assertThat(graph.plan(List.of(root.resolve(".env.local")), 10).full()).isTrue();
+        assertThat(graph.plan(List.of(), 10).full()).isTrue();
+        assertThat(graph.plan(List.of(a), 1).full()).isTrue();
+
+        ImportGraph.Plan plan = graph.plan(List.of(a), 10);
+        assertThat(plan.full()).isFalse();
+        assertThat(plan.tests()).containsExactly(root.resolve("src/a.test.ts"), root.resolve("src/a2.test.ts"));
+        assertThat(graph.plan(List.of(root.resolve("src/a.test.ts")), 10).tests())
+                .as("a changed test runs itself").containsExactly(root.resolve("src/a.test.ts"));
+        ImportGraph.Plan docs = graph.plan(List.of(root.resolve("docs/notes.md")), 10);
+        assertThat(docs.full()).isFalse();
+        assertThat(docs.tests()).as("nothing imports it: nothing to run").isEmpty();
+    }
+
+    @Test
+    @DisplayName("an unimported test input — a mock, a setup file, a fixture — means a full run; docs and caches do not")
+    void unimported() throws IOException {
+        write("src/api.ts", "export const get = () => 1;");
+        Path mock = write("src/__mocks__/api.ts", "export const get = () => 2;");
+        Path setup = write("test/setup-dom.ts", "globalThis.fetch = () => null;");
+        write("src/format.ts", "export const fmt = String;");
+        write("src/page.ts", "import { get } from './api'; import { fmt } from './format';");
+        write("src/api.test.ts", "import { get } from './api';");
+        ImportGraph graph = new ImportGraph(root);
+
+        for (Path changed : List.of(mock, setup, root.resolve("src/fixtures/users.json"))) {
+            ImportGraph.Plan plan = graph.plan(List.of(changed), 10);
+            assertThat(plan.full()).as("%s", changed.getFileName()).isTrue();
+            assertThat(plan.reason()).contains("no importers");
+        }
+        Path entry = write("src/main.tsx", "import './page';");
+        for (Path changed : List.of(root.resolve("README.md"), root.resolve("src/site.css"),
+                root.resolve(".eslintcache"), root.resolve("tsconfig.tsbuildinfo"), entry,
+                root.resolve("src/format.ts"))) {
+            ImportGraph.Plan plan = graph.plan(List.of(changed), 10);
+            assertThat(plan.full()).as("%s reaches no test", changed.getFileName()).isFalse();
+            assertThat(plan.tests()).isEmpty();
+        }
+    }
+}
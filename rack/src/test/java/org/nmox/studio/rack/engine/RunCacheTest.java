@@ -0,0 +1,133 @@
+package org.nmox.studio.rack.engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The skip cache: a fingerprint moves with content, command and env but
+ * not with an untouched tree; unchanged files are not read twice; a
+ * stored run replays across instances (the store is on disk); and a
+ * run whose declared outputs vanished is a miss.
+ */
+class RunCacheTest {
+
+    @TempDir
+    Path root;
+
+    private static final RunCache.Inputs TS = new RunCache.Inputs(List.of("**/*.ts"), List.of());
+    private static final List<String> TSC = List.of("npx", "tsc", "--noEmit");
+
+    private Path write(String rel, String text) throws IOException {
+        Path p = root.resolve(rel);
+        Files.createDirectories(p.getParent());
+        Files.writeString(p, text);
+        // settled files: older than the racy window, so the stat cache trusts them
+        Files.setLastModifiedTime(p, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        return p;
+    }
+
+    private RunCache cache() {
+        return new RunCache(root, root.resolve(".nmox/run-cache/test.json"));
+    }
+
+    @Test
+    @DisplayName("the fingerprint follows content, command, env and dotenv files — nothing else")
+    void fingerprintInputs() throws IOException {
+        Path a = write("src/a.ts", "export const a = 1;");
+        write("README.md", "docs");
+        write("node_modules/x/index.ts", "ignored");
+        RunCache cache = cache();
+        String first = cache.fingerprint(TS, TSC, Map.of());
+
+        assertThat(cache.fingerprint(TS, TSC, Map.of())).isEqualTo(first);
+        write("README.md", "other docs");
+        write("node_modules/x/index.ts", "still ignored");
+        assertThat(cache.fingerprint(TS, TSC, Map.of())).as("not a declared input").isEqualTo(first);
+
+        assertThat(cache.fingerprint(TS, List.of("npx", "tsc", "--strict"), Map.of())).isNotEqualTo(first);
+        assertThat(cache.fingerprint(TS, TSC, Map.of("NODE_ENV", "production"))).isNotEqualTo(first);
+
+        write(".env", "API=1");
+        String withEnvFile = cache.fingerprint(TS, TSC, Map.of());
+        assertThat(withEnvFile).isNotEqualTo(first);
+
+        Files.writeString(a, "export const a = 2;"); // same size, new content
+        Files.setLastModifiedTime(a, FileTime.fromMillis(System.currentTimeMillis() - 30_000));
+        assertThat(cache.fingerprint(TS, TSC, Map.of())).isNotEqualTo(withEnvFile);
+    }
+
+    @Test
+    @DisplayName("unchanged files are summed once; touched or fresh ones are summed again")
+    void statCache() throws IOException {
+        write("src/a.ts", "a");
+        Path b = write("src/b.ts", "b");
+        RunCache cache = cache();
+        cache.fingerprint(TS, TSC, Map.of());
+        assertThat(cache.summed()).isEqualTo(2);
+
+        cache.fingerprint(TS, TSC, Map.of());
+        assertThat(cache.summed()).as("nothing moved: no reads").isEqualTo(2);
+
+        Files.writeString(b, "bb");
+        cache.fingerprint(TS, TSC, Map.of());
+        assertThat(cache.summed()).isEqualTo(3);
+        cache.fingerprint(TS, TSC, Map.of());
+        assertThat(cache.summed()).as("a just-written file is racy: read again").isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("a stored run replays from a fresh instance; a different fingerprint misses")
+    void storeAndReplay() throws IOException {
+        write("src/a.ts", "a");
+        RunCache cache = cache();
+        String key = cache.fingerprint(TS, TSC, Map.of());
+        assertThat(cache.lookup(key, TS)).isNull();
+        cache.store(key, TS, 2, List.of("src/a.ts(1,1): error TS1: nope", "Found 1 error."));
+
+        RunCache reborn = cache();
+        RunCache.Result hit = reborn.lookup(reborn.fingerprint(TS, TSC, Map.of()), TS);
+        assertThat(hit).isNotNull();
+        assertThat(hit.exitCode()).isEqualTo(2);
+        assertThat(hit.lines()).containsExactly("src/a.ts(1,1): error TS1: nope", "Found 1 error.");
+        assertThat(reborn.lookup("0".repeat(64), TS)).isNull();
+    }
+
+    @Test
+    @DisplayName("a build whose output directory changed or vanished is not replayed")
+    void outputsGuardHits() throws IOException {
+        RunCache.Inputs build = new RunCache.Inputs(List.of("**/*"), List.of("dist"));
+        write("src/main.ts", "main");
+        Path bundle = write("dist/main.js", "bundle");
+        RunCache cache = cache();
+        String key = cache.fingerprint(build, List.of("npx", "vite", "build"), Map.of());
+        cache.store(key, build, 0, List.of("built in 1.2s"));
+        assertThat(cache.lookup(key, build)).isNotNull();
+
+        Files.delete(bundle);
+        assertThat(cache.lookup(key, build)).isNull();
+    }
+
+    @Test
+    @DisplayName("only the newest runs are kept; a corrupt store is an empty cache")
+    void boundedAndForgiving() throws IOException {
+        RunCache cache = cache();
+        for (int i = 0; i < RunCache.ENTRIES + 3; i++) {
+            cache.store("k" + i, TS, 0, List.of());
+        }
+        RunCache reborn = cache();
+        assertThat(reborn.lookup("k0", TS)).isNull();
+        assertThat(reborn.lookup("k" + (RunCache.ENTRIES + 2), TS)).isNotNull();
+
+        Files.writeString(root.resolve(".nmox/run-cache/test.json"), "{not json");
+        assertThat(cache().lookup("k10", TS)).isNull();
+    }
+}
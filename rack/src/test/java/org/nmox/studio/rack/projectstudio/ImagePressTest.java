@@ -163,6 +163,69 @@ class ImagePressTest {
                 .containsExactlyInAnyOrder("a.jpg", "c.png");
     }
 
+    @Test
+    @DisplayName("A batch presses in parallel, reports each file as it lands, answers in scan order")
+    void batchReportsAsFilesLand() throws Exception {
+        List<ImagePress.Candidate> found = new java.util.ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            File f = writeJpegFixture("p" + i + ".jpg", 300, 200);
+            found.add(new ImagePress.Candidate(f, f.length()));
+        }
+        File junk = new File(dir, "junk.jpg");
+        Files.writeString(junk.toPath(), "not an image");
+        found.add(new ImagePress.Candidate(junk, junk.length()));
+        List<ImagePress.Progress> heard = java.util.Collections.synchronizedList(new java.util.ArrayList<>());
+
+        List<ImagePress.Pressed> pressed = ImagePress.pressAll(found,
+                new ImagePress.Options(true, 0.7f, 0, null, 80), heard::add);
+
+        assertThat(pressed).extracting(p -> p.candidate().file().getName())
+                .containsExactly("p0.jpg", "p1.jpg", "p2.jpg", "p3.jpg", "p4.jpg", "junk.jpg");
+        assertThat(heard).extracting(ImagePress.Progress::done).containsExactly(1, 2, 3, 4, 5, 6);
+        long total = pressed.stream().mapToLong(ImagePress.Pressed::saved).sum();
+        assertThat(total).isPositive();
+        assertThat(heard.get(heard.size() - 1).saved()).isEqualTo(total);
+        assertThat(pressed.get(5).results().get(0).note()).contains("not a decodable image");
+    }
+
+    @Test
+    @DisplayName("A downscale decodes subsampled; a picture bigger than the whole budget still runs")
+    void subsampledUnderATinyBudget() throws Exception {
+        File src = writeJpegFixture("wide.jpg", 1000, 250);
+
+        ImagePress.Result r = ImagePress.pressJpeg(src, 0.8f, 200, new ImagePress.Budget(1));
+
+        BufferedImage out = ImageIO.read(r.output());
+        assertThat(out.getWidth()).isEqualTo(200);
+        assertThat(out.getHeight()).isEqualTo(50);
+        assertThat(r.note()).contains("resized to 200px");
+    }
+
+    @Test
+    @org.junit.jupiter.api.condition.DisabledOnOs(org.junit.jupiter.api.condition.OS.WINDOWS)
+    @DisplayName("cwebp runs alongside the JPEG lane; each file lists its JPEG then its WebP")
+    void webpLaneRunsConcurrently() throws Exception {
+        File cwebp = new File(dir, "fake-cwebp");
+        // args: -quiet -q N <src> -o <out>
+        Files.writeString(cwebp.toPath(), "#!/bin/sh\nsleep 0.2\ncp \"$4\" \"$6\"\n");
+        cwebp.setExecutable(true);
+        List<ImagePress.Candidate> found = new java.util.ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            File f = writeJpegFixture("w" + i + ".jpg", 200, 150);
+            found.add(new ImagePress.Candidate(f, f.length()));
+        }
+
+        List<ImagePress.Pressed> pressed = ImagePress.pressAll(found,
+                new ImagePress.Options(true, 0.7f, 0, cwebp, 80), null);
+
+        for (ImagePress.Pressed p : pressed) {
+            assertThat(p.results()).hasSize(2);
+            assertThat(p.results().get(0).output().getName()).endsWith(".min.jpg");
+            assertThat(p.results().get(1).note()).isEqualTo("webp sibling");
+        }
+        assertThat(new File(dir, "w2.webp")).exists();
+    }
+
     @Test
     @DisplayName("The picture snippet serves WebP first and falls back")
     void snippet() {
@@ -0,0 +1,132 @@
+package org.nmox.studio.rack.projectstudio;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The doctor's memory and its parallel sweep: an unchanged binary is
+ * answered without a launch, a changed one is probed again, the answers
+ * survive a restart, and the sweep streams every finding — concurrently,
+ * and a probe that throws as a failed one.
+ */
+class ProbeCacheTest {
+
+    @TempDir
+    Path dir;
+
+    /** A fake tool that counts its launches in {@code launches}. */
+    private Path tool(String version) throws Exception {
+        Path script = dir.resolve("fake-tool");
+        Files.writeString(script, "#!/bin/sh\necho x >> '" + dir.resolve("launches")
+                + "'\necho " + version + "\n");
+        script.toFile().setExecutable(true);
+        return script;
+    }
+
+    private long launches() throws Exception {
+        Path log = dir.resolve("launches");
+        return Files.exists(log) ? Files.readAllLines(log).size() : 0;
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    @DisplayName("an unchanged binary answers from the cache; a changed one launches again")
+    void hitUntilTheBinaryChanges() throws Exception {
+        ProbeCache cache = new ProbeCache(null);
+        String bin = tool("fake 1.0").toString();
+        List<String> cmd = List.of(bin, "--version");
+
+        EnvironmentDoctor.Finding first = EnvironmentDoctor.probeCached(cache, bin, "p", "h", cmd);
+        EnvironmentDoctor.Finding again = EnvironmentDoctor.probeCached(cache, bin, "p2", "h2", cmd);
+        assertThat(first.detail()).isEqualTo("fake 1.0");
+        assertThat(again.detail()).isEqualTo("fake 1.0");
+        assertThat(again.purpose()).as("the row still carries the caller's purpose").isEqualTo("p2");
+        assertThat(launches()).as("the second answer never launched").isEqualTo(1);
+
+        tool("fake 2.0.1"); // upgraded in place: a different size
+        EnvironmentDoctor.Finding upgraded = EnvironmentDoctor.probeCached(cache, bin, "p", "h", cmd);
+        assertThat(upgraded.detail()).isEqualTo("fake 2.0.1");
+        assertThat(launches()).isEqualTo(2);
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    @DisplayName("a remembered answer survives a restart, and a missing binary is remembered as missing")
+    void persistsAcrossInstances() throws Exception {
+        Path file = dir.resolve("var/probes.json");
+        String bin = tool("fake 3.1").toString();
+        List<String> cmd = List.of(bin, "--version");
+        List<String> missing = List.of("nmox-no-such-tool-xyz", "--version");
+        ProbeCache before = new ProbeCache(file);
+        EnvironmentDoctor.probeCached(before, bin, "p", "h", cmd);
+        EnvironmentDoctor.probeCached(before, "nmox-no-such-tool-xyz", "p", "h", missing);
+        before.flush();
+
+        ProbeCache after = new ProbeCache(file);
+        ProbeCache.Entry hit = after.lookup(cmd, ProbeCache.stamp(bin));
+        assertThat(hit).isNotNull();
+        assertThat(hit.found()).isTrue();
+        assertThat(hit.detail()).isEqualTo("fake 3.1");
+        ProbeCache.Entry miss = after.lookup(missing, ProbeCache.stamp("nmox-no-such-tool-xyz"));
+        assertThat(miss).isNotNull();
+        assertThat(miss.found()).isFalse();
+
+        after.clear();
+        assertThat(after.lookup(cmd, ProbeCache.stamp(bin))).isNull();
+    }
+
+    @Test
+    @DisplayName("an unreadable cache file is an empty cache, never an error")
+    void corruptFileIsEmpty() throws Exception {
+        Path file = dir.resolve("probes.json");
+        Files.writeString(file, "{ not json");
+        ProbeCache cache = new ProbeCache(file);
+        assertThat(cache.lookup(List.of("git", "--version"), ProbeCache.stamp("git"))).isNull();
+    }
+
+    @Test
+    @DisplayName("the sweep runs probes side by side and streams every finding, even past a throw")
+    void sweepIsParallelAndComplete() {
+        List<EnvironmentDoctor.Probe> probes = new ArrayList<>();
+        for (int i = 0; i < EnvironmentDoctor.SWEEP_WIDTH; i++) {
+            String name = "tool" + i;
+            probes.add(new EnvironmentDoctor.Probe(name, "", "", () -> {
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new EnvironmentDoctor.Finding(name, "", true, "1.0", "");
+            }));
+        }
+        probes.add(new EnvironmentDoctor.Probe("broken", "p", "h", () -> {
+            throw new IllegalStateException("broken probe");
+        }));
+        List<EnvironmentDoctor.Finding> seen = new ArrayList<>();
+        long start = System.nanoTime();
+        EnvironmentDoctor.sweep(probes, seen::add);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(seen).extracting(EnvironmentDoctor.Finding::tool)
+                .as("every probe is heard, so a caller counting to the total gets there")
+                .hasSize(probes.size()).doesNotHaveDuplicates();
+        assertThat(seen).filteredOn(f -> f.tool().equals("broken")).singleElement()
+                .satisfies(f -> {
+                    assertThat(f.found()).isFalse();
+                    assertThat(f.detail()).isEqualTo("probe failed — broken probe");
+                    assertThat(f.installHint()).isEqualTo("h");
+                });
+        assertThat(elapsedMs)
+                .as("eight 300ms probes ran concurrently, not back to back (2.4s)")
+                .isLessThan(1_800);
+    }
+}
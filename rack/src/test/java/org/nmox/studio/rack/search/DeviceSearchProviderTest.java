@@ -0,0 +1,39 @@
+package org.nmox.studio.rack.search;
+
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nmox.studio.core.search.SearchTerms;
+import org.nmox.studio.rack.devices.DeviceCatalog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The catalog search through the shared index: the same devices the
+ * term rule accepts, the device named by the query first.
+ */
+class DeviceSearchProviderTest {
+
+    @Test
+    @DisplayName("a device's own name ranks it first, ahead of devices that only mention the word")
+    void nameRanksFirst() {
+        List<DeviceCatalog.Entry> hits = DeviceSearchProvider.search("tail");
+        assertThat(hits).isNotEmpty();
+        assertThat(hits.get(0).id()).isEqualTo("tail");
+        assertThat(DeviceSearchProvider.search("logs")).extracting(DeviceCatalog.Entry::id).contains("tail");
+    }
+
+    @Test
+    @DisplayName("every hit is one the term rule accepts, and repeated queries reuse the index")
+    void agreesWithTheTermRule() {
+        for (String q : List.of("bundle size", "run tests", "docker", "ai", "postgres", "zzz-nothing")) {
+            List<DeviceCatalog.Entry> hits = DeviceSearchProvider.search(q);
+            long expected = DeviceCatalog.all().stream()
+                    .filter(t -> SearchTerms.matches(q, t.title(), t.description(), t.keywords()))
+                    .count();
+            assertThat(hits).as(q).hasSize((int) Math.min(expected, 50))
+                    .allMatch(t -> SearchTerms.matches(q, t.title(), t.description(), t.keywords()));
+            assertThat(DeviceSearchProvider.search(q)).as("stable across keystrokes").isEqualTo(hits);
+        }
+    }
+}
@@ -62,6 +62,17 @@ class GitChipTest {
         assertThat(chip.label()).isEqualTo("⎇ main ±0");
     }
 
+    @Test
+    @DisplayName("the engine's count reads like porcelain's")
+    void engineCount() throws Exception {
+        GitChip chip = new GitChip();
+        chip.aim(repo("proj", "ref: refs/heads/main\n").toFile());
+        chip.count(3);
+        assertThat(chip.label()).isEqualTo("⎇ main ±3");
+        chip.count(0);
+        assertThat(chip.label()).isEqualTo("⎇ main ±0");
+    }
+
     @Test
     @DisplayName("re-aiming the same directory is a no-op — listener storms cost a compare")
     void aimEqualityGuard() throws Exception {
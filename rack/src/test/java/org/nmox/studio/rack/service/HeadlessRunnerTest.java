@@ -0,0 +1,166 @@
+package org.nmox.studio.rack.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The CI runner end to end: a patch on disk, real SOLDER processes, the
+ * real router — the exit code is the pipeline's verdict, independent
+ * branches overlap, and the report carries the timings.
+ */
+@DisabledOnOs(OS.WINDOWS)
+class HeadlessRunnerTest {
+
+    @TempDir
+    Path project;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @BeforeEach
+    void manifest() throws IOException {
+        Files.writeString(project.resolve("package.json"), "{\"name\":\"ci\"}");
+    }
+
+    private static JSONObject solder(String command) {
+        return new JSONObject().put("type", "cmd").put("state", new JSONObject().put("command", command));
+    }
+
+    private static JSONObject cable(int from, String fromPort, int to, String toPort) {
+        return new JSONObject().put("fromDevice", from).put("fromPort", fromPort)
+                .put("toDevice", to).put("toPort", toPort);
+    }
+
+    private Path patch(JSONArray devices, JSONArray cables) throws IOException {
+        Path file = project.resolve(".nmoxrack.json");
+        Files.writeString(file, new JSONObject().put("version", 1)
+                .put("devices", devices).put("cables", cables).toString(2));
+        return file;
+    }
+
+    private int run(String... args) {
+        return HeadlessRunner.cli(args, new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, JSONObject> stepsByDevice(JSONObject report) {
+        Map<String, JSONObject> byDevice = new HashMap<>();
+        JSONArray steps = report.getJSONArray("steps");
+        for (int i = 0; i < steps.length(); i++) {
+            byDevice.put(steps.getJSONObject(i).getString("device"), steps.getJSONObject(i));
+        }
+        return byDevice;
+    }
+
+    @Test
+    @DisplayName("MAESTRO fires two lanes that overlap, the chain follows OK, and the run passes")
+    void parallelLanesPass() throws Exception {
+        Path file = patch(new JSONArray()
+                .put(new JSONObject().put("type", "master"))
+                .put(solder("sh -c 'sleep 0.6'"))
+                .put(solder("sh -c 'sleep 0.6'"))
+                .put(solder("sh -c 'echo shipped'")),
+                new JSONArray()
+                        .put(cable(0, "trig1", 1, "run"))
+                        .put(cable(0, "trig2", 2, "run"))
+                        .put(cable(1, "ok", 3, "run")));
+        Path report = project.resolve("report.json");
+
+        int code = run(file.toString(), "--report", report.toString());
+
+        assertThat(code).as(err.toString(StandardCharsets.UTF_8)).isEqualTo(HeadlessRunner.EXIT_PASS);
+        JSONObject json = new JSONObject(Files.readString(report));
+        assertThat(json.getString("verdict")).isEqualTo("pass");
+        assertThat(json.getInt("lanes")).isEqualTo(2);
+        assertThat(json.getInt("peakConcurrency")).as("the two lanes ran side by side").isGreaterThanOrEqualTo(2);
+
+        Map<String, JSONObject> steps = stepsByDevice(json);
+        assertThat(steps).containsOnlyKeys("SOLDER", "SOLDER ·2", "SOLDER ·3");
+        JSONObject a = steps.get("SOLDER");
+        JSONObject b = steps.get("SOLDER ·2");
+        JSONObject c = steps.get("SOLDER ·3");
+        assertThat(steps.values()).allMatch(s -> s.getString("outcome").equals("passed"));
+        assertThat(a.getInt("lane")).isEqualTo(c.getInt("lane")).isNotEqualTo(b.getInt("lane"));
+        assertThat(a.getLong("startMs")).isLessThan(b.getLong("endMs"));
+        assertThat(b.getLong("startMs")).isLessThan(a.getLong("endMs"));
+        assertThat(c.getLong("startMs")).as("OK chains after its source").isGreaterThanOrEqualTo(a.getLong("endMs"));
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains("[SOLDER ·3] shipped");
+    }
+
+    @Test
+    @DisplayName("a failing step fails the run, and what hangs off its OK never runs")
+    void failureIsTheVerdict() throws Exception {
+        Path file = patch(new JSONArray()
+                .put(new JSONObject().put("type", "master"))
+                .put(solder("sh -c 'exit 3'"))
+                .put(solder("true")),
+                new JSONArray()
+                        .put(cable(0, "trig1", 1, "run"))
+                        .put(cable(1, "ok", 2, "run")));
+        Path report = project.resolve("report.json");
+
+        assertThat(run(file.toString(), "--report", report.toString())).isEqualTo(HeadlessRunner.EXIT_FAIL);
+        Map<String, JSONObject> steps = stepsByDevice(new JSONObject(Files.readString(report)));
+        assertThat(steps.get("SOLDER").getString("outcome")).isEqualTo("failed");
+        assertThat(steps.get("SOLDER ·2").getString("outcome")).isEqualTo("skipped");
+    }
+
+    @Test
+    @DisplayName("--trigger fires a named device when the patch has no MAESTRO")
+    void namedTrigger() throws Exception {
+        Path file = patch(new JSONArray().put(solder("true")), new JSONArray());
+        assertThat(run(file.toString())).as("nothing to fire is not a pass").isEqualTo(HeadlessRunner.EXIT_USAGE);
+        assertThat(run(file.toString(), "--trigger", "solder")).isEqualTo(HeadlessRunner.EXIT_PASS);
+        assertThat(run(file.toString(), "--trigger", "nobody")).isEqualTo(HeadlessRunner.EXIT_USAGE);
+    }
+
+    @Test
+    @DisplayName("a run that outlives --timeout is killed and exits 3")
+    void timeoutKills() throws Exception {
+        Path file = patch(new JSONArray()
+                .put(new JSONObject().put("type", "master"))
+                .put(solder("sleep 30")),
+                new JSONArray().put(cable(0, "trig1", 1, "run")));
+        Path report = project.resolve("report.json");
+        long started = System.nanoTime();
+
+        assertThat(run(file.toString(), "--timeout", "1", "--report", report.toString()))
+                .isEqualTo(HeadlessRunner.EXIT_TIMEOUT);
+        assertThat((System.nanoTime() - started) / 1_000_000_000).isLessThan(15);
+        assertThat(stepsByDevice(new JSONObject(Files.readString(report))).get("SOLDER")
+                .getString("outcome")).isEqualTo("timed_out");
+    }
+
+    @Test
+    @DisplayName("a missing, corrupt, or foreign patch is a usage error, and the file is left alone")
+    void patchErrors() throws Exception {
+        assertThat(run(project.resolve("absent.json").toString())).isEqualTo(HeadlessRunner.EXIT_USAGE);
+
+        Path corrupt = project.resolve(".nmoxrack.json");
+        Files.writeString(corrupt, "{ not json");
+        assertThat(run(corrupt.toString())).isEqualTo(HeadlessRunner.EXIT_USAGE);
+        assertThat(corrupt).as("CI must not rename the checked-in patch").hasContent("{ not json");
+
+        Path foreign = patch(new JSONArray().put(new JSONObject().put("type", "no-such-device")), new JSONArray());
+        assertThat(run(foreign.toString(), "--trigger", "x")).isEqualTo(HeadlessRunner.EXIT_USAGE);
+        assertThat(err.toString(StandardCharsets.UTF_8)).contains("no-such-device");
+
+        assertThat(run("--bogus")).isEqualTo(HeadlessRunner.EXIT_USAGE);
+    }
+}
@@ -0,0 +1,53 @@
+package org.nmox.studio.rack.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The page-vitals hub: summaries reach every listener off the caller's
+ * thread, a settled page (the same summary again) fires nothing, and a
+ * failing listener never starves the rest.
+ */
+class PageVitalsTest {
+
+    @Test
+    @DisplayName("new summaries are delivered; repeats and nulls are not")
+    void deliversChangesOnly() {
+        PageVitals vitals = new PageVitals();
+        List<String> heard = new CopyOnWriteArrayList<>();
+        vitals.addListener(heard::add);
+        vitals.publish("{\"fcp\":200}");
+        vitals.publish("{\"fcp\":200}");
+        vitals.publish(null);
+        vitals.publish("{\"fcp\":200,\"tbt\":30}");
+        vitals.awaitIdle();
+
+        assertThat(heard).containsExactly("{\"fcp\":200}", "{\"fcp\":200,\"tbt\":30}");
+        assertThat(vitals.latest()).isEqualTo("{\"fcp\":200,\"tbt\":30}");
+    }
+
+    @Test
+    @DisplayName("a throwing listener is skipped; re-adding a listener never double-delivers")
+    void isolatesListeners() {
+        PageVitals vitals = new PageVitals();
+        List<String> heard = new CopyOnWriteArrayList<>();
+        PageVitals.Listener good = heard::add;
+        vitals.addListener(json -> {
+            throw new IllegalStateException("broken device");
+        });
+        vitals.addListener(good);
+        vitals.addListener(good);
+        vitals.publish("{\"ttfb\":40}");
+        vitals.awaitIdle();
+        assertThat(heard).containsExactly("{\"ttfb\":40}");
+
+        vitals.removeListener(good);
+        vitals.publish("{\"ttfb\":41}");
+        vitals.awaitIdle();
+        assertThat(heard).hasSize(1);
+    }
+}
@@ -0,0 +1,229 @@
+package org.nmox.studio.rack.ui;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nmox.studio.rack.model.Rack;
+import org.nmox.studio.rack.model.RackDevice;
+import org.nmox.studio.rack.ui.controls.Knob;
+import org.nmox.studio.rack.ui.controls.Led;
+import org.nmox.studio.rack.ui.controls.ToggleSwitch;
+import org.nmox.studio.rack.ui.controls.VuMeter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Virtualized faceplates: in a viewport only the devices near the view
+ * keep their controls in the tree, a released face keeps every param,
+ * scrolling moves the band, and the panel hands every face back whole
+ * when it leaves the hierarchy. What a face holds only to be seen — an
+ * LCD's frames, PHOSPHOR's screen — is let go while it is away.
+ */
+class RackPanelFaceVirtualizationTest {
+
+    private static final int VIEW_HEIGHT = 300;
+
+    private static class KnobDevice extends RackDevice {
+
+        final Knob level = place(new Knob("LEVEL", 0.25), 60, 30);
+        final ToggleSwitch arm = place(new ToggleSwitch("ARM", false), 160, 30);
+        final Led led = place(new Led("RUN", Color.GREEN), 260, 30);
+
+        KnobDevice() {
+            super("test-knob", "KNOB", "TEST", Color.ORANGE, 2);
+            param("level", level);
+            param("arm", arm);
+        }
+    }
+
+    private Rack rack;
+    private final List<KnobDevice> devices = new ArrayList<>();
+
+    @BeforeEach
+    void fill() {
+        rack = new Rack();
+        for (int i = 0; i < 40; i++) {
+            KnobDevice d = new KnobDevice();
+            devices.add(d);
+            rack.addDevice(d);
+        }
+    }
+
+    @AfterEach
+    void shutdown() {
+        rack.shutdown();
+    }
+
+    private static void onEdt(Runnable r) throws Exception {
+        SwingUtilities.invokeAndWait(r);
+    }
+
+    /** The panel as the rack window hosts it: the view of a viewport. */
+    private RackPanel mount(JViewport viewport) {
+        RackPanel panel = new RackPanel(rack);
+        viewport.setScrollMode(JViewport.SIMPLE_SCROLL_MODE); // no window to blit from, headless
+        viewport.setView(panel);
+        viewport.setSize(900, VIEW_HEIGHT);
+        viewport.addNotify();
+        panel.setSize(panel.getPreferredSize());
+        panel.doLayout();
+        return panel;
+    }
+
+    private long realized() {
+        return devices.stream().filter(RackDevice::isFaceRealized).count();
+    }
+
+    @Test
+    @DisplayName("in a viewport only the faces near the view are realized")
+    void onlyNearFacesRealize() throws Exception {
+        onEdt(() -> {
+            JViewport viewport = new JViewport();
+            mount(viewport);
+            KnobDevice first = devices.get(0);
+            KnobDevice last = devices.get(devices.size() - 1);
+            assertThat(first.isFaceRealized()).isTrue();
+            assertThat(first.getComponentCount()).isEqualTo(3);
+            assertThat(last.isFaceRealized()).isFalse();
+            assertThat(last.getComponentCount()).as("released: off the tree").isZero();
+            assertThat(realized()).isLessThan(devices.size() / 2);
+            viewport.removeNotify();
+        });
+    }
+
+    @Test
+    @DisplayName("scrolling moves the band: what comes near realizes, what leaves releases")
+    void scrollingMovesTheBand() throws Exception {
+        onEdt(() -> {
+            JViewport viewport = new JViewport();
+            RackPanel panel = mount(viewport);
+            viewport.setViewPosition(new Point(0, panel.getHeight() - VIEW_HEIGHT));
+            assertThat(devices.get(devices.size() - 1).isFaceRealized()).isTrue();
+            assertThat(devices.get(0).isFaceRealized()).isFalse();
+            viewport.removeNotify();
+        });
+    }
+
+    @Test
+    @DisplayName("a 60-device patch loaded from JSON mounts only the faces near the view")
+    void loadedPatchRealizesTheBand() throws Exception {
+        org.json.JSONArray types = new org.json.JSONArray();
+        org.nmox.studio.rack.devices.DeviceType[] all = org.nmox.studio.rack.devices.DeviceType.values();
+        for (int i = 0; i < 60; i++) {
+            types.put(new org.json.JSONObject().put("type", all[i % all.length].getId()));
+        }
+        Rack patch = new Rack();
+        try {
+            onEdt(() -> {
+                org.nmox.studio.rack.model.RackIO.fromJson(patch,
+                        new org.json.JSONObject().put("version", 1).put("devices", types));
+                JViewport viewport = new JViewport();
+                viewport.setScrollMode(JViewport.SIMPLE_SCROLL_MODE);
+                RackPanel panel = new RackPanel(patch);
+                viewport.setView(panel);
+                viewport.setSize(1200, 900);
+                viewport.addNotify();
+                panel.setSize(panel.getPreferredSize());
+                panel.doLayout();
+                List<RackDevice> loaded = patch.getDevices();
+                assertThat(loaded).hasSize(60);
+                assertThat(loaded.get(0).isFaceRealized()).isTrue();
+                assertThat(loaded.get(59).isFaceRealized()).isFalse();
+                assertThat(loaded.stream().filter(RackDevice::isFaceRealized).count()).isLessThan(30);
+                viewport.removeNotify();
+                assertThat(loaded).allMatch(RackDevice::isFaceRealized);
+            });
+        } finally {
+            patch.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("a released face keeps its params, and takes them back in order")
+    void releasedFaceKeepsState() throws Exception {
+        onEdt(() -> {
+            KnobDevice d = devices.get(0);
+            Component[] before = d.getComponents();
+            d.level.setValue(0.8);
+            d.arm.setOn(true);
+            Map<String, String> state = d.getState();
+
+            d.releaseFace();
+            assertThat(d.getComponentCount()).isZero();
+            assertThat(d.getState()).as("a control off the tree is still the store").isEqualTo(state);
+            d.applyState(Map.of("level", "0.4"));
+            d.setFront(false);
+
+            d.realizeFace();
+            assertThat(d.getComponents()).containsExactly(before);
+            assertThat(d.level.getValue()).isEqualTo(0.4);
+            assertThat(d.getComponent(0).isVisible()).as("faces the side flipped to while away").isFalse();
+        });
+    }
+
+    @Test
+    @DisplayName("outside a viewport every face is realized, and leaving hands every face back")
+    void noViewportNoVirtualization() throws Exception {
+        onEdt(() -> {
+            RackPanel bare = new RackPanel(rack);
+            bare.addNotify();
+            bare.setSize(bare.getPreferredSize());
+            bare.doLayout();
+            assertThat(realized()).isEqualTo(devices.size());
+            bare.removeNotify();
+
+            JViewport viewport = new JViewport();
+            mount(viewport);
+            assertThat(realized()).isLessThan(devices.size());
+            viewport.removeNotify();
+            assertThat(realized()).isEqualTo(devices.size());
+        });
+    }
+
+    @Test
+    @DisplayName("a released PHOSPHOR drops its screen, keeps filling its history, and comes back at the tail")
+    void releasedTerminalDropsItsScreen() throws Exception {
+        org.nmox.studio.rack.devices.TerminalDevice term = new org.nmox.studio.rack.devices.TerminalDevice();
+        try {
+            onEdt(() -> {
+                javax.swing.JScrollPane scroll = (javax.swing.JScrollPane) term.getComponent(0);
+                assertThat(scroll.getViewport().getView()).isNotNull();
+                term.releaseFace();
+                assertThat(scroll.getViewport().getView()).as("no view while away").isNull();
+                term.receiveBatch(null, org.nmox.studio.rack.model.Signal.batch(List.of("one", "two", "three"), 1));
+            });
+            onEdt(() -> {
+                term.realizeFace();
+                javax.swing.JScrollPane scroll = (javax.swing.JScrollPane) term.getComponent(0);
+                assertThat(scroll.getViewport().getView()).isNotNull();
+                assertThat(scroll.getViewport().getView().getPreferredSize().height)
+                        .as("the new screen spans the history written while away").isGreaterThan(30);
+            });
+        } finally {
+            term.dispose();
+        }
+    }
+
+    @Test
+    @DisplayName("a meter out of the tree ignores pulses instead of animating unseen")
+    void meterOffTreeIsQuiet() throws Exception {
+        onEdt(() -> {
+            VuMeter meter = new VuMeter("ACTIVITY", false);
+            meter.pulse(0.9);
+            assertThat(meter.getAccessibleContext().getAccessibleValue().getCurrentAccessibleValue())
+                    .isEqualTo(0);
+            meter.setLevel(0.5);
+            assertThat(meter.getAccessibleContext().getAccessibleValue().getCurrentAccessibleValue())
+                    .as("a pinned gauge still reads").isEqualTo(50);
+        });
+    }
+}
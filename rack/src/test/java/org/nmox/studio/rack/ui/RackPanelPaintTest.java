@@ -0,0 +1,95 @@
+package org.nmox.studio.rack.ui;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.PathIterator;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The cheap-paint half of the rack panel: a flash's dirty region must
+ * cover everything the cable paints (or a glow frame leaves smears),
+ * and the rail layer must re-render only when its key changes.
+ */
+class RackPanelPaintTest {
+
+    @Test
+    @DisplayName("A cable's dirty region covers both plugs and the bottom of its sag")
+    void cableBoundsCoverThePaint() {
+        Point a = new Point(100, 40);
+        Point b = new Point(420, 300);
+        Rectangle bounds = RackPanel.cableBounds(a, b);
+
+        // plugs: radius 7 around each jack
+        assertThat(bounds.contains(new Rectangle(a.x - 7, a.y - 7, 14, 14))).isTrue();
+        assertThat(bounds.contains(new Rectangle(b.x - 7, b.y - 7, 14, 14))).isTrue();
+        // every point on the flattened curve, with the shadow's drop and the glow's width
+        PathIterator it = RackPanel.cableCurve(a, b).getPathIterator(null, 0.5);
+        double[] pt = new double[6];
+        while (!it.isDone()) {
+            it.currentSegment(pt);
+            assertThat(bounds.contains(new Rectangle((int) pt[0] - 4, (int) pt[1] - 4, 8, 11)))
+                    .as("curve point %s,%s", pt[0], pt[1]).isTrue();
+            it.next();
+        }
+    }
+
+    @Test
+    @DisplayName("A short cable's dirty region stays local, not the whole rack")
+    void cableBoundsAreLocal() {
+        Rectangle bounds = RackPanel.cableBounds(new Point(100, 40), new Point(140, 40));
+        assertThat(bounds.width).isLessThan(100);
+        assertThat(bounds.height).isLessThan(120);
+    }
+
+    @Test
+    @DisplayName("The volatile layer re-renders on a key change, and only then")
+    void layerRendersOnKeyChange() {
+        BufferedImage screen = new BufferedImage(60, 40, BufferedImage.TYPE_INT_RGB);
+        Graphics2D target = screen.createGraphics();
+        GraphicsConfiguration gc = target.getDeviceConfiguration();
+        VolatileLayer layer = new VolatileLayer();
+        AtomicInteger painted = new AtomicInteger();
+
+        for (int frame = 0; frame < 5; frame++) {
+            layer.draw(target, gc, 60, 40, "rails@60x40", g -> {
+                painted.incrementAndGet();
+                g.setColor(Color.RED);
+                g.fillRect(0, 0, 60, 40);
+            });
+        }
+        assertThat(screen.getRGB(30, 20) & 0xffffff).isEqualTo(0xff0000);
+        int first = painted.get();
+        assertThat(first).as("five frames, one render (unless the surface was lost)")
+                .isLessThan(5);
+
+        layer.draw(target, gc, 60, 40, "rails@60x41", g -> painted.incrementAndGet());
+        assertThat(painted.get()).isGreaterThan(first);
+        assertThat(layer.renders()).isEqualTo(painted.get());
+        layer.flush();
+        target.dispose();
+    }
+
+    @Test
+    @DisplayName("Without a graphics configuration the layer paints straight through")
+    void layerPaintsDirectlyWhenHeadless() {
+        BufferedImage screen = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+        Graphics2D target = screen.createGraphics();
+        VolatileLayer layer = new VolatileLayer();
+
+        layer.draw(target, null, 10, 10, "k", g -> {
+            g.setColor(Color.GREEN);
+            g.fillRect(0, 0, 10, 10);
+        });
+        assertThat(screen.getRGB(5, 5) & 0xffffff).isEqualTo(0x00ff00);
+        assertThat(layer.renders()).isZero();
+        target.dispose();
+    }
+}
@@ -0,0 +1,99 @@
+package org.nmox.studio.rack.ui.controls;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.swing.SwingUtilities;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The shared clock's contract: it runs only while something animates,
+ * every subscriber sees the same frame time, and settled (or broken)
+ * animations leave without stalling the rest. Frames are driven by
+ * hand through {@code tick}, on the EDT like the real timer.
+ */
+class AnimationClockTest {
+
+    private static void onEdt(Runnable r) throws Exception {
+        SwingUtilities.invokeAndWait(r);
+    }
+
+    @Test
+    @DisplayName("The clock arms on the first start and disarms when the last animation settles")
+    void runsOnlyWhileAnimating() throws Exception {
+        AnimationClock clock = new AnimationClock(AnimationClock.TICK_MS);
+        AtomicInteger frames = new AtomicInteger();
+        AnimationClock.Animation threeFrames = now -> frames.incrementAndGet() < 3;
+        onEdt(() -> {
+            assertThat(clock.isRunning()).isFalse();
+            clock.start(threeFrames);
+            clock.start(threeFrames); // idempotent
+            assertThat(clock.isRunning()).isTrue();
+            assertThat(clock.activeCount()).isEqualTo(1);
+
+            clock.tick(1);
+            clock.tick(2);
+            assertThat(clock.isRunning()).isTrue();
+            clock.tick(3);
+            assertThat(clock.isAnimating(threeFrames)).isFalse();
+            assertThat(clock.isRunning()).as("idle rack, zero wakeups").isFalse();
+        });
+        assertThat(frames.get()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Every animation in a frame sees the same timestamp")
+    void sharedFrameTime() throws Exception {
+        AnimationClock clock = new AnimationClock(AnimationClock.TICK_MS);
+        List<Long> seen = new ArrayList<>();
+        AnimationClock.Animation first = now -> seen.add(now);
+        AnimationClock.Animation second = now -> seen.add(now);
+        onEdt(() -> {
+            clock.start(first);
+            clock.start(second);
+            clock.tick(42);
+            clock.stop(first);
+            clock.stop(second);
+        });
+        assertThat(seen).containsExactly(42L, 42L);
+    }
+
+    @Test
+    @DisplayName("stop() removes one animation; the clock keeps running for the others")
+    void stopOne() throws Exception {
+        AnimationClock clock = new AnimationClock(AnimationClock.TICK_MS);
+        AnimationClock.Animation a = now -> true;
+        AnimationClock.Animation b = now -> true;
+        onEdt(() -> {
+            clock.start(a);
+            clock.start(b);
+            clock.stop(a);
+            assertThat(clock.isRunning()).isTrue();
+            assertThat(clock.activeCount()).isEqualTo(1);
+            clock.stop(b);
+            assertThat(clock.isRunning()).isFalse();
+        });
+    }
+
+    @Test
+    @DisplayName("A throwing animation is dropped and the rest of the frame still runs")
+    void brokenAnimationIsDropped() throws Exception {
+        AnimationClock clock = new AnimationClock(AnimationClock.TICK_MS);
+        AtomicInteger healthy = new AtomicInteger();
+        AnimationClock.Animation broken = now -> {
+            throw new IllegalStateException("boom");
+        };
+        onEdt(() -> {
+            clock.start(broken);
+            clock.start(now -> healthy.incrementAndGet() < 10);
+            clock.tick(1);
+            assertThat(clock.isAnimating(broken)).isFalse();
+            assertThat(clock.activeCount()).isEqualTo(1);
+            clock.tick(2);
+        });
+        assertThat(healthy.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,134 @@
+package org.nmox.studio.rack.ui.controls;
+
+import java.awt.Color;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.SwingUtilities;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Frame batching: a pump thread flooding the display lands as a few
+ * per-frame batches, whatever a frame could not show collapses into a
+ * skip marker, and the throughput counters account for every line.
+ */
+class LcdDisplayBatchingTest {
+
+    private static String glass(LcdDisplay lcd) throws Exception {
+        AtomicReference<String> shown = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> shown.set(lcd.getAccessibleContext().getAccessibleDescription()));
+        return shown.get();
+    }
+
+    /** Waits until every received line is either on the glass or counted skipped. */
+    private static LcdDisplay.Throughput settle(LcdDisplay lcd, long lines) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            LcdDisplay.Throughput t = lcd.throughput();
+            if (t.received() == lines && t.rendered() + t.skipped() == lines) {
+                return t;
+            }
+            Thread.sleep(20);
+        }
+        return lcd.throughput();
+    }
+
+    @Test
+    @DisplayName("A flood from a pump thread collapses to a skip marker plus the newest lines")
+    void floodCollapses() throws Exception {
+        LcdDisplay lcd = new LcdDisplay(300, 4);
+        Thread pump = new Thread(() -> {
+            for (int i = 1; i <= 5_000; i++) {
+                lcd.appendLine("line " + i);
+            }
+        });
+        pump.start();
+        pump.join();
+
+        LcdDisplay.Throughput t = settle(lcd, 5_000);
+        assertThat(t.received()).isEqualTo(5_000);
+        assertThat(t.rendered() + t.skipped()).isEqualTo(5_000);
+        assertThat(t.skipped()).as("a 4-line glass cannot show a 5000-line burst").isPositive();
+
+        String[] rows = glass(lcd).split("\n");
+        assertThat(rows).hasSize(4);
+        assertThat(rows[3]).isEqualTo("line 5000");
+        assertThat(rows[2]).isEqualTo("line 4999");
+    }
+
+    @Test
+    @DisplayName("A trickle from a pump thread arrives in order with nothing skipped")
+    void trickleIsLossless() throws Exception {
+        LcdDisplay lcd = new LcdDisplay(300, 3);
+        Thread pump = new Thread(() -> {
+            lcd.appendLine("a");
+            lcd.appendLine("b", Color.RED);
+        });
+        pump.start();
+        pump.join();
+
+        LcdDisplay.Throughput t = settle(lcd, 2);
+        assertThat(t).isEqualTo(new LcdDisplay.Throughput(2, 2, 0));
+        assertThat(glass(lcd)).isEqualTo("a\nb");
+    }
+
+    @Test
+    @DisplayName("The skip marker names how many lines never reached the glass")
+    void markerCountsSkipped() throws Exception {
+        LcdDisplay lcd = new LcdDisplay(300, 3);
+        // stall the EDT so the whole burst queues up behind one frame
+        SwingUtilities.invokeAndWait(() -> {
+            Thread pump = new Thread(() -> {
+                for (int i = 1; i <= 10; i++) {
+                    lcd.appendLine("n" + i);
+                }
+            });
+            pump.start();
+            try {
+                pump.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        LcdDisplay.Throughput t = settle(lcd, 10);
+        assertThat(t).isEqualTo(new LcdDisplay.Throughput(10, 2, 8));
+        assertThat(glass(lcd)).isEqualTo("··· 8 lines skipped\nn9\nn10");
+    }
+
+    @Test
+    @DisplayName("Appends on the EDT still land at once")
+    void edtAppendIsImmediate() throws Exception {
+        LcdDisplay lcd = new LcdDisplay(300, 2);
+        AtomicReference<String> shown = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> {
+            lcd.appendLine("now");
+            shown.set(lcd.getAccessibleContext().getAccessibleDescription());
+        });
+        assertThat(shown.get()).isEqualTo("now");
+        assertThat(lcd.throughput()).isEqualTo(new LcdDisplay.Throughput(1, 1, 0));
+    }
+
+    @Test
+    @DisplayName("A dormant display queues a screenful without draining, and shows it on waking")
+    void dormantQueuesUntilWoken() throws Exception {
+        LcdDisplay lcd = new LcdDisplay(300, 2);
+        SwingUtilities.invokeAndWait(() -> lcd.setDormant(true));
+        Thread pump = new Thread(() -> {
+            for (int i = 1; i <= 50; i++) {
+                lcd.appendLine("d" + i);
+            }
+        });
+        pump.start();
+        pump.join();
+        Thread.sleep(200);
+        assertThat(lcd.throughput().rendered()).as("no frame drained the dormant glass").isZero();
+        assertThat(glass(lcd)).isEmpty();
+
+        SwingUtilities.invokeAndWait(() -> lcd.setDormant(false));
+        LcdDisplay.Throughput t = settle(lcd, 50);
+        assertThat(t.rendered() + t.skipped()).isEqualTo(50);
+        assertThat(glass(lcd)).endsWith("d50");
+    }
+}
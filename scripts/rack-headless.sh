@@ -0,0 +1,53 @@
+#!/bin/sh
+# rack-headless.sh — run a rack patch with no IDE: the CI entry point.
+#
+# Launches org.nmox.studio.rack.service.HeadlessRunner on the rack module
+# jar plus the runtime classpath Maven wrote beside it
+# (rack/target/headless.classpath, from the headless-classpath execution
+# in rack/pom.xml). Every argument goes to the runner unchanged:
+#
+#   scripts/rack-headless.sh [PATCH] [--project DIR] [--trigger NAME]...
+#                            [--report FILE] [--timeout SECONDS]
+#
+# Exit codes are the runner's: 0 pass, 1 a step failed, 2 usage or patch
+# error, 3 timeout. A missing build is a usage error (2) with the command
+# that fixes it, never a bare ClassNotFoundException.
+#
+# Set JAVA to pick the JVM (default: $JAVA_HOME/bin/java, else java).
+set -eu
+
+REPO="$(cd "$(dirname "$0")/.." && pwd)"
+TARGET="$REPO/rack/target"
+CLASSPATH_FILE="$TARGET/headless.classpath"
+
+JAR=""
+for candidate in "$TARGET"/NMOX-Studio-rack-*.jar; do
+    case "$candidate" in
+        *-sources.jar|*-javadoc.jar|*-tests.jar) ;;
+        *) [ -f "$candidate" ] && JAR="$candidate" ;;
+    esac
+done
+
+if [ -z "$JAR" ] || [ ! -f "$CLASSPATH_FILE" ]; then
+    echo "rack-headless: no packaged rack module under $TARGET" >&2
+    echo "  build it first: mvn -B -pl rack -am package -DskipTests" >&2
+    exit 2
+fi
+
+if [ -z "${JAVA:-}" ]; then
+    if [ -n "${JAVA_HOME:-}" ]; then
+        JAVA="$JAVA_HOME/bin/java"
+    else
+        JAVA=java
+    fi
+fi
+
+# Maven wrote the file with the host's separator; Git Bash on Windows needs ';'
+SEP=":"
+case "$(uname -s)" in
+    MINGW*|MSYS*|CYGWIN*) SEP=";" ;;
+esac
+
+exec "$JAVA" -Djava.awt.headless=true \
+    -cp "$JAR$SEP$(cat "$CLASSPATH_FILE")" \
+    org.nmox.studio.rack.service.HeadlessRunner "$@"
@@ -23,8 +23,11 @@ import org.openide.util.RequestProcessor;
 /**
  * Environment Doctor: one honest table of every external tool the
  * studio leans on — the core four, the language toolchains, and every
- * learning-space interpreter — probed live (never guessed from a
- * cache) with its version or the install command that would fix it.
+ * learning-space interpreter — with its version or the install command
+ * that would fix it. Probes run in parallel and rows land as they finish;
+ * a binary unchanged since its last probe answers from the doctor's
+ * cache (keyed on the binary itself, never on the tool's name), and
+ * Re-probe clears that cache and sweeps again, all live.
  */
 @ActionID(category = "Tools", id = "org.nmox.studio.ui.actions.EnvironmentDoctorAction")
 @ActionRegistration(displayName = "#CTL_EnvironmentDoctorAction")
@@ -58,33 +61,63 @@ public final class EnvironmentDoctorAction implements ActionListener {
         panel.add(status, BorderLayout.SOUTH);
         panel.setPreferredSize(new Dimension(780, 480));
 
+        javax.swing.JButton reprobe = new javax.swing.JButton("Re-probe");
+        reprobe.addActionListener(ev -> {
+            reprobe.setEnabled(false);
+            model.setRowCount(0);
+            status.setText("Probing…");
+            checkup(model, status, reprobe, true);
+        });
+        reprobe.setEnabled(false);
+        checkup(model, status, reprobe, false);
+
+        DialogDescriptor descriptor = new DialogDescriptor(panel, "Environment Doctor",
+                false, new Object[]{reprobe, DialogDescriptor.CLOSED_OPTION},
+                DialogDescriptor.CLOSED_OPTION, 0, null, null);
+        descriptor.setClosingOptions(new Object[]{DialogDescriptor.CLOSED_OPTION});
+        DialogDisplayer.getDefault().createDialog(descriptor).setVisible(true);
+    }
+
+    /**
+     * One sweep: probes run off the EDT, in parallel, and stream into the
+     * table as they land; the drop-in scan (~/.nmox/doctor.d, v1.305.0)
+     * is file IO and rides the same lane — the dir is read fresh on every
+     * sweep. {@code live} forgets the cached answers first.
+     */
+    private static void checkup(DefaultTableModel model, JLabel status,
+            javax.swing.JButton reprobe, boolean live) {
         List<String[]> checks = EnvironmentDoctor.checklist();
-        // probes run off the EDT and stream into the table as they land;
-        // the drop-in scan (~/.nmox/doctor.d, v1.305.0) is file IO and
-        // rides the same lane — the dir is read fresh on every open
         RequestProcessor.getDefault().post(() -> {
+            if (live) {
+                EnvironmentDoctor.forget();
+            }
             java.util.Set<String> taken = new java.util.HashSet<>();
             for (String[] check : checks) {
                 taken.add(check[0]);
             }
             org.nmox.studio.rack.projectstudio.UserProbes.Loaded yours =
                     org.nmox.studio.rack.projectstudio.UserProbes.load(taken);
+            // one fresh directory-index pass for the whole checklist, so a
+            // tool installed a moment ago is resolved (and re-stamped) now
+            org.nmox.studio.core.process.ToolLocator.refresh();
+            org.nmox.studio.core.process.ToolLocator.resolveAll(taken);
             int total = checks.size() + yours.probes().size();
-            List<EnvironmentDoctor.Finding> findings = new java.util.ArrayList<>();
+            List<EnvironmentDoctor.Probe> probes = new java.util.ArrayList<>();
             for (String[] check : checks) {
-                findings.add(EnvironmentDoctor.probe(check[0], check[1], check[2]));
-                publish(model, status, findings, yours.skipped(), total);
+                probes.add(EnvironmentDoctor.Probe.of(check[0], check[1], check[2]));
             }
             for (org.nmox.studio.rack.projectstudio.UserProbes.Custom custom
                     : yours.probes()) {
-                findings.add(EnvironmentDoctor.probeCustom(custom));
-                publish(model, status, findings, yours.skipped(), total);
+                probes.add(new EnvironmentDoctor.Probe(custom.tool(), custom.purpose() + " · yours",
+                        custom.install(), () -> EnvironmentDoctor.probeCustom(custom)));
             }
+            List<EnvironmentDoctor.Finding> findings = new java.util.ArrayList<>();
+            EnvironmentDoctor.sweep(probes, finding -> {
+                findings.add(finding);
+                publish(model, status, findings, yours.skipped(), total);
+            });
+            SwingUtilities.invokeLater(() -> reprobe.setEnabled(true));
         });
-
-        DialogDescriptor descriptor = new DialogDescriptor(panel, "Environment Doctor",
-                false, new Object[]{DialogDescriptor.CLOSED_OPTION}, null, 0, null, null);
-        DialogDisplayer.getDefault().createDialog(descriptor).setVisible(true);
     }
 
     /**
@@ -119,32 +119,27 @@ public final class ImageKitAction implements ActionListener {
                     org.netbeans.api.progress.ProgressHandle.createHandle(
                             "Pressing images…");
             handle.start(found.size());
+            List<ImagePress.Pressed> pressed;
+            try {
+                // files press in parallel; each one reports as it lands
+                pressed = ImagePress.pressAll(found,
+                        new ImagePress.Options(doJpeg, q, width, doWebp ? cwebpFinal : null, 80),
+                        p -> handle.progress(p.file().candidate().file().getName()
+                                + " — " + mb(p.saved()) + " saved so far", p.done()));
+            } finally {
+                handle.finish();
+            }
             StringBuilder report = new StringBuilder();
             long saved = 0;
             int wrote = 0;
-            int i = 0;
-            try {
-                for (ImagePress.Candidate c : found) {
-                    handle.progress(c.file().getName(), i++);
-                    if (doJpeg) {
-                        ImagePress.Result r = ImagePress.pressJpeg(c.file(), q, width);
-                        saved += r.saved();
-                        if (r.output() != null) {
-                            wrote++;
-                        }
-                        report.append(line(c, r));
-                    }
-                    if (doWebp) {
-                        ImagePress.Result r = ImagePress.pressWebp(c.file(), cwebpFinal, 80);
-                        saved += r.saved();
-                        if (r.output() != null) {
-                            wrote++;
-                        }
-                        report.append(line(c, r));
+            for (ImagePress.Pressed file : pressed) {
+                for (ImagePress.Result r : file.results()) {
+                    saved += r.saved();
+                    if (r.output() != null) {
+                        wrote++;
                     }
+                    report.append(line(file.candidate(), r));
                 }
-            } finally {
-                handle.finish();
             }
             String summary = wrote + " file" + (wrote == 1 ? "" : "s") + " written, "
                     + mb(saved) + " saved. Originals untouched.\n"
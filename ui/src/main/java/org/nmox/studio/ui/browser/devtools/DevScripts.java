@@ -134,6 +134,156 @@ public final class DevScripts {
             + "if(!root){return '{}';}\n"
             + "return JSON.stringify(ser(root,0,[])||{});})()";
 
+    /**
+     * Installs the live DOM watch ({@code window.__nmoxDom}) and answers
+     * the root element, shallow. The snapshot above re-serializes the
+     * whole document per Refresh; this instead gives each element the
+     * DOM tab has SEEN a stable id ({@code d}) and streams only changes
+     * through {@code nmoxBridge.dom} — a MutationObserver coalesces each
+     * {@code FLUSH_MS=100} window into one batch of ops:
+     * {@code {o:'c',d,k,m}} the fresh child list of a parent whose
+     * children Java has loaded, {@code {o:'a',...}} one element's own
+     * fields (attributes, or the child count of a collapsed parent).
+     * Children load on demand through {@link #domChildren}, at most
+     * {@code CHILD_CAP=1000} per parent ({@code m} counts the rest), so
+     * there is no whole-document node cap. A batch of more than
+     * {@code MAX_OPS=500} ops, or longer than {@code BATCH_CAP=256000}
+     * chars, is sent as {@code {reset:true}} and the tab reloads.
+     * Reinstalling stops the previous observer. Answers
+     * {@code 'unwatched'} when there is no bridge or no
+     * MutationObserver — the caller falls back to the snapshot.
+     */
+    public static final String DOM_WATCH =
+            "(function(){\n"
+            + "var CHILD_CAP=1000,ATTR_CAP=200,MAX_OPS=500,BATCH_CAP=256000,FLUSH_MS=100;\n"
+            + "var B=window.nmoxBridge,root=document.documentElement;\n"
+            + "if(!root){return '{}';}\n"
+            + "if(!B||!window.MutationObserver){return 'unwatched';}\n"
+            + "if(window.__nmoxDom){window.__nmoxDom.stop();}\n"
+            + "var seq=0,known={},loaded={},dirty={},touched={},removed=[],timer=null;\n"
+            + "function idOf(el){if(el.__nmoxId&&known[el.__nmoxId]===el){return el.__nmoxId;}\n"
+            + " seq++;el.__nmoxId=seq;known[seq]=el;return seq;}\n"
+            + "function shallow(el){\n"
+            + " var o={d:idOf(el),t:el.tagName?(''+el.tagName).toLowerCase():'#node',n:el.children?el.children.length:0};\n"
+            + " if(el.id){o.i=(''+el.id).slice(0,ATTR_CAP);}\n"
+            + " if(el.className&&typeof el.className==='string'){o.c=el.className.slice(0,ATTR_CAP);}\n"
+            + " var attrs=[];\n"
+            + " if(el.attributes){\n"
+            + "  for(var i=0;i<el.attributes.length&&i<20;i++){var a=el.attributes[i];\n"
+            + "   if(a.name==='id'||a.name==='class'){continue;}\n"
+            + "   attrs.push(a.name+'=\"'+(''+a.value).slice(0,ATTR_CAP)+'\"');}}\n"
+            + " if(attrs.length){o.a=attrs;}\n"
+            + " return o;}\n"
+            + "function kids(el){var k=[],c=el.children||[],n=Math.min(c.length,CHILD_CAP);\n"
+            + " for(var i=0;i<n;i++){k.push(shallow(c[i]));}\n"
+            + " return {d:idOf(el),k:k,m:c.length-n};}\n"
+            + "function forget(el){var stack=[el];\n"
+            + " while(stack.length){var e=stack.pop();\n"
+            + "  if(e.__nmoxId&&known[e.__nmoxId]===e){delete known[e.__nmoxId];delete loaded[e.__nmoxId];}\n"
+            + "  var c=e.children||[];for(var i=0;i<c.length;i++){if(c[i].__nmoxId){stack.push(c[i]);}}}}\n"
+            + "function flush(){timer=null;var out=[],id;\n"
+            + " for(var i=0;i<removed.length;i++){if(!root.contains(removed[i])){forget(removed[i]);}}\n"
+            + " removed=[];\n"
+            + " for(id in dirty){var el=known[id];if(!el){continue;}\n"
+            + "  var op=loaded[id]?kids(el):shallow(el);op.o=loaded[id]?'c':'a';out.push(op);delete touched[id];}\n"
+            + " for(id in touched){var t=known[id];if(t){var s=shallow(t);s.o='a';out.push(s);}}\n"
+            + " dirty={};touched={};\n"
+            + " if(!out.length){return;}\n"
+            + " var json=out.length>MAX_OPS?'':JSON.stringify({ops:out});\n"
+            + " if(!json||json.length>BATCH_CAP){json='{\"reset\":true}';}\n"
+            + " try{B.dom(json);}catch(e){}}\n"
+            + "var mo=new MutationObserver(function(recs){\n"
+            + " for(var i=0;i<recs.length;i++){var r=recs[i],t=r.target,id=t&&t.__nmoxId;\n"
+            + "  if(!id||known[id]!==t){continue;}\n"
+            + "  if(r.type==='childList'){dirty[id]=1;\n"
+            + "   for(var j=0;j<r.removedNodes.length;j++){if(r.removedNodes[j].__nmoxId){removed.push(r.removedNodes[j]);}}}\n"
+            + "  else if(t.id!=='__nmox_hl'){touched[id]=1;}}\n"
+            + " if(!timer){timer=setTimeout(flush,FLUSH_MS);}});\n"
+            + "mo.observe(root,{childList:true,subtree:true,attributes:true});\n"
+            + "window.__nmoxDom={\n"
+            + " stop:function(){mo.disconnect();if(timer){clearTimeout(timer);timer=null;}},\n"
+            + " children:function(id){var el=known[id];if(!el){return '{}';}loaded[id]=1;return JSON.stringify(kids(el));},\n"
+            + " el:function(id){return known[id]||null;}};\n"
+            + "return JSON.stringify(shallow(root));})()";
+
+    /**
+     * The child list of the watched element {@code nodeId}, shallow
+     * (the {@link #DOM_WATCH} shape {@code {d,k,m}}), which also marks
+     * it loaded so its future child changes stream as {@code 'c'} ops.
+     * An unknown id — the element was removed — answers "{}".
+     */
+    public static String domChildren(int nodeId) {
+        return "(function(){var D=window.__nmoxDom;return D?D.children(" + nodeId + "):'{}';})()";
+    }
+
+    /**
+     * How many same-tag elements precede the watched element
+     * {@code nodeId} in document order — what inspect-to-source needs
+     * for an element without an id, counted where the whole document
+     * is instead of from a Java-side tree that only holds what was
+     * expanded. "-1" when the element is gone.
+     */
+    public static String sameTagIndex(int nodeId) {
+        return "(function(){var D=window.__nmoxDom;var el=D&&D.el(" + nodeId + ");\n"
+                + "if(!el||!el.tagName){return '-1';}\n"
+                + "var all=document.getElementsByTagName(el.tagName);\n"
+                + "for(var i=0;i<all.length;i++){if(all[i]===el){return ''+i;}}\n"
+                + "return '-1';})()";
+    }
+
+    /**
+     * Observes the page's performance timeline for the Performance tab:
+     * one buffered {@code PerformanceObserver} per supported entry type
+     * (navigation, paint, resource, longtask, layout-shift), so entries
+     * from BEFORE the injection are delivered too. Types the engine does
+     * not observe are read once from {@code getEntriesByType}, and a
+     * missing navigation entry is synthesized from the legacy
+     * {@code performance.timing} — only when navigation is not observed,
+     * since a buffered observer delivers its entry after this script
+     * returns and a synthesized row would duplicate it. Rows {@code {k,n,s,d,v?}} (times
+     * rounded to 0.1ms, names capped at {@code NAME_CAP=300}, input-driven
+     * layout shifts skipped) are coalesced for {@code FLUSH_MS=250} and
+     * sent via {@code nmoxBridge.perf} at most {@code MAX_ENTRIES=200}
+     * per call; the first call carries {@code r:true} and the page URL.
+     * Idempotent per document; answers {@code 'unobserved'} without a
+     * bridge or a performance object, else {@code 'observing:'} and the
+     * observed types.
+     */
+    public static final String PERF_WATCH =
+            "(function(){\n"
+            + "var MAX_ENTRIES=200,NAME_CAP=300,FLUSH_MS=250;\n"
+            + "var B=window.nmoxBridge,P=window.performance;\n"
+            + "if(!B||!P){return 'unobserved';}\n"
+            + "if(window.__nmoxPerf){return 'observing:'+window.__nmoxPerf.types.join(',');}\n"
+            + "var q=[],timer=null,first=true,observers=[],observed=[],nav=false;\n"
+            + "function r(x){return Math.round((+x||0)*10)/10;}\n"
+            + "function push(e){var k=e.entryType;\n"
+            + " var o={k:k,n:(''+(e.name||'')).slice(0,NAME_CAP),s:r(e.startTime),d:r(e.duration)};\n"
+            + " if(k==='navigation'){nav=true;o.v=r(e.responseStart);}\n"
+            + " else if(k==='layout-shift'){if(e.hadRecentInput){return;}o.v=+e.value||0;}\n"
+            + " q.push(o);if(!timer){timer=setTimeout(flush,FLUSH_MS);}}\n"
+            + "function flush(){timer=null;\n"
+            + " while(q.length||first){var b={e:q.splice(0,MAX_ENTRIES)};\n"
+            + "  if(first){b.r=true;b.u=(''+location.href).slice(0,500);first=false;}\n"
+            + "  try{B.perf(JSON.stringify(b));}catch(x){}}}\n"
+            + "var types=['navigation','paint','resource','longtask','layout-shift'];\n"
+            + "var PO=window.PerformanceObserver,sup=(PO&&PO.supportedEntryTypes)||[];\n"
+            + "for(var i=0;i<types.length;i++){var t=types[i];\n"
+            + " if(sup.indexOf(t)>=0){try{var ob=new PO(function(list){var es=list.getEntries();\n"
+            + "   for(var j=0;j<es.length;j++){push(es[j]);}});\n"
+            + "  ob.observe({type:t,buffered:true});observers.push(ob);observed.push(t);continue;}catch(e){}}\n"
+            + " if(P.getEntriesByType){try{var es=P.getEntriesByType(t);\n"
+            + "  for(var j=0;j<es.length;j++){push(es[j]);}}catch(e){}}}\n"
+            + "var T=P.timing;\n"
+            + "if(!nav&&observed.indexOf('navigation')<0&&T&&T.navigationStart&&T.responseStart){\n"
+            + " push({entryType:'navigation',name:location.href,startTime:0,\n"
+            + "  duration:T.loadEventEnd>0?T.loadEventEnd-T.navigationStart:0,\n"
+            + "  responseStart:T.responseStart-T.navigationStart});}\n"
+            + "window.__nmoxPerf={types:observed,\n"
+            + " stop:function(){for(var i=0;i<observers.length;i++){observers[i].disconnect();}}};\n"
+            + "if(!timer){timer=setTimeout(flush,FLUSH_MS);}\n"
+            + "return 'observing:'+observed.join(',');})()";
+
     /**
      * Walks a detected Vue app into bounded JSON {@code {v:2|3,
      * r:[roots]}}; per component {@code n} name, {@code p} props,
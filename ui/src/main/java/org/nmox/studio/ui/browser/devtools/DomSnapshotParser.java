@@ -16,7 +16,12 @@ import java.util.Map;
  */
 public final class DomSnapshotParser {
 
-    /** One DOM tree node. A placeholder ("…N more") has an empty path. */
+    /**
+     * One DOM tree node. A placeholder ("…N more") has an empty path.
+     * Nodes from the live bridge ({@link LiveDom}) also carry the page's
+     * stable {@link #nodeId} and their element-child count; snapshot
+     * nodes have id -1.
+     */
     public static final class DomNode {
 
         public final String tag;
@@ -25,13 +30,33 @@ public final class DomSnapshotParser {
         public final List<String> attrs;
         public final List<Integer> path;
         public final List<DomNode> children = new ArrayList<>();
+        /** The page's stable id for this element, or -1 outside the live tree. */
+        public final int nodeId;
+        /** Element children in the page (live nodes; snapshot nodes say 0). */
+        public final int childCount;
 
         DomNode(String tag, String id, String classes, List<String> attrs, List<Integer> path) {
+            this(tag, id, classes, attrs, path, -1, 0);
+        }
+
+        DomNode(String tag, String id, String classes, List<String> attrs, List<Integer> path,
+                int nodeId, int childCount) {
             this.tag = tag;
             this.id = id;
             this.classes = classes;
             this.attrs = Collections.unmodifiableList(attrs);
             this.path = Collections.unmodifiableList(path);
+            this.nodeId = nodeId;
+            this.childCount = childCount;
+        }
+
+        /**
+         * This node re-addressed at {@code path} — a live node's child-index
+         * path moves as siblings come and go, so it is derived from the
+         * tree position whenever a script needs it.
+         */
+        public DomNode withPath(List<Integer> path) {
+            return new DomNode(tag, id, classes, attrs, path, nodeId, childCount);
         }
 
         /** True for the honest "…N more" cap placeholder rows. */
@@ -103,7 +128,12 @@ public final class DomSnapshotParser {
         return s.length() > 200 ? s.substring(0, 200) : s;
     }
 
-    private static DomNode shallow(Map<String, Object> o) {
+    /**
+     * One node's own fields, children ignored: {@code t} tag, {@code i}
+     * id, {@code c} classes, {@code a} attrs, {@code p} path, and — from
+     * the live bridge — {@code d} stable id and {@code n} child count.
+     */
+    static DomNode shallow(Map<String, Object> o) {
         // the page-side caps in DevScripts are page-CONTROLLED (a page can
         // redefine tagName's getter to return megabytes), so re-impose
         // them here — the sibling parsers already do
@@ -122,6 +152,7 @@ public final class DomSnapshotParser {
                 path.add((int) (double) d);
             }
         }
-        return new DomNode(tag, id, classes, attrs, path);
+        return new DomNode(tag, id, classes, attrs, path,
+                JsonLite.num(o, "d", -1), Math.max(0, JsonLite.num(o, "n", 0)));
     }
 }
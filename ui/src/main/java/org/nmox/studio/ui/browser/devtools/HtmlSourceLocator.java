@@ -37,6 +37,20 @@ public final class HtmlSourceLocator {
      * element cannot be honestly located.
      */
     public static int lineOf(String html, DomNode target, DomNode root) {
+        return lineOf(html, target, () -> precedingSameTag(root, target));
+    }
+
+    /**
+     * The same, with the same-tag count already known — the live DOM tab
+     * asks the page for it ({@link DevScripts#sameTagIndex}), since its
+     * tree holds only what was expanded. A negative {@code nth} means the
+     * element was not found there.
+     */
+    public static int lineOf(String html, DomNode target, int nth) {
+        return lineOf(html, target, () -> nth);
+    }
+
+    private static int lineOf(String html, DomNode target, java.util.function.IntSupplier sameTagBefore) {
         if (html == null || html.isEmpty() || target == null || target.isPlaceholder()) {
             return -1;
         }
@@ -50,7 +64,7 @@ public final class HtmlSourceLocator {
             // but not in the source — the nth-tag walk may still find
             // the element itself
         }
-        int nth = precedingSameTag(root, target);
+        int nth = sameTagBefore.getAsInt();
         if (nth < 0) {
             return -1;
         }
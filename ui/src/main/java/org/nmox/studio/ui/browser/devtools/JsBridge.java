@@ -26,14 +26,42 @@ import java.util.concurrent.Executor;
  */
 public final class JsBridge {
 
+    /**
+     * Ceiling on one DOM mutation batch. Unlike console text a batch is
+     * JSON that truncation would corrupt, so an over-cap batch becomes
+     * the reset marker — the DOM tab reloads rather than guess.
+     */
+    public static final int DOM_BATCH_CAP = 256_000;
+
+    /** What an over-cap batch turns into ({@link LiveDom#apply} reloads on it). */
+    static final String DOM_RESET = "{\"reset\":true}";
+
     private final Executor executor;
     private final ConsoleModel console;
     private final NetworkModel network;
+    private final LiveDom dom;
+    private final PerformanceModel performance;
 
     public JsBridge(Executor executor, ConsoleModel console, NetworkModel network) {
+        this(executor, console, network, null, null);
+    }
+
+    /** @param dom the DOM tab's live tree; null drops mutation batches */
+    public JsBridge(Executor executor, ConsoleModel console, NetworkModel network, LiveDom dom) {
+        this(executor, console, network, dom, null);
+    }
+
+    /**
+     * @param dom         as above
+     * @param performance the Performance tab's model; null drops timeline batches
+     */
+    public JsBridge(Executor executor, ConsoleModel console, NetworkModel network,
+            LiveDom dom, PerformanceModel performance) {
         this.executor = executor;
         this.console = console;
         this.network = network;
+        this.dom = dom;
+        this.performance = performance;
     }
 
     /** Page console output (wrapped console.log/info/warn/error/debug). */
@@ -56,4 +84,30 @@ public final class JsBridge {
         long at = System.currentTimeMillis();
         executor.execute(() -> console.add("error", capped, at));
     }
+
+    /**
+     * One coalesced batch of DOM mutations from {@link DevScripts#DOM_WATCH}.
+     * Capped (see {@link #DOM_BATCH_CAP}) and marshaled like every other
+     * upcall; dropped when there is no live tree to apply it to.
+     */
+    public void dom(String json) {
+        if (dom == null) {
+            return;
+        }
+        String batch = json == null || json.length() > DOM_BATCH_CAP ? DOM_RESET : json;
+        executor.execute(() -> dom.apply(batch));
+    }
+
+    /**
+     * One coalesced batch of performance timeline entries from
+     * {@link DevScripts#PERF_WATCH}. The script sends at most 200 rows
+     * per call, so a batch past {@link #DOM_BATCH_CAP} is hostile and
+     * dropped whole rather than truncated into broken JSON.
+     */
+    public void perf(String json) {
+        if (performance == null || json == null || json.length() > DOM_BATCH_CAP) {
+            return;
+        }
+        executor.execute(() -> performance.addBatch(json));
+    }
 }
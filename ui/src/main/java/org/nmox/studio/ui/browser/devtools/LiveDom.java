@@ -0,0 +1,360 @@
+package org.nmox.studio.ui.browser.devtools;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeNode;
+
+import org.nmox.studio.ui.browser.devtools.DomSnapshotParser.DomNode;
+
+/**
+ * The DOM tab's tree, kept in step with the page instead of rebuilt.
+ * The old Refresh re-serialized up to 5,000 nodes, re-parsed them into
+ * a brand-new tree and threw away what the user had expanded. Now the
+ * page's {@link DevScripts#DOM_WATCH} gives every element the tab has
+ * seen a stable id, and this model applies its mutation batches IN
+ * PLACE: a changed parent's child list is reconciled by id (kept nodes
+ * keep their subtrees and their expansion, only the real insertions
+ * and removals fire as tree events), an attribute change repaints one
+ * row. Collapsed parents hold a single {@link #LOADING} child until
+ * expanded, when {@link DevScripts#domChildren} fetches them — so a
+ * large document is browsable without any whole-document node cap.
+ *
+ * <p>Batches are page-supplied and untrusted: parsing never throws
+ * (the {@link DomSnapshotParser} field caps apply to every node), ids
+ * the tree has never seen are ignored, and {@code {reset:true}} — the
+ * page's "too much changed at once" — reloads through the reset
+ * listener.
+ *
+ * <p>Threading: EDT-confined, like the tree model it drives (the bridge
+ * marshals batches before calling {@link #apply}).
+ */
+public final class LiveDom {
+
+    /** The label of the stand-in child a collapsed, unfetched parent carries. */
+    public static final String LOADING = "…loading";
+
+    private final DefaultTreeModel model;
+    private final Map<Integer, DefaultMutableTreeNode> byId = new HashMap<>();
+    private final Set<Integer> loaded = new HashSet<>();
+    private Runnable resetListener = () -> { };
+    private long batches;
+    private long ops;
+
+    public LiveDom() {
+        this.model = new DefaultTreeModel(new DefaultMutableTreeNode("(press Refresh)"));
+    }
+
+    /** The Swing model the DOM tab's JTree shows. */
+    public DefaultTreeModel model() {
+        return model;
+    }
+
+    /** Runs when the page asks for a reload ({@code {reset:true}}). */
+    public void setResetListener(Runnable listener) {
+        this.resetListener = listener == null ? () -> { } : listener;
+    }
+
+    /**
+     * Starts over from the root element {@link DevScripts#DOM_WATCH}
+     * answered. False (tree untouched) when the answer is not a watched
+     * root — no bridge, an old engine — so the caller can fall back.
+     */
+    public boolean reset(String rootJson) {
+        Object v = JsonLite.parse(rootJson);
+        if (!(v instanceof Map)) {
+            return false;
+        }
+        DomNode root = DomSnapshotParser.shallow(JsonLite.asObject(v));
+        if (root.nodeId < 0) {
+            return false;
+        }
+        byId.clear();
+        loaded.clear();
+        model.setRoot(fresh(root));
+        return true;
+    }
+
+    /** Shows a plain message instead of a tree ("no page", a snapshot fallback). */
+    public void show(DefaultMutableTreeNode root) {
+        byId.clear();
+        loaded.clear();
+        model.setRoot(root);
+    }
+
+    /** Applies a {@link DevScripts#domChildren} answer: the parent is now loaded. */
+    public void children(String json) {
+        Object v = JsonLite.parse(json);
+        if (!(v instanceof Map)) {
+            return;
+        }
+        Map<String, Object> o = JsonLite.asObject(v);
+        DefaultMutableTreeNode parent = byId.get(JsonLite.num(o, "d", -1));
+        if (parent == null) {
+            return;
+        }
+        loaded.add(idOf(parent));
+        reconcile(parent, kids(o), Math.max(0, JsonLite.num(o, "m", 0)));
+    }
+
+    /** Applies one mutation batch from the bridge. */
+    public void apply(String json) {
+        Object v = JsonLite.parse(json);
+        if (!(v instanceof Map)) {
+            return;
+        }
+        Map<String, Object> batch = JsonLite.asObject(v);
+        batches++;
+        if (Boolean.TRUE.equals(batch.get("reset"))) {
+            resetListener.run();
+            return;
+        }
+        for (Object item : JsonLite.asArray(batch.get("ops"))) {
+            if (!(item instanceof Map)) {
+                continue;
+            }
+            Map<String, Object> op = JsonLite.asObject(item);
+            DomNode fields = DomSnapshotParser.shallow(op);
+            DefaultMutableTreeNode node = byId.get(fields.nodeId);
+            if (node == null) {
+                continue; // never shown, or already gone
+            }
+            ops++;
+            if ("c".equals(JsonLite.str(op, "o", ""))) {
+                if (loaded.contains(fields.nodeId)) {
+                    reconcile(node, kids(op), Math.max(0, JsonLite.num(op, "m", 0)));
+                }
+            } else {
+                update(node, fields);
+            }
+        }
+    }
+
+    /** The tree node for a page id, or null when it is not in the tree. */
+    public DefaultMutableTreeNode node(int nodeId) {
+        return byId.get(nodeId);
+    }
+
+    /** True when {@code node} still carries its {@link #LOADING} stand-in. */
+    public static boolean needsChildren(TreeNode node) {
+        return node.getChildCount() == 1
+                && node.getChildAt(0) instanceof DefaultMutableTreeNode only
+                && only.getUserObject() instanceof DomNode dn
+                && LOADING.equals(dn.tag);
+    }
+
+    /**
+     * The child-index path from documentElement to {@code node} — the
+     * address every path-taking script uses. Derived from the tree, which
+     * mirrors the page's element children in order (the "…N more" row is
+     * always last, so it never shifts a real index).
+     */
+    public static List<Integer> pathOf(TreeNode node) {
+        List<Integer> path = new ArrayList<>();
+        for (TreeNode n = node; n != null && n.getParent() != null; n = n.getParent()) {
+            path.add(n.getParent().getIndex(n));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /** Elements currently in the tree. */
+    public int size() {
+        return byId.size();
+    }
+
+    /** Batches received since construction — the status line's liveness cue. */
+    public long batches() {
+        return batches;
+    }
+
+    /** Ops applied (those aimed at elements in the tree) since construction. */
+    public long ops() {
+        return ops;
+    }
+
+    private static List<DomNode> kids(Map<String, Object> o) {
+        List<DomNode> out = new ArrayList<>();
+        for (Object k : JsonLite.asArray(o.get("k"))) {
+            if (k instanceof Map) {
+                DomNode kid = DomSnapshotParser.shallow(JsonLite.asObject(k));
+                if (kid.nodeId >= 0) {
+                    out.add(kid);
+                }
+            }
+        }
+        return out;
+    }
+
+    /** A new tree node for a page element, with its stand-in child if it has any. */
+    private DefaultMutableTreeNode fresh(DomNode dom) {
+        DefaultMutableTreeNode node = new DefaultMutableTreeNode(dom);
+        if (dom.childCount > 0) {
+            node.add(new DefaultMutableTreeNode(placeholder(LOADING)));
+        }
+        byId.put(dom.nodeId, node);
+        return node;
+    }
+
+    /** New fields for a known node; an unloaded parent's stand-in follows its child count. */
+    private void update(DefaultMutableTreeNode node, DomNode fields) {
+        DomNode old = (DomNode) node.getUserObject();
+        if (!sameFields(old, fields)) {
+            node.setUserObject(fields);
+            model.nodeChanged(node);
+        }
+        if (loaded.contains(fields.nodeId)) {
+            return;
+        }
+        boolean stub = needsChildren(node);
+        if (fields.childCount > 0 && !stub && node.getChildCount() == 0) {
+            node.add(new DefaultMutableTreeNode(placeholder(LOADING)));
+            model.nodesWereInserted(node, new int[]{0});
+        } else if (fields.childCount == 0 && stub) {
+            Object gone = node.getChildAt(0);
+            node.remove(0);
+            model.nodesWereRemoved(node, new int[]{0}, new Object[]{gone});
+        }
+    }
+
+    /**
+     * Makes {@code parent}'s children exactly {@code kids} (+ a "…N more"
+     * row), reusing the tree nodes of ids already present so their
+     * subtrees — and the JTree's expansion of them — survive. Only the
+     * differences fire: field changes, removals, then insertions. A
+     * reorder of kept children is the one case that re-inserts them.
+     */
+    private void reconcile(DefaultMutableTreeNode parent, List<DomNode> kids, int more) {
+        List<DefaultMutableTreeNode> want = new ArrayList<>(kids.size() + 1);
+        Map<DefaultMutableTreeNode, Boolean> wanted = new IdentityHashMap<>();
+        for (DomNode kid : kids) {
+            DefaultMutableTreeNode node = byId.get(kid.nodeId);
+            if (node == null || wanted.containsKey(node) || isAncestor(node, parent)) {
+                node = fresh(kid);
+            } else {
+                update(node, kid); // in place first, so its events name where it is
+                if (node.getParent() != null && node.getParent() != parent) {
+                    detach(node); // moved here from elsewhere in the tree
+                }
+            }
+            want.add(node);
+            wanted.put(node, Boolean.TRUE);
+        }
+        if (more > 0) {
+            DefaultMutableTreeNode rest = new DefaultMutableTreeNode(placeholder("…" + more + " more"));
+            want.add(rest);
+            wanted.put(rest, Boolean.TRUE);
+        }
+
+        // 1. removals: everything not wanted (the stand-in, the old "…more", gone ids)
+        removeWhere(parent, child -> !wanted.containsKey(child), true);
+        // 2. kept children out of order: re-insert them (rare — a move within the parent)
+        List<TreeNode> kept = new ArrayList<>();
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            kept.add(parent.getChildAt(i));
+        }
+        List<TreeNode> keptInWantOrder = new ArrayList<>();
+        for (DefaultMutableTreeNode node : want) {
+            if (node.getParent() == parent) {
+                keptInWantOrder.add(node);
+            }
+        }
+        if (!kept.equals(keptInWantOrder)) {
+            removeWhere(parent, child -> true, false);
+        }
+        // 3. insertions, ascending
+        List<Integer> inserted = new ArrayList<>();
+        for (int i = 0; i < want.size(); i++) {
+            DefaultMutableTreeNode node = want.get(i);
+            if (i >= parent.getChildCount() || parent.getChildAt(i) != node) {
+                parent.insert(node, i);
+                inserted.add(i);
+            }
+        }
+        if (!inserted.isEmpty()) {
+            model.nodesWereInserted(parent, inserted.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    /** Removes matching children of {@code parent} with one event; optionally forgets their ids. */
+    private void removeWhere(DefaultMutableTreeNode parent,
+            java.util.function.Predicate<TreeNode> match, boolean forget) {
+        List<Integer> at = new ArrayList<>();
+        List<Object> gone = new ArrayList<>();
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            TreeNode child = parent.getChildAt(i);
+            if (match.test(child)) {
+                at.add(i);
+                gone.add(child);
+            }
+        }
+        if (at.isEmpty()) {
+            return;
+        }
+        for (int i = at.size() - 1; i >= 0; i--) {
+            parent.remove(at.get(i));
+        }
+        model.nodesWereRemoved(parent, at.stream().mapToInt(Integer::intValue).toArray(), gone.toArray());
+        if (forget) {
+            for (Object o : gone) {
+                forget((DefaultMutableTreeNode) o);
+            }
+        }
+    }
+
+    /** Takes a node out of its current parent, firing the removal there. */
+    private void detach(DefaultMutableTreeNode node) {
+        DefaultMutableTreeNode parent = (DefaultMutableTreeNode) node.getParent();
+        int at = parent.getIndex(node);
+        parent.remove(at);
+        model.nodesWereRemoved(parent, new int[]{at}, new Object[]{node});
+    }
+
+    /** Drops the ids of a removed subtree (only where they still point at it). */
+    private void forget(DefaultMutableTreeNode subtree) {
+        Deque<TreeNode> work = new ArrayDeque<>();
+        work.push(subtree);
+        while (!work.isEmpty()) {
+            TreeNode n = work.pop();
+            if (n instanceof DefaultMutableTreeNode m && m.getUserObject() instanceof DomNode dn
+                    && dn.nodeId >= 0 && byId.get(dn.nodeId) == m) {
+                byId.remove(dn.nodeId);
+                loaded.remove(dn.nodeId);
+            }
+            for (int i = 0; i < n.getChildCount(); i++) {
+                work.push(n.getChildAt(i));
+            }
+        }
+    }
+
+    private static boolean isAncestor(DefaultMutableTreeNode node, DefaultMutableTreeNode of) {
+        for (TreeNode n = of; n != null; n = n.getParent()) {
+            if (n == node) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean sameFields(DomNode a, DomNode b) {
+        return a.tag.equals(b.tag) && a.id.equals(b.id) && a.classes.equals(b.classes)
+                && a.attrs.equals(b.attrs) && a.childCount == b.childCount;
+    }
+
+    private static int idOf(DefaultMutableTreeNode node) {
+        return ((DomNode) node.getUserObject()).nodeId;
+    }
+
+    private static DomNode placeholder(String label) {
+        return new DomNode(label, "", "", List.of(), List.of());
+    }
+}
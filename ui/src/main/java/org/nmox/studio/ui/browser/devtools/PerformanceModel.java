@@ -0,0 +1,271 @@
+package org.nmox.studio.ui.browser.devtools;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The DevTools Performance tab's data: a bounded ring of performance
+ * timeline entries (navigation, paint, resource, long task, layout
+ * shift) fed by the injected {@link DevScripts#PERF_WATCH} observer,
+ * which calls {@code nmoxBridge.perf(json)} with coalesced batches
+ * {@code {r?,u?,e:[{k,n,s,d,v?}]}}. Same hostile-page laws as
+ * {@link NetworkModel}: batches are parsed with {@link JsonLite} (never
+ * throws), names capped at {@link #NAME_CAP}, unknown kinds and garbled
+ * rows skipped, the ring holds {@link #CAP} entries with the oldest
+ * dropped and counted. EDT-confined in production.
+ *
+ * <p>The {@link Summary} is accumulated as entries ARRIVE, not derived
+ * from the ring, so evicting old resource rows never changes a page's
+ * TTFB or blocking time. Total blocking time follows the lab
+ * definition's spirit: each long task's time past {@link #BLOCKING_MS},
+ * counted from first contentful paint on — or from the start when the
+ * engine reports no paint timing (older WebKit), which the tab says.
+ * A batch carrying {@code r:true} starts a new document: ring, counters
+ * and summary reset, {@code u} becomes the page URL.
+ */
+public final class PerformanceModel {
+
+    /** Maximum entries kept; oldest dropped (and counted) past this. */
+    public static final int CAP = 1000;
+
+    /** Maximum chars of entry name (usually a URL) stored per row. */
+    public static final int NAME_CAP = 300;
+
+    /** A long task blocks the main thread for its time past this. */
+    public static final double BLOCKING_MS = 50;
+
+    /** Summary value for "not reported (yet)". */
+    public static final double UNKNOWN = -1;
+
+    /** Entry kinds, in timeline lane order; {@link #wire} is the entryType. */
+    public enum Kind {
+        NAVIGATION("navigation"), PAINT("paint"), RESOURCE("resource"),
+        LONGTASK("longtask"), LAYOUT_SHIFT("layout-shift");
+
+        public final String wire;
+
+        Kind(String wire) {
+            this.wire = wire;
+        }
+
+        static Kind of(String wire) {
+            for (Kind k : values()) {
+                if (k.wire.equals(wire)) {
+                    return k;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One timeline entry, times in page milliseconds from navigation
+     * start. {@code value} is the navigation's responseStart (TTFB) or a
+     * layout shift's score; 0 otherwise.
+     */
+    public record Entry(Kind kind, String name, double startMillis,
+            double durationMillis, double value) {
+
+        public double endMillis() {
+            return startMillis + durationMillis;
+        }
+    }
+
+    /**
+     * The page's headline numbers; {@link #UNKNOWN} where the engine has
+     * not reported them.
+     */
+    public record Summary(String url, double ttfbMillis, double fcpMillis,
+            double totalBlockingMillis, double layoutShift, int longTasks) {
+
+        /** The rack VITALS payload: compact, stable key order, unknowns omitted. */
+        public String toJson() {
+            StringBuilder b = new StringBuilder("{\"url\":").append(DevScripts.quote(url));
+            field(b, "ttfb", ttfbMillis);
+            field(b, "fcp", fcpMillis);
+            field(b, "tbt", totalBlockingMillis);
+            if (layoutShift >= 0) {
+                b.append(",\"cls\":").append(String.format(Locale.ROOT, "%.3f", layoutShift));
+            }
+            return b.append(",\"longTasks\":").append(longTasks).append('}').toString();
+        }
+
+        private static void field(StringBuilder b, String key, double millis) {
+            if (millis >= 0) {
+                b.append(",\"").append(key).append("\":").append(Math.round(millis));
+            }
+        }
+    }
+
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    /** Long tasks seen before FCP was known: (start, excess) — folded in when it arrives. */
+    private final List<double[]> earlyTasks = new ArrayList<>();
+    private long dropped;
+    private String url = "";
+    private double ttfb = UNKNOWN;
+    private double fcp = UNKNOWN;
+    private double blockingAll;
+    private double blockingAfterFcp;
+    private double shift = UNKNOWN;
+    private int longTasks;
+    private Runnable listener;
+    private Consumer<Summary> summaryListener;
+    private Summary lastSummary;
+
+    /**
+     * Applies one bridge batch. Garbage adds nothing; a batch with no
+     * usable rows still resets when it says so.
+     */
+    public void addBatch(String json) {
+        Object v = JsonLite.parse(json);
+        if (!(v instanceof Map)) {
+            return;
+        }
+        Map<String, Object> batch = JsonLite.asObject(v);
+        if (Boolean.TRUE.equals(batch.get("r"))) {
+            reset(JsonLite.str(batch, "u", ""));
+        }
+        for (Object row : JsonLite.asArray(batch.get("e"))) {
+            Entry e = fromJson(row);
+            if (e != null) {
+                add(e);
+            }
+        }
+        while (entries.size() > CAP) {
+            entries.removeFirst();
+            dropped++;
+        }
+        fire();
+    }
+
+    /** One row of a batch, or null when it is not shaped like one. */
+    static Entry fromJson(Object row) {
+        if (!(row instanceof Map)) {
+            return null;
+        }
+        Map<String, Object> o = JsonLite.asObject(row);
+        Kind kind = Kind.of(JsonLite.str(o, "k", ""));
+        double start = real(o, "s");
+        double duration = real(o, "d");
+        if (kind == null || start < 0 || duration < 0) {
+            return null;
+        }
+        String name = JsonLite.str(o, "n", "");
+        if (name.length() > NAME_CAP) {
+            name = name.substring(0, NAME_CAP);
+        }
+        double value = Math.max(0, real(o, "v"));
+        return new Entry(kind, name, start, duration, value);
+    }
+
+    private static double real(Map<String, Object> o, String key) {
+        Object v = o.get(key);
+        return v instanceof Double d && Double.isFinite(d) ? d : (key.equals("v") ? 0 : -1);
+    }
+
+    private void add(Entry e) {
+        entries.addLast(e);
+        switch (e.kind()) {
+            case NAVIGATION -> {
+                if (e.value() > 0) {
+                    ttfb = e.value();
+                }
+            }
+            case PAINT -> {
+                if ("first-contentful-paint".equals(e.name()) && fcp < 0) {
+                    fcp = e.startMillis();
+                    for (double[] task : earlyTasks) {
+                        if (task[0] >= fcp) {
+                            blockingAfterFcp += task[1];
+                        }
+                    }
+                    earlyTasks.clear();
+                }
+            }
+            case LONGTASK -> {
+                longTasks++;
+                double excess = Math.max(0, e.durationMillis() - BLOCKING_MS);
+                blockingAll += excess;
+                if (fcp >= 0) {
+                    if (e.startMillis() >= fcp) {
+                        blockingAfterFcp += excess;
+                    }
+                } else if (earlyTasks.size() < CAP) {
+                    earlyTasks.add(new double[]{e.startMillis(), excess});
+                }
+            }
+            case LAYOUT_SHIFT -> shift = Math.max(0, shift) + e.value();
+            default -> {
+            }
+        }
+    }
+
+    private void reset(String pageUrl) {
+        entries.clear();
+        earlyTasks.clear();
+        dropped = 0;
+        url = pageUrl.length() > 500 ? pageUrl.substring(0, 500) : pageUrl;
+        ttfb = UNKNOWN;
+        fcp = UNKNOWN;
+        blockingAll = 0;
+        blockingAfterFcp = 0;
+        shift = UNKNOWN;
+        longTasks = 0;
+    }
+
+    /** The headline numbers as of now. */
+    public Summary summary() {
+        return new Summary(url, ttfb, fcp, fcp >= 0 ? blockingAfterFcp : blockingAll,
+                shift, longTasks);
+    }
+
+    /** True when blocking time is counted from the start (no paint timing reported). */
+    public boolean blockingFromStart() {
+        return fcp < 0;
+    }
+
+    /** Snapshot of the current entries, arrival order. */
+    public List<Entry> entries() {
+        return new ArrayList<>(entries);
+    }
+
+    /** How many older entries were evicted since the last reset or clear. */
+    public long droppedCount() {
+        return dropped;
+    }
+
+    /** Empties the ring and the summary (the page URL is kept). */
+    public void clear() {
+        reset(url);
+        fire();
+    }
+
+    /** The one change listener (the rendering panel). */
+    public void setListener(Runnable r) {
+        this.listener = r;
+    }
+
+    /**
+     * Hears the summary only when it CHANGED — a resource trickle that
+     * moves no headline number fires nothing (the rack VITALS feed).
+     */
+    public void setSummaryListener(Consumer<Summary> l) {
+        this.summaryListener = l;
+    }
+
+    private void fire() {
+        if (listener != null) {
+            listener.run();
+        }
+        Summary now = summary();
+        if (summaryListener != null && !now.equals(lastSummary)) {
+            lastSummary = now;
+            summaryListener.accept(now);
+        }
+    }
+}
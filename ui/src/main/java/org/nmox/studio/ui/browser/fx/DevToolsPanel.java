@@ -34,7 +34,9 @@ import org.nmox.studio.ui.browser.devtools.ConsoleModel;
 import org.nmox.studio.ui.browser.devtools.DevScripts;
 import org.nmox.studio.ui.browser.devtools.DomSnapshotParser;
 import org.nmox.studio.ui.browser.devtools.DomSnapshotParser.DomNode;
+import org.nmox.studio.ui.browser.devtools.LiveDom;
 import org.nmox.studio.ui.browser.devtools.NetworkModel;
+import org.nmox.studio.ui.browser.devtools.PerformanceModel;
 import org.nmox.studio.ui.browser.devtools.ScriptRunner;
 import org.nmox.studio.ui.browser.devtools.StorageSnapshotParser;
 import org.nmox.studio.ui.browser.devtools.StyleSummary;
@@ -46,7 +48,7 @@ import org.openide.util.RequestProcessor;
 
 /**
  * The Browser's developer-tools pane: Console / DOM / Network /
- * Storage / Vue / Svelte tabs in a collapsible bottom split. Pure Swing shell —
+ * Performance / Storage / Vue / Svelte tabs in a collapsible bottom split. Pure Swing shell —
  * ALL logic lives in the tested devtools cores (models, parsers,
  * scripts); this class only renders them and talks to the page
  * through the {@link ScriptRunner} seam (so it has zero JavaFX
@@ -76,10 +78,19 @@ public final class DevToolsPanel extends JPanel {
     private final JLabel networkDropped = new JLabel();
     private final javax.swing.Timer networkSync;
 
+    // Performance tab
+    private final PerformanceModel performance;
+    private final PerfTimeline perfTimeline = new PerfTimeline();
+    private final JLabel perfSummary = new JLabel(" ");
+    private final JLabel perfDropped = new JLabel();
+    private final javax.swing.Timer perfSync;
+
     // DOM tab
-    private final DefaultTreeModel domTree = new DefaultTreeModel(new DefaultMutableTreeNode("(press Refresh)"));
+    private final LiveDom liveDom;
+    private final DefaultTreeModel domTree;
     private final JTextArea domDetails = readOnlyArea();
     private final JLabel domStatus = new JLabel(" ");
+    /** The snapshot-fallback tree's root; null while the live tree is shown. */
     private volatile DomNode lastDomRoot;
     private javax.swing.Timer pickPoll;
     /** The DOM tab's tree — the Motion tab animates its selection. */
@@ -118,19 +129,36 @@ public final class DevToolsPanel extends JPanel {
     private final JLabel ngStatus = new JLabel(" ");
 
     public DevToolsPanel(ConsoleModel console, NetworkModel network, ScriptRunner runner) {
+        this(console, network, new LiveDom(), new PerformanceModel(), runner);
+    }
+
+    /**
+     * @param liveDom     the DOM tab's live tree — the same instance the
+     *                    page bridge feeds mutation batches into
+     * @param performance the Performance tab's model, bridge-fed likewise
+     */
+    public DevToolsPanel(ConsoleModel console, NetworkModel network, LiveDom liveDom,
+            PerformanceModel performance, ScriptRunner runner) {
         super(new BorderLayout());
         this.console = console;
         this.network = network;
         this.runner = runner;
+        this.liveDom = liveDom;
+        this.performance = performance;
+        this.domTree = liveDom.model();
+        liveDom.setResetListener(this::refreshDom);
         consoleSync = coalesced(this::syncConsole);
         networkSync = coalesced(this::syncNetwork);
         console.setListener(consoleSync::restart);
         network.setListener(networkSync::restart);
+        perfSync = coalesced(this::syncPerformance);
+        performance.setListener(perfSync::restart);
         JTabbedPane tabs = new JTabbedPane();
         tabs.addTab("Console", consoleTab());
         tabs.addTab("DOM", domTab());
         tabs.addTab("Motion", motionTab());
         tabs.addTab("Network", networkTab());
+        tabs.addTab("Performance", performanceTab());
         tabs.addTab("Storage", storageTab());
         tabs.addTab("Vue", vueTab());
         tabs.addTab("Svelte", svelteTab());
@@ -278,6 +306,21 @@ public final class DevToolsPanel extends JPanel {
         JTree tree = safeTree(domTree);
         domTreeView = tree;
         tree.setRootVisible(true);
+        // collapsed live parents carry a stand-in child; expanding one is
+        // what fetches its real children from the page
+        tree.addTreeWillExpandListener(new javax.swing.event.TreeWillExpandListener() {
+            @Override
+            public void treeWillExpand(javax.swing.event.TreeExpansionEvent e) {
+                if (e.getPath().getLastPathComponent() instanceof DefaultMutableTreeNode n
+                        && LiveDom.needsChildren(n)) {
+                    loadChildren(n, null);
+                }
+            }
+
+            @Override
+            public void treeWillCollapse(javax.swing.event.TreeExpansionEvent e) {
+            }
+        });
         tree.getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
         JButton refresh = new JButton("Refresh");
         refresh.addActionListener(e -> refreshDom());
@@ -794,10 +837,11 @@ public final class DevToolsPanel extends JPanel {
     }
 
     /**
-     * A page click while pick was armed: refresh the snapshot (the
-     * page may have changed since the tree was built), then select
-     * the picked node so highlight + details + Open Source all aim at
-     * it. Timer already stopped by the caller.
+     * A page click while pick was armed: select the picked node so
+     * highlight + details + Open Source all aim at it. The live tree is
+     * walked down the picked path, fetching any collapsed level on the
+     * way; the snapshot fallback is re-taken first (the page may have
+     * changed since it was built). Timer already stopped by the caller.
      */
     private void onPicked(JTree tree, String pathJson) {
         List<Integer> path = new java.util.ArrayList<>();
@@ -807,18 +851,19 @@ public final class DevToolsPanel extends JPanel {
                 path.add((int) (double) d);
             }
         }
+        if (liveDom.size() > 0 && domTree.getRoot() instanceof DefaultMutableTreeNode root) {
+            reveal(tree, root, path, 0, false);
+            return;
+        }
         runner.run(DevScripts.DOM_SNAPSHOT, json -> RP.post(() -> {
             DomNode root = DomSnapshotParser.parse(json);
             DefaultMutableTreeNode swingRoot = toSwing(root);
             SwingUtilities.invokeLater(() -> {
-                domTree.setRoot(swingRoot);
+                liveDom.show(swingRoot);
                 lastDomRoot = root;
                 DefaultMutableTreeNode hit = findByPath(swingRoot, path);
                 if (hit != null) {
-                    javax.swing.tree.TreePath tp = new javax.swing.tree.TreePath(hit.getPath());
-                    tree.setSelectionPath(tp);
-                    tree.scrollPathToVisible(tp);
-                    domStatus.setText(" ");
+                    select(tree, hit);
                 } else {
                     domStatus.setText("Picked element not in the snapshot (page changed?)");
                 }
@@ -826,6 +871,51 @@ public final class DevToolsPanel extends JPanel {
         }), err -> domStatus.setText("Pick failed: " + err));
     }
 
+    /** Walks the live tree down {@code path} from {@code at}, loading levels as needed. */
+    private void reveal(JTree tree, DefaultMutableTreeNode at, List<Integer> path, int depth,
+            boolean fetched) {
+        if (depth == path.size()) {
+            select(tree, at);
+            return;
+        }
+        if (LiveDom.needsChildren(at)) {
+            if (fetched) {
+                domStatus.setText("Picked element not in the tree (page changed?)");
+                return;
+            }
+            loadChildren(at, () -> reveal(tree, at, path, depth, true));
+            return;
+        }
+        int index = path.get(depth);
+        if (index >= at.getChildCount()
+                || !(((DefaultMutableTreeNode) at.getChildAt(index)).getUserObject() instanceof DomNode dn)
+                || dn.isPlaceholder()) {
+            domStatus.setText("Picked element not in the tree (page changed?)");
+            return;
+        }
+        reveal(tree, (DefaultMutableTreeNode) at.getChildAt(index), path, depth + 1, false);
+    }
+
+    private void select(JTree tree, DefaultMutableTreeNode node) {
+        javax.swing.tree.TreePath tp = new javax.swing.tree.TreePath(node.getPath());
+        tree.setSelectionPath(tp);
+        tree.scrollPathToVisible(tp);
+        domStatus.setText(" ");
+    }
+
+    /** Fetches a live parent's children from the page, then runs {@code then} (EDT). */
+    private void loadChildren(DefaultMutableTreeNode node, Runnable then) {
+        if (!(node.getUserObject() instanceof DomNode dn) || dn.nodeId < 0) {
+            return;
+        }
+        runner.run(DevScripts.domChildren(dn.nodeId), json -> {
+            liveDom.children(json);
+            if (then != null) {
+                then.run();
+            }
+        }, err -> domStatus.setText("No page: " + err));
+    }
+
     private static DefaultMutableTreeNode findByPath(DefaultMutableTreeNode swingRoot, List<Integer> path) {
         java.util.Enumeration<?> all = swingRoot.depthFirstEnumeration();
         while (all.hasMoreElements()) {
@@ -852,7 +942,25 @@ public final class DevToolsPanel extends JPanel {
             domStatus.setText("Select an element first");
             return;
         }
-        DomNode root = lastDomRoot;
+        if (node.nodeId < 0) {
+            openSource(node, lastDomRoot, -1);
+            return;
+        }
+        // the live tree holds only what was expanded, so the page counts
+        // the same-tag elements before this one across the whole document
+        runner.run(DevScripts.sameTagIndex(node.nodeId), nth -> {
+            int n;
+            try {
+                n = Integer.parseInt(nth == null ? "" : nth.trim());
+            } catch (NumberFormatException ex) {
+                n = -1;
+            }
+            openSource(node, null, n);
+        }, err -> domStatus.setText("No page: " + err));
+    }
+
+    /** Resolves and opens the source: by id, else by {@code root}'s order or the page's {@code nth}. */
+    private void openSource(DomNode node, DomNode root, int nth) {
         runner.run(DevScripts.PAGE_URL, url -> RP.post(() -> {
             org.nmox.studio.core.spi.LiveServings servings =
                     org.nmox.studio.core.spi.LiveServings.find();
@@ -871,7 +979,9 @@ public final class DevToolsPanel extends JPanel {
                 status("Cannot read " + resolved.file().getName() + ": " + ex.getMessage());
                 return;
             }
-            int line = org.nmox.studio.ui.browser.devtools.HtmlSourceLocator.lineOf(html, node, root);
+            int line = root != null
+                    ? org.nmox.studio.ui.browser.devtools.HtmlSourceLocator.lineOf(html, node, root)
+                    : org.nmox.studio.ui.browser.devtools.HtmlSourceLocator.lineOf(html, node, nth);
             if (line < 0) {
                 status("<" + node.tag + "> not found in " + resolved.file().getName()
                         + " — likely script-generated");
@@ -916,10 +1026,15 @@ public final class DevToolsPanel extends JPanel {
         });
     }
 
+    /**
+     * The selected element, addressed for scripts. A live node's
+     * child-index path moves as its earlier siblings come and go, so it
+     * is read off the tree position at the moment of use.
+     */
     private static DomNode selectedDom(JTree tree) {
         Object last = tree.getLastSelectedPathComponent();
         if (last instanceof DefaultMutableTreeNode n && n.getUserObject() instanceof DomNode dn) {
-            return dn;
+            return dn.nodeId >= 0 ? dn.withPath(LiveDom.pathOf(n)) : dn;
         }
         return null;
     }
@@ -955,15 +1070,37 @@ public final class DevToolsPanel extends JPanel {
         return sb.toString();
     }
 
+    /**
+     * (Re)starts the live tree: DOM_WATCH answers the root and from then
+     * on streams mutations into {@link LiveDom}; the root's children are
+     * fetched and shown expanded. A page without the bridge (or without
+     * MutationObserver) gets the one-shot snapshot instead.
+     */
     private void refreshDom() {
+        runner.run(DevScripts.DOM_WATCH, json -> {
+            if (!liveDom.reset(json)) {
+                refreshSnapshot();
+                return;
+            }
+            lastDomRoot = null;
+            DefaultMutableTreeNode root = (DefaultMutableTreeNode) domTree.getRoot();
+            loadChildren(root, () -> {
+                if (domTreeView != null && domTree.getRoot() == root) {
+                    domTreeView.expandPath(new javax.swing.tree.TreePath(root.getPath()));
+                }
+            });
+        }, err -> liveDom.show(new DefaultMutableTreeNode("(no page: " + err + ")")));
+    }
+
+    private void refreshSnapshot() {
         runner.run(DevScripts.DOM_SNAPSHOT, json -> RP.post(() -> {
             DomNode root = DomSnapshotParser.parse(json);
             DefaultMutableTreeNode swingRoot = toSwing(root);
             SwingUtilities.invokeLater(() -> {
-                domTree.setRoot(swingRoot);
+                liveDom.show(swingRoot);
                 lastDomRoot = root;
             });
-        }), err -> domTree.setRoot(new DefaultMutableTreeNode("(no page: " + err + ")")));
+        }), err -> liveDom.show(new DefaultMutableTreeNode("(no page: " + err + ")")));
     }
 
     private static DefaultMutableTreeNode toSwing(DomNode node) {
@@ -1005,6 +1142,42 @@ public final class DevToolsPanel extends JPanel {
         networkDropped.setVisible(dropped > 0);
     }
 
+    // ---- Performance ---------------------------------------------------
+
+    private JPanel performanceTab() {
+        JPanel panel = new JPanel(new BorderLayout());
+        JPanel bar = new JPanel(new FlowLayout(FlowLayout.LEFT, 4, 2));
+        JButton clear = new JButton("Clear");
+        clear.addActionListener(e -> performance.clear());
+        bar.add(clear);
+        bar.add(perfSummary);
+        bar.add(perfDropped);
+        perfDropped.setVisible(false);
+        panel.add(bar, BorderLayout.NORTH);
+        panel.add(new JScrollPane(perfTimeline), BorderLayout.CENTER);
+        syncPerformance();
+        return panel;
+    }
+
+    private void syncPerformance() {
+        perfTimeline.setEntries(performance.entries());
+        PerformanceModel.Summary s = performance.summary();
+        perfSummary.setText("TTFB " + millis(s.ttfbMillis())
+                + "   FCP " + millis(s.fcpMillis())
+                + "   Total blocking " + millis(s.totalBlockingMillis())
+                + (performance.blockingFromStart() ? " (from start: no paint timing)" : "")
+                + "   Long tasks " + s.longTasks()
+                + (s.layoutShift() < 0 ? "" : String.format(java.util.Locale.ROOT,
+                        "   Layout shift %.3f", s.layoutShift())));
+        long dropped = performance.droppedCount();
+        perfDropped.setText(dropped + " older dropped (cap " + PerformanceModel.CAP + ")");
+        perfDropped.setVisible(dropped > 0);
+    }
+
+    private static String millis(double value) {
+        return value < 0 ? "—" : Math.round(value) + " ms";
+    }
+
     // ---- Storage -------------------------------------------------------
 
     private JPanel storageTab() {
@@ -21,11 +21,14 @@ import javax.swing.JTextField;
 import javax.swing.JToggleButton;
 import javax.swing.SwingUtilities;
 import netscape.javascript.JSObject;
+import org.nmox.studio.rack.service.PageVitals;
 import org.nmox.studio.ui.browser.devtools.BrowserUrls;
 import org.nmox.studio.ui.browser.devtools.ConsoleModel;
 import org.nmox.studio.ui.browser.devtools.DevScripts;
 import org.nmox.studio.ui.browser.devtools.JsBridge;
+import org.nmox.studio.ui.browser.devtools.LiveDom;
 import org.nmox.studio.ui.browser.devtools.NetworkModel;
+import org.nmox.studio.ui.browser.devtools.PerformanceModel;
 
 /**
  * The Browser tab's engine host: a Swing panel whose center is a
@@ -68,8 +71,11 @@ public final class FxBrowserPanel extends JPanel {
     private final JFXPanel fxPanel = new JFXPanel();
     private final ConsoleModel console = new ConsoleModel();
     private final NetworkModel network = new NetworkModel();
+    private final LiveDom dom = new LiveDom();
+    private final PerformanceModel performance = new PerformanceModel();
     /** STRONG bridge reference — see the class javadoc. */
-    private final JsBridge bridge = new JsBridge(SwingUtilities::invokeLater, console, network);
+    private final JsBridge bridge = new JsBridge(SwingUtilities::invokeLater, console, network,
+            dom, performance);
     private final DevToolsPanel devTools;
     private final JSplitPane split;
     private final JTextField urlField = new JTextField();
@@ -92,7 +98,10 @@ public final class FxBrowserPanel extends JPanel {
         // tab must not shut it down — it is a process-wide singleton
         Platform.setImplicitExit(false);
 
-        devTools = new DevToolsPanel(console, network, this::runScript);
+        devTools = new DevToolsPanel(console, network, dom, performance, this::runScript);
+        // every headline change goes out on the SCOPE devices' VITALS jack
+        performance.setSummaryListener(summary
+                -> PageVitals.getDefault().publish(summary.toJson()));
         add(toolbar(), BorderLayout.NORTH);
         split = new JSplitPane(JSplitPane.VERTICAL_SPLIT, fxPanel, devTools);
         split.setResizeWeight(0.68);
@@ -219,6 +228,7 @@ public final class FxBrowserPanel extends JPanel {
             JSObject window = (JSObject) engine.executeScript("window");
             window.setMember("nmoxBridge", bridge);
             engine.executeScript(DevScripts.INSTALL);
+            engine.executeScript(DevScripts.PERF_WATCH);
         } catch (RuntimeException ex) {
             // a document with no JS context (e.g. about:blank edge
             // states) simply goes uninstrumented — fail soft
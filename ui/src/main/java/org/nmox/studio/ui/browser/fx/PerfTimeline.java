@@ -0,0 +1,195 @@
+package org.nmox.studio.ui.browser.fx;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import javax.swing.JPanel;
+import javax.swing.ToolTipManager;
+
+import org.nmox.studio.ui.browser.devtools.PerformanceModel;
+import org.nmox.studio.ui.browser.devtools.PerformanceModel.Entry;
+import org.nmox.studio.ui.browser.devtools.PerformanceModel.Kind;
+
+/**
+ * The Performance tab's flame-style timeline: one lane per entry kind
+ * (navigation, paint, resource, long task, layout shift) on a shared
+ * millisecond axis fitted to the panel width, overlapping entries in a
+ * lane stacked into rows so concurrent resource loads read as a flame
+ * instead of a smear. Zero-duration entries (paints, shifts) draw as
+ * ticks; long tasks shade their blocking part past
+ * {@link PerformanceModel#BLOCKING_MS}. Hover for the entry. The row
+ * packing lives in the pure {@link #layout} so it is a plain unit test;
+ * this panel only paints it. EDT-only.
+ */
+public final class PerfTimeline extends JPanel {
+
+    /** One placed bar: its entry, lane (kind ordinal) and stacked row. */
+    public record Bar(Entry entry, int lane, int row) {
+    }
+
+    /** Rows per lane past this are folded onto the last row. */
+    static final int MAX_ROWS = 8;
+
+    private static final int ROW_H = 12;
+    private static final int LANE_GAP = 6;
+    private static final int LABEL_W = 86;
+    private static final int AXIS_H = 16;
+    private static final Color[] LANE_COLORS = {
+        new Color(90, 140, 220), new Color(90, 190, 110), new Color(150, 150, 170),
+        new Color(220, 170, 60), new Color(200, 90, 200)};
+    private static final Color BLOCKING = new Color(220, 70, 60);
+
+    private List<Bar> bars = List.of();
+    private int[] laneRows = new int[Kind.values().length];
+    private double endMillis = 1;
+
+    public PerfTimeline() {
+        setBackground(new Color(30, 30, 34));
+        setOpaque(true);
+        ToolTipManager.sharedInstance().registerComponent(this);
+    }
+
+    /**
+     * Greedy interval packing per lane: entries sorted by start, each put
+     * on the first row whose last bar ended at or before it starts (capped
+     * at {@link #MAX_ROWS}). Lanes are the kinds' ordinals.
+     */
+    public static List<Bar> layout(List<Entry> entries) {
+        List<Entry> sorted = new ArrayList<>(entries);
+        sorted.sort(Comparator.comparingDouble(Entry::startMillis));
+        double[][] rowEnds = new double[Kind.values().length][MAX_ROWS];
+        int[] used = new int[Kind.values().length];
+        List<Bar> out = new ArrayList<>(sorted.size());
+        for (Entry e : sorted) {
+            int lane = e.kind().ordinal();
+            int row = 0;
+            while (row < used[lane] && rowEnds[lane][row] > e.startMillis()) {
+                row++;
+            }
+            if (row == MAX_ROWS) {
+                row = MAX_ROWS - 1;
+            }
+            used[lane] = Math.max(used[lane], row + 1);
+            rowEnds[lane][row] = Math.max(rowEnds[lane][row], e.endMillis());
+            out.add(new Bar(e, lane, row));
+        }
+        return out;
+    }
+
+    /** Replaces what is drawn. */
+    public void setEntries(List<Entry> entries) {
+        bars = layout(entries);
+        laneRows = new int[Kind.values().length];
+        endMillis = 1;
+        for (Bar b : bars) {
+            laneRows[b.lane()] = Math.max(laneRows[b.lane()], b.row() + 1);
+            endMillis = Math.max(endMillis, b.entry().endMillis());
+        }
+        revalidate();
+        repaint();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(600, laneTop(laneRows.length) + LANE_GAP);
+    }
+
+    private int laneTop(int lane) {
+        int y = AXIS_H;
+        for (int i = 0; i < lane; i++) {
+            y += Math.max(1, laneRows[i]) * ROW_H + LANE_GAP;
+        }
+        return y;
+    }
+
+    private double scale() {
+        return Math.max(1, getWidth() - LABEL_W - 8) / endMillis;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g.create();
+        try {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setFont(getFont().deriveFont(Font.PLAIN, 10f));
+            double scale = scale();
+            paintAxis(g2, scale);
+            Kind[] kinds = Kind.values();
+            for (int lane = 0; lane < kinds.length; lane++) {
+                g2.setColor(Color.LIGHT_GRAY);
+                g2.drawString(kinds[lane].wire, 4, laneTop(lane) + ROW_H - 2);
+            }
+            for (Bar b : bars) {
+                Entry e = b.entry();
+                int x = LABEL_W + (int) (e.startMillis() * scale);
+                int y = laneTop(b.lane()) + b.row() * ROW_H;
+                int w = Math.max(2, (int) (e.durationMillis() * scale));
+                g2.setColor(LANE_COLORS[b.lane()]);
+                g2.fillRect(x, y + 1, w, ROW_H - 2);
+                if (e.kind() == Kind.LONGTASK && e.durationMillis() > PerformanceModel.BLOCKING_MS) {
+                    int bx = x + (int) (PerformanceModel.BLOCKING_MS * scale);
+                    g2.setColor(BLOCKING);
+                    g2.fillRect(bx, y + 1, Math.max(1, x + w - bx), ROW_H - 2);
+                }
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    private void paintAxis(Graphics2D g2, double scale) {
+        double step = niceStep(endMillis / 8);
+        g2.setColor(Color.GRAY);
+        for (double t = 0; t <= endMillis; t += step) {
+            int x = LABEL_W + (int) (t * scale);
+            g2.drawLine(x, AXIS_H - 4, x, getHeight());
+            g2.drawString(label(t), x + 2, AXIS_H - 5);
+        }
+    }
+
+    private static double niceStep(double raw) {
+        double pow = Math.pow(10, Math.floor(Math.log10(Math.max(raw, 1))));
+        for (double m : new double[]{1, 2, 5}) {
+            if (m * pow >= raw) {
+                return m * pow;
+            }
+        }
+        return 10 * pow;
+    }
+
+    private static String label(double millis) {
+        return millis >= 1000 ? String.format(Locale.ROOT, "%.1fs", millis / 1000)
+                : Math.round(millis) + "ms";
+    }
+
+    @Override
+    public String getToolTipText(MouseEvent ev) {
+        double scale = scale();
+        for (int i = bars.size() - 1; i >= 0; i--) {
+            Bar b = bars.get(i);
+            Entry e = b.entry();
+            int x = LABEL_W + (int) (e.startMillis() * scale);
+            int y = laneTop(b.lane()) + b.row() * ROW_H;
+            int w = Math.max(2, (int) (e.durationMillis() * scale));
+            if (ev.getX() >= x - 1 && ev.getX() <= x + w + 1 && ev.getY() >= y && ev.getY() < y + ROW_H) {
+                String value = switch (e.kind()) {
+                    case NAVIGATION -> ", TTFB " + label(e.value());
+                    case LAYOUT_SHIFT -> String.format(Locale.ROOT, ", score %.3f", e.value());
+                    default -> "";
+                };
+                return e.kind().wire + " " + e.name() + " @" + label(e.startMillis())
+                        + " for " + label(e.durationMillis()) + value;
+            }
+        }
+        return null;
+    }
+}
@@ -209,4 +209,57 @@ class DevScriptsTest {
         }
         assertThat(js).contains("var path=[0];");
     }
+
+    @Test
+    @DisplayName("the live DOM watch embeds its caps, batches through the bridge, and falls back honestly")
+    void domWatchShape() {
+        String js = DevScripts.DOM_WATCH;
+        assertThat(js).contains("CHILD_CAP=1000");
+        assertThat(js).contains("ATTR_CAP=200");
+        assertThat(js).contains("MAX_OPS=500");
+        assertThat(js).contains("BATCH_CAP=256000");
+        assertThat(js).contains("FLUSH_MS=100");
+        assertThat(js).contains("new MutationObserver");
+        assertThat(js).contains("B.dom(json)");
+        assertThat(js).contains("'unwatched'"); // no bridge → the snapshot fallback
+        assertThat(js).contains("window.__nmoxDom.stop()"); // reinstall never stacks observers
+        assertThat(js).contains("{\"reset\":true}");
+        assertThat(DevScripts.domChildren(42)).contains("D.children(42)");
+        assertThat(DevScripts.sameTagIndex(7)).contains("D.el(7)")
+                .contains("getElementsByTagName");
+    }
+
+    @Test
+    @DisplayName("the performance watch observes buffered, falls back per type, and batches through the bridge")
+    void perfWatchShape() {
+        String js = DevScripts.PERF_WATCH;
+        assertThat(js).contains("MAX_ENTRIES=200");
+        assertThat(js).contains("NAME_CAP=300");
+        assertThat(js).contains("FLUSH_MS=250");
+        assertThat(js).contains("buffered:true"); // entries from before the injection too
+        for (String type : List.of("navigation", "paint", "resource", "longtask", "layout-shift")) {
+            assertThat(js).contains("'" + type + "'");
+        }
+        assertThat(js).contains("supportedEntryTypes");
+        assertThat(js).contains("getEntriesByType"); // engines without the observer type
+        assertThat(js).contains("hadRecentInput"); // input-driven shifts are not layout shift
+        assertThat(js).contains("B.perf(JSON.stringify(b))");
+        assertThat(js).contains("b.r=true");
+        assertThat(js).contains("'unobserved'");
+        assertThat(js).contains("if(window.__nmoxPerf)"); // idempotent per document
+    }
+
+    @Test
+    @DisplayName("the legacy-timing navigation row is built only when no observer will deliver the real one")
+    void perfWatchNavigationFallback() {
+        String js = DevScripts.PERF_WATCH;
+        int fallback = js.indexOf("entryType:'navigation'");
+        assertThat(fallback).isPositive();
+        String guard = js.substring(js.lastIndexOf("if(", fallback), fallback);
+        // buffered observer entries arrive AFTER the script returns: nav is
+        // still false at this check, so only the observed types can tell
+        assertThat(guard).contains("observed.indexOf('navigation')<0").contains("!nav");
+        assertThat(js.indexOf("observed.push(t)")).as("types are recorded before the check")
+                .isLessThan(fallback);
+    }
 }
@@ -115,4 +115,15 @@ class HtmlSourceLocatorTest {
                 .isEqualTo(page.chars().filter(c -> c == '\n').count());
         assertThat(n).doesNotContain("x");
     }
+
+    @Test
+    @DisplayName("the live tab's page-counted nth locates an id-less element the same way")
+    void byPageCountedNth() {
+        DomNode secondDiv = node("div", "", List.of(1, 1));
+        assertThat(HtmlSourceLocator.lineOf(PAGE, secondDiv, 1)).isEqualTo(5);
+        assertThat(HtmlSourceLocator.lineOf(PAGE, secondDiv, -1))
+                .as("the page no longer has the element").isEqualTo(-1);
+        assertThat(HtmlSourceLocator.lineOf(PAGE, secondDiv, 7))
+                .as("more in the DOM than in the source: script-generated").isEqualTo(-1);
+    }
 }
@@ -83,4 +83,41 @@ class JsBridgeTest {
         assertThat(console.entries().get(0).level()).isEqualTo("log");
         assertThat(network.entries()).isEmpty();
     }
+
+    @Test
+    @DisplayName("DOM batches marshal into the live tree; an over-cap batch becomes a reset")
+    void domBatches() {
+        LiveDom dom = new LiveDom();
+        int[] resets = {0};
+        dom.setResetListener(() -> resets[0]++);
+        JsBridge withDom = new JsBridge(queued::add, console, network, dom);
+        withDom.dom("{\"ops\":[]}");
+        assertThat(dom.batches()).as("nothing applied before the executor runs").isZero();
+        drain();
+        assertThat(dom.batches()).isEqualTo(1);
+
+        withDom.dom("{\"ops\":[" + "{},".repeat(JsBridge.DOM_BATCH_CAP / 3) + "{}]}");
+        drain();
+        assertThat(resets[0]).as("truncating JSON would corrupt it — reload instead").isEqualTo(1);
+
+        bridge.dom("{\"reset\":true}"); // the three-arg bridge has no tree: dropped
+        assertThat(queued).isEmpty();
+    }
+
+    @Test
+    @DisplayName("performance batches marshal into the model; a hostile oversized batch is dropped whole")
+    void perfBatches() {
+        PerformanceModel perf = new PerformanceModel();
+        JsBridge withPerf = new JsBridge(queued::add, console, network, null, perf);
+        withPerf.perf("{\"r\":true,\"u\":\"http://x/\",\"e\":[{\"k\":\"paint\","
+                + "\"n\":\"first-contentful-paint\",\"s\":120.5,\"d\":0}]}");
+        assertThat(perf.entries()).isEmpty();
+        drain();
+        assertThat(perf.summary().fcpMillis()).isEqualTo(120.5);
+
+        withPerf.perf("x".repeat(JsBridge.DOM_BATCH_CAP + 1));
+        assertThat(queued).isEmpty();
+        bridge.perf("{\"e\":[]}"); // the three-arg bridge has no model: dropped
+        assertThat(queued).isEmpty();
+    }
 }
@@ -0,0 +1,159 @@
+package org.nmox.studio.ui.browser.devtools;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.DefaultMutableTreeNode;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nmox.studio.ui.browser.devtools.DomSnapshotParser.DomNode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The live DOM tree's laws: mutation batches land IN PLACE — kept
+ * elements keep their tree nodes (and so the user's expansion), only
+ * real insertions and removals fire — collapsed parents load lazily,
+ * paths follow the tree, and hostile or stale batches stay harmless.
+ */
+class LiveDomTest {
+
+    private LiveDom dom;
+    private List<String> events;
+
+    @BeforeEach
+    void setUp() {
+        dom = new LiveDom();
+        events = new ArrayList<>();
+        dom.model().addTreeModelListener(new TreeModelListener() {
+            @Override
+            public void treeNodesChanged(TreeModelEvent e) {
+                events.add("changed" + List.of(box(e.getChildIndices())));
+            }
+
+            @Override
+            public void treeNodesInserted(TreeModelEvent e) {
+                events.add("inserted" + List.of(box(e.getChildIndices())));
+            }
+
+            @Override
+            public void treeNodesRemoved(TreeModelEvent e) {
+                events.add("removed" + List.of(box(e.getChildIndices())));
+            }
+
+            @Override
+            public void treeStructureChanged(TreeModelEvent e) {
+                events.add("structure");
+            }
+        });
+        // <html> with <head> and <body>; body holds two divs, the first with a child
+        assertThat(dom.reset(el(1, "html", 2))).isTrue();
+        dom.children("{\"d\":1,\"k\":[" + el(2, "head", 0) + "," + el(3, "body", 2) + "],\"m\":0}");
+        dom.children("{\"d\":3,\"k\":[" + el(4, "div", 1) + "," + el(5, "div", 0) + "],\"m\":0}");
+        events.clear();
+    }
+
+    private static Integer[] box(int[] indices) {
+        Integer[] out = new Integer[indices == null ? 0 : indices.length];
+        for (int i = 0; i < out.length; i++) {
+            out[i] = indices[i];
+        }
+        return out;
+    }
+
+    private static String el(int id, String tag, int children) {
+        return "{\"d\":" + id + ",\"t\":\"" + tag + "\",\"n\":" + children + "}";
+    }
+
+    private static DomNode dom(DefaultMutableTreeNode node) {
+        return (DomNode) node.getUserObject();
+    }
+
+    @Test
+    @DisplayName("an inserted sibling fires one insertion and every kept node is the SAME node")
+    void insertionKeepsNodes() {
+        DefaultMutableTreeNode first = dom.node(4);
+        DefaultMutableTreeNode second = dom.node(5);
+        dom.apply("{\"ops\":[{\"o\":\"c\",\"d\":3,\"k\":[" + el(4, "div", 1) + ","
+                + el(9, "section", 0) + "," + el(5, "div", 0) + "],\"m\":0}]}");
+
+        DefaultMutableTreeNode body = dom.node(3);
+        assertThat(body.getChildAt(0)).isSameAs(first);
+        assertThat(dom(((DefaultMutableTreeNode) body.getChildAt(1))).tag).isEqualTo("section");
+        assertThat(body.getChildAt(2)).isSameAs(second);
+        assertThat(events).containsExactly("inserted[1]");
+        assertThat(LiveDom.pathOf(second)).containsExactly(1, 2);
+    }
+
+    @Test
+    @DisplayName("a removed element fires one removal and its id is forgotten")
+    void removalForgets() {
+        dom.apply("{\"ops\":[{\"o\":\"c\",\"d\":3,\"k\":[" + el(5, "div", 0) + "],\"m\":0}]}");
+        assertThat(events).containsExactly("removed[0]");
+        assertThat(dom.node(4)).isNull();
+        assertThat(LiveDom.pathOf(dom.node(5))).containsExactly(1, 0);
+        // a late op for the removed id is ignored, not resurrected
+        dom.apply("{\"ops\":[{\"o\":\"a\",\"d\":4,\"t\":\"div\",\"i\":\"late\"}]}");
+        assertThat(dom.node(4)).isNull();
+    }
+
+    @Test
+    @DisplayName("an attribute change repaints one row; collapsed parents follow their child count")
+    void attributesAndStandIns() {
+        DefaultMutableTreeNode first = dom.node(4);
+        assertThat(LiveDom.needsChildren(first)).as("collapsed with a child").isTrue();
+        dom.apply("{\"ops\":[{\"o\":\"a\",\"d\":4,\"t\":\"div\",\"i\":\"hero\",\"n\":1}]}");
+        assertThat(dom(first).id).isEqualTo("hero");
+        assertThat(events).containsExactly("changed[0]");
+
+        events.clear();
+        dom.apply("{\"ops\":[{\"o\":\"a\",\"d\":4,\"t\":\"div\",\"i\":\"hero\",\"n\":0}]}");
+        assertThat(first.getChildCount()).as("its last child left: no expand handle").isZero();
+        assertThat(events).contains("removed[0]");
+    }
+
+    @Test
+    @DisplayName("expanding loads children once; a capped list ends in an honest placeholder")
+    void lazyLoadAndCap() {
+        DefaultMutableTreeNode first = dom.node(4);
+        dom.children("{\"d\":4,\"k\":[" + el(10, "span", 0) + "],\"m\":1500}");
+        assertThat(LiveDom.needsChildren(first)).isFalse();
+        assertThat(first.getChildCount()).isEqualTo(2);
+        assertThat(dom(((DefaultMutableTreeNode) first.getChildAt(1))).label()).isEqualTo("…1500 more");
+        assertThat(LiveDom.pathOf(dom.node(10))).containsExactly(1, 0, 0);
+    }
+
+    @Test
+    @DisplayName("a node moved between loaded parents keeps its subtree")
+    void movesKeepSubtrees() {
+        dom.children("{\"d\":4,\"k\":[" + el(10, "span", 0) + "],\"m\":0}");
+        DefaultMutableTreeNode first = dom.node(4);
+        // div#4 moves from body into head
+        dom.children("{\"d\":2,\"k\":[],\"m\":0}");
+        dom.apply("{\"ops\":["
+                + "{\"o\":\"c\",\"d\":2,\"k\":[" + el(4, "div", 1) + "],\"m\":0},"
+                + "{\"o\":\"c\",\"d\":3,\"k\":[" + el(5, "div", 0) + "],\"m\":0}]}");
+        assertThat(dom.node(4)).isSameAs(first);
+        assertThat(LiveDom.pathOf(first)).containsExactly(0, 0);
+        assertThat(dom.node(10)).as("the moved subtree came along").isNotNull();
+        assertThat(LiveDom.pathOf(dom.node(10))).containsExactly(0, 0, 0);
+    }
+
+    @Test
+    @DisplayName("reset batches reload; garbage and non-watch answers are harmless")
+    void resetAndGarbage() {
+        int[] resets = {0};
+        dom.setResetListener(() -> resets[0]++);
+        dom.apply("{\"reset\":true}");
+        assertThat(resets[0]).isEqualTo(1);
+
+        dom.apply("not json");
+        dom.apply("{\"ops\":[42, \"x\", {\"o\":\"c\",\"d\":999,\"k\":[]}]}");
+        assertThat(dom.size()).isEqualTo(5);
+        assertThat(dom.reset("unwatched")).as("the snapshot fallback's cue").isFalse();
+        assertThat(dom.node(1)).as("a refused reset leaves the tree alone").isNotNull();
+    }
+}
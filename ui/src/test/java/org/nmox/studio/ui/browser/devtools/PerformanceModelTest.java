@@ -0,0 +1,120 @@
+package org.nmox.studio.ui.browser.devtools;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.nmox.studio.ui.browser.devtools.PerformanceModel.Kind;
+import org.nmox.studio.ui.browser.devtools.PerformanceModel.Summary;
+import org.nmox.studio.ui.browser.fx.PerfTimeline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The Performance tab's laws: headline numbers come from the right
+ * entries (TTFB from navigation, FCP from paint, blocking time from
+ * long tasks past 50ms after FCP), survive ring eviction, reset per
+ * document, reach the rack only when they change — and garbage from the
+ * page is a no-row, never a throw.
+ */
+class PerformanceModelTest {
+
+    private static String row(String kind, String name, double start, double dur) {
+        return "{\"k\":\"" + kind + "\",\"n\":\"" + name + "\",\"s\":" + start + ",\"d\":" + dur + "}";
+    }
+
+    private static String batch(boolean reset, String... rows) {
+        return "{" + (reset ? "\"r\":true,\"u\":\"http://localhost:5173/\"," : "")
+                + "\"e\":[" + String.join(",", rows) + "]}";
+    }
+
+    @Test
+    @DisplayName("TTFB, FCP and blocking time come from their entries; only post-FCP long tasks block")
+    void summaryFromEntries() {
+        PerformanceModel model = new PerformanceModel();
+        model.addBatch(batch(true,
+                "{\"k\":\"navigation\",\"n\":\"http://localhost:5173/\",\"s\":0,\"d\":900,\"v\":42.4}",
+                row("longtask", "self", 50, 120)));             // before FCP: not counted
+        assertThat(model.blockingFromStart()).as("no paint yet").isTrue();
+        assertThat(model.summary().totalBlockingMillis()).isEqualTo(70);
+
+        model.addBatch(batch(false,
+                row("paint", "first-paint", 180, 0),
+                row("paint", "first-contentful-paint", 200, 0),
+                row("longtask", "self", 300, 80),                // 30 blocking
+                row("longtask", "self", 500, 40),                // under 50: none
+                "{\"k\":\"layout-shift\",\"n\":\"\",\"s\":600,\"d\":0,\"v\":0.05}"));
+
+        Summary s = model.summary();
+        assertThat(s.url()).isEqualTo("http://localhost:5173/");
+        assertThat(s.ttfbMillis()).isEqualTo(42.4);
+        assertThat(s.fcpMillis()).isEqualTo(200);
+        assertThat(s.totalBlockingMillis()).isEqualTo(30);
+        assertThat(s.longTasks()).isEqualTo(3);
+        assertThat(s.layoutShift()).isEqualTo(0.05);
+        assertThat(s.toJson()).isEqualTo("{\"url\":\"http://localhost:5173/\",\"ttfb\":42,"
+                + "\"fcp\":200,\"tbt\":30,\"cls\":0.050,\"longTasks\":3}");
+    }
+
+    @Test
+    @DisplayName("the ring is bounded and counts drops, but eviction never moves the summary")
+    void boundedRing() {
+        PerformanceModel model = new PerformanceModel();
+        model.addBatch(batch(true, row("longtask", "self", 10, 150)));
+        List<String> rows = new ArrayList<>();
+        for (int i = 0; i < PerformanceModel.CAP + 5; i++) {
+            rows.add(row("resource", "/asset" + i + ".js", i, 3));
+        }
+        model.addBatch(batch(false, rows.toArray(String[]::new)));
+        assertThat(model.entries()).hasSize(PerformanceModel.CAP);
+        assertThat(model.droppedCount()).isEqualTo(6);
+        assertThat(model.entries()).noneMatch(e -> e.kind() == Kind.LONGTASK);
+        assertThat(model.summary().totalBlockingMillis()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("a new document resets; the summary listener hears changes only")
+    void resetAndSummaryListener() {
+        PerformanceModel model = new PerformanceModel();
+        List<Summary> heard = new ArrayList<>();
+        model.setSummaryListener(heard::add);
+        model.addBatch(batch(true, row("paint", "first-contentful-paint", 300, 0)));
+        model.addBatch(batch(false, row("resource", "/a.css", 10, 5)));
+        assertThat(heard).as("a resource row moves no headline").hasSize(1);
+
+        model.addBatch(batch(true));
+        assertThat(model.entries()).isEmpty();
+        assertThat(model.summary().fcpMillis()).isEqualTo(PerformanceModel.UNKNOWN);
+        assertThat(heard).hasSize(2);
+        assertThat(model.summary().toJson()).doesNotContain("fcp").doesNotContain("cls");
+    }
+
+    @Test
+    @DisplayName("garbage batches and malformed rows are skipped, long names capped")
+    void hostileInput() {
+        PerformanceModel model = new PerformanceModel();
+        model.addBatch("not json");
+        model.addBatch("[1,2]");
+        model.addBatch("{\"e\":[42,\"x\",{\"k\":\"gc\",\"s\":1,\"d\":1},{\"k\":\"paint\",\"s\":-4,\"d\":0},"
+                + row("resource", "u".repeat(5000), 1, 2) + "]}");
+        assertThat(model.entries()).hasSize(1);
+        assertThat(model.entries().get(0).name()).hasSize(PerformanceModel.NAME_CAP);
+    }
+
+    @Test
+    @DisplayName("the timeline stacks overlapping entries of a lane into rows, flame style")
+    void timelineLayout() {
+        PerformanceModel model = new PerformanceModel();
+        model.addBatch(batch(true,
+                row("resource", "/a", 0, 100),
+                row("resource", "/b", 20, 30),
+                row("resource", "/c", 60, 10),
+                row("resource", "/d", 100, 5),
+                row("longtask", "self", 10, 60)));
+        List<PerfTimeline.Bar> bars = PerfTimeline.layout(model.entries());
+        assertThat(bars).extracting(b -> b.entry().name() + "@" + b.row())
+                .containsExactly("/a@0", "self@0", "/b@1", "/c@1", "/d@0");
+        assertThat(bars).filteredOn(b -> b.entry().kind() == Kind.LONGTASK)
+                .extracting(PerfTimeline.Bar::lane).containsExactly(Kind.LONGTASK.ordinal());
+    }
+}
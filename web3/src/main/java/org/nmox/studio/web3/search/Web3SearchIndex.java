@@ -7,20 +7,21 @@ import org.nmox.studio.web3.engine.ContractSizeCheck;
 import org.nmox.studio.web3.engine.DisplayValues;
 import org.nmox.studio.web3.model.ContractArtifact;
 import org.nmox.studio.web3.model.DeploymentRecord;
-import org.nmox.studio.core.search.SearchTerms;
+import org.nmox.studio.core.search.SearchIndex;
 
 /**
  * The pure matcher behind Contract Studio's Quick Search (⌘I) reach:
  * contracts match on name and label with their EIP-170 headroom
  * ("Counter — contract, 4.9% of size limit"); deployments match on
  * contract name, address, or network and label as address-book lines
- * ("Counter @ 0x5FbDB231…0aa3 — Local (anvil)"). Case-insensitive
- * substring, contract hits before deployment hits, input order kept
- * within each group.
+ * ("Counter @ 0x5FbDB231…0aa3 — Local (anvil)"). Contract hits before
+ * deployment hits, input order kept within each group.
  *
  * <p>Deliberately UI-free — the QuickSearch SPI provider wraps this
  * class (the DbSearchIndex idiom); instances are immutable snapshots,
- * safe to share across threads.
+ * safe to share across threads. Hit text goes into a
+ * {@link SearchIndex} once, when the snapshot is built, and each address
+ * into its mid-word trie, so a pasted hex fragment is a trie walk too.
  */
 public final class Web3SearchIndex {
 
@@ -39,8 +40,9 @@ public final class Web3SearchIndex {
             DeploymentRecord deployment) {
     }
 
-    private final List<ContractArtifact> artifacts;
-    private final List<DeploymentRecord> deployments;
+    /** Every possible hit, in hit order; the index is keyed by position, so equal hits stay two. */
+    private final List<Hit> hits = new ArrayList<>();
+    private final SearchIndex<Integer> index = new SearchIndex<>();
 
     /**
      * @param artifacts   the scanned artifacts, in display order
@@ -48,37 +50,39 @@ public final class Web3SearchIndex {
      */
     public Web3SearchIndex(List<ContractArtifact> artifacts,
             List<DeploymentRecord> deployments) {
-        this.artifacts = artifacts == null ? List.of() : List.copyOf(artifacts);
-        this.deployments = deployments == null ? List.of() : List.copyOf(deployments);
+        // insertion order is hit order: every contract, then every deployment
+        for (ContractArtifact artifact : artifacts == null ? List.<ContractArtifact>of() : artifacts) {
+            add(new Hit(Kind.CONTRACT, contractLabel(artifact), artifact.name(), null),
+                    artifact.name());
+        }
+        for (DeploymentRecord deployment : deployments == null ? List.<DeploymentRecord>of() : deployments) {
+            add(new Hit(Kind.DEPLOYMENT, deploymentLabel(deployment),
+                    deployment.contractName(), deployment),
+                    deployment.contractName(), deployment.address(), deployment.networkName());
+        }
     }
 
     /**
-     * Term-based matching via {@code SearchTerms} (v1.215.0); a pasted
-     * address fragment of three-plus characters still lands mid-word.
-     * Blank queries match nothing. Contract hits first, then deployment
-     * hits.
+     * Term-based matching with {@code SearchTerms}' rule (v1.215.0); a
+     * pasted address fragment of three-plus characters still lands
+     * mid-word. Blank queries match nothing. A deployment's terms may
+     * spread over its contract, address and network ("counter anvil").
+     * Contract hits first, then deployment hits.
      */
     public List<Hit> matches(String query) {
-        List<Hit> hits = new ArrayList<>();
         if (query == null || query.isBlank()) {
-            return hits;
-        }
-        String needle = query.trim();
-        for (ContractArtifact artifact : artifacts) {
-            if (contains(artifact.name(), needle)) {
-                hits.add(new Hit(Kind.CONTRACT, contractLabel(artifact),
-                        artifact.name(), null));
-            }
+            return new ArrayList<>();
         }
-        for (DeploymentRecord deployment : deployments) {
-            if (contains(deployment.contractName(), needle)
-                    || contains(deployment.address(), needle)
-                    || contains(deployment.networkName(), needle)) {
-                hits.add(new Hit(Kind.DEPLOYMENT, deploymentLabel(deployment),
-                        deployment.contractName(), deployment));
-            }
+        List<Hit> found = new ArrayList<>();
+        for (int i : index.matches(query.trim())) {
+            found.add(hits.get(i));
         }
-        return hits;
+        return found;
+    }
+
+    private void add(Hit hit, String... haystacks) {
+        index.put(hits.size(), haystacks);
+        hits.add(hit);
     }
 
     /** "Counter — contract, 4.9% of size limit" (or "… OVER the size limit (101.2%)"). */
@@ -97,13 +101,4 @@ public final class Web3SearchIndex {
                 + DisplayValues.shortAddress(deployment.address())
                 + " — " + deployment.networkName();
     }
-
-    /**
-     * v1.215.0: term-based. A pasted address fragment still matches —
-     * terms of three characters or more may land mid-word, which is
-     * what keeps hex search working.
-     */
-    private static boolean contains(String haystack, String needle) {
-        return haystack != null && SearchTerms.matches(needle, haystack);
-    }
 }